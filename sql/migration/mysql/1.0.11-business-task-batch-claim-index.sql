@@ -0,0 +1,13 @@
+-- Voglander 1.0.11 business-task batch claim index migration (MySQL 8)
+-- Non-destructive and repeatable. No DROP statements are permitted here.
+-- A batch claim stamps one claim token on every row it wins and reads the batch back by that token.
+
+SET @ddl := (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE `tb_biz_task_execution` ADD KEY `idx_biz_task_execution_claim` (`claim_token`)',
+    'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'tb_biz_task_execution'
+      AND index_name = 'idx_biz_task_execution_claim');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
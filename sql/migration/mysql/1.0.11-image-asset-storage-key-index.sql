@@ -0,0 +1,13 @@
+-- Voglander 1.0.11 image reconciliation keyset index migration (MySQL 8)
+-- Non-destructive and repeatable. No DROP statements are permitted here.
+-- tb_image_asset is utf8mb4_bin, so index order is the byte order the reconciliation merge-join relies on.
+
+SET @ddl := (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE `tb_image_asset` ADD KEY `idx_image_asset_storage_key` (`storage_key`,`status`)',
+    'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'tb_image_asset'
+      AND index_name = 'idx_image_asset_storage_key');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,15 @@
+-- Voglander 1.0.11 media flow rollup migration (MySQL 8)
+-- Non-destructive and repeatable. No DROP statements are permitted here.
+
+CREATE TABLE IF NOT EXISTS `tb_media_flow_rollup` (
+    `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    `granularity` VARCHAR(8) NOT NULL, `bucket_start` DATETIME NOT NULL,
+    `dimension` VARCHAR(16) NOT NULL, `dim_key` VARCHAR(160) NOT NULL,
+    `total_bytes` BIGINT NOT NULL DEFAULT 0, `duration_sec` BIGINT NOT NULL DEFAULT 0,
+    `player_count` BIGINT NOT NULL DEFAULT 0, `report_count` BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_media_flow_rollup_bucket` (`granularity`,`dimension`,`dim_key`,`bucket_start`),
+    KEY `idx_media_flow_rollup_window` (`granularity`,`dimension`,`bucket_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin;
@@ -0,0 +1,16 @@
+-- Voglander 1.0.11 media record segment index migration (MySQL 8)
+-- Non-destructive and repeatable. No DROP statements are permitted here.
+
+CREATE TABLE IF NOT EXISTS `tb_media_record_segment` (
+    `id` BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    `media_server_id` VARCHAR(64) NOT NULL, `app` VARCHAR(64) NOT NULL, `stream` VARCHAR(128) NOT NULL,
+    `device_id` VARCHAR(64) DEFAULT NULL, `channel_id` VARCHAR(64) DEFAULT NULL,
+    `file_path` VARCHAR(512) NOT NULL, `url` VARCHAR(512) DEFAULT NULL, `file_size` BIGINT NOT NULL DEFAULT 0,
+    `start_time` BIGINT NOT NULL, `end_time` BIGINT NOT NULL,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_media_record_segment_file` (`media_server_id`,`file_path`),
+    KEY `idx_media_record_segment_channel` (`device_id`,`channel_id`,`start_time`),
+    KEY `idx_media_record_segment_stream` (`stream`,`start_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin;
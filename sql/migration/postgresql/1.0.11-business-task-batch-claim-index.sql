@@ -0,0 +1,4 @@
+-- Voglander 1.0.11 business-task batch claim index migration (PostgreSQL)
+-- Non-destructive and repeatable. No MySQL or SQLite syntax is used.
+
+CREATE INDEX IF NOT EXISTS idx_biz_task_execution_claim ON tb_biz_task_execution (claim_token);
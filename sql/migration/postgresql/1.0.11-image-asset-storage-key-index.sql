@@ -0,0 +1,5 @@
+-- Voglander 1.0.11 image reconciliation keyset index migration (PostgreSQL)
+-- Non-destructive and repeatable. No MySQL or SQLite syntax is used.
+-- COLLATE "C" matches the byte order the reconciliation merge-join walks storage keys in.
+
+CREATE INDEX IF NOT EXISTS idx_image_asset_storage_key ON tb_image_asset (storage_key COLLATE "C", status);
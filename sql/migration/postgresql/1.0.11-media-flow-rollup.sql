@@ -0,0 +1,13 @@
+-- Voglander 1.0.11 media flow rollup migration (PostgreSQL)
+-- Non-destructive and repeatable. No MySQL or SQLite syntax is used.
+
+CREATE TABLE IF NOT EXISTS tb_media_flow_rollup (
+    id BIGSERIAL PRIMARY KEY, create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    granularity VARCHAR(8) NOT NULL, bucket_start TIMESTAMP NOT NULL,
+    dimension VARCHAR(16) NOT NULL, dim_key VARCHAR(160) NOT NULL,
+    total_bytes BIGINT NOT NULL DEFAULT 0, duration_sec BIGINT NOT NULL DEFAULT 0,
+    player_count BIGINT NOT NULL DEFAULT 0, report_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_media_flow_rollup_bucket UNIQUE (granularity, dimension, dim_key, bucket_start)
+);
+CREATE INDEX IF NOT EXISTS idx_media_flow_rollup_window ON tb_media_flow_rollup (granularity, dimension, bucket_start);
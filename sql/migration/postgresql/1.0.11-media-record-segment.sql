@@ -0,0 +1,14 @@
+-- Voglander 1.0.11 media record segment index migration (PostgreSQL)
+-- Non-destructive and repeatable. No MySQL or SQLite syntax is used.
+
+CREATE TABLE IF NOT EXISTS tb_media_record_segment (
+    id BIGSERIAL PRIMARY KEY, create_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    media_server_id VARCHAR(64) NOT NULL, app VARCHAR(64) NOT NULL, stream VARCHAR(128) NOT NULL,
+    device_id VARCHAR(64) DEFAULT NULL, channel_id VARCHAR(64) DEFAULT NULL,
+    file_path VARCHAR(512) NOT NULL, url VARCHAR(512) DEFAULT NULL, file_size BIGINT NOT NULL DEFAULT 0,
+    start_time BIGINT NOT NULL, end_time BIGINT NOT NULL,
+    CONSTRAINT uk_media_record_segment_file UNIQUE (media_server_id, file_path)
+);
+CREATE INDEX IF NOT EXISTS idx_media_record_segment_channel ON tb_media_record_segment (device_id, channel_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_media_record_segment_stream ON tb_media_record_segment (stream, start_time);
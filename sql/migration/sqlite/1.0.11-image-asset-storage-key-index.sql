@@ -0,0 +1,4 @@
+-- Voglander 1.0.11 image reconciliation keyset index migration (SQLite)
+-- Non-destructive and repeatable.
+
+CREATE INDEX IF NOT EXISTS idx_image_asset_storage_key ON tb_image_asset (storage_key, status);
@@ -0,0 +1,13 @@
+-- Voglander 1.0.11 media flow rollup migration (SQLite)
+-- Non-destructive and repeatable. Upsert requires SQLite 3.24+.
+
+CREATE TABLE IF NOT EXISTS tb_media_flow_rollup (
+    id INTEGER PRIMARY KEY AUTOINCREMENT, create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    granularity VARCHAR(8) NOT NULL, bucket_start DATETIME NOT NULL,
+    dimension VARCHAR(16) NOT NULL, dim_key VARCHAR(160) NOT NULL,
+    total_bytes INTEGER NOT NULL DEFAULT 0, duration_sec INTEGER NOT NULL DEFAULT 0,
+    player_count INTEGER NOT NULL DEFAULT 0, report_count INTEGER NOT NULL DEFAULT 0
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_media_flow_rollup_bucket ON tb_media_flow_rollup (granularity, dimension, dim_key, bucket_start);
+CREATE INDEX IF NOT EXISTS idx_media_flow_rollup_window ON tb_media_flow_rollup (granularity, dimension, bucket_start);
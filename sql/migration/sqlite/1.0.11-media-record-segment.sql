@@ -0,0 +1,14 @@
+-- Voglander 1.0.11 media record segment index migration (SQLite)
+-- Non-destructive and repeatable.
+
+CREATE TABLE IF NOT EXISTS tb_media_record_segment (
+    id INTEGER PRIMARY KEY AUTOINCREMENT, create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    media_server_id VARCHAR(64) NOT NULL, app VARCHAR(64) NOT NULL, stream VARCHAR(128) NOT NULL,
+    device_id VARCHAR(64), channel_id VARCHAR(64),
+    file_path VARCHAR(512) NOT NULL, url VARCHAR(512), file_size INTEGER NOT NULL DEFAULT 0,
+    start_time INTEGER NOT NULL, end_time INTEGER NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_media_record_segment_file ON tb_media_record_segment (media_server_id, file_path);
+CREATE INDEX IF NOT EXISTS idx_media_record_segment_channel ON tb_media_record_segment (device_id, channel_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_media_record_segment_stream ON tb_media_record_segment (stream, start_time);
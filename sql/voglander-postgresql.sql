@@ -553,6 +553,53 @@ CREATE TABLE tb_media_session
     UNIQUE (stream_id),
 );
 
+-- ----------------------------
+-- Table structure for tb_media_flow_rollup
+-- ----------------------------
+DROP TABLE IF EXISTS tb_media_flow_rollup;
+CREATE TABLE tb_media_flow_rollup
+(
+    id           BIGSERIAL,
+    create_time  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    granularity  VARCHAR(8)   NOT NULL,
+    bucket_start TIMESTAMP    NOT NULL,
+    dimension    VARCHAR(16)  NOT NULL,
+    dim_key      VARCHAR(160) NOT NULL,
+    total_bytes  BIGINT       NOT NULL DEFAULT 0,
+    duration_sec BIGINT       NOT NULL DEFAULT 0,
+    player_count BIGINT       NOT NULL DEFAULT 0,
+    report_count BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_media_flow_rollup_bucket UNIQUE (granularity, dimension, dim_key, bucket_start)
+);
+CREATE INDEX idx_media_flow_rollup_window ON tb_media_flow_rollup (granularity, dimension, bucket_start);
+
+-- ----------------------------
+-- Table structure for tb_media_record_segment
+-- ----------------------------
+DROP TABLE IF EXISTS tb_media_record_segment;
+CREATE TABLE tb_media_record_segment
+(
+    id              BIGSERIAL,
+    create_time     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    media_server_id VARCHAR(64)  NOT NULL,
+    app             VARCHAR(64)  NOT NULL,
+    stream          VARCHAR(128) NOT NULL,
+    device_id       VARCHAR(64)           DEFAULT NULL,
+    channel_id      VARCHAR(64)           DEFAULT NULL,
+    file_path       VARCHAR(512) NOT NULL,
+    url             VARCHAR(512)          DEFAULT NULL,
+    file_size       BIGINT       NOT NULL DEFAULT 0,
+    start_time      BIGINT       NOT NULL,
+    end_time        BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_media_record_segment_file UNIQUE (media_server_id, file_path)
+);
+CREATE INDEX idx_media_record_segment_channel ON tb_media_record_segment (device_id, channel_id, start_time);
+CREATE INDEX idx_media_record_segment_stream ON tb_media_record_segment (stream, start_time);
+
 -- ----------------------------
 -- Table structure for tb_alarm
 -- ----------------------------
@@ -931,6 +978,7 @@ CREATE TABLE tb_biz_task_execution
 CREATE INDEX idx_biz_task_execution_task ON tb_biz_task_execution (task_id, planned_at);
 CREATE INDEX idx_biz_task_execution_pending ON tb_biz_task_execution (state, next_attempt_time);
 CREATE INDEX idx_biz_task_execution_lease ON tb_biz_task_execution (state, lease_until);
+CREATE INDEX idx_biz_task_execution_claim ON tb_biz_task_execution (claim_token);
 CREATE INDEX idx_biz_task_execution_retry_origin ON tb_biz_task_execution (retry_origin_execution_id);
 
 CREATE TABLE tb_biz_task_event
@@ -1004,6 +1052,8 @@ CREATE INDEX idx_image_asset_status_created ON tb_image_asset (status, create_ti
 CREATE INDEX idx_image_asset_captured ON tb_image_asset (captured_at, asset_id);
 CREATE INDEX idx_image_asset_owner ON tb_image_asset (owner_type, owner_id, create_time);
 CREATE INDEX idx_image_asset_checksum ON tb_image_asset (checksum);
+-- 对账按 storage_key 字节序 keyset 遍历，需与 ORDER BY ... COLLATE "C" 一致
+CREATE INDEX idx_image_asset_storage_key ON tb_image_asset (storage_key COLLATE "C", status);
 
 DROP TABLE IF EXISTS tb_image_asset_source;
 CREATE TABLE tb_image_asset_source
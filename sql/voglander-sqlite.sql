@@ -141,6 +141,53 @@ CREATE INDEX idx_media_session_status ON tb_media_session (status);
 CREATE INDEX idx_media_session_status_node ON tb_media_session (status, node_server_id);
 CREATE INDEX idx_media_session_device_channel ON tb_media_session (device_id, channel_id, status);
 
+-- ----------------------------
+-- Table structure for tb_media_flow_rollup
+-- ----------------------------
+DROP TABLE IF EXISTS tb_media_flow_rollup;
+CREATE TABLE tb_media_flow_rollup
+(
+    id           INTEGER PRIMARY KEY AUTOINCREMENT,
+    create_time  DATETIME     DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    update_time  DATETIME     DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    granularity  VARCHAR(8)   NOT NULL,
+    bucket_start DATETIME     NOT NULL,
+    dimension    VARCHAR(16)  NOT NULL,
+    dim_key      VARCHAR(160) NOT NULL,
+    total_bytes  INTEGER      NOT NULL DEFAULT 0,
+    duration_sec INTEGER      NOT NULL DEFAULT 0,
+    player_count INTEGER      NOT NULL DEFAULT 0,
+    report_count INTEGER      NOT NULL DEFAULT 0
+);
+
+CREATE UNIQUE INDEX uk_media_flow_rollup_bucket ON tb_media_flow_rollup (granularity, dimension, dim_key, bucket_start);
+CREATE INDEX idx_media_flow_rollup_window ON tb_media_flow_rollup (granularity, dimension, bucket_start);
+
+-- ----------------------------
+-- Table structure for tb_media_record_segment
+-- ----------------------------
+DROP TABLE IF EXISTS tb_media_record_segment;
+CREATE TABLE tb_media_record_segment
+(
+    id              INTEGER PRIMARY KEY AUTOINCREMENT,
+    create_time     DATETIME     DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    update_time     DATETIME     DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    media_server_id VARCHAR(64)  NOT NULL,
+    app             VARCHAR(64)  NOT NULL,
+    stream          VARCHAR(128) NOT NULL,
+    device_id       VARCHAR(64),
+    channel_id      VARCHAR(64),
+    file_path       VARCHAR(512) NOT NULL,
+    url             VARCHAR(512),
+    file_size       INTEGER      NOT NULL DEFAULT 0,
+    start_time      INTEGER      NOT NULL,
+    end_time        INTEGER      NOT NULL
+);
+
+CREATE UNIQUE INDEX uk_media_record_segment_file ON tb_media_record_segment (media_server_id, file_path);
+CREATE INDEX idx_media_record_segment_channel ON tb_media_record_segment (device_id, channel_id, start_time);
+CREATE INDEX idx_media_record_segment_stream ON tb_media_record_segment (stream, start_time);
+
 -- ----------------------------
 -- Table structure for tb_alarm
 -- ----------------------------
@@ -874,6 +921,7 @@ CREATE UNIQUE INDEX uk_biz_task_execution_plan ON tb_biz_task_execution(task_id,
 CREATE INDEX idx_biz_task_execution_task ON tb_biz_task_execution(task_id,planned_at);
 CREATE INDEX idx_biz_task_execution_pending ON tb_biz_task_execution(state,next_attempt_time);
 CREATE INDEX idx_biz_task_execution_lease ON tb_biz_task_execution(state,lease_until);
+CREATE INDEX idx_biz_task_execution_claim ON tb_biz_task_execution(claim_token);
 CREATE INDEX idx_biz_task_execution_retry_origin ON tb_biz_task_execution(retry_origin_execution_id);
 
 DROP TABLE IF EXISTS tb_biz_task;
@@ -953,6 +1001,7 @@ CREATE INDEX idx_image_asset_status_created ON tb_image_asset (status, create_ti
 CREATE INDEX idx_image_asset_captured ON tb_image_asset (captured_at, asset_id);
 CREATE INDEX idx_image_asset_owner ON tb_image_asset (owner_type, owner_id, create_time);
 CREATE INDEX idx_image_asset_checksum ON tb_image_asset (checksum);
+CREATE INDEX idx_image_asset_storage_key ON tb_image_asset (storage_key, status);
 
 DROP TABLE IF EXISTS tb_image_asset_source;
 CREATE TABLE tb_image_asset_source
@@ -642,6 +642,59 @@ CREATE TABLE `tb_media_session`
   DEFAULT CHARSET = utf8mb4
   COLLATE = utf8mb4_bin COMMENT ='媒体会话表';
 
+-- ----------------------------
+-- Table structure for tb_media_flow_rollup
+-- ----------------------------
+DROP TABLE IF EXISTS `tb_media_flow_rollup`;
+CREATE TABLE `tb_media_flow_rollup`
+(
+    `id`           BIGINT UNSIGNED                                       NOT NULL AUTO_INCREMENT,
+    `create_time`  DATETIME                                              NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time`  DATETIME                                              NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '修改时间',
+    `granularity`  VARCHAR(8) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin  NOT NULL COMMENT '汇总粒度 MINUTE/HOUR',
+    `bucket_start` DATETIME                                              NOT NULL COMMENT '时间桶起点',
+    `dimension`    VARCHAR(16) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL COMMENT '汇总维度 DEVICE/CHANNEL/NODE',
+    `dim_key`      VARCHAR(160) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL COMMENT '维度键 deviceId / deviceId:channelId / mediaServerId',
+    `total_bytes`  BIGINT                                                NOT NULL DEFAULT 0 COMMENT '累计字节数',
+    `duration_sec` BIGINT                                                NOT NULL DEFAULT 0 COMMENT '累计会话时长（秒）',
+    `player_count` BIGINT                                                NOT NULL DEFAULT 0 COMMENT '结束的播放会话数',
+    `report_count` BIGINT                                                NOT NULL DEFAULT 0 COMMENT '流量上报次数',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_media_flow_rollup_bucket` (`granularity`, `dimension`, `dim_key`, `bucket_start`) USING BTREE,
+    KEY `idx_media_flow_rollup_window` (`granularity`, `dimension`, `bucket_start`) USING BTREE
+) ENGINE = InnoDB
+  AUTO_INCREMENT = 1
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_bin COMMENT ='媒体流量时间桶汇总表';
+
+-- ----------------------------
+-- Table structure for tb_media_record_segment
+-- ----------------------------
+DROP TABLE IF EXISTS `tb_media_record_segment`;
+CREATE TABLE `tb_media_record_segment`
+(
+    `id`              BIGINT UNSIGNED                                       NOT NULL AUTO_INCREMENT,
+    `create_time`     DATETIME                                              NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time`     DATETIME                                              NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '修改时间',
+    `media_server_id` VARCHAR(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL COMMENT '媒体节点 serverId',
+    `app`             VARCHAR(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL COMMENT 'ZLM 应用名',
+    `stream`          VARCHAR(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL COMMENT 'ZLM 流名',
+    `device_id`       VARCHAR(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin          DEFAULT NULL COMMENT '设备ID（GB 流解析）',
+    `channel_id`      VARCHAR(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin          DEFAULT NULL COMMENT '通道ID（GB 流解析）',
+    `file_path`       VARCHAR(512) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL COMMENT '节点上的文件绝对路径',
+    `url`             VARCHAR(512) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin         DEFAULT NULL COMMENT '节点 HTTP 下载相对路径',
+    `file_size`       BIGINT                                                NOT NULL DEFAULT 0 COMMENT '文件字节数',
+    `start_time`      BIGINT                                                NOT NULL COMMENT '片段开始（毫秒时间戳）',
+    `end_time`        BIGINT                                                NOT NULL COMMENT '片段结束（毫秒时间戳）',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_media_record_segment_file` (`media_server_id`, `file_path`) USING BTREE,
+    KEY `idx_media_record_segment_channel` (`device_id`, `channel_id`, `start_time`) USING BTREE,
+    KEY `idx_media_record_segment_stream` (`stream`, `start_time`) USING BTREE
+) ENGINE = InnoDB
+  AUTO_INCREMENT = 1
+  DEFAULT CHARSET = utf8mb4
+  COLLATE = utf8mb4_bin COMMENT ='MP4 录像片段索引表';
+
 -- ----------------------------
 -- Table structure for tb_alarm
 -- ----------------------------
@@ -1064,6 +1117,7 @@ CREATE TABLE `tb_biz_task_execution`
     KEY `idx_biz_task_execution_task` (`task_id`, `planned_at`),
     KEY `idx_biz_task_execution_pending` (`state`, `next_attempt_time`),
     KEY `idx_biz_task_execution_lease` (`state`, `lease_until`),
+    KEY `idx_biz_task_execution_claim` (`claim_token`),
     KEY `idx_biz_task_execution_retry_origin` (`retry_origin_execution_id`)
 ) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_bin COMMENT = '通用业务任务执行';
 
@@ -1140,7 +1194,8 @@ CREATE TABLE `tb_image_asset`
     KEY `idx_image_asset_status_created` (`status`, `create_time`),
     KEY `idx_image_asset_captured` (`captured_at`, `asset_id`),
     KEY `idx_image_asset_owner` (`owner_type`, `owner_id`, `create_time`),
-    KEY `idx_image_asset_checksum` (`checksum`)
+    KEY `idx_image_asset_checksum` (`checksum`),
+    KEY `idx_image_asset_storage_key` (`storage_key`, `status`)
 ) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_bin;
 
 DROP TABLE IF EXISTS `tb_image_asset_source`;
@@ -34,12 +34,21 @@ public final class DeviceEvent {
     private final Map<String, Object> payload;
     /** 产生事件的网关节点 ID。 */
     private final String              nodeId;
+    /** group/name 的枚举编码，构造时解析一次，供热路径 switch。 */
+    private final DeviceEventType     eventType;
 
     public DeviceEvent(String protocol, String group, String name, String deviceId,
+        String correlationId, long timestampMs, Map<String, Object> payload, String nodeId) {
+        this(protocol, group, name, DeviceEventType.of(group, name), deviceId, correlationId, timestampMs,
+            payload, nodeId);
+    }
+
+    private DeviceEvent(String protocol, String group, String name, DeviceEventType eventType, String deviceId,
         String correlationId, long timestampMs, Map<String, Object> payload, String nodeId) {
         this.protocol = protocol;
         this.group = group;
         this.name = name;
+        this.eventType = eventType;
         this.deviceId = deviceId;
         this.correlationId = correlationId;
         this.timestampMs = timestampMs;
@@ -47,6 +56,20 @@ public final class DeviceEvent {
         this.nodeId = nodeId;
     }
 
+    /**
+     * 类型化事件：group/name 取自枚举常量（不产生新字符串）。
+     *
+     * @param eventType 已收录的事件类型，不可为 {@link DeviceEventType#UNKNOWN}
+     */
+    public static DeviceEvent typed(String protocol, DeviceEventType eventType, String deviceId,
+        String correlationId, long timestampMs, Map<String, Object> payload, String nodeId) {
+        if (eventType == null || eventType == DeviceEventType.UNKNOWN) {
+            throw new IllegalArgumentException("typed event requires a known eventType");
+        }
+        return new DeviceEvent(protocol, eventType.group(), eventType.eventName(), eventType, deviceId,
+            correlationId, timestampMs, payload, nodeId);
+    }
+
     public String protocol() {
         return protocol;
     }
@@ -79,6 +102,10 @@ public final class DeviceEvent {
         return nodeId;
     }
 
+    public DeviceEventType eventType() {
+        return eventType;
+    }
+
     /**
      * 三段式类型，如 {@code "gb28181.Lifecycle.Register"}。
      */
@@ -87,7 +114,7 @@ public final class DeviceEvent {
     }
 
     /**
-     * 两段式 group.name，如 {@code "Lifecycle.Register"}，供 handler 内二次路由。
+     * 两段式 group.name，如 {@code "Lifecycle.Register"}。热路径请用 {@link #eventType()}，本方法每次拼接新字符串。
      */
     public String groupName() {
         return group + "." + name;
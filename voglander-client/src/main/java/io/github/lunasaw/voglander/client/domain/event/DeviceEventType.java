@@ -0,0 +1,125 @@
+package io.github.lunasaw.voglander.client.domain.event;
+
+/**
+ * 归一化事件类型编码（group + name），供热路径按枚举分发。
+ * <p>
+ * 入站适配器在构造 {@link DeviceEvent} 时解析一次，下游 handler 直接 {@code switch} 枚举，
+ * 不再每条事件拼接 {@code group + "." + name} 字符串。未收录的组合统一归为 {@link #UNKNOWN}，
+ * 仍可通过 {@link DeviceEvent#group()}/{@link DeviceEvent#name()} 读取原始值。
+ * </p>
+ *
+ * @author luna
+ */
+public enum DeviceEventType {
+
+    // ========== Lifecycle ==========
+    LIFECYCLE_REGISTER("Lifecycle", "Register"),
+    LIFECYCLE_ONLINE("Lifecycle", "Online"),
+    LIFECYCLE_OFFLINE("Lifecycle", "Offline"),
+    LIFECYCLE_REMOTE_ADDRESS_CHANGED("Lifecycle", "RemoteAddressChanged"),
+    LIFECYCLE_REGISTER_CHALLENGE("Lifecycle", "RegisterChallenge"),
+
+    // ========== Notify ==========
+    NOTIFY_KEEPALIVE("Notify", "Keepalive"),
+    NOTIFY_ALARM("Notify", "Alarm"),
+    NOTIFY_MOBILE_POSITION("Notify", "MobilePosition"),
+    NOTIFY_MEDIA_STATUS("Notify", "MediaStatus"),
+    NOTIFY_UPGRADE_RESULT("Notify", "UpgradeResult"),
+    NOTIFY_SNAPSHOT_FINISHED("Notify", "SnapShotFinished"),
+    NOTIFY_VIDEO_UPLOAD("Notify", "VideoUpload"),
+
+    // ========== Response ==========
+    RESPONSE_CATALOG("Response", "Catalog"),
+    RESPONSE_DEVICE_INFO("Response", "DeviceInfo"),
+    RESPONSE_DEVICE_STATUS("Response", "DeviceStatus"),
+    RESPONSE_PTZ_POSITION("Response", "PtzPosition"),
+    RESPONSE_PRESET_QUERY("Response", "PresetQuery"),
+    RESPONSE_CONFIG("Response", "Config"),
+    RESPONSE_CONFIG_DOWNLOAD("Response", "ConfigDownload"),
+    RESPONSE_RECORD_INFO("Response", "RecordInfo"),
+    RESPONSE_NOTIFY_UPDATE("Response", "NotifyUpdate"),
+    RESPONSE_SD_CARD_STATUS("Response", "SdCardStatus"),
+    RESPONSE_HOME_POSITION("Response", "HomePosition"),
+    RESPONSE_CRUISE_TRACK_LIST("Response", "CruiseTrackList"),
+    RESPONSE_CRUISE_TRACK("Response", "CruiseTrack"),
+    RESPONSE_SUBSCRIBE("Response", "Subscribe"),
+    RESPONSE_DEVICE_INFO_ERROR("Response", "DeviceInfoError"),
+    RESPONSE_DEVICE_INFO_REQUEST("Response", "DeviceInfoRequest"),
+
+    // ========== Session ==========
+    SESSION_INVITE_OK("Session", "InviteOk"),
+    SESSION_INVITE_FAILURE("Session", "InviteFailure"),
+    SESSION_ACK("Session", "Ack"),
+    SESSION_BYE("Session", "Bye"),
+    SESSION_INVITE_TRYING("Session", "InviteTrying"),
+    SESSION_BYE_ERROR("Session", "ByeError"),
+    SESSION_SERVER_INVITE("Session", "ServerInvite"),
+
+    UNKNOWN("", "");
+
+    private static final DeviceEventType[] KNOWN = knownValues();
+
+    private final String group;
+
+    private final String eventName;
+
+    DeviceEventType(String group, String name) {
+        this.group = group;
+        this.eventName = name;
+    }
+
+    public String group() {
+        return group;
+    }
+
+    public String eventName() {
+        return eventName;
+    }
+
+    /**
+     * 按 group/name 解析，未收录返回 {@link #UNKNOWN}。
+     */
+    public static DeviceEventType of(String group, String name) {
+        if (group == null || name == null) {
+            return UNKNOWN;
+        }
+        for (DeviceEventType type : KNOWN) {
+            if (type.eventName.equals(name) && type.group.equals(group)) {
+                return type;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * 直接在三段式 type（{@code protocol.Group.Name}）的区间上匹配，不做 split / substring。
+     *
+     * @param type      三段式类型
+     * @param groupFrom group 段起始下标（首个 '.' 之后）
+     * @param nameFrom  name 段起始下标（第二个 '.' 之后）
+     */
+    public static DeviceEventType ofQualified(String type, int groupFrom, int nameFrom) {
+        int groupLen = nameFrom - 1 - groupFrom;
+        int nameLen = type.length() - nameFrom;
+        for (DeviceEventType t : KNOWN) {
+            if (t.group.length() == groupLen && t.eventName.length() == nameLen
+                && type.regionMatches(nameFrom, t.eventName, 0, nameLen)
+                && type.regionMatches(groupFrom, t.group, 0, groupLen)) {
+                return t;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static DeviceEventType[] knownValues() {
+        DeviceEventType[] all = values();
+        DeviceEventType[] known = new DeviceEventType[all.length - 1];
+        int i = 0;
+        for (DeviceEventType type : all) {
+            if (type != UNKNOWN) {
+                known[i++] = type;
+            }
+        }
+        return known;
+    }
+}
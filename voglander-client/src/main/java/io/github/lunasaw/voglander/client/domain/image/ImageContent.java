@@ -1,23 +1,58 @@
 package io.github.lunasaw.voglander.client.domain.image;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-/** Closeable image content returned by a storage provider. */
+/**
+ * Closeable image content returned by a storage provider.
+ * <p>
+ * Providers backed by a local file open it as a {@link FileChannel} and expose the path, so callers can serve byte
+ * ranges positionally and hand whole files to the container's sendfile instead of copying through the heap.
+ * </p>
+ */
 public final class ImageContent implements AutoCloseable {
 
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
     private final InputStream inputStream;
     private final long contentLength;
+    private final FileChannel channel;
+    private final Path file;
     private final AtomicBoolean closed = new AtomicBoolean();
 
     public ImageContent(InputStream inputStream, long contentLength) {
+        this(inputStream, contentLength, null, null);
+    }
+
+    private ImageContent(InputStream inputStream, long contentLength, FileChannel channel, Path file) {
         this.inputStream = Objects.requireNonNull(inputStream, "inputStream");
         if (contentLength < 0) {
             throw new IllegalArgumentException("contentLength must not be negative");
         }
         this.contentLength = contentLength;
+        this.channel = channel;
+        this.file = file;
+    }
+
+    /** File-backed content that takes ownership of {@code channel}: closing the content (or a failure here) closes it. */
+    public static ImageContent ofFile(FileChannel channel, Path file) throws IOException {
+        Objects.requireNonNull(channel, "channel");
+        Objects.requireNonNull(file, "file");
+        long size;
+        try {
+            size = channel.size();
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+        return new ImageContent(Channels.newInputStream(channel), size, channel, file);
     }
 
     public InputStream inputStream() {
@@ -28,6 +63,41 @@ public final class ImageContent implements AutoCloseable {
         return contentLength;
     }
 
+    /** Local file behind this content, or null when the provider has none. */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Writes {@code length} bytes starting at {@code offset}. File-backed content uses positional
+     * {@link FileChannel#transferTo}; stream-backed content skips and copies, so call it at most once.
+     */
+    public void transferTo(OutputStream output, long offset, long length) throws IOException {
+        if (offset < 0 || length < 0 || offset > contentLength - length) {
+            throw new IllegalArgumentException("range outside content");
+        }
+        if (channel != null) {
+            WritableByteChannel target = Channels.newChannel(output);
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) throw new EOFException("image content truncated");
+                position += sent;
+            }
+            return;
+        }
+        inputStream.skipNBytes(offset);
+        byte[] buffer = new byte[(int)Math.min(COPY_BUFFER_BYTES, Math.max(1L, length))];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = inputStream.read(buffer, 0, (int)Math.min(buffer.length, remaining));
+            if (read < 0) throw new EOFException("image content truncated");
+            output.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (closed.compareAndSet(false, true)) {
@@ -1,29 +1,59 @@
 package io.github.lunasaw.voglander.client.domain.task;
 
-/** Immutable action capabilities declared by a task Handler. */
+/**
+ * Immutable action capabilities declared by a task Handler.
+ * <p>
+ * Scheduling hints are optional: a higher {@code priority} is dispatched first, a positive
+ * {@code maxConcurrency} caps how many executions of the type run at once on one node, and {@code ioBound}
+ * Handlers that mostly wait on devices or remote services may run on virtual threads.
+ * </p>
+ */
 public final class TaskCapabilities {
     private final boolean pause;
     private final boolean cancel;
     private final boolean manualRetry;
     private final boolean progress;
     private final boolean reschedule;
+    private final int priority;
+    private final int maxConcurrency;
+    private final boolean ioBound;
 
     public TaskCapabilities(boolean pause, boolean cancel, boolean manualRetry, boolean progress,
         boolean reschedule) {
+        this(pause, cancel, manualRetry, progress, reschedule, 0, 0, false);
+    }
+
+    private TaskCapabilities(boolean pause, boolean cancel, boolean manualRetry, boolean progress,
+        boolean reschedule, int priority, int maxConcurrency, boolean ioBound) {
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException("maxConcurrency must not be negative");
+        }
         this.pause = pause;
         this.cancel = cancel;
         this.manualRetry = manualRetry;
         this.progress = progress;
         this.reschedule = reschedule;
+        this.priority = priority;
+        this.maxConcurrency = maxConcurrency;
+        this.ioBound = ioBound;
     }
 
     public static TaskCapabilities none() {
         return new TaskCapabilities(false, false, false, false, false);
     }
 
+    /** Returns a copy carrying dispatch hints; {@code maxConcurrency} 0 means no per-type budget. */
+    public TaskCapabilities withScheduling(int priority, int maxConcurrency, boolean ioBound) {
+        return new TaskCapabilities(pause, cancel, manualRetry, progress, reschedule, priority, maxConcurrency,
+            ioBound);
+    }
+
     public boolean supportsPause() { return pause; }
     public boolean supportsCancel() { return cancel; }
     public boolean supportsManualRetry() { return manualRetry; }
     public boolean supportsProgress() { return progress; }
     public boolean supportsReschedule() { return reschedule; }
+    public int priority() { return priority; }
+    public int maxConcurrency() { return maxConcurrency; }
+    public boolean isIoBound() { return ioBound; }
 }
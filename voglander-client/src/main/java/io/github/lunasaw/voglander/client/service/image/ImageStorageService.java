@@ -4,7 +4,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Set;
+import java.util.TreeSet;
 
 import io.github.lunasaw.voglander.client.domain.image.ImageContent;
 import io.github.lunasaw.voglander.client.domain.image.ImagePromoteCommand;
@@ -35,6 +37,16 @@ public interface ImageStorageService {
     /** Optional provider inventory used by report-only reconciliation. */
     default Set<String> listFinalKeys() throws IOException { return Collections.emptySet(); }
 
+    /**
+     * Final keys strictly after {@code afterKey} (null = from the start) in ascending {@link String#compareTo}
+     * order, for merge-join reconciliation against the database. Providers should stream and report listing
+     * failures as {@link java.io.UncheckedIOException}; this default sorts {@link #listFinalKeys()} in memory.
+     */
+    default Iterator<String> iterateFinalKeys(String afterKey) throws IOException {
+        TreeSet<String> keys = new TreeSet<>(listFinalKeys());
+        return (afterKey == null ? keys : keys.tailSet(afterKey, false)).iterator();
+    }
+
     /** Optional provider staging sweep; providers without a local staging area may no-op. */
     default int sweepStaging(Duration ttl) throws IOException { return 0; }
 }
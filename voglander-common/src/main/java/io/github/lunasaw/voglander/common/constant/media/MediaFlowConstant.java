@@ -0,0 +1,31 @@
+package io.github.lunasaw.voglander.common.constant.media;
+
+/**
+ * 媒体流量统计相关常量
+ *
+ * @author luna
+ */
+public interface MediaFlowConstant {
+
+    /**
+     * 汇总粒度
+     */
+    interface Granularity {
+        /** 分钟桶 */
+        String MINUTE = "MINUTE";
+        /** 小时桶 */
+        String HOUR   = "HOUR";
+    }
+
+    /**
+     * 汇总维度
+     */
+    interface Dimension {
+        /** 设备（dim_key = deviceId） */
+        String DEVICE  = "DEVICE";
+        /** 通道（dim_key = deviceId:channelId） */
+        String CHANNEL = "CHANNEL";
+        /** 媒体节点（dim_key = mediaServerId） */
+        String NODE    = "NODE";
+    }
+}
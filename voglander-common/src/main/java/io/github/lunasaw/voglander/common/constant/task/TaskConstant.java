@@ -11,6 +11,7 @@ public final class TaskConstant {
     public static final String EXECUTION_LOCK_PREFIX = "biz:task:execution:";
 
     public static final String EXECUTOR_BEAN_NAME = "businessTaskExecutor";
+    public static final String IO_EXECUTOR_BEAN_NAME = "businessTaskIoExecutor";
 
     public static final String SSE_TASK_STATE = "business.task.state";
     public static final String SSE_TASK_PROGRESS = "business.task.progress";
@@ -34,6 +35,12 @@ public final class TaskConstant {
     public static final int DEFAULT_RETRY_INITIAL_DELAY_SECONDS = 2;
     public static final int DEFAULT_RETRY_MAX_DELAY_SECONDS = 30;
     public static final long DEFAULT_PROGRESS_MIN_INTERVAL_MS = 500L;
+    public static final long DEFAULT_LEASE_RENEW_INTERVAL_MS = 30_000L;
+    public static final int MAX_LEASES_PER_HEARTBEAT = 200;
+    public static final long DEFAULT_JOURNAL_COMMIT_INTERVAL_MS = 10L;
+    public static final int DEFAULT_JOURNAL_MAX_BATCH = 200;
+    public static final int DEFAULT_EXECUTOR_IO_MAX_CONCURRENCY = 64;
+    public static final int DISPATCH_CLASS_CACHE_SIZE = 10_000;
 
     private TaskConstant() {
     }
@@ -0,0 +1,9 @@
+package io.github.lunasaw.voglander.common.enums.task;
+
+/** How the dispatcher takes ownership of runnable executions. */
+public enum TaskClaimModeEnum {
+    /** One conditional update claims a window of runnable rows for this node, skipping rows locked by others. */
+    BATCH,
+    /** Submit execution ids; each worker re-reads and claims its row with a version CAS. */
+    SINGLE
+}
@@ -0,0 +1,23 @@
+package io.github.lunasaw.voglander.common.event;
+
+/**
+ * 媒体节点配置变更事件（由 MediaNodeManager 在节点增删、启停、改权重/地址/密钥后发布）。
+ * <p>
+ * integration 层的节点内存表据此立即重读，控制台以外的写入方（Hook 自动注册、批量脚本等）同样生效。
+ * 仅心跳刷新状态不发布，避免每次心跳都让节点表重读 DB。
+ * </p>
+ *
+ * @author luna
+ */
+public class MediaNodeChangedEvent {
+
+    private final String serverId;
+
+    public MediaNodeChangedEvent(String serverId) {
+        this.serverId = serverId;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.lunasaw.voglander.common.util;
+
+/**
+ * GB28181 流标识约定：直播 {@code gb_live_{deviceId}_{channelId}}，回放 {@code gb_back_{deviceId}_{channelId}_{ts}}。
+ *
+ * @author luna
+ */
+public final class GbStreamIds {
+
+    public static final String LIVE_PREFIX     = "gb_live_";
+
+    public static final String PLAYBACK_PREFIX = "gb_back_";
+
+    private GbStreamIds() {
+    }
+
+    /**
+     * 是否为 GB28181 回放流
+     */
+    public static boolean isPlayback(String stream) {
+        return stream != null && stream.startsWith(PLAYBACK_PREFIX);
+    }
+
+    /**
+     * 从 streamId 解析设备与通道，国标 ID 为纯数字不含下划线。
+     *
+     * @return {deviceId, channelId}；非 GB 流或格式不符返回 null
+     */
+    public static String[] parseDeviceChannel(String stream) {
+        if (stream == null) {
+            return null;
+        }
+        String rest;
+        if (stream.startsWith(LIVE_PREFIX)) {
+            rest = stream.substring(LIVE_PREFIX.length());
+        } else if (stream.startsWith(PLAYBACK_PREFIX)) {
+            rest = stream.substring(PLAYBACK_PREFIX.length());
+        } else {
+            return null;
+        }
+        String[] parts = rest.split("_");
+        if (parts.length < 2 || parts[0].isEmpty() || parts[1].isEmpty()) {
+            return null;
+        }
+        return new String[] {parts[0], parts[1]};
+    }
+}
@@ -0,0 +1,424 @@
+package io.github.lunasaw.voglander.intergration.wrapper.gb28181.handler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.github.lunasaw.voglander.common.anno.TechnicalScheduler;
+import io.github.lunasaw.voglander.manager.domaon.dto.DeviceChannelDTO;
+import io.github.lunasaw.voglander.manager.manager.DeviceChannelManager;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GB28181 分片目录组装器。
+ * <p>
+ * 大 NVR / 下级平台的 Catalog 响应按 SN 拆成多个 MESSAGE 分片（每片通常 ≤ 10 条通道），
+ * 原先每片各自抢设备锁写库，锁竞争即丢片。这里按 {@code deviceId + SN} 归并分片：
+ * </p>
+ * <ul>
+ * <li>累计去重后的通道数达到 {@code SumNum} → 一次对账写库，并基于整份目录做失踪扫描</li>
+ * <li>超过 {@code timeout-ms} 未收到新分片 → 把已收到的部分落库（不做失踪扫描）</li>
+ * <li>单份目录缓冲的 DTO 达到 {@code max-buffered-channels} → 提前部分落库并释放 DTO，
+ * 只保留通道 ID 集合用于最终失踪扫描；在途目录数超过 {@code max-pending} 时最旧的一份提前落库</li>
+ * <li>设备锁等待超时 → 数据放回缓冲，由下次 {@link #sweepExpired()} 重试，不丢弃</li>
+ * </ul>
+ * <p>
+ * 分片在设备所属事件分片线程上到达（同设备串行），清扫在调度线程执行，二者以每份目录的监视器互斥。
+ * 监视器内只做内存归并并摘下待写批次，对账（可能等设备锁 {@code catalog-lock-wait-seconds}）在独立的提交线程上执行，
+ * 不占用事件分片线程和清扫线程；每份目录同一时刻至多一个批次在途，保证部分提交与最终提交的先后顺序。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+@Component
+@TechnicalScheduler(category = TechnicalScheduler.Category.PROTOCOL)
+public class Gb28181CatalogAssembler {
+
+    private final DeviceChannelManager     deviceChannelManager;
+
+    private final long                     timeoutMs;
+
+    private final int                      maxPending;
+
+    private final int                      maxBufferedChannels;
+
+    private final Executor                 committer;
+
+    /** 自建的提交线程池；注入 executor 时为 null，由注入方负责关闭。 */
+    private final ExecutorService          ownedCommitter;
+
+    private final Map<String, Assembly>    assemblies = new ConcurrentHashMap<>();
+
+    /** Spring 注入：内部自建守护提交线程池。 */
+    @Autowired
+    public Gb28181CatalogAssembler(DeviceChannelManager deviceChannelManager,
+        @Value("${voglander.gb28181.catalog.timeout-ms:30000}") long timeoutMs,
+        @Value("${voglander.gb28181.catalog.max-pending:256}") int maxPending,
+        @Value("${voglander.gb28181.catalog.max-buffered-channels:5000}") int maxBufferedChannels,
+        @Value("${voglander.gb28181.catalog.commit-threads:2}") int commitThreads) {
+        this(deviceChannelManager, timeoutMs, maxPending, maxBufferedChannels, newCommitPool(commitThreads), true);
+    }
+
+    /** 在调用线程上同步提交，便于单元测试。 */
+    Gb28181CatalogAssembler(DeviceChannelManager deviceChannelManager, long timeoutMs, int maxPending,
+        int maxBufferedChannels) {
+        this(deviceChannelManager, timeoutMs, maxPending, maxBufferedChannels, Runnable::run);
+    }
+
+    /** 可注入提交 executor 构造，便于单元测试。 */
+    Gb28181CatalogAssembler(DeviceChannelManager deviceChannelManager, long timeoutMs, int maxPending,
+        int maxBufferedChannels, Executor committer) {
+        this(deviceChannelManager, timeoutMs, maxPending, maxBufferedChannels, committer, false);
+    }
+
+    private Gb28181CatalogAssembler(DeviceChannelManager deviceChannelManager, long timeoutMs, int maxPending,
+        int maxBufferedChannels, Executor committer, boolean owned) {
+        this.deviceChannelManager = deviceChannelManager;
+        this.timeoutMs = timeoutMs;
+        this.maxPending = Math.max(1, maxPending);
+        this.maxBufferedChannels = Math.max(1, maxBufferedChannels);
+        this.committer = committer;
+        this.ownedCommitter = owned ? (ExecutorService) committer : null;
+    }
+
+    private static ExecutorService newCommitPool(int threads) {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "catalog-commit-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 接收一个目录分片。只在监视器内归并；需要写库时把批次交给提交线程，立即返回。
+     *
+     * @param deviceId 设备国标 ID
+     * @param sn       查询序列号（入站事件 correlationId）
+     * @param sumNum   目录总通道数；≤0 表示未知，按单片完整目录处理
+     * @param fragment 本分片通道
+     */
+    public void offer(String deviceId, String sn, int sumNum, List<DeviceChannelDTO> fragment) {
+        long now = System.currentTimeMillis();
+        String key = deviceId + ":" + (sn != null ? sn : "_");
+        if (sumNum <= 0 || fragment.size() >= sumNum) {
+            // 单片即完整目录：登记后直接提交，登记是为了等锁超时后由清扫重试
+            Assembly single = new Assembly(key, deviceId, sn, fragment.size(), now);
+            if (assemblies.putIfAbsent(key, single) == null) {
+                Batch batch;
+                synchronized (single) {
+                    single.append(fragment, now);
+                    single.complete = true;
+                    batch = single.takeBatch(false);
+                }
+                submit(single, batch);
+                evictOldestIfFull();
+                return;
+            }
+        }
+        while (true) {
+            Assembly assembly = assemblies.computeIfAbsent(key, k -> new Assembly(k, deviceId, sn, sumNum, now));
+            Batch batch = null;
+            synchronized (assembly) {
+                if (assembly.closed) {
+                    // 刚被提交线程关闭，换一份新的
+                    assemblies.remove(key, assembly);
+                    continue;
+                }
+                assembly.append(fragment, now);
+                if (assembly.seenIds.size() >= assembly.sumNum) {
+                    assembly.complete = true;
+                    batch = assembly.takeBatch(false);
+                } else if (assembly.buffered.size() >= maxBufferedChannels) {
+                    log.info("目录缓冲达到上限，提前部分落库 - deviceId={}, sn={}, buffered={}", deviceId, sn,
+                        assembly.buffered.size());
+                    batch = assembly.takeBatch(false);
+                }
+            }
+            submit(assembly, batch);
+            break;
+        }
+        evictOldestIfFull();
+    }
+
+    /**
+     * 清扫超时目录并重试等锁失败的提交。
+     */
+    @Scheduled(fixedDelayString = "${voglander.gb28181.catalog.sweep-interval-ms:5000}")
+    public void sweepExpired() {
+        try {
+            sweep(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("目录组装清扫失败", e);
+        }
+    }
+
+    /**
+     * @return 本轮交给提交线程或直接关闭的目录数
+     */
+    int sweep(long nowMs) {
+        int handled = 0;
+        for (Map.Entry<String, Assembly> entry : assemblies.entrySet()) {
+            Assembly assembly = entry.getValue();
+            Batch batch;
+            synchronized (assembly) {
+                if (assembly.closed) {
+                    assemblies.remove(entry.getKey(), assembly);
+                    continue;
+                }
+                if (assembly.committing) {
+                    continue;
+                }
+                boolean expired = !assembly.complete && nowMs - assembly.lastArrivalMs >= timeoutMs;
+                if (!assembly.complete && !expired) {
+                    continue;
+                }
+                if (expired) {
+                    log.warn("目录分片超时，按已收到部分落库 - deviceId={}, sn={}, received={}/{}",
+                        assembly.deviceId, assembly.sn, assembly.seenIds.size(), assembly.sumNum);
+                }
+                batch = assembly.takeBatch(expired);
+                if (batch == null) {
+                    if (expired) {
+                        // 超时且缓冲已写空：关闭（不做失踪扫描）
+                        close(assembly);
+                        handled++;
+                    }
+                    continue;
+                }
+            }
+            submit(assembly, batch);
+            handled++;
+        }
+        return handled;
+    }
+
+    /**
+     * 关闭前把在途目录按已收到部分在调用线程上落库，并关闭自建的提交线程池。
+     */
+    @PreDestroy
+    public void flushAll() {
+        if (ownedCommitter != null) {
+            ownedCommitter.shutdown();
+        }
+        for (Map.Entry<String, Assembly> entry : assemblies.entrySet()) {
+            Assembly assembly = entry.getValue();
+            Batch batch = null;
+            synchronized (assembly) {
+                if (!assembly.closed && !assembly.committing) {
+                    batch = assembly.takeBatch(true);
+                }
+            }
+            if (batch != null) {
+                commit(assembly, batch);
+            }
+            assemblies.remove(entry.getKey(), assembly);
+        }
+    }
+
+    int pendingCount() {
+        return assemblies.size();
+    }
+
+    private void evictOldestIfFull() {
+        while (assemblies.size() > maxPending) {
+            Map.Entry<String, Assembly> oldest = null;
+            for (Map.Entry<String, Assembly> entry : assemblies.entrySet()) {
+                if (oldest == null || entry.getValue().createdMs < oldest.getValue().createdMs) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            Assembly assembly = oldest.getValue();
+            Batch batch = null;
+            synchronized (assembly) {
+                if (!assembly.closed) {
+                    log.warn("在途目录数超过上限，最旧目录提前落库 - deviceId={}, sn={}", assembly.deviceId, assembly.sn);
+                    // 无论是否写成功都移出，避免在途目录无限增长；失败的部分已在日志体现
+                    assembly.evicted = true;
+                    batch = assembly.takeBatch(true);
+                    if (batch == null && !assembly.committing) {
+                        assembly.closed = true;
+                    }
+                }
+            }
+            assemblies.remove(oldest.getKey(), assembly);
+            submit(assembly, batch);
+        }
+    }
+
+    private void submit(Assembly assembly, Batch batch) {
+        if (batch == null) {
+            return;
+        }
+        try {
+            committer.execute(() -> commit(assembly, batch));
+        } catch (RuntimeException e) {
+            // 提交线程池已关闭或拒绝：放回缓冲，由清扫或关闭流程处理
+            log.warn("目录提交被拒绝，数据放回缓冲 - deviceId={}, sn={}", assembly.deviceId, assembly.sn, e);
+            synchronized (assembly) {
+                assembly.restore(batch);
+            }
+        }
+    }
+
+    /**
+     * 在提交线程上对账写库，不持有 assembly 监视器；结束后在监视器内结算，并把期间积累的下一批交给提交线程。
+     */
+    private void commit(Assembly assembly, Batch batch) {
+        int written;
+        try {
+            written = deviceChannelManager.reconcileCatalog(assembly.deviceId, batch.channels, batch.catalogIds);
+        } catch (RuntimeException e) {
+            log.error("目录对账失败，数据放回缓冲 - deviceId={}, sn={}", assembly.deviceId, assembly.sn, e);
+            written = -1;
+        }
+        Batch next = null;
+        synchronized (assembly) {
+            if (written < 0) {
+                // 等锁超时：放回缓冲，下轮清扫重试
+                assembly.restore(batch);
+                if (assembly.evicted) {
+                    assembly.closed = true;
+                }
+                return;
+            }
+            assembly.committing = false;
+            if (batch.catalogIds != null) {
+                assembly.scanned = true;
+                log.info("目录组装完成 - deviceId={}, sn={}, channels={}", assembly.deviceId, assembly.sn,
+                    assembly.seenIds.size());
+            }
+            if (!assembly.buffered.isEmpty() && (assembly.complete || assembly.evicted
+                || assembly.buffered.size() >= maxBufferedChannels)) {
+                next = assembly.takeBatch(batch.expired);
+            } else if (assembly.scanned || assembly.evicted || (batch.expired && assembly.buffered.isEmpty())) {
+                close(assembly);
+            }
+        }
+        if (next != null) {
+            commit(assembly, next);
+        }
+    }
+
+    /** 调用方持有 assembly 监视器。 */
+    private void close(Assembly assembly) {
+        assembly.closed = true;
+        assemblies.remove(assembly.key, assembly);
+    }
+
+    /** 交给提交线程的一批通道；{@code catalogIds} 非 null 时为整份目录的最终提交（带失踪扫描）。 */
+    private static final class Batch {
+
+        final List<DeviceChannelDTO> channels;
+
+        final Set<String>            catalogIds;
+
+        final boolean                expired;
+
+        Batch(List<DeviceChannelDTO> channels, Set<String> catalogIds, boolean expired) {
+            this.channels = channels;
+            this.catalogIds = catalogIds;
+            this.expired = expired;
+        }
+    }
+
+    /**
+     * 一份在途目录。除 {@link #closed} 外的字段均在自身监视器内读写。
+     */
+    private static final class Assembly {
+
+        final String                                key;
+
+        final String                                deviceId;
+
+        final String                                sn;
+
+        final int                                   sumNum;
+
+        final long                                  createdMs;
+
+        final Set<String>                           seenIds  = new HashSet<>();
+
+        final LinkedHashMap<String, DeviceChannelDTO> buffered = new LinkedHashMap<>();
+
+        long                                        lastArrivalMs;
+
+        boolean                                     complete;
+
+        /** 已有批次交给提交线程、尚未结算。 */
+        boolean                                     committing;
+
+        /** 带失踪扫描的最终提交已成功。 */
+        boolean                                     scanned;
+
+        /** 因在途目录数超限被移出，提交结束后直接关闭。 */
+        boolean                                     evicted;
+
+        volatile boolean                            closed;
+
+        Assembly(String key, String deviceId, String sn, int sumNum, long nowMs) {
+            this.key = key;
+            this.deviceId = deviceId;
+            this.sn = sn;
+            this.sumNum = sumNum;
+            this.createdMs = nowMs;
+            this.lastArrivalMs = nowMs;
+        }
+
+        void append(List<DeviceChannelDTO> fragment, long nowMs) {
+            for (DeviceChannelDTO dto : fragment) {
+                if (dto == null || dto.getChannelId() == null) {
+                    continue;
+                }
+                seenIds.add(dto.getChannelId());
+                buffered.put(dto.getChannelId(), dto);
+            }
+            lastArrivalMs = nowMs;
+        }
+
+        /**
+         * 摘下缓冲作为一个待写批次；已有批次在途、或既无数据也无待做的失踪扫描时返回 null。
+         */
+        Batch takeBatch(boolean expired) {
+            boolean scan = complete && !scanned;
+            if (committing || (buffered.isEmpty() && !scan)) {
+                return null;
+            }
+            Batch batch = new Batch(new ArrayList<>(buffered.values()), scan ? new HashSet<>(seenIds) : null,
+                expired);
+            buffered.clear();
+            committing = true;
+            return batch;
+        }
+
+        /** 提交失败时放回批次；期间到达的同一通道以新数据为准。 */
+        void restore(Batch batch) {
+            committing = false;
+            LinkedHashMap<String, DeviceChannelDTO> merged = new LinkedHashMap<>();
+            for (DeviceChannelDTO dto : batch.channels) {
+                merged.put(dto.getChannelId(), dto);
+            }
+            merged.putAll(buffered);
+            buffered.clear();
+            buffered.putAll(merged);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.lunasaw.voglander.intergration.wrapper.gb28181.handler;
+
+import java.util.Map;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+
+import io.github.lunasaw.voglander.client.domain.event.DeviceEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * GB28181 事件负载解码（{@link Gb28181ProtocolHandler} 热路径工具）。
+ * <p>
+ * 经 FastJSON2 由 payload Map 按字段映射为实体（{@link JSONObject#toJavaObject}），省掉 toJSONString + parseObject 的整串往返。
+ * 个别字段形状不兼容时回退到字符串往返，保证与旧行为一致。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+public final class Gb28181PayloadDecoder {
+
+    private Gb28181PayloadDecoder() {}
+
+    /**
+     * 取事件负载实体：payload Map 映射。
+     */
+    public static <T> T decode(DeviceEvent event, Class<T> clazz) {
+        return toEntity(event.payload(), clazz);
+    }
+
+    /**
+     * payload Map → 实体；空 payload 或转换失败返回 null。
+     */
+    public static <T> T toEntity(Map<String, Object> payload, Class<T> clazz) {
+        if (payload == null || payload.isEmpty()) {
+            return null;
+        }
+        JSONObject json = payload instanceof JSONObject ? (JSONObject) payload : new JSONObject(payload);
+        try {
+            return json.toJavaObject(clazz);
+        } catch (Exception direct) {
+            try {
+                return JSON.parseObject(JSON.toJSONString(payload), clazz);
+            } catch (Exception e) {
+                log.warn("payload 转换为 {} 失败: {}", clazz.getSimpleName(), e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 直接读取 payload 单个字段（高频事件只需一两个字段时使用，不构造实体）。
+     */
+    public static Object value(DeviceEvent event, String key) {
+        Map<String, Object> payload = event.payload();
+        return payload != null ? payload.get(key) : null;
+    }
+}
@@ -13,8 +13,6 @@ import org.springframework.stereotype.Component;
 
 import com.alibaba.fastjson2.JSON;
 
-import io.github.lunasaw.gb28181.common.entity.notify.DeviceKeepLiveNotify;
-import io.github.lunasaw.gb28181.common.entity.notify.MediaStatusNotify;
 import io.github.lunasaw.gb28181.common.entity.response.DeviceConfigDownloadResponse;
 import io.github.lunasaw.gb28181.common.entity.response.DeviceConfigResponse;
 import io.github.lunasaw.gb28181.common.entity.response.DeviceInfo;
@@ -54,7 +52,8 @@ import lombok.extern.slf4j.Slf4j;
  * 承接原 {@code VoglanderBusinessNotifier} 的整段 switch 逻辑，但只认归一化的
  * {@link DeviceEvent}（{@code group/name}），<strong>不 import 任何 sip-gateway 框架类型</strong>
  * （{@code GatewayEvent}/{@code BusinessNotifier} 等���，从而把协议处理与具体 gateway 产品解耦。
- * payload 仍走 FastJSON2 反序列化为 GB28181 实体（项目类型转换规范）。
+ * 按 {@link DeviceEvent#eventType()} 枚举分发；Keepalive/MediaStatus/Alarm 等高频事件直接读取 payload 字段，
+ * 其余响应经 FastJSON2 由 Map 直接映射为 GB28181 实体（项目类型转换规范）。
  * </p>
  *
  * @author luna
@@ -94,6 +93,9 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired
+    private Gb28181CatalogAssembler   catalogAssembler;
+
     /** 心跳 SSE 节流：deviceId → 上次推送的毫秒时间戳（≥5s 才推） */
     private final ConcurrentHashMap<String, Long> keepaliveLastSseMs = new ConcurrentHashMap<>();
     private static final long KEEPALIVE_SSE_THROTTLE_MS = 5_000L;
@@ -105,13 +107,13 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
 
     @Override
     public void handle(DeviceEvent event) {
-        String groupName = event.groupName();
-        switch (groupName) {
+        // 按入站时解析好的枚举分发，不再每条事件拼接 group.name 字符串
+        switch (event.eventType()) {
             // ========== Lifecycle ==========
-            case "Lifecycle.Register":
+            case LIFECYCLE_REGISTER:
                 handleRegister(event);
                 break;
-            case "Lifecycle.Online":
+            case LIFECYCLE_ONLINE:
                 // 🔴 C3（1.0.4）：携带时间戳，使 patchLiveness 内部单调条件 + R4 终态保护生效
                 deviceManager.patchLiveness(event.deviceId(), DeviceConstant.Status.ONLINE, LocalDateTime.now());
                 // B5(b)：上线显式续期路由 TTL
@@ -121,79 +123,79 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
                 log.info("设备上线, deviceId={}", event.deviceId());
                 publishVisual("device.online", event.deviceId(), null, null);
                 break;
-            case "Lifecycle.Offline":
+            case LIFECYCLE_OFFLINE:
                 deviceRegisterService.offline(event.deviceId());
                 // 🔴 Stage 2（1.0.4）：级联通道下线
                 deviceChannelManager.cascadeOffline(event.deviceId());
                 log.info("设备离线 + 通道级联下线, deviceId={}", event.deviceId());
                 publishVisual("device.offline", event.deviceId(), null, null);
                 break;
-            case "Lifecycle.RemoteAddressChanged":
+            case LIFECYCLE_REMOTE_ADDRESS_CHANGED:
                 handleRemoteAddressChanged(event);
                 break;
-            case "Lifecycle.RegisterChallenge":
+            case LIFECYCLE_REGISTER_CHALLENGE:
                 log.debug("设备注册挑战, deviceId={}", event.deviceId());
                 break;
 
             // ========== Notify ==========
-            case "Notify.Keepalive":
+            case NOTIFY_KEEPALIVE:
                 handleKeepalive(event);
                 break;
-            case "Notify.Alarm":
+            case NOTIFY_ALARM:
                 handleAlarm(event);
                 break;
-            case "Notify.MobilePosition":
+            case NOTIFY_MOBILE_POSITION:
                 handleMobilePosition(event);
                 break;
-            case "Notify.MediaStatus":
+            case NOTIFY_MEDIA_STATUS:
                 handleMediaStatus(event);
                 break;
-            case "Notify.UpgradeResult":
-            case "Notify.SnapShotFinished":
-            case "Notify.VideoUpload":
+            case NOTIFY_UPGRADE_RESULT:
+            case NOTIFY_SNAPSHOT_FINISHED:
+            case NOTIFY_VIDEO_UPLOAD:
                 log.info("设备通知事件, type={}, deviceId={}", event.type(), event.deviceId());
                 break;
 
             // ========== Response ==========
-            case "Response.Catalog":
+            case RESPONSE_CATALOG:
                 handleCatalog(event);
                 break;
-            case "Response.DeviceInfo":
+            case RESPONSE_DEVICE_INFO:
                 handleDeviceInfo(event);
                 break;
-            case "Response.DeviceStatus":
+            case RESPONSE_DEVICE_STATUS:
                 handleDeviceStatus(event);
                 break;
-            case "Response.PtzPosition":
+            case RESPONSE_PTZ_POSITION:
                 handlePtzPosition(event);
                 break;
-            case "Response.PresetQuery":
+            case RESPONSE_PRESET_QUERY:
                 handlePreset(event);
                 break;
-            case "Response.Config":
+            case RESPONSE_CONFIG:
                 handleConfig(event);
                 break;
-            case "Response.ConfigDownload":
+            case RESPONSE_CONFIG_DOWNLOAD:
                 handleConfigDownload(event);
                 break;
-            case "Response.RecordInfo":
+            case RESPONSE_RECORD_INFO:
                 handleRecordInfo(event);
                 break;
-            case "Response.NotifyUpdate":
+            case RESPONSE_NOTIFY_UPDATE:
                 handleCatalogNotifyUpdate(event);
                 break;
-            case "Response.SdCardStatus":
-            case "Response.HomePosition":
-            case "Response.CruiseTrackList":
-            case "Response.CruiseTrack":
-            case "Response.Subscribe":
-            case "Response.DeviceInfoError":
-            case "Response.DeviceInfoRequest":
+            case RESPONSE_SD_CARD_STATUS:
+            case RESPONSE_HOME_POSITION:
+            case RESPONSE_CRUISE_TRACK_LIST:
+            case RESPONSE_CRUISE_TRACK:
+            case RESPONSE_SUBSCRIBE:
+            case RESPONSE_DEVICE_INFO_ERROR:
+            case RESPONSE_DEVICE_INFO_REQUEST:
                 log.info("设备响应事件, type={}, deviceId={}, sn={}", event.type(), event.deviceId(), event.correlationId());
                 break;
 
             // ========== Session ==========
-            case "Session.InviteOk":
+            case SESSION_INVITE_OK:
                 // 标准通道寻址下 event.deviceId() 被 To 头回显污染为 channelId，不可信；
                 // 改以 callId 关联会话（startLive 已回填真实 callId 到占位行），从会话表取权威 deviceId/channelId。
                 String okCallId = event.correlationId();
@@ -213,26 +215,26 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
                 publishVisual("session.invite_ok",
                     okSession != null ? okSession.getDeviceId() : null, "callId", okCallId);
                 break;
-            case "Session.InviteFailure":
+            case SESSION_INVITE_FAILURE:
                 mediaSessionManager.onInviteFailure(event.correlationId(), intFromPayload(event, "statusCode"));
                 break;
-            case "Session.Ack":
+            case SESSION_ACK:
                 mediaSessionManager.onAck(event.correlationId());
                 break;
-            case "Session.Bye":
+            case SESSION_BYE:
                 if (event.deviceId() != null) {
                     mediaSessionManager.onBye(event.deviceId());
                 }
                 log.info("会话结束(BYE), deviceId={}", event.deviceId());
                 publishVisual("session.bye", event.deviceId(), "callId", event.correlationId());
                 break;
-            case "Session.InviteTrying":
+            case SESSION_INVITE_TRYING:
                 log.debug("会话尝试中, callId={}, deviceId={}", event.correlationId(), event.deviceId());
                 break;
-            case "Session.ByeError":
+            case SESSION_BYE_ERROR:
                 log.warn("会话结束异常, deviceId={}, payload={}", event.deviceId(), event.payload());
                 break;
-            case "Session.ServerInvite":
+            case SESSION_SERVER_INVITE:
                 /*
                  * 平台收到设备主动 INVITE（级联/语音对讲场景）。
                  * G2 收尾：纯拉流场景不受影响；级联/语音对讲需在此处路由回包，
@@ -320,8 +322,9 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      * </p>
      */
     private void handleKeepalive(DeviceEvent event) {
-        DeviceKeepLiveNotify notify = toEntity(event.payload(), DeviceKeepLiveNotify.class);
-        String deviceId = notify != null && notify.getDeviceId() != null ? notify.getDeviceId() : event.deviceId();
+        // 热路径只需要 deviceId：直接读 payload 字段，不做 JSON 往返
+        String notifyDeviceId = stringValue(payloadValue(event, "deviceId"));
+        String deviceId = notifyDeviceId != null ? notifyDeviceId : event.deviceId();
         if (deviceId != null) {
             // Phase 2a：使用心跳合并版本，减少 30s 内的重复 DB 写
             LocalDateTime keepaliveTime = LocalDateTime.now();
@@ -341,8 +344,7 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      * 媒体状态通知：媒体发送结束等价于会话结束。
      */
     private void handleMediaStatus(DeviceEvent event) {
-        MediaStatusNotify notify = toEntity(event.payload(), MediaStatusNotify.class);
-        String notifyType = notify != null ? notify.getNotifyType() : null;
+        String notifyType = stringValue(payloadValue(event, "notifyType"));
         if (event.deviceId() != null) {
             mediaSessionManager.onMediaStatus(event.deviceId(), notifyType);
         }
@@ -354,9 +356,12 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
 
     /**
      * 目录响应：批量幂等 upsert 通道（1.0.4：改调 batchUpsertWithStatus，显式落 status/lastSeenTime）。
+     * <p>
+     * 多分片目录交给 {@link Gb28181CatalogAssembler} 归并，不再逐片抢设备锁写库；SSE 与级联事件仍逐片发布。
+     * </p>
      */
     private void handleCatalog(DeviceEvent event) {
-        DeviceResponse catalog = toEntity(event.payload(), DeviceResponse.class);
+        DeviceResponse catalog = decode(event, DeviceResponse.class);
         if (catalog == null || catalog.getDeviceItemList() == null || catalog.getDeviceItemList().isEmpty()) {
             log.info("目录响应为空, deviceId={}", event.deviceId());
             return;
@@ -379,7 +384,10 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
             channels.add(dto);
         }
         if (!channels.isEmpty()) {
-            deviceChannelManager.batchUpsertWithStatus(event.deviceId(), channels);
+            // 按 deviceId + SN 归并分片，收齐 SumNum（或超时）后一次对账写库；SN 取入站事件 correlationId
+            Integer sumNum = catalog.getSumNum();
+            String sn = event.correlationId() != null ? event.correlationId() : catalog.getSn();
+            catalogAssembler.offer(event.deviceId(), sn, sumNum != null ? sumNum : 0, channels);
         }
         log.info("目录响应处理完成, deviceId={}, 通道数={}", event.deviceId(), channels.size());
         publishVisual("device.catalog", event.deviceId(), "channelCount", channels.size());
@@ -404,7 +412,7 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      * 设备信息响应：更新设备扩展信息。
      */
     private void handleDeviceInfo(DeviceEvent event) {
-        DeviceInfo info = toEntity(event.payload(), DeviceInfo.class);
+        DeviceInfo info = decode(event, DeviceInfo.class);
         if (info == null) {
             return;
         }
@@ -426,7 +434,7 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      * 设备状态响应：回填 extend.deviceStatus，并按 online 字段刷新设备状态。
      */
     private void handleDeviceStatus(DeviceEvent event) {
-        DeviceStatus st = toEntity(event.payload(), DeviceStatus.class);
+        DeviceStatus st = decode(event, DeviceStatus.class);
         if (st == null) {
             return;
         }
@@ -439,7 +447,7 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      * 云台位置响应：回填 extend.ptzPosition。
      */
     private void handlePtzPosition(DeviceEvent event) {
-        PTZPositionResponse pos = toEntity(event.payload(), PTZPositionResponse.class);
+        PTZPositionResponse pos = decode(event, PTZPositionResponse.class);
         if (pos == null) {
             return;
         }
@@ -452,7 +460,7 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      * 预置位响应：回填 extend.presets。
      */
     private void handlePreset(DeviceEvent event) {
-        PresetQueryResponse preset = toEntity(event.payload(), PresetQueryResponse.class);
+        PresetQueryResponse preset = decode(event, PresetQueryResponse.class);
         if (preset == null) {
             return;
         }
@@ -465,7 +473,7 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      * 设备配置响应：回填 extend.config。
      */
     private void handleConfig(DeviceEvent event) {
-        DeviceConfigResponse cfg = toEntity(event.payload(), DeviceConfigResponse.class);
+        DeviceConfigResponse cfg = decode(event, DeviceConfigResponse.class);
         if (cfg == null) {
             return;
         }
@@ -478,7 +486,7 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      * 配置下载响应：回填 extend.configDownload（与 Config 不同实体）。
      */
     private void handleConfigDownload(DeviceEvent event) {
-        DeviceConfigDownloadResponse cfg = toEntity(event.payload(), DeviceConfigDownloadResponse.class);
+        DeviceConfigDownloadResponse cfg = decode(event, DeviceConfigDownloadResponse.class);
         if (cfg == null) {
             return;
         }
@@ -491,7 +499,7 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      * 录像查询结果响应：列表型数据走 RedisCache（不塞 extend），key=(deviceId, sn)；推 SSE 通知前端拉取。
      */
     private void handleRecordInfo(DeviceEvent event) {
-        DeviceRecord record = toEntity(event.payload(), DeviceRecord.class);
+        DeviceRecord record = decode(event, DeviceRecord.class);
         if (record == null) {
             return;
         }
@@ -514,7 +522,7 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      */
     private void handleMobilePosition(DeviceEvent event) {
         io.github.lunasaw.gb28181.common.entity.notify.MobilePositionNotify pos =
-            toEntity(event.payload(), io.github.lunasaw.gb28181.common.entity.notify.MobilePositionNotify.class);
+            decode(event, io.github.lunasaw.gb28181.common.entity.notify.MobilePositionNotify.class);
         if (pos == null) {
             return;
         }
@@ -544,7 +552,7 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
      */
     private void handleCatalogNotifyUpdate(DeviceEvent event) {
         io.github.lunasaw.gb28181.common.entity.notify.DeviceOtherUpdateNotify notify =
-            toEntity(event.payload(), io.github.lunasaw.gb28181.common.entity.notify.DeviceOtherUpdateNotify.class);
+            decode(event, io.github.lunasaw.gb28181.common.entity.notify.DeviceOtherUpdateNotify.class);
         if (notify == null || notify.getDeviceItemList() == null) {
             log.info("目录变更通知为空, deviceId={}", event.deviceId());
             return;
@@ -618,19 +626,12 @@ public class Gb28181ProtocolHandler implements ProtocolEventHandler {
     // payload 工具方法（FastJSON2）
     // ================================
 
-    /**
-     * 将 payload Map 经 FastJSON2 正反序列化转换为目标实体（项目类型转换规范）。
-     */
-    private <T> T toEntity(Map<String, Object> payload, Class<T> clazz) {
-        if (payload == null || payload.isEmpty()) {
-            return null;
-        }
-        try {
-            return JSON.parseObject(JSON.toJSONString(payload), clazz);
-        } catch (Exception e) {
-            log.warn("payload 转换为 {} 失败: {}", clazz.getSimpleName(), e.getMessage());
-            return null;
-        }
+    private <T> T decode(DeviceEvent event, Class<T> clazz) {
+        return Gb28181PayloadDecoder.decode(event, clazz);
+    }
+
+    private Object payloadValue(DeviceEvent event, String key) {
+        return Gb28181PayloadDecoder.value(event, key);
     }
 
     private int intFromPayload(DeviceEvent event, String key) {
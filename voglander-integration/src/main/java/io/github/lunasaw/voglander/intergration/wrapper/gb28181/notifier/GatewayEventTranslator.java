@@ -0,0 +1,42 @@
+package io.github.lunasaw.voglander.intergration.wrapper.gb28181.notifier;
+
+import io.github.lunasaw.sipgateway.core.api.envelope.GatewayEvent;
+import io.github.lunasaw.voglander.client.domain.event.DeviceEvent;
+import io.github.lunasaw.voglander.client.domain.event.DeviceEventType;
+import io.github.lunasaw.voglander.common.constant.protocol.ProtocolConstants;
+
+/**
+ * {@link GatewayEvent} → {@link DeviceEvent} 轻量翻译（两个 notifier 共用）。
+ * <p>
+ * 三段式 type 按下标切分，已收录的 group/name 直接解析为 {@link DeviceEventType}，
+ * 复用枚举常量字符串，不做 split / substring；仅未收录类型才截取原始段。
+ * payload 保持原始 Map 引用，反序列化留给分片线程上的 handler。
+ * </p>
+ *
+ * @author luna
+ */
+public final class GatewayEventTranslator {
+
+    private GatewayEventTranslator() {}
+
+    /**
+     * @return 翻译结果；非三段式 type 返回 null
+     */
+    public static DeviceEvent translate(GatewayEvent event) {
+        String type = event.type();
+        int firstDot = type.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : type.indexOf('.', firstDot + 1);
+        if (secondDot < 0) {
+            return null;
+        }
+        String protocol = firstDot == ProtocolConstants.GB28181.length()
+            && type.startsWith(ProtocolConstants.GB28181) ? ProtocolConstants.GB28181 : type.substring(0, firstDot);
+        DeviceEventType eventType = DeviceEventType.ofQualified(type, firstDot + 1, secondDot + 1);
+        if (eventType != DeviceEventType.UNKNOWN) {
+            return DeviceEvent.typed(protocol, eventType, event.deviceId(), event.correlationId(),
+                event.timestampMs(), event.payload(), event.nodeId());
+        }
+        return new DeviceEvent(protocol, type.substring(firstDot + 1, secondDot), type.substring(secondDot + 1),
+            event.deviceId(), event.correlationId(), event.timestampMs(), event.payload(), event.nodeId());
+    }
+}
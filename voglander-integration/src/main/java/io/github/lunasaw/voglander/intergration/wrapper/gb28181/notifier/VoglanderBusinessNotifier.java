@@ -44,8 +44,8 @@ public class VoglanderBusinessNotifier implements BusinessNotifier {
             return;
         }
         // 三段式 type 切分：gb28181.Lifecycle.Register → (gb28181, Lifecycle, Register)
-        String[] seg = event.type().split("\\.", 3);
-        if (seg.length < 3) {
+        DeviceEvent deviceEvent = GatewayEventTranslator.translate(event);
+        if (deviceEvent == null) {
             log.warn("非三段式网关事件 type: {}，忽略", event.type());
             return;
         }
@@ -54,12 +54,6 @@ public class VoglanderBusinessNotifier implements BusinessNotifier {
             SipMessageTracer.recv(event.type(), event.deviceId(), event.correlationId(),
                 event.nodeId(), event.payload());
 
-            // 仅做轻量翻译，payload 保持原始 Map 引用，不做 FastJSON2 反序列化
-            DeviceEvent deviceEvent = new DeviceEvent(
-                seg[0], seg[1], seg[2],
-                event.deviceId(), event.correlationId(),
-                event.timestampMs(), event.payload(), event.nodeId());
-
             // 提交到分片调度器，立即返回
             shardDispatcher.dispatch(deviceEvent);
         } catch (Exception e) {
@@ -36,17 +36,12 @@ public class VoglanderBusinessNotifierFallback implements BusinessNotifier {
             return;
         }
         // 三段式 type 切分：gb28181.Lifecycle.Register → (gb28181, Lifecycle, Register)
-        String[] seg = event.type().split("\\.", 3);
-        if (seg.length < 3) {
+        DeviceEvent deviceEvent = GatewayEventTranslator.translate(event);
+        if (deviceEvent == null) {
             log.warn("非三段式网关事件 type: {}，忽略", event.type());
             return;
         }
         try {
-            // payload 保持原始 Map，昂贵的反序列化留待 handler（项目类型转换规范）
-            DeviceEvent deviceEvent = new DeviceEvent(
-                seg[0], seg[1], seg[2],
-                event.deviceId(), event.correlationId(),
-                event.timestampMs(), event.payload(), event.nodeId());
             dispatcher.dispatch(deviceEvent);
         } catch (Exception e) {
             log.error("翻译/分发网关事件异常, type={}, deviceId={}, correlationId={}",
@@ -67,6 +67,11 @@ public class ImageProperties {
         private long maxUploadBytes = ImageConstant.DEFAULT_MAX_FILE_SIZE;
         private Duration stagingTtl = Duration.ofHours(1);
         private boolean reconciliationReportOnly = true;
+        private int reconciliationBatchSize = 1000;
+        private int reconciliationParallelism = 4;
+        private int reconciliationIoPerSecond = 200;
+        private long reconciliationMaxKeysPerRun = 0;
+        private String reconciliationCheckpoint;
 
         public String getProvider() {
             return provider;
@@ -115,6 +120,51 @@ public class ImageProperties {
         public void setReconciliationReportOnly(boolean reconciliationReportOnly) {
             this.reconciliationReportOnly = reconciliationReportOnly;
         }
+
+        /** Registered keys fetched per keyset page. */
+        public int getReconciliationBatchSize() {
+            return reconciliationBatchSize;
+        }
+
+        public void setReconciliationBatchSize(int reconciliationBatchSize) {
+            this.reconciliationBatchSize = reconciliationBatchSize;
+        }
+
+        /** Concurrent provider checks and deletes issued for mismatches. */
+        public int getReconciliationParallelism() {
+            return reconciliationParallelism;
+        }
+
+        public void setReconciliationParallelism(int reconciliationParallelism) {
+            this.reconciliationParallelism = reconciliationParallelism;
+        }
+
+        /** Provider check/delete rate ceiling; 0 disables pacing. */
+        public int getReconciliationIoPerSecond() {
+            return reconciliationIoPerSecond;
+        }
+
+        public void setReconciliationIoPerSecond(int reconciliationIoPerSecond) {
+            this.reconciliationIoPerSecond = reconciliationIoPerSecond;
+        }
+
+        /** Keys merged per run before checkpointing and yielding to the next run; 0 runs to completion. */
+        public long getReconciliationMaxKeysPerRun() {
+            return reconciliationMaxKeysPerRun;
+        }
+
+        public void setReconciliationMaxKeysPerRun(long reconciliationMaxKeysPerRun) {
+            this.reconciliationMaxKeysPerRun = reconciliationMaxKeysPerRun;
+        }
+
+        /** Checkpoint file; defaults to {@code <localRoot>/.reconcile/<workerNode>.checkpoint} when blank. */
+        public String getReconciliationCheckpoint() {
+            return reconciliationCheckpoint;
+        }
+
+        public void setReconciliationCheckpoint(String reconciliationCheckpoint) {
+            this.reconciliationCheckpoint = reconciliationCheckpoint;
+        }
     }
 
     public static class Snapshot {
@@ -178,6 +228,10 @@ public class ImageProperties {
         private int cacheMaxEntries = 512;
         private long cacheTtlSeconds = 300;
         private long maxWorkingPixels = 8_000_000L;
+        private boolean diskEnabled = true;
+        private String diskRoot;
+        private long diskMaxBytes = 1024L * 1024 * 1024;
+        private boolean pregenerate = true;
 
         public boolean isEnabled() { return enabled; }
         public void setEnabled(boolean enabled) { this.enabled = enabled; }
@@ -197,6 +251,15 @@ public class ImageProperties {
         public void setCacheTtlSeconds(long cacheTtlSeconds) { this.cacheTtlSeconds = cacheTtlSeconds; }
         public long getMaxWorkingPixels() { return maxWorkingPixels; }
         public void setMaxWorkingPixels(long maxWorkingPixels) { this.maxWorkingPixels = maxWorkingPixels; }
+        public boolean isDiskEnabled() { return diskEnabled; }
+        public void setDiskEnabled(boolean diskEnabled) { this.diskEnabled = diskEnabled; }
+        /** Defaults to {@code <storage.localRoot>/thumbnails} when blank. */
+        public String getDiskRoot() { return diskRoot; }
+        public void setDiskRoot(String diskRoot) { this.diskRoot = diskRoot; }
+        public long getDiskMaxBytes() { return diskMaxBytes; }
+        public void setDiskMaxBytes(long diskMaxBytes) { this.diskMaxBytes = diskMaxBytes; }
+        public boolean isPregenerate() { return pregenerate; }
+        public void setPregenerate(boolean pregenerate) { this.pregenerate = pregenerate; }
 
         public void validate() {
             int processors = Math.max(1, Runtime.getRuntime().availableProcessors());
@@ -207,7 +270,8 @@ public class ImageProperties {
                 || cacheMaxBytes < 256L * 1024
                 || cacheMaxEntries < 1 || cacheMaxEntries > 10_000
                 || cacheTtlSeconds < 1 || cacheTtlSeconds > 3600
-                || maxWorkingPixels < 320L * 240) {
+                || maxWorkingPixels < 320L * 240
+                || diskEnabled && diskMaxBytes < 16L * 1024 * 1024) {
                 throw new IllegalStateException("Invalid voglander.image.thumbnail configuration");
             }
         }
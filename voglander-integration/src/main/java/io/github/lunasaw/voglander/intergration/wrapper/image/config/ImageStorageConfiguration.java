@@ -6,10 +6,12 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Conditional;
+import org.springframework.util.StringUtils;
 
 import io.github.lunasaw.voglander.intergration.wrapper.image.storage.LocalImageStorageService;
+import io.github.lunasaw.voglander.intergration.wrapper.image.storage.ThumbnailDiskStore;
 
-/** Registers image configuration and the default local provider. */
+/** Registers image configuration, the default local provider and the local thumbnail disk tier. */
 @Configuration
 @EnableConfigurationProperties(ImageProperties.class)
 public class ImageStorageConfiguration {
@@ -20,4 +22,13 @@ public class ImageStorageConfiguration {
         return new LocalImageStorageService(Path.of(properties.getStorage().getLocalRoot()),
             properties.getStorage().getWorkerNode());
     }
+
+    /** Always registered; it stays off the file system unless {@code thumbnail.disk-enabled} routes work to it. */
+    @Bean
+    public ThumbnailDiskStore thumbnailDiskStore(ImageProperties properties) {
+        ImageProperties.Thumbnail thumbnail = properties.getThumbnail();
+        Path root = StringUtils.hasText(thumbnail.getDiskRoot()) ? Path.of(thumbnail.getDiskRoot())
+            : Path.of(properties.getStorage().getLocalRoot(), "thumbnails");
+        return new ThumbnailDiskStore(root, Math.max(1L, thumbnail.getDiskMaxBytes()));
+    }
 }
@@ -2,18 +2,28 @@ package io.github.lunasaw.voglander.intergration.wrapper.image.storage;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.LinkedHashSet;
@@ -133,7 +143,7 @@ public class LocalImageStorageService implements ImageStorageService {
     @Override
     public ImageContent open(String storageKey) throws IOException {
         Path path = resolveExisting(storageKey, FINAL_PREFIX);
-        return new ImageContent(Files.newInputStream(path, StandardOpenOption.READ), Files.size(path));
+        return ImageContent.ofFile(FileChannel.open(path, StandardOpenOption.READ), path);
     }
 
     @Override
@@ -192,6 +202,17 @@ public class LocalImageStorageService implements ImageStorageService {
         return keys;
     }
 
+    /**
+     * Depth-first walk of {@code images/} that yields keys in global string order without holding the inventory:
+     * siblings are sorted with directories compared as {@code name + "/"}, so a directory's keys are emitted
+     * exactly where they fall among its siblings. Memory is bounded by one listing per level; subtrees wholly
+     * before {@code afterKey} are skipped without being listed.
+     */
+    @Override
+    public Iterator<String> iterateFinalKeys(String afterKey) throws IOException {
+        return new SortedFinalKeys(afterKey);
+    }
+
     public Path root() {
         return root;
     }
@@ -202,6 +223,75 @@ public class LocalImageStorageService implements ImageStorageService {
             && Files.isWritable(stagingRoot);
     }
 
+    private final class SortedFinalKeys implements Iterator<String> {
+        private final Deque<Iterator<KeyEntry>> levels = new ArrayDeque<>();
+        private final String afterKey;
+        private String next;
+
+        private SortedFinalKeys(String afterKey) throws IOException {
+            this.afterKey = afterKey;
+            Path finalRoot = root.resolve(FINAL_PREFIX);
+            if (Files.isDirectory(finalRoot, LinkOption.NOFOLLOW_LINKS)) levels.push(list(finalRoot).iterator());
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) next = advance();
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String current = next;
+            next = null;
+            return current;
+        }
+
+        private String advance() {
+            while (!levels.isEmpty()) {
+                Iterator<KeyEntry> level = levels.peek();
+                if (!level.hasNext()) {
+                    levels.pop();
+                    continue;
+                }
+                KeyEntry entry = level.next();
+                if (!entry.directory()) {
+                    if (afterKey == null || entry.sortKey().compareTo(afterKey) > 0) return entry.sortKey();
+                } else if (afterKey == null || entry.sortKey().compareTo(afterKey) > 0
+                    || afterKey.startsWith(entry.sortKey())) {
+                    try {
+                        levels.push(list(entry.path()).iterator());
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                }
+            }
+            return null;
+        }
+
+        private List<KeyEntry> list(Path directory) throws IOException {
+            List<KeyEntry> entries = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (Path child : children) {
+                    BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class,
+                        LinkOption.NOFOLLOW_LINKS);
+                    String key = root.relativize(child).toString().replace('\\', '/');
+                    if (attributes.isDirectory()) {
+                        entries.add(new KeyEntry(key + "/", child, true));
+                    } else if (attributes.isRegularFile()) {
+                        entries.add(new KeyEntry(key, child, false));
+                    }
+                }
+            }
+            entries.sort(Comparator.comparing(KeyEntry::sortKey));
+            return entries;
+        }
+    }
+
+    private record KeyEntry(String sortKey, Path path, boolean directory) {
+    }
+
     private Path resolveExisting(String key, String requiredPrefix) throws IOException {
         Path path = resolveKey(key, requiredPrefix);
         if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
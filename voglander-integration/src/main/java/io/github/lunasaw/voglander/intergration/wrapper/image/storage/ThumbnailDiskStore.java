@@ -0,0 +1,332 @@
+package io.github.lunasaw.voglander.intergration.wrapper.image.storage;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed on-disk thumbnail tier: one immutable file per derived thumbnail ETag under
+ * {@code <root>/<first two hex>/<sha256 hex>.jpg}.
+ * <p>
+ * Writes land in a temporary sibling and are renamed into place, so a reader never sees a partial file and
+ * concurrent writers of one ETag race harmlessly on identical bytes. An in-memory, access-ordered index of every
+ * stored file is the LRU: {@link #find} and {@link #put} move an entry to the recent end, and once the tier exceeds
+ * its byte budget the oldest entries are removed down to 90% of it on the background executor, without walking the
+ * directory. Entries used within {@value #TOUCH_INTERVAL_MILLIS} ms are never removed, so a path returned by
+ * {@link #find} stays valid long enough to hand to the container for sendfile.
+ * </p>
+ * <p>
+ * Nothing touches the file system until the first lookup or write. That call queues a one-time scan on the
+ * background executor, which recovers the files left by a previous run (ordered by modification time, refreshed on
+ * hits at most once per {@value #TOUCH_INTERVAL_MILLIS} ms so the order survives restarts) and sweeps abandoned
+ * temporaries; lookups and writes are served meanwhile and eviction waits for it.
+ * </p>
+ */
+public class ThumbnailDiskStore implements AutoCloseable {
+
+    static final long TOUCH_INTERVAL_MILLIS = 60_000L;
+    private static final String SUFFIX = ".jpg";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private final Path root;
+    private final long maxBytes;
+    private final long lowWaterBytes;
+    private final Clock clock;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    /** File name to size and last use, least recently used first; guarded by itself. */
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<String, Entry>(256, 0.75f, true);
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong entries = new AtomicLong();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final AtomicBoolean cleaning = new AtomicBoolean();
+    private volatile boolean opened;
+    private volatile boolean scanned;
+
+    public ThumbnailDiskStore(Path root, long maxBytes) {
+        this(root, maxBytes, Clock.systemUTC());
+    }
+
+    public ThumbnailDiskStore(Path root, long maxBytes, Clock clock) {
+        this(root, maxBytes, clock, null);
+    }
+
+    /** {@code executor} runs the startup scan and evictions; null starts a private daemon thread. */
+    public ThumbnailDiskStore(Path root, long maxBytes, Clock clock, Executor executor) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("thumbnail disk budget must be positive");
+        this.root = Objects.requireNonNull(root, "root").toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.lowWaterBytes = maxBytes - maxBytes / 10;
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.ownedExecutor = executor == null ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "thumbnail-disk");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.executor = executor == null ? ownedExecutor : executor;
+    }
+
+    /** Stored thumbnail file and its size; the path is absolute. */
+    public record Hit(Path path, long size) {
+    }
+
+    /** Stored file for {@code etag}, refreshing its LRU position, or null when absent or the ETag is malformed. */
+    public Hit find(String etag) {
+        String name = fileName(etag);
+        if (name == null) return null;
+        ensureOpen();
+        Path path = pathOf(name);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class,
+                LinkOption.NOFOLLOW_LINKS);
+            if (!attributes.isRegularFile()) return null;
+            long now = clock.millis();
+            if (now - attributes.lastModifiedTime().toMillis() > TOUCH_INTERVAL_MILLIS) {
+                Files.setLastModifiedTime(path, FileTime.fromMillis(now));
+            }
+            used(name, attributes.size(), now);
+            return new Hit(path, attributes.size());
+        } catch (IOException exception) {
+            forget(name);
+            return null;
+        }
+    }
+
+    /** Persists {@code content} under {@code etag}; false when it could not be written. Never throws. */
+    public boolean put(String etag, byte[] content) {
+        String name = fileName(etag);
+        if (name == null || content == null || content.length == 0 || content.length > lowWaterBytes) return false;
+        ensureOpen();
+        Path target = pathOf(name);
+        if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            Path temp = target.resolveSibling(name + "." + UUID.randomUUID().toString().replace("-", "") + TEMP_SUFFIX);
+            try {
+                Files.createDirectories(target.getParent());
+                Files.write(temp, content, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException exception) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException exception) {
+                writeFailures.increment();
+                deleteQuietly(temp);
+                return false;
+            }
+        }
+        if (used(name, content.length, clock.millis()) > maxBytes) scheduleCleanup();
+        return true;
+    }
+
+    /**
+     * Removes least recently used files until the tier is back under 90% of its budget, walking the index from its
+     * oldest end. Does nothing before the startup scan has finished; returns the number of files removed.
+     */
+    public int cleanup() {
+        if (!scanned || bytes.get() <= maxBytes) return 0;
+        long now = clock.millis();
+        List<String> victims = new ArrayList<String>();
+        synchronized (index) {
+            Iterator<Map.Entry<String, Entry>> iterator = index.entrySet().iterator();
+            while (bytes.get() > lowWaterBytes && iterator.hasNext()) {
+                Map.Entry<String, Entry> oldest = iterator.next();
+                if (now - oldest.getValue().usedAt <= TOUCH_INTERVAL_MILLIS) break;
+                iterator.remove();
+                bytes.addAndGet(-oldest.getValue().size);
+                entries.decrementAndGet();
+                victims.add(oldest.getKey());
+            }
+        }
+        for (String name : victims) {
+            deleteQuietly(pathOf(name));
+            evictions.increment();
+        }
+        return victims.size();
+    }
+
+    /** Stops the private background thread, if this store started one. */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) ownedExecutor.shutdownNow();
+    }
+
+    public Path root() { return root; }
+    public long maxBytes() { return maxBytes; }
+    public long bytes() { return bytes.get(); }
+    public long entries() { return entries.get(); }
+    public long evictions() { return evictions.sum(); }
+    public long writeFailures() { return writeFailures.sum(); }
+
+    private void ensureOpen() {
+        if (opened) return;
+        synchronized (this) {
+            if (opened) return;
+            opened = true;
+        }
+        try {
+            executor.execute(this::open);
+        } catch (RejectedExecutionException exception) {
+            // closed: keep serving lookups and writes, just without eviction
+        }
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(root);
+            merge(scan(clock.millis()));
+        } catch (IOException exception) {
+            // left to the individual reads and writes, which fail soft
+        }
+        scanned = true;
+        cleanup();
+    }
+
+    private void scheduleCleanup() {
+        if (!scanned || !cleaning.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    cleanup();
+                } finally {
+                    cleaning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            cleaning.set(false);
+        }
+    }
+
+    /** Moves {@code name} to the recent end of the index, adding it if unknown; returns the tier size after. */
+    private long used(String name, long size, long now) {
+        synchronized (index) {
+            Entry entry = index.get(name);
+            if (entry != null) {
+                entry.usedAt = now;
+                return bytes.get();
+            }
+            index.put(name, new Entry(size, now));
+            entries.incrementAndGet();
+            return bytes.addAndGet(size);
+        }
+    }
+
+    private void forget(String name) {
+        synchronized (index) {
+            Entry entry = index.remove(name);
+            if (entry == null) return;
+            bytes.addAndGet(-entry.size);
+            entries.decrementAndGet();
+        }
+    }
+
+    /**
+     * Adds files found on disk that the index does not know yet, ahead of everything used since startup and in
+     * modification-time order among themselves.
+     */
+    private void merge(List<Stored> files) {
+        files.sort(Comparator.comparingLong(Stored::modified));
+        synchronized (index) {
+            List<Map.Entry<String, Entry>> live = new ArrayList<Map.Entry<String, Entry>>(index.entrySet());
+            index.clear();
+            for (Stored file : files) {
+                String fileName = file.path().getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - SUFFIX.length());
+                index.put(name, new Entry(file.size(), file.modified()));
+            }
+            for (Map.Entry<String, Entry> entry : live) index.put(entry.getKey(), entry.getValue());
+            long total = 0;
+            for (Entry entry : index.values()) total += entry.size;
+            bytes.set(total);
+            entries.set(index.size());
+        }
+    }
+
+    /** Walks the tree once and drops temporaries abandoned by a crashed writer. */
+    private List<Stored> scan(long now) throws IOException {
+        List<Stored> files = new ArrayList<Stored>();
+        if (!Files.isDirectory(root, LinkOption.NOFOLLOW_LINKS)) return files;
+        try (Stream<Path> paths = Files.walk(root, 2)) {
+            for (Path path : (Iterable<Path>)paths::iterator) {
+                String fileName = path.getFileName().toString();
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException exception) {
+                    continue;
+                }
+                if (!attributes.isRegularFile()) continue;
+                long modified = attributes.lastModifiedTime().toMillis();
+                if (fileName.endsWith(SUFFIX)) {
+                    files.add(new Stored(path, attributes.size(), modified));
+                } else if (fileName.endsWith(TEMP_SUFFIX) && now - modified > TOUCH_INTERVAL_MILLIS) {
+                    deleteQuietly(path);
+                }
+            }
+        }
+        return files;
+    }
+
+    private Path pathOf(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name + SUFFIX);
+    }
+
+    /** {@code "sha256:<64 hex>"}, quoted or not, to the bare hex digest; anything else is rejected. */
+    static String fileName(String etag) {
+        if (etag == null) return null;
+        String value = etag.length() >= 2 && etag.charAt(0) == '"' && etag.charAt(etag.length() - 1) == '"'
+            ? etag.substring(1, etag.length() - 1) : etag;
+        if (!value.startsWith("sha256:") || value.length() != 7 + 64) return null;
+        String hex = value.substring(7);
+        for (int i = 0; i < hex.length(); i++) {
+            char c = hex.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) return null;
+        }
+        return hex;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // a leftover temporary is swept by the next scan
+        }
+    }
+
+    private record Stored(Path path, long size, long modified) {
+    }
+
+    private static final class Entry {
+
+        final long size;
+        long usedAt;
+
+        Entry(long size, long usedAt) {
+            this.size = size;
+            this.usedAt = usedAt;
+        }
+    }
+}
@@ -15,9 +15,12 @@ import io.github.lunasaw.voglander.common.event.StreamOfflineEvent;
 import io.github.lunasaw.voglander.common.event.StreamReadyEvent;
 
 import io.github.lunasaw.voglander.intergration.wrapper.zlm.auth.ZlmHookAuthService;
+import io.github.lunasaw.voglander.intergration.wrapper.zlm.supplier.MediaNodeTable;
 import io.github.lunasaw.voglander.manager.domaon.dto.MediaSessionDTO;
 import io.github.lunasaw.voglander.manager.domaon.dto.StreamProxyDTO;
+import io.github.lunasaw.voglander.manager.manager.MediaFlowRollupManager;
 import io.github.lunasaw.voglander.manager.manager.MediaNodeManager;
+import io.github.lunasaw.voglander.manager.manager.MediaRecordManager;
 import io.github.lunasaw.voglander.manager.manager.MediaSessionManager;
 import io.github.lunasaw.voglander.manager.manager.StreamProxyManager;
 import io.github.lunasaw.zlm.entity.ServerNodeConfig;
@@ -54,6 +57,15 @@ public class VoglanderZlmHookServiceImpl extends AbstractZlmHookService {
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired
+    private MediaNodeTable         mediaNodeTable;
+
+    @Autowired
+    private MediaFlowRollupManager mediaFlowRollupManager;
+
+    @Autowired
+    private MediaRecordManager     mediaRecordManager;
+
     /**
      * 无人观看到点是否主动 BYE 回收（默认 true，按 SIP/GB28181 标准）。
      * 置 false 退回旧保守行为（不关流，回收交给 pending_close / GC 对账）。
@@ -78,6 +90,23 @@ public class VoglanderZlmHookServiceImpl extends AbstractZlmHookService {
         } catch (Exception e) {
             log.error("处理心跳回调失败，节点ID: {}, 错误: {}", serverId, e.getMessage(), e);
         }
+        try {
+            // 心跳携带的对象统计折算为节点负载，供选节点使用
+            var data = param.getData();
+            if (data == null) {
+                return;
+            }
+            mediaNodeTable.onKeepalive(serverId,
+                count(data.getMultiMediaSourceMuxer()),
+                count(data.getTcpSession()) + count(data.getUdpSession()),
+                count(data.getUdpServer()));
+        } catch (Exception e) {
+            log.warn("解析心跳负载失败，节点ID: {}, 错误: {}", serverId, e.getMessage());
+        }
+    }
+
+    private static int count(Integer value) {
+        return value == null ? 0 : value;
     }
 
     @Override
@@ -346,10 +375,16 @@ public class VoglanderZlmHookServiceImpl extends AbstractZlmHookService {
 
     @Override
     public void onFlowReport(OnFlowReportHookParam param, HttpServletRequest request) {
-        log.info("ZLM流量报告回调 - 服务器ID: {}", JSON.toJSONString(param));
-
-        // TODO: 实现流量统计处理逻辑
-        // 可以记录流量统计、计费等
+        try {
+            // 只进内存累加器，由 MediaFlowRollupManager 定时批量落库，Hook 线程不写 DB
+            JSONObject flow = JSON.parseObject(JSON.toJSONString(param));
+            mediaFlowRollupManager.record(flow.getString("mediaServerId"), flow.getString("stream"),
+                flow.getLongValue("totalBytes"), flow.getLongValue("duration"), flow.getBooleanValue("player"));
+            log.debug("ZLM流量报告回调 - 服务器ID: {}, 流名: {}, 字节数: {}", flow.getString("mediaServerId"),
+                flow.getString("stream"), flow.getLongValue("totalBytes"));
+        } catch (Exception e) {
+            log.warn("处理流量报告回调失败: {}", e.getMessage());
+        }
     }
 
     @Override
@@ -361,6 +396,7 @@ public class VoglanderZlmHookServiceImpl extends AbstractZlmHookService {
             // 更新节点为离线状态
             mediaNodeManager.updateNodeOffline(serverId);
             log.info("处理服务器退出回调成功，节点ID: {} 已设置为离线", serverId);
+            mediaNodeTable.onExited(serverId);
             eventPublisher.publishEvent(new NodeExitedEvent(serverId));
         } catch (Exception e) {
             log.error("处理服务器退出回调失败，节点ID: {}, 错误: {}", serverId, e.getMessage(), e);
@@ -369,11 +405,23 @@ public class VoglanderZlmHookServiceImpl extends AbstractZlmHookService {
 
     @Override
     public void onRecordMp4(OnRecordMp4HookParam param, HttpServletRequest request) {
-        // 当前无录像域表（tb_record / RecordManager 尚未引入），录像生命周期由 ZLM 自治管理。
-        // 这里仅结构化记录文件元数据供排障/审计；后续若有录像管理需求，再落库（filePath/stream/fileSize/timeLen 等）。
         log.info("ZLM MP4录制完成回调 - 服务器ID: {}, app: {}, stream: {}, 文件: {}, 大小: {}字节, 时长: {}秒, 起始: {}",
             param.getMediaServerId(), param.getApp(), param.getStream(),
             param.getFilePath(), param.getFileSize(), param.getTimeLen(), param.getStartTime());
+        try {
+            // 只进内存索引与待落库队列，由 MediaRecordManager 定时批量落库；ZLM 的 start_time 为秒级时间戳
+            JSONObject record = JSON.parseObject(JSON.toJSONString(param));
+            long startSec = record.containsKey("startTime") ? record.getLongValue("startTime")
+                : record.getLongValue("start_time");
+            double timeLenSec = record.containsKey("timeLen") ? record.getDoubleValue("timeLen")
+                : record.getDoubleValue("time_len");
+            mediaRecordManager.onSegment(param.getMediaServerId(), param.getApp(), param.getStream(),
+                record.getString(record.containsKey("filePath") ? "filePath" : "file_path"), record.getString("url"),
+                record.containsKey("fileSize") ? record.getLongValue("fileSize") : record.getLongValue("file_size"),
+                startSec * 1000L, Math.round(timeLenSec * 1000));
+        } catch (Exception e) {
+            log.warn("处理MP4录制完成回调失败: {}", e.getMessage());
+        }
     }
 
     /**
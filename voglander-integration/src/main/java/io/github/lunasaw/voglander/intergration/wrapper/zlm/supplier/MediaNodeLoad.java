@@ -0,0 +1,35 @@
+package io.github.lunasaw.voglander.intergration.wrapper.zlm.supplier;
+
+/**
+ * 媒体节点负载快照，由 ZLM {@code on_server_keepalive} 上报的对象统计折算而来。
+ * <ul>
+ * <li>{@code streams}：在线流数（MultiMediaSourceMuxer 个数，一路流一个）</li>
+ * <li>{@code readers}：TCP/UDP 会话数，近似播放器与推流连接数</li>
+ * <li>{@code rtpPorts}：占用的 UDP 服务端口数（openRtpServer 收流端口）</li>
+ * <li>{@code bandwidthBps}：出口带宽估计，keepalive 不含流量，未接入流量统计时为 0</li>
+ * <li>{@code pending}：本实例自上次心跳以来新派发到该节点、尚未体现在心跳里的首播数</li>
+ * </ul>
+ *
+ * @author luna
+ */
+public record MediaNodeLoad(String serverId, int streams, int readers, int rtpPorts, long bandwidthBps,
+    int pending, long keepaliveAtMs, boolean exited) {
+
+    /**
+     * 负载代价：流数（含派发未上报）权重最高，连接与端口次之，带宽按 Mbps 计，再按节点权重（容量）归一。
+     *
+     * @param weight 节点权重，&lt;= 0 按 1 处理
+     */
+    public double cost(int weight) {
+        double raw = 2.0 * (streams + pending) + readers + rtpPorts + bandwidthBps / 1_000_000.0;
+        return raw / Math.max(1, weight);
+    }
+
+    MediaNodeLoad withPending(int pending) {
+        return new MediaNodeLoad(serverId, streams, readers, rtpPorts, bandwidthBps, pending, keepaliveAtMs, exited);
+    }
+
+    MediaNodeLoad asExited() {
+        return new MediaNodeLoad(serverId, streams, readers, rtpPorts, bandwidthBps, pending, keepaliveAtMs, true);
+    }
+}
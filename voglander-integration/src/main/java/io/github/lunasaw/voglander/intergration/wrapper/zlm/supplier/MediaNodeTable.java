@@ -0,0 +1,216 @@
+package io.github.lunasaw.voglander.intergration.wrapper.zlm.supplier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.github.lunasaw.voglander.common.event.MediaNodeChangedEvent;
+import io.github.lunasaw.voglander.manager.domaon.dto.MediaNodeDTO;
+import io.github.lunasaw.voglander.manager.manager.MediaNodeManager;
+import io.github.lunasaw.zlm.config.ZlmNode;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 媒体节点内存表：启用节点列表 + 每节点负载快照。
+ * <p>
+ * 节点列表首次使用时从 DB 装载，此后只在以下时机重读：未知节点上报心跳（新节点注册）、
+ * {@link MediaNodeChangedEvent}（任何经 MediaNodeManager 的节点变更）、超过 {@code zlm.node-table.refresh-ms} 的兜底刷新；
+ * 选节点路径不再每次查库，过期时并发读者只有一个真正查库。
+ * 负载由 ZLM 心跳 Hook 写入（{@link #onKeepalive}），两次心跳之间本实例派发的首播计入 {@code pending}，
+ * 避免心跳间隔内所有请求都涌向同一个"最空"节点。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+@Component
+public class MediaNodeTable {
+
+    /** 未知节点心跳触发重读的最小间隔，避免被禁用节点的心跳反复打库 */
+    private static final long                        UNKNOWN_RELOAD_INTERVAL_MS = 5_000L;
+
+    @Autowired
+    private MediaNodeManager                         mediaNodeManager;
+
+    /** 节点列表兜底刷新周期（毫秒），覆盖其他实例上发生、本实例收不到变更事件的节点改动 */
+    @Value("${zlm.node-table.refresh-ms:60000}")
+    private long                                     refreshMs                  = 60_000L;
+
+    /** 心跳超过该时长未更新视为失联（毫秒），ZLM 默认 10s 一次心跳 */
+    @Value("${zlm.node-table.keepalive-stale-ms:30000}")
+    private long                                     keepaliveStaleMs           = 30_000L;
+
+    private final ConcurrentHashMap<String, MediaNodeLoad> loads                = new ConcurrentHashMap<>();
+
+    private volatile Snapshot                        snapshot;
+
+    /** 失效次数，重读期间发生的失效不会被这次重读的结果覆盖掉 */
+    private volatile int                             invalidations;
+
+    /**
+     * 当前启用节点（按权重降序），只读。
+     */
+    public List<ZlmNode> nodes() {
+        return current().nodes;
+    }
+
+    /**
+     * 按 serverId 取启用节点，不存在或已禁用返回 null。
+     */
+    public ZlmNode node(String serverId) {
+        return serverId == null ? null : current().byId.get(serverId);
+    }
+
+    /**
+     * 节点负载快照，尚未收到心跳也未派发过返回 null。
+     */
+    public MediaNodeLoad load(String serverId) {
+        return loads.get(serverId);
+    }
+
+    /**
+     * 节点是否可按负载派发新流：负载未知（本实例尚未收到过它的心跳）、已退出或心跳失联的都不可用，
+     * 由调用方回退到不依赖心跳负载的选节点方式。
+     */
+    public boolean isAvailable(String serverId, long nowMs) {
+        MediaNodeLoad load = loads.get(serverId);
+        if (load == null || load.exited() || load.keepaliveAtMs() <= 0) {
+            return false;
+        }
+        return nowMs - load.keepaliveAtMs() <= keepaliveStaleMs;
+    }
+
+    /**
+     * 心跳上报负载：覆盖流/连接/端口统计并清零 pending（已体现在本次统计里），保留带宽估计。
+     */
+    public void onKeepalive(String serverId, int streams, int readers, int rtpPorts) {
+        long now = System.currentTimeMillis();
+        loads.compute(serverId, (k, old) -> new MediaNodeLoad(serverId, streams, readers, rtpPorts,
+            old == null ? 0L : old.bandwidthBps(), 0, now, false));
+        // 节点表尚未装载时无需处理，首次选节点会整表装载
+        Snapshot current = snapshot;
+        if (current != null && !current.byId.containsKey(serverId)
+            && now - current.loadedAtMs > UNKNOWN_RELOAD_INTERVAL_MS) {
+            log.info("收到未知节点心跳，重读节点表: serverId={}", serverId);
+            reload(current);
+        }
+    }
+
+    /**
+     * 本实例向节点派发了一路首播。
+     */
+    public void onPlaced(String serverId) {
+        loads.compute(serverId, (k, old) -> old == null
+            ? new MediaNodeLoad(serverId, 0, 0, 0, 0L, 1, 0L, false)
+            : old.withPending(old.pending() + 1));
+    }
+
+    /**
+     * 节点退出：下次心跳前不再派发。
+     */
+    public void onExited(String serverId) {
+        loads.computeIfPresent(serverId, (k, old) -> old.asExited());
+        loads.putIfAbsent(serverId, new MediaNodeLoad(serverId, 0, 0, 0, 0L, 0, 0L, true));
+    }
+
+    /**
+     * 标记节点列表过期，下次读取时重读 DB。
+     */
+    public void invalidate() {
+        invalidations++;
+        snapshot = null;
+    }
+
+    @EventListener
+    public void onNodeChanged(MediaNodeChangedEvent event) {
+        log.debug("媒体节点变更，节点表下次读取时重读: serverId={}", event.getServerId());
+        invalidate();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null || System.currentTimeMillis() - current.loadedAtMs > refreshMs) {
+            current = reload(current);
+        }
+        return current;
+    }
+
+    /**
+     * 重读节点表。{@code observed} 为调用方判定过期时看到的快照：拿到锁后若已被其他线程换成新表则直接复用，
+     * 过期时排队的读者不会逐个查库。
+     */
+    private synchronized Snapshot reload(Snapshot observed) {
+        Snapshot previous = snapshot;
+        if (previous != null && previous != observed) {
+            return previous;
+        }
+        int generation = invalidations;
+        List<MediaNodeDTO> enabled;
+        try {
+            enabled = mediaNodeManager.getEnabledNodes();
+        } catch (Exception e) {
+            log.error("重读媒体节点表失败，沿用旧表", e);
+            Snapshot stale = previous != null ? previous : Snapshot.EMPTY;
+            // 推迟下次重读，避免 DB 故障期间每次选节点都打库
+            snapshot = new Snapshot(stale.byId, System.currentTimeMillis());
+            return snapshot;
+        }
+        Map<String, ZlmNode> byId = new LinkedHashMap<>();
+        if (enabled != null) {
+            for (MediaNodeDTO dto : enabled) {
+                ZlmNode node = toZlmNode(dto);
+                if (node != null) {
+                    byId.put(node.getServerId(), node);
+                }
+            }
+        }
+        Snapshot loaded = new Snapshot(byId, System.currentTimeMillis());
+        // 查库期间又有变更：本次结果照常返回，但不缓存，下次读取重新装载
+        if (generation == invalidations) {
+            snapshot = loaded;
+        }
+        log.debug("媒体节点表已装载: {} 个启用节点", byId.size());
+        return loaded;
+    }
+
+    /**
+     * 将 MediaNodeDTO 转换为 ZlmNode，未启用或缺少 serverId 返回 null。
+     */
+    static ZlmNode toZlmNode(MediaNodeDTO nodeDTO) {
+        if (nodeDTO == null || nodeDTO.getServerId() == null || !Boolean.TRUE.equals(nodeDTO.getEnabled())) {
+            return null;
+        }
+        ZlmNode node = new ZlmNode();
+        node.setServerId(nodeDTO.getServerId());
+        node.setHost(nodeDTO.getHost());
+        node.setSecret(nodeDTO.getSecret());
+        node.setWeight(nodeDTO.getWeight() != null ? nodeDTO.getWeight() : 1);
+        node.setEnabled(true);
+        return node;
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot            EMPTY = new Snapshot(Collections.emptyMap(), 0L);
+
+        final Map<String, ZlmNode>       byId;
+
+        final List<ZlmNode>              nodes;
+
+        final long                       loadedAtMs;
+
+        Snapshot(Map<String, ZlmNode> byId, long loadedAtMs) {
+            this.byId = Collections.unmodifiableMap(byId);
+            this.nodes = Collections.unmodifiableList(new ArrayList<>(byId.values()));
+            this.loadedAtMs = loadedAtMs;
+        }
+    }
+}
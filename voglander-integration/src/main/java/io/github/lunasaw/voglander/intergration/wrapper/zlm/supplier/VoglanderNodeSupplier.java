@@ -13,11 +13,10 @@ import org.springframework.stereotype.Component;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Voglander节点提供器
- * 从数据库动态获取启用的媒体节点列表
+ * 从媒体节点内存表（{@link MediaNodeTable}）获取启用的媒体节点列表，节点表由 DB 装载、心跳 Hook 刷新
  *
  * @author luna
  * @date 2025/01/23
@@ -31,26 +30,17 @@ public class VoglanderNodeSupplier implements NodeSupplier {
     @Autowired
     private MediaNodeManager mediaNodeManager;
 
+    @Autowired
+    private MediaNodeTable   mediaNodeTable;
+
     @Override
     public List<ZlmNode> getNodes() {
         try {
-            // 从数据库获取所有启用的节点
-            List<MediaNodeDTO> enabledNodes = mediaNodeManager.getEnabledNodes();
-
-            if (enabledNodes == null || enabledNodes.isEmpty()) {
+            List<ZlmNode> zlmNodes = mediaNodeTable.nodes();
+            if (zlmNodes.isEmpty()) {
                 log.debug("没有找到启用的媒体节点");
-                return Collections.emptyList();
             }
-
-            // 转换为ZlmNode列表
-            List<ZlmNode> zlmNodes = enabledNodes.stream()
-                .map(this::convertToZlmNode)
-                .filter(node -> node != null) // 过滤转换失败的节点
-                .collect(Collectors.toList());
-
-            log.debug("NodeSupplier获取到{}个启用的ZLM节点", zlmNodes.size());
             return zlmNodes;
-
         } catch (Exception e) {
             log.error("NodeSupplier获取节点列表失败", e);
             return Collections.emptyList();
@@ -65,7 +55,11 @@ public class VoglanderNodeSupplier implements NodeSupplier {
         }
 
         try {
-            // 从数据库获取指定的节点（带缓存）
+            // 优先查内存节点表，未命中（如刚在控制台新增、尚未刷新）再查数据库（带缓存）
+            ZlmNode cached = mediaNodeTable.node(serverId);
+            if (cached != null) {
+                return cached;
+            }
             MediaNodeDTO nodeDTO = mediaNodeManager.getDTOByServerId(serverId);
 
             if (nodeDTO == null) {
@@ -73,8 +67,7 @@ public class VoglanderNodeSupplier implements NodeSupplier {
                 return null;
             }
 
-            // 转换为ZlmNode并返回
-            ZlmNode zlmNode = convertToZlmNode(nodeDTO);
+            ZlmNode zlmNode = MediaNodeTable.toZlmNode(nodeDTO);
             if (zlmNode != null) {
                 log.debug("NodeSupplier成功获取节点: serverId={}, host={}", serverId, zlmNode.getHost());
             }
@@ -90,34 +83,4 @@ public class VoglanderNodeSupplier implements NodeSupplier {
     public String getName() {
         return "VoglanderNodeSupplier";
     }
-
-    /**
-     * 将MediaNodeDTO转换为ZlmNode
-     *
-     * @param nodeDTO 数据库节点DTO
-     * @return ZlmNode对象，转换失败时返回null
-     */
-    private ZlmNode convertToZlmNode(MediaNodeDTO nodeDTO) {
-        if (nodeDTO == null || nodeDTO.getServerId() == null) {
-            return null;
-        }
-        if (!nodeDTO.getEnabled()) {
-            return null;
-        }
-
-        try {
-            ZlmNode node = new ZlmNode();
-            node.setServerId(nodeDTO.getServerId());
-            node.setHost(nodeDTO.getHost());
-            node.setSecret(nodeDTO.getSecret());
-            node.setWeight(nodeDTO.getWeight() != null ? nodeDTO.getWeight() : 1);
-            node.setEnabled(nodeDTO.getEnabled() != null ? nodeDTO.getEnabled() : false);
-
-            return node;
-        } catch (Exception e) {
-            log.error("转换MediaNodeDTO到ZlmNode失败: serverId={}, 错误: {}",
-                nodeDTO.getServerId(), e.getMessage());
-            return null;
-        }
-    }
-}
\ No newline at end of file
+}
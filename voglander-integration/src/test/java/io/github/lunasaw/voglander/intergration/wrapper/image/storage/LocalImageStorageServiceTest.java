@@ -146,4 +146,44 @@ class LocalImageStorageServiceTest {
         assertEquals(1L, fallbackStorage.getAtomicMoveFallbackCount());
         assertTrue(fallbackStorage.exists(stored.storageKey()));
     }
+
+    @Test
+    void iterateFinalKeys_shouldYieldGlobalStringOrderAndResumeAfterKey() throws Exception {
+        for (String key : new String[] {"images/a/x.jpg", "images/a.jpg", "images/a-b.jpg", "images/b/c/d.jpg",
+            "images/b/c.jpg", "images/2026/07/img_2.jpg", "images/2026/07/img_10.jpg"}) {
+            Path file = root.resolve(key);
+            Files.createDirectories(file.getParent());
+            Files.write(file, new byte[] {1});
+        }
+        java.util.List<String> expected = new java.util.ArrayList<>(new java.util.TreeSet<>(storage.listFinalKeys()));
+
+        java.util.List<String> all = new java.util.ArrayList<>();
+        storage.iterateFinalKeys(null).forEachRemaining(all::add);
+        java.util.List<String> resumed = new java.util.ArrayList<>();
+        storage.iterateFinalKeys("images/a.jpg").forEachRemaining(resumed::add);
+
+        assertEquals(expected, all);
+        assertEquals(java.util.List.of("images/a/x.jpg", "images/b/c.jpg", "images/b/c/d.jpg"), resumed);
+    }
+
+    @Test
+    void open_shouldExposeFileBackedContentForPositionalRanges() throws Exception {
+        byte[] bytes = new byte[200_000];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = (byte)i;
+        Path file = root.resolve("images/2026/07/img_range.jpg");
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes);
+
+        try (var content = storage.open("images/2026/07/img_range.jpg")) {
+            assertEquals(bytes.length, content.contentLength());
+            assertEquals(file.toRealPath(), content.file());
+            java.io.ByteArrayOutputStream tail = new java.io.ByteArrayOutputStream();
+            content.transferTo(tail, 150_000, 50_000);
+            java.io.ByteArrayOutputStream head = new java.io.ByteArrayOutputStream();
+            content.transferTo(head, 0, 10);
+            assertArrayEquals(java.util.Arrays.copyOfRange(bytes, 150_000, 200_000), tail.toByteArray());
+            assertArrayEquals(java.util.Arrays.copyOfRange(bytes, 0, 10), head.toByteArray());
+            assertThrows(IllegalArgumentException.class, () -> content.transferTo(head, 199_999, 2));
+        }
+    }
 }
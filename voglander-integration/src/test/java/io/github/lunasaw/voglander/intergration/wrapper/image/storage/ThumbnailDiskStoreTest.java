@@ -0,0 +1,177 @@
+package io.github.lunasaw.voglander.intergration.wrapper.image.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ThumbnailDiskStoreTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @TempDir
+    Path root;
+
+    @Test
+    void putThenFindRoundTripsUnderContentAddressedPath() throws Exception {
+        ThumbnailDiskStore store = new ThumbnailDiskStore(root, 1000);
+        String etag = etag(1);
+
+        assertNull(store.find(etag));
+        assertTrue(store.put(etag, new byte[] {1, 2, 3}));
+        ThumbnailDiskStore.Hit hit = store.find(etag);
+
+        assertNotNull(hit);
+        assertEquals(3L, hit.size());
+        assertEquals(root.resolve(hex(1).substring(0, 2)).resolve(hex(1) + ".jpg"), hit.path());
+        assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(hit.path()));
+        assertEquals(3L, store.bytes());
+        assertEquals(1L, store.entries());
+    }
+
+    @Test
+    void malformedEtagsNeverReachTheFileSystem() {
+        ThumbnailDiskStore store = new ThumbnailDiskStore(root.resolve("untouched"), 1000);
+
+        assertFalse(store.put("\"sha256:../../etc/passwd\"", new byte[] {1}));
+        assertFalse(store.put("\"md5:" + hex(1) + "\"", new byte[] {1}));
+        assertFalse(store.put("\"sha256:" + hex(1).toUpperCase() + "\"", new byte[] {1}));
+        assertNull(store.find(null));
+        assertFalse(Files.exists(root.resolve("untouched")));
+    }
+
+    @Test
+    void cleanupEvictsLeastRecentlyUsedDownToLowWater() throws Exception {
+        ManualClock clock = new ManualClock(System.currentTimeMillis());
+        ThumbnailDiskStore store = new ThumbnailDiskStore(root, 1000, clock, DIRECT);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(store.put(etag(i), new byte[100]));
+            clock.advance(1000L);
+        }
+        clock.advance(600_000L);
+        // a hit on the oldest file moves it to the recent end
+        store.find(etag(0));
+
+        assertTrue(store.put(etag(10), new byte[100]));
+
+        assertNotNull(store.find(etag(0)));
+        assertNull(store.find(etag(1)));
+        assertNull(store.find(etag(2)));
+        assertNotNull(store.find(etag(3)));
+        assertEquals(900L, store.bytes());
+        assertEquals(9L, store.entries());
+        assertEquals(2L, store.evictions());
+    }
+
+    @Test
+    void recentlyTouchedFilesAreNeverEvicted() throws Exception {
+        ThumbnailDiskStore store = new ThumbnailDiskStore(root, 1000, Clock.systemUTC(), DIRECT);
+        for (int i = 0; i <= 10; i++) assertTrue(store.put(etag(i), new byte[100]));
+
+        for (int i = 0; i <= 10; i++) assertNotNull(store.find(etag(i)));
+        assertEquals(1100L, store.bytes());
+        assertEquals(0L, store.evictions());
+    }
+
+    @Test
+    void reopenRecoversTotalsAndSweepsAbandonedTemporaries() throws Exception {
+        ThumbnailDiskStore first = new ThumbnailDiskStore(root, 1000);
+        for (int i = 0; i < 3; i++) assertTrue(first.put(etag(i), new byte[50]));
+        Path abandoned = root.resolve("ab").resolve(hex(7) + ".deadbeef.tmp");
+        Files.createDirectories(abandoned.getParent());
+        Files.write(abandoned, new byte[10]);
+        Files.setLastModifiedTime(abandoned, FileTime.fromMillis(System.currentTimeMillis() - 600_000L));
+
+        ThumbnailDiskStore reopened = new ThumbnailDiskStore(root, 1000, Clock.systemUTC(), DIRECT);
+
+        assertNotNull(reopened.find(etag(1)));
+        assertEquals(150L, reopened.bytes());
+        assertEquals(3L, reopened.entries());
+        assertFalse(Files.exists(abandoned));
+    }
+
+    @Test
+    void startupScanRunsOnTheExecutorAndRecoveredFilesAreEvictedFirst() throws Exception {
+        ThumbnailDiskStore first = new ThumbnailDiskStore(root, 1000, Clock.systemUTC(), DIRECT);
+        long old = System.currentTimeMillis() - 600_000L;
+        for (int i = 0; i < 9; i++) {
+            assertTrue(first.put(etag(i), new byte[100]));
+            Files.setLastModifiedTime(first.find(etag(i)).path(), FileTime.fromMillis(old + i * 1000L));
+        }
+        Queue<Runnable> background = new ArrayDeque<Runnable>();
+        ThumbnailDiskStore reopened = new ThumbnailDiskStore(root, 1000, Clock.systemUTC(), background::add);
+
+        // served before the scan ran, and the scan has not touched the request thread
+        assertNotNull(reopened.find(etag(4)));
+        assertTrue(reopened.put(etag(9), new byte[100]));
+        assertTrue(reopened.put(etag(10), new byte[100]));
+        assertEquals(1, background.size());
+        assertEquals(0L, reopened.evictions());
+
+        background.poll().run();
+
+        assertEquals(2L, reopened.evictions());
+        assertNull(reopened.find(etag(0)));
+        assertNull(reopened.find(etag(1)));
+        assertNotNull(reopened.find(etag(4)));
+        assertEquals(900L, reopened.bytes());
+        assertEquals(9L, reopened.entries());
+    }
+
+    private static final class ManualClock extends Clock {
+
+        private long millis;
+
+        ManualClock(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    private static String etag(int seed) {
+        return "\"sha256:" + hex(seed) + "\"";
+    }
+
+    private static String hex(int seed) {
+        char[] digits = new char[64];
+        Arrays.fill(digits, "0123456789abcdef".charAt(seed % 16));
+        digits[0] = "0123456789abcdef".charAt(seed / 16 % 16);
+        digits[63] = "0123456789abcdef".charAt(seed % 16);
+        return new String(digits);
+    }
+}
@@ -15,6 +15,10 @@ import lombok.extern.slf4j.Slf4j;
  * 由所有节点共消费的定时扫描器到点取出再 evict 一次，修 A4（JVM 定时器进程崩溃后脏读到 TTL）。
  * </p>
  * <p>member 格式：{@code cacheName::key}，分隔符双冒号避免 key 本身带单冒号时歧义。</p>
+ * <p>
+ * 开启近端缓存（{@code voglander.cache.near.enabled}）时 {@link CacheManager} 为 {@code TwoTierCacheManager}：
+ * ZREM 后只有一个节点执行 evict，但该 evict 经 {@code TwoTierCache} 广播到所有节点，第二删同样覆盖各节点 L1。
+ * </p>
  *
  * @author luna
  */
@@ -0,0 +1,292 @@
+package io.github.lunasaw.voglander.manager.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.lunasaw.voglander.repository.cache.local.SingleFlight;
+import io.github.lunasaw.voglander.repository.cache.near.TwoTierCache;
+import io.github.lunasaw.voglander.repository.config.RedisConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 热点 key 的 cache-aside 加载器，替代热点查询上的 {@code @Cacheable}。
+ * <p>
+ * 热门设备 / 流媒体节点缓存过期瞬间，并发的点播、云台请求会同时未命中并打到数据库。这里做三件事：
+ * </p>
+ * <ul>
+ * <li>进程内 single-flight：同一 (cacheName, key) 的并发未命中只回源一次，其余调用方共享结果；</li>
+ * <li>跨节点租约（可选，{@code lease-ms > 0}）：leader 先 {@code SET NX PX} 抢 Redis 短租约，
+ * 抢不到的节点在租约期内轮询缓存等待回填，超时再自行回源；</li>
+ * <li>概率提前刷新（XFetch）：本节点回源过的 key 记录过期时刻与回源耗时，命中时以
+ * {@code now - delta * beta * ln(rand) >= expiry} 的概率提前刷新，打散同批 key 的同步过期。
+ * 刷新投递到后台线程，命中路径始终直接返回缓存值；同一 key 同时只有一个刷新在排队或执行。</li>
+ * </ul>
+ * <p>
+ * 语义与原 {@code @Cacheable(unless = "#result == null")} 一致：null 不缓存；缓存名与 key 不变，
+ * 写路径的精确 evict / 延迟双删无需改动。提前刷新只由曾回源该 key 的节点触发（其他节点不知道写入时刻）。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+@Component
+public class HotKeyCacheLoader {
+
+    private static final String                       LEASE_PREFIX = "cache:lease:";
+
+    private static final long                         LEASE_POLL_MS = 20L;
+
+    /** 提前刷新排队上限，满了丢弃本次刷新（缓存值仍有效，到期后按未命中回源） */
+    private static final int                          REFRESH_QUEUE = 1024;
+
+    @Autowired
+    private CacheManager                              cacheManager;
+
+    @Autowired(required = false)
+    private StringRedisTemplate                       stringRedisTemplate;
+
+    @Autowired(required = false)
+    private MeterRegistry                             meterRegistry;
+
+    /**
+     * 跨节点租约时长（毫秒），0 关闭，仅做进程内合并
+     */
+    @Value("${voglander.cache.single-flight.lease-ms:0}")
+    private long                                      leaseMs;
+
+    /**
+     * 跟随者等待 leader 的上限（毫秒）
+     */
+    @Value("${voglander.cache.single-flight.wait-timeout-ms:3000}")
+    private long                                      waitTimeoutMs;
+
+    /**
+     * XFetch beta：越大越早刷新，0 关闭提前刷新
+     */
+    @Value("${voglander.cache.early-refresh.beta:1.0}")
+    private double                                    beta;
+
+    private final String                              nodeId       = UUID.randomUUID().toString();
+
+    private final Map<String, Duration>               ttls         = new HashMap<>();
+
+    private SingleFlight<String, Object>              singleFlight;
+
+    private com.github.benmanes.caffeine.cache.Cache<String, Stamp> stamps;
+
+    private Map<String, Counter>                      outcomes;
+
+    /** 已投递、尚未结束的提前刷新 key，保证同一 key 只投递一次 */
+    private final Set<String>                         refreshing   = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor                        refreshExecutor;
+
+    @PostConstruct
+    public void init() {
+        ttls.putAll(RedisConfig.deviceCacheTtls());
+        ttls.putAll(RedisConfig.channelCacheTtls());
+        singleFlight = new SingleFlight<>(waitTimeoutMs);
+        stamps = Caffeine.newBuilder()
+            .maximumSize(100_000L)
+            .expireAfterWrite(Duration.ofHours(1L))
+            .build();
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new CompositeMeterRegistry();
+        outcomes = new HashMap<>();
+        for (String outcome : new String[] {"leader", "shared", "early_refresh", "lease_wait_hit"}) {
+            outcomes.put(outcome, Counter.builder("voglander.cache.single.flight")
+                .description("热点 key 未命中合并结果")
+                .tag("outcome", outcome)
+                .register(registry));
+        }
+        AtomicInteger threads = new AtomicInteger();
+        refreshExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(REFRESH_QUEUE), r -> {
+                Thread t = new Thread(r, "cache-early-refresh-" + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * cache-aside 读取。
+     *
+     * @param cacheName 缓存区名
+     * @param key       缓存 key（与写路径 evict 使用的 key 一致）
+     * @param type      值类型，缓存中类型不符按未命中处理
+     * @param loader    回源加载，返回 null 不缓存
+     * @return 缓存值或回源结果
+     */
+    public <T> T get(String cacheName, Object key, Class<T> type, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+        String flightKey = cacheName + "::" + key;
+        T cached = read(cache, key, type);
+        if (cached != null) {
+            if (shouldRefreshEarly(flightKey)) {
+                refreshAsync(cache, cacheName, key, flightKey, loader);
+            }
+            return cached;
+        }
+
+        boolean[] leader = new boolean[1];
+        Object value = singleFlight.execute(flightKey, () -> {
+            // 排队期间可能已被其他线程 / 节点回填
+            T filled = read(cache, key, type);
+            if (filled != null) {
+                return filled;
+            }
+            return leaseMs > 0 && stringRedisTemplate != null
+                ? loadWithLease(cache, cacheName, key, type, flightKey, loader)
+                : loadAndPut(cache, cacheName, key, flightKey, loader);
+        }, leader);
+        outcomes.get(leader[0] ? "leader" : "shared").increment();
+        return value != null ? type.cast(value) : null;
+    }
+
+    /**
+     * 投递一次提前刷新：{@link Set#add} 原子占位，同一 key 并发命中只有第一个投递；刷新仍走 single-flight，
+     * 与同时发生的未命中回源合并。队列满或已关闭时放弃，不影响本次命中。
+     */
+    private void refreshAsync(Cache cache, String cacheName, Object key, String flightKey, Supplier<?> loader) {
+        if (!refreshing.add(flightKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    boolean[] leader = new boolean[1];
+                    singleFlight.execute(flightKey, () -> loadAndPut(cache, cacheName, key, flightKey, loader), leader);
+                    if (leader[0]) {
+                        outcomes.get("early_refresh").increment();
+                    }
+                } catch (Exception e) {
+                    log.warn("缓存提前刷新失败，保留旧值: key={}", flightKey, e);
+                } finally {
+                    refreshing.remove(flightKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(flightKey);
+            log.debug("缓存提前刷新队列已满，跳过: key={}", flightKey);
+        }
+    }
+
+    private Object loadWithLease(Cache cache, String cacheName, Object key, Class<?> type, String flightKey,
+        Supplier<?> loader) {
+        String leaseKey = LEASE_PREFIX + flightKey;
+        Boolean acquired = null;
+        try {
+            acquired = stringRedisTemplate.opsForValue().setIfAbsent(leaseKey, nodeId, leaseMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("缓存回源租约获取失败，直接回源: key={}", flightKey, e);
+        }
+        if (Boolean.FALSE.equals(acquired)) {
+            // 其他节点正在回源：租约期内等它回填
+            long deadline = System.currentTimeMillis() + leaseMs;
+            while (System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(LEASE_POLL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                Object filled = read(cache, key, type);
+                if (filled != null) {
+                    outcomes.get("lease_wait_hit").increment();
+                    return filled;
+                }
+            }
+            return loadAndPut(cache, cacheName, key, flightKey, loader);
+        }
+        try {
+            return loadAndPut(cache, cacheName, key, flightKey, loader);
+        } finally {
+            if (Boolean.TRUE.equals(acquired)) {
+                try {
+                    stringRedisTemplate.delete(leaseKey);
+                } catch (Exception e) {
+                    log.debug("缓存回源租约释放失败（等待自然过期）: key={}", flightKey, e);
+                }
+            }
+        }
+    }
+
+    private Object loadAndPut(Cache cache, String cacheName, Object key, String flightKey, Supplier<?> loader) {
+        long start = System.currentTimeMillis();
+        Object value = loader.get();
+        long now = System.currentTimeMillis();
+        if (value != null) {
+            // 回填不是数据变更：两级缓存只失效本节点 L1，不向其他节点广播
+            if (cache instanceof TwoTierCache) {
+                ((TwoTierCache)cache).fill(key, value);
+            } else {
+                cache.put(key, value);
+            }
+            Duration ttl = ttls.getOrDefault(cacheName, RedisConfig.DEFAULT_CACHE_TTL);
+            stamps.put(flightKey, new Stamp(now + ttl.toMillis(), Math.max(1L, now - start)));
+        }
+        return value;
+    }
+
+    /**
+     * XFetch：{@code now - delta * beta * ln(rand) >= expiry}。ln(rand) ≤ 0，越接近过期、回源越慢越容易触发。
+     */
+    private boolean shouldRefreshEarly(String flightKey) {
+        if (beta <= 0) {
+            return false;
+        }
+        Stamp stamp = stamps.getIfPresent(flightKey);
+        if (stamp == null) {
+            return false;
+        }
+        double rand = ThreadLocalRandom.current().nextDouble();
+        double gap = -stamp.deltaMs() * beta * Math.log(rand);
+        return System.currentTimeMillis() + gap >= stamp.expiresAtMs();
+    }
+
+    private static <T> T read(Cache cache, Object key, Class<T> type) {
+        Cache.ValueWrapper wrapper = cache.get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    private record Stamp(long expiresAtMs, long deltaMs) {
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.lunasaw.voglander.manager.domaon.dto;
+
+import lombok.Data;
+
+/**
+ * 流量排行条目：时间窗内某维度键的累计流量
+ *
+ * @author luna
+ */
+@Data
+public class MediaFlowTalkerDTO {
+
+    /**
+     * 汇总维度 DEVICE/CHANNEL/NODE
+     */
+    private String dimension;
+
+    /**
+     * 维度键：deviceId / deviceId:channelId / mediaServerId
+     */
+    private String dimKey;
+
+    /**
+     * 累计字节数
+     */
+    private long   totalBytes;
+
+    /**
+     * 累计会话时长（秒）
+     */
+    private long   durationSec;
+
+    /**
+     * 结束的播放会话数
+     */
+    private long   playerCount;
+
+    /**
+     * 流量上报次数
+     */
+    private long   reportCount;
+}
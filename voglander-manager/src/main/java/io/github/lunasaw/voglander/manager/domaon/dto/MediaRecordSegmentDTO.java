@@ -0,0 +1,105 @@
+package io.github.lunasaw.voglander.manager.domaon.dto;
+
+import io.github.lunasaw.voglander.repository.entity.MediaRecordSegmentDO;
+import lombok.Data;
+
+/**
+ * MP4 录像片段数据传输对象，起止时间均为毫秒时间戳
+ *
+ * @author luna
+ */
+@Data
+public class MediaRecordSegmentDTO {
+
+    /**
+     * 媒体节点 serverId
+     */
+    private String mediaServerId;
+
+    /**
+     * ZLM 应用名
+     */
+    private String app;
+
+    /**
+     * ZLM 流名
+     */
+    private String stream;
+
+    /**
+     * 设备ID
+     */
+    private String deviceId;
+
+    /**
+     * 通道ID
+     */
+    private String channelId;
+
+    /**
+     * 节点上的文件绝对路径
+     */
+    private String filePath;
+
+    /**
+     * 节点 HTTP 下载相对路径
+     */
+    private String url;
+
+    /**
+     * 文件字节数
+     */
+    private long   fileSize;
+
+    /**
+     * 片段开始（毫秒时间戳）
+     */
+    private long   startTime;
+
+    /**
+     * 片段结束（毫秒时间戳）
+     */
+    private long   endTime;
+
+    /**
+     * 将 MediaRecordSegmentDO 转换为 MediaRecordSegmentDTO
+     */
+    public static MediaRecordSegmentDTO convertDTO(MediaRecordSegmentDO segmentDO) {
+        if (segmentDO == null) {
+            return null;
+        }
+        MediaRecordSegmentDTO dto = new MediaRecordSegmentDTO();
+        dto.setMediaServerId(segmentDO.getMediaServerId());
+        dto.setApp(segmentDO.getApp());
+        dto.setStream(segmentDO.getStream());
+        dto.setDeviceId(segmentDO.getDeviceId());
+        dto.setChannelId(segmentDO.getChannelId());
+        dto.setFilePath(segmentDO.getFilePath());
+        dto.setUrl(segmentDO.getUrl());
+        dto.setFileSize(segmentDO.getFileSize() == null ? 0L : segmentDO.getFileSize());
+        dto.setStartTime(segmentDO.getStartTime() == null ? 0L : segmentDO.getStartTime());
+        dto.setEndTime(segmentDO.getEndTime() == null ? 0L : segmentDO.getEndTime());
+        return dto;
+    }
+
+    /**
+     * 将 MediaRecordSegmentDTO 转换为 MediaRecordSegmentDO，创建/修改时间由调用方填写
+     */
+    public static MediaRecordSegmentDO convertDO(MediaRecordSegmentDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        MediaRecordSegmentDO segmentDO = new MediaRecordSegmentDO();
+        segmentDO.setMediaServerId(dto.getMediaServerId());
+        segmentDO.setApp(dto.getApp());
+        segmentDO.setStream(dto.getStream());
+        segmentDO.setDeviceId(dto.getDeviceId());
+        segmentDO.setChannelId(dto.getChannelId());
+        segmentDO.setFilePath(dto.getFilePath());
+        segmentDO.setUrl(dto.getUrl());
+        segmentDO.setFileSize(dto.getFileSize());
+        segmentDO.setStartTime(dto.getStartTime());
+        segmentDO.setEndTime(dto.getEndTime());
+        return segmentDO;
+    }
+}
@@ -0,0 +1,397 @@
+package io.github.lunasaw.voglander.manager.event;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.lunasaw.voglander.client.domain.event.DeviceEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 自适应工作窃取事件调度器（{@code voglander.event.shard.mode=adaptive}）。
+ * <p>
+ * 与固定分片相比：
+ * <ul>
+ *   <li>每个设备一个 {@link DeviceLane} 子队列，子队列按 deviceId 哈希归属到某个分片 worker；</li>
+ *   <li>空闲 worker 从繁忙 worker 就绪队列尾部<strong>整条窃取</strong>设备子队列，设备内仍严格串行；</li>
+ *   <li>1 秒内事件数超过阈值的设备被标记为热点，改由独立的热点通道消费、占用独立预算，
+ *       大 NVR 的 Catalog/Alarm 风暴不再拖慢同分片的其他设备；</li>
+ *   <li>背压沿用固定分片语义：预算耗尽时 Keepalive 立即丢弃，关键事件最多等待 5 秒。</li>
+ * </ul>
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+public class AdaptiveEventScheduler {
+
+    /** 单次持有设备子队列时最多连续处理的事件数，处理完让出 worker 保证公平。 */
+    private static final int                          LANE_BATCH              = 32;
+
+    /** worker 空转轮询间隔，同时也是窃取检查的最大延迟。 */
+    private static final long                         IDLE_POLL_MS            = 20L;
+
+    /** 空闲设备子队列的回收间隔与 TTL。 */
+    private static final long                         SWEEP_INTERVAL_MS       = 30_000L;
+
+    private static final long                         LANE_IDLE_TTL_MS        = 60_000L;
+
+    private static final long                         CRITICAL_OFFER_TIMEOUT_MS = 5_000L;
+
+    private final int                                 shardCount;
+
+    private final int                                 hotLaneCount;
+
+    private final int                                 hotThresholdPerSecond;
+
+    private final Worker[]                            workers;
+
+    private final ConcurrentHashMap<String, DeviceLane> lanes               = new ConcurrentHashMap<>();
+
+    private final AtomicInteger                       hotLanes                = new AtomicInteger();
+
+    private final InboundEventDispatcher              dispatcher;
+
+    private final EventShardMetrics                   metrics;
+
+    private final ExecutorService                     executor;
+
+    private volatile boolean                          running                 = true;
+
+    private final AtomicLong                          lastSweepMs             = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * @param shardCount            常规分片数
+     * @param queueCapacity         每个常规分片（及每条热点通道）的待处理事件预算
+     * @param hotLaneCount          热点通道数，0 表示关闭热点隔离
+     * @param hotThresholdPerSecond 单设备每秒事件数达到该值即视为热点
+     */
+    public AdaptiveEventScheduler(int shardCount, int queueCapacity, int hotLaneCount, int hotThresholdPerSecond,
+        InboundEventDispatcher dispatcher, EventShardMetrics metrics) {
+        this.shardCount = shardCount;
+        this.hotLaneCount = Math.max(0, hotLaneCount);
+        this.hotThresholdPerSecond = this.hotLaneCount > 0 ? hotThresholdPerSecond : 0;
+        this.dispatcher = dispatcher;
+        this.metrics = metrics;
+        this.workers = new Worker[shardCount + this.hotLaneCount];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i, i >= shardCount, queueCapacity);
+            Worker worker = workers[i];
+            metrics.bindQueueDepth(i, () -> worker.capacity - worker.budget.availablePermits());
+        }
+        metrics.bindHotLanes(hotLanes::get);
+
+        AtomicInteger threadSeq = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(workers.length,
+            r -> new Thread(r, "event-lane-" + threadSeq.getAndIncrement()));
+        for (Worker worker : workers) {
+            executor.submit(worker);
+        }
+        log.info("AdaptiveEventScheduler 启动，常规分片: {}, 热点通道: {}, 热点阈值: {}/s, 每槽预算: {}",
+            shardCount, this.hotLaneCount, hotThresholdPerSecond, queueCapacity);
+    }
+
+    /**
+     * 提交事件。预算按设备当前所在通道（常规归属分片 / 热点通道）扣减。
+     *
+     * @return true=入队成功，false=已丢弃
+     */
+    public boolean offer(DeviceEvent event) {
+        if (event == null || !running) {
+            return false;
+        }
+        String key = shardKey(event);
+        DeviceLane existing = lanes.get(key);
+        Worker target = existing != null ? targetOf(existing) : workers[homeIndex(key)];
+
+        boolean keepalive = EventShard.isKeepalive(event);
+        if (!acquire(target, event, keepalive)) {
+            return false;
+        }
+
+        DeviceLane.Envelope envelope = new DeviceLane.Envelope(event, System.nanoTime(), target.budget);
+        long nowMs = System.currentTimeMillis();
+        DeviceLane lane = lanes.compute(key, (k, l) -> {
+            DeviceLane current = l != null ? l : new DeviceLane(k, homeIndex(k));
+            if (current.recordArrival(nowMs, hotThresholdPerSecond)) {
+                onHotChanged(current);
+            }
+            current.queue.add(envelope);
+            return current;
+        });
+        if (lane.scheduled.compareAndSet(false, true)) {
+            schedule(lane);
+        }
+        return true;
+    }
+
+    /**
+     * 停止所有 worker，队列剩余事件随之丢弃（与固定分片一致）。
+     */
+    public void shutdown() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("自适应分片线程池 10 秒内未完全停止，强制关闭");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        long processed = 0;
+        long stolen = 0;
+        for (Worker worker : workers) {
+            processed += worker.processed.get();
+            stolen += worker.stolen.get();
+        }
+        log.info("AdaptiveEventScheduler 已关闭，总处理 {} 事件，窃取 {} 次，残留设备通道 {}",
+            processed, stolen, lanes.size());
+    }
+
+    int getShardIndex(DeviceEvent event) {
+        return homeIndex(shardKey(event));
+    }
+
+    /**
+     * 指定 worker（常规分片 + 热点通道）当前占用的预算，即待处理事件数。
+     */
+    int getQueueSize(int workerId) {
+        if (workerId < 0 || workerId >= workers.length) {
+            return 0;
+        }
+        Worker worker = workers[workerId];
+        return worker.capacity - worker.budget.availablePermits();
+    }
+
+    long getStolenCount(int workerId) {
+        return workers[workerId].stolen.get();
+    }
+
+    int getHotLaneCount() {
+        return hotLanes.get();
+    }
+
+    boolean isHot(String deviceId) {
+        DeviceLane lane = lanes.get(deviceId);
+        return lane != null && lane.hot;
+    }
+
+    private boolean acquire(Worker target, DeviceEvent event, boolean keepalive) {
+        if (keepalive) {
+            if (target.budget.tryAcquire()) {
+                return true;
+            }
+            long dropped = target.droppedKeepalive.incrementAndGet();
+            metrics.dropped(target.id, true);
+            if (dropped % 100 == 0) {
+                log.warn("EventLane-{} 已丢弃 {} 个 Keepalive", target.id, dropped);
+            }
+            return false;
+        }
+        try {
+            if (target.budget.tryAcquire(CRITICAL_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            metrics.dropped(target.id, false);
+            log.error("EventLane-{} 关键事件入队超时 5 秒，type={}, deviceId={}",
+                target.id, event.type(), event.deviceId());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("EventLane-{} 入队被中断", target.id);
+            return false;
+        }
+    }
+
+    private void onHotChanged(DeviceLane lane) {
+        if (lane.hot) {
+            hotLanes.incrementAndGet();
+            log.info("设备 {} 升级为热点，迁移到独立通道", lane.key);
+        } else {
+            hotLanes.decrementAndGet();
+            log.info("设备 {} 热点降级，回归归属分片 {}", lane.key, lane.home);
+        }
+    }
+
+    /**
+     * 把设备子队列挂到目标 worker 就绪队列。调用方必须已持有 {@code scheduled=true}。
+     */
+    private void schedule(DeviceLane lane) {
+        targetOf(lane).ready.offerLast(lane);
+    }
+
+    private Worker targetOf(DeviceLane lane) {
+        if (lane.hot && hotLaneCount > 0) {
+            return workers[shardCount + Math.floorMod(lane.key.hashCode(), hotLaneCount)];
+        }
+        return workers[lane.home];
+    }
+
+    private int homeIndex(String key) {
+        return Math.floorMod(key.hashCode(), shardCount);
+    }
+
+    private static String shardKey(DeviceEvent event) {
+        String shardKey = event.deviceId() != null ? event.deviceId() : event.correlationId();
+        return shardKey != null ? shardKey : event.type();
+    }
+
+    /**
+     * 任一 worker 都可触发回收，CAS 保证每个周期只有一个 worker 执行；持续繁忙的 worker 也会在每批处理后检查。
+     */
+    private void sweepIdleLanes() {
+        long nowMs = System.currentTimeMillis();
+        long last = lastSweepMs.get();
+        if (nowMs - last < SWEEP_INTERVAL_MS || !lastSweepMs.compareAndSet(last, nowMs)) {
+            return;
+        }
+        int before = lanes.size();
+        for (String key : lanes.keySet()) {
+            lanes.computeIfPresent(key, (k, lane) -> {
+                if (!lane.isIdle(nowMs, LANE_IDLE_TTL_MS)) {
+                    return lane;
+                }
+                if (lane.hot) {
+                    hotLanes.decrementAndGet();
+                }
+                return null;
+            });
+        }
+        log.debug("回收空闲设备通道 {} 个，剩余 {}", before - lanes.size(), lanes.size());
+    }
+
+    /**
+     * 单个消费线程。常规 worker 之间互相窃取；热点 worker 空闲时可帮常规 worker 分担，
+     * 但常规 worker 不窃取热点通道，保证热点设备不反向污染常规分片。
+     */
+    private final class Worker implements Runnable {
+
+        final int                             id;
+
+        final boolean                         hotLane;
+
+        final int                             capacity;
+
+        final Semaphore                       budget;
+
+        final LinkedBlockingDeque<DeviceLane> ready            = new LinkedBlockingDeque<>();
+
+        final AtomicLong                      processed        = new AtomicLong();
+
+        final AtomicLong                      stolen           = new AtomicLong();
+
+        final AtomicLong                      droppedKeepalive = new AtomicLong();
+
+        volatile boolean                      busy;
+
+        Worker(int id, boolean hotLane, int capacity) {
+            this.id = id;
+            this.hotLane = hotLane;
+            this.capacity = capacity;
+            this.budget = new Semaphore(capacity);
+        }
+
+        @Override
+        public void run() {
+            log.info("EventLane-{} 启动消费{}", id, hotLane ? "（热点通道）" : "");
+            while (running) {
+                try {
+                    DeviceLane lane = ready.pollFirst();
+                    if (lane == null) {
+                        lane = steal();
+                    }
+                    if (lane == null) {
+                        lane = ready.pollFirst(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                    }
+                    if (lane == null) {
+                        sweepIdleLanes();
+                        continue;
+                    }
+                    drain(lane);
+                    sweepIdleLanes();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("EventLane-{} 消费线程被中断", id);
+                    break;
+                } catch (Exception e) {
+                    log.error("EventLane-{} 调度异常", id, e);
+                }
+            }
+            log.info("EventLane-{} 停止，已处理 {} 事件，窃取 {} 次，丢弃 {} 个 Keepalive",
+                id, processed.get(), stolen.get(), droppedKeepalive.get());
+        }
+
+        private void drain(DeviceLane lane) {
+            busy = true;
+            try {
+                for (int i = 0; i < LANE_BATCH; i++) {
+                    DeviceLane.Envelope envelope = lane.queue.poll();
+                    if (envelope == null) {
+                        break;
+                    }
+                    process(envelope);
+                }
+            } finally {
+                busy = false;
+            }
+            if (!lane.queue.isEmpty()) {
+                // 仍有积压：继续持有调度权，按最新热点状态重新挂队（轮转保证公平）
+                schedule(lane);
+                return;
+            }
+            lane.scheduled.set(false);
+            // 释放后复查，避免与并发入队之间的丢唤醒
+            if (!lane.queue.isEmpty() && lane.scheduled.compareAndSet(false, true)) {
+                schedule(lane);
+            }
+        }
+
+        private void process(DeviceLane.Envelope envelope) {
+            long start = System.nanoTime();
+            metrics.recordWait(id, start - envelope.enqueuedNanos);
+            try {
+                dispatcher.dispatch(envelope.event);
+            } catch (Exception e) {
+                log.error("EventLane-{} 处理事件异常", id, e);
+            } finally {
+                envelope.budget.release();
+                processed.incrementAndGet();
+                metrics.recordService(id, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * 从就绪积压最多且正忙的 worker 尾部窃取一整条设备子队列。
+         */
+        private DeviceLane steal() {
+            Worker victim = null;
+            int deepest = 0;
+            for (Worker candidate : workers) {
+                if (candidate == this || candidate.hotLane || !candidate.busy) {
+                    continue;
+                }
+                int depth = candidate.ready.size();
+                if (depth > deepest) {
+                    deepest = depth;
+                    victim = candidate;
+                }
+            }
+            if (victim == null) {
+                return null;
+            }
+            DeviceLane lane = victim.ready.pollLast();
+            if (lane != null) {
+                stolen.incrementAndGet();
+                metrics.steal(id);
+            }
+            return lane;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.lunasaw.voglander.manager.event;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.github.lunasaw.voglander.client.domain.event.DeviceEvent;
+
+/**
+ * 单设备事件子队列（自适应分片模式）。
+ * <p>
+ * 同一时刻最多被一个 worker 持有（{@link #scheduled} 保护），因此设备内事件严格 FIFO；
+ * 整个子队列可以在 worker 之间迁移（窃取 / 热点隔离），但不会被并行消费。
+ * 入队只发生在 {@code lanes.compute} 的桶锁内，出队只由持有者执行。
+ * </p>
+ *
+ * @author luna
+ */
+final class DeviceLane {
+
+    final String                key;
+
+    /** 常规调度的归属分片。 */
+    final int                   home;
+
+    final Queue<Envelope>       queue     = new ConcurrentLinkedQueue<>();
+
+    /** true = 已挂在某个 worker 的就绪队列上或正在被消费。 */
+    final AtomicBoolean         scheduled = new AtomicBoolean(false);
+
+    /** 热点标记：为 true 时调度到独立的热点通道。 */
+    volatile boolean            hot;
+
+    volatile long               lastArrivalMs;
+
+    /** 以下两个窗口计数字段只在 compute 桶锁内读写。 */
+    private long                windowStartMs;
+
+    private int                 windowCount;
+
+    DeviceLane(String key, int home) {
+        this.key = key;
+        this.home = home;
+    }
+
+    /**
+     * 记录一次到达并按 1 秒窗口更新热点标记；窗口内到达数达到阈值即升为热点，
+     * 上一窗口低于阈值一半时降级。
+     *
+     * @return 热点状态是否发生了变化
+     */
+    boolean recordArrival(long nowMs, int hotThresholdPerSecond) {
+        lastArrivalMs = nowMs;
+        if (hotThresholdPerSecond <= 0) {
+            return false;
+        }
+        boolean before = hot;
+        if (nowMs - windowStartMs >= 1000L) {
+            if (hot && windowCount < hotThresholdPerSecond / 2) {
+                hot = false;
+            }
+            windowStartMs = nowMs;
+            windowCount = 0;
+        }
+        windowCount++;
+        if (!hot && windowCount >= hotThresholdPerSecond) {
+            hot = true;
+        }
+        return before != hot;
+    }
+
+    /**
+     * 空闲判定：未被调度、队列为空且超过 ttl 没有新事件，可从索引中回收。
+     */
+    boolean isIdle(long nowMs, long idleTtlMs) {
+        return !scheduled.get() && queue.isEmpty() && nowMs - lastArrivalMs >= idleTtlMs;
+    }
+
+    /**
+     * 入队信封：携带入队时间（计算等待时长）与占用的预算信号量（消费后归还）。
+     */
+    static final class Envelope {
+
+        final DeviceEvent event;
+
+        final long        enqueuedNanos;
+
+        final Semaphore   budget;
+
+        Envelope(DeviceEvent event, long enqueuedNanos, Semaphore budget) {
+            this.event = event;
+            this.enqueuedNanos = enqueuedNanos;
+            this.budget = budget;
+        }
+    }
+}
@@ -26,7 +26,7 @@ public class EventShard {
     @Getter
     private final int shardId;
 
-    private final BlockingQueue<DeviceEvent> queue;
+    private final BlockingQueue<Envelope> queue;
 
     private final InboundEventDispatcher dispatcher;
 
@@ -36,10 +36,27 @@ public class EventShard {
 
     private final AtomicLong droppedKeepaliveCount = new AtomicLong(0);
 
-    public EventShard(int shardId, BlockingQueue<DeviceEvent> queue, InboundEventDispatcher dispatcher) {
+    private final EventShardMetrics metrics;
+
+    public EventShard(int shardId, BlockingQueue<Envelope> queue, InboundEventDispatcher dispatcher) {
+        this(shardId, queue, dispatcher, EventShardMetrics.noop("fixed", shardId + 1));
+    }
+
+    public EventShard(int shardId, BlockingQueue<Envelope> queue, InboundEventDispatcher dispatcher,
+        EventShardMetrics metrics) {
         this.shardId = shardId;
         this.queue = queue;
         this.dispatcher = dispatcher;
+        this.metrics = metrics;
+        metrics.bindQueueDepth(shardId, queue::size);
+    }
+
+    /**
+     * 是否为可丢弃的冗余 Keepalive。
+     */
+    static boolean isKeepalive(DeviceEvent event) {
+        return "Keepalive".equals(event.name())
+            || ("Notify".equals(event.group()) && "Keepalive".equals(event.name()));
     }
 
     /**
@@ -49,10 +66,13 @@ public class EventShard {
         log.info("EventShard-{} 启动消费", shardId);
         while (running) {
             try {
-                DeviceEvent event = queue.poll(1, TimeUnit.SECONDS);
-                if (event != null) {
-                    dispatcher.dispatch(event);
+                Envelope envelope = queue.poll(1, TimeUnit.SECONDS);
+                if (envelope != null) {
+                    long start = System.nanoTime();
+                    metrics.recordWait(shardId, start - envelope.enqueuedNanos);
+                    dispatcher.dispatch(envelope.event);
                     processedCount.incrementAndGet();
+                    metrics.recordService(shardId, System.nanoTime() - start);
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -81,14 +101,15 @@ public class EventShard {
         }
 
         // 判断是否为冗余 Keepalive
-        boolean isKeepalive = "Keepalive".equals(event.name())
-            || ("Notify".equals(event.group()) && "Keepalive".equals(event.name()));
+        boolean isKeepalive = isKeepalive(event);
+        Envelope envelope = new Envelope(event, System.nanoTime());
 
         if (isKeepalive) {
             // Keepalive 立即丢弃
-            boolean offered = queue.offer(event);
+            boolean offered = queue.offer(envelope);
             if (!offered) {
                 droppedKeepaliveCount.incrementAndGet();
+                metrics.dropped(shardId, true);
                 if (droppedKeepaliveCount.get() % 100 == 0) {
                     log.warn("EventShard-{} 已丢弃 {} 个 Keepalive", shardId, droppedKeepaliveCount.get());
                 }
@@ -97,8 +118,9 @@ public class EventShard {
         } else {
             // 关键事件阻塞等待（最多 5 秒）
             try {
-                boolean offered = queue.offer(event, 5, TimeUnit.SECONDS);
+                boolean offered = queue.offer(envelope, 5, TimeUnit.SECONDS);
                 if (!offered) {
+                    metrics.dropped(shardId, false);
                     log.error("EventShard-{} 关键事件入队超时 5 秒，type={}, deviceId={}",
                         shardId, event.type(), event.deviceId());
                 }
@@ -139,4 +161,19 @@ public class EventShard {
     public long getDroppedKeepaliveCount() {
         return droppedKeepaliveCount.get();
     }
+
+    /**
+     * 入队信封：随事件携带入队时刻，用于记录与自适应模式同口径的排队等待时间。
+     */
+    static final class Envelope {
+
+        final DeviceEvent event;
+
+        final long        enqueuedNanos;
+
+        Envelope(DeviceEvent event, long enqueuedNanos) {
+            this.event = event;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
 }
@@ -0,0 +1,109 @@
+package io.github.lunasaw.voglander.manager.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * 事件分片指标（Phase 4 / 自适应分片）。
+ * <p>
+ * 每个分片预先注册 Timer/Counter 并按下标缓存，热路径上不再做 Meter 查找；
+ * tag 仅有 {@code shard}（有界，等于分片数）与 {@code mode}，不带 deviceId 等高基数字段。
+ * </p>
+ *
+ * @author luna
+ */
+public class EventShardMetrics {
+
+    private final MeterRegistry registry;
+
+    private final String        mode;
+
+    private final Timer[]       waitTimers;
+
+    private final Timer[]       serviceTimers;
+
+    private final Counter[]     stealCounters;
+
+    private final Counter[]     droppedKeepalive;
+
+    private final Counter[]     droppedCritical;
+
+    public EventShardMetrics(MeterRegistry registry, String mode, int shardCount) {
+        this.registry = registry;
+        this.mode = mode;
+        this.waitTimers = new Timer[shardCount];
+        this.serviceTimers = new Timer[shardCount];
+        this.stealCounters = new Counter[shardCount];
+        this.droppedKeepalive = new Counter[shardCount];
+        this.droppedCritical = new Counter[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String shard = String.valueOf(i);
+            waitTimers[i] = Timer.builder("voglander.event.shard.wait")
+                .tag("shard", shard).tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(registry);
+            serviceTimers[i] = Timer.builder("voglander.event.shard.service")
+                .tag("shard", shard).tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(registry);
+            stealCounters[i] = Counter.builder("voglander.event.shard.steal")
+                .tag("shard", shard).tag("mode", mode)
+                .register(registry);
+            droppedKeepalive[i] = Counter.builder("voglander.event.shard.dropped")
+                .tag("shard", shard).tag("mode", mode).tag("kind", "KEEPALIVE")
+                .register(registry);
+            droppedCritical[i] = Counter.builder("voglander.event.shard.dropped")
+                .tag("shard", shard).tag("mode", mode).tag("kind", "CRITICAL")
+                .register(registry);
+        }
+    }
+
+    /**
+     * 无注册表时的空实现：不挂子注册表的 {@link CompositeMeterRegistry} 产出的 Meter 均为 noop。
+     */
+    public static EventShardMetrics noop(String mode, int shardCount) {
+        return new EventShardMetrics(new CompositeMeterRegistry(), mode, shardCount);
+    }
+
+    /**
+     * 绑定分片队列深度 Gauge，由调用方提供实时深度。供给函数通常是临时 lambda，需强引用防止被回收。
+     */
+    public void bindQueueDepth(int shardId, IntSupplier depth) {
+        Gauge.builder("voglander.event.shard.queue.depth", depth, IntSupplier::getAsInt)
+            .tag("shard", String.valueOf(shardId)).tag("mode", mode)
+            .strongReference(true)
+            .register(registry);
+    }
+
+    /**
+     * 绑定当前热点设备通道数 Gauge。
+     */
+    public void bindHotLanes(IntSupplier hotLanes) {
+        Gauge.builder("voglander.event.shard.hot.lanes", hotLanes, IntSupplier::getAsInt)
+            .tag("mode", mode)
+            .strongReference(true)
+            .register(registry);
+    }
+
+    public void recordWait(int shardId, long nanos) {
+        waitTimers[shardId].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordService(int shardId, long nanos) {
+        serviceTimers[shardId].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void steal(int shardId) {
+        stealCounters[shardId].increment();
+    }
+
+    public void dropped(int shardId, boolean keepalive) {
+        (keepalive ? droppedKeepalive : droppedCritical)[shardId].increment();
+    }
+}
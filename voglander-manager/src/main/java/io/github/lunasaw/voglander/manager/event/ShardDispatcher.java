@@ -9,12 +9,14 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import io.github.lunasaw.voglander.client.domain.event.DeviceEvent;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
@@ -25,7 +27,8 @@ import lombok.extern.slf4j.Slf4j;
  * 保证同设备/会话事件路由到同一单线程槽，实现串行处理。
  * </p>
  * <p>
- * 灰度开关：{@code voglander.event.shard.enabled=true/false}（默认 true）。
+ * 灰度开关：{@code voglander.event.shard.enabled=true/false}（默认 true）；
+ * 调度模式：{@code voglander.event.shard.mode=fixed/adaptive}（默认 fixed）。
  * </p>
  *
  * @author luna
@@ -35,19 +38,43 @@ import lombok.extern.slf4j.Slf4j;
 @ConditionalOnProperty(name = "voglander.event.shard.enabled", havingValue = "true", matchIfMissing = true)
 public class ShardDispatcher {
 
+    static final String MODE_FIXED = "fixed";
+
+    static final String MODE_ADAPTIVE = "adaptive";
+
     private final int shardCount;
 
     private final List<EventShard> shards;
 
     private final ExecutorService executor;
 
+    /** adaptive 模式下的调度器，fixed 模式为 null。 */
+    private final AdaptiveEventScheduler adaptive;
+
     /**
      * 构造函数，默认 16 个分片，每槽队列容量 2000。
+     * <p>
+     * {@code voglander.event.shard.mode=adaptive} 时启用 {@link AdaptiveEventScheduler}：
+     * 设备子队列可被空闲分片整条窃取，热点设备迁移到 {@code hot-lanes} 条独立通道。
+     * 默认 {@code fixed} 保持原有固定分片行为。
+     * </p>
      */
     @Autowired
     public ShardDispatcher(
         @Value("${voglander.event.shard.count:16}") int shardCount,
-        InboundEventDispatcher eventDispatcher) {
+        @Value("${voglander.event.shard.mode:fixed}") String mode,
+        @Value("${voglander.event.shard.hot-lanes:2}") int hotLaneCount,
+        @Value("${voglander.event.shard.hot-threshold-per-second:200}") int hotThresholdPerSecond,
+        InboundEventDispatcher eventDispatcher,
+        ObjectProvider<MeterRegistry> meterRegistry) {
+        this(shardCount, 2000, mode, hotLaneCount, hotThresholdPerSecond, eventDispatcher,
+            metricsOf(meterRegistry.getIfAvailable(), mode, shardCount, hotLaneCount));
+    }
+
+    /**
+     * 测试用构造函数，固定分片、默认队列容量。
+     */
+    public ShardDispatcher(int shardCount, InboundEventDispatcher eventDispatcher) {
         this(shardCount, 2000, eventDispatcher);
     }
 
@@ -55,16 +82,32 @@ public class ShardDispatcher {
      * 测试用构造函数，可指定队列容量。
      */
     ShardDispatcher(int shardCount, int queueCapacity, InboundEventDispatcher eventDispatcher) {
+        this(shardCount, queueCapacity, MODE_FIXED, 0, 0, eventDispatcher,
+            EventShardMetrics.noop(MODE_FIXED, shardCount));
+    }
+
+    ShardDispatcher(int shardCount, int queueCapacity, String mode, int hotLaneCount, int hotThresholdPerSecond,
+        InboundEventDispatcher eventDispatcher, EventShardMetrics metrics) {
         this.shardCount = shardCount;
         this.shards = new ArrayList<>(shardCount);
+
+        if (MODE_ADAPTIVE.equalsIgnoreCase(mode)) {
+            this.executor = null;
+            this.adaptive = new AdaptiveEventScheduler(shardCount, queueCapacity, hotLaneCount,
+                hotThresholdPerSecond, eventDispatcher, metrics);
+            log.info("ShardDispatcher 初始化完成（adaptive），分片数: {}, 热点通道: {}", shardCount, hotLaneCount);
+            return;
+        }
+
+        this.adaptive = null;
         AtomicInteger threadSeq = new AtomicInteger(0);
         this.executor = Executors.newFixedThreadPool(shardCount,
             r -> new Thread(r, "event-shard-" + threadSeq.getAndIncrement()));
 
         // 创建分片槽
         for (int i = 0; i < shardCount; i++) {
-            BlockingQueue<DeviceEvent> queue = new LinkedBlockingQueue<>(queueCapacity);
-            EventShard shard = new EventShard(i, queue, eventDispatcher);
+            BlockingQueue<EventShard.Envelope> queue = new LinkedBlockingQueue<>(queueCapacity);
+            EventShard shard = new EventShard(i, queue, eventDispatcher, metrics);
             shards.add(shard);
         }
 
@@ -74,10 +117,23 @@ public class ShardDispatcher {
         start();
     }
 
+    private static EventShardMetrics metricsOf(MeterRegistry registry, String mode, int shardCount,
+        int hotLaneCount) {
+        boolean adaptive = MODE_ADAPTIVE.equalsIgnoreCase(mode);
+        String modeTag = adaptive ? MODE_ADAPTIVE : MODE_FIXED;
+        // 自适应模式下热点通道与常规分片共用下标空间：[shardCount, shardCount + hotLaneCount)
+        int slots = adaptive ? shardCount + Math.max(0, hotLaneCount) : shardCount;
+        return registry == null ? EventShardMetrics.noop(modeTag, slots)
+            : new EventShardMetrics(registry, modeTag, slots);
+    }
+
     /**
      * 启动所有分片消费线程。
      */
     public void start() {
+        if (adaptive != null) {
+            return;
+        }
         log.info("启动 {} 个事件分片消费线程", shardCount);
         for (EventShard shard : shards) {
             executor.submit(shard::start);
@@ -92,6 +148,11 @@ public class ShardDispatcher {
             return;
         }
 
+        if (adaptive != null) {
+            adaptive.offer(event);
+            return;
+        }
+
         int shardIndex = getShardIndex(event);
         EventShard shard = shards.get(shardIndex);
         shard.offer(event);
@@ -104,6 +165,9 @@ public class ShardDispatcher {
      * </p>
      */
     int getShardIndex(DeviceEvent event) {
+        if (adaptive != null) {
+            return adaptive.getShardIndex(event);
+        }
         String shardKey = event.deviceId() != null ? event.deviceId() : event.correlationId();
         if (shardKey == null) {
             // 极端情况：都为 null，用 type 兜底
@@ -124,6 +188,11 @@ public class ShardDispatcher {
     public void shutdown() {
         log.info("开始关闭 ShardDispatcher");
 
+        if (adaptive != null) {
+            adaptive.shutdown();
+            return;
+        }
+
         // 停止所有分片
         for (EventShard shard : shards) {
             shard.shutdown();
@@ -158,6 +227,9 @@ public class ShardDispatcher {
      * 获取指定分片的队列大小。
      */
     public int getShardQueueSize(int shardId) {
+        if (adaptive != null) {
+            return adaptive.getQueueSize(shardId);
+        }
         if (shardId < 0 || shardId >= shardCount) {
             return 0;
         }
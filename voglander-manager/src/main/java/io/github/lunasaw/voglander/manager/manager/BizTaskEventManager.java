@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import io.github.lunasaw.voglander.common.enums.task.TaskEventTypeEnum;
@@ -37,6 +38,19 @@ public class BizTaskEventManager {
         return bizTaskEventMapper.insertIfAbsent(row) == 1;
     }
 
+    /** Appends queued event facts in one transaction and returns how many were new. */
+    @Transactional(rollbackFor = Exception.class)
+    public int appendAll(List<BizTaskEventDTO> events) {
+        Assert.notNull(events, "业务任务事件列表不能为空");
+        int appended = 0;
+        for (BizTaskEventDTO event : events) {
+            if (append(event)) {
+                appended++;
+            }
+        }
+        return appended;
+    }
+
     /** Returns an access-scoped, chronological, sanitized event timeline. */
     public List<BizTaskEventDTO> getTimeline(String taskId, String executionId, BizTaskAccessScopeDTO scope,
         int limit) {
@@ -2,7 +2,10 @@ package io.github.lunasaw.voglander.manager.manager;
 
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.dao.DataAccessException;
@@ -148,6 +151,43 @@ public class BizTaskExecutionManager {
         return claimed;
     }
 
+    /**
+     * Claims up to {@code limit} runnable executions for one worker node in a single conditional update.
+     * Every claimed row carries the command's claim token, which is unique per batch; rows held by a competing
+     * claimer are skipped rather than contended for.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<BizTaskExecutionDTO> claimRunnableBatch(BizTaskExecutionDTO command, int limit) {
+        Assert.notNull(command, "claim命令不能为空");
+        Assert.hasText(command.getClaimToken(), "claimToken不能为空");
+        Assert.hasText(command.getWorkerNode(), "workerNode不能为空");
+        LocalDateTime now = commandTime(command);
+        validateScan(now, limit);
+        Assert.notNull(command.getLeaseUntil(), "leaseUntil不能为空");
+        Assert.isTrue(command.getLeaseUntil().isAfter(now), "leaseUntil必须晚于claim时间");
+        int affected = bizTaskExecutionMapper.claimRunnableBatch(limit, command.getClaimToken(),
+            command.getWorkerNode(), now, command.getLeaseUntil());
+        if (affected == 0) {
+            return Collections.emptyList();
+        }
+        List<BizTaskExecutionDTO> claimed = bizTaskExecutionMapper.selectByClaimToken(command.getClaimToken())
+            .stream()
+            .map(bizTaskExecutionAssembler::doToDto)
+            .collect(Collectors.toList());
+        claimed.forEach(execution -> publishExecutionEvent(execution, TaskConstant.SSE_EXECUTION_STATE,
+            "CLAIMED", null));
+        return claimed;
+    }
+
+    /** Returns a claimed execution that never started to its runnable state without consuming an attempt. */
+    public boolean releaseClaim(BizTaskExecutionDTO command) {
+        Assert.notNull(command, "release命令不能为空");
+        Assert.hasText(command.getExecutionId(), "executionId不能为空");
+        Assert.hasText(command.getClaimToken(), "claimToken不能为空");
+        return bizTaskExecutionMapper.releaseClaim(command.getExecutionId(), command.getClaimToken(),
+            commandTime(command)) == 1;
+    }
+
     /** Renews only the lease owned by the current claim token. */
     public boolean heartbeat(BizTaskExecutionDTO command) {
         Assert.notNull(command, "heartbeat命令不能为空");
@@ -160,6 +200,37 @@ public class BizTaskExecutionManager {
             command.getLeaseUntil()) == 1;
     }
 
+    /**
+     * Renews every listed lease held by {@code workerNode} in one statement and returns the execution ids still
+     * owned. A short affected-row count means some claims were lost; only then are the survivors re-read.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Set<String> heartbeatBatch(String workerNode, List<BizTaskExecutionDTO> leases, LocalDateTime heartbeatAt,
+        LocalDateTime leaseUntil) {
+        Assert.hasText(workerNode, "workerNode不能为空");
+        Assert.notEmpty(leases, "heartbeat租约不能为空");
+        Assert.isTrue(leases.size() <= TaskConstant.MAX_LEASES_PER_HEARTBEAT, "单次heartbeat租约数量超出上限");
+        Assert.notNull(heartbeatAt, "heartbeatAt不能为空");
+        Assert.notNull(leaseUntil, "leaseUntil不能为空");
+        Assert.isTrue(leaseUntil.isAfter(heartbeatAt), "leaseUntil必须晚于heartbeat时间");
+        List<BizTaskExecutionDO> owned = leases.stream().map(lease -> {
+            Assert.hasText(lease.getExecutionId(), "executionId不能为空");
+            Assert.hasText(lease.getClaimToken(), "claimToken不能为空");
+            BizTaskExecutionDO pair = new BizTaskExecutionDO();
+            pair.setExecutionId(lease.getExecutionId());
+            pair.setClaimToken(lease.getClaimToken());
+            return pair;
+        }).collect(Collectors.toList());
+        int renewed = bizTaskExecutionMapper.heartbeatBatch(workerNode, owned, heartbeatAt, leaseUntil);
+        if (renewed == owned.size()) {
+            return owned.stream().map(BizTaskExecutionDO::getExecutionId).collect(Collectors.toSet());
+        }
+        if (renewed == 0) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(bizTaskExecutionMapper.selectOwnedLeaseIds(workerNode, owned));
+    }
+
     /** Persists one monotonic progress revision owned by the active claim. */
     @Transactional(rollbackFor = Exception.class)
     public boolean updateProgress(BizTaskProgressDTO progress) {
@@ -210,6 +281,22 @@ public class BizTaskExecutionManager {
         return true;
     }
 
+    /**
+     * Group-commits the latest queued progress revision of several executions in one transaction and returns the
+     * execution ids whose revision was not accepted by the active claim.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Set<String> updateProgressBatch(List<BizTaskProgressDTO> progresses) {
+        Assert.notNull(progresses, "progress命令列表不能为空");
+        Set<String> rejected = new HashSet<>();
+        for (BizTaskProgressDTO progress : progresses) {
+            if (!updateProgress(progress)) {
+                rejected.add(progress.getExecutionId());
+            }
+        }
+        return rejected;
+    }
+
     /** Moves the currently claimed attempt to durable retry wait and releases lease ownership. */
     public boolean markRetryWait(BizTaskExecutionDTO command) {
         Assert.notNull(command, "retry-wait命令不能为空");
@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -191,6 +192,21 @@ public class BizTaskManager {
         return bizTaskAssembler.doToDto(task);
     }
 
+    /** Reads only the dispatch-class facts (type, organization, priority) of a window of claimed tasks. */
+    public List<BizTaskDTO> getDispatchFacts(Collection<String> taskIds) {
+        Assert.notNull(taskIds, "taskId列表不能为空");
+        Assert.isTrue(taskIds.size() <= 1000, "单次读取的任务数不能超过1000");
+        if (taskIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return bizTaskService.list(new LambdaQueryWrapper<BizTaskDO>()
+            .select(BizTaskDO::getTaskId, BizTaskDO::getTaskType, BizTaskDO::getOrganizationId,
+                BizTaskDO::getPriority)
+            .in(BizTaskDO::getTaskId, taskIds)).stream()
+            .map(bizTaskAssembler::doToDto)
+            .collect(Collectors.toList());
+    }
+
     /** Advances only the cursor version observed by the transactional scheduler re-read. */
     public boolean advanceScheduleCursor(String taskId, int expectedVersion, LocalDateTime nextPlanTime,
         String state, LocalDateTime updateTime) {
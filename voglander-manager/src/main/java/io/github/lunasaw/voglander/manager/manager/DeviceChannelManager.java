@@ -19,6 +19,7 @@ import io.github.lunasaw.voglander.repository.entity.DeviceChannelDO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Component;
@@ -110,6 +111,18 @@ public class DeviceChannelManager {
     @Value("${voglander.device-channel.enable-session-promotion:false}")
     private boolean enableSessionPromotion;
 
+    /**
+     * 目录对账时 lastSeenTime 的最小刷新间隔：内容 / 状态都未变时，距库内 lastSeenTime 不足该值则不写库。
+     */
+    @Value("${voglander.device-channel.last-seen-refresh-seconds:300}")
+    private long    lastSeenRefreshSeconds;
+
+    /**
+     * 分片目录对账等待设备锁的最长时间（秒），超时由组装器保留数据重试。
+     */
+    @Value("${voglander.device-channel.catalog-lock-wait-seconds:10}")
+    private int     catalogLockWaitSeconds;
+
     /**
      * 删除设备通道
      *
@@ -921,6 +934,30 @@ public class DeviceChannelManager {
         }
     }
 
+    /**
+     * 目录对账后按通道精确 evict：仅清理新增 / 变更 / 失踪通道的单条缓存，列表缓存有写入时清一次。
+     */
+    @SafeVarargs
+    private void clearCacheByChannels(String deviceId, List<DeviceChannelDO>... groups) {
+        boolean any = false;
+        try {
+            Cache cache = cacheManager.getCache(DeviceChannelCacheKey.CACHE_NAME);
+            for (List<DeviceChannelDO> group : groups) {
+                for (DeviceChannelDO d : group) {
+                    any = true;
+                    if (cache == null) continue;
+                    if (d.getId() != null) cache.evict(DeviceChannelCacheKey.byId(d.getId()));
+                    cache.evict(DeviceChannelCacheKey.byBizKey(deviceId, d.getChannelId()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("clearCacheByChannels 异常 - deviceId={}: {}", deviceId, e.getMessage());
+        }
+        if (any) {
+            clearCacheByDevice(deviceId);
+        }
+    }
+
     // ================================
     // 1.0.4 Stage 1：batchUpsertWithStatus
     // ================================
@@ -946,33 +983,74 @@ public class DeviceChannelManager {
             return 0;
         }
         try {
-            return doBatchUpsertWithStatus(deviceId, dtoList);
+            return doBatchUpsertWithStatus(deviceId, dtoList, null);
+        } finally {
+            redisLockUtil.unLock(lockKey, lockValue);
+        }
+    }
+
+    /**
+     * 分片目录对账（供目录组装器在整份目录收齐 / 超时 / 内存上限时调用）。
+     * <p>
+     * 与 {@link #batchUpsertWithStatus(String, List)} 的区别：设备锁竞争时最多等待
+     * {@code catalog-lock-wait-seconds} 而不是直接丢弃；失踪扫描只在给出整份目录的通道集合时进行，
+     * 部分提交（超时、内存上限提前落库）传 null，不会把其他分片的通道误判为失踪。
+     * </p>
+     *
+     * @param deviceId          设备国标 ID
+     * @param dtoList           本次写入的通道
+     * @param catalogChannelIds 整份目录的全部通道 ID；null 表示部分提交，跳过失踪扫描
+     * @return 实际写入记录数；等锁超时返回 -1，由调用方保留数据重试
+     */
+    public int reconcileCatalog(String deviceId, List<DeviceChannelDTO> dtoList, Set<String> catalogChannelIds) {
+        if (deviceId == null || dtoList == null) return 0;
+        if (dtoList.isEmpty() && catalogChannelIds == null) return 0;
+        if (!enableStatusFromCatalog) {
+            return dtoList.isEmpty() ? 0 : batchUpsert(dtoList);
+        }
+
+        String lockKey = DEVICE_CHANNEL_LOCK_PREFIX + deviceId;
+        String lockValue = redisLockUtil.generateLockValue();
+        if (!redisLockUtil.tryLock(lockKey, lockValue, 30, catalogLockWaitSeconds)) {
+            log.warn("reconcileCatalog 等锁超时，保留待重试 - deviceId={}, size={}", deviceId, dtoList.size());
+            return -1;
+        }
+        try {
+            return doBatchUpsertWithStatus(deviceId, dtoList,
+                catalogChannelIds != null ? catalogChannelIds : Collections.emptySet());
         } finally {
             redisLockUtil.unLock(lockKey, lockValue);
         }
     }
 
+    /**
+     * @param catalogChannelIds null：dtoList 即整份目录；空集合：部分提交，不做失踪扫描；
+     *                          非空：整份目录的全部通道 ID（可能多于 dtoList）
+     */
     @Transactional(rollbackFor = Exception.class)
-    protected int doBatchUpsertWithStatus(String deviceId, List<DeviceChannelDTO> dtoList) {
+    protected int doBatchUpsertWithStatus(String deviceId, List<DeviceChannelDTO> dtoList, Set<String> catalogChannelIds) {
         /* 同批内去重，保留后者 */
         Map<String, DeviceChannelDTO> dedup = new LinkedHashMap<>();
         for (DeviceChannelDTO dto : dtoList) {
             if (dto == null || dto.getChannelId() == null) continue;
             dedup.put(dto.getChannelId(), dto);
         }
-        if (dedup.isEmpty()) return 0;
+        Set<String> presentIds = catalogChannelIds != null ? catalogChannelIds : dedup.keySet();
+        if (dedup.isEmpty() && presentIds.isEmpty()) return 0;
 
-        /* R5：一次 SELECT snapshot */
+        /* R5：一次 SELECT snapshot（带 name/extend 用于内容比对） */
         LambdaQueryWrapper<DeviceChannelDO> qw = new LambdaQueryWrapper<>();
         qw.eq(DeviceChannelDO::getDeviceId, deviceId)
           .select(DeviceChannelDO::getId, DeviceChannelDO::getChannelId,
                   DeviceChannelDO::getLastSeenTime, DeviceChannelDO::getStatus,
-                  DeviceChannelDO::getMissingCount);
+                  DeviceChannelDO::getStatusSource, DeviceChannelDO::getMissingCount,
+                  DeviceChannelDO::getName, DeviceChannelDO::getExtend);
         Map<String, DeviceChannelDO> snapshot = deviceChannelService.list(qw).stream()
             .collect(Collectors.toMap(DeviceChannelDO::getChannelId, d -> d, (a, b) -> a));
 
         List<DeviceChannelDO> toInsert = new ArrayList<>();
         List<DeviceChannelDO> toUpdate = new ArrayList<>();
+        int unchanged = 0;
         LocalDateTime now = LocalDateTime.now();
 
         for (Map.Entry<String, DeviceChannelDTO> e : dedup.entrySet()) {
@@ -989,6 +1067,11 @@ public class DeviceChannelManager {
                     target.setLastSeenTime(null);
                     target.setStatusSource(null);
                 }
+                /* 变更检测：name/extend、状态、missing_count 均未变且 lastSeen 未到刷新间隔时跳过写库 */
+                if (!isMaterialChange(exist, target)) {
+                    unchanged++;
+                    continue;
+                }
                 target.setMissingCount(0);
                 target.setId(exist.getId());
                 toUpdate.add(target);
@@ -1014,16 +1097,56 @@ public class DeviceChannelManager {
         }
 
         /* Stage 4 失踪扫描（同事务 R3） */
-        if (missingScanEnabled) {
-            markMissingChannelsInternal(deviceId, dedup.keySet(), snapshot, now);
+        List<DeviceChannelDO> missing = Collections.emptyList();
+        if (missingScanEnabled && !presentIds.isEmpty()) {
+            missing = snapshot.values().stream()
+                .filter(d -> !presentIds.contains(d.getChannelId()))
+                .collect(Collectors.toList());
+            markMissingChannelsInternal(deviceId, presentIds, snapshot, now);
         }
 
-        /* C4：事务结束后一次清缓存 */
-        clearCacheByDevice(deviceId);
-        log.info("batchUpsertWithStatus 完成 - deviceId={}, 新增={}, 更新={}", deviceId, toInsert.size(), toUpdate.size());
+        /* 只 evict 实际写过的通道键；有任何写入时再 evict 一次设备列表缓存 */
+        clearCacheByChannels(deviceId, toInsert, toUpdate, missing);
+        CatalogDiff diff = new CatalogDiff(toInsert.size(), toUpdate.size(), missing.size(), unchanged);
+        log.info("batchUpsertWithStatus 完成 - deviceId={}, {}", deviceId, diff);
         return affected;
     }
 
+    /**
+     * 目录对账是否需要写库。target 中为 null 的字段不会被 updateById 写入，按"沿用库内值"参与比较。
+     */
+    private boolean isMaterialChange(DeviceChannelDO exist, DeviceChannelDO target) {
+        if (exist.getMissingCount() != null && exist.getMissingCount() != 0) {
+            return true;
+        }
+        if (target.getName() != null && !Objects.equals(target.getName(), exist.getName())) {
+            return true;
+        }
+        if (target.getExtend() != null && !Objects.equals(target.getExtend(), exist.getExtend())) {
+            return true;
+        }
+        if (target.getStatus() != null && !target.getStatus().equals(exist.getStatus())) {
+            return true;
+        }
+        if (target.getStatusSource() != null && !target.getStatusSource().equals(exist.getStatusSource())) {
+            return true;
+        }
+        LocalDateTime seen = target.getLastSeenTime();
+        return seen != null && (exist.getLastSeenTime() == null
+            || !seen.isBefore(exist.getLastSeenTime().plusSeconds(lastSeenRefreshSeconds)));
+    }
+
+    /**
+     * 目录对账差异摘要。
+     */
+    private record CatalogDiff(int added, int changed, int missing, int unchanged) {
+
+        @Override
+        public String toString() {
+            return "新增=" + added + ", 变更=" + changed + ", 失踪=" + missing + ", 未变=" + unchanged;
+        }
+    }
+
     /** C2：DuplicateKey 兜底，条件 UPDATE 不退化 N+1 */
     private int duplicateKeyFallback(List<DeviceChannelDO> toInsert) {
         log.warn("batchUpsertWithStatus UNIQUE 冲突 - size={}", toInsert.size());
@@ -0,0 +1,176 @@
+package io.github.lunasaw.voglander.manager.manager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import io.github.lunasaw.voglander.repository.entity.DeviceDO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 心跳写后缓冲（write-behind）。
+ * <p>
+ * 每台设备只保留最新一次待写心跳（keepaliveTime 取较新者，缓冲内也保持单调），
+ * 由 {@link DeviceManager} 定时 {@link #flush()}：按 {@code batchSize} 分批，每批一条多行 UPDATE，
+ * 把 N 次单行写事务压成 N/batchSize 次——SQLite 单写者场景下收益最明显。
+ * </p>
+ * <p>
+ * 写失败的批次放回缓冲（与期间新到的心跳按时间戳合并），下一轮重试；
+ * 离线终态走 {@link #discard(String)}，持有刷写锁移除，保证在途批次不会把 ONLINE 写回已离线设备。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+public class DeviceLivenessBuffer {
+
+    private final Map<String, Pending>                               pending   = new ConcurrentHashMap<>();
+
+    private final ReentrantLock                                      flushLock = new ReentrantLock();
+
+    private final BiFunction<List<DeviceDO>, LocalDateTime, Integer> writer;
+
+    private final Consumer<List<String>>                             onFlushed;
+
+    private final int                                                batchSize;
+
+    private final Timer                                              flushTimer;
+
+    private final Counter                                            flushedRows;
+
+    private final Counter                                            flushFailures;
+
+    /**
+     * @param writer    批量写入（通常为 {@code DeviceService#batchPatchLiveness}），返回实际更新行数
+     * @param onFlushed 每批写入成功后回调该批 deviceId（用于精确 evict 缓存）
+     * @param batchSize 单条 UPDATE 覆盖的设备数
+     * @param registry  指标注册表，可空
+     */
+    public DeviceLivenessBuffer(BiFunction<List<DeviceDO>, LocalDateTime, Integer> writer,
+        Consumer<List<String>> onFlushed, int batchSize, MeterRegistry registry) {
+        this.writer = writer;
+        this.onFlushed = onFlushed;
+        this.batchSize = Math.max(1, batchSize);
+        MeterRegistry r = registry != null ? registry : new CompositeMeterRegistry();
+        this.flushTimer = Timer.builder("voglander.device.liveness.flush")
+            .description("心跳缓冲单轮刷写耗时")
+            .publishPercentileHistogram()
+            .register(r);
+        this.flushedRows = Counter.builder("voglander.device.liveness.flushed")
+            .description("心跳缓冲刷写的设备数")
+            .register(r);
+        this.flushFailures = Counter.builder("voglander.device.liveness.flush.failed")
+            .description("心跳缓冲写库失败批次数")
+            .register(r);
+        Gauge.builder("voglander.device.liveness.buffer.size", pending, Map::size)
+            .description("待刷写心跳设备数")
+            .register(r);
+    }
+
+    /**
+     * 记录一次心跳；同一设备只保留 keepaliveTime 最新的一条。
+     */
+    public void offer(String deviceId, Integer status, LocalDateTime keepaliveTime) {
+        pending.merge(deviceId, new Pending(status, keepaliveTime), Pending::newer);
+    }
+
+    /**
+     * 丢弃设备待写心跳（离线终态前调用）。持刷写锁，等待在途批次完成后再移除。
+     */
+    public void discard(String deviceId) {
+        flushLock.lock();
+        try {
+            pending.remove(deviceId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * 刷写当前全部待写心跳。定时任务与关闭钩子共用，串行执行。
+     *
+     * @return 实际更新行数
+     */
+    public int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        flushLock.lock();
+        long start = System.nanoTime();
+        int updated = 0;
+        try {
+            List<DeviceDO> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            Iterator<Map.Entry<String, Pending>> it = pending.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Pending> entry = it.next();
+                // remove(key, value)：期间被新心跳替换的条目留到下一轮，不丢更新
+                if (!pending.remove(entry.getKey(), entry.getValue())) {
+                    continue;
+                }
+                batch.add(entry.getValue().toRow(entry.getKey()));
+                if (batch.size() >= batchSize) {
+                    updated += writeBatch(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                updated += writeBatch(batch);
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            flushLock.unlock();
+        }
+        return updated;
+    }
+
+    private int writeBatch(List<DeviceDO> batch) {
+        try {
+            int updated = writer.apply(batch, LocalDateTime.now());
+            flushedRows.increment(batch.size());
+            List<String> deviceIds = new ArrayList<>(batch.size());
+            for (DeviceDO row : batch) {
+                deviceIds.add(row.getDeviceId());
+            }
+            onFlushed.accept(deviceIds);
+            return updated;
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.warn("心跳批量写库失败，放回缓冲待下轮重试 - size: {}, error: {}", batch.size(), e.getMessage());
+            for (DeviceDO row : batch) {
+                pending.merge(row.getDeviceId(), new Pending(row.getStatus(), row.getKeepaliveTime()), Pending::newer);
+            }
+            return 0;
+        }
+    }
+
+    private record Pending(Integer status, LocalDateTime keepaliveTime) {
+
+        static Pending newer(Pending a, Pending b) {
+            return b.keepaliveTime.isBefore(a.keepaliveTime) ? a : b;
+        }
+
+        DeviceDO toRow(String deviceId) {
+            DeviceDO row = new DeviceDO();
+            row.setDeviceId(deviceId);
+            row.setStatus(status);
+            row.setKeepaliveTime(keepaliveTime);
+            return row;
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package io.github.lunasaw.voglander.manager.manager;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -21,6 +21,7 @@ import io.github.lunasaw.voglander.common.exception.ServiceException;
 import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
 import io.github.lunasaw.voglander.manager.assembler.DeviceAssembler;
 import io.github.lunasaw.voglander.manager.cache.DelayedCacheEviction;
+import io.github.lunasaw.voglander.manager.cache.HotKeyCacheLoader;
 import io.github.lunasaw.voglander.manager.cache.DeviceCacheKey;
 import io.github.lunasaw.voglander.manager.domaon.dto.DeviceDTO;
 import io.github.lunasaw.voglander.manager.domaon.dto.DeviceQueryDTO;
@@ -32,6 +33,9 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -81,11 +85,29 @@ public class DeviceManager {
     @Autowired(required = false)
     private StringRedisTemplate stringRedisTemplate;
 
+    @Autowired
+    private HotKeyCacheLoader   hotKeyCacheLoader;
+
     @Autowired(required = false)
     private io.github.lunasaw.voglander.manager.routing.DeviceNodeRouteService deviceNodeRouteService;
 
+    @Autowired(required = false)
+    private MeterRegistry       meterRegistry;
+
     private DelayedCacheEviction delayedEviction;
 
+    /**
+     * 心跳写后缓冲开关：开启后窗口外心跳不再逐台同步写库，而是进 {@link DeviceLivenessBuffer}
+     * 由 {@link #flushLivenessBuffer()} 每 {@code flush-interval-ms} 批量落库。
+     */
+    @Value("${voglander.device.liveness.write-behind.enabled:false}")
+    private boolean              livenessWriteBehind;
+
+    @Value("${voglander.device.liveness.write-behind.batch-size:100}")
+    private int                  livenessBatchSize;
+
+    private DeviceLivenessBuffer livenessBuffer;
+
     /**
      * 心跳合并缓存：记录每个设备上次持久化的时间戳
      * Key: deviceId, Value: lastPersistTimestamp (milliseconds)
@@ -533,6 +555,10 @@ public class DeviceManager {
      * </ul>
      * <b>不影响最终一致性</b>：缓存刷新确保下次读到最新心跳时间，底层 patchLiveness() 单调条件保护漂移场景。
      * </p>
+     * <p>
+     * 开启 {@code voglander.device.liveness.write-behind.enabled} 后，窗口外心跳写入 {@link DeviceLivenessBuffer}，
+     * 定时批量落库（单调条件逐行保留），落库后再精确 evict。
+     * </p>
      *
      * @param deviceId      设备国标 ID
      * @param status        设备状态（可选，一般为 ONLINE）
@@ -547,18 +573,61 @@ public class DeviceManager {
 
         // 判断是否在合并窗口内
         if (now - lastTs < coalesceWindowMs) {
-            // 30s 内：仅刷缓存，不写 DB（加速）
-            clearCache(null, deviceId, null);
-            log.debug("心跳合并：{}ms 内，仅刷缓存 - deviceId: {}", now - lastTs, deviceId);
+            if (livenessBuffer == null) {
+                // 30s 内：仅刷缓存，不写 DB（加速）
+                clearCache(null, deviceId, null);
+            }
+            log.debug("心跳合并：{}ms 内，跳过 DB 写 - deviceId: {}", now - lastTs, deviceId);
+            return;
+        }
+        if (livenessBuffer != null) {
+            // 写后缓冲：只记最新心跳，由定时刷写合并成批量 UPDATE，evict 在落库后进行
+            livenessBuffer.offer(deviceId, status, keepaliveTime);
         } else {
-            // 首次心跳或超出窗口：走 DB 写 + 更新 lastPersistTs
+            // 首次心跳或超出窗口：走 DB 写
             patchLiveness(deviceId, status, keepaliveTime);
-            lastPersistTs.put(deviceId, now);
-            // 续期路由 TTL（开关关闭时跳过）
-            if (deviceNodeRouteService != null) {
-                deviceNodeRouteService.renewDevice(deviceId);
+        }
+        lastPersistTs.put(deviceId, now);
+        // 续期路由 TTL（开关关闭时跳过）
+        if (deviceNodeRouteService != null) {
+            deviceNodeRouteService.renewDevice(deviceId);
+        }
+        log.debug("心跳合并：已提交持久化 - deviceId: {}, keepaliveTime: {}", deviceId, keepaliveTime);
+    }
+
+    @PostConstruct
+    void initLivenessBuffer() {
+        if (livenessWriteBehind) {
+            livenessBuffer = new DeviceLivenessBuffer(deviceService::batchPatchLiveness,
+                deviceIds -> deviceIds.forEach(id -> clearCache(null, id, null)), livenessBatchSize, meterRegistry);
+            log.info("心跳写后缓冲已开启 - batchSize: {}", livenessBatchSize);
+        }
+    }
+
+    /**
+     * 心跳写后缓冲定时刷写：每轮把缓冲内全部设备按批合并成多行 UPDATE。
+     */
+    @Scheduled(fixedDelayString = "${voglander.device.liveness.write-behind.flush-interval-ms:1000}")
+    public void flushLivenessBuffer() {
+        DeviceLivenessBuffer buffer = livenessBuffer;
+        if (buffer != null) {
+            int updated = buffer.flush();
+            if (updated > 0) {
+                log.debug("心跳缓冲刷写完成 - updated: {}", updated);
             }
-            log.debug("心跳合并：已写 DB - deviceId: {}, keepaliveTime: {}", deviceId, keepaliveTime);
+        }
+    }
+
+    /**
+     * 关闭前把缓冲内心跳全部落库，避免重启丢失最后一个窗口的活跃时间。
+     */
+    @PreDestroy
+    public void shutdownLivenessBuffer() {
+        DeviceLivenessBuffer buffer = livenessBuffer;
+        if (buffer != null) {
+            int pendingSize = buffer.size();
+            buffer.flush();
+            log.info("心跳缓冲关闭前刷写 - pending: {}", pendingSize);
         }
     }
 
@@ -588,6 +657,11 @@ public class DeviceManager {
     public void patchOfflineTerminal(String deviceId) {
         Assert.hasText(deviceId, "设备ID不能为空");
 
+        if (livenessBuffer != null) {
+            // 先丢弃待写心跳（等待在途批次完成），防止离线后被缓冲里的 ONLINE 覆盖
+            livenessBuffer.discard(deviceId);
+        }
+
         LambdaUpdateWrapper<DeviceDO> uw = new LambdaUpdateWrapper<>();
         uw.eq(DeviceDO::getDeviceId, deviceId)
             .set(DeviceDO::getStatus, DeviceConstant.Status.OFFLINE)
@@ -865,11 +939,17 @@ public class DeviceManager {
         return result != null ? deviceAssembler.toDeviceDO(result) : null;
     }
 
-    @Cacheable(value = DeviceCacheKey.CACHE_NAME, key = "T(io.github.lunasaw.voglander.manager.cache.DeviceCacheKey).byDeviceId(#deviceId)", unless = "#result == null")
+    /**
+     * 按国标 ID 读取设备（点播 / 云台热点路径）。经 {@link HotKeyCacheLoader} 做未命中合并与提前刷新，
+     * 缓存区与 key 同原 {@code @Cacheable}（{@link DeviceCacheKey#byDeviceId}），null 不缓存。
+     */
     public DeviceDTO getDtoByDeviceId(String deviceId) {
-        DeviceDTO queryDTO = new DeviceDTO();
-        queryDTO.setDeviceId(deviceId);
-        return get(queryDTO);
+        return hotKeyCacheLoader.get(DeviceCacheKey.CACHE_NAME, DeviceCacheKey.byDeviceId(deviceId), DeviceDTO.class,
+            () -> {
+                DeviceDTO queryDTO = new DeviceDTO();
+                queryDTO.setDeviceId(deviceId);
+                return get(queryDTO);
+            });
     }
 
     public DeviceDTO getDeviceDTOById(Long id) {
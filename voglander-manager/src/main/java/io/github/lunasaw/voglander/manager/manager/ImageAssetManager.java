@@ -2,6 +2,7 @@ package io.github.lunasaw.voglander.manager.manager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -143,6 +144,19 @@ public class ImageAssetManager {
         return target;
     }
 
+    /**
+     * One keyset page of registered (non-DELETED) storage keys strictly after {@code afterKey}, in ascending byte
+     * order; pass the last key of the previous page to continue.
+     */
+    public List<String> listRegisteredStorageKeys(String afterKey, int limit) {
+        Assert.isTrue(limit > 0 && limit <= 10_000, "limit必须在1-10000之间");
+        return assetMapper.selectStorageKeysAfter(afterKey, limit);
+    }
+
+    public boolean isRegisteredStorageKey(String storageKey) {
+        return StringUtils.hasText(storageKey) && assetMapper.countNotDeletedByStorageKey(storageKey) > 0;
+    }
+
     public Page<ImageAssetEnrichedDTO> getEnrichedPage(ImageAssetQueryDTO query, long page, long size) {
         Assert.isTrue(page > 0, "page必须大于0");
         Assert.isTrue(size > 0 && size <= 1000, "size必须在1-1000之间");
@@ -0,0 +1,366 @@
+package io.github.lunasaw.voglander.manager.manager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import io.github.lunasaw.voglander.common.constant.media.MediaFlowConstant;
+import io.github.lunasaw.voglander.repository.entity.MediaFlowRollupDO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 流量上报内存累加器。
+ * <p>
+ * 每个 (维度, 维度键, 分钟桶) 一个 {@link LongAdder} 组，Hook 线程只做无锁累加，不碰 DB；
+ * {@link #flush(long)} 用 {@code sumThenReset} 取走增量，同时派生分钟行与小时行，按唯一键合并后分批 upsert 累加。
+ * 取走与并发累加互不丢数：未被本轮取走的增量留在累加器里进入下一轮。
+ * </p>
+ * <p>
+ * ZLM 的 {@code on_flow_report} 只在会话结束时上报一次整场总量，因此字节数与时长按会话区间
+ * {@code [到达时间 - durationSec, 到达时间]} 与各分钟桶的重叠比例摊开，小时行随分钟行派生；
+ * 播放端数与上报数只计入到达所在的分钟。跨分钟的会话由 Hook 线程记一条待摊开记录，摊开在 {@link #flush(long)} 里直接并入汇总行，
+ * 累加器单元只按到达分钟写入；超过 {@link #MAX_SPREAD_MINUTES} 的长会话，窗口之前的部分并入窗口内最早的分钟桶。
+ * </p>
+ * <p>
+ * 写失败的行（已是取走后的增量）放回重试队列与下一轮合并，不回灌累加器，避免小时行被重复计入；
+ * 重试队列超过 {@code maxRetryRows} 时丢弃溢出部分并计数。两分钟前且本轮无增量的分钟桶从累加器移除。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+public class MediaFlowAccumulator {
+
+    private static final long                             MINUTE_MS     = 60_000L;
+
+    /** 单次上报最多摊开的分钟桶数（一天），限制超长会话一次产生的汇总行数 */
+    private static final int                              MAX_SPREAD_MINUTES = 24 * 60;
+
+    /** 待摊开记录上限，超出时整场总量计入到达分钟 */
+    private static final int                              MAX_PENDING_SPANS = 100_000;
+
+    private final Map<Key, Cell>                          cells         = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<Span>             spans         = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger                           pendingSpans  = new AtomicInteger();
+
+    private final ReentrantLock                           flushLock     = new ReentrantLock();
+
+    private final Function<List<MediaFlowRollupDO>, Integer> writer;
+
+    private final int                                     batchSize;
+
+    private final int                                     maxRetryRows;
+
+    private final ZoneId                                  zone;
+
+    /** 写失败待重试的行，仅在持有 flushLock 时访问 */
+    private final Map<RowKey, MediaFlowRollupDO>          retry         = new LinkedHashMap<>();
+
+    private final Counter                                 reports;
+
+    private final Counter                                 flushedRows;
+
+    private final Counter                                 flushFailures;
+
+    private final Counter                                 droppedRows;
+
+    private final Timer                                   flushTimer;
+
+    /**
+     * @param writer       批量 upsert（通常为 {@code MediaFlowRollupMapper#upsertAdd}），返回影响行数
+     * @param batchSize    单条 INSERT 覆盖的行数
+     * @param maxRetryRows 重试队列上限
+     * @param zone         时间桶所用时区
+     * @param registry     指标注册表，可空
+     */
+    public MediaFlowAccumulator(Function<List<MediaFlowRollupDO>, Integer> writer, int batchSize, int maxRetryRows,
+        ZoneId zone, MeterRegistry registry) {
+        this.writer = writer;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRetryRows = Math.max(0, maxRetryRows);
+        this.zone = zone;
+        MeterRegistry r = registry != null ? registry : new CompositeMeterRegistry();
+        this.reports = Counter.builder("voglander.media.flow.reports")
+            .description("接收的流量上报数")
+            .register(r);
+        this.flushedRows = Counter.builder("voglander.media.flow.flushed")
+            .description("流量汇总写库行数")
+            .register(r);
+        this.flushFailures = Counter.builder("voglander.media.flow.flush.failed")
+            .description("流量汇总写库失败批次数")
+            .register(r);
+        this.droppedRows = Counter.builder("voglander.media.flow.dropped")
+            .description("重试队列溢出丢弃的汇总行数")
+            .register(r);
+        this.flushTimer = Timer.builder("voglander.media.flow.flush")
+            .description("流量汇总单轮刷写耗时")
+            .publishPercentileHistogram()
+            .register(r);
+        Gauge.builder("voglander.media.flow.cells", cells, Map::size)
+            .description("累加器中的 (维度, 键, 分钟) 单元数")
+            .register(r);
+    }
+
+    /**
+     * 累加一次流量上报；节点、设备、通道三个维度各计一次，缺失的维度跳过。跨分钟会话的字节数与时长留待 flush 摊开。
+     *
+     * @param serverId    媒体节点 serverId，可空
+     * @param deviceId    设备国标 ID，可空
+     * @param channelId   通道国标 ID，可空
+     * @param bytes       本次会话字节数
+     * @param durationSec 本次会话时长（秒）
+     * @param player      是否为播放端（否则为推流端）
+     * @param nowMs       上报到达时间（即会话结束时间）
+     */
+    public void record(String serverId, String deviceId, String channelId, long bytes, long durationSec,
+        boolean player, long nowMs) {
+        long arrivalMinute = nowMs - Math.floorMod(nowMs, MINUTE_MS);
+        long b = Math.max(0L, bytes);
+        long d = Math.max(0L, durationSec);
+        long sessionMs = d > Long.MAX_VALUE / 1_000L ? Long.MAX_VALUE : d * 1_000L;
+        if (nowMs - sessionMs >= arrivalMinute || (b == 0L && d == 0L)) {
+            add(serverId, deviceId, channelId, arrivalMinute, b, d, player, true);
+        } else if (pendingSpans.incrementAndGet() > MAX_PENDING_SPANS) {
+            pendingSpans.decrementAndGet();
+            add(serverId, deviceId, channelId, arrivalMinute, b, d, player, true);
+        } else {
+            spans.add(new Span(serverId, deviceId, channelId, b, d, nowMs));
+            add(serverId, deviceId, channelId, arrivalMinute, 0L, 0L, player, true);
+        }
+        reports.increment();
+    }
+
+    private void add(String serverId, String deviceId, String channelId, long minute, long b, long d,
+        boolean player, boolean report) {
+        if (serverId != null) {
+            cell(new Key(MediaFlowConstant.Dimension.NODE, serverId, minute)).add(b, d, player, report);
+        }
+        if (deviceId != null) {
+            cell(new Key(MediaFlowConstant.Dimension.DEVICE, deviceId, minute)).add(b, d, player, report);
+            if (channelId != null) {
+                cell(new Key(MediaFlowConstant.Dimension.CHANNEL, deviceId + ":" + channelId, minute))
+                    .add(b, d, player, report);
+            }
+        }
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    /**
+     * 取走全部增量并写库。定时任务与关闭钩子共用，串行执行。
+     *
+     * @param nowMs 当前时间，用于判定可移除的过期分钟桶
+     * @return 写入行数
+     */
+    public int flush(long nowMs) {
+        flushLock.lock();
+        long start = System.nanoTime();
+        try {
+            long currentMinute = nowMs - Math.floorMod(nowMs, MINUTE_MS);
+            Map<RowKey, MediaFlowRollupDO> rows = new LinkedHashMap<>(retry);
+            retry.clear();
+            LocalDateTime now = LocalDateTime.now();
+            for (Map.Entry<Key, Cell> entry : cells.entrySet()) {
+                Key key = entry.getKey();
+                long[] delta = entry.getValue().drain();
+                if (isEmpty(delta)) {
+                    // 多留一分钟再移除，跨分钟边界仍持有旧 Cell 的累加线程不会写进已摘除的单元
+                    if (key.minuteMs < currentMinute - MINUTE_MS) {
+                        cells.remove(key, entry.getValue());
+                    }
+                    continue;
+                }
+                LocalDateTime minute = LocalDateTime.ofInstant(Instant.ofEpochMilli(key.minuteMs), zone);
+                merge(rows, key.dimension, key.dimKey, minute, delta, now);
+            }
+            Span span;
+            while ((span = spans.poll()) != null) {
+                pendingSpans.decrementAndGet();
+                spread(rows, span, now);
+            }
+            return write(rows);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 把一次跨分钟会话的总量按与各分钟桶的重叠比例摊开并入汇总行。
+     * 截至每个桶末尾会话已进行的比例按累计值取整再求差，各桶之和恰为总量。
+     */
+    private void spread(Map<RowKey, MediaFlowRollupDO> rows, Span span, LocalDateTime now) {
+        long arrivalMinute = span.endMs - Math.floorMod(span.endMs, MINUTE_MS);
+        long sessionMs = span.durationSec > Long.MAX_VALUE / 1_000L ? Long.MAX_VALUE : span.durationSec * 1_000L;
+        long startMs = span.endMs - sessionMs;
+        long oldestMinute = arrivalMinute - (long)MAX_SPREAD_MINUTES * MINUTE_MS;
+        long minute = startMs <= oldestMinute ? oldestMinute : startMs - Math.floorMod(startMs, MINUTE_MS);
+        long spentBytes = 0L;
+        long spentSec = 0L;
+        for (; minute <= arrivalMinute; minute += MINUTE_MS) {
+            long cumBytes = span.bytes;
+            long cumSec = span.durationSec;
+            if (minute < arrivalMinute) {
+                double elapsed = (double)(minute + MINUTE_MS - startMs) / sessionMs;
+                cumBytes = Math.round(span.bytes * elapsed);
+                cumSec = Math.round(span.durationSec * elapsed);
+            }
+            if (cumBytes != spentBytes || cumSec != spentSec) {
+                long[] delta = {cumBytes - spentBytes, cumSec - spentSec, 0L, 0L};
+                LocalDateTime bucket = LocalDateTime.ofInstant(Instant.ofEpochMilli(minute), zone);
+                if (span.serverId != null) {
+                    merge(rows, MediaFlowConstant.Dimension.NODE, span.serverId, bucket, delta, now);
+                }
+                if (span.deviceId != null) {
+                    merge(rows, MediaFlowConstant.Dimension.DEVICE, span.deviceId, bucket, delta, now);
+                    if (span.channelId != null) {
+                        merge(rows, MediaFlowConstant.Dimension.CHANNEL, span.deviceId + ":" + span.channelId,
+                            bucket, delta, now);
+                    }
+                }
+            }
+            spentBytes = cumBytes;
+            spentSec = cumSec;
+        }
+    }
+
+    /** 同一增量同时并入分钟行与所属小时行 */
+    private static void merge(Map<RowKey, MediaFlowRollupDO> rows, String dimension, String dimKey,
+        LocalDateTime minute, long[] delta, LocalDateTime now) {
+        merge(rows, MediaFlowConstant.Granularity.MINUTE, minute, dimension, dimKey, delta, now);
+        merge(rows, MediaFlowConstant.Granularity.HOUR, minute.truncatedTo(ChronoUnit.HOURS), dimension, dimKey,
+            delta, now);
+    }
+
+    private static boolean isEmpty(long[] delta) {
+        return delta[0] == 0L && delta[1] == 0L && delta[2] == 0L && delta[3] == 0L;
+    }
+
+    private Cell cell(Key key) {
+        Cell cell = cells.get(key);
+        return cell != null ? cell : cells.computeIfAbsent(key, k -> new Cell());
+    }
+
+    private static void merge(Map<RowKey, MediaFlowRollupDO> rows, String granularity, LocalDateTime bucket,
+        String dimension, String dimKey, long[] delta, LocalDateTime now) {
+        MediaFlowRollupDO row = rows.computeIfAbsent(new RowKey(granularity, dimension, dimKey, bucket), k -> {
+            MediaFlowRollupDO created = new MediaFlowRollupDO();
+            created.setCreateTime(now);
+            created.setGranularity(granularity);
+            created.setBucketStart(bucket);
+            created.setDimension(dimension);
+            created.setDimKey(dimKey);
+            created.setTotalBytes(0L);
+            created.setDurationSec(0L);
+            created.setPlayerCount(0L);
+            created.setReportCount(0L);
+            return created;
+        });
+        row.setUpdateTime(now);
+        row.setTotalBytes(row.getTotalBytes() + delta[0]);
+        row.setDurationSec(row.getDurationSec() + delta[1]);
+        row.setPlayerCount(row.getPlayerCount() + delta[2]);
+        row.setReportCount(row.getReportCount() + delta[3]);
+    }
+
+    private int write(Map<RowKey, MediaFlowRollupDO> rows) {
+        int written = 0;
+        List<Map.Entry<RowKey, MediaFlowRollupDO>> batch = new ArrayList<>(Math.min(batchSize, rows.size()));
+        for (Map.Entry<RowKey, MediaFlowRollupDO> entry : rows.entrySet()) {
+            batch.add(entry);
+            if (batch.size() >= batchSize) {
+                written += writeBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += writeBatch(batch);
+        }
+        return written;
+    }
+
+    private int writeBatch(List<Map.Entry<RowKey, MediaFlowRollupDO>> batch) {
+        List<MediaFlowRollupDO> rows = new ArrayList<>(batch.size());
+        for (Map.Entry<RowKey, MediaFlowRollupDO> entry : batch) {
+            rows.add(entry.getValue());
+        }
+        try {
+            writer.apply(rows);
+            flushedRows.increment(rows.size());
+            return rows.size();
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.warn("流量汇总批量写库失败，放回重试队列 - size: {}, error: {}", rows.size(), e.getMessage());
+            for (Map.Entry<RowKey, MediaFlowRollupDO> entry : batch) {
+                if (retry.size() >= maxRetryRows) {
+                    droppedRows.increment();
+                    continue;
+                }
+                retry.put(entry.getKey(), entry.getValue());
+            }
+            return 0;
+        }
+    }
+
+    private record Key(String dimension, String dimKey, long minuteMs) {
+    }
+
+    /** 一次跨分钟会话的整场总量，待 flush 摊开 */
+    private record Span(String serverId, String deviceId, String channelId, long bytes, long durationSec,
+        long endMs) {
+    }
+
+    private record RowKey(String granularity, String dimension, String dimKey, LocalDateTime bucket) {
+    }
+
+    private static final class Cell {
+
+        final LongAdder bytes    = new LongAdder();
+
+        final LongAdder duration = new LongAdder();
+
+        final LongAdder players  = new LongAdder();
+
+        final LongAdder reports  = new LongAdder();
+
+        void add(long b, long d, boolean player, boolean report) {
+            bytes.add(b);
+            duration.add(d);
+            if (player) {
+                players.increment();
+            }
+            if (report) {
+                reports.increment();
+            }
+        }
+
+        /**
+         * 取走增量。与 {@link #add} 并发时一次上报的各字段可能分落两轮，总量不变。
+         */
+        long[] drain() {
+            return new long[] {bytes.sumThenReset(), duration.sumThenReset(), players.sumThenReset(),
+                reports.sumThenReset()};
+        }
+    }
+}
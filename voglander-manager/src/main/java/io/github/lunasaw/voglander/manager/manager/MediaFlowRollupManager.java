@@ -0,0 +1,137 @@
+package io.github.lunasaw.voglander.manager.manager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import io.github.lunasaw.voglander.common.anno.TechnicalScheduler;
+import io.github.lunasaw.voglander.common.constant.media.MediaFlowConstant;
+import io.github.lunasaw.voglander.common.util.GbStreamIds;
+import io.github.lunasaw.voglander.manager.domaon.dto.MediaFlowTalkerDTO;
+import io.github.lunasaw.voglander.repository.entity.MediaFlowRollupDO;
+import io.github.lunasaw.voglander.repository.mapper.MediaFlowRollupMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 媒体流量统计：ZLM {@code on_flow_report} 的接收、分钟/小时汇总落库与流量排行查询。
+ * <p>
+ * {@link #record} 只写 {@link MediaFlowAccumulator} 内存累加器，Hook 线程不做同步 DB 写；
+ * {@link #flush()} 每 {@code flush-interval-ms} 把增量按批 upsert 进 {@code tb_media_flow_rollup}，
+ * 多实例各自累加各自收到的上报，upsert 累加语义保证汇总正确。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+@Component
+@TechnicalScheduler(category = TechnicalScheduler.Category.MAINTENANCE)
+public class MediaFlowRollupManager {
+
+    private static final Set<String>   GRANULARITIES   =
+        Set.of(MediaFlowConstant.Granularity.MINUTE, MediaFlowConstant.Granularity.HOUR);
+
+    private static final Set<String>   DIMENSIONS      = Set.of(MediaFlowConstant.Dimension.DEVICE,
+        MediaFlowConstant.Dimension.CHANNEL, MediaFlowConstant.Dimension.NODE);
+
+    /** 排行单次返回上限 */
+    public static final int            MAX_TOP_N       = 100;
+
+    @Autowired
+    private MediaFlowRollupMapper      mediaFlowRollupMapper;
+
+    @Autowired(required = false)
+    private MeterRegistry              meterRegistry;
+
+    @Value("${voglander.media.flow.batch-size:200}")
+    private int                        batchSize       = 200;
+
+    /** 写库失败待重试的汇总行上限，DB 长时间不可用时超出部分丢弃 */
+    @Value("${voglander.media.flow.max-retry-rows:50000}")
+    private int                        maxRetryRows    = 50_000;
+
+    private MediaFlowAccumulator       accumulator;
+
+    @PostConstruct
+    void initAccumulator() {
+        accumulator = new MediaFlowAccumulator(mediaFlowRollupMapper::upsertAdd, batchSize, maxRetryRows,
+            ZoneId.systemDefault(), meterRegistry);
+    }
+
+    /**
+     * 记录一次流量上报（播放端或推流端断开时 ZLM 回调）。GB28181 流按 streamId 解析出设备与通道，其余流只计节点维度。
+     *
+     * @param serverId    媒体节点 serverId
+     * @param stream      ZLM 流名
+     * @param totalBytes  本次会话字节数
+     * @param durationSec 本次会话时长（秒）
+     * @param player      是否为播放端
+     */
+    public void record(String serverId, String stream, long totalBytes, long durationSec, boolean player) {
+        String[] deviceChannel = GbStreamIds.parseDeviceChannel(stream);
+        accumulator.record(serverId, deviceChannel == null ? null : deviceChannel[0],
+            deviceChannel == null ? null : deviceChannel[1], totalBytes, durationSec, player,
+            System.currentTimeMillis());
+    }
+
+    /**
+     * 流量汇总定时刷写。
+     */
+    @Scheduled(fixedDelayString = "${voglander.media.flow.flush-interval-ms:10000}")
+    public void flush() {
+        int written = accumulator.flush(System.currentTimeMillis());
+        if (written > 0) {
+            log.debug("流量汇总刷写完成 - rows: {}", written);
+        }
+    }
+
+    /**
+     * 关闭前把累加器内增量全部落库。
+     */
+    @PreDestroy
+    public void shutdown() {
+        int cells = accumulator.size();
+        accumulator.flush(System.currentTimeMillis());
+        log.info("流量汇总关闭前刷写 - cells: {}", cells);
+    }
+
+    /**
+     * 时间窗 [start, end) 内按字节数降序的前 N 个维度键。
+     *
+     * @param granularity MINUTE/HOUR，窗口较长时用 HOUR 减少扫描行数
+     * @param dimension   DEVICE/CHANNEL/NODE
+     * @param limit       1..{@value #MAX_TOP_N}
+     */
+    public List<MediaFlowTalkerDTO> topTalkers(String granularity, String dimension, LocalDateTime start,
+        LocalDateTime end, int limit) {
+        Assert.isTrue(GRANULARITIES.contains(granularity), "不支持的汇总粒度: " + granularity);
+        Assert.isTrue(DIMENSIONS.contains(dimension), "不支持的汇总维度: " + dimension);
+        Assert.notNull(start, "开始时间不能为空");
+        Assert.notNull(end, "结束时间不能为空");
+        Assert.isTrue(start.isBefore(end), "开始时间必须早于结束时间");
+        List<MediaFlowRollupDO> rows = mediaFlowRollupMapper.selectTopTalkers(granularity, dimension, start, end,
+            Math.max(1, Math.min(MAX_TOP_N, limit)));
+        List<MediaFlowTalkerDTO> result = new ArrayList<>(rows.size());
+        for (MediaFlowRollupDO row : rows) {
+            MediaFlowTalkerDTO dto = new MediaFlowTalkerDTO();
+            dto.setDimension(dimension);
+            dto.setDimKey(row.getDimKey());
+            dto.setTotalBytes(row.getTotalBytes() == null ? 0L : row.getTotalBytes());
+            dto.setDurationSec(row.getDurationSec() == null ? 0L : row.getDurationSec());
+            dto.setPlayerCount(row.getPlayerCount() == null ? 0L : row.getPlayerCount());
+            dto.setReportCount(row.getReportCount() == null ? 0L : row.getReportCount());
+            result.add(dto);
+        }
+        return result;
+    }
+}
@@ -7,17 +7,19 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import io.github.lunasaw.voglander.manager.cache.DelayedCacheEviction;
+import io.github.lunasaw.voglander.manager.cache.HotKeyCacheLoader;
 import org.springframework.util.Assert;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 
+import io.github.lunasaw.voglander.common.event.MediaNodeChangedEvent;
 import io.github.lunasaw.voglander.manager.assembler.MediaNodeAssembler;
 import io.github.lunasaw.voglander.manager.domaon.dto.MediaNodeDTO;
 import io.github.lunasaw.voglander.manager.service.MediaNodeService;
@@ -66,6 +68,12 @@ public class MediaNodeManager {
     @Autowired(required = false)
     private StringRedisTemplate stringRedisTemplate;
 
+    @Autowired
+    private HotKeyCacheLoader  hotKeyCacheLoader;
+
+    @Autowired(required = false)
+    private ApplicationEventPublisher eventPublisher;
+
     private DelayedCacheEviction delayedEviction;
 
     private DelayedCacheEviction eviction() {
@@ -90,6 +98,20 @@ public class MediaNodeManager {
         }
     }
 
+    /**
+     * 节点选路相关字段（serverId/地址/密钥/启停/权重）变更时通知节点内存表重读；仅刷新状态与心跳的更新不通知。
+     */
+    private void publishNodeChanged(MediaNodeDO change, String serverId) {
+        if (eventPublisher == null) {
+            return;
+        }
+        if (change != null && change.getServerId() == null && change.getHost() == null && change.getSecret() == null
+            && change.getEnabled() == null && change.getWeight() == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new MediaNodeChangedEvent(serverId));
+    }
+
     private void scheduleEvict(String cacheName, String key) {
         DelayedCacheEviction e = eviction();
         if (e != null) {
@@ -133,6 +155,8 @@ public class MediaNodeManager {
         boolean saved = mediaNodeService.save(mediaNodeDO);
         Assert.isTrue(saved, "节点创建失败");
 
+        publishNodeChanged(null, mediaNodeDO.getServerId());
+
         log.info("成功创建流媒体节点，节点ID: {}, 数据库ID: {}", mediaNodeDTO.getServerId(), mediaNodeDO.getId());
         return mediaNodeDO.getId();
     }
@@ -186,6 +210,7 @@ public class MediaNodeManager {
 
         // 统一清除缓存
         clearNodeCache(mediaNodeDO.getId(), existingNode.getServerId(), mediaNodeDO.getServerId());
+        publishNodeChanged(mediaNodeDO, existingNode.getServerId());
 
         log.info("成功{}流媒体节点，节点ID: {}, 数据库ID: {}", operationType,
             mediaNodeDO.getServerId() != null ? mediaNodeDO.getServerId() : existingNode.getServerId(),
@@ -233,19 +258,20 @@ public class MediaNodeManager {
     }
 
     /**
-     * 根据节点ID获取节点
+     * 根据节点ID获取节点（点播选节点热点路径，经 {@link HotKeyCacheLoader} 合并并发未命中）
      *
      * @param serverId 节点ID
      * @return MediaNodeDO
      */
-    @Cacheable(value = "mediaNode", key = "'unique:' + #serverId", unless = "#result == null")
     public MediaNodeDO getByServerId(String serverId) {
         if (serverId == null || serverId.trim().isEmpty()) {
             return null;
         }
-        QueryWrapper<MediaNodeDO> query = new QueryWrapper<>();
-        query.eq("server_id", serverId);
-        return mediaNodeService.getOne(query);
+        return hotKeyCacheLoader.get("mediaNode", "unique:" + serverId, MediaNodeDO.class, () -> {
+            QueryWrapper<MediaNodeDO> query = new QueryWrapper<>();
+            query.eq("server_id", serverId);
+            return mediaNodeService.getOne(query);
+        });
     }
 
     /**
@@ -254,12 +280,11 @@ public class MediaNodeManager {
      * @param id 数据库主键ID
      * @return MediaNodeDO
      */
-    @Cacheable(value = "mediaNode", key = "#id", unless = "#result == null")
     public MediaNodeDO getById(Long id) {
         if (id == null) {
             return null;
         }
-        return mediaNodeService.getById(id);
+        return hotKeyCacheLoader.get("mediaNode", id, MediaNodeDO.class, () -> mediaNodeService.getById(id));
     }
 
     /**
@@ -443,6 +468,7 @@ public class MediaNodeManager {
 
         // 统一清除缓存
         clearNodeCache(id, existingNode.getServerId(), null);
+        publishNodeChanged(null, existingNode.getServerId());
 
         log.info("成功{}流媒体节点，节点ID: {}, 数据库ID: {}", operationType, existingNode.getServerId(), id);
         return true;
@@ -586,6 +612,7 @@ public class MediaNodeManager {
             try {
                 boolean saved = mediaNodeService.save(newNode);
                 Assert.isTrue(saved, "创建节点失败");
+                publishNodeChanged(null, serverId);
                 log.info("创建新节点，节点ID: {}, host: {}, 心跳: {}", serverId, host, newNode.getKeepalive());
                 return newNode.getId();
             } catch (Exception e) {
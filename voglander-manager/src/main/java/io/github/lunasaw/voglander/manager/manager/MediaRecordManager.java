@@ -0,0 +1,290 @@
+package io.github.lunasaw.voglander.manager.manager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import io.github.lunasaw.voglander.common.anno.TechnicalScheduler;
+import io.github.lunasaw.voglander.common.util.GbStreamIds;
+import io.github.lunasaw.voglander.manager.domaon.dto.MediaRecordSegmentDTO;
+import io.github.lunasaw.voglander.repository.entity.MediaRecordSegmentDO;
+import io.github.lunasaw.voglander.repository.mapper.MediaRecordSegmentMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 平台侧录像索引：ZLM {@code on_record_mp4} 片段元数据的批量落库与按通道时间区间查询。
+ * <p>
+ * {@link #onSegment} 只写内存（区间索引 + 待落库队列），{@link #flush()} 每 {@code flush-interval-ms}
+ * 把队列按批幂等插入 {@code tb_media_record_segment}，Hook 线程不做同步 DB 写。
+ * {@link #findSegments} 查询起点在 {@code memory-hours} 内时走 {@link RecordSegmentIndex}：通道首次查询从 DB 预热，
+ * 之后每 {@code refresh-ms} 增量补读其他实例写入的片段；更早的区间回落 DB 区间查询。
+ * 回调只写入已预热通道的内存索引，通道数与片段总数受 {@code max-channels} / {@code max-segments} 限制，按 LRU 淘汰。
+ * 回放不必再向设备发 SIP RecordInfo 才能知道平台侧有哪些录像。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+@Component
+@TechnicalScheduler(category = TechnicalScheduler.Category.MAINTENANCE)
+public class MediaRecordManager {
+
+    /** 单次查询返回上限 */
+    public static final int                                    MAX_QUERY_LIMIT = 1000;
+
+    @Autowired
+    private MediaRecordSegmentMapper                           mediaRecordSegmentMapper;
+
+    @Autowired(required = false)
+    private MeterRegistry                                      meterRegistry;
+
+    /** 内存索引保留时长（小时），查询起点早于该窗口时直接查 DB */
+    @Value("${voglander.record.index.memory-hours:168}")
+    private long                                               memoryHours     = 168L;
+
+    /** 单个片段最长时长（秒），与 ZLM {@code record.fileSecond} 对齐，决定区间查询向前多看多远 */
+    @Value("${voglander.record.index.max-segment-sec:3600}")
+    private long                                               maxSegmentSec   = 3600L;
+
+    /** 已预热通道从 DB 增量补读的周期（毫秒），覆盖其他实例收到的回调 */
+    @Value("${voglander.record.index.refresh-ms:60000}")
+    private long                                               refreshMs       = 60_000L;
+
+    @Value("${voglander.record.index.flush-interval-ms:5000}")
+    private long                                               flushIntervalMs = 5_000L;
+
+    @Value("${voglander.record.index.batch-size:200}")
+    private int                                                batchSize       = 200;
+
+    /** 待落库片段上限，DB 长时间不可用时超出部分丢弃（文件仍在节点上，只是不进索引） */
+    @Value("${voglander.record.index.max-pending:50000}")
+    private int                                                maxPending      = 50_000;
+
+    /** 通道预热单页行数 */
+    @Value("${voglander.record.index.warm-page-size:5000}")
+    private int                                                warmPageSize    = 5_000;
+
+    /** 内存索引最多保留的通道数，超出按最近查询淘汰 */
+    @Value("${voglander.record.index.max-channels:" + RecordSegmentIndex.DEFAULT_MAX_CHANNELS + "}")
+    private int                                                maxChannels     = RecordSegmentIndex.DEFAULT_MAX_CHANNELS;
+
+    /** 内存索引最多保留的片段总数，超出按最近查询淘汰整个通道 */
+    @Value("${voglander.record.index.max-segments:" + RecordSegmentIndex.DEFAULT_MAX_SEGMENTS + "}")
+    private long                                               maxSegments     = RecordSegmentIndex.DEFAULT_MAX_SEGMENTS;
+
+    private RecordSegmentIndex                                 index;
+
+    private final ConcurrentLinkedQueue<MediaRecordSegmentDTO> pending         = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger                                pendingSize     = new AtomicInteger();
+
+    private Counter                                            memoryQueries;
+
+    private Counter                                            dbQueries;
+
+    private Counter                                            flushFailures;
+
+    private Counter                                            droppedSegments;
+
+    @PostConstruct
+    void initMetrics() {
+        index = new RecordSegmentIndex(maxChannels, maxSegments);
+        MeterRegistry r = meterRegistry != null ? meterRegistry : new CompositeMeterRegistry();
+        memoryQueries = Counter.builder("voglander.record.index.query")
+            .description("录像片段区间查询次数").tag("path", "memory").register(r);
+        dbQueries = Counter.builder("voglander.record.index.query")
+            .description("录像片段区间查询次数").tag("path", "db").register(r);
+        flushFailures = Counter.builder("voglander.record.index.flush.failed")
+            .description("录像片段批量落库失败批次").register(r);
+        droppedSegments = Counter.builder("voglander.record.index.dropped")
+            .description("待落库队列已满被丢弃的片段数").register(r);
+        Gauge.builder("voglander.record.index.segments", index, RecordSegmentIndex::size)
+            .description("内存区间索引中的片段数").register(r);
+        Gauge.builder("voglander.record.index.channels", index, RecordSegmentIndex::channels)
+            .description("内存区间索引中的通道数").register(r);
+        Gauge.builder("voglander.record.index.evicted", index, RecordSegmentIndex::evictions)
+            .description("超出上限被淘汰的通道累计数").register(r);
+        Gauge.builder("voglander.record.index.pending", pendingSize, AtomicInteger::get)
+            .description("等待落库的片段数").register(r);
+    }
+
+    /**
+     * 接收一个 MP4 片段。GB 回放流（{@code gb_back_}）是设备录像的转播，不重复建索引；
+     * 非 GB 流只落库（按流名可查），GB 流只在通道已预热时进内存索引。
+     *
+     * @param startMs    片段开始（毫秒时间戳）
+     * @param durationMs 片段时长（毫秒）
+     */
+    public void onSegment(String mediaServerId, String app, String stream, String filePath, String url,
+        long fileSize, long startMs, long durationMs) {
+        if (GbStreamIds.isPlayback(stream) || filePath == null || mediaServerId == null || startMs <= 0) {
+            return;
+        }
+        MediaRecordSegmentDTO segment = new MediaRecordSegmentDTO();
+        segment.setMediaServerId(mediaServerId);
+        segment.setApp(app);
+        segment.setStream(stream);
+        segment.setFilePath(filePath);
+        segment.setUrl(url);
+        segment.setFileSize(Math.max(0L, fileSize));
+        segment.setStartTime(startMs);
+        segment.setEndTime(startMs + Math.max(0L, durationMs));
+        String[] deviceChannel = GbStreamIds.parseDeviceChannel(stream);
+        if (deviceChannel != null) {
+            segment.setDeviceId(deviceChannel[0]);
+            segment.setChannelId(deviceChannel[1]);
+            index.add(RecordSegmentIndex.key(deviceChannel[0], deviceChannel[1]), segment);
+        }
+        if (pendingSize.get() >= maxPending) {
+            droppedSegments.increment();
+            log.warn("录像片段待落库队列已满，丢弃: {} {}", mediaServerId, filePath);
+            return;
+        }
+        pending.offer(segment);
+        pendingSize.incrementAndGet();
+    }
+
+    /**
+     * 录像片段定时落库，并淘汰超出内存窗口的片段。
+     */
+    @Scheduled(fixedDelayString = "${voglander.record.index.flush-interval-ms:5000}")
+    public void flush() {
+        drain();
+        index.trim(System.currentTimeMillis() - memoryWindowMs());
+    }
+
+    /**
+     * 关闭前把待落库片段全部写入。
+     */
+    @PreDestroy
+    public void shutdown() {
+        int written = drain();
+        log.info("录像索引关闭前落库 - segments: {}, 剩余: {}", written, pendingSize.get());
+    }
+
+    /**
+     * 通道内与 [startMs, endMs) 相交的录像片段，按开始时间升序。
+     *
+     * @param limit 1..{@value #MAX_QUERY_LIMIT}
+     */
+    public List<MediaRecordSegmentDTO> findSegments(String deviceId, String channelId, long startMs, long endMs,
+        int limit) {
+        Assert.hasText(deviceId, "设备ID不能为空");
+        Assert.hasText(channelId, "通道ID不能为空");
+        Assert.isTrue(startMs < endMs, "开始时间必须早于结束时间");
+        int max = Math.max(1, Math.min(MAX_QUERY_LIMIT, limit));
+        long now = System.currentTimeMillis();
+        long horizon = now - memoryWindowMs();
+        if (startMs >= horizon) {
+            String key = RecordSegmentIndex.key(deviceId, channelId);
+            warm(key, deviceId, channelId, now, horizon);
+            List<MediaRecordSegmentDTO> hit = index.query(key, startMs, endMs, max);
+            if (hit != null) {
+                memoryQueries.increment();
+                return hit;
+            }
+        }
+        dbQueries.increment();
+        List<MediaRecordSegmentDO> rows = mediaRecordSegmentMapper.selectOverlapping(deviceId, channelId,
+            startMs - maxSegmentSec * 1000L, startMs, endMs, max);
+        List<MediaRecordSegmentDTO> result = new ArrayList<>(rows.size());
+        for (MediaRecordSegmentDO row : rows) {
+            result.add(MediaRecordSegmentDTO.convertDTO(row));
+        }
+        return result;
+    }
+
+    /**
+     * 未预热的通道从 DB 装载内存窗口内的片段；已预热的按 {@code refresh-ms} 增量补读。
+     * 补读起点向前让出一个最长片段加两个落库周期，覆盖其他实例尚未落库的回调。装载失败时沿用已有内存数据。
+     * 首次预热先建立通道再读库，读库期间的回调直接进索引；之前到达、尚在待落库队列里的片段一并装入。
+     */
+    private void warm(String key, String deviceId, String channelId, long now, long horizon) {
+        long refreshedAt = index.refreshedAt(key);
+        if (refreshedAt >= 0 && now - refreshedAt < refreshMs) {
+            return;
+        }
+        if (refreshedAt < 0) {
+            index.track(key);
+        }
+        long maxSegmentMs = maxSegmentSec * 1000L;
+        long from = horizon - maxSegmentMs;
+        if (refreshedAt >= 0) {
+            from = Math.max(from, refreshedAt - maxSegmentMs - 2 * flushIntervalMs);
+        }
+        try {
+            List<MediaRecordSegmentDTO> loaded = new ArrayList<>();
+            while (true) {
+                List<MediaRecordSegmentDO> page =
+                    mediaRecordSegmentMapper.selectByChannelFrom(deviceId, channelId, from, warmPageSize);
+                for (MediaRecordSegmentDO row : page) {
+                    loaded.add(MediaRecordSegmentDTO.convertDTO(row));
+                }
+                long last = page.isEmpty() ? from : page.get(page.size() - 1).getStartTime();
+                // 下一页从本页最后的开始时间续读（含），重复行由索引按文件去重
+                if (page.size() < warmPageSize || last <= from) {
+                    break;
+                }
+                from = last;
+            }
+            for (MediaRecordSegmentDTO queued : pending) {
+                if (deviceId.equals(queued.getDeviceId()) && channelId.equals(queued.getChannelId())) {
+                    loaded.add(queued);
+                }
+            }
+            index.load(key, loaded, horizon, now);
+        } catch (Exception e) {
+            log.warn("录像索引装载失败: {}, {}", key, e.getMessage());
+        }
+    }
+
+    private int drain() {
+        int written = 0;
+        MediaRecordSegmentDTO segment;
+        while (true) {
+            List<MediaRecordSegmentDO> batch = new ArrayList<>(batchSize);
+            List<MediaRecordSegmentDTO> taken = new ArrayList<>(batchSize);
+            LocalDateTime now = LocalDateTime.now();
+            while (batch.size() < batchSize && (segment = pending.poll()) != null) {
+                pendingSize.decrementAndGet();
+                MediaRecordSegmentDO row = MediaRecordSegmentDTO.convertDO(segment);
+                row.setCreateTime(now);
+                row.setUpdateTime(now);
+                batch.add(row);
+                taken.add(segment);
+            }
+            if (batch.isEmpty()) {
+                return written;
+            }
+            try {
+                mediaRecordSegmentMapper.insertIgnoreBatch(batch);
+                written += batch.size();
+            } catch (Exception e) {
+                // 放回队列下一轮重试，本轮停止避免 DB 故障时空转
+                flushFailures.increment();
+                log.warn("录像片段批量落库失败，稍后重试 - size: {}, {}", batch.size(), e.getMessage());
+                pending.addAll(taken);
+                pendingSize.addAndGet(taken.size());
+                return written;
+            }
+        }
+    }
+
+    private long memoryWindowMs() {
+        return memoryHours * 3_600_000L;
+    }
+}
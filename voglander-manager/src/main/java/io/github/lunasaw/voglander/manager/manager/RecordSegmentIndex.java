@@ -0,0 +1,411 @@
+package io.github.lunasaw.voglander.manager.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.MediaRecordSegmentDTO;
+
+/**
+ * 录像片段内存区间索引：每个通道一组按开始时间排序的片段，附带结束时间前缀最大值。
+ * <p>
+ * 查询 [t1, t2) 时先在前缀最大结束时间上二分出第一个可能相交的片段，再在开始时间上二分出上界，
+ * 只扫描两者之间的片段，代价为 O(log n + 命中数)，与通道累计片段数无关。
+ * 通道的 {@code coverFrom} 表示"结束时间晚于它的片段都在内存里"，查询起点早于它时返回 null 由调用方回落 DB。
+ * 写入以追加为主（ZLM 按时间顺序回调），乱序片段插入到有序位置。
+ * </p>
+ * <p>
+ * 只有被查询过的通道才进索引：{@link #track} / {@link #load} 建立通道，{@link #add} 只写已建立的通道，
+ * 没人回放的通道不占内存。通道数与片段总数有上限，超出时按最近一次查询/装载时刻淘汰最久未用的通道，
+ * 被淘汰的通道下次查询重新从 DB 预热。
+ * </p>
+ *
+ * @author luna
+ */
+public class RecordSegmentIndex {
+
+    public static final int                          DEFAULT_MAX_CHANNELS = 2_000;
+
+    public static final long                         DEFAULT_MAX_SEGMENTS = 500_000L;
+
+    private final ConcurrentHashMap<String, Channel> channels             = new ConcurrentHashMap<>();
+
+    private final AtomicLong                         total                = new AtomicLong();
+
+    private final LongAdder                          evictions            = new LongAdder();
+
+    private final Object                             evictLock            = new Object();
+
+    private final int                                maxChannels;
+
+    private final long                               maxSegments;
+
+    public RecordSegmentIndex() {
+        this(DEFAULT_MAX_CHANNELS, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * @param maxChannels 内存中最多保留的通道数
+     * @param maxSegments 内存中最多保留的片段总数
+     */
+    public RecordSegmentIndex(int maxChannels, long maxSegments) {
+        this.maxChannels = Math.max(1, maxChannels);
+        this.maxSegments = Math.max(1L, maxSegments);
+    }
+
+    /**
+     * 通道索引键
+     */
+    public static String key(String deviceId, String channelId) {
+        return deviceId + ":" + channelId;
+    }
+
+    /**
+     * 写入一个片段；通道未建立（没被查询过或已被淘汰）时忽略，同一节点同一文件重复写入忽略。
+     *
+     * @return 是否新增
+     */
+    public boolean add(String key, MediaRecordSegmentDTO segment) {
+        Channel channel = channels.get(key);
+        if (channel == null || !channel.add(segment)) {
+            return false;
+        }
+        total.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 建立通道以开始接收 {@link #add}，在 {@link #load} 之前不参与查询。预热读 DB 之前调用，读库期间到达的回调不会漏掉。
+     */
+    public void track(String key) {
+        channels.computeIfAbsent(key, k -> new Channel()).touch();
+        evictIfOver(key);
+    }
+
+    /**
+     * 合并一批 DB 片段并把覆盖起点下推到 {@code coverFrom}（只会变早，不会变晚）。
+     *
+     * @param refreshedAtMs 本次装载时刻，供调用方判断何时再从 DB 增量刷新
+     */
+    public void load(String key, Collection<MediaRecordSegmentDTO> segments, long coverFrom, long refreshedAtMs) {
+        Channel channel = channels.computeIfAbsent(key, k -> new Channel());
+        channel.touch();
+        total.addAndGet(channel.load(segments, coverFrom, refreshedAtMs));
+        evictIfOver(key);
+    }
+
+    /**
+     * 与 [start, end) 相交的片段，按开始时间升序，最多 {@code limit} 个。
+     *
+     * @return 内存未覆盖该区间（通道未预热或起点早于覆盖起点）时返回 null
+     */
+    public List<MediaRecordSegmentDTO> query(String key, long start, long end, int limit) {
+        Channel channel = channels.get(key);
+        if (channel == null) {
+            return null;
+        }
+        channel.touch();
+        return channel.query(start, end, limit);
+    }
+
+    /**
+     * 通道最近一次从 DB 装载的时刻，未装载返回 -1。
+     */
+    public long refreshedAt(String key) {
+        Channel channel = channels.get(key);
+        return channel == null ? -1L : channel.refreshedAtMs;
+    }
+
+    /**
+     * 通道当前的覆盖起点，未装载返回 {@link Long#MAX_VALUE}。
+     */
+    public long coverFrom(String key) {
+        Channel channel = channels.get(key);
+        return channel == null ? Long.MAX_VALUE : channel.coverFrom;
+    }
+
+    /**
+     * 淘汰结束时间不晚于 {@code cutoff} 的片段并把覆盖起点提到 {@code cutoff}，空通道整体移除，再按上限淘汰最久未用的通道。
+     */
+    public void trim(long cutoff) {
+        for (Map.Entry<String, Channel> entry : channels.entrySet()) {
+            Channel channel = entry.getValue();
+            total.addAndGet(-channel.trim(cutoff));
+            if (channel.isIdle() && channels.remove(entry.getKey(), channel)) {
+                total.addAndGet(-channel.retire());
+            }
+        }
+        evictIfOver(null);
+    }
+
+    /**
+     * 内存中的片段总数。
+     */
+    public long size() {
+        return total.get();
+    }
+
+    /**
+     * 内存中的通道数。
+     */
+    public int channels() {
+        return channels.size();
+    }
+
+    /**
+     * 因超出上限被淘汰的通道累计数。
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * 通道数或片段总数超限时按最近使用时刻从旧到新淘汰，{@code keep} 为刚使用的通道，不淘汰。
+     */
+    private void evictIfOver(String keep) {
+        if (!overLimit()) {
+            return;
+        }
+        synchronized (evictLock) {
+            if (!overLimit()) {
+                return;
+            }
+            List<Map.Entry<String, Channel>> byAge = new ArrayList<>(channels.entrySet());
+            byAge.sort(Comparator.comparingLong(e -> e.getValue().lastUsedNanos));
+            for (Map.Entry<String, Channel> entry : byAge) {
+                if (!overLimit()) {
+                    break;
+                }
+                if (entry.getKey().equals(keep) || !channels.remove(entry.getKey(), entry.getValue())) {
+                    continue;
+                }
+                total.addAndGet(-entry.getValue().retire());
+                evictions.increment();
+            }
+        }
+    }
+
+    private boolean overLimit() {
+        return channels.size() > maxChannels || total.get() > maxSegments;
+    }
+
+    private static final class Channel {
+
+        private final ReentrantReadWriteLock lock          = new ReentrantReadWriteLock();
+
+        private final Set<String>            files         = new HashSet<>();
+
+        private long[]                       starts        = new long[8];
+
+        private long[]                       ends          = new long[8];
+
+        /** maxEnds[i] = max(ends[0..i])，单调不减，可二分 */
+        private long[]                       maxEnds       = new long[8];
+
+        private MediaRecordSegmentDTO[]      segments      = new MediaRecordSegmentDTO[8];
+
+        private volatile int                 size;
+
+        private volatile long                coverFrom     = Long.MAX_VALUE;
+
+        private volatile long                refreshedAtMs = -1L;
+
+        private volatile long                lastUsedNanos = System.nanoTime();
+
+        /** 已被淘汰：之后的写入忽略，避免计入已不在索引里的通道 */
+        private boolean                      retired;
+
+        void touch() {
+            lastUsedNanos = System.nanoTime();
+        }
+
+        boolean add(MediaRecordSegmentDTO segment) {
+            lock.writeLock().lock();
+            try {
+                return !retired && insert(segment);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * @return 新增片段数
+         */
+        int load(Collection<MediaRecordSegmentDTO> batch, long from, long refreshedAt) {
+            lock.writeLock().lock();
+            try {
+                if (retired) {
+                    return 0;
+                }
+                int added = 0;
+                for (MediaRecordSegmentDTO segment : batch) {
+                    if (insert(segment)) {
+                        added++;
+                    }
+                }
+                coverFrom = Math.min(coverFrom, from);
+                refreshedAtMs = refreshedAt;
+                return added;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * 淘汰通道：释放片段并拒绝后续写入。
+         *
+         * @return 释放的片段数
+         */
+        int retire() {
+            lock.writeLock().lock();
+            try {
+                retired = true;
+                int released = size;
+                files.clear();
+                starts = new long[0];
+                ends = new long[0];
+                maxEnds = new long[0];
+                segments = new MediaRecordSegmentDTO[0];
+                size = 0;
+                return released;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<MediaRecordSegmentDTO> query(long start, long end, int limit) {
+            lock.readLock().lock();
+            try {
+                if (start < coverFrom) {
+                    return null;
+                }
+                int from = firstAbove(maxEnds, size, start);
+                int to = firstAtLeast(starts, size, end);
+                List<MediaRecordSegmentDTO> result = new ArrayList<>();
+                for (int i = from; i < to && result.size() < limit; i++) {
+                    if (ends[i] > start) {
+                        result.add(segments[i]);
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * @return 淘汰的片段数
+         */
+        int trim(long cutoff) {
+            lock.writeLock().lock();
+            try {
+                // maxEnds 单调，结束时间都不晚于 cutoff 的片段构成前缀
+                int drop = firstAbove(maxEnds, size, cutoff);
+                if (drop > 0) {
+                    for (int i = 0; i < drop; i++) {
+                        files.remove(fileKey(segments[i]));
+                    }
+                    int remain = size - drop;
+                    System.arraycopy(starts, drop, starts, 0, remain);
+                    System.arraycopy(ends, drop, ends, 0, remain);
+                    System.arraycopy(maxEnds, drop, maxEnds, 0, remain);
+                    System.arraycopy(segments, drop, segments, 0, remain);
+                    Arrays.fill(segments, remain, size, null);
+                    size = remain;
+                }
+                if (coverFrom != Long.MAX_VALUE) {
+                    coverFrom = Math.max(coverFrom, cutoff);
+                }
+                return drop;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * 空且从未装载成功（预热失败留下的通道），可直接移除。
+         */
+        boolean isIdle() {
+            return size == 0 && refreshedAtMs < 0;
+        }
+
+        private boolean insert(MediaRecordSegmentDTO segment) {
+            if (!files.add(fileKey(segment))) {
+                return false;
+            }
+            if (size == starts.length) {
+                int capacity = size << 1;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                maxEnds = Arrays.copyOf(maxEnds, capacity);
+                segments = Arrays.copyOf(segments, capacity);
+            }
+            long start = segment.getStartTime();
+            // 同开始时间排在已有片段之后，追加路径不移动数组
+            int pos = firstAbove(starts, size, start);
+            if (pos < size) {
+                System.arraycopy(starts, pos, starts, pos + 1, size - pos);
+                System.arraycopy(ends, pos, ends, pos + 1, size - pos);
+                System.arraycopy(maxEnds, pos, maxEnds, pos + 1, size - pos);
+                System.arraycopy(segments, pos, segments, pos + 1, size - pos);
+            }
+            starts[pos] = start;
+            ends[pos] = segment.getEndTime();
+            segments[pos] = segment;
+            size++;
+            for (int i = pos; i < size; i++) {
+                long prev = i == 0 ? Long.MIN_VALUE : maxEnds[i - 1];
+                long next = Math.max(prev, ends[i]);
+                // 插入点之后的前缀最大值未变化即可停止
+                if (i > pos && maxEnds[i] == next) {
+                    break;
+                }
+                maxEnds[i] = next;
+            }
+            return true;
+        }
+
+        private static String fileKey(MediaRecordSegmentDTO segment) {
+            return segment.getMediaServerId() + "|" + segment.getFilePath();
+        }
+
+        /** 第一个 values[i] &gt; target 的下标 */
+        private static int firstAbove(long[] values, int size, long target) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] > target) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+
+        /** 第一个 values[i] &gt;= target 的下标 */
+        private static int firstAtLeast(long[] values, int size, long target) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] >= target) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package io.github.lunasaw.voglander.manager.service;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import com.baomidou.mybatisplus.extension.service.IService;
 import io.github.lunasaw.voglander.repository.entity.DeviceDO;
 
@@ -11,4 +14,12 @@ import io.github.lunasaw.voglander.repository.entity.DeviceDO;
  */
 public interface DeviceService extends IService<DeviceDO> {
 
+    /**
+     * 心跳批量定向更新（单条多行 UPDATE，逐行单调条件）。
+     *
+     * @param items      deviceId / status / keepaliveTime
+     * @param updateTime 统一的 update_time
+     * @return 实际更新行数
+     */
+    int batchPatchLiveness(List<DeviceDO> items, LocalDateTime updateTime);
 }
@@ -1,6 +1,9 @@
 package io.github.lunasaw.voglander.manager.service.impl;
 
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import io.github.lunasaw.voglander.manager.service.DeviceService;
 import io.github.lunasaw.voglander.repository.mapper.DeviceMapper;
@@ -16,4 +19,11 @@ import org.springframework.stereotype.Service;
 @Service("deviceService")
 public class DeviceServiceImpl extends ServiceImpl<DeviceMapper, DeviceDO> implements DeviceService {
 
+    @Override
+    public int batchPatchLiveness(List<DeviceDO> items, LocalDateTime updateTime) {
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+        return baseMapper.batchPatchLiveness(items, updateTime);
+    }
 }
@@ -0,0 +1,96 @@
+package io.github.lunasaw.voglander.repository.cache.local;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 进程内请求合并（single-flight）：同一 key 的并发加载只执行一次，其余调用方等待并共享结果。
+ * <p>
+ * 首个调用方（leader）在自身线程执行 loader；跟随者最多等待 {@code waitTimeoutMs}，
+ * 超时（leader 卡住）则自行加载，不会被无限期挂起。leader 抛出的异常原样传给同批跟随者。
+ * 结果对象在同批调用方之间共享，调用方不应修改返回值。
+ * </p>
+ *
+ * @author luna
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    private final long                                       waitTimeoutMs;
+
+    /**
+     * @param waitTimeoutMs 跟随者等待 leader 的上限（毫秒）
+     */
+    public SingleFlight(long waitTimeoutMs) {
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    /**
+     * 执行或加入同 key 的在途加载。
+     *
+     * @param key    合并 key
+     * @param loader 加载逻辑，仅 leader 执行
+     * @return 加载结果
+     */
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, loader, null);
+    }
+
+    /**
+     * 同 {@link #execute(Object, Supplier)}，并通过 {@code role} 回报本次调用的角色（监控用）。
+     *
+     * @param role 可空；leader 时写入 {@code true}，跟随者写入 {@code false}
+     */
+    public V execute(K key, Supplier<V> loader, boolean[] role) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            if (role != null) {
+                role[0] = false;
+            }
+            return await(inFlight, loader);
+        }
+        if (role != null) {
+            role[0] = true;
+        }
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, mine);
+        }
+    }
+
+    public int size() {
+        return calls.size();
+    }
+
+    private V await(CompletableFuture<V> inFlight, Supplier<V> loader) {
+        try {
+            return inFlight.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for in-flight load", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.lunasaw.voglander.repository.cache.near;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 近端缓存（L1）跨节点失效广播。
+ * <p>
+ * 消息格式：{@code nodeId|cacheName::key}，与延迟双删队列 member 同构；{@code key} 为 {@link #CLEAR_ALL} 表示整区清空。
+ * 本节点发出的消息回到自身时按 nodeId 跳过（本地 L1 在发布前已失效）。
+ * </p>
+ * <p>
+ * Pub/Sub 不保证送达：丢失的消息由 L1 短 TTL 兜底，且延迟双删到点后会经 {@link TwoTierCache#evict} 再广播一次。
+ * </p>
+ * <p>
+ * 不复用延迟双删队列 {@code cache:evict:delay} 传递 L1 失效：该 ZSet 是"只消费一次"的队列，ZREM 成功的节点才执行 evict，
+ * 其余节点看不到这条 member，无法失效各自的 L1；改成各节点都不删除地轮询则需要额外的游标与清理，且失效延迟受扫描周期约束。
+ * L1 失效必须送达每个节点，因此单独使用一个 Pub/Sub 频道，消息体沿用延迟队列的 {@code cacheName::key} 格式。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+public class NearCacheInvalidationBus {
+
+    public static final String            DEFAULT_CHANNEL = "cache:evict:near";
+
+    public static final String            CLEAR_ALL       = "*";
+
+    private static final String           SEPARATOR       = "::";
+
+    private static final char             ORIGIN_SEP      = '|';
+
+    private final String                  nodeId          = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate     redisTemplate;
+
+    private final RedisConnectionFactory  connectionFactory;
+
+    private final String                  channel;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    public NearCacheInvalidationBus(StringRedisTemplate redisTemplate, RedisConnectionFactory connectionFactory,
+        String channel) {
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.channel = channel;
+    }
+
+    /**
+     * 广播失效；Redis 故障只记日志，不影响写路径。
+     */
+    public void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(channel, encode(nodeId, cacheName, key));
+        } catch (Exception e) {
+            log.warn("近端缓存失效广播失败，等待 L1 TTL 兜底: cache={}, key={}", cacheName, key, e);
+        }
+    }
+
+    /**
+     * 订阅其他节点的失效消息。
+     *
+     * @param handler (cacheName, key) 回调，仅失效本地 L1
+     */
+    public void subscribe(BiConsumer<String, String> handler) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            String[] decoded = decode(body);
+            if (decoded == null || nodeId.equals(decoded[0])) {
+                return;
+            }
+            try {
+                handler.accept(decoded[1], decoded[2]);
+            } catch (Exception e) {
+                log.warn("近端缓存失效处理失败: {}", body, e);
+            }
+        }, new ChannelTopic(channel));
+        container.afterPropertiesSet();
+        container.start();
+        listenerContainer = container;
+        log.info("近端缓存失效订阅已启动, channel={}", channel);
+    }
+
+    public void shutdown() {
+        RedisMessageListenerContainer container = listenerContainer;
+        listenerContainer = null;
+        if (container != null) {
+            try {
+                container.destroy();
+            } catch (Exception e) {
+                log.warn("近端缓存失效订阅关闭失败", e);
+            }
+        }
+    }
+
+    static String encode(String nodeId, String cacheName, String key) {
+        return nodeId + ORIGIN_SEP + cacheName + SEPARATOR + key;
+    }
+
+    /**
+     * @return {nodeId, cacheName, key}；格式不合法返回 null
+     */
+    static String[] decode(String body) {
+        int origin = body.indexOf(ORIGIN_SEP);
+        int sep = body.indexOf(SEPARATOR, origin + 1);
+        if (origin <= 0 || sep <= origin + 1) {
+            return null;
+        }
+        return new String[] {body.substring(0, origin), body.substring(origin + 1, sep),
+            body.substring(sep + SEPARATOR.length())};
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.lunasaw.voglander.repository.cache.near;
+
+import java.time.Duration;
+
+/**
+ * 单个缓存区的 L1 近端缓存规格。
+ *
+ * @param maxSize 最大条目数
+ * @param ttl     写入后过期时间，应明显短于对应 L2 TTL（丢失失效广播时的兜底窗口）
+ * @author luna
+ */
+public record NearCacheSpec(long maxSize, Duration ttl) {
+}
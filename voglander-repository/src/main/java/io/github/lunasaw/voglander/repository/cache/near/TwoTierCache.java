@@ -0,0 +1,291 @@
+package io.github.lunasaw.voglander.repository.cache.near;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 两级缓存：进程内 Caffeine（L1）叠在 Redis 缓存区（L2）之上。
+ * <p>
+ * 读：L1 命中直接返回，未命中读 L2 并回填 L1；写/失效：先落 L2 再失效本地 L1，最后广播给其他节点失效各自 L1。
+ * 回源回填（{@link #fill}、{@link #putIfAbsent}）不是数据变更，只动本节点 L1、不广播，
+ * 否则每次未命中都会清空其他节点的同 key L1，热点 key 在节点间来回抖动。
+ * L1 存 {@link ValueWrapper}，与 L2 一致地缓存 null 值。
+ * </p>
+ * <p>
+ * 回填竞态：读 L2 与回填之间若收到失效（本地或远端），L2 读到的可能是旧值。每次失效递增 {@link #epoch}，
+ * 回填前比对，期间有失效则放弃回填，下次读再从 L2 取。
+ * </p>
+ *
+ * @author luna
+ */
+public class TwoTierCache implements Cache {
+
+    private final String                                                    name;
+
+    private final Cache                                                     l2;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> l1;
+
+    private final BiConsumer<String, String>                                publisher;
+
+    private final AtomicLong                                                epoch = new AtomicLong();
+
+    private final Counter                                                   l1Hit;
+
+    private final Counter                                                   l1Miss;
+
+    private final Counter                                                   l2Hit;
+
+    private final Counter                                                   l2Miss;
+
+    private final Timer                                                     l2Latency;
+
+    private final Timer                                                     loadLatency;
+
+    private final Counter                                                   localInvalidations;
+
+    private final Counter                                                   remoteInvalidations;
+
+    /**
+     * @param l2        Redis 缓存区
+     * @param spec      L1 容量与 TTL
+     * @param publisher 跨节点失效广播 (cacheName, key)，可空（单节点）
+     * @param registry  指标注册表
+     */
+    public TwoTierCache(Cache l2, NearCacheSpec spec, BiConsumer<String, String> publisher, MeterRegistry registry) {
+        this.name = l2.getName();
+        this.l2 = l2;
+        this.publisher = publisher;
+        this.l1 = Caffeine.newBuilder()
+            .maximumSize(spec.maxSize())
+            .expireAfterWrite(spec.ttl())
+            .build();
+        this.l1Hit = lookupCounter(registry, "l1", "hit");
+        this.l1Miss = lookupCounter(registry, "l1", "miss");
+        this.l2Hit = lookupCounter(registry, "l2", "hit");
+        this.l2Miss = lookupCounter(registry, "l2", "miss");
+        this.l2Latency = Timer.builder("voglander.cache.latency")
+            .description("L1 未命中后读取 L2 的耗时")
+            .tag("cache", name)
+            .tag("tier", "l2")
+            .register(registry);
+        this.loadLatency = Timer.builder("voglander.cache.load")
+            .description("两级均未命中时回源加载耗时")
+            .tag("cache", name)
+            .register(registry);
+        this.localInvalidations = invalidationCounter(registry, "local");
+        this.remoteInvalidations = invalidationCounter(registry, "remote");
+        Gauge.builder("voglander.cache.l1.size", l1, c -> c.estimatedSize())
+            .description("L1 近端缓存条目数")
+            .tag("cache", name)
+            .register(registry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper local = l1.getIfPresent(key);
+        if (local != null) {
+            l1Hit.increment();
+            return local;
+        }
+        l1Miss.increment();
+        long seen = epoch.get();
+        ValueWrapper remote = l2Latency.record(() -> l2.get(key));
+        if (remote == null) {
+            l2Miss.increment();
+            return null;
+        }
+        l2Hit.increment();
+        fillLocal(key, remote, seen);
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T)value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper local = l1.getIfPresent(key);
+        if (local != null) {
+            l1Hit.increment();
+            return (T)local.get();
+        }
+        l1Miss.increment();
+        long seen = epoch.get();
+        boolean[] loaded = new boolean[1];
+        T value = l2.get(key, () -> {
+            loaded[0] = true;
+            long start = System.nanoTime();
+            try {
+                return valueLoader.call();
+            } finally {
+                loadLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+        (loaded[0] ? l2Miss : l2Hit).increment();
+        fillLocal(key, new SimpleValueWrapper(value), seen);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        invalidateLocal(key);
+        broadcast(key);
+    }
+
+    /**
+     * 仅在 L2 缺失时写入，属于回填：已存在时什么都没变，写入时也只失效本节点 L1。
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = l2.putIfAbsent(key, value);
+        if (existing == null) {
+            dropLocal(key);
+        }
+        return existing;
+    }
+
+    /**
+     * 回源回填：写 L2 并只失效本节点 L1，不广播。
+     * <p>
+     * 其他节点 L1 里若有该 key，按自身 TTL 过期，与未回填时一致；真正的数据变更走 {@link #put}/{@link #evict}。
+     * 本地 L1 不直接写入，下次读经 L2 回填，沿用 {@link #epoch} 的竞态保护。
+     * </p>
+     */
+    public void fill(Object key, Object value) {
+        l2.put(key, value);
+        dropLocal(key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        invalidateLocal(key);
+        broadcast(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = l2.evictIfPresent(key);
+        invalidateLocal(key);
+        broadcast(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        clearLocal();
+        broadcast(NearCacheInvalidationBus.CLEAR_ALL);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = l2.invalidate();
+        clearLocal();
+        broadcast(NearCacheInvalidationBus.CLEAR_ALL);
+        return present;
+    }
+
+    /**
+     * 处理其他节点的失效广播：只动本地 L1，不回写 L2、不再广播。
+     */
+    public void onRemoteInvalidation(String key) {
+        remoteInvalidations.increment();
+        epoch.incrementAndGet();
+        if (NearCacheInvalidationBus.CLEAR_ALL.equals(key)) {
+            l1.invalidateAll();
+        } else {
+            l1.invalidate(key);
+        }
+    }
+
+    long l1Size() {
+        l1.cleanUp();
+        return l1.estimatedSize();
+    }
+
+    private void fillLocal(Object key, ValueWrapper value, long seen) {
+        if (epoch.get() == seen) {
+            l1.put(key, value);
+        }
+    }
+
+    private void invalidateLocal(Object key) {
+        localInvalidations.increment();
+        epoch.incrementAndGet();
+        l1.invalidate(key);
+    }
+
+    /**
+     * 回填后的本地失效：递增 epoch 挡住并发中的旧值回填，不计入失效指标。
+     */
+    private void dropLocal(Object key) {
+        epoch.incrementAndGet();
+        l1.invalidate(key);
+    }
+
+    private void clearLocal() {
+        localInvalidations.increment();
+        epoch.incrementAndGet();
+        l1.invalidateAll();
+    }
+
+    private void broadcast(Object key) {
+        if (publisher != null) {
+            publisher.accept(name, String.valueOf(key));
+        }
+    }
+
+    private Counter lookupCounter(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("voglander.cache.gets")
+            .description("两级缓存分层命中/未命中次数")
+            .tag("cache", name)
+            .tag("tier", tier)
+            .tag("result", result)
+            .register(registry);
+    }
+
+    private Counter invalidationCounter(MeterRegistry registry, String source) {
+        return Counter.builder("voglander.cache.l1.invalidations")
+            .description("L1 失效次数（local=本节点写入，remote=跨节点广播）")
+            .tag("cache", name)
+            .tag("source", source)
+            .register(registry);
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.lunasaw.voglander.repository.cache.near;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 为指定缓存区叠加 L1 的 {@link CacheManager} 装饰器。
+ * <p>
+ * 只有 {@code specs} 中登记的缓存区（设备及设备列表）包装为 {@link TwoTierCache}，
+ * 其余缓存区原样透传 L2，缓存名与 key 规则不变，{@code @Cacheable}/{@code @CacheEvict} 无需改动。
+ * </p>
+ *
+ * @author luna
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final CacheManager               delegate;
+
+    private final Map<String, NearCacheSpec> specs;
+
+    private final BiConsumer<String, String> publisher;
+
+    private final MeterRegistry              registry;
+
+    private final Map<String, TwoTierCache>  caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate  L2 缓存管理器（RedisCacheManager）
+     * @param specs     缓存区名 → L1 规格
+     * @param publisher 跨节点失效广播，可空
+     * @param registry  指标注册表
+     */
+    public TwoTierCacheManager(CacheManager delegate, Map<String, NearCacheSpec> specs,
+        BiConsumer<String, String> publisher, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.specs = Map.copyOf(specs);
+        this.publisher = publisher;
+        this.registry = registry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        NearCacheSpec spec = specs.get(name);
+        if (spec == null) {
+            return delegate.getCache(name);
+        }
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache l2 = delegate.getCache(name);
+        if (l2 == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TwoTierCache(l2, spec, publisher, registry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * 跨节点失效入口：仅失效本地 L1。缓存区尚未被本节点访问过时无需处理。
+     */
+    public void onRemoteInvalidation(String cacheName, String key) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.onRemoteInvalidation(key);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package io.github.lunasaw.voglander.repository.cache.redis;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link Cached} 方法的预编译缓存计划。
+ * <p>
+ * 每个 (目标类, 方法) 只在首次调用时解析一次：注解属性拷贝为字段、泛型返回值/Map value 类型、
+ * 缓存模式（单值 / 集合 / Map），以及 {@link Cached#keyNameInReturnObject()} 的取值器。
+ * 取值器按返回对象的运行时类编译为 {@link MethodHandle}（优先 getter，回退直接字段，
+ * 与原 {@code DirectFieldAccessFallbackBeanWrapper} 语义一致），此后每次调用不再反射。
+ * </p>
+ *
+ * @author luna
+ */
+public final class CachePlan {
+
+    /**
+     * 缓存模式。{@link #DYNAMIC} 表示 key 参数声明类型无法静态判定（如 {@code Object}），按运行时实参判断。
+     */
+    public enum Mode {
+        SINGLE, COLLECTION, MAP, DYNAMIC
+    }
+
+    private final String                                 cacheKeyPrefix;
+
+    private final String[]                               keyNames;
+
+    private final int                                    expireTime;
+
+    private final boolean                                cacheNull;
+
+    private final int                                    keyParamIndex;
+
+    private final int                                    maxValueSize;
+
+    private final Mode                                   mode;
+
+    private final Type                                   valueType;
+
+    private final Map<Class<?>, MethodHandle[]>          extractors = new ConcurrentHashMap<>();
+
+    private CachePlan(Cached cached, Mode mode, Type valueType) {
+        this.cacheKeyPrefix = cached.cacheKeyPrefix();
+        this.keyNames = cached.keyNameInReturnObject();
+        this.expireTime = cached.expireTime();
+        this.cacheNull = cached.cacheNull();
+        this.keyParamIndex = cached.keyParamIndex();
+        this.maxValueSize = cached.maxValueSize();
+        this.mode = mode;
+        this.valueType = valueType;
+    }
+
+    /**
+     * 为目标类上的方法编译缓存计划。注解从目标类的实际方法读取（接口代理拿到的是接口方法，可能没有注解）。
+     *
+     * @param targetClass 目标对象类
+     * @param method      切点签名方法
+     * @return 缓存计划；方法未标注 {@link Cached} 时返回 null
+     */
+    public static CachePlan compile(Class<?> targetClass, Method method) {
+        Method realMethod = ReflectionUtils.findMethod(targetClass, method.getName(), method.getParameterTypes());
+        Cached cached = realMethod != null ? realMethod.getAnnotation(Cached.class) : null;
+        if (cached == null) {
+            cached = method.getAnnotation(Cached.class);
+        }
+        if (cached == null) {
+            return null;
+        }
+
+        Class<?>[] paramTypes = method.getParameterTypes();
+        Type returnType = method.getGenericReturnType();
+        Mode mode;
+        Type valueType = returnType;
+        if (paramTypes.length == 0) {
+            mode = Mode.SINGLE;
+        } else if (Map.class.isAssignableFrom(method.getReturnType())) {
+            mode = Mode.MAP;
+            valueType = returnType instanceof ParameterizedType
+                ? ((ParameterizedType)returnType).getActualTypeArguments()[1] : Object.class;
+        } else if (cached.keyParamIndex() >= paramTypes.length) {
+            mode = Mode.SINGLE;
+        } else {
+            Class<?> keyParamType = paramTypes[cached.keyParamIndex()];
+            if (Collection.class.isAssignableFrom(keyParamType)) {
+                mode = Mode.COLLECTION;
+            } else if (keyParamType.isAssignableFrom(Collection.class)) {
+                mode = Mode.DYNAMIC;
+            } else {
+                mode = Mode.SINGLE;
+            }
+        }
+        return new CachePlan(cached, mode, valueType);
+    }
+
+    /**
+     * 结合本次实参确定最终模式（仅 {@link Mode#DYNAMIC} 需要看实参）。
+     */
+    public Mode resolveMode(Object[] args) {
+        if (mode != Mode.DYNAMIC) {
+            return mode;
+        }
+        if (args.length == 0 || keyParamIndex >= args.length) {
+            return Mode.SINGLE;
+        }
+        return args[keyParamIndex] instanceof Collection ? Mode.COLLECTION : Mode.SINGLE;
+    }
+
+    public String singleCacheKey(Object[] args) {
+        return KeyUtils.getSingleCacheKey(args, keyParamIndex, cacheKeyPrefix);
+    }
+
+    public Map<String, Object> multiCacheKey(Object[] args) {
+        return KeyUtils.getMultiCacheKey(args, keyParamIndex, cacheKeyPrefix);
+    }
+
+    public String cacheKey(Object key) {
+        return KeyUtils.contactCacheKey(key, cacheKeyPrefix);
+    }
+
+    /**
+     * 从返回对象读取缓存 key：单字段返回原值，多字段按 {@code _} 拼接非空值。
+     */
+    public Object keyOf(Object value) {
+        MethodHandle[] handles = extractors.get(value.getClass());
+        if (handles == null) {
+            handles = extractors.computeIfAbsent(value.getClass(), this::compileExtractors);
+        }
+        try {
+            if (handles.length == 1) {
+                return handles[0].invokeExact(value);
+            }
+            StringBuilder sb = new StringBuilder();
+            for (MethodHandle handle : handles) {
+                Object part = handle.invokeExact(value);
+                if (part != null) {
+                    if (sb.length() > 0) {
+                        sb.append('_');
+                    }
+                    sb.append(part);
+                }
+            }
+            return sb.toString();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("read cache key from " + value.getClass().getName() + " failed", e);
+        }
+    }
+
+    /**
+     * 集合 / Map 结果超过上限不缓存。
+     */
+    public boolean tooBig(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>)value).size() > maxValueSize;
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>)value).size() > maxValueSize;
+        }
+        return false;
+    }
+
+    private MethodHandle[] compileExtractors(Class<?> type) {
+        MethodHandle[] handles = new MethodHandle[keyNames.length];
+        MethodType erased = MethodType.methodType(Object.class, Object.class);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < keyNames.length; i++) {
+            String keyName = keyNames[i];
+            try {
+                PropertyDescriptor pd = BeanUtils.getPropertyDescriptor(type, keyName);
+                MethodHandle handle;
+                if (pd != null && pd.getReadMethod() != null) {
+                    Method getter = pd.getReadMethod();
+                    ReflectionUtils.makeAccessible(getter);
+                    handle = lookup.unreflect(getter);
+                } else {
+                    Field field = ReflectionUtils.findField(type, keyName);
+                    if (field == null) {
+                        throw new IllegalArgumentException(
+                            "property [" + keyName + "] not found on " + type.getName());
+                    }
+                    ReflectionUtils.makeAccessible(field);
+                    handle = lookup.unreflectGetter(field);
+                }
+                handles[i] = handle.asType(erased);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("property [" + keyName + "] not readable on " + type.getName(), e);
+            }
+        }
+        return handles;
+    }
+
+    public String getCacheKeyPrefix() {
+        return cacheKeyPrefix;
+    }
+
+    public String[] getKeyNames() {
+        return keyNames;
+    }
+
+    public int getExpireTime() {
+        return expireTime;
+    }
+
+    public boolean isCacheNull() {
+        return cacheNull;
+    }
+
+    public int getKeyParamIndex() {
+        return keyParamIndex;
+    }
+
+    public int getMaxValueSize() {
+        return maxValueSize;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Type getValueType() {
+        return valueType;
+    }
+}
@@ -1,9 +1,10 @@
 package io.github.lunasaw.voglander.repository.cache.redis;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -13,16 +14,16 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
-import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
 import org.springframework.stereotype.Component;
 
 import com.alibaba.fastjson2.JSONObject;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
+import io.github.lunasaw.voglander.repository.cache.local.SingleFlight;
+
 /**
  * @author: luna
  * @create: 2022-04-06 17:25
@@ -36,6 +37,16 @@ public class CachedAspect {
     @Autowired
     private RedisCache          redisCache;
 
+    /**
+     * (目标类, 方法) → 预编译缓存计划，首次调用时构建，之后不再反射读注解 / 泛型
+     */
+    private final Map<PlanKey, CachePlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * 单值未命中合并：同一 cacheKey 的并发回源只执行一次，跟随者最多等 3s 后自行回源
+     */
+    private final SingleFlight<String, Object> singleFlight = new SingleFlight<>(3000L);
+
     private static Map<String, Object> batchParseJson(Map<String, String> values, Type returnType) {
         Map<String, Object> ret = Maps.newHashMap();
         for (Map.Entry<String, String> oneEntry : values.entrySet()) {
@@ -54,46 +65,44 @@ public class CachedAspect {
     @Around("cachedPointCut()")
     public Object processCached(ProceedingJoinPoint pjp) throws Throwable {
         Method method = ((MethodSignature)pjp.getSignature()).getMethod();
-        // 修复可能无法获取注解的问题http://wf.vdian.net/browse/STORE-22
-        Method realMethod = pjp.getTarget().getClass().getDeclaredMethod(pjp.getSignature().getName(),
-            method.getParameterTypes());
-        Cached cached = realMethod.getAnnotation(Cached.class);
-
-        Object result;
-        Class<?> returnClass = method.getReturnType();
-        Type returnType = method.getGenericReturnType();
-
-        Object[] args = pjp.getArgs();
-        if (args.length == 0) {
-            result = getSingleCache(pjp, cached, returnType);
-        } else {
-            Class<?> argClass = args[cached.keyParamIndex()].getClass();
-            if (Map.class.isAssignableFrom(returnClass) || Collection.class.isAssignableFrom(argClass)) {
-                if (Map.class.isAssignableFrom(returnClass)) {
-                    Type valueType = ((ParameterizedType)returnType).getActualTypeArguments()[1];
-                    result = getMapCache(pjp, cached, valueType);
-                } else {
-                    result = getCollectionCache(pjp, cached, returnType);
-                }
-            } else {
-                result = getSingleCache(pjp, cached, returnType);
-            }
+        CachePlan plan = planOf(pjp.getTarget().getClass(), method);
+        if (plan == null) {
+            return pjp.proceed(pjp.getArgs());
         }
 
-        return result;
+        switch (plan.resolveMode(pjp.getArgs())) {
+            case MAP:
+                return getMapCache(pjp, plan, plan.getValueType());
+            case COLLECTION:
+                return getCollectionCache(pjp, plan, plan.getValueType());
+            default:
+                return getSingleCache(pjp, plan, plan.getValueType());
+        }
+    }
+
+    /**
+     * 取（或首次编译）缓存计划。注解从目标类的实际方法读取，修复接口代理拿不到注解的问题
+     */
+    CachePlan planOf(Class<?> targetClass, Method method) {
+        PlanKey key = new PlanKey(targetClass, method);
+        CachePlan plan = plans.get(key);
+        if (plan == null) {
+            plan = plans.computeIfAbsent(key, k -> CachePlan.compile(k.targetClass(), k.method()));
+        }
+        return plan;
     }
 
     /**
      * 处理返回是一个集合的调用
      *
      * @param pjp
-     * @param cached
+     * @param plan
      * @param returnType
      * @return
      * @throws Throwable
      */
-    private Object getCollectionCache(ProceedingJoinPoint pjp, Cached cached, Type returnType) throws Throwable {
-        Map<String, Object> keyPairs = KeyUtils.getMultiCacheKey(pjp.getArgs(), cached);
+    private Object getCollectionCache(ProceedingJoinPoint pjp, CachePlan plan, Type returnType) throws Throwable {
+        Map<String, Object> keyPairs = plan.multiCacheKey(pjp.getArgs());
         Set<String> hitKeys = new HashSet<>();
 
         if (null == keyPairs) {
@@ -103,16 +112,16 @@ public class CachedAspect {
         Map<String, Object> cacheMap = commonBatchGet(keyPairs, hitKeys, returnType);
         Collection<Object> dbResult = new ArrayList<>();
         if (hitKeys.size() < keyPairs.size()) {
-            Collection<Object> missedKeys = getMissedKeys(pjp, cached, hitKeys);
-            dbResult = (Collection<Object>)getMissedValues(pjp, cached, missedKeys);
+            Collection<Object> missedKeys = getMissedKeys(pjp, plan, hitKeys);
+            dbResult = (Collection<Object>)getMissedValues(pjp, plan, missedKeys);
 
             try {
-                Map<Object, Object> dbResultMap = convertCollectionToMap(dbResult, cached.keyNameInReturnObject());
-                Map<String, Object> writeBackMap = getWriteBackMap(dbResultMap, missedKeys, cached);
-                if (writeBackMap.size() > 0 && writeBackMap.size() <= cached.maxValueSize()) {
+                Map<Object, Object> dbResultMap = convertCollectionToMap(dbResult, plan);
+                Map<String, Object> writeBackMap = getWriteBackMap(dbResultMap, missedKeys, plan);
+                if (writeBackMap.size() > 0 && writeBackMap.size() <= plan.getMaxValueSize()) {
 
                     Map<String, String> tmpWriteBackStringMap = batchParseJson2Str(writeBackMap);
-                    redisCache.multiSet(tmpWriteBackStringMap, cached.expireTime());
+                    redisCache.multiSet(tmpWriteBackStringMap, plan.getExpireTime());
                 }
             } catch (Exception e) {
                 logger.error("getCollectionCache msetex failed.", e);
@@ -126,13 +135,13 @@ public class CachedAspect {
      * 处理返回值是一个map的调用
      *
      * @param pjp
-     * @param cached
+     * @param plan
      * @param returnType
      * @return
      * @throws Throwable
      */
-    private Object getMapCache(ProceedingJoinPoint pjp, Cached cached, Type returnType) throws Throwable {
-        Map<String, Object> keyPairs = KeyUtils.getMultiCacheKey(pjp.getArgs(), cached);
+    private Object getMapCache(ProceedingJoinPoint pjp, CachePlan plan, Type returnType) throws Throwable {
+        Map<String, Object> keyPairs = plan.multiCacheKey(pjp.getArgs());
         Set<String> hitKeys = new HashSet<>();
         if (null == keyPairs) {
             return pjp.proceed(pjp.getArgs());
@@ -141,13 +150,13 @@ public class CachedAspect {
         Map<String, Object> cacheMap = commonBatchGet(keyPairs, hitKeys, returnType);
         Map<Object, Object> dbResult = Maps.newHashMap();
         if (hitKeys.size() < keyPairs.size()) {
-            Collection<Object> missedKeys = getMissedKeys(pjp, cached, hitKeys);
-            dbResult = (Map<Object, Object>)getMissedValues(pjp, cached, missedKeys);
+            Collection<Object> missedKeys = getMissedKeys(pjp, plan, hitKeys);
+            dbResult = (Map<Object, Object>)getMissedValues(pjp, plan, missedKeys);
             try {
-                Map<String, Object> writeBackMap = getWriteBackMap(dbResult, missedKeys, cached);
-                if (writeBackMap.size() > 0 && writeBackMap.size() <= cached.maxValueSize()) {
+                Map<String, Object> writeBackMap = getWriteBackMap(dbResult, missedKeys, plan);
+                if (writeBackMap.size() > 0 && writeBackMap.size() <= plan.getMaxValueSize()) {
                     Map<String, String> tmpSetMap = batchParseJson2Str(writeBackMap);
-                    redisCache.multiSet(tmpSetMap, cached.expireTime());
+                    redisCache.multiSet(tmpSetMap, plan.getExpireTime());
                 }
             } catch (Exception e) {
                 logger.error("getMapCache msetex failed.", e);
@@ -157,8 +166,8 @@ public class CachedAspect {
         return mergeMapResult(dbResult, cacheMap, keyPairs);
     }
 
-    private Object getSingleCache(ProceedingJoinPoint pjp, Cached cached, Type valueType) throws Throwable {
-        String cacheKey = KeyUtils.getSingleCacheKey(pjp.getArgs(), cached);
+    private Object getSingleCache(ProceedingJoinPoint pjp, CachePlan plan, Type valueType) throws Throwable {
+        String cacheKey = plan.singleCacheKey(pjp.getArgs());
         Object value = null;
 
         try {
@@ -170,20 +179,39 @@ public class CachedAspect {
         }
 
         if (value == null) {
+            try {
+                value = singleFlight.execute(cacheKey, () -> loadAndWriteBack(pjp, plan));
+            } catch (UndeclaredThrowableException e) {
+                throw e.getUndeclaredThrowable();
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * 回源并回写缓存，仅 single-flight leader 执行
+     */
+    private Object loadAndWriteBack(ProceedingJoinPoint pjp, CachePlan plan) {
+        Object value;
+        try {
             value = pjp.proceed(pjp.getArgs());
-            if (null != value || cached.cacheNull()) {
-                try {
-                    Map<String, Object> tmpWriteBackMap = buildWriteBackMap(pjp.getArgs(), cached, value);
-                    Map<String, String> writeBackMap = batchParseJson2Str(tmpWriteBackMap);
-                    if (!writeBackMap.isEmpty()) {
-                        redisCache.multiSet(writeBackMap, cached.expireTime());
-                    }
-                } catch (Exception e) {
-                    logger.error("getSingleCache msetex failed.", e);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+        if (null != value || plan.isCacheNull()) {
+            try {
+                Map<String, Object> tmpWriteBackMap = buildWriteBackMap(pjp.getArgs(), plan, value);
+                Map<String, String> writeBackMap = batchParseJson2Str(tmpWriteBackMap);
+                if (!writeBackMap.isEmpty()) {
+                    redisCache.multiSet(writeBackMap, plan.getExpireTime());
                 }
+            } catch (Exception e) {
+                logger.error("getSingleCache msetex failed.", e);
             }
         }
-
         return value;
     }
 
@@ -221,26 +249,26 @@ public class CachedAspect {
      * 生成只有个返回对象时候的会写进入redis的Map
      * 
      * @param args
-     * @param cached
+     * @param plan
      * @param value
      * @return
      */
-    private Map<String, Object> buildWriteBackMap(Object[] args, Cached cached, Object value) {
+    private Map<String, Object> buildWriteBackMap(Object[] args, CachePlan plan, Object value) {
         Map<String, Object> objMap = Maps.newHashMap();
-        String[] fieldNames = cached.keyNameInReturnObject();
+        String[] fieldNames = plan.getKeyNames();
         String key;
         if (fieldNames != null && fieldNames.length > 0) {
             try {
-                key = KeyUtils.contactCacheKey(genCacheKey(value, fieldNames), cached.cacheKeyPrefix());
-                if (!hasTooBig(value, cached)) {
+                key = plan.cacheKey(plan.keyOf(value));
+                if (!plan.tooBig(value)) {
                     objMap.put(key, value);
                 }
             } catch (Exception e) {
-                logger.error("get key from field [" + fieldNames + "] failed.", e);
+                logger.error("get key from field " + Arrays.toString(fieldNames) + " failed.", e);
             }
         } else {
-            key = KeyUtils.getSingleCacheKey(args, cached);
-            if (!hasTooBig(value, cached)) {
+            key = plan.singleCacheKey(args);
+            if (!plan.tooBig(value)) {
                 objMap.put(key, value);
             }
         }
@@ -252,12 +280,12 @@ public class CachedAspect {
      * 获取未缓存的数据
      * 
      * @param pjp
-     * @param cached
+     * @param plan
      * @return
      * @throws Throwable
      */
-    private Object getMissedValues(ProceedingJoinPoint pjp, Cached cached, Collection<Object> missedKeys) throws Throwable {
-        pjp.getArgs()[cached.keyParamIndex()] = missedKeys;
+    private Object getMissedValues(ProceedingJoinPoint pjp, CachePlan plan, Collection<Object> missedKeys) throws Throwable {
+        pjp.getArgs()[plan.getKeyParamIndex()] = missedKeys;
         return pjp.proceed(pjp.getArgs());
     }
 
@@ -265,13 +293,13 @@ public class CachedAspect {
      * 获取没有命中缓存的原始key
      * 
      * @param pjp
-     * @param cached
+     * @param plan
      * @param hitKeys
      * @return
      * @throws Throwable
      */
-    private Collection<Object> getMissedKeys(ProceedingJoinPoint pjp, Cached cached, Set<String> hitKeys) throws Throwable {
-        Object oriKeys = pjp.getArgs()[cached.keyParamIndex()];
+    private Collection<Object> getMissedKeys(ProceedingJoinPoint pjp, CachePlan plan, Set<String> hitKeys) throws Throwable {
+        Object oriKeys = pjp.getArgs()[plan.getKeyParamIndex()];
         Collection<Object> missedKeys;
         Class keyCollectionClass = oriKeys.getClass();
         if (List.class.isAssignableFrom(keyCollectionClass)) {
@@ -283,7 +311,7 @@ public class CachedAspect {
         }
 
         for (Object oriKey : (Collection<Object>)oriKeys) {
-            String cacheKey = KeyUtils.contactCacheKey(oriKey, cached.cacheKeyPrefix());
+            String cacheKey = plan.cacheKey(oriKey);
             if (!hitKeys.contains(cacheKey)) {
                 missedKeys.add(oriKey);
             }
@@ -316,10 +344,10 @@ public class CachedAspect {
      * 
      * @param dbResultMap
      * @param missedKeys
-     * @param cached
+     * @param plan
      * @return
      */
-    private Map<String, Object> getWriteBackMap(Map<Object, Object> dbResultMap, Collection<Object> missedKeys, Cached cached) {
+    private Map<String, Object> getWriteBackMap(Map<Object, Object> dbResultMap, Collection<Object> missedKeys, CachePlan plan) {
         Map<String, Object> writeBackMap = Maps.newHashMap();
         if (dbResultMap == null) {
             return writeBackMap;
@@ -328,9 +356,9 @@ public class CachedAspect {
         try {
             for (Object missedKey : missedKeys) {
                 Object value = dbResultMap.get(missedKey);
-                if (null != value || cached.cacheNull()) {
-                    String cacheKey = KeyUtils.contactCacheKey(missedKey, cached.cacheKeyPrefix());
-                    if (!hasTooBig(value, cached)) {
+                if (null != value || plan.isCacheNull()) {
+                    String cacheKey = plan.cacheKey(missedKey);
+                    if (!plan.tooBig(value)) {
                         writeBackMap.put(cacheKey, value);
                     }
                 }
@@ -361,15 +389,15 @@ public class CachedAspect {
      * 将list转换为map，用于数据的查询
      * 
      * @param objects
-     * @param fieldNames
+     * @param plan
      * @return
      */
-    private Map<Object, Object> convertCollectionToMap(Collection<Object> objects, String[] fieldNames) {
+    private Map<Object, Object> convertCollectionToMap(Collection<Object> objects, CachePlan plan) {
         Map<Object, Object> ret = Maps.newHashMap();
         try {
             for (Object value : objects) {
                 if (value != null) {
-                    Object key = genCacheKey(value, fieldNames);
+                    Object key = plan.keyOf(value);
                     if (ret.containsKey(key)) {
                         Collection<Object> exist = (Collection<Object>)ret.get(key);
                         exist.add(value);
@@ -380,22 +408,11 @@ public class CachedAspect {
                 }
             }
         } catch (Exception e) {
-            logger.error("get key from field [" + fieldNames + "] failed.", e);
+            logger.error("get key from field " + Arrays.toString(plan.getKeyNames()) + " failed.", e);
         }
         return ret;
     }
 
-    private Object genCacheKey(Object value, String[] fieldNames) throws Exception {
-        BeanWrapper bw = new DirectFieldAccessFallbackBeanWrapper(value);
-        if (fieldNames.length == 1) {
-            return bw.getPropertyValue(fieldNames[0]);
-        }
-
-        return String.join("_", Arrays.stream(fieldNames)
-            .map(bw::getPropertyValue).filter(Objects::nonNull).map(Object::toString)
-            .toArray(String[]::new));
-    }
-
     /**
      * 生成List的返回结果，如果某个值是null， 则这个不返回
      * 
@@ -415,24 +432,6 @@ public class CachedAspect {
         return dbResult;
     }
 
-    /**
-     * 缓存结果太大不缓存
-     *
-     * @param value
-     * @param cached
-     * @return
-     */
-    private boolean hasTooBig(Object value, Cached cached) {
-        if (value instanceof Collection) {
-            Collection list = (Collection)value;
-            return list.size() > cached.maxValueSize();
-        }
-
-        if (value instanceof Map) {
-            Map map = (Map)value;
-            return map.size() > cached.maxValueSize();
-        }
-
-        return false;
+    private record PlanKey(Class<?> targetClass, Method method) {
     }
 }
@@ -23,15 +23,20 @@ public class KeyUtils {
      * @return
      */
     public static String getSingleCacheKey(Object[] args, Cached cached) {
-        int keyParamIndex = cached.keyParamIndex();
+        return getSingleCacheKey(args, cached.keyParamIndex(), cached.cacheKeyPrefix());
+    }
 
+    /**
+     * 同 {@link #getSingleCacheKey(Object[], Cached)}，注解属性已由 {@link CachePlan} 预先取出
+     */
+    public static String getSingleCacheKey(Object[] args, int keyParamIndex, String cacheKeyPrefix) {
         // 指定的作为key的参数不存在
         if (keyParamIndex + 1 > args.length) {
-            return cached.cacheKeyPrefix();
+            return cacheKeyPrefix;
         }
 
         Object keyObj = args[keyParamIndex];
-        return contactCacheKey(keyObj, cached.cacheKeyPrefix());
+        return contactCacheKey(keyObj, cacheKeyPrefix);
     }
 
     /**
@@ -42,8 +47,14 @@ public class KeyUtils {
      * @return
      */
     public static Map<String, Object> getMultiCacheKey(Object[] args, Cached cached) {
+        return getMultiCacheKey(args, cached.keyParamIndex(), cached.cacheKeyPrefix());
+    }
+
+    /**
+     * 同 {@link #getMultiCacheKey(Object[], Cached)}，注解属性已由 {@link CachePlan} 预先取出
+     */
+    public static Map<String, Object> getMultiCacheKey(Object[] args, int keyParamIndex, String cacheKeyPrefix) {
         Map<String, Object> keyPairs = new HashMap<>();
-        int keyParamIndex = cached.keyParamIndex();
         //
         // 指定的作为key的参数不存在
         if (keyParamIndex + 1 > args.length) {
@@ -60,7 +71,7 @@ public class KeyUtils {
             }
 
             for (Object keyObj : (Collection<Object>)keyObjs) {
-                keyPairs.put(contactCacheKey(keyObj, cached.cacheKeyPrefix()), keyObj);
+                keyPairs.put(contactCacheKey(keyObj, cacheKeyPrefix), keyObj);
             }
         } catch (Exception e) {
             logger.error("getMultiCacheKey [" + args + "] failed.", e);
@@ -4,9 +4,12 @@ import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,10 +19,17 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import io.github.lunasaw.voglander.repository.cache.near.NearCacheInvalidationBus;
+import io.github.lunasaw.voglander.repository.cache.near.NearCacheSpec;
+import io.github.lunasaw.voglander.repository.cache.near.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
 /**
  * redis配置
  * 
@@ -28,6 +38,12 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @EnableCaching
 @Configuration
 public class RedisConfig {
+
+    /**
+     * 未单独配置 TTL 的缓存区默认过期时间
+     */
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofHours(1L);
+
     @Bean
     @ConditionalOnBean(RedisConnectionFactory.class)
     @SuppressWarnings(value = {"unchecked", "rawtypes"})
@@ -79,6 +95,10 @@ public class RedisConfig {
     /**
      * 往容器中添加RedisCacheManager容器，并设置序列化方式
      * 只在Redis可用且非测试环境时创建
+     * <p>
+     * {@code voglander.cache.near.enabled=true} 时为 {@link #nearCacheSpecs()} 中的缓存区叠加 Caffeine L1
+     * （{@link TwoTierCacheManager}），失效经 {@link NearCacheInvalidationBus} 广播到其他节点。
+     * </p>
      * 
      * @param redisConnectionFactory
      * @return
@@ -87,11 +107,14 @@ public class RedisConfig {
     @Primary
     @Qualifier("redisCacheManager")
     @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = false)
-    public RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory,
+        @Value("${voglander.cache.near.enabled:false}") boolean nearEnabled,
+        ObjectProvider<NearCacheInvalidationBus> invalidationBus,
+        ObjectProvider<MeterRegistry> meterRegistry) {
         RedisCacheWriter redisCacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory);
         FastJson2JsonRedisSerializer<Object> serializer = new FastJson2JsonRedisSerializer<>(Object.class);
         RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofHours(1L))
+            .entryTtl(DEFAULT_CACHE_TTL)
             .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
         redisCacheConfiguration.serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()));
 
@@ -102,10 +125,35 @@ public class RedisConfig {
         deviceCacheTtls().forEach((name, ttl) -> initialConfigs.put(name, redisCacheConfiguration.entryTtl(ttl)));
         channelCacheTtls().forEach((name, ttl) -> initialConfigs.put(name, redisCacheConfiguration.entryTtl(ttl)));
 
-        return RedisCacheManager.builder(redisCacheWriter)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisCacheWriter)
             .cacheDefaults(redisCacheConfiguration)
             .withInitialCacheConfigurations(initialConfigs)
             .build();
+        if (!nearEnabled) {
+            return redisCacheManager;
+        }
+
+        // 被装饰后不再是容器 bean，需手动初始化以加载上面的 initialConfigs
+        redisCacheManager.afterPropertiesSet();
+        NearCacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        TwoTierCacheManager twoTierCacheManager = new TwoTierCacheManager(redisCacheManager, nearCacheSpecs(),
+            bus != null ? bus::publish : null, meterRegistry.getIfAvailable(CompositeMeterRegistry::new));
+        if (bus != null) {
+            bus.subscribe(twoTierCacheManager::onRemoteInvalidation);
+        }
+        return twoTierCacheManager;
+    }
+
+    /**
+     * L1 近端缓存失效广播通道（主 Redis-A Pub/Sub）。
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnBean(RedisConnectionFactory.class)
+    @ConditionalOnProperty(name = "voglander.cache.near.enabled", havingValue = "true")
+    public NearCacheInvalidationBus nearCacheInvalidationBus(StringRedisTemplate stringRedisTemplate,
+        RedisConnectionFactory redisConnectionFactory,
+        @Value("${voglander.cache.near.channel:" + NearCacheInvalidationBus.DEFAULT_CHANNEL + "}") String channel) {
+        return new NearCacheInvalidationBus(stringRedisTemplate, redisConnectionFactory, channel);
     }
 
     /**
@@ -139,4 +187,20 @@ public class RedisConfig {
         return ttls;
     }
 
+    /**
+     * 叠加 L1 的缓存区及其规格。
+     * <p>
+     * L1 TTL 远短于对应 L2 TTL：失效广播丢失时最多脏读一个 L1 周期；列表缓存变更更频繁，TTL 更短。
+     * deviceChannel / deviceChannel:list 只有 evict、没有读写入口，叠加 L1 只会徒增失效广播，故不登记。
+     * </p>
+     *
+     * @return 缓存区名 → L1 规格
+     */
+    public static Map<String, NearCacheSpec> nearCacheSpecs() {
+        Map<String, NearCacheSpec> specs = new HashMap<>();
+        specs.put("device", new NearCacheSpec(10_000L, Duration.ofSeconds(30L)));
+        specs.put("device:list", new NearCacheSpec(1_000L, Duration.ofSeconds(5L)));
+        return specs;
+    }
+
 }
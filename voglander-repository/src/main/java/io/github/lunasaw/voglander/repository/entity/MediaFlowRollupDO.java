@@ -0,0 +1,87 @@
+package io.github.lunasaw.voglander.repository.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 媒体流量时间桶汇总表实体类
+ * <p>
+ * 由 ZLM {@code on_flow_report} 回调在内存累加后按批 upsert 写入，同一
+ * (granularity, dimension, dim_key, bucket_start) 只有一行，各计数为增量累加。
+ * </p>
+ *
+ * @author luna
+ */
+@Data
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@TableName("tb_media_flow_rollup")
+public class MediaFlowRollupDO implements Serializable {
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+
+    @TableId(type = IdType.AUTO)
+    private Long              id;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime     createTime;
+
+    /**
+     * 修改时间
+     */
+    private LocalDateTime     updateTime;
+
+    /**
+     * 汇总粒度 MINUTE/HOUR
+     */
+    private String            granularity;
+
+    /**
+     * 时间桶起点（按粒度截断）
+     */
+    private LocalDateTime     bucketStart;
+
+    /**
+     * 汇总维度 DEVICE/CHANNEL/NODE
+     */
+    private String            dimension;
+
+    /**
+     * 维度键：deviceId / deviceId:channelId / mediaServerId
+     */
+    private String            dimKey;
+
+    /**
+     * 累计字节数
+     */
+    private Long              totalBytes;
+
+    /**
+     * 累计会话时长（秒）
+     */
+    private Long              durationSec;
+
+    /**
+     * 结束的播放会话数（player=true 的流量上报）
+     */
+    private Long              playerCount;
+
+    /**
+     * 流量上报次数（播放 + 推流）
+     */
+    private Long              reportCount;
+}
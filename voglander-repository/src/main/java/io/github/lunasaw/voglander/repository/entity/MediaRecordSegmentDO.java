@@ -0,0 +1,97 @@
+package io.github.lunasaw.voglander.repository.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * MP4 录像片段索引表实体类
+ * <p>
+ * 由 ZLM {@code on_record_mp4} 回调按批写入，(media_server_id, file_path) 唯一，重复回调幂等忽略。
+ * 起止时间为毫秒时间戳，便于区间比较；GB 流解析出的设备/通道用于回放按通道查片段。
+ * </p>
+ *
+ * @author luna
+ */
+@Data
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@TableName("tb_media_record_segment")
+public class MediaRecordSegmentDO implements Serializable {
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+
+    @TableId(type = IdType.AUTO)
+    private Long              id;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime     createTime;
+
+    /**
+     * 修改时间
+     */
+    private LocalDateTime     updateTime;
+
+    /**
+     * 媒体节点 serverId
+     */
+    private String            mediaServerId;
+
+    /**
+     * ZLM 应用名
+     */
+    private String            app;
+
+    /**
+     * ZLM 流名
+     */
+    private String            stream;
+
+    /**
+     * 设备ID（GB 流解析，非 GB 流为空）
+     */
+    private String            deviceId;
+
+    /**
+     * 通道ID（GB 流解析，非 GB 流为空）
+     */
+    private String            channelId;
+
+    /**
+     * 节点上的文件绝对路径
+     */
+    private String            filePath;
+
+    /**
+     * 节点 HTTP 下载相对路径
+     */
+    private String            url;
+
+    /**
+     * 文件字节数
+     */
+    private Long              fileSize;
+
+    /**
+     * 片段开始（毫秒时间戳）
+     */
+    private Long              startTime;
+
+    /**
+     * 片段结束（毫秒时间戳）
+     */
+    private Long              endTime;
+}
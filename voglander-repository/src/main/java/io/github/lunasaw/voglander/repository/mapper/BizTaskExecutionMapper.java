@@ -25,8 +25,18 @@ public interface BizTaskExecutionMapper extends BaseMapper<BizTaskExecutionDO> {
     int claim(@Param("executionId") String executionId, @Param("version") int version,
         @Param("claimToken") String claimToken, @Param("workerNode") String workerNode,
         @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+    int claimRunnableBatch(@Param("limit") int limit, @Param("claimToken") String claimToken,
+        @Param("workerNode") String workerNode, @Param("now") LocalDateTime now,
+        @Param("leaseUntil") LocalDateTime leaseUntil);
+    List<BizTaskExecutionDO> selectByClaimToken(@Param("claimToken") String claimToken);
+    int releaseClaim(@Param("executionId") String executionId, @Param("claimToken") String claimToken,
+        @Param("updateTime") LocalDateTime updateTime);
     int heartbeat(@Param("executionId") String executionId, @Param("claimToken") String claimToken,
         @Param("heartbeatAt") LocalDateTime heartbeatAt, @Param("leaseUntil") LocalDateTime leaseUntil);
+    int heartbeatBatch(@Param("workerNode") String workerNode, @Param("leases") List<BizTaskExecutionDO> leases,
+        @Param("heartbeatAt") LocalDateTime heartbeatAt, @Param("leaseUntil") LocalDateTime leaseUntil);
+    List<String> selectOwnedLeaseIds(@Param("workerNode") String workerNode,
+        @Param("leases") List<BizTaskExecutionDO> leases);
     int updateProgress(@Param("executionId") String executionId, @Param("claimToken") String claimToken,
         @Param("current") long current, @Param("total") long total, @Param("message") String message,
         @Param("revision") long revision, @Param("updateTime") LocalDateTime updateTime);
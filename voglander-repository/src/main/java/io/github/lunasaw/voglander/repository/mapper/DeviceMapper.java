@@ -1,7 +1,11 @@
 package io.github.lunasaw.voglander.repository.mapper;
 
 
-import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+
 import io.github.lunasaw.voglander.repository.entity.DeviceDO;
 
 /**
@@ -12,4 +16,16 @@ import io.github.lunasaw.voglander.repository.entity.DeviceDO;
  */
 public interface DeviceMapper extends AbstractMapper<DeviceDO> {
 
+    /**
+     * 心跳批量定向更新：一条 UPDATE 覆盖多台设备的 status / keepalive_time。
+     * <p>
+     * 每行仍受单调条件保护（仅当传入 keepaliveTime 比库里新才更新）；item.status 为 null 时保留原值。
+     * 调用方需控制单批条数（每行约 7 个绑定参数，SQLite 旧版本上限 999）。
+     * </p>
+     *
+     * @param items      仅使用 deviceId / status / keepaliveTime，keepaliveTime 必填
+     * @param updateTime 统一的 update_time
+     * @return 实际更新行数（被单调条件挡下的不计）
+     */
+    int batchPatchLiveness(@Param("items") List<DeviceDO> items, @Param("updateTime") LocalDateTime updateTime);
 }
@@ -34,6 +34,9 @@ public interface ImageAssetMapper extends BaseMapper<ImageAssetDO> {
     ImageAssetWithSourceDO selectEnrichedByAssetId(@Param("assetId") String assetId);
     long countVisible(@Param("ownerType") String ownerType, @Param("ownerId") String ownerId,
         @Param("status") String status, @Param("createdAfter") LocalDateTime createdAfter);
+    /** Non-DELETED storage keys after {@code afterKey} (null = from the start) in ascending byte order. */
+    List<String> selectStorageKeysAfter(@Param("afterKey") String afterKey, @Param("limit") int limit);
+    long countNotDeletedByStorageKey(@Param("storageKey") String storageKey);
     int markDeleting(@Param("assetId") String assetId, @Param("version") int version,
         @Param("updateTime") LocalDateTime updateTime);
     int markDeleted(@Param("assetId") String assetId, @Param("version") int version,
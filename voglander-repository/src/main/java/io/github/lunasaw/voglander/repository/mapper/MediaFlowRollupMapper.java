@@ -0,0 +1,32 @@
+package io.github.lunasaw.voglander.repository.mapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+import io.github.lunasaw.voglander.repository.entity.MediaFlowRollupDO;
+
+/**
+ * 媒体流量汇总映射器
+ *
+ * @author luna
+ */
+@Mapper
+public interface MediaFlowRollupMapper extends BaseMapper<MediaFlowRollupDO> {
+
+    /**
+     * 多行 upsert：唯一键冲突时各计数累加。同一批内唯一键不得重复（PostgreSQL 不允许一条语句两次更新同一行）。
+     */
+    int upsertAdd(@Param("rows") List<MediaFlowRollupDO> rows);
+
+    /**
+     * 时间窗内按维度键汇总，按字节数降序取前 N。
+     */
+    List<MediaFlowRollupDO> selectTopTalkers(@Param("granularity") String granularity,
+        @Param("dimension") String dimension, @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end, @Param("limit") int limit);
+}
@@ -0,0 +1,40 @@
+package io.github.lunasaw.voglander.repository.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+import io.github.lunasaw.voglander.repository.entity.MediaRecordSegmentDO;
+
+/**
+ * MP4 录像片段映射器
+ *
+ * @author luna
+ */
+@Mapper
+public interface MediaRecordSegmentMapper extends BaseMapper<MediaRecordSegmentDO> {
+
+    /**
+     * 多行插入，(media_server_id, file_path) 已存在的行忽略。
+     */
+    int insertIgnoreBatch(@Param("rows") List<MediaRecordSegmentDO> rows);
+
+    /**
+     * 通道内与 [start, end) 相交的片段，按开始时间升序。
+     * <p>
+     * {@code earliestStart} 为 {@code start - 最长片段时长}，把扫描收敛到索引 (device_id, channel_id, start_time) 的一段区间。
+     * </p>
+     */
+    List<MediaRecordSegmentDO> selectOverlapping(@Param("deviceId") String deviceId,
+        @Param("channelId") String channelId, @Param("earliestStart") long earliestStart,
+        @Param("start") long start, @Param("end") long end, @Param("limit") int limit);
+
+    /**
+     * 通道内开始时间不早于 {@code fromStart} 的片段，按开始时间升序，用于内存索引预热。
+     */
+    List<MediaRecordSegmentDO> selectByChannelFrom(@Param("deviceId") String deviceId,
+        @Param("channelId") String channelId, @Param("fromStart") long fromStart, @Param("limit") int limit);
+}
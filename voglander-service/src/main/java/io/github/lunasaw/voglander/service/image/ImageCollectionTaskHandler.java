@@ -52,6 +52,9 @@ import io.github.lunasaw.voglander.manager.manager.DeviceManager;
 @ConditionalOnProperty(prefix = "voglander.image", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class ImageCollectionTaskHandler implements LongTaskHandler {
     private static final DateTimeFormatter PARTITION = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    /** Snapshots mostly wait on devices and storage, so executions may run on the I/O executor. */
+    private static final TaskCapabilities CAPABILITIES = new TaskCapabilities(true, true, true, true, true)
+        .withScheduling(0, 0, true);
     private final ImageCollectionConfigManager configManager;
     private final CaptureStreamLeaseService leaseService;
     private final MediaSnapshotAdapter snapshotAdapter;
@@ -63,6 +66,7 @@ public class ImageCollectionTaskHandler implements LongTaskHandler {
     private final DeviceChannelManager channelManager;
     private final ImageOrphanRecorder orphanRecorder;
     private final ImageDomainMetrics metrics;
+    private final ImageThumbnailService thumbnails;
     /** JVM-local competition guard; the durable execution claim remains authoritative across nodes. */
     private static final ConcurrentHashMap<String, Semaphore> CAMERA_GUARDS = new ConcurrentHashMap<>();
 
@@ -79,6 +83,7 @@ public class ImageCollectionTaskHandler implements LongTaskHandler {
         this.channelManager = null;
         this.orphanRecorder = null;
         this.metrics = null;
+        this.thumbnails = null;
     }
 
     public ImageCollectionTaskHandler(ImageCollectionConfigManager configManager,
@@ -98,12 +103,21 @@ public class ImageCollectionTaskHandler implements LongTaskHandler {
             deviceManager, channelManager, orphanRecorder, null);
     }
 
-    @Autowired
     public ImageCollectionTaskHandler(ImageCollectionConfigManager configManager,
         CaptureStreamLeaseService leaseService, MediaSnapshotAdapter snapshotAdapter, ImageStorageService storage,
         ImageValidationService validation, ImageProperties properties,
         ImageCollectionCompletionParticipant participant, DeviceManager deviceManager, DeviceChannelManager channelManager,
         ImageOrphanRecorder orphanRecorder, ImageDomainMetrics metrics) {
+        this(configManager, leaseService, snapshotAdapter, storage, validation, properties, participant,
+            deviceManager, channelManager, orphanRecorder, metrics, null);
+    }
+
+    @Autowired
+    public ImageCollectionTaskHandler(ImageCollectionConfigManager configManager,
+        CaptureStreamLeaseService leaseService, MediaSnapshotAdapter snapshotAdapter, ImageStorageService storage,
+        ImageValidationService validation, ImageProperties properties,
+        ImageCollectionCompletionParticipant participant, DeviceManager deviceManager, DeviceChannelManager channelManager,
+        ImageOrphanRecorder orphanRecorder, ImageDomainMetrics metrics, ImageThumbnailService thumbnails) {
         this.configManager = Objects.requireNonNull(configManager, "configManager");
         this.leaseService = Objects.requireNonNull(leaseService, "leaseService");
         this.snapshotAdapter = Objects.requireNonNull(snapshotAdapter, "snapshotAdapter");
@@ -115,11 +129,12 @@ public class ImageCollectionTaskHandler implements LongTaskHandler {
         this.channelManager = Objects.requireNonNull(channelManager, "channelManager");
         this.orphanRecorder = orphanRecorder;
         this.metrics = metrics;
+        this.thumbnails = thumbnails;
     }
 
     @Override public String taskType() { return ImageConstant.TASK_TYPE_IMAGE_COLLECTION; }
     @Override public int payloadVersion() { return ImageConstant.TASK_PAYLOAD_VERSION; }
-    @Override public TaskCapabilities capabilities() { return new TaskCapabilities(true, true, true, true, true); }
+    @Override public TaskCapabilities capabilities() { return CAPABILITIES; }
 
     @Override
     public void validate(TaskCreateContext context, JSONObject payload) {
@@ -235,6 +250,9 @@ public class ImageCollectionTaskHandler implements LongTaskHandler {
                     }
                 });
             if (metrics != null) metrics.handler("SUCCESS", null);
+            // Thumbnails are keyed by checksum, not assetId: if completion later compensates the promoted file,
+            // whatever was pre-generated is just an unreferenced disk-tier entry that LRU cleanup reclaims.
+            if (thumbnails != null) thumbnails.pregenerate(asset);
             return result;
         } catch (Exception failure) {
             if (metrics != null) {
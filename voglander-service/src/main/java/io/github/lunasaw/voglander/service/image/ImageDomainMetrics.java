@@ -4,12 +4,16 @@ import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.stereotype.Component;
 
+import io.github.lunasaw.voglander.intergration.wrapper.image.storage.ThumbnailDiskStore;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 
@@ -21,7 +25,8 @@ public class ImageDomainMetrics {
     private static final Set<String> OPERATIONS = values("STAGE", "PROMOTE", "OPEN", "DELETE", "UNKNOWN");
     private static final Set<String> PROVIDERS = values("LOCAL", "S3", "MINIO", "UNKNOWN");
     private static final Set<String> THUMBNAIL_OUTCOMES = values(
-        "GENERATED", "CACHE_HIT", "NOT_MODIFIED", "QUEUE_REJECTED", "TIMEOUT", "ERROR", "UNKNOWN");
+        "GENERATED", "CACHE_HIT", "DISK_HIT", "COALESCED", "NOT_MODIFIED", "QUEUE_REJECTED", "TIMEOUT", "ERROR", "UNKNOWN");
+    private static final Set<String> PREGENERATE_RESULTS = values("QUEUED", "SKIPPED", "UNKNOWN");
     private static final Set<String> ORPHAN_KINDS = values(
         "COMPENSATION_DELETE_FALSE", "COMPENSATION_DELETE_FAILED", "INGEST_STAGING_DISCARD_FAILED",
         "INGEST_RACE_DELETE_FALSE", "INGEST_RACE_DELETE_FAILED", "INGEST_COMPENSATION_DELETE_FALSE",
@@ -61,7 +66,7 @@ public class ImageDomainMetrics {
             .register(registry).increment();
     }
 
-    public void reconciliation(String kind, int count) {
+    public void reconciliation(String kind, long count) {
         Counter.builder("image_storage_reconciliation_total").tag("kind", bounded(kind, RECONCILIATION_KINDS))
             .register(registry).increment(Math.max(0, count));
     }
@@ -83,6 +88,45 @@ public class ImageDomainMetrics {
             .register(registry).increment();
     }
 
+    public void thumbnailCacheMiss(String profile) {
+        Counter.builder("image_thumbnail_cache_misses_total").tag("profile", thumbnailProfile(profile))
+            .register(registry).increment();
+    }
+
+    /** A request that waited on another request's in-flight transform instead of submitting its own. */
+    public void thumbnailCoalesced(String profile) {
+        Counter.builder("image_thumbnail_coalesced_total").tag("profile", thumbnailProfile(profile))
+            .register(registry).increment();
+    }
+
+    public void bindThumbnailCache(ThumbnailMemoryCache cache, Map<?, ?> inFlight) {
+        Gauge.builder("image_thumbnail_cache_entries", cache, ThumbnailMemoryCache::size).register(registry);
+        Gauge.builder("image_thumbnail_cache_bytes", cache, ThumbnailMemoryCache::bytes).register(registry);
+        FunctionCounter.builder("image_thumbnail_cache_evictions_total", cache, ThumbnailMemoryCache::evictions)
+            .register(registry);
+        Gauge.builder("image_thumbnail_inflight", inFlight, Map::size).register(registry);
+    }
+
+    public void thumbnailDiskHit(String profile) {
+        Counter.builder("image_thumbnail_disk_hits_total").tag("profile", thumbnailProfile(profile))
+            .register(registry).increment();
+    }
+
+    /** Background generation after ingest: QUEUED, or SKIPPED when the transform queue had no headroom. */
+    public void thumbnailPregenerate(String profile, String result) {
+        Counter.builder("image_thumbnail_pregenerate_total").tag("profile", thumbnailProfile(profile))
+            .tag("result", bounded(result, PREGENERATE_RESULTS)).register(registry).increment();
+    }
+
+    public void bindThumbnailDisk(ThumbnailDiskStore disk) {
+        Gauge.builder("image_thumbnail_disk_entries", disk, ThumbnailDiskStore::entries).register(registry);
+        Gauge.builder("image_thumbnail_disk_bytes", disk, ThumbnailDiskStore::bytes).register(registry);
+        FunctionCounter.builder("image_thumbnail_disk_evictions_total", disk, ThumbnailDiskStore::evictions)
+            .register(registry);
+        FunctionCounter.builder("image_thumbnail_disk_write_failures_total", disk, ThumbnailDiskStore::writeFailures)
+            .register(registry);
+    }
+
     public void thumbnailOutput(String profile, long bytes) {
         if (bytes < 0) return;
         DistributionSummary.builder("image_thumbnail_output_bytes").tag("profile", thumbnailProfile(profile))
@@ -47,6 +47,7 @@ public class ImageIngestService {
     private final ImageOrphanRecorder orphanRecorder;
     private final ImageDomainMetrics metrics;
     private final IdempotencyMetrics idempotencyMetrics;
+    private final ImageThumbnailService thumbnails;
 
     public ImageIngestService(ImageStorageService storage, ImageValidationService validation,
         ImageAssetManager assetManager, ImageProperties properties) {
@@ -64,10 +65,16 @@ public class ImageIngestService {
         this(storage, validation, assetManager, properties, orphanRecorder, metrics, null);
     }
 
-    @Autowired
     public ImageIngestService(ImageStorageService storage, ImageValidationService validation,
         ImageAssetManager assetManager, ImageProperties properties, ImageOrphanRecorder orphanRecorder,
         ImageDomainMetrics metrics, IdempotencyMetrics idempotencyMetrics) {
+        this(storage, validation, assetManager, properties, orphanRecorder, metrics, idempotencyMetrics, null);
+    }
+
+    @Autowired
+    public ImageIngestService(ImageStorageService storage, ImageValidationService validation,
+        ImageAssetManager assetManager, ImageProperties properties, ImageOrphanRecorder orphanRecorder,
+        ImageDomainMetrics metrics, IdempotencyMetrics idempotencyMetrics, ImageThumbnailService thumbnails) {
         this.storage = Objects.requireNonNull(storage, "storage");
         this.validation = Objects.requireNonNull(validation, "validation");
         this.assetManager = Objects.requireNonNull(assetManager, "assetManager");
@@ -75,6 +82,7 @@ public class ImageIngestService {
         this.orphanRecorder = orphanRecorder;
         this.metrics = metrics;
         this.idempotencyMetrics = idempotencyMetrics;
+        this.thumbnails = thumbnails;
     }
 
     public ImageAssetDTO ingestUpload(ImageIngestCommand command, InputStream content) throws IOException {
@@ -160,6 +168,7 @@ public class ImageIngestService {
                 if (idempotencyMetrics != null && StringUtils.hasText(command.idempotencyKey())) {
                     idempotencyMetrics.record("CREATED", null);
                 }
+                if (thumbnails != null) thumbnails.pregenerate(result.getAcceptedAsset());
                 return result.getAcceptedAsset();
             } catch (RuntimeException exception) {
                 if (promotedKey != null) {
@@ -1,18 +1,32 @@
 package io.github.lunasaw.voglander.service.image;
 
-/** Stable, non-sensitive reconciliation counters for health/metrics endpoints. */
+/**
+ * Stable, non-sensitive reconciliation counters for health/metrics endpoints. Counters cover the whole pass,
+ * including slices resumed from a checkpoint; {@link #complete()} is false while the pass is still in progress.
+ */
 public final class ImageStorageReconciliationReport {
-    private final int expiredStaging;
-    private final int unregisteredObjects;
-    private final int missingAssets;
+    private final long expiredStaging;
+    private final long unregisteredObjects;
+    private final long missingAssets;
+    private final long scannedKeys;
+    private final boolean complete;
 
-    public ImageStorageReconciliationReport(int expiredStaging, int unregisteredObjects, int missingAssets) {
+    public ImageStorageReconciliationReport(long expiredStaging, long unregisteredObjects, long missingAssets) {
+        this(expiredStaging, unregisteredObjects, missingAssets, 0L, true);
+    }
+
+    public ImageStorageReconciliationReport(long expiredStaging, long unregisteredObjects, long missingAssets,
+        long scannedKeys, boolean complete) {
         this.expiredStaging = expiredStaging;
         this.unregisteredObjects = unregisteredObjects;
         this.missingAssets = missingAssets;
+        this.scannedKeys = scannedKeys;
+        this.complete = complete;
     }
 
-    public int expiredStaging() { return expiredStaging; }
-    public int unregisteredObjects() { return unregisteredObjects; }
-    public int missingAssets() { return missingAssets; }
+    public long expiredStaging() { return expiredStaging; }
+    public long unregisteredObjects() { return unregisteredObjects; }
+    public long missingAssets() { return missingAssets; }
+    public long scannedKeys() { return scannedKeys; }
+    public boolean complete() { return complete; }
 }
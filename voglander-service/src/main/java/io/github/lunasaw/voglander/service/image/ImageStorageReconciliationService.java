@@ -1,35 +1,63 @@
 package io.github.lunasaw.voglander.service.image;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import io.github.lunasaw.voglander.common.anno.TechnicalScheduler;
 import io.github.lunasaw.voglander.client.service.image.ImageStorageService;
 import io.github.lunasaw.voglander.intergration.wrapper.image.config.ImageProperties;
-import io.github.lunasaw.voglander.manager.domaon.dto.image.ImageAssetDTO;
-import io.github.lunasaw.voglander.manager.domaon.dto.image.ImageAssetQueryDTO;
 import io.github.lunasaw.voglander.manager.manager.ImageAssetManager;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Provider/DB inventory reconciliation. Permanent objects are report-only by
  * default; registered assets are never deleted by this process.
+ * <p>
+ * Registered keys (keyset pages ordered by {@code storage_key}) and stored keys
+ * ({@link ImageStorageService#iterateFinalKeys}) are both walked in ascending
+ * byte order and merge-joined, so memory stays constant regardless of inventory
+ * size. Only mismatches cost provider or DB I/O: each is re-checked, to rule out
+ * an ingest racing the walk, on a small bounded pool that is paced to a
+ * configurable rate. Progress is checkpointed to a file every
+ * {@value #CHECKPOINT_EVERY} keys and at the end of a bounded slice, and the
+ * next run resumes after the last fully settled key.
+ * </p>
  */
 @Service
 @Slf4j
 @TechnicalScheduler(category = TechnicalScheduler.Category.MAINTENANCE)
 @ConditionalOnProperty(prefix = "voglander.image", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class ImageStorageReconciliationService {
+    private static final int CHECKPOINT_EVERY = 10_000;
     private final ImageStorageService storage;
     private final ImageAssetManager assetManager;
     private final ImageProperties properties;
     private final ImageDomainMetrics metrics;
+    private final AtomicBoolean running = new AtomicBoolean();
     private volatile ImageStorageReconciliationReport lastReport = new ImageStorageReconciliationReport(0, 0, 0);
 
     public ImageStorageReconciliationService(ImageStorageService storage, ImageAssetManager assetManager,
@@ -55,39 +83,309 @@ public class ImageStorageReconciliationService {
         }
     }
 
+    /**
+     * Runs one slice of the current pass, starting a new pass (and sweeping staging) when no checkpoint exists.
+     * A concurrent call returns the last report without doing any work.
+     */
     public ImageStorageReconciliationReport reconcile() throws IOException {
-        int staging = storage.sweepStaging(properties.getStorage().getStagingTtl());
-        Set<String> registered = new HashSet<>();
-        ImageAssetQueryDTO query = new ImageAssetQueryDTO();
-        com.baomidou.mybatisplus.extension.plugins.pagination.Page<ImageAssetDTO> page = assetManager.getPage(query, 1, 1000);
-        for (ImageAssetDTO asset : page.getRecords()) {
-            if (asset != null && asset.getStorageKey() != null) registered.add(asset.getStorageKey());
-        }
-        int unregistered = 0;
-        for (String key : storage.listFinalKeys()) {
-            if (!registered.contains(key)) {
-                unregistered++;
-                if (!properties.getStorage().isReconciliationReportOnly()) {
-                    try { storage.delete(key); } catch (IOException exception) {
-                        log.warn("Image unregistered object cleanup failed: kind=unregistered");
-                    }
+        if (!running.compareAndSet(false, true)) return lastReport;
+        try {
+            lastReport = runSlice();
+            return lastReport;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public ImageStorageReconciliationReport lastReport() {
+        return lastReport;
+    }
+
+    private ImageStorageReconciliationReport runSlice() throws IOException {
+        ImageProperties.Storage config = properties.getStorage();
+        Path checkpointFile = checkpointFile(config);
+        Checkpoint resumed = Checkpoint.load(checkpointFile);
+        long staging = resumed == null ? storage.sweepStaging(config.getStagingTtl()) : 0L;
+        Checkpoint start = resumed != null ? resumed : new Checkpoint(null, staging, 0L, 0L, 0L);
+        String lastKey = start.afterKey;
+        long scanned = 0;
+        boolean complete;
+        MismatchChecks checks = new MismatchChecks(config);
+        try {
+            Iterator<String> stored = storage.iterateFinalKeys(start.afterKey);
+            RegisteredKeys registered = new RegisteredKeys(start.afterKey,
+                Math.max(1, Math.min(10_000, config.getReconciliationBatchSize())));
+            String storedKey = next(stored);
+            String registeredKey = registered.next();
+            long maxKeys = config.getReconciliationMaxKeysPerRun();
+            while ((storedKey != null || registeredKey != null) && (maxKeys <= 0 || scanned < maxKeys)) {
+                int order = storedKey == null ? 1 : registeredKey == null ? -1 : storedKey.compareTo(registeredKey);
+                if (order == 0) {
+                    lastKey = storedKey;
+                    storedKey = next(stored);
+                    registeredKey = registered.next();
+                } else if (order < 0) {
+                    lastKey = storedKey;
+                    checks.unregistered(storedKey);
+                    storedKey = next(stored);
+                } else {
+                    lastKey = registeredKey;
+                    checks.missing(registeredKey);
+                    registeredKey = registered.next();
+                }
+                scanned++;
+                if (scanned % CHECKPOINT_EVERY == 0) {
+                    checks.settle();
+                    start.advance(lastKey, checks, scanned).save(checkpointFile);
                 }
             }
+            complete = storedKey == null && registeredKey == null;
+            checks.settle();
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        } finally {
+            checks.close();
         }
-        int missing = 0;
-        for (String key : registered) {
-            if (!storage.exists(key)) missing++;
+        Checkpoint end = start.advance(lastKey, checks, scanned);
+        if (complete) {
+            Files.deleteIfExists(checkpointFile);
+            log.info("Image storage reconciliation completed: scanned={}, unregistered={}, missing={}",
+                end.scanned, end.unregistered, end.missing);
+        } else {
+            end.save(checkpointFile);
         }
-        lastReport = new ImageStorageReconciliationReport(staging, unregistered, missing);
         if (metrics != null) {
             metrics.reconciliation("STAGING", staging);
-            metrics.reconciliation("UNREGISTERED", unregistered);
-            metrics.reconciliation("MISSING", missing);
+            metrics.reconciliation("UNREGISTERED", checks.unregistered.get());
+            metrics.reconciliation("MISSING", checks.missing.get());
         }
-        return lastReport;
+        return new ImageStorageReconciliationReport(end.staging, end.unregistered, end.missing, end.scanned, complete);
     }
 
-    public ImageStorageReconciliationReport lastReport() {
-        return lastReport;
+    private static String next(Iterator<String> keys) {
+        return keys.hasNext() ? keys.next() : null;
+    }
+
+    private static Path checkpointFile(ImageProperties.Storage config) {
+        if (StringUtils.hasText(config.getReconciliationCheckpoint())) return Path.of(config.getReconciliationCheckpoint());
+        String node = String.valueOf(config.getWorkerNode()).replaceAll("[^A-Za-z0-9._-]", "_");
+        return Path.of(config.getLocalRoot(), ".reconcile", node + ".checkpoint");
+    }
+
+    /** Keyset cursor over registered keys, one page in memory at a time. */
+    private final class RegisteredKeys {
+        private final int batchSize;
+        private String afterKey;
+        private List<String> page = Collections.emptyList();
+        private int index;
+        private boolean exhausted;
+
+        private RegisteredKeys(String afterKey, int batchSize) {
+            this.afterKey = afterKey;
+            this.batchSize = batchSize;
+        }
+
+        private String next() {
+            if (index < page.size()) return page.get(index++);
+            if (exhausted) return null;
+            List<String> loaded = assetManager.listRegisteredStorageKeys(afterKey, batchSize);
+            page = loaded == null ? Collections.emptyList() : loaded;
+            index = 0;
+            exhausted = page.size() < batchSize;
+            if (page.isEmpty()) return null;
+            afterKey = page.get(page.size() - 1);
+            return page.get(index++);
+        }
+    }
+
+    /**
+     * Re-checks merge mismatches before counting them. An unregistered object is looked up again in the DB (an
+     * ingest may have registered it after the cursor passed) and deleted only outside report-only mode; a missing
+     * asset is confirmed with {@link ImageStorageService#exists}. At most {@code 4 x parallelism} checks are
+     * outstanding, so the walk itself never buffers more than that.
+     */
+    private final class MismatchChecks implements AutoCloseable {
+        private final ExecutorService executor;
+        private final Semaphore window;
+        private final int windowSize;
+        private final IoPacer pacer;
+        private final boolean reportOnly;
+        private final AtomicLong unregistered = new AtomicLong();
+        private final AtomicLong missing = new AtomicLong();
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        private MismatchChecks(ImageProperties.Storage config) {
+            int parallelism = Math.max(1, Math.min(64, config.getReconciliationParallelism()));
+            AtomicInteger sequence = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "image-reconcile-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.windowSize = parallelism * 4;
+            this.window = new Semaphore(windowSize);
+            this.pacer = new IoPacer(config.getReconciliationIoPerSecond());
+            this.reportOnly = config.isReconciliationReportOnly();
+        }
+
+        private void unregistered(String key) {
+            submit(() -> {
+                pacer.acquire();
+                if (assetManager.isRegisteredStorageKey(key)) return;
+                unregistered.incrementAndGet();
+                if (reportOnly) return;
+                pacer.acquire();
+                try {
+                    storage.delete(key);
+                } catch (IOException exception) {
+                    log.warn("Image unregistered object cleanup failed: kind=unregistered");
+                }
+            });
+        }
+
+        private void missing(String key) {
+            submit(() -> {
+                pacer.acquire();
+                boolean present;
+                try {
+                    present = storage.exists(key);
+                } catch (IOException exception) {
+                    present = false;
+                }
+                if (!present) missing.incrementAndGet();
+            });
+        }
+
+        /** Blocks until every submitted check has finished; rethrows the first check failure. */
+        private void settle() {
+            acquire(windowSize);
+            window.release(windowSize);
+            RuntimeException failed = failure.get();
+            if (failed != null) throw failed;
+        }
+
+        private void submit(Check check) {
+            RuntimeException failed = failure.get();
+            if (failed != null) throw failed;
+            acquire(1);
+            executor.execute(() -> {
+                try {
+                    check.run();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    failure.compareAndSet(null, new IllegalStateException("image reconciliation interrupted"));
+                } catch (RuntimeException exception) {
+                    failure.compareAndSet(null, exception);
+                } finally {
+                    window.release();
+                }
+            });
+        }
+
+        private void acquire(int permits) {
+            try {
+                window.acquire(permits);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("image reconciliation interrupted", exception);
+            }
+        }
+
+        @Override
+        public void close() {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        void run() throws InterruptedException;
+    }
+
+    /** Spaces provider/DB checks evenly; 0 permits per second disables pacing. */
+    private static final class IoPacer {
+        private final long intervalNanos;
+        private long nextAt;
+
+        private IoPacer(int permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond <= 0 ? 0L : TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        }
+
+        private void acquire() throws InterruptedException {
+            if (intervalNanos == 0L) return;
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (nextAt - now < 0) nextAt = now;
+                waitNanos = nextAt - now;
+                nextAt += intervalNanos;
+            }
+            if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /** Last fully settled key plus pass-wide counters, persisted as a small properties file. */
+    private static final class Checkpoint {
+        private final String afterKey;
+        private final long staging;
+        private final long unregistered;
+        private final long missing;
+        private final long scanned;
+
+        private Checkpoint(String afterKey, long staging, long unregistered, long missing, long scanned) {
+            this.afterKey = afterKey;
+            this.staging = staging;
+            this.unregistered = unregistered;
+            this.missing = missing;
+            this.scanned = scanned;
+        }
+
+        private Checkpoint advance(String key, MismatchChecks checks, long scannedInSlice) {
+            return new Checkpoint(key, staging, unregistered + checks.unregistered.get(),
+                missing + checks.missing.get(), scanned + scannedInSlice);
+        }
+
+        private static Checkpoint load(Path file) {
+            Properties values = new Properties();
+            try (InputStream input = Files.newInputStream(file)) {
+                values.load(input);
+                String afterKey = values.getProperty("afterKey");
+                return new Checkpoint(StringUtils.hasText(afterKey) ? afterKey : null,
+                    Long.parseLong(values.getProperty("staging", "0")),
+                    Long.parseLong(values.getProperty("unregistered", "0")),
+                    Long.parseLong(values.getProperty("missing", "0")),
+                    Long.parseLong(values.getProperty("scanned", "0")));
+            } catch (NoSuchFileException exception) {
+                return null;
+            } catch (IOException | RuntimeException exception) {
+                log.warn("Image reconciliation checkpoint unreadable, starting a new pass: type={}",
+                    exception.getClass().getSimpleName());
+                return null;
+            }
+        }
+
+        private void save(Path file) throws IOException {
+            Properties values = new Properties();
+            if (afterKey != null) values.setProperty("afterKey", afterKey);
+            values.setProperty("staging", String.valueOf(staging));
+            values.setProperty("unregistered", String.valueOf(unregistered));
+            values.setProperty("missing", String.valueOf(missing));
+            values.setProperty("scanned", String.valueOf(scanned));
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream output = Files.newOutputStream(temp)) {
+                    values.store(output, null);
+                }
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException exception) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
     }
 }
@@ -1,31 +1,72 @@
 package io.github.lunasaw.voglander.service.image;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import io.github.lunasaw.voglander.common.enums.image.ThumbnailProfile;
+import io.github.lunasaw.voglander.common.exception.ServiceException;
+import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
 
-/** Immutable result of one private thumbnail request. */
+/** Immutable result of one private thumbnail request, backed by memory or by a disk-tier file. */
 public final class ImageThumbnailResult {
 
-    private final byte[] content;
+    private final ByteBuffer content;
+    private final Path file;
+    private final long fileSize;
     private final String etag;
     private final ThumbnailProfile profile;
     private final boolean notModified;
 
-    private ImageThumbnailResult(byte[] content, String etag, ThumbnailProfile profile, boolean notModified) {
-        this.content = content == null ? null : content.clone();
+    private ImageThumbnailResult(ByteBuffer content, Path file, long fileSize, String etag, ThumbnailProfile profile,
+        boolean notModified) {
+        this.content = content == null ? null : content.asReadOnlyBuffer();
+        this.file = file;
+        this.fileSize = fileSize;
         this.etag = etag;
         this.profile = profile;
         this.notModified = notModified;
     }
 
     public static ImageThumbnailResult content(byte[] content, String etag, ThumbnailProfile profile) {
-        return new ImageThumbnailResult(content, etag, profile, false);
+        return new ImageThumbnailResult(content == null ? null : ByteBuffer.wrap(content.clone()), null, 0L, etag,
+            profile, false);
+    }
+
+    /** Wraps a read-only view (typically straight from the memory cache) without copying. */
+    public static ImageThumbnailResult content(ByteBuffer content, String etag, ThumbnailProfile profile) {
+        return new ImageThumbnailResult(content, null, 0L, etag, profile, false);
+    }
+
+    /** Points at an immutable disk-tier file so the web layer can hand it to the container without reading it. */
+    public static ImageThumbnailResult file(Path file, long size, String etag, ThumbnailProfile profile) {
+        return new ImageThumbnailResult(null, file, size, etag, profile, false);
     }
 
     public static ImageThumbnailResult notModified(String etag, ThumbnailProfile profile) {
-        return new ImageThumbnailResult(null, etag, profile, true);
+        return new ImageThumbnailResult(null, null, 0L, etag, profile, true);
+    }
+
+    /** Fresh copy of the thumbnail; a disk-backed result is read here, on demand. */
+    public byte[] getContent() {
+        if (file != null) {
+            try {
+                return Files.readAllBytes(file);
+            } catch (IOException exception) {
+                throw new ServiceException(ServiceExceptionEnum.IMAGE_THUMBNAIL_UNAVAILABLE);
+            }
+        }
+        if (content == null) return null;
+        byte[] copy = new byte[content.remaining()];
+        content.duplicate().get(copy);
+        return copy;
     }
 
-    public byte[] getContent() { return content == null ? null : content.clone(); }
+    /** Read-only view with its own position, no copy; null for disk-backed results. */
+    public ByteBuffer getContentBuffer() { return content == null ? null : content.duplicate(); }
+    public Path getFile() { return file; }
+    public long getContentLength() { return file != null ? fileSize : content == null ? 0 : content.remaining(); }
     public String getEtag() { return etag; }
     public ThumbnailProfile getProfile() { return profile; }
     public boolean isNotModified() { return notModified; }
@@ -1,9 +1,12 @@
 package io.github.lunasaw.voglander.service.image;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.time.Duration;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -21,10 +24,16 @@ import io.github.lunasaw.voglander.common.enums.image.ThumbnailProfile;
 import io.github.lunasaw.voglander.common.exception.ServiceException;
 import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
 import io.github.lunasaw.voglander.intergration.wrapper.image.config.ImageProperties;
+import io.github.lunasaw.voglander.intergration.wrapper.image.storage.ThumbnailDiskStore;
 import io.github.lunasaw.voglander.manager.domaon.dto.image.ImageAssetDTO;
 import jakarta.annotation.PreDestroy;
 
-/** Coordinates ETag, bounded transformation, timeout and memory caching. */
+/**
+ * Coordinates ETag, bounded transformation, timeout and two cache tiers. Lookups go memory, then the
+ * content-addressed disk tier, then one shared in-flight transform per ETag. Disk hits are not copied onto the
+ * heap; the OS page cache serves repeats. Every generated thumbnail is written to disk after its waiters are
+ * released, and {@link #pregenerate} fills the disk tier for new assets ahead of the first request.
+ */
 @Service
 public class ImageThumbnailService implements AutoCloseable {
 
@@ -34,26 +43,36 @@ public class ImageThumbnailService implements AutoCloseable {
     private final ThumbnailMemoryCache cache;
     private final ThreadPoolExecutor executor;
     private final ImageDomainMetrics metrics;
+    private final ThumbnailDiskStore disk;
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<String, Flight>();
 
     public ImageThumbnailService(ImageAssetReadService readService, ImageThumbnailTransformer transformer,
         ImageProperties properties) {
         this(readService, transformer, properties, null);
     }
 
-    @Autowired
     public ImageThumbnailService(ImageAssetReadService readService, ImageThumbnailTransformer transformer,
         ImageProperties properties, ImageDomainMetrics metrics) {
+        this(readService, transformer, properties, metrics, null);
+    }
+
+    @Autowired
+    public ImageThumbnailService(ImageAssetReadService readService, ImageThumbnailTransformer transformer,
+        ImageProperties properties, ImageDomainMetrics metrics, ThumbnailDiskStore disk) {
         this.readService = readService;
         this.transformer = transformer;
         this.properties = properties;
         this.metrics = metrics;
         ImageProperties.Thumbnail thumbnail = properties.getThumbnail();
         thumbnail.validate();
+        this.disk = thumbnail.isDiskEnabled() ? disk : null;
         this.cache = new ThumbnailMemoryCache(thumbnail.getCacheMaxBytes(), thumbnail.getCacheMaxEntries(),
             thumbnail.getCacheTtlSeconds());
         this.executor = new ThreadPoolExecutor(thumbnail.getWorkerCount(), thumbnail.getWorkerCount(), 0L,
             TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(thumbnail.getQueueCapacity()),
             new ThumbnailThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        if (metrics != null) metrics.bindThumbnailCache(cache, inFlight);
+        if (metrics != null && this.disk != null) metrics.bindThumbnailDisk(this.disk);
     }
 
     public ImageThumbnailResult get(String assetId, String profileValue, String ifNoneMatch) {
@@ -73,38 +92,73 @@ public class ImageThumbnailService implements AutoCloseable {
                 outcome = "NOT_MODIFIED";
                 return ImageThumbnailResult.notModified(etag, profile);
             }
-            byte[] cached = cache.get(etag);
+            ByteBuffer cached = cache.get(etag);
             if (cached != null) {
                 outcome = "CACHE_HIT";
-                outputBytes = cached.length;
+                outputBytes = cached.remaining();
                 if (metrics != null) metrics.thumbnailCacheHit(profile.getValue());
                 return ImageThumbnailResult.content(cached, etag, profile);
             }
+            if (metrics != null) metrics.thumbnailCacheMiss(profile.getValue());
+            ThumbnailDiskStore.Hit stored = disk == null ? null : disk.find(etag);
+            if (stored != null) {
+                outcome = "DISK_HIT";
+                outputBytes = stored.size();
+                if (metrics != null) metrics.thumbnailDiskHit(profile.getValue());
+                return ImageThumbnailResult.file(stored.path(), stored.size(), etag, profile);
+            }
 
-            Future<byte[]> future;
-            try {
-                final ThumbnailProfile transformProfile = profile;
-                future = executor.submit(() -> {
-                    try (ImageContent content = readService.open(asset)) {
-                        return transformer.transform(content, transformProfile, thumbnail.getMaxWorkingPixels(),
-                            properties.getStorage().getMaxUploadBytes(), properties.getCollection().getMaxPixels());
+            Flight flight = null;
+            boolean leader = false;
+            while (flight == null) {
+                Flight existing = inFlight.get(etag);
+                if (existing != null) {
+                    if (existing.join()) {
+                        flight = existing;
+                    } else {
+                        inFlight.remove(etag, existing);
                     }
-                });
-            } catch (RejectedExecutionException exception) {
-                outcome = "QUEUE_REJECTED";
-                if (metrics != null) metrics.thumbnailQueueRejected(profile.getValue());
-                throw unavailable();
+                    continue;
+                }
+                Flight created = new Flight();
+                if (inFlight.putIfAbsent(etag, created) == null) {
+                    flight = created;
+                    leader = true;
+                }
+            }
+            if (leader) {
+                // a flight may have finished between the cache miss and claiming the key
+                ByteBuffer raced = cache.get(etag);
+                if (raced != null) {
+                    inFlight.remove(etag, flight);
+                    flight.result.complete(raced);
+                    outcome = "CACHE_HIT";
+                    outputBytes = raced.remaining();
+                    if (metrics != null) metrics.thumbnailCacheHit(profile.getValue());
+                    return ImageThumbnailResult.content(raced, etag, profile);
+                }
+                try {
+                    flight.task = executor.submit(transformTask(flight, etag, asset, profile, thumbnail, true));
+                } catch (RejectedExecutionException exception) {
+                    inFlight.remove(etag, flight);
+                    flight.result.completeExceptionally(unavailable());
+                    outcome = "QUEUE_REJECTED";
+                    if (metrics != null) metrics.thumbnailQueueRejected(profile.getValue());
+                    throw unavailable();
+                }
+            } else if (metrics != null) {
+                metrics.thumbnailCoalesced(profile.getValue());
             }
-            byte[] transformed;
+            ByteBuffer transformed;
             try {
-                transformed = future.get(thumbnail.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+                transformed = flight.result.get(thumbnail.getTimeoutMillis(), TimeUnit.MILLISECONDS);
             } catch (TimeoutException exception) {
                 outcome = "TIMEOUT";
-                future.cancel(true);
+                flight.abandon(etag);
                 if (metrics != null) metrics.thumbnailTimeout(profile.getValue());
                 throw unavailable();
             } catch (InterruptedException exception) {
-                future.cancel(true);
+                flight.abandon(etag);
                 Thread.currentThread().interrupt();
                 throw unavailable();
             } catch (ExecutionException exception) {
@@ -112,12 +166,8 @@ public class ImageThumbnailService implements AutoCloseable {
                 if (cause instanceof ServiceException) throw (ServiceException)cause;
                 throw unavailable();
             }
-            if (transformed == null || transformed.length == 0 || transformed.length > profile.getMaxBytes()) {
-                throw unavailable();
-            }
-            cache.put(etag, transformed);
-            outcome = "GENERATED";
-            outputBytes = transformed.length;
+            outcome = leader ? "GENERATED" : "COALESCED";
+            outputBytes = transformed.remaining();
             return ImageThumbnailResult.content(transformed, etag, profile);
         } catch (ServiceException exception) {
             errorCode = String.valueOf(exception.getCode());
@@ -132,6 +182,71 @@ public class ImageThumbnailService implements AutoCloseable {
         }
     }
 
+    /**
+     * Queues background generation of every profile of a freshly stored asset straight into the disk tier, without
+     * warming the memory cache. Best effort: nothing is queued when the disk tier or pre-generation is off, and a
+     * profile is skipped when it already exists, is already in flight, or the transform queue is half full, so
+     * interactive requests keep their headroom and simply generate lazily instead. Never throws into the caller's
+     * ingest path.
+     *
+     * @return number of profiles queued
+     */
+    public int pregenerate(ImageAssetDTO asset) {
+        ImageProperties.Thumbnail thumbnail = properties.getThumbnail();
+        if (disk == null || asset == null || asset.getChecksum() == null || !thumbnail.isEnabled()
+            || !thumbnail.isPregenerate()) {
+            return 0;
+        }
+        try {
+            validateSourceBounds(asset);
+        } catch (ServiceException exception) {
+            return 0;
+        }
+        int queued = 0;
+        for (ThumbnailProfile profile : ThumbnailProfile.values()) {
+            if (executor.getQueue().remainingCapacity() * 2 < thumbnail.getQueueCapacity()) {
+                if (metrics != null) metrics.thumbnailPregenerate(profile.getValue(), "SKIPPED");
+                continue;
+            }
+            String etag = deriveEtag(asset.getChecksum(), profile, thumbnail.getAlgorithmVersion());
+            if (cache.get(etag) != null || disk.find(etag) != null) continue;
+            // the pregeneration flight keeps one permanent waiter, so readers that join and time out never cancel it
+            Flight flight = new Flight();
+            if (inFlight.putIfAbsent(etag, flight) != null) continue;
+            try {
+                flight.task = executor.submit(transformTask(flight, etag, asset, profile, thumbnail, false));
+                queued++;
+                if (metrics != null) metrics.thumbnailPregenerate(profile.getValue(), "QUEUED");
+            } catch (RuntimeException exception) {
+                inFlight.remove(etag, flight);
+                flight.result.completeExceptionally(unavailable());
+                if (metrics != null) metrics.thumbnailPregenerate(profile.getValue(), "SKIPPED");
+            }
+        }
+        return queued;
+    }
+
+    private Runnable transformTask(Flight flight, String etag, ImageAssetDTO asset, ThumbnailProfile profile,
+        ImageProperties.Thumbnail thumbnail, boolean warmMemory) {
+        return () -> {
+            try (ImageContent content = readService.open(asset)) {
+                byte[] transformed = transformer.transform(content, profile, thumbnail.getMaxWorkingPixels(),
+                    properties.getStorage().getMaxUploadBytes(), properties.getCollection().getMaxPixels());
+                if (transformed == null || transformed.length == 0 || transformed.length > profile.getMaxBytes()) {
+                    throw unavailable();
+                }
+                if (warmMemory) cache.put(etag, transformed);
+                flight.result.complete(ByteBuffer.wrap(transformed).asReadOnlyBuffer());
+                // after waiters are released but before the flight is removed, so a late reader finds one or the other
+                if (disk != null) disk.put(etag, transformed);
+            } catch (Throwable throwable) {
+                flight.result.completeExceptionally(throwable);
+            } finally {
+                inFlight.remove(etag, flight);
+            }
+        };
+    }
+
     public static String deriveEtag(String checksum, ThumbnailProfile profile, String algorithmVersion) {
         if (checksum == null || profile == null || algorithmVersion == null) throw unavailableStatic();
         try {
@@ -175,6 +290,31 @@ public class ImageThumbnailService implements AutoCloseable {
         return new ServiceException(ServiceExceptionEnum.IMAGE_THUMBNAIL_UNAVAILABLE);
     }
 
+    /**
+     * One transform shared by every request for the same ETag. The worker is cancelled only when the last
+     * waiter gives up, so one impatient caller cannot fail the others.
+     */
+    private final class Flight {
+        private final CompletableFuture<ByteBuffer> result = new CompletableFuture<ByteBuffer>();
+        private final AtomicInteger waiters = new AtomicInteger(1);
+        private volatile Future<?> task;
+
+        private boolean join() {
+            for (;;) {
+                int current = waiters.get();
+                if (current == 0) return false;
+                if (waiters.compareAndSet(current, current + 1)) return true;
+            }
+        }
+
+        private void abandon(String etag) {
+            if (waiters.decrementAndGet() > 0) return;
+            inFlight.remove(etag, this);
+            Future<?> running = task;
+            if (running != null) running.cancel(true);
+        }
+    }
+
     private static final class ThumbnailThreadFactory implements ThreadFactory {
         private final AtomicInteger sequence = new AtomicInteger();
 
@@ -1,17 +1,39 @@
 package io.github.lunasaw.voglander.service.image;
 
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
-/** JVM-local access-order cache bounded by entries, bytes and TTL. */
+/**
+ * JVM-local thumbnail cache bounded by entries, bytes and TTL.
+ * <p>
+ * Reads are a lock-free map lookup plus one access stamp and hand out read-only {@link ByteBuffer} views of the
+ * cached array, never a copy. Writes take ownership of the array and go to one of up to {@value #MAX_SHARDS}
+ * shards by key hash. The byte and entry budgets are global and shared by all shards, so a skewed key space can
+ * still use the whole cache. Over budget, shards are visited round-robin, each evicting one entry under its own lock
+ * with a second-chance queue approximating LRU: an entry read since it was queued is re-queued once instead of
+ * evicted.
+ * </p>
+ */
 public class ThumbnailMemoryCache {
 
+    private static final int MAX_SHARDS = 16;
+    private static final int MIN_ENTRIES_PER_SHARD = 64;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final Shard[] shards;
     private final long maxBytes;
     private final int maxEntries;
     private final long ttlMillis;
-    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
-    private long currentBytes;
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicInteger evictCursor = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder evictions = new LongAdder();
 
     public ThumbnailMemoryCache(long maxBytes, int maxEntries, long ttlSeconds) {
         if (maxBytes <= 0 || maxEntries <= 0 || ttlSeconds <= 0) {
@@ -20,49 +42,145 @@ public class ThumbnailMemoryCache {
         this.maxBytes = maxBytes;
         this.maxEntries = maxEntries;
         this.ttlMillis = ttlSeconds * 1000L;
+        int shardCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_SHARDS, maxEntries / MIN_ENTRIES_PER_SHARD)));
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
     }
 
-    public synchronized byte[] get(String key) {
+    /** Read-only view of the cached thumbnail, or null when absent or expired. */
+    public ByteBuffer get(String key) {
+        if (key == null) return null;
         Entry entry = entries.get(key);
         if (entry == null) return null;
         if (entry.expiresAt <= System.currentTimeMillis()) {
-            remove(key, entry);
+            shard(key).remove(entry);
             return null;
         }
-        return entry.content.clone();
+        entry.accessedAt = clock.incrementAndGet();
+        return ByteBuffer.wrap(entry.content).asReadOnlyBuffer();
     }
 
-    public synchronized void put(String key, byte[] content) {
+    /** Caches {@code content} without copying; the caller must not modify the array afterwards. */
+    public void put(String key, byte[] content) {
         if (key == null || content == null || content.length > maxBytes) return;
-        Entry previous = entries.remove(key);
-        if (previous != null) currentBytes -= previous.content.length;
-        byte[] copy = content.clone();
-        entries.put(key, new Entry(copy, System.currentTimeMillis() + ttlMillis));
-        currentBytes += copy.length;
-        evict();
+        long stamp = clock.incrementAndGet();
+        Entry entry = new Entry(key, content, System.currentTimeMillis() + ttlMillis, stamp);
+        shard(key).put(entry);
+        evict(entry);
     }
 
-    private void evict() {
-        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
-        while ((entries.size() > maxEntries || currentBytes > maxBytes) && iterator.hasNext()) {
-            Map.Entry<String, Entry> eldest = iterator.next();
-            currentBytes -= eldest.getValue().content.length;
-            iterator.remove();
+    public int size() {
+        return entries.size();
+    }
+
+    public long bytes() {
+        return bytes.get();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Evicts one entry at a time from shards in turn until both budgets hold. Only one shard lock is held at a time;
+     * {@code protect}, the entry just written, is skipped so a write never evicts itself.
+     */
+    private void evict(Entry protect) {
+        int idle = 0;
+        while ((count.get() > maxEntries || bytes.get() > maxBytes) && idle < shards.length) {
+            Shard shard = shards[evictCursor.getAndIncrement() & (shards.length - 1)];
+            idle = shard.evictOne(protect) ? 0 : idle + 1;
         }
     }
 
-    private void remove(String key, Entry entry) {
-        entries.remove(key);
-        currentBytes -= entry.content.length;
+    private Shard shard(String key) {
+        int hash = key.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+
+    private final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<Entry> queue = new ArrayDeque<Entry>();
+        private int live;
+
+        private void put(Entry entry) {
+            lock.lock();
+            try {
+                Entry previous = entries.put(entry.key, entry);
+                if (previous != null) release(previous);
+                queue.addLast(entry);
+                bytes.addAndGet(entry.content.length);
+                count.incrementAndGet();
+                live++;
+                // replaced or expired entries leave stale queue slots behind; compact before they pile up
+                if (queue.size() > 2 * live + 16) queue.removeIf(queued -> entries.get(queued.key) != queued);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(Entry entry) {
+            lock.lock();
+            try {
+                if (entries.remove(entry.key, entry)) release(entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** @return whether an entry was evicted; false when this shard holds nothing evictable */
+        private boolean evictOne(Entry protect) {
+            lock.lock();
+            try {
+                long now = System.currentTimeMillis();
+                int chances = queue.size();
+                while (!queue.isEmpty()) {
+                    Entry candidate = queue.pollFirst();
+                    if (entries.get(candidate.key) != candidate) continue;
+                    if (candidate == protect) {
+                        queue.addLast(candidate);
+                        if (queue.size() == 1) return false;
+                        continue;
+                    }
+                    if (chances > 0 && candidate.accessedAt > candidate.queuedAt && candidate.expiresAt > now) {
+                        chances--;
+                        candidate.queuedAt = clock.incrementAndGet();
+                        queue.addLast(candidate);
+                        continue;
+                    }
+                    entries.remove(candidate.key, candidate);
+                    release(candidate);
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release(Entry entry) {
+            bytes.addAndGet(-entry.content.length);
+            count.decrementAndGet();
+            live--;
+        }
     }
 
     private static final class Entry {
+        private final String key;
         private final byte[] content;
         private final long expiresAt;
+        private volatile long accessedAt;
+        private long queuedAt;
 
-        private Entry(byte[] content, long expiresAt) {
+        private Entry(String key, byte[] content, long expiresAt, long stamp) {
+            this.key = key;
             this.content = content;
             this.expiresAt = expiresAt;
+            this.accessedAt = stamp;
+            this.queuedAt = stamp;
         }
     }
 }
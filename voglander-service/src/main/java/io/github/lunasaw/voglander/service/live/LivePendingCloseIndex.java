@@ -0,0 +1,124 @@
+package io.github.lunasaw.voglander.service.live;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 直播延迟回收索引：引用计数归零的流按到期时间写入 Redis 有序集合 {@code live:pending_close:index}
+ * （member = streamId，score = 到期毫秒时间戳）。
+ * <p>
+ * GC 只取已到期的前 N 个成员（{@code ZRANGEBYSCORE ... LIMIT}），代价与到期流数成正比，
+ * 不再用 {@code KEYS live:pending_close:*} 扫描整个 Redis-A 键空间。
+ * 取出与删除在同一段 Lua 内完成，多实例同时排空时每个流只会被一个实例认领。
+ * </p>
+ * <p>
+ * 指标：{@code voglander.live.pending_close.backlog}（最近一次排空后的积压数，不在抓取时访问 Redis）、
+ * {@code voglander.live.pending_close.drain}（每轮排空耗时）。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+@Component
+public class LivePendingCloseIndex implements InitializingBean {
+
+    static final String                       KEY       = "live:pending_close:index";
+
+    /**
+     * 认领到期成员：取 score &lt;= ARGV[1] 的前 ARGV[2] 个并从集合删除，返回被认领的 streamId。
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List>    CLAIM_DUE = RedisScript.of(
+        "local m=redis.call('ZRANGEBYSCORE',KEYS[1],'-inf',ARGV[1],'LIMIT',0,tonumber(ARGV[2])) "
+            + "if #m>0 then redis.call('ZREM',KEYS[1],unpack(m)) end return m",
+        List.class);
+
+    @Autowired
+    private StringRedisTemplate               stringRedisTemplate;
+
+    @Autowired(required = false)
+    private MeterRegistry                     meterRegistry;
+
+    private final AtomicLong                  backlog   = new AtomicLong();
+
+    private Timer                             drainTimer;
+
+    /**
+     * 标记延迟回收；重复标记以最新到期时间为准。
+     *
+     * @param delayMs 距到期的毫秒数
+     */
+    public void mark(String streamId, long delayMs) {
+        stringRedisTemplate.opsForZSet().add(KEY, streamId, System.currentTimeMillis() + Math.max(0L, delayMs));
+    }
+
+    /**
+     * 取消延迟回收（续约、重新观看或已关流）。
+     */
+    public void cancel(String streamId) {
+        stringRedisTemplate.opsForZSet().remove(KEY, streamId);
+    }
+
+    /**
+     * 认领一批已到期的流，被认领的成员已从索引移除。
+     *
+     * @param nowMs 当前毫秒时间戳
+     * @param limit 本批上限
+     * @return 到期 streamId，按到期时间升序
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> claimDue(long nowMs, int limit) {
+        List<String> claimed = stringRedisTemplate.execute(CLAIM_DUE, List.of(KEY),
+            String.valueOf(nowMs), String.valueOf(limit));
+        return claimed == null ? Collections.emptyList() : claimed;
+    }
+
+    /**
+     * 记录一轮排空耗时并刷新积压数。
+     */
+    public void recordDrain(long startNanos) {
+        if (drainTimer != null) {
+            drainTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        try {
+            Long size = stringRedisTemplate.opsForZSet().zCard(KEY);
+            backlog.set(size == null ? 0L : size);
+        } catch (Exception e) {
+            log.debug("[GC] 读取延迟回收积压失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 最近一次排空后的积压数。
+     */
+    public long backlog() {
+        return backlog.get();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (meterRegistry == null) {
+            return;
+        }
+        Gauge.builder("voglander.live.pending_close.backlog", backlog, AtomicLong::get)
+            .description("延迟回收索引中尚未排空的流数")
+            .register(meterRegistry);
+        drainTimer = Timer.builder("voglander.live.pending_close.drain")
+            .description("每轮延迟回收排空耗时")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,235 @@
+package io.github.lunasaw.voglander.service.live;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import io.github.lunasaw.voglander.common.exception.ServiceException;
+import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 直播首播合并（play-storm）：同一 streamId 的并发点播共享一次 INVITE 建流。
+ * <p>
+ * 本节点内：首个请求成为 leader 并登记在途 future，后到者直接挂到该 future 上，leader 建流完成后
+ * 全部拿到同一份会话（各自 incRef）；leader 失败时同批请求收到同一异常。
+ * 跨节点：leader 持有 {@code live:lock:{streamId}}，其他节点抢锁失败后不再退避轮询锁，而是登记等待并订阅
+ * {@code live:play:done}，leader 收尾（成功或失败）时广播 streamId 唤醒，被唤醒方读 Registry 会话决定复用或失败。
+ * </p>
+ * <p>
+ * 指标：{@code voglander.live.play.start{path,result}} 区分新建 INVITE（fresh_invite）、复用（reuse）、
+ * 本节点合并（local_join）、跨节点合并（remote_join）；{@code voglander.live.play.ttff{path}} 为点播请求
+ * 到拿到可播会话的端到端耗时直方图。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+@Component
+public class LivePlayCoalescer implements InitializingBean, DisposableBean {
+
+    public static final String                                        PATH_FRESH_INVITE = "fresh_invite";
+    public static final String                                        PATH_REUSE        = "reuse";
+    public static final String                                        PATH_LOCAL_JOIN   = "local_join";
+    public static final String                                        PATH_REMOTE_JOIN  = "remote_join";
+
+    private static final String                                       DONE_CHANNEL      = "live:play:done";
+
+    @Autowired(required = false)
+    private StringRedisTemplate                                       stringRedisTemplate;
+
+    @Autowired(required = false)
+    private RedisConnectionFactory                                    redisConnectionFactory;
+
+    @Autowired(required = false)
+    private MeterRegistry                                             meterRegistry;
+
+    private final ConcurrentHashMap<String, CompletableFuture<LiveSessionInfo>> flights = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, CompletableFuture<Void>>  remoteWaiters     = new ConcurrentHashMap<>();
+
+    private RedisMessageListenerContainer                             listenerContainer;
+
+    /**
+     * 加入本节点在途首播。
+     *
+     * @param streamId 流标识
+     * @param mine     调用方准备的 future，成为 leader 时登记为在途
+     * @return null 表示调用方成为 leader（须调用 {@link #finish}）；否则为 leader 的在途 future
+     */
+    public CompletableFuture<LiveSessionInfo> join(String streamId, CompletableFuture<LiveSessionInfo> mine) {
+        return flights.putIfAbsent(streamId, mine);
+    }
+
+    /**
+     * leader 收尾：完成在途 future 唤醒本节点跟随者；本节点持锁建流时再广播唤醒其他节点的等待者。
+     * <p>
+     * 复用已有会话或等待他节点建流的 leader 不广播：其他节点等的是持锁建流方的收尾，复用路径上会话本就可用，
+     * 每次点播都 PUBLISH 只会放大 Redis 流量。
+     * </p>
+     *
+     * @param info      成功时的会话，失败为 null
+     * @param error     失败原因，成功为 null
+     * @param broadcast 本节点是否持 {@code live:lock:{streamId}} 走了建流流程
+     */
+    public void finish(String streamId, CompletableFuture<LiveSessionInfo> flight, LiveSessionInfo info,
+        Throwable error, boolean broadcast) {
+        flights.remove(streamId, flight);
+        if (error != null) {
+            flight.completeExceptionally(error);
+        } else {
+            flight.complete(info);
+        }
+        if (broadcast) {
+            publishDone(streamId);
+        }
+    }
+
+    /**
+     * 跟随者等待本节点 leader 的结果；leader 的 {@link ServiceException} 原样抛出。
+     */
+    public LiveSessionInfo awaitLocal(CompletableFuture<LiveSessionInfo> flight, long timeoutMs) {
+        try {
+            return flight.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceException(ServiceExceptionEnum.LIVE_INVITE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException(ServiceExceptionEnum.LIVE_INVITE_TIMEOUT);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new ServiceException(ServiceExceptionEnum.STREAM_NOT_READY, String.valueOf(cause));
+        }
+    }
+
+    /**
+     * 等待其他节点的 leader 收尾广播。先登记再检查 {@code ready}，避免广播早于登记而空等。
+     *
+     * @param ready 会话是否已可复用
+     * @return 返回时 {@code ready} 的结果
+     */
+    public boolean awaitRemote(String streamId, long timeoutMs, BooleanSupplier ready) {
+        CompletableFuture<Void> waiter = remoteWaiters.computeIfAbsent(streamId, k -> new CompletableFuture<>());
+        try {
+            if (ready.getAsBoolean()) {
+                return true;
+            }
+            waiter.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("等待跨节点首播广播超时, streamId={}", streamId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 仅 complete(null)，不会走到这里
+        } finally {
+            remoteWaiters.remove(streamId, waiter);
+        }
+        return ready.getAsBoolean();
+    }
+
+    /**
+     * 记录一次点播结果与端到端耗时。
+     *
+     * @param path       {@code PATH_*}
+     * @param startNanos 请求进入时的 {@link System#nanoTime()}
+     * @param success    是否拿到可播会话
+     */
+    public void record(String path, long startNanos, boolean success) {
+        MeterRegistry registry = registry();
+        Counter.builder("voglander.live.play.start")
+            .description("直播点播结果，按建流路径区分")
+            .tag("path", path)
+            .tag("result", success ? "success" : "failure")
+            .register(registry)
+            .increment();
+        if (success) {
+            Timer.builder("voglander.live.play.ttff")
+                .description("点播请求到拿到可播会话的端到端耗时")
+                .tag("path", path)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 本节点在途首播数（监控/测试用）。
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    void onRemoteDone(String streamId) {
+        CompletableFuture<Void> waiter = remoteWaiters.remove(streamId);
+        if (waiter != null) {
+            waiter.complete(null);
+        }
+    }
+
+    private void publishDone(String streamId) {
+        if (stringRedisTemplate == null) {
+            onRemoteDone(streamId);
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(DONE_CHANNEL, streamId);
+        } catch (Exception e) {
+            log.warn("首播收尾广播失败, streamId={}", streamId, e);
+            onRemoteDone(streamId);
+        }
+    }
+
+    private MeterRegistry registry() {
+        if (meterRegistry == null) {
+            meterRegistry = new CompositeMeterRegistry();
+        }
+        return meterRegistry;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (redisConnectionFactory == null) {
+            return;
+        }
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener((message, pattern) -> onRemoteDone(new String(message.getBody())),
+            new ChannelTopic(DONE_CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        listenerContainer = container;
+        log.info("直播首播合并已启用跨节点唤醒, channel={}", DONE_CHANNEL);
+    }
+
+    @Override
+    public void destroy() {
+        RedisMessageListenerContainer container = listenerContainer;
+        listenerContainer = null;
+        if (container != null) {
+            try {
+                container.destroy();
+            } catch (Exception e) {
+                log.warn("直播首播合并 listener 关闭失败", e);
+            }
+        }
+    }
+}
@@ -1,16 +1,32 @@
 package io.github.lunasaw.voglander.service.live;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+
 import io.github.lunasaw.voglander.common.anno.TechnicalScheduler;
 import io.github.lunasaw.voglander.manager.domaon.dto.MediaSessionDTO;
 import io.github.lunasaw.voglander.manager.manager.MediaSessionManager;
@@ -18,15 +34,23 @@ import io.github.lunasaw.voglander.repository.cache.redis.RedisLockUtil;
 import io.github.lunasaw.zlm.api.ZlmRestService;
 import io.github.lunasaw.zlm.config.ZlmNode;
 import io.github.lunasaw.zlm.entity.MediaOnlineStatus;
+import io.github.lunasaw.zlm.entity.ServerResponse;
+import io.github.lunasaw.zlm.entity.req.MediaReq;
 import io.github.lunasaw.zlm.node.service.NodeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 直播会话 GC 调度器。
  * <p>
  * 1. INVITING 超时 → FAILED<br>
- * 2. pending_close 到期且 refCount=0 → 委托 {@link MediaPlayService#closeStream(String)} 真实关流<br>
- * 3. reconcileActiveSessions：以 ZLM 真实流状态为准，对账 DB ACTIVE 会话，清理回调丢失的幽灵会话<br>
+ * 2. pending_close 到期且 refCount=0 → 委托 {@link MediaPlayService#closeStream(String)} 真实关流；
+ * 到期流取自 {@link LivePendingCloseIndex} 有序集合，分批认领 + 批量读引用计数<br>
+ * 3. reconcileActiveSessions：以 ZLM 真实流状态为准，对账 DB ACTIVE 会话，清理回调丢失的幽灵会话；
+ * 每节点拉一次媒体列表在内存求差，节点间并行<br>
  * </p>
  *
  * @author luna
@@ -37,7 +61,8 @@ import lombok.extern.slf4j.Slf4j;
 public class LiveSessionGcService {
 
     private static final int    INVITING_TIMEOUT_MIN  = 2;
-    private static final String PENDING_CLOSE_PREFIX  = "live:pending_close:";
+    /** 关流失败的流重新入索引的延迟（毫秒），下一轮 GC 再试 */
+    private static final long   PENDING_CLOSE_RETRY_MS = 60_000L;
 
     /** ZLM 收流 app（直播流统一落在 rtp 应用下） */
     private static final String ZLM_APP               = "rtp";
@@ -53,10 +78,28 @@ public class LiveSessionGcService {
 
     @Autowired private MediaSessionManager mediaSessionManager;
     @Autowired private LiveStreamRegistry  liveStreamRegistry;
-    @Autowired private StringRedisTemplate stringRedisTemplate;
     @Autowired private MediaPlayService    mediaPlayService;
     @Autowired private NodeService         nodeService;
     @Autowired private RedisLockUtil       redisLockUtil;
+    @Autowired private LivePendingCloseIndex livePendingCloseIndex;
+
+    /** 每批认领的到期流数 */
+    @Value("${live.pending-close.batch-size:200}")
+    private int                            pendingCloseBatchSize  = 200;
+    /** 每轮最多排空的批数，积压超过 batch-size × max-batches 时留给下一轮 */
+    @Value("${live.pending-close.max-batches:20}")
+    private int                            pendingCloseMaxBatches = 20;
+    /** 单节点拉取媒体列表的超时（毫秒），超时节点本轮跳过；所有节点并行，整轮耗时约等于最慢节点 */
+    @Value("${live.reconcile.node-timeout-ms:5000}")
+    private long                           nodeTimeoutMs          = 5_000L;
+    /** 并行对账的节点数，0 表示在调度线程逐节点同步执行 */
+    @Value("${live.reconcile.parallelism:8}")
+    private int                            reconcileParallelism   = 8;
+
+    @Autowired(required = false)
+    private MeterRegistry                  meterRegistry;
+
+    private volatile ExecutorService       reconcilePool;
 
     @Scheduled(fixedDelay = 60_000)
     public void gc() {
@@ -67,7 +110,7 @@ public class LiveSessionGcService {
             log.info("[GC] INVITING 超时标 FAILED, count={}", failed);
         }
 
-        // 2. drainPendingClose：扫 Redis pending_close:* 键，refCount=0 则委托编排层真实关流
+        // 2. drainPendingClose：按到期时间分批认领 pending_close，refCount=0 则委托编排层真实关流
         drainPendingClose();
 
         // 3. reconcileActiveSessions：以 ZLM 为准对账 ACTIVE 会话，兜底回调丢失
@@ -75,35 +118,76 @@ public class LiveSessionGcService {
     }
 
     void drainPendingClose() {
+        long startNanos = System.nanoTime();
         try {
-            Set<String> keys = stringRedisTemplate.keys(PENDING_CLOSE_PREFIX + "*");
-            if (keys == null || keys.isEmpty()) {
-                return;
-            }
-            for (String key : keys) {
-                String streamId = key.substring(PENDING_CLOSE_PREFIX.length());
-                if (liveStreamRegistry.getRef(streamId) <= 0) {
-                    // 真实关流下沉到编排层（closeRtpServer + BYE + 标 CLOSED + SSE + 清 Registry + 删 key）
-                    mediaPlayService.closeStream(streamId);
-                    log.info("[GC] 委托 closeStream 回收空闲流, streamId={}", streamId);
-                } else {
-                    // 仍有观看者，取消 pending
-                    stringRedisTemplate.delete(key);
+            for (int batch = 0; batch < pendingCloseMaxBatches; batch++) {
+                // 认领即出索引：仍有观看者的流不再处理，相当于取消 pending
+                List<String> due = livePendingCloseIndex.claimDue(System.currentTimeMillis(), pendingCloseBatchSize);
+                if (due.isEmpty()) {
+                    break;
+                }
+                int handled = 0;
+                try {
+                    Map<String, Long> refs = liveStreamRegistry.getRefs(due);
+                    for (String streamId : due) {
+                        Long ref = refs.get(streamId);
+                        if (ref == null || ref <= 0) {
+                            closeIdle(streamId);
+                        }
+                        handled++;
+                    }
+                } catch (RuntimeException e) {
+                    // 已认领出索引但未处理的流须放回，否则只能等全量对账兜底
+                    requeue(due.subList(handled, due.size()));
+                    throw e;
+                }
+                if (due.size() < pendingCloseBatchSize) {
+                    break;
                 }
             }
         } catch (Exception e) {
             // 与 DelayedCacheEviction.drainDue 一致：Redis 故障时跳过本轮，避免污染调度器线程
             log.warn("[GC] drainPendingClose Redis 故障，跳过本轮", e);
+        } finally {
+            livePendingCloseIndex.recordDrain(startNanos);
+        }
+    }
+
+    private void requeue(List<String> streamIds) {
+        for (String streamId : streamIds) {
+            try {
+                livePendingCloseIndex.mark(streamId, PENDING_CLOSE_RETRY_MS);
+            } catch (Exception e) {
+                log.error("[GC] 认领的流放回索引失败，待全量对账回收, streamId={}", streamId, e);
+            }
+        }
+    }
+
+    private void closeIdle(String streamId) {
+        try {
+            // 真实关流下沉到编排层（closeRtpServer + BYE + 标 CLOSED + SSE + 清 Registry + 出索引）
+            mediaPlayService.closeStream(streamId);
+            log.info("[GC] 委托 closeStream 回收空闲流, streamId={}", streamId);
+        } catch (Exception e) {
+            // 已认领出索引，失败须放回，否则该流再无人回收
+            log.warn("[GC] 回收空闲流失败，稍后重试, streamId={}", streamId, e);
+            livePendingCloseIndex.mark(streamId, PENDING_CLOSE_RETRY_MS);
         }
     }
 
     /**
-     * 对账：枚举 DB 中 ACTIVE 会话，逐一向其所在 ZLM 节点核实流是否存活；
-     * ZLM 查不到（流已死但回调丢失）→ 委托 {@link MediaPlayService#closeStream(String)} 收尾
-     * （清缓存 + 标 CLOSED + SSE）。以流媒体真实状态为权威，纠正本地缓存漂移。
+     * 对账：DB 中 ACTIVE 会话按 {@code nodeServerId} 分组，每个节点只拉一次媒体列表（{@code getMediaList}），
+     * 在内存里求差集；列表里没有的流再用 {@code isMediaOnline} 单独确认，确认已死才委托
+     * {@link MediaPlayService#closeStream(String)} 收尾（清缓存 + 标 CLOSED + SSE）。以流媒体真实状态为权威，纠正本地缓存漂移。
      * <p>
+     * 各节点并行拉取，单节点超过 {@code live.reconcile.node-timeout-ms} 或调用失败则本轮跳过该节点（保守保留），
+     * 不拖慢其它节点，也不会让整轮超出对账锁的持有时间。
      * 多节点防重：整轮对账加分布式锁，只让一个实例执行（死流幂等收尾即可，无需多实例并发）。
      * </p>
+     * <p>
+     * 指标：{@code voglander.live.reconcile.duration{node,outcome}}（单节点拉取 + 求差耗时）、
+     * {@code voglander.live.reconcile.ghosts{node}}（确认并收尾的幽灵会话数）。
+     * </p>
      */
     void reconcileActiveSessions() {
         // 多节点防重：单次非阻塞尝试拿锁（lock 而非 tryLock(...,0)，后者校验 getTimeOut>0 会抛异常）；
@@ -113,26 +197,31 @@ public class LiveSessionGcService {
             return;
         }
         try {
-            List<MediaSessionDTO> actives = mediaSessionManager.getActiveSessions();
-            for (MediaSessionDTO s : actives) {
-                String streamId = s.getStreamId();
-                String serverId = s.getNodeServerId();
-                if (streamId == null || serverId == null) {
-                    continue;
-                }
-                // 宽限：刚建立的会话（createTime 太近）跳过，避免与首播窗口竞态
-                if (isWithinGracePeriod(s)) {
-                    continue;
-                }
+            Map<String, List<MediaSessionDTO>> byNode = groupByNode(mediaSessionManager.getActiveSessions());
+            Map<String, ZlmNode> nodes = new LinkedHashMap<>();
+            Map<String, CompletableFuture<List<String>>> diffs = new LinkedHashMap<>();
+            for (Map.Entry<String, List<MediaSessionDTO>> entry : byNode.entrySet()) {
+                String serverId = entry.getKey();
                 ZlmNode node = nodeService.getAvailableNode(serverId);
                 if (node == null) {
                     // 节点都没了，交给 NodeExitedEvent 路径，这里跳过
                     continue;
                 }
-                if (!streamAliveOnZlm(node, streamId)) {
-                    log.info("[GC] 对账发现死流(ZLM 查无), 收尾, streamId={}, serverId={}", streamId, serverId);
-                    mediaPlayService.closeStream(streamId);
+                nodes.put(serverId, node);
+                diffs.put(serverId, diffNodeAsync(node, entry.getValue()));
+            }
+            for (Map.Entry<String, CompletableFuture<List<String>>> entry : diffs.entrySet()) {
+                String serverId = entry.getKey();
+                List<String> candidates;
+                try {
+                    candidates = entry.getValue().join();
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    log.warn("[GC] 节点媒体列表拉取{}，本轮跳过该节点, serverId={}: {}",
+                        cause instanceof TimeoutException ? "超时" : "失败", serverId, cause.getMessage());
+                    continue;
                 }
+                closeGhosts(nodes.get(serverId), candidates);
             }
         } catch (Exception e) {
             log.warn("[GC] reconcileActiveSessions 异常，跳过本轮", e);
@@ -141,6 +230,157 @@ public class LiveSessionGcService {
         }
     }
 
+    /**
+     * 跳过缺字段与宽限期内的会话，其余按所在节点分组。
+     */
+    private Map<String, List<MediaSessionDTO>> groupByNode(List<MediaSessionDTO> actives) {
+        Map<String, List<MediaSessionDTO>> byNode = new LinkedHashMap<>();
+        if (actives == null) {
+            return byNode;
+        }
+        for (MediaSessionDTO s : actives) {
+            if (s.getStreamId() == null || s.getNodeServerId() == null) {
+                continue;
+            }
+            // 宽限：刚建立的会话（createTime 太近）跳过，避免与首播窗口竞态
+            if (isWithinGracePeriod(s)) {
+                continue;
+            }
+            byNode.computeIfAbsent(s.getNodeServerId(), k -> new ArrayList<>()).add(s);
+        }
+        return byNode;
+    }
+
+    /**
+     * 异步拉取单节点媒体列表并与该节点的 DB 会话求差，返回 ZLM 上查无的 streamId（待确认的幽灵候选）。
+     * 超时从任务真正开始执行时计起（节点数超过并行度时，排队等线程的时间不计入），由 {@code orTimeout} 兜底；
+     * 超时后 HTTP 调用可能仍在进行，结果直接丢弃。
+     */
+    private CompletableFuture<List<String>> diffNodeAsync(ZlmNode node, List<MediaSessionDTO> sessions) {
+        CompletableFuture<List<String>> result = new CompletableFuture<>();
+        long[] startNanos = {System.nanoTime()};
+        result.whenComplete((candidates, e) -> recordNodeDuration(node.getServerId(), startNanos[0],
+            e == null ? "ok" : e instanceof TimeoutException ? "timeout" : "error"));
+        Runnable diff = () -> {
+            startNanos[0] = System.nanoTime();
+            result.orTimeout(nodeTimeoutMs, TimeUnit.MILLISECONDS);
+            try {
+                Set<String> online = fetchNodeStreams(node);
+                List<String> candidates = new ArrayList<>();
+                for (MediaSessionDTO s : sessions) {
+                    if (!online.contains(s.getStreamId())) {
+                        candidates.add(s.getStreamId());
+                    }
+                }
+                result.complete(candidates);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+        try {
+            reconcileExecutor().execute(diff);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * 幽灵候选逐一用 {@code isMediaOnline} 复核：拉列表到读会话之间新推上来的流、列表接口的偶发遗漏都不会被误杀。
+     */
+    private void closeGhosts(ZlmNode node, List<String> candidates) {
+        int ghosts = 0;
+        for (String streamId : candidates) {
+            if (streamAliveOnZlm(node, streamId)) {
+                continue;
+            }
+            log.info("[GC] 对账发现死流(ZLM 查无), 收尾, streamId={}, serverId={}", streamId, node.getServerId());
+            mediaPlayService.closeStream(streamId);
+            ghosts++;
+        }
+        if (ghosts > 0 && meterRegistry != null) {
+            Counter.builder("voglander.live.reconcile.ghosts")
+                .description("对账确认并收尾的幽灵会话数")
+                .tag("node", node.getServerId())
+                .register(meterRegistry)
+                .increment(ghosts);
+        }
+    }
+
+    /**
+     * 拉取节点上 {@code rtp} 应用下的全部流名。响应为空或 code 非 0 视为失败抛出，由调用方保守跳过该节点。
+     */
+    Set<String> fetchNodeStreams(ZlmNode node) {
+        MediaReq req = new MediaReq();
+        req.setApp(ZLM_APP);
+        req.setVhost(ZLM_DEFAULT_VHOST);
+        ServerResponse<?> resp = ZlmRestService.getMediaList(node.getHost(), node.getSecret(), req);
+        if (resp == null || resp.getCode() == null || resp.getCode() != 0) {
+            throw new IllegalStateException("getMediaList 失败: "
+                + (resp == null ? "响应为空" : resp.getCode() + " " + resp.getMsg()));
+        }
+        Set<String> streams = new HashSet<>();
+        if (resp.getData() == null) {
+            return streams;
+        }
+        // 同一路流每种协议各一条，按 stream 去重
+        JSONArray items = JSON.parseArray(JSON.toJSONString(resp.getData()));
+        for (int i = 0; i < items.size(); i++) {
+            JSONObject item = items.getJSONObject(i);
+            if (item != null && item.getString("stream") != null) {
+                streams.add(item.getString("stream"));
+            }
+        }
+        return streams;
+    }
+
+    private void recordNodeDuration(String serverId, long startNanos, String outcome) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder("voglander.live.reconcile.duration")
+            .description("单节点对账（拉取媒体列表 + 求差）耗时")
+            .tag("node", serverId)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 对账线程池，首次对账时创建；{@code live.reconcile.parallelism = 0} 时在调度线程同步执行（供单测与无线程池场景）。
+     */
+    private Executor reconcileExecutor() {
+        if (reconcileParallelism <= 0) {
+            return Runnable::run;
+        }
+        ExecutorService pool = reconcilePool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = reconcilePool;
+                if (pool == null) {
+                    AtomicInteger seq = new AtomicInteger();
+                    ThreadPoolExecutor created = new ThreadPoolExecutor(reconcileParallelism, reconcileParallelism,
+                        60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                            Thread t = new Thread(r, "live-reconcile-" + seq.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        });
+                    created.allowCoreThreadTimeOut(true);
+                    reconcilePool = pool = created;
+                }
+            }
+        }
+        return pool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService pool = reconcilePool;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
     /**
      * 会话创建时间在 {@link #RECONCILE_GRACE_SEC} 内则跳过（用 DB 的 createTime，LocalDateTime）。
      */
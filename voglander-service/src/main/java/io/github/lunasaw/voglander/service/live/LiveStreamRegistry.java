@@ -1,5 +1,8 @@
 package io.github.lunasaw.voglander.service.live;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -37,6 +40,20 @@ public interface LiveStreamRegistry {
      */
     long getRef(String streamId);
 
+    /**
+     * 批量读取引用计数（GC 批量排空用），默认逐个读取。
+     *
+     * @param streamIds 流标识
+     * @return streamId → 引用计数（无记录为 0）
+     */
+    default Map<String, Long> getRefs(Collection<String> streamIds) {
+        Map<String, Long> refs = new LinkedHashMap<>();
+        for (String streamId : streamIds) {
+            refs.put(streamId, getRef(streamId));
+        }
+        return refs;
+    }
+
     /**
      * 存储会话信息（默认 TTL）。
      *
@@ -1,6 +1,10 @@
 package io.github.lunasaw.voglander.service.live;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -61,7 +65,29 @@ public class RedisLiveStreamRegistry implements LiveStreamRegistry {
 
     @Override
     public long getRef(String streamId) {
-        String v = stringRedisTemplate.opsForValue().get(PREFIX_REF + streamId);
+        return parseRef(stringRedisTemplate.opsForValue().get(PREFIX_REF + streamId));
+    }
+
+    /**
+     * 一次 MGET 读取整批引用计数。
+     */
+    @Override
+    public Map<String, Long> getRefs(Collection<String> streamIds) {
+        List<String> keys = new ArrayList<>(streamIds.size());
+        for (String streamId : streamIds) {
+            keys.add(PREFIX_REF + streamId);
+        }
+        List<String> values = keys.isEmpty() ? null : stringRedisTemplate.opsForValue().multiGet(keys);
+        Map<String, Long> refs = new LinkedHashMap<>();
+        int i = 0;
+        for (String streamId : streamIds) {
+            refs.put(streamId, values == null ? 0L : parseRef(values.get(i)));
+            i++;
+        }
+        return refs;
+    }
+
+    private static long parseRef(String v) {
         if (v == null) {
             return 0;
         }
@@ -7,7 +7,6 @@ import java.util.concurrent.TimeoutException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
@@ -19,7 +18,10 @@ import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
 import io.github.lunasaw.voglander.manager.domaon.dto.MediaSessionDTO;
 import io.github.lunasaw.voglander.manager.manager.MediaSessionManager;
 import io.github.lunasaw.voglander.repository.cache.redis.RedisLockUtil;
+import io.github.lunasaw.voglander.service.live.LivePendingCloseIndex;
+import io.github.lunasaw.voglander.service.live.LivePlayCoalescer;
 import io.github.lunasaw.voglander.service.live.LiveSessionInfo;
+import io.github.lunasaw.voglander.service.live.node.MediaNodeScheduler;
 import io.github.lunasaw.voglander.service.live.LiveStreamRegistry;
 import io.github.lunasaw.voglander.service.live.MediaPlayService;
 import io.github.lunasaw.voglander.service.live.dto.LivePlayDTO;
@@ -58,19 +60,15 @@ public class MediaPlayServiceImpl implements MediaPlayService {
     private static final long    KEEPALIVE_SEC       = 3600;
     /** 分布式锁持有时间（秒），需大于首播全流程耗时 */
     private static final int     LOCK_HOLD_SEC       = 20;
-    /** 获取锁等待时间（秒） */
-    private static final int     LOCK_WAIT_SEC       = 3;
     /**
-     * refCount 归零后延迟回收窗口（秒）。
-     * <p>
-     * 必须 &gt; GC 间隔（{@link io.github.lunasaw.voglander.service.live.LiveSessionGcService} 的 60s），
-     * 否则 key 常在 GC tick 前过期 → {@code drainPendingClose} 扫不到 → 永不真实关流。取 90s 保证至少一次 tick 命中；
-     * TTL 仅作多节点兜底，不再是回收主路径。
+     * 抢锁失败（其他节点正在首播）后等待其收尾广播的上限（毫秒）：覆盖 leader 的锁持有期。
      */
-    private static final int     PENDING_CLOSE_SEC   = 90;
-
+    private static final long    REMOTE_WAIT_MS      = LOCK_HOLD_SEC * 1000L;
+    /**
+     * 本节点跟随者等待 leader 的上限（毫秒）：leader 自身最长为跨节点等待或锁持有期，再留一个持有期余量。
+     */
+    private static final long    LOCAL_JOIN_WAIT_MS  = 2 * LOCK_HOLD_SEC * 1000L;
     private static final String  LOCK_PREFIX         = "live:lock:";
-    private static final String  PENDING_CLOSE_PREFIX = "live:pending_close:";
     /** 关流去重锁前缀。ZLM onStreamChanged(regist=false) 按 schema(hls/rtmp/fmp4/ts/rtsp) 各回调一次，
      *  5 个 hook 线程并发进 closeStream，靠本锁收敛为单次真实收尾，其余直接短路。 */
     private static final String  CLOSE_LOCK_PREFIX   = "live:close:";
@@ -92,9 +90,13 @@ public class MediaPlayServiceImpl implements MediaPlayService {
     @Autowired
     private SseEventBus                 sseEventBus;
     @Autowired
-    private StringRedisTemplate         stringRedisTemplate;
+    private LivePendingCloseIndex       livePendingCloseIndex;
     @Autowired
     private io.github.lunasaw.voglander.manager.manager.DeviceChannelManager deviceChannelManager;
+    @Autowired
+    private LivePlayCoalescer           livePlayCoalescer;
+    @Autowired
+    private MediaNodeScheduler          mediaNodeScheduler;
 
     /**
      * 复用前可选探活开关（默认关闭，不污染热路径）。
@@ -107,6 +109,13 @@ public class MediaPlayServiceImpl implements MediaPlayService {
     @Value("${live.reuse-verify-enabled:false}")
     private boolean                     reuseVerifyEnabled;
 
+    /**
+     * refCount 归零后延迟回收窗口（秒）：到期后由 {@link io.github.lunasaw.voglander.service.live.LiveSessionGcService}
+     * 的下一轮 GC（60s 间隔）真实关流。默认 0 即下一轮 GC 回收；索引项不过期，不会因 GC 延迟而漏关。
+     */
+    @Value("${live.pending-close.delay-sec:0}")
+    private long                        pendingCloseDelaySec;
+
     @Override
     public LivePlayDTO startLive(LiveStartDTO dto) {
         Assert.notNull(dto, "直播请求不能为空");
@@ -121,17 +130,64 @@ public class MediaPlayServiceImpl implements MediaPlayService {
                 "通道不存在: deviceId=" + dto.getDeviceId() + ", channelId=" + dto.getChannelId());
         }
 
+        long startNanos = System.nanoTime();
         String streamId = buildLiveStreamId(dto.getDeviceId(), dto.getChannelId());
+
+        // 0. 本节点合并：同流已有在途首播则挂到 leader 的 future 上，共享同一次 INVITE
+        CompletableFuture<LiveSessionInfo> flight = new CompletableFuture<>();
+        CompletableFuture<LiveSessionInfo> leading = livePlayCoalescer.join(streamId, flight);
+        if (leading != null) {
+            LiveSessionInfo shared;
+            try {
+                shared = livePlayCoalescer.awaitLocal(leading, LOCAL_JOIN_WAIT_MS);
+            } catch (RuntimeException e) {
+                livePlayCoalescer.record(LivePlayCoalescer.PATH_LOCAL_JOIN, startNanos, false);
+                throw e;
+            }
+            liveStreamRegistry.incRef(streamId);
+            liveStreamRegistry.keepAlive(streamId, KEEPALIVE_SEC);
+            livePlayCoalescer.record(LivePlayCoalescer.PATH_LOCAL_JOIN, startNanos, true);
+            return buildDTO(streamId, shared);
+        }
+
+        String[] path = {LivePlayCoalescer.PATH_FRESH_INVITE};
+        LiveSessionInfo info = null;
+        RuntimeException failure = null;
+        try {
+            info = startLiveAsLeader(dto, streamId, path);
+            return buildDTO(streamId, info);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            livePlayCoalescer.finish(streamId, flight, info, failure,
+                LivePlayCoalescer.PATH_FRESH_INVITE.equals(path[0]));
+            livePlayCoalescer.record(path[0], startNanos, failure == null);
+        }
+    }
+
+    /**
+     * 本节点 leader 的首播流程：抢分布式锁 → 复用或建流。已为本次调用 incRef。
+     *
+     * @param path 出参，回填实际走的路径（{@code LivePlayCoalescer.PATH_*}）
+     * @return 可播会话
+     */
+    private LiveSessionInfo startLiveAsLeader(LiveStartDTO dto, String streamId, String[] path) {
         String lockKey = LOCK_PREFIX + streamId;
         String lockValue = redisLockUtil.generateLockValue();
 
-        boolean locked = Boolean.TRUE.equals(redisLockUtil.tryLock(lockKey, lockValue, LOCK_HOLD_SEC, LOCK_WAIT_SEC));
+        // 单次抢锁，不退避轮询：抢不到说明其他节点正在首播，等它的收尾广播
+        boolean locked = Boolean.TRUE.equals(redisLockUtil.lock(lockKey, lockValue, LOCK_HOLD_SEC));
         if (!locked) {
-            // 未拿到锁：可能另一线程正在首播，尝试复用已就绪会话
+            path[0] = LivePlayCoalescer.PATH_REMOTE_JOIN;
+            livePlayCoalescer.awaitRemote(streamId, REMOTE_WAIT_MS, () -> {
+                LiveSessionInfo ready = liveStreamRegistry.getSession(streamId);
+                return ready != null && isActive(ready.getStatus());
+            });
             LiveSessionInfo session = liveStreamRegistry.getSession(streamId);
             if (session != null && isActive(session.getStatus())) {
                 liveStreamRegistry.incRef(streamId);
-                return buildDTO(streamId, session);
+                return session;
             }
             throw new ServiceException(ServiceExceptionEnum.LIVE_INVITE_TIMEOUT);
         }
@@ -144,14 +200,15 @@ public class MediaPlayServiceImpl implements MediaPlayService {
                     // 缓存已死（探活查无），清掉，落入下方首播重建
                     liveStreamRegistry.remove(streamId);
                 } else {
+                    path[0] = LivePlayCoalescer.PATH_REUSE;
                     liveStreamRegistry.incRef(streamId);
                     liveStreamRegistry.keepAlive(streamId, KEEPALIVE_SEC);
-                    return buildDTO(streamId, existing);
+                    return existing;
                 }
             }
 
-            // 2. 选节点（负载均衡），亲和由 nodeServerId 持久化承载
-            ZlmNode node = selectNode();
+            // 2. 选节点（按节点负载调度），亲和由 nodeServerId 持久化承载
+            ZlmNode node = selectNode(dto.getDeviceId());
             if (node == null) {
                 throw new ServiceException(ServiceExceptionEnum.LIVE_NODE_UNAVAILABLE);
             }
@@ -223,7 +280,7 @@ public class MediaPlayServiceImpl implements MediaPlayService {
 
             log.info("直播首播建立成功, streamId={}, node={}, rtpPort={}", streamId, node.getServerId(),
                 establishResult.getRtpPort());
-            return buildDTO(streamId, info);
+            return info;
         } finally {
             redisLockUtil.unLock(lockKey, lockValue);
         }
@@ -239,8 +296,7 @@ public class MediaPlayServiceImpl implements MediaPlayService {
             return true;
         }
         // 归零：标记延迟回收，真正 BYE 由 GC drainPendingClose 执行
-        stringRedisTemplate.opsForValue().set(
-            PENDING_CLOSE_PREFIX + streamId, "1", PENDING_CLOSE_SEC, TimeUnit.SECONDS);
+        livePendingCloseIndex.mark(streamId, TimeUnit.SECONDS.toMillis(pendingCloseDelaySec));
         log.info("直播引用计数归零，标记延迟回收, streamId={}", streamId);
         return true;
     }
@@ -260,7 +316,7 @@ public class MediaPlayServiceImpl implements MediaPlayService {
         Assert.hasText(streamId, "streamId不能为空");
         liveStreamRegistry.keepAlive(streamId, KEEPALIVE_SEC);
         // 续约即取消延迟回收标记
-        stringRedisTemplate.delete(PENDING_CLOSE_PREFIX + streamId);
+        livePendingCloseIndex.cancel(streamId);
     }
 
     @Override
@@ -335,11 +391,11 @@ public class MediaPlayServiceImpl implements MediaPlayService {
             }
         }
 
-        // 3. SSE live.closed（reason 透传来源）+ 4. 清 Registry + 5. 删 pending_close key（幂等收尾，总是执行）
+        // 3. SSE live.closed（reason 透传来源）+ 4. 清 Registry + 5. 出延迟回收索引（幂等收尾，总是执行）
         sseEventBus.publish(new SseEvent("live.closed",
             java.util.Map.of("streamId", streamId, "reason", sseReason)));
         liveStreamRegistry.remove(streamId);
-        stringRedisTemplate.delete(PENDING_CLOSE_PREFIX + streamId);
+        livePendingCloseIndex.cancel(streamId);
         log.info("[closeStream] 关流完成, streamId={}, reason={}", streamId, sseReason);
     }
 
@@ -356,10 +412,21 @@ public class MediaPlayServiceImpl implements MediaPlayService {
     }
 
     /**
-     * 选节点：负载均衡主选；主选不可用时按 weight 降序从候选 enabled 节点兜底（S6.1 故障转移）。
-     * 节点亲和通过会话持久化的 nodeServerId 承载，首播按 LB 落点。
+     * 选节点：按心跳负载由 {@link MediaNodeScheduler} 调度（策略见 {@code live.node.policy}）；
+     * 调度器无候选时退回 starter 负载均衡，再按 weight 降序从候选 enabled 节点兜底（S6.1 故障转移）。
+     * 节点亲和通过会话持久化的 nodeServerId 承载，首播按调度落点。
      */
-    private ZlmNode selectNode() {
+    private ZlmNode selectNode(String deviceId) {
+        List<ZlmNode> candidates = null;
+        try {
+            candidates = nodeSupplier.getNodes();
+        } catch (Exception e) {
+            log.warn("获取候选节点列表失败: {}", e.getMessage());
+        }
+        ZlmNode scheduled = mediaNodeScheduler.select(candidates, deviceId);
+        if (scheduled != null) {
+            return scheduled;
+        }
         ZlmNode primary = null;
         try {
             primary = nodeService.selectNode();
@@ -370,12 +437,6 @@ public class MediaPlayServiceImpl implements MediaPlayService {
             return primary;
         }
         // 主选为空：按 weight 降序取候选 enabled 节点（单节点故障不再直接打断点播）
-        List<ZlmNode> candidates = null;
-        try {
-            candidates = nodeSupplier.getNodes();
-        } catch (Exception e) {
-            log.warn("获取候选节点列表失败: {}", e.getMessage());
-        }
         ZlmNode fallback = chooseNode(null, candidates);
         if (fallback != null) {
             log.warn("主选节点不可用，故障转移到候选节点: serverId={}, weight={}",
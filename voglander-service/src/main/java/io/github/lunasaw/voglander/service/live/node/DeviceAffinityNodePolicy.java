@@ -0,0 +1,71 @@
+package io.github.lunasaw.voglander.service.live.node;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.github.lunasaw.zlm.config.ZlmNode;
+
+/**
+ * 设备亲和：同一设备的首播按加权 rendezvous 哈希固定落到同一节点（重播、多通道切换可命中节点侧缓存与端口复用），
+ * 节点增减只迁移落在该节点上的设备。
+ * <p>
+ * 亲和节点的代价比当前最空节点高出 {@code live.node.affinity-spill} 以上时溢出到最空节点，
+ * 防止热点设备把单节点压垮；无亲和键时等同最小负载。
+ * </p>
+ *
+ * @author luna
+ */
+@Component
+public class DeviceAffinityNodePolicy implements NodeSelectionPolicy {
+
+    public static final String NAME = "device_affinity";
+
+    /** 允许亲和节点比最空节点多出的代价（约等于多少路流），超出即溢出 */
+    @Value("${live.node.affinity-spill:4.0}")
+    private double             spill = 4.0;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ZlmNode select(List<ZlmNode> candidates, ToDoubleFunction<ZlmNode> cost, String affinityKey) {
+        ZlmNode leastLoaded = LeastLoadedNodePolicy.leastLoaded(candidates, cost);
+        if (affinityKey == null || candidates.size() == 1) {
+            return leastLoaded;
+        }
+        ZlmNode preferred = null;
+        double bestScore = -Double.MAX_VALUE;
+        int keyHash = affinityKey.hashCode();
+        for (ZlmNode node : candidates) {
+            double score = score(keyHash, node);
+            if (score > bestScore) {
+                bestScore = score;
+                preferred = node;
+            }
+        }
+        if (cost.applyAsDouble(preferred) - cost.applyAsDouble(leastLoaded) > spill) {
+            return leastLoaded;
+        }
+        return preferred;
+    }
+
+    /**
+     * 加权 rendezvous 分数 {@code -weight / ln(u)}，u 为 (key, serverId) 的均匀哈希，权重越大胜出概率越高。
+     */
+    private static double score(int keyHash, ZlmNode node) {
+        long mixed = mix(((long)keyHash << 32) ^ (node.getServerId().hashCode() & 0xffffffffL));
+        double u = ((mixed >>> 11) + 1) * 0x1.0p-53;
+        return -Math.max(1, node.getWeight()) / Math.log(Math.min(u, 1 - 0x1.0p-53));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
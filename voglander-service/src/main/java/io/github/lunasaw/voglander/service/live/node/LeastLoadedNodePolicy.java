@@ -0,0 +1,46 @@
+package io.github.lunasaw.voglander.service.live.node;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.stereotype.Component;
+
+import io.github.lunasaw.zlm.config.ZlmNode;
+
+/**
+ * 最小负载：取代价最小的节点，代价相同取权重大的。
+ * <p>
+ * 单实例下配合 pending 计数分布最均匀；多实例共享同一份（心跳间隔内）过期负载时容易同时涌向同一节点，
+ * 多实例部署优先用 {@link PowerOfTwoChoicesNodePolicy}。
+ * </p>
+ *
+ * @author luna
+ */
+@Component
+public class LeastLoadedNodePolicy implements NodeSelectionPolicy {
+
+    public static final String NAME = "least_loaded";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ZlmNode select(List<ZlmNode> candidates, ToDoubleFunction<ZlmNode> cost, String affinityKey) {
+        return leastLoaded(candidates, cost);
+    }
+
+    static ZlmNode leastLoaded(List<ZlmNode> candidates, ToDoubleFunction<ZlmNode> cost) {
+        ZlmNode best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (ZlmNode node : candidates) {
+            double c = cost.applyAsDouble(node);
+            if (best == null || c < bestCost || (c == bestCost && node.getWeight() > best.getWeight())) {
+                best = node;
+                bestCost = c;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.lunasaw.voglander.service.live.node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.github.lunasaw.voglander.intergration.wrapper.zlm.supplier.MediaNodeLoad;
+import io.github.lunasaw.voglander.intergration.wrapper.zlm.supplier.MediaNodeTable;
+import io.github.lunasaw.zlm.config.ZlmNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 首播节点调度：按 {@link MediaNodeTable} 中的心跳负载与本实例派发计数，用可插拔策略选节点。
+ * <p>
+ * 候选只保留本实例持有新鲜心跳负载的节点（负载未知、已退出、心跳失联的剔除）；没有这样的节点时返回 null，
+ * 由调用方回退 starter 负载均衡，不拿"未知"当"空闲"。选中后立即计入该节点 pending，
+ * 下一次心跳到来前的并发首播能看到这次派发。策略按 {@code live.node.policy} 从已注册的
+ * {@link NodeSelectionPolicy} 中路由，未知名称回退 {@link PowerOfTwoChoicesNodePolicy}。
+ * </p>
+ *
+ * @author luna
+ */
+@Slf4j
+@Component
+public class MediaNodeScheduler {
+
+    private final NodeSelectionPolicy policy;
+
+    private final MediaNodeTable      mediaNodeTable;
+
+    @Autowired(required = false)
+    private MeterRegistry             meterRegistry;
+
+    @Autowired
+    public MediaNodeScheduler(List<NodeSelectionPolicy> policies, MediaNodeTable mediaNodeTable,
+        @Value("${live.node.policy:" + PowerOfTwoChoicesNodePolicy.NAME + "}") String policyName) {
+        Map<String, NodeSelectionPolicy> byName = new HashMap<>();
+        for (NodeSelectionPolicy p : policies) {
+            byName.put(p.name(), p);
+        }
+        NodeSelectionPolicy chosen = byName.get(policyName);
+        if (chosen == null) {
+            log.warn("未知选节点策略 {}，回退 {}，可选: {}", policyName, PowerOfTwoChoicesNodePolicy.NAME, byName.keySet());
+            chosen = byName.getOrDefault(PowerOfTwoChoicesNodePolicy.NAME, new PowerOfTwoChoicesNodePolicy());
+        }
+        this.policy = chosen;
+        this.mediaNodeTable = mediaNodeTable;
+        log.info("首播选节点策略: {}", policy.name());
+    }
+
+    /**
+     * 为一路首播选节点并计入派发。
+     *
+     * @param candidates  启用节点（可空）
+     * @param affinityKey 亲和键（设备 ID），可空
+     * @return 选中节点，无负载可用的候选返回 null
+     */
+    public ZlmNode select(List<ZlmNode> candidates, String affinityKey) {
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        List<ZlmNode> available = new ArrayList<>(candidates.size());
+        for (ZlmNode node : candidates) {
+            if (node == null || !node.isEnabled() || node.getServerId() == null) {
+                continue;
+            }
+            if (mediaNodeTable.isAvailable(node.getServerId(), now)) {
+                available.add(node);
+            }
+        }
+        if (available.isEmpty()) {
+            log.debug("无心跳负载可用的启用节点，交给负载均衡兜底: candidates={}", candidates.size());
+            return null;
+        }
+        ZlmNode node = policy.select(Collections.unmodifiableList(available), this::cost, affinityKey);
+        mediaNodeTable.onPlaced(node.getServerId());
+        if (meterRegistry != null) {
+            Counter.builder("voglander.live.node.select")
+                .description("首播派发到各媒体节点的次数")
+                .tag("policy", policy.name())
+                .tag("node", node.getServerId())
+                .register(meterRegistry)
+                .increment();
+        }
+        return node;
+    }
+
+    /**
+     * 当前生效的策略名。
+     */
+    public String policyName() {
+        return policy.name();
+    }
+
+    private double cost(ZlmNode node) {
+        MediaNodeLoad load = mediaNodeTable.load(node.getServerId());
+        return load == null ? Double.MAX_VALUE : load.cost(node.getWeight());
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.lunasaw.voglander.service.live.node;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import io.github.lunasaw.zlm.config.ZlmNode;
+
+/**
+ * 首播选节点策略（SPI）。实现注册为 Bean 后由 {@link MediaNodeScheduler} 按 {@link #name()} 路由，
+ * 通过 {@code live.node.policy} 切换。
+ *
+ * @author luna
+ */
+public interface NodeSelectionPolicy {
+
+    /**
+     * 策略名，对应配置 {@code live.node.policy} 的取值。
+     */
+    String name();
+
+    /**
+     * 从候选中选一个节点。
+     *
+     * @param candidates  可派发节点，非空
+     * @param cost        节点负载代价（已按权重归一，越小越空闲）
+     * @param affinityKey 亲和键（设备 ID），可空
+     * @return 选中节点
+     */
+    ZlmNode select(List<ZlmNode> candidates, ToDoubleFunction<ZlmNode> cost, String affinityKey);
+}
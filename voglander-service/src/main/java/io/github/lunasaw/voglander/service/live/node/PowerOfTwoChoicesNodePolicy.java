@@ -0,0 +1,46 @@
+package io.github.lunasaw.voglander.service.live.node;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.stereotype.Component;
+
+import io.github.lunasaw.zlm.config.ZlmNode;
+
+/**
+ * 二选一（power of two choices）：随机抽两个不同节点取代价小的。
+ * <p>
+ * 负载信息过期（心跳间隔内）或多实例并发派发时，不会所有请求都砸向同一个"最空"节点，
+ * 最大负载仍远低于纯随机。默认策略。
+ * </p>
+ *
+ * @author luna
+ */
+@Component
+public class PowerOfTwoChoicesNodePolicy implements NodeSelectionPolicy {
+
+    public static final String NAME = "p2c";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ZlmNode select(List<ZlmNode> candidates, ToDoubleFunction<ZlmNode> cost, String affinityKey) {
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ZlmNode a = candidates.get(first);
+        ZlmNode b = candidates.get(second);
+        return cost.applyAsDouble(b) < cost.applyAsDouble(a) ? b : a;
+    }
+}
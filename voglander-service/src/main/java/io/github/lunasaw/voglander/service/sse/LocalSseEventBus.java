@@ -1,20 +1,16 @@
 package io.github.lunasaw.voglander.service.sse;
 
-import java.util.concurrent.ConcurrentHashMap;
-
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.alibaba.fastjson2.JSON;
-
 import io.github.lunasaw.voglander.common.anno.TechnicalScheduler;
 import io.github.lunasaw.voglander.common.exception.ServiceException;
 import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -24,6 +20,14 @@ import lombok.extern.slf4j.Slf4j;
  * 15s 心跳维持连接（防 Nginx/代理超时断连），emitter 完成/超时/错误时自动回收。
  * </p>
  * <p>
+ * 投递经 {@link SseFanout}：按 topic 索引订阅者，每连接有界出站队列由写出线程池异步排空，
+ * 慢连接队列满或单次写出超过期限即被关闭（{@code sse.fanout.*} 配置）。
+ * </p>
+ * <p>
+ * 每条事件经 {@link SseReplayBuffer} 分配单调 ID 并按 topic 留存最近一段，重连携带 {@code Last-Event-ID}
+ * 时先补发其后的事件（{@code sse.replay.*} 配置）。
+ * </p>
+ * <p>
  * 与 {@link RedisBackedSseEventBus} 区别：不支持跨节点广播，适用于单节点部署或开发环境。
  * </p>
  *
@@ -38,24 +42,52 @@ public class LocalSseEventBus implements SseEventBus {
     private static final int                          MAX_EMITTERS = 5000;
     private static final long                         HEARTBEAT_MS = 15_000;
 
-    private final ConcurrentHashMap<String, EmitterHolder> emitters = new ConcurrentHashMap<>();
-    private final SseDeliveryAuthorizer authorizer;
+    private final SseFanout fanout;
+    private final SseReplayBuffer replayBuffer;
+    private final int replayMaxEvents;
     private final SseDomainMetrics metrics;
 
     public LocalSseEventBus(SseDeliveryAuthorizer authorizer) {
         this(authorizer, null);
     }
 
-    @org.springframework.beans.factory.annotation.Autowired
     public LocalSseEventBus(SseDeliveryAuthorizer authorizer, SseDomainMetrics metrics) {
-        this.authorizer = authorizer;
         this.metrics = metrics;
-        if (metrics != null) metrics.bindEmitterCount("LOCAL", emitters);
+        this.fanout = SseFanout.direct("LOCAL", authorizer, metrics);
+        this.replayBuffer = new SseReplayBuffer(512, 300_000L);
+        this.replayMaxEvents = 200;
+        bindReplayMetrics();
+    }
+
+    @org.springframework.beans.factory.annotation.Autowired
+    public LocalSseEventBus(SseDeliveryAuthorizer authorizer, SseDomainMetrics metrics,
+        @Value("${sse.fanout.writer-threads:4}") int writerThreads,
+        @Value("${sse.fanout.queue-capacity:256}") int queueCapacity,
+        @Value("${sse.fanout.coalesce-topics:business.task.state,device.keepalive}") String[] coalesceTopics,
+        @Value("${sse.fanout.write-timeout-ms:5000}") long writeTimeoutMs,
+        @Value("${sse.replay.capacity-per-topic:512}") int replayCapacityPerTopic,
+        @Value("${sse.replay.max-age-ms:300000}") long replayMaxAgeMs,
+        @Value("${sse.replay.max-events:200}") int replayMaxEvents) {
+        this.metrics = metrics;
+        this.fanout = new SseFanout("LOCAL", authorizer, metrics, writerThreads, queueCapacity, coalesceTopics,
+            writeTimeoutMs);
+        this.replayBuffer = new SseReplayBuffer(replayCapacityPerTopic, replayMaxAgeMs);
+        this.replayMaxEvents = replayMaxEvents;
+        bindReplayMetrics();
+    }
+
+    private void bindReplayMetrics() {
+        if (metrics != null) metrics.bindReplayBufferSize("LOCAL", replayBuffer::size);
     }
 
     @Override
     public SseEmitter register(SseSubscriptionContext context) {
-        if (emitters.size() >= MAX_EMITTERS) {
+        return register(context, null);
+    }
+
+    @Override
+    public SseEmitter register(SseSubscriptionContext context, String lastEventId) {
+        if (fanout.size() >= MAX_EMITTERS) {
             log.warn("SSE emitter 数已达上限 {}，拒绝新连接", MAX_EMITTERS);
             if (metrics != null) metrics.registrationDenied("LOCAL", "700006");
             throw new ServiceException(ServiceExceptionEnum.SSE_CONNECTION_LIMIT);
@@ -67,14 +99,18 @@ public class LocalSseEventBus implements SseEventBus {
         String emitterId = context.getEmitterId();
         /* 0L = 不超时，由心跳维持连接 */
         SseEmitter emitter = new SseEmitter(0L);
-        emitters.put(emitterId, new EmitterHolder(emitter, context));
+        boolean resume = StringUtils.hasText(lastEventId);
+        fanout.register(emitterId, emitter, context, resume);
 
-        Runnable cleanup = () -> emitters.remove(emitterId);
+        Runnable cleanup = () -> fanout.unregister(emitterId);
         emitter.onCompletion(cleanup);
         emitter.onTimeout(cleanup);
         emitter.onError(e -> cleanup.run());
         log.debug("SSE 注册成功 (本地模式), emitterId={}, topics={}, 当前连接数={}",
-            emitterId, context.getTopics(), emitters.size());
+            emitterId, context.getTopics(), fanout.size());
+        if (resume) {
+            replay(emitterId, context, lastEventId);
+        }
         return emitter;
     }
 
@@ -86,21 +122,22 @@ public class LocalSseEventBus implements SseEventBus {
 
     @Override
     public void publishLocal(SseEvent event) {
-        String data = JSON.toJSONString(event.getData());
-        emitters.forEach((id, holder) -> {
-            if (!authorizer.allow(holder.context, event)) {
-                if (metrics != null) metrics.deliveryFiltered("LOCAL");
-                return;
-            }
-            try {
-                holder.emitter.send(SseEmitter.event()
-                    .name(event.getTopic())
-                    .data(data, MediaType.APPLICATION_JSON));
-            } catch (Exception e) {
-                emitters.remove(id);
-                if (metrics != null) metrics.sendFailure("LOCAL");
-            }
-        });
+        if (event.getId() == null) {
+            replayBuffer.append(event);
+        }
+        fanout.publish(event);
+    }
+
+    /**
+     * 先注册（暂停写出）再取补发快照：两步之间发布的事件已在队列里，{@link SseFanout#resume} 按 ID 去重。
+     */
+    private void replay(String emitterId, SseSubscriptionContext context, String lastEventId) {
+        SseReplayBuffer.Replay replay = replayBuffer.since(lastEventId, context.getTopics(),
+            Math.min(replayMaxEvents, fanout.queueCapacity()));
+        int replayed = fanout.resume(emitterId, replay.events(), replay.gap());
+        if (metrics != null) metrics.replay("LOCAL", replay.gap() ? "RESET" : "REPLAYED", replay.gap() ? 0 : replayed);
+        log.debug("SSE 重连补发 (本地模式), emitterId={}, lastEventId={}, gap={}, replayed={}",
+            emitterId, lastEventId, replay.gap(), replayed);
     }
 
     /**
@@ -108,14 +145,7 @@ public class LocalSseEventBus implements SseEventBus {
      */
     @Scheduled(fixedDelay = HEARTBEAT_MS)
     public void heartbeat() {
-        emitters.forEach((id, holder) -> {
-            try {
-                holder.emitter.send(SseEmitter.event().name("ping").data(""));
-            } catch (Exception e) {
-                emitters.remove(id);
-                if (metrics != null) metrics.sendFailure("LOCAL");
-            }
-        });
+        fanout.heartbeat();
     }
 
     /**
@@ -124,13 +154,20 @@ public class LocalSseEventBus implements SseEventBus {
      * @return emitter 数量
      */
     public int emitterCount() {
-        return emitters.size();
+        return fanout.size();
+    }
+
+    /**
+     * 本节点出站队列中待写出事件总数（监控/测试用）。
+     *
+     * @return 待写出事件数
+     */
+    public int queuedEvents() {
+        return fanout.queuedTotal();
     }
 
-    @Data
-    @AllArgsConstructor
-    private static class EmitterHolder {
-        private SseEmitter  emitter;
-        private SseSubscriptionContext context;
+    @PreDestroy
+    public void shutdown() {
+        fanout.shutdown();
     }
 }
@@ -1,19 +1,29 @@
 package io.github.lunasaw.voglander.service.sse;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.alibaba.fastjson2.JSON;
@@ -21,18 +31,21 @@ import com.alibaba.fastjson2.JSON;
 import io.github.lunasaw.voglander.common.anno.TechnicalScheduler;
 import io.github.lunasaw.voglander.common.exception.ServiceException;
 import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
-import lombok.AllArgsConstructor;
-import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 基于 Redis Pub/Sub 跨节点扇出的 SSE 事件总线实现。
  * <p>
- * 本地维护 {@code emitterId -> EmitterHolder} 映射，{@link #publish} 先本地直发再广播给其他节点；
+ * 本地订阅者由 {@link SseFanout} 按 topic 索引、经每连接有界出站队列异步写出，{@link #publish} 先本地投递再广播给其他节点；
  * 其他节点经 {@link RedisMessageListenerContainer} 收到后仅本地分发（{@link #publishLocal}），避免回路。
  * 15s 心跳维持连接（防 Nginx/代理超时断连），emitter 完成/超时/错误时自动回收。
  * </p>
  * <p>
+ * 事件 ID 由 replay stream（{@code <channel>:replay}，{@code XADD MAXLEN ~} 写入即裁剪）分配，跨节点单调；
+ * 重连携带 {@code Last-Event-ID} 时分页扫描 stream 中其后的事件，只按该连接订阅的 topic 与授权计数补发，
+ * 任意节点都能接续（{@code sse.replay.*} 配置）。
+ * </p>
+ * <p>
  * 使用主 Redis-A（{@code stringRedisTemplate} / 默认 {@code redisConnectionFactory}），不混入 invite Redis-B。
  * </p>
  * <p>
@@ -52,6 +65,7 @@ public class RedisBackedSseEventBus implements SseEventBus, InitializingBean, Di
     private static final String                       DEFAULT_REDIS_CHANNEL = "sse:broadcast";
     private static final int                          MAX_EMITTERS  = 5000;
     private static final long                         HEARTBEAT_MS  = 15_000;
+    private static final int                          REPLAY_PAGE   = 256;
 
     /**
      * 本节点唯一标识（origin 回路抑制）。本实例发出的广播经 Redis 回到本节点时据此跳过二次本地分发，
@@ -65,13 +79,31 @@ public class RedisBackedSseEventBus implements SseEventBus, InitializingBean, Di
     @Autowired
     private RedisConnectionFactory                    redisConnectionFactory;
 
-    private final ConcurrentHashMap<String, EmitterHolder> emitters = new ConcurrentHashMap<>();
-    private final SseDeliveryAuthorizer authorizer;
+    private final SseFanout fanout;
     private final String redisChannel;
+    private final String replayStreamKey;
+    private long replayStreamMaxLen = 10_000L;
+    private int replayMaxEvents = 200;
     private final SseDomainMetrics metrics;
     private RedisMessageListenerContainer listenerContainer;
 
     @Autowired
+    public RedisBackedSseEventBus(SseDeliveryAuthorizer authorizer, SseDomainMetrics metrics,
+        @Value("${sse.fanout.writer-threads:4}") int writerThreads,
+        @Value("${sse.fanout.queue-capacity:256}") int queueCapacity,
+        @Value("${sse.fanout.coalesce-topics:business.task.state,device.keepalive}") String[] coalesceTopics,
+        @Value("${sse.fanout.write-timeout-ms:5000}") long writeTimeoutMs,
+        @Value("${sse.replay.stream-max-len:10000}") long replayStreamMaxLen,
+        @Value("${sse.replay.max-events:200}") int replayMaxEvents) {
+        this.metrics = metrics;
+        this.redisChannel = DEFAULT_REDIS_CHANNEL;
+        this.replayStreamKey = DEFAULT_REDIS_CHANNEL + ":replay";
+        this.replayStreamMaxLen = replayStreamMaxLen;
+        this.replayMaxEvents = replayMaxEvents;
+        this.fanout = new SseFanout("REDIS", authorizer, metrics, writerThreads, queueCapacity, coalesceTopics,
+            writeTimeoutMs);
+    }
+
     public RedisBackedSseEventBus(SseDeliveryAuthorizer authorizer, SseDomainMetrics metrics) {
         this(authorizer, metrics, DEFAULT_REDIS_CHANNEL);
     }
@@ -85,15 +117,20 @@ public class RedisBackedSseEventBus implements SseEventBus, InitializingBean, Di
     }
 
     RedisBackedSseEventBus(SseDeliveryAuthorizer authorizer, SseDomainMetrics metrics, String redisChannel) {
-        this.authorizer = authorizer;
         this.metrics = metrics;
         this.redisChannel = redisChannel;
-        if (metrics != null) metrics.bindEmitterCount("REDIS", emitters);
+        this.replayStreamKey = redisChannel + ":replay";
+        this.fanout = SseFanout.direct("REDIS", authorizer, metrics);
     }
 
     @Override
     public SseEmitter register(SseSubscriptionContext context) {
-        if (emitters.size() >= MAX_EMITTERS) {
+        return register(context, null);
+    }
+
+    @Override
+    public SseEmitter register(SseSubscriptionContext context, String lastEventId) {
+        if (fanout.size() >= MAX_EMITTERS) {
             log.warn("SSE emitter 数已达上限 {}，拒绝新连接", MAX_EMITTERS);
             if (metrics != null) metrics.registrationDenied("REDIS", "700006");
             throw new ServiceException(ServiceExceptionEnum.SSE_CONNECTION_LIMIT);
@@ -105,14 +142,18 @@ public class RedisBackedSseEventBus implements SseEventBus, InitializingBean, Di
         String emitterId = context.getEmitterId();
         // 0L = 不超时，由心跳维持连接
         SseEmitter emitter = new SseEmitter(0L);
-        emitters.put(emitterId, new EmitterHolder(emitter, context));
+        boolean resume = StringUtils.hasText(lastEventId);
+        fanout.register(emitterId, emitter, context, resume);
 
-        Runnable cleanup = () -> emitters.remove(emitterId);
+        Runnable cleanup = () -> fanout.unregister(emitterId);
         emitter.onCompletion(cleanup);
         emitter.onTimeout(cleanup);
         emitter.onError(e -> cleanup.run());
         log.debug("SSE 注册成功, emitterId={}, topics={}, 当前连接数={}",
-            emitterId, context.getTopics(), emitters.size());
+            emitterId, context.getTopics(), fanout.size());
+        if (resume) {
+            replay(emitterId, context, lastEventId);
+        }
         return emitter;
     }
 
@@ -120,6 +161,8 @@ public class RedisBackedSseEventBus implements SseEventBus, InitializingBean, Di
     public void publish(SseEvent event) {
         // 标记本节点为来源，供回路抑制
         event.setOriginId(nodeId);
+        // 写 replay stream 取得跨节点单调的事件 ID，失败时事件不带 ID 照常投递
+        appendToReplayStream(event);
         // 本节点直发 + 广播给其他节点
         publishLocal(event);
         try {
@@ -149,21 +192,94 @@ public class RedisBackedSseEventBus implements SseEventBus, InitializingBean, Di
 
     @Override
     public void publishLocal(SseEvent event) {
-        String data = JSON.toJSONString(event.getData());
-        emitters.forEach((id, holder) -> {
-            if (!authorizer.allow(holder.context, event)) {
-                if (metrics != null) metrics.deliveryFiltered("REDIS");
-                return;
+        fanout.publish(event);
+    }
+
+    private void appendToReplayStream(SseEvent event) {
+        try {
+            Map<String, String> fields = new HashMap<>();
+            fields.put("topic", event.getTopic());
+            fields.put("data", JSON.toJSONString(event.getData()));
+            RecordId recordId = stringRedisTemplate.opsForStream().add(
+                StreamRecords.newRecord().in(replayStreamKey).ofMap(fields),
+                XAddOptions.maxlen(replayStreamMaxLen).approximateTrimming(true));
+            if (recordId != null) {
+                event.setId(recordId.getValue());
             }
-            try {
-                holder.emitter.send(SseEmitter.event()
-                    .name(event.getTopic())
-                    .data(data, MediaType.APPLICATION_JSON));
-            } catch (Exception e) {
-                emitters.remove(id);
-                if (metrics != null) metrics.sendFailure("REDIS");
+        } catch (Exception e) {
+            log.warn("SSE replay stream 写入失败, topic={}", event.getTopic(), e);
+        }
+    }
+
+    /**
+     * 从 replay stream 补发 {@code lastEventId} 之后该连接订阅且有权接收的事件。stream 中已找不到 {@code lastEventId}
+     * （被裁剪或来自其他环境）或命中的事件超过补发上限时按缺口处理，只下发 {@code replay.reset}。
+     */
+    private void replay(String emitterId, SseSubscriptionContext context, String lastEventId) {
+        String result;
+        int replayed = 0;
+        try {
+            if (!SseReplayBuffer.isValidId(lastEventId)) {
+                fanout.resume(emitterId, List.of(), true);
+                result = "RESET";
+            } else {
+                int limit = Math.min(replayMaxEvents, fanout.queueCapacity());
+                List<SseEvent> events = new ArrayList<>();
+                boolean gap = !collectReplay(emitterId, context, lastEventId, limit, events);
+                replayed = fanout.resume(emitterId, gap ? List.of() : events, gap);
+                result = gap ? "RESET" : "REPLAYED";
             }
-        });
+        } catch (Exception e) {
+            log.warn("SSE replay stream 读取失败，通知客户端重置, emitterId={}", emitterId, e);
+            fanout.resume(emitterId, List.of(), true);
+            result = "FAILED";
+        }
+        if (metrics != null) metrics.replay("REDIS", result, "REPLAYED".equals(result) ? replayed : 0);
+    }
+
+    /**
+     * 从 {@code lastEventId} 起分页扫描 stream（每页以上一页末条 ID 为闭区间起点，跳过重复的首条），
+     * 先按订阅 topic、再按授权过滤后才计入上限，其他 topic 的事件再多也不会把安静订阅判成缺口。
+     * 扫描量受 stream 的 {@code MAXLEN} 约束。
+     *
+     * @return false 表示缺口：{@code lastEventId} 已不在 stream 中，或命中的事件超过 {@code limit}
+     */
+    private boolean collectReplay(String emitterId, SseSubscriptionContext context, String lastEventId, int limit,
+        List<SseEvent> events) {
+        String cursor = lastEventId;
+        boolean first = true;
+        while (true) {
+            List<MapRecord<String, Object, Object>> page = stringRedisTemplate.opsForStream()
+                .range(replayStreamKey, Range.rightUnbounded(Range.Bound.inclusive(cursor)),
+                    Limit.limit().count(REPLAY_PAGE));
+            if (page == null || page.isEmpty()) {
+                return !first;
+            }
+            boolean overlaps = cursor.equals(page.get(0).getId().getValue());
+            if (first && !overlaps) {
+                return false;
+            }
+            first = false;
+            for (MapRecord<String, Object, Object> record : page.subList(overlaps ? 1 : 0, page.size())) {
+                String topic = String.valueOf(record.getValue().get("topic"));
+                if (!SseReplayBuffer.subscribed(context.getTopics(), topic)) {
+                    continue;
+                }
+                SseEvent event = new SseEvent(topic, JSON.parse(String.valueOf(record.getValue().get("data"))));
+                event.setId(record.getId().getValue());
+                if (!fanout.allows(emitterId, event)) {
+                    continue;
+                }
+                if (events.size() >= limit) {
+                    return false;
+                }
+                events.add(event);
+            }
+            if (page.size() < REPLAY_PAGE) {
+                return true;
+            }
+            cursor = page.get(page.size() - 1).getId().getValue();
+        }
     }
 
     /**
@@ -171,14 +287,7 @@ public class RedisBackedSseEventBus implements SseEventBus, InitializingBean, Di
      */
     @Scheduled(fixedDelay = HEARTBEAT_MS)
     public void heartbeat() {
-        emitters.forEach((id, holder) -> {
-            try {
-                holder.emitter.send(SseEmitter.event().name("ping").data(""));
-            } catch (Exception e) {
-                emitters.remove(id);
-                if (metrics != null) metrics.sendFailure("REDIS");
-            }
-        });
+        fanout.heartbeat();
     }
 
     /**
@@ -187,7 +296,16 @@ public class RedisBackedSseEventBus implements SseEventBus, InitializingBean, Di
      * @return emitter 数量
      */
     public int emitterCount() {
-        return emitters.size();
+        return fanout.size();
+    }
+
+    /**
+     * 本节点出站队列中待写出事件总数（监控/测试用）。
+     *
+     * @return 待写出事件数
+     */
+    public int queuedEvents() {
+        return fanout.queuedTotal();
     }
 
     /**
@@ -213,8 +331,8 @@ public class RedisBackedSseEventBus implements SseEventBus, InitializingBean, Di
 
     @Override
     public void destroy() {
-        emitters.forEach((id, holder) -> holder.emitter.complete());
-        emitters.clear();
+        fanout.completeAll();
+        fanout.shutdown();
         RedisMessageListenerContainer container = listenerContainer;
         listenerContainer = null;
         if (container != null) {
@@ -225,11 +343,4 @@ public class RedisBackedSseEventBus implements SseEventBus, InitializingBean, Di
             }
         }
     }
-
-    @Data
-    @AllArgsConstructor
-    private static class EmitterHolder {
-        private SseEmitter  emitter;
-        private SseSubscriptionContext context;
-    }
 }
@@ -1,6 +1,7 @@
 package io.github.lunasaw.voglander.service.sse;
 
 import java.util.Map;
+import java.util.function.IntSupplier;
 
 import org.springframework.stereotype.Component;
 
@@ -23,6 +24,35 @@ public class SseDomainMetrics {
             .tag("bus_type", busType(busType)).register(registry);
     }
 
+    public void bindOutboundQueueDepth(String busType, IntSupplier queued) {
+        Gauge.builder("sse_outbound_queue_depth", queued, value -> value.getAsInt()).strongReference(true)
+            .tag("bus_type", busType(busType)).register(registry);
+    }
+
+    public void slowConsumerEvicted(String busType) {
+        Counter.builder("sse_slow_consumer_evictions_total").tag("bus_type", busType(busType))
+            .register(registry).increment();
+    }
+
+    public void eventCoalesced(String busType) {
+        Counter.builder("sse_events_coalesced_total").tag("bus_type", busType(busType))
+            .register(registry).increment();
+    }
+
+    public void bindReplayBufferSize(String busType, IntSupplier buffered) {
+        Gauge.builder("sse_replay_buffer_events", buffered, value -> value.getAsInt()).strongReference(true)
+            .tag("bus_type", busType(busType)).register(registry);
+    }
+
+    public void replay(String busType, String result, int events) {
+        Counter.builder("sse_replay_requests_total").tag("bus_type", busType(busType))
+            .tag("result", replayResult(result)).register(registry).increment();
+        if (events > 0) {
+            Counter.builder("sse_replayed_events_total").tag("bus_type", busType(busType))
+                .register(registry).increment(events);
+        }
+    }
+
     public void registrationDenied(String busType, String stableErrorCode) {
         Counter.builder("sse_registration_denied_total").tag("bus_type", busType(busType))
             .tag("stable_error_code", errorCode(stableErrorCode)).register(registry).increment();
@@ -42,6 +72,10 @@ public class SseDomainMetrics {
         return "LOCAL".equals(value) || "REDIS".equals(value) ? value : "UNKNOWN";
     }
 
+    private String replayResult(String value) {
+        return "REPLAYED".equals(value) || "RESET".equals(value) || "FAILED".equals(value) ? value : "UNKNOWN";
+    }
+
     private String errorCode(String value) {
         return "700006".equals(value) || "700007".equals(value) ? value : "UNKNOWN";
     }
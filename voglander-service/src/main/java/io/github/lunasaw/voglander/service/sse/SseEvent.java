@@ -10,6 +10,8 @@ import lombok.NoArgsConstructor;
  * {@code topic} 用于 emitter 订阅匹配与 SSE {@code event:} 字段（如 {@code live.ready}、{@code device.online}）；
  * {@code data} 为事件体，下发前整体 FastJSON2 序列化。
  * {@code originId} 标记发布节点（回路抑制用，见 {@link RedisBackedSseEventBus}）。
+ * {@code id} 为单调递增的事件 ID（{@code <毫秒>-<序号>}），下发为 SSE {@code id:} 字段，供断线重连按
+ * {@code Last-Event-ID} 补发（见 {@link SseReplayBuffer}）。
  * </p>
  *
  * @author luna
@@ -36,6 +38,12 @@ public class SseEvent {
      */
     private String originId;
 
+    /**
+     * 事件 ID：本地模式由 {@link SseReplayBuffer} 分配，Redis 模式为 replay stream 的记录 ID，跨节点单调。
+     * 未分配（如 replay stream 写入失败）时为 null，下发不带 {@code id:}。
+     */
+    private String id;
+
     /**
      * 业务构造：仅 topic + data，originId 由 {@code publish} 阶段回填。保持既有调用方兼容。
      *
@@ -21,6 +21,18 @@ public interface SseEventBus {
      */
     SseEmitter register(SseSubscriptionContext context);
 
+    /**
+     * 断线重连注册：先补发 {@code lastEventId} 之后的事件（同样逐条授权），再接实时事件；
+     * 补发窗口已丢失时只下发一条 {@code replay.reset}，由客户端全量刷新。
+     *
+     * @param context     已认证且已授权的连接上下文
+     * @param lastEventId 客户端 {@code Last-Event-ID}，为空时等同 {@link #register(SseSubscriptionContext)}
+     * @return SseEmitter（交由 Spring MVC 异步写出）
+     */
+    default SseEmitter register(SseSubscriptionContext context, String lastEventId) {
+        return register(context);
+    }
+
     /**
      * 投递事件：本节点直发 + 广播给其他节点。
      *
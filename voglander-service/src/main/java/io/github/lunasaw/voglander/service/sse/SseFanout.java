@@ -0,0 +1,554 @@
+package io.github.lunasaw.voglander.service.sse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.alibaba.fastjson2.JSON;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SSE 本地扇出：按 topic 索引订阅者，每个订阅者一条有界出站队列，由写出线程池异步排空。
+ * <p>
+ * 发布只查事件 topic 及其各级前缀（{@code business.task.state} → {@code business.task} → {@code business}）
+ * 命中的订阅者，成本随感兴趣的订阅者数而非连接总数增长；数据只序列化一次。
+ * 发布线程只做入队，慢连接不再阻塞发布方（设备事件分片线程 / Redis 监听线程）。
+ * </p>
+ * <ul>
+ * <li>合并：{@code coalesceTopics} 每一项是一个 topic 族（该 topic 及其子 topic），族内按 (族, taskId/deviceId/streamId) 合并，
+ * 队列里尚未写出的旧值被移除，新值排到队尾，客户端最终看到的一定是该作用域最后发生的事件；心跳 ping 原位合并。
+ * 因此只应配置"新事件完全覆盖旧事件"的族，互不覆盖的多个 topic 放在同一族里会丢事件。消费跟得上时队列为空，不会发生合并。</li>
+ * <li>溢出：队列满即视为慢消费者，关闭连接并移出索引（前端 EventSource 自动重连）。</li>
+ * <li>写出期限：有写出线程池时每次 {@code send} 交给发送线程执行，写出线程最多等待 {@code writeTimeoutMs}；
+ * 超时即按慢消费者关闭连接，卡住的只是该连接的发送线程，少数不读数据的 TCP 连接占不满写出线程池。</li>
+ * <li>{@code writerThreads = 0} 时在发布线程同步写出（旧行为，供单测与无线程池场景）。</li>
+ * </ul>
+ *
+ * @author luna
+ */
+@Slf4j
+final class SseFanout {
+
+    private static final Outbound                            RESET       = new Outbound(null, "replay.reset",
+        "{\"reason\":\"replay_gap\"}", null);
+
+    private static final Outbound                            PING        = new Outbound(null, "ping", "", "ping");
+
+    private static final String[]                            SCOPE_KEYS  = {"taskId", "deviceId", "streamId"};
+
+    static final long                                        DEFAULT_WRITE_TIMEOUT_MS = 5_000L;
+
+    private final String                                     busType;
+
+    private final SseDeliveryAuthorizer                      authorizer;
+
+    private final SseDomainMetrics                           metrics;
+
+    private final int                                        queueCapacity;
+
+    private final String[]                                   coalesceTopics;
+
+    private final ExecutorService                            writer;
+
+    private final ExecutorService                            sender;
+
+    private final long                                       writeTimeoutMs;
+
+    private final ConcurrentHashMap<String, Subscriber>      subscribers = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Set<Subscriber>> byTopic     = new ConcurrentHashMap<>();
+
+    SseFanout(String busType, SseDeliveryAuthorizer authorizer, SseDomainMetrics metrics, int writerThreads,
+        int queueCapacity, String[] coalesceTopics) {
+        this(busType, authorizer, metrics, writerThreads, queueCapacity, coalesceTopics, DEFAULT_WRITE_TIMEOUT_MS);
+    }
+
+    /**
+     * @param writeTimeoutMs 单次写出期限，≤0 表示不设期限（在写出线程上直接写）；仅在 {@code writerThreads > 0} 时生效
+     */
+    SseFanout(String busType, SseDeliveryAuthorizer authorizer, SseDomainMetrics metrics, int writerThreads,
+        int queueCapacity, String[] coalesceTopics, long writeTimeoutMs) {
+        this.busType = busType;
+        this.authorizer = authorizer;
+        this.metrics = metrics;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.coalesceTopics = coalesceTopics != null ? coalesceTopics : new String[0];
+        this.writer = writerThreads > 0 ? newWriterPool(busType, writerThreads) : null;
+        this.writeTimeoutMs = writeTimeoutMs;
+        this.sender = writer != null && writeTimeoutMs > 0 ? newSenderPool(busType) : null;
+        if (metrics != null) {
+            metrics.bindEmitterCount(busType, subscribers);
+            metrics.bindOutboundQueueDepth(busType, this::queuedTotal);
+        }
+    }
+
+    /**
+     * 同步写出（writerThreads = 0），默认队列容量，不做 topic 合并。
+     */
+    static SseFanout direct(String busType, SseDeliveryAuthorizer authorizer, SseDomainMetrics metrics) {
+        return new SseFanout(busType, authorizer, metrics, 0, 256, null);
+    }
+
+    void register(String emitterId, SseEmitter emitter, SseSubscriptionContext context) {
+        register(emitterId, emitter, context, false);
+    }
+
+    /**
+     * @param paused true 时先只入队不写出，等 {@link #resume} 把补发事件排到队首后再开始写出（断线重连补发）
+     */
+    void register(String emitterId, SseEmitter emitter, SseSubscriptionContext context, boolean paused) {
+        Subscriber subscriber = new Subscriber(emitterId, emitter, context, paused);
+        subscribers.put(emitterId, subscriber);
+        for (String topic : context.getTopics()) {
+            byTopic.computeIfAbsent(topic, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+    }
+
+    void unregister(String emitterId) {
+        Subscriber subscriber = subscribers.remove(emitterId);
+        if (subscriber == null) {
+            return;
+        }
+        subscriber.close();
+        for (String topic : subscriber.context.getTopics()) {
+            byTopic.computeIfPresent(topic, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    int size() {
+        return subscribers.size();
+    }
+
+    int queueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * 把补发事件（ID 升序）排到暂停连接的队首并开始写出。暂停期间已入队的实时事件若 ID 不大于某条补发事件，
+     * 该补发事件跳过，避免重复；{@code reset = true} 时只下发一条 {@code replay.reset}，提示客户端全量刷新。
+     *
+     * @return 实际排入的补发事件数
+     */
+    int resume(String emitterId, List<SseEvent> replay, boolean reset) {
+        Subscriber subscriber = subscribers.get(emitterId);
+        if (subscriber == null) {
+            return 0;
+        }
+        List<Outbound> head = new ArrayList<>();
+        if (reset) {
+            head.add(RESET);
+        } else {
+            for (SseEvent event : replay) {
+                if (authorizer.allow(subscriber.context, event)) {
+                    head.add(new Outbound(event.getId(), event.getTopic(), JSON.toJSONString(event.getData()), null));
+                }
+            }
+        }
+        int[] added = new int[1];
+        if (subscriber.resume(head, added)) {
+            schedule(subscriber);
+        }
+        return added[0];
+    }
+
+    /**
+     * 补发候选的授权判定，与实时投递同一规则；订阅者已不在时返回 false。
+     */
+    boolean allows(String emitterId, SseEvent event) {
+        Subscriber subscriber = subscribers.get(emitterId);
+        return subscriber != null && authorizer.allow(subscriber.context, event);
+    }
+
+    /**
+     * 投递到本节点匹配 topic 且授权通过的订阅者。
+     */
+    void publish(SseEvent event) {
+        List<Subscriber> targets = candidates(event.getTopic());
+        if (targets.isEmpty()) {
+            return;
+        }
+        Outbound outbound = null;
+        for (Subscriber subscriber : targets) {
+            if (!authorizer.allow(subscriber.context, event)) {
+                if (metrics != null) metrics.deliveryFiltered(busType);
+                continue;
+            }
+            if (outbound == null) {
+                outbound = new Outbound(event.getId(), event.getTopic(), JSON.toJSONString(event.getData()),
+                    coalesceKey(event));
+            }
+            enqueue(subscriber, outbound);
+        }
+    }
+
+    /**
+     * 每个订阅者入队一个 ping（已有未写出的 ping 则合并），写失败即回收死连接。
+     */
+    void heartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            enqueue(subscriber, PING);
+        }
+    }
+
+    /**
+     * 关闭全部连接并清空索引（节点下线时调用）。
+     */
+    void completeAll() {
+        for (Subscriber subscriber : subscribers.values()) {
+            unregister(subscriber.id);
+            try {
+                subscriber.emitter.complete();
+            } catch (Exception ignore) {
+                // 连接可能已断开
+            }
+        }
+    }
+
+    void shutdown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+        if (sender != null) {
+            sender.shutdownNow();
+        }
+    }
+
+    int queuedTotal() {
+        int total = 0;
+        for (Subscriber subscriber : subscribers.values()) {
+            total += subscriber.queued();
+        }
+        return total;
+    }
+
+    private List<Subscriber> candidates(String topic) {
+        if (topic == null) {
+            return Collections.emptyList();
+        }
+        List<Subscriber> result = new ArrayList<>();
+        Set<Subscriber> seen = null;
+        String prefix = topic;
+        int matchedSets = 0;
+        while (true) {
+            Set<Subscriber> set = byTopic.get(prefix);
+            if (set != null && !set.isEmpty()) {
+                if (++matchedSets > 1 && seen == null) {
+                    // 同一订阅者可能同时订阅了前缀与完整 topic，多于一组命中时才去重
+                    seen = Collections.newSetFromMap(new IdentityHashMap<>());
+                    seen.addAll(result);
+                }
+                for (Subscriber subscriber : set) {
+                    if (seen == null || seen.add(subscriber)) {
+                        result.add(subscriber);
+                    }
+                }
+            }
+            int dot = prefix.lastIndexOf('.');
+            if (dot <= 0) {
+                return result;
+            }
+            prefix = prefix.substring(0, dot);
+        }
+    }
+
+    private String coalesceKey(SseEvent event) {
+        String topic = event.getTopic();
+        String family = null;
+        for (String candidate : coalesceTopics) {
+            if (topic.equals(candidate) || topic.startsWith(candidate + ".")) {
+                family = candidate;
+                break;
+            }
+        }
+        if (family == null || !(event.getData() instanceof Map<?, ?> data)) {
+            return null;
+        }
+        // 按族而非完整 topic 取 key：同一作用域的状态迁移（如 online → offline）互相覆盖，不会各留一条
+        for (String scopeKey : SCOPE_KEYS) {
+            Object scope = data.get(scopeKey);
+            if (scope != null) {
+                return family + '#' + scope;
+            }
+        }
+        return null;
+    }
+
+    private void enqueue(Subscriber subscriber, Outbound outbound) {
+        int result = subscriber.offer(outbound, queueCapacity);
+        if (result == Subscriber.COALESCED) {
+            if (metrics != null) metrics.eventCoalesced(busType);
+            return;
+        }
+        if (result == Subscriber.OVERFLOW) {
+            log.warn("SSE 慢消费者出站队列已满，关闭连接 - emitterId={}, capacity={}", subscriber.id, queueCapacity);
+            if (metrics != null) metrics.slowConsumerEvicted(busType);
+            unregister(subscriber.id);
+            closeEmitter(subscriber, null);
+            return;
+        }
+        if (result == Subscriber.SCHEDULE) {
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (writer != null) {
+            writer.execute(() -> drain(subscriber));
+        } else {
+            drain(subscriber);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        Outbound next;
+        while ((next = subscriber.poll()) != null) {
+            try {
+                if (next == PING) {
+                    send(subscriber, SseEmitter.event().name("ping").data(""));
+                } else {
+                    SseEmitter.SseEventBuilder builder = SseEmitter.event();
+                    if (next.id != null) {
+                        builder.id(next.id);
+                    }
+                    send(subscriber, builder.name(next.topic).data(next.data, MediaType.APPLICATION_JSON));
+                }
+            } catch (TimeoutException e) {
+                log.warn("SSE 写出超过期限，按慢消费者关闭连接 - emitterId={}, timeoutMs={}", subscriber.id,
+                    writeTimeoutMs);
+                if (metrics != null) metrics.slowConsumerEvicted(busType);
+                unregister(subscriber.id);
+                closeEmitter(subscriber, e);
+                return;
+            } catch (Exception e) {
+                unregister(subscriber.id);
+                if (metrics != null) metrics.sendFailure(busType);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 有发送线程池时在其上写出并限时等待；超时取消发送（中断发送线程）并抛出 {@link TimeoutException}。
+     */
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws Exception {
+        if (sender == null) {
+            subscriber.emitter.send(event);
+            return;
+        }
+        Future<?> sending = sender.submit(() -> {
+            subscriber.emitter.send(event);
+            return null;
+        });
+        try {
+            sending.get(writeTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            sending.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * 关闭被淘汰的连接。emitter 的完成与写出共用同一把锁，写出卡住时在调用线程完成会被一起卡住，
+     * 因此有发送线程池时交给它异步完成，发布线程与写出线程都不等待。
+     */
+    private void closeEmitter(Subscriber subscriber, Throwable error) {
+        Runnable close = () -> {
+            try {
+                if (error != null) {
+                    subscriber.emitter.completeWithError(error);
+                } else {
+                    subscriber.emitter.complete();
+                }
+            } catch (Exception ignore) {
+                // 连接可能已断开
+            }
+        };
+        if (sender == null) {
+            close.run();
+            return;
+        }
+        try {
+            sender.execute(close);
+        } catch (RuntimeException ignore) {
+            // 已关闭：节点下线时由 completeAll 收尾
+        }
+    }
+
+    /**
+     * 发送线程按需创建、空闲回收；卡住的发送只占用自己的线程，且该连接随即被关闭，不会再提交新的发送。
+     */
+    private static ExecutorService newSenderPool(String busType) {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "sse-sender-" + busType.toLowerCase() + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static ExecutorService newWriterPool(String busType, int threads) {
+        AtomicInteger seq = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "sse-writer-" + busType.toLowerCase() + "-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * 一条待写出事件；data 已序列化，多个订阅者共享同一实例。
+     */
+    private record Outbound(String id, String topic, String data, String coalesceKey) {
+    }
+
+    /**
+     * 单个连接的出站队列。队列与排空标记在自身监视器内读写；同一时刻至多一个排空任务，保证单连接内按序写出。
+     */
+    private static final class Subscriber {
+
+        static final int                    QUEUED    = 0;
+
+        static final int                    SCHEDULE  = 1;
+
+        static final int                    COALESCED = 2;
+
+        static final int                    OVERFLOW  = 3;
+
+        static final int                    CLOSED    = 4;
+
+        final String                        id;
+
+        final SseEmitter                    emitter;
+
+        final SseSubscriptionContext        context;
+
+        private final ArrayDeque<Slot>      queue     = new ArrayDeque<>();
+
+        private final Map<String, Slot>     pending   = new HashMap<>();
+
+        private boolean                     draining;
+
+        private boolean                     closed;
+
+        Subscriber(String id, SseEmitter emitter, SseSubscriptionContext context, boolean paused) {
+            this.id = id;
+            this.emitter = emitter;
+            this.context = context;
+            // 暂停 = 占住排空标记，offer 只入队不调度，直到 resume
+            this.draining = paused;
+        }
+
+        synchronized int offer(Outbound outbound, int capacity) {
+            if (closed) {
+                return CLOSED;
+            }
+            if (outbound.coalesceKey != null) {
+                Slot slot = pending.get(outbound.coalesceKey);
+                if (slot != null) {
+                    if (outbound != PING) {
+                        // 旧值出队、新值排到队尾，保证同一作用域的事件与其他事件之间仍按发生顺序写出
+                        queue.removeFirstOccurrence(slot);
+                        queue.addLast(slot);
+                    }
+                    slot.value = outbound;
+                    return COALESCED;
+                }
+            }
+            if (queue.size() >= capacity) {
+                return OVERFLOW;
+            }
+            Slot slot = new Slot(outbound);
+            queue.addLast(slot);
+            if (outbound.coalesceKey != null) {
+                pending.put(outbound.coalesceKey, slot);
+            }
+            if (draining) {
+                return QUEUED;
+            }
+            draining = true;
+            return SCHEDULE;
+        }
+
+        synchronized Outbound poll() {
+            Slot slot = queue.pollFirst();
+            if (slot == null || closed) {
+                draining = false;
+                return null;
+            }
+            if (slot.value.coalesceKey != null) {
+                pending.remove(slot.value.coalesceKey, slot);
+            }
+            return slot.value;
+        }
+
+        /**
+         * @return 是否需要调度排空
+         */
+        synchronized boolean resume(List<Outbound> head, int[] added) {
+            if (closed) {
+                return false;
+            }
+            Outbound firstLive = queue.isEmpty() ? null : queue.peekFirst().value;
+            for (int i = head.size() - 1; i >= 0; i--) {
+                Outbound outbound = head.get(i);
+                if (outbound.id != null && firstLive != null && firstLive.id != null
+                    && SseReplayBuffer.compare(outbound.id, firstLive.id) >= 0) {
+                    continue;
+                }
+                queue.addFirst(new Slot(outbound));
+                added[0]++;
+            }
+            if (queue.isEmpty()) {
+                draining = false;
+                return false;
+            }
+            return true;
+        }
+
+        synchronized int queued() {
+            return queue.size();
+        }
+
+        synchronized void close() {
+            closed = true;
+            queue.clear();
+            pending.clear();
+        }
+    }
+
+    private static final class Slot {
+
+        Outbound value;
+
+        Slot(Outbound value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package io.github.lunasaw.voglander.service.sse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SSE 本地补发缓冲：按 topic 根（{@code device} / {@code live} / {@code business.task} …）各一条有界环形缓冲，
+ * 为事件分配单调 ID，断线重连时按 {@code Last-Event-ID} 取回其后的事件。
+ * <p>
+ * 事件 ID 格式与 Redis Stream 记录 ID 一致：{@code <毫秒>-<序号>}，两种模式共用 {@link #compare}。
+ * 每条缓冲最多保留 {@code capacityPerTopic} 条、最长 {@code maxAgeMs}，超出即淘汰并记下淘汰水位；
+ * 客户端的 {@code Last-Event-ID} 早于淘汰水位或早于本进程启动时，中间事件已无法补齐，返回缺口（gap），
+ * 由客户端走 REST 全量刷新。
+ * </p>
+ *
+ * @author luna
+ */
+final class SseReplayBuffer {
+
+    private final int                 capacityPerTopic;
+
+    private final long                maxAgeMs;
+
+    private final Map<String, Ring>   rings = new HashMap<>();
+
+    private final String              startId;
+
+    private long                      lastMs;
+
+    private long                      seq;
+
+    private int                       size;
+
+    SseReplayBuffer(int capacityPerTopic, long maxAgeMs) {
+        this.capacityPerTopic = Math.max(1, capacityPerTopic);
+        this.maxAgeMs = maxAgeMs;
+        this.lastMs = System.currentTimeMillis();
+        this.startId = lastMs + "-0";
+    }
+
+    /**
+     * 分配 ID 并写入缓冲；分配与入环在同一把锁内，保证每条环内 ID 有序。
+     */
+    synchronized void append(SseEvent event) {
+        long now = System.currentTimeMillis();
+        if (now > lastMs) {
+            lastMs = now;
+            seq = 0;
+        } else {
+            seq++;
+        }
+        event.setId(lastMs + "-" + seq);
+        Ring ring = rings.computeIfAbsent(SseSubscriptionContext.rootOf(event.getTopic()), k -> new Ring());
+        ring.entries.addLast(new Entry(now, event));
+        size++;
+        if (ring.entries.size() > capacityPerTopic) {
+            evictFirst(ring);
+        }
+        expire(ring, now);
+    }
+
+    /**
+     * 取 {@code lastEventId} 之后、命中订阅 topic 的事件（按 ID 升序）。授权由投递侧逐条判断。
+     *
+     * @param lastEventId 客户端最后收到的事件 ID
+     * @param topics      订阅的 topic 集合
+     * @param maxEvents   补发上限，超过按缺口处理
+     * @return 补发结果
+     */
+    synchronized Replay since(String lastEventId, Set<String> topics, int maxEvents) {
+        if (!isValidId(lastEventId) || compare(lastEventId, startId) < 0) {
+            return Replay.GAP;
+        }
+        long now = System.currentTimeMillis();
+        Set<String> roots = new HashSet<>();
+        for (String topic : topics) {
+            roots.add(SseSubscriptionContext.rootOf(topic));
+        }
+        List<SseEvent> events = new ArrayList<>();
+        for (String root : roots) {
+            Ring ring = rings.get(root);
+            if (ring == null) {
+                continue;
+            }
+            expire(ring, now);
+            if (ring.evictedUpTo != null && compare(lastEventId, ring.evictedUpTo) < 0) {
+                return Replay.GAP;
+            }
+            for (Entry entry : ring.entries) {
+                SseEvent event = entry.event;
+                if (compare(event.getId(), lastEventId) > 0 && subscribed(topics, event.getTopic())) {
+                    events.add(event);
+                }
+            }
+        }
+        if (events.size() > maxEvents) {
+            return Replay.GAP;
+        }
+        events.sort((a, b) -> compare(a.getId(), b.getId()));
+        return new Replay(false, events);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private void expire(Ring ring, long now) {
+        if (maxAgeMs <= 0) {
+            return;
+        }
+        while (!ring.entries.isEmpty() && now - ring.entries.peekFirst().timestampMs > maxAgeMs) {
+            evictFirst(ring);
+        }
+    }
+
+    private void evictFirst(Ring ring) {
+        Entry evicted = ring.entries.pollFirst();
+        ring.evictedUpTo = evicted.event.getId();
+        size--;
+    }
+
+    /**
+     * 订阅集合是否覆盖该 topic（精确匹配或 {@code 前缀.} 订阅）。
+     */
+    static boolean subscribed(Set<String> topics, String topic) {
+        if (topics.contains(topic)) {
+            return true;
+        }
+        for (String candidate : topics) {
+            if (topic.startsWith(candidate + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 比较两个 {@code <毫秒>-<序号>} 形式的事件 ID。
+     */
+    static int compare(String a, String b) {
+        int dashA = a.indexOf('-');
+        int dashB = b.indexOf('-');
+        int byMs = Long.compare(Long.parseLong(a.substring(0, dashA)), Long.parseLong(b.substring(0, dashB)));
+        return byMs != 0 ? byMs
+            : Long.compare(Long.parseLong(a.substring(dashA + 1)), Long.parseLong(b.substring(dashB + 1)));
+    }
+
+    /**
+     * 校验客户端回传的 {@code Last-Event-ID}（请求头可被任意构造）。
+     */
+    static boolean isValidId(String id) {
+        if (id == null || id.length() > 40) {
+            return false;
+        }
+        int dash = id.indexOf('-');
+        if (dash <= 0 || dash == id.length() - 1) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (i != dash && !Character.isDigit(id.charAt(i))) {
+                return false;
+            }
+        }
+        return dash <= 18 && id.length() - dash - 1 <= 18;
+    }
+
+    /**
+     * 补发结果：{@code gap = true} 时中间事件已丢失，只通知客户端重置。
+     */
+    record Replay(boolean gap, List<SseEvent> events) {
+
+        static final Replay GAP = new Replay(true, Collections.emptyList());
+    }
+
+    private static final class Ring {
+
+        final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+        String                  evictedUpTo;
+    }
+
+    private record Entry(long timestampMs, SseEvent event) {
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.springframework.util.StringUtils;
+
+import io.github.lunasaw.voglander.common.enums.task.TaskClaimModeEnum;
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskExecutionDTO;
+import io.github.lunasaw.voglander.manager.manager.BizTaskExecutionManager;
+
+/**
+ * Claims windows of runnable executions for this worker node under one fresh claim token per batch. With a lease
+ * keeper every claimed row is renewed from the moment it is claimed, not only once its Handler starts.
+ */
+final class BizTaskBatchClaimer {
+
+    private static final String MODE = TaskClaimModeEnum.BATCH.name();
+
+    private final BizTaskExecutionManager executionManager;
+    private final Clock clock;
+    private final String workerNode;
+    private final int leaseSeconds;
+    private final Supplier<String> claimTokenSupplier;
+    private final BusinessTaskMetrics metrics;
+    private final BizTaskLeaseKeeper leaseKeeper;
+
+    BizTaskBatchClaimer(BizTaskExecutionManager executionManager, Clock clock, String workerNode, int leaseSeconds,
+        Supplier<String> claimTokenSupplier, BusinessTaskMetrics metrics) {
+        this(executionManager, clock, workerNode, leaseSeconds, claimTokenSupplier, metrics, null);
+    }
+
+    BizTaskBatchClaimer(BizTaskExecutionManager executionManager, Clock clock, String workerNode, int leaseSeconds,
+        Supplier<String> claimTokenSupplier, BusinessTaskMetrics metrics, BizTaskLeaseKeeper leaseKeeper) {
+        this.executionManager = Objects.requireNonNull(executionManager, "executionManager");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        if (!StringUtils.hasText(workerNode) || leaseSeconds <= 0) {
+            throw new IllegalArgumentException("Business-task batch claim node or lease is invalid");
+        }
+        this.workerNode = workerNode;
+        this.leaseSeconds = leaseSeconds;
+        this.claimTokenSupplier = Objects.requireNonNull(claimTokenSupplier, "claimTokenSupplier");
+        this.metrics = metrics;
+        this.leaseKeeper = leaseKeeper;
+    }
+
+    /** Claims up to {@code limit} runnable executions; each returned DTO is RUNNING and owned by this node. */
+    List<BizTaskExecutionDTO> claim(int limit) {
+        String claimToken = claimTokenSupplier.get();
+        if (!StringUtils.hasText(claimToken)) {
+            throw new IllegalStateException("Business-task claim token must not be blank");
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        BizTaskExecutionDTO command = new BizTaskExecutionDTO();
+        command.setClaimToken(claimToken);
+        command.setWorkerNode(workerNode);
+        command.setUpdateTime(now);
+        command.setLeaseUntil(now.plusSeconds(leaseSeconds));
+        long startedNanos = System.nanoTime();
+        List<BizTaskExecutionDTO> claimed = executionManager.claimRunnableBatch(command, limit);
+        if (metrics != null) {
+            metrics.recordClaim(MODE, claimed.isEmpty() ? "EMPTY" : "CLAIMED", Math.max(1, claimed.size()),
+                Duration.ofNanos(System.nanoTime() - startedNanos));
+        }
+        if (leaseKeeper != null) {
+            for (BizTaskExecutionDTO execution : claimed) {
+                leaseKeeper.register(execution.getExecutionId(), execution.getClaimToken(),
+                    execution.getLeaseUntil() == null ? command.getLeaseUntil() : execution.getLeaseUntil());
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Whether the lease taken with the claim still runs past now. A claim that waited out its lease may already
+     * have been recovered and handed to another worker, so it must not start.
+     */
+    boolean leaseCurrent(BizTaskExecutionDTO claimed) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (leaseKeeper != null) {
+            BizTaskLeaseKeeper.Lease lease = leaseKeeper.held(claimed.getExecutionId(), claimed.getClaimToken());
+            return lease != null && lease.isCurrent(now);
+        }
+        return claimed.getLeaseUntil() != null && claimed.getLeaseUntil().isAfter(now);
+    }
+
+    /** Gives back a claim whose lease lapsed before it started; the release itself is claim-token guarded. */
+    void abandonLapsed(BizTaskExecutionDTO claimed) {
+        if (metrics != null) {
+            metrics.recordClaim(MODE, "LAPSED", 1, null);
+        }
+        release(claimed);
+    }
+
+    /** Hands a claimed execution that could not be started back to the runnable pool. */
+    boolean release(BizTaskExecutionDTO claimed) {
+        if (leaseKeeper != null) {
+            leaseKeeper.release(leaseKeeper.held(claimed.getExecutionId(), claimed.getClaimToken()));
+        }
+        BizTaskExecutionDTO command = new BizTaskExecutionDTO();
+        command.setExecutionId(claimed.getExecutionId());
+        command.setClaimToken(claimed.getClaimToken());
+        command.setUpdateTime(LocalDateTime.now(clock));
+        boolean released = executionManager.releaseClaim(command);
+        if (metrics != null) {
+            metrics.recordClaim(MODE, released ? "RELEASED" : "RELEASE_LOST", 1, null);
+        }
+        return released;
+    }
+}
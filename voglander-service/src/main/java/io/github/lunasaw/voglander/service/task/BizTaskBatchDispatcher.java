@@ -0,0 +1,172 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskExecutionDTO;
+
+/**
+ * Claims a window of runnable executions in one statement and hands the claimed rows to the worker pool.
+ * <p>
+ * The window is capped by the executor's free slots and never by queue room: a claimed row that waits in a queue
+ * holds a lease nothing renews. Which lane a claim needs is only known once it is classified, so each claim is
+ * checked against its own lane's free slots and released if that lane is full. Type and organization budgets can
+ * still hold an admitted claim back briefly. Released and rejected claims go back to the runnable pool without
+ * consuming an attempt, and a claim whose lease lapsed before a worker picked it up is released instead of run,
+ * since lease recovery may already own it.
+ * </p>
+ */
+final class BizTaskBatchDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BizTaskBatchDispatcher.class);
+
+    private final BizTaskBatchClaimer claimer;
+    private final Executor executor;
+    private final Consumer<BizTaskExecutionDTO> claimedWorker;
+    private final IntSupplier freeCapacity;
+    private final int batchSize;
+    private final Runnable capacityListener;
+    private final TaskDispatchClassifier classifier;
+    private final ToIntFunction<TaskDispatchClass> laneCapacity;
+    private volatile boolean backlog;
+
+    BizTaskBatchDispatcher(BizTaskBatchClaimer claimer, Executor executor, Consumer<BizTaskExecutionDTO> claimedWorker,
+        IntSupplier freeCapacity, int batchSize, Runnable capacityListener) {
+        this(claimer, executor, claimedWorker, freeCapacity, batchSize, capacityListener, null, null);
+    }
+
+    /**
+     * A null classifier submits every claim as {@link TaskDispatchClass#UNCLASSIFIED}; a null {@code laneCapacity}
+     * admits every claim in the window.
+     */
+    BizTaskBatchDispatcher(BizTaskBatchClaimer claimer, Executor executor, Consumer<BizTaskExecutionDTO> claimedWorker,
+        IntSupplier freeCapacity, int batchSize, Runnable capacityListener, TaskDispatchClassifier classifier,
+        ToIntFunction<TaskDispatchClass> laneCapacity) {
+        this.claimer = Objects.requireNonNull(claimer, "claimer");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.claimedWorker = Objects.requireNonNull(claimedWorker, "claimedWorker");
+        this.freeCapacity = Objects.requireNonNull(freeCapacity, "freeCapacity");
+        if (batchSize <= 0 || batchSize > 1000) {
+            throw new IllegalArgumentException("Task dispatch scan batch size is invalid");
+        }
+        this.batchSize = batchSize;
+        this.capacityListener = Objects.requireNonNull(capacityListener, "capacityListener");
+        this.classifier = classifier;
+        this.laneCapacity = laneCapacity;
+    }
+
+    /**
+     * Claims at most {@code min(batchSize, freeSlots)} rows, submits those whose lane has a free slot, releases the
+     * rest and returns how many were submitted.
+     */
+    int dispatchClaimedBatch() {
+        int limit = Math.min(batchSize, freeCapacity.getAsInt());
+        if (limit <= 0) {
+            backlog = true;
+            return 0;
+        }
+        List<BizTaskExecutionDTO> claimed = claimer.claim(limit);
+        boolean leftBehind = claimed.size() >= limit;
+        Map<String, TaskDispatchClass> classes = classify(claimed);
+        List<BizTaskExecutionDTO> laneFull = new ArrayList<>();
+        int submitted = 0;
+        for (int i = 0; i < claimed.size(); i++) {
+            BizTaskExecutionDTO execution = claimed.get(i);
+            TaskDispatchClass dispatchClass = classes.getOrDefault(execution.getTaskId(),
+                TaskDispatchClass.UNCLASSIFIED);
+            if (laneCapacity != null && laneCapacity.applyAsInt(dispatchClass) <= 0) {
+                laneFull.add(execution);
+                continue;
+            }
+            try {
+                executor.execute(new ClaimedDispatch(execution, dispatchClass));
+                submitted++;
+            } catch (RejectedExecutionException exception) {
+                releaseRemaining(claimed.subList(i, claimed.size()));
+                leftBehind = true;
+                break;
+            }
+        }
+        if (!laneFull.isEmpty()) {
+            LOGGER.debug("Business-task lane full; releasing {} claimed executions", laneFull.size());
+            release(laneFull);
+            leftBehind = true;
+        }
+        backlog = leftBehind;
+        return submitted;
+    }
+
+    private Map<String, TaskDispatchClass> classify(List<BizTaskExecutionDTO> claimed) {
+        if (classifier == null || claimed.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> taskIds = new ArrayList<>(claimed.size());
+        claimed.forEach(execution -> taskIds.add(execution.getTaskId()));
+        return classifier.classify(taskIds);
+    }
+
+    private void releaseRemaining(List<BizTaskExecutionDTO> remaining) {
+        LOGGER.warn("Business-task executor saturated or draining; releasing {} claimed executions", remaining.size());
+        release(remaining);
+    }
+
+    private void release(List<BizTaskExecutionDTO> remaining) {
+        for (BizTaskExecutionDTO execution : remaining) {
+            try {
+                claimer.release(execution);
+            } catch (RuntimeException exception) {
+                LOGGER.warn("Business-task claim release failed; lease recovery will reclaim: executionId={}",
+                    execution.getExecutionId(), exception);
+            }
+        }
+    }
+
+    private final class ClaimedDispatch implements BizTaskFairExecutor.ClassifiedWork {
+        private final BizTaskExecutionDTO execution;
+        private final TaskDispatchClass dispatchClass;
+
+        private ClaimedDispatch(BizTaskExecutionDTO execution, TaskDispatchClass dispatchClass) {
+            this.execution = execution;
+            this.dispatchClass = dispatchClass;
+        }
+
+        @Override
+        public TaskDispatchClass dispatchClass() {
+            return dispatchClass;
+        }
+
+        /** The claim never ran, so it goes back without consuming an attempt. */
+        @Override
+        public void abandon() {
+            releaseRemaining(Collections.singletonList(execution));
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!claimer.leaseCurrent(execution)) {
+                    LOGGER.warn("Business-task claim lease lapsed before start; releasing: executionId={}",
+                        execution.getExecutionId());
+                    claimer.abandonLapsed(execution);
+                    return;
+                }
+                claimedWorker.accept(execution);
+            } finally {
+                if (backlog) {
+                    capacityListener.run();
+                }
+            }
+        }
+    }
+}
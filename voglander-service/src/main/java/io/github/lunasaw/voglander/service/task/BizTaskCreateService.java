@@ -36,27 +36,39 @@ public class BizTaskCreateService {
     private final BizTaskManager bizTaskManager;
     private final Clock clock;
     private final IdempotencyMetrics idempotencyMetrics;
+    private final BusinessTaskWakeups wakeups;
 
     public BizTaskCreateService(LongTaskHandlerRegistry handlerRegistry, BizTaskManager bizTaskManager) {
         this(handlerRegistry, bizTaskManager, Clock.systemDefaultZone(), null);
     }
 
-    @Autowired
     public BizTaskCreateService(LongTaskHandlerRegistry handlerRegistry, BizTaskManager bizTaskManager,
         IdempotencyMetrics idempotencyMetrics) {
         this(handlerRegistry, bizTaskManager, Clock.systemDefaultZone(), idempotencyMetrics);
     }
 
+    @Autowired
+    public BizTaskCreateService(LongTaskHandlerRegistry handlerRegistry, BizTaskManager bizTaskManager,
+        IdempotencyMetrics idempotencyMetrics, BusinessTaskWakeups wakeups) {
+        this(handlerRegistry, bizTaskManager, Clock.systemDefaultZone(), idempotencyMetrics, wakeups);
+    }
+
     BizTaskCreateService(LongTaskHandlerRegistry handlerRegistry, BizTaskManager bizTaskManager, Clock clock) {
         this(handlerRegistry, bizTaskManager, clock, null);
     }
 
     BizTaskCreateService(LongTaskHandlerRegistry handlerRegistry, BizTaskManager bizTaskManager, Clock clock,
         IdempotencyMetrics idempotencyMetrics) {
+        this(handlerRegistry, bizTaskManager, clock, idempotencyMetrics, null);
+    }
+
+    BizTaskCreateService(LongTaskHandlerRegistry handlerRegistry, BizTaskManager bizTaskManager, Clock clock,
+        IdempotencyMetrics idempotencyMetrics, BusinessTaskWakeups wakeups) {
         this.handlerRegistry = handlerRegistry;
         this.bizTaskManager = bizTaskManager;
         this.clock = clock;
         this.idempotencyMetrics = idempotencyMetrics;
+        this.wakeups = wakeups;
     }
 
     /** Accepts only task types and payload versions registered by a trusted domain Handler. */
@@ -126,12 +138,15 @@ public class BizTaskCreateService {
         String originTaskId, String originExecutionId) {
         LocalDateTime now = LocalDateTime.now(clock).withNano(0);
         BizTaskDTO task = buildTask(command, prepared.schedulePlan, now, prepared.payloadSnapshot,
-            originTaskId, originExecutionId);
+            originTaskId, originExecutionId, prepared.priority);
         BizTaskExecutionDTO firstExecution = prepared.schedulePlan.mode() == TaskModeEnum.ONCE
             ? buildFirstExecution(command, task.getTaskId(), now) : null;
         BizTaskCreateResultDTO result = bizTaskManager.create(task, firstExecution);
         if (!result.isCreated()) {
             requireSameSnapshot(prepared.snapshot, result);
+        } else if (wakeups != null) {
+            // Deferred until the caller's transaction commits, so no node scans before the rows are visible.
+            wakeups.taskAccepted(result.getAcceptedTask(), result.getAcceptedFirstExecution());
         }
         recordDecision(prepared.command, result.isCreated() ? "CREATED" : "REPLAYED");
         return result;
@@ -170,7 +185,8 @@ public class BizTaskCreateService {
         TaskCreateContext context = new TaskCreateContext(command.ownerType(), command.ownerId(),
             command.organizationId(), command.subjectType(), command.subjectId());
         handler.validate(context, TaskPayloadValidator.copyOf(preflight.payloadSnapshot));
-        return new PreparedCreate(command, schedulePlan, preflight.payloadSnapshot, preflight.snapshot);
+        int priority = handler.capabilities() == null ? 0 : handler.capabilities().priority();
+        return new PreparedCreate(command, schedulePlan, preflight.payloadSnapshot, preflight.snapshot, priority);
     }
 
     private ReplayPreflight replayPreflight(TaskCreateCommand command, String originTaskId,
@@ -217,7 +233,7 @@ public class BizTaskCreateService {
     }
 
     private BizTaskDTO buildTask(TaskCreateCommand command, TaskSchedulePlan schedulePlan, LocalDateTime now,
-        String payloadSnapshot, String originTaskId, String originExecutionId) {
+        String payloadSnapshot, String originTaskId, String originExecutionId, int priority) {
         TaskModeEnum mode = schedulePlan.mode();
         BizTaskDTO task = new BizTaskDTO();
         task.setCreateTime(now);
@@ -233,7 +249,7 @@ public class BizTaskCreateService {
         task.setNextPlanTime(mode == TaskModeEnum.ONCE ? null : command.scheduleStartTime());
         task.setScheduleVersion(1);
         task.setState(mode == TaskModeEnum.ONCE ? TaskStateEnum.RUNNING.name() : TaskStateEnum.SCHEDULED.name());
-        task.setPriority(0);
+        task.setPriority(priority);
         task.setPlannedCount(schedulePlan.plannedCount());
         task.setSuccessCount(0);
         task.setFailedCount(0);
@@ -286,13 +302,15 @@ public class BizTaskCreateService {
         private final TaskSchedulePlan schedulePlan;
         private final String payloadSnapshot;
         private final TaskCanonicalSnapshot snapshot;
+        private final int priority;
 
         private PreparedCreate(TaskCreateCommand command, TaskSchedulePlan schedulePlan, String payloadSnapshot,
-            TaskCanonicalSnapshot snapshot) {
+            TaskCanonicalSnapshot snapshot, int priority) {
             this.command = command;
             this.schedulePlan = schedulePlan;
             this.payloadSnapshot = payloadSnapshot;
             this.snapshot = snapshot;
+            this.priority = priority;
         }
     }
 
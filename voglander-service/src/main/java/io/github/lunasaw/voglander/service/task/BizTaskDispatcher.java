@@ -2,8 +2,13 @@ package io.github.lunasaw.voglander.service.task;
 
 import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 
@@ -14,7 +19,13 @@ import org.springframework.util.StringUtils;
 import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskExecutionDTO;
 import io.github.lunasaw.voglander.manager.manager.BizTaskExecutionManager;
 
-/** Scans durable runnable facts and submits stable execution identities to the bounded worker pool. */
+/**
+ * Scans durable runnable facts and submits stable execution identities to the bounded worker pool.
+ * <p>
+ * Identities already queued by this node are not submitted again by fast rescans. When a scan left work behind
+ * (saturated pool or a full batch) every finished dispatch calls the capacity listener so the runtime rescans.
+ * </p>
+ */
 final class BizTaskDispatcher {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BizTaskDispatcher.class);
@@ -24,9 +35,26 @@ final class BizTaskDispatcher {
     private final BusinessTaskExecutionWorker worker;
     private final Clock clock;
     private final int scanBatchSize;
+    private final Runnable capacityListener;
+    private final TaskDispatchClassifier classifier;
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private volatile boolean backlog;
 
     BizTaskDispatcher(BizTaskExecutionManager executionManager, Executor executor,
         BusinessTaskExecutionWorker worker, Clock clock, int scanBatchSize) {
+        this(executionManager, executor, worker, clock, scanBatchSize, () -> {
+        });
+    }
+
+    BizTaskDispatcher(BizTaskExecutionManager executionManager, Executor executor,
+        BusinessTaskExecutionWorker worker, Clock clock, int scanBatchSize, Runnable capacityListener) {
+        this(executionManager, executor, worker, clock, scanBatchSize, capacityListener, null);
+    }
+
+    /** A null classifier submits every execution as {@link TaskDispatchClass#UNCLASSIFIED}. */
+    BizTaskDispatcher(BizTaskExecutionManager executionManager, Executor executor,
+        BusinessTaskExecutionWorker worker, Clock clock, int scanBatchSize, Runnable capacityListener,
+        TaskDispatchClassifier classifier) {
         this.executionManager = Objects.requireNonNull(executionManager, "executionManager");
         this.executor = Objects.requireNonNull(executor, "executor");
         this.worker = Objects.requireNonNull(worker, "worker");
@@ -35,37 +63,81 @@ final class BizTaskDispatcher {
             throw new IllegalArgumentException("Task dispatch scan batch size is invalid");
         }
         this.scanBatchSize = scanBatchSize;
+        this.capacityListener = Objects.requireNonNull(capacityListener, "capacityListener");
+        this.classifier = classifier;
     }
 
-    void dispatchRunnableExecutions() {
+    /** Submits one batch of runnable executions and returns how many were newly submitted. */
+    int dispatchRunnableExecutions() {
         LocalDateTime scanTime = LocalDateTime.now(clock);
         List<BizTaskExecutionDTO> executions = executionManager.findRunnable(scanTime, scanBatchSize);
+        boolean leftBehind = executions.size() >= scanBatchSize;
+        Map<String, TaskDispatchClass> classes = classify(executions);
+        int submitted = 0;
         for (BizTaskExecutionDTO execution : executions) {
-            if (execution == null || !StringUtils.hasText(execution.getExecutionId())) {
+            if (execution == null || !StringUtils.hasText(execution.getExecutionId())
+                || !queued.add(execution.getExecutionId())) {
                 continue;
             }
             try {
-                executor.execute(new ExecutionDispatch(execution.getExecutionId(), worker));
+                executor.execute(new ExecutionDispatch(execution.getExecutionId(),
+                    classes.getOrDefault(execution.getTaskId(), TaskDispatchClass.UNCLASSIFIED)));
+                submitted++;
             } catch (RejectedExecutionException exception) {
+                queued.remove(execution.getExecutionId());
                 LOGGER.warn("Business-task executor saturated; durable execution remains runnable: executionId={}",
                     execution.getExecutionId());
+                leftBehind = true;
                 break;
             }
         }
+        backlog = leftBehind;
+        return submitted;
+    }
+
+    private Map<String, TaskDispatchClass> classify(List<BizTaskExecutionDTO> executions) {
+        if (classifier == null || executions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> taskIds = new ArrayList<>(executions.size());
+        for (BizTaskExecutionDTO execution : executions) {
+            if (execution != null && StringUtils.hasText(execution.getTaskId())) {
+                taskIds.add(execution.getTaskId());
+            }
+        }
+        return classifier.classify(taskIds);
     }
 
-    private static final class ExecutionDispatch implements Runnable {
+    private final class ExecutionDispatch implements BizTaskFairExecutor.ClassifiedWork {
         private final String executionId;
-        private final BusinessTaskExecutionWorker worker;
+        private final TaskDispatchClass dispatchClass;
 
-        private ExecutionDispatch(String executionId, BusinessTaskExecutionWorker worker) {
+        private ExecutionDispatch(String executionId, TaskDispatchClass dispatchClass) {
             this.executionId = executionId;
-            this.worker = worker;
+            this.dispatchClass = dispatchClass;
+        }
+
+        @Override
+        public TaskDispatchClass dispatchClass() {
+            return dispatchClass;
+        }
+
+        /** Nothing was claimed yet: forgetting the identity lets the next scan pick it up again. */
+        @Override
+        public void abandon() {
+            queued.remove(executionId);
         }
 
         @Override
         public void run() {
-            worker.execute(executionId);
+            try {
+                worker.execute(executionId);
+            } finally {
+                queued.remove(executionId);
+                if (backlog) {
+                    capacityListener.run();
+                }
+            }
         }
     }
 }
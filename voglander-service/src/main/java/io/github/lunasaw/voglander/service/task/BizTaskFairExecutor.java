@@ -0,0 +1,355 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Priority- and tenant-fair front of the business-task pools.
+ * <p>
+ * Dispatched work waits here rather than in the pools. Each organization has its own queue ordered by priority and
+ * then arrival, and organizations are served by stride scheduling in proportion to their weights, so one tenant's
+ * burst only delays that tenant's own backlog. A task type at its {@code maxConcurrency} budget, or an organization
+ * at the node-wide organization budget, is skipped until one of its executions returns. I/O-bound work runs on the
+ * I/O executor within its own slot count; everything else never takes more than the platform slots, which keeps
+ * the bounded pool's own queue empty.
+ * </p>
+ */
+final class BizTaskFairExecutor implements Executor {
+
+    static final String PLATFORM = "PLATFORM";
+    static final String IO = "IO";
+    static final int MAX_ORGANIZATION_WEIGHT = 1000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BizTaskFairExecutor.class);
+    private static final long STRIDE = 1L << 20;
+    private static final Comparator<Pending> ORDER = Comparator.comparingInt((Pending pending) -> pending.priority())
+        .reversed().thenComparingLong(pending -> pending.sequence);
+
+    private final Executor platformExecutor;
+    private final int platformSlots;
+    private final Executor ioExecutor;
+    private final int ioSlots;
+    private final int queueCapacity;
+    private final int organizationBudget;
+    private final Map<String, Integer> organizationWeights;
+    private final BusinessTaskMetrics metrics;
+    private final Object lock = new Object();
+    private final Map<String, Tenant> tenants = new LinkedHashMap<>();
+    private final Map<String, Integer> runningByType = new HashMap<>();
+    private int platformRunning;
+    private int ioRunning;
+    private int queued;
+    private int ioQueued;
+    private long sequence;
+    private long virtualTime;
+
+    /** {@code ioExecutor} may be null or {@code ioSlots} 0, in which case I/O-bound work shares the platform slots. */
+    BizTaskFairExecutor(Executor platformExecutor, int platformSlots, Executor ioExecutor, int ioSlots,
+        int queueCapacity, int organizationBudget, Map<String, Integer> organizationWeights,
+        BusinessTaskMetrics metrics) {
+        this.platformExecutor = Objects.requireNonNull(platformExecutor, "platformExecutor");
+        if (platformSlots <= 0 || ioSlots < 0 || queueCapacity <= 0 || organizationBudget < 0) {
+            throw new IllegalArgumentException("Business-task fair executor limits are invalid");
+        }
+        this.platformSlots = platformSlots;
+        this.ioExecutor = ioSlots == 0 ? null : ioExecutor;
+        this.ioSlots = this.ioExecutor == null ? 0 : ioSlots;
+        this.queueCapacity = queueCapacity;
+        this.organizationBudget = organizationBudget;
+        this.organizationWeights = organizationWeights == null ? Map.of() : Map.copyOf(organizationWeights);
+        for (Integer weight : this.organizationWeights.values()) {
+            if (weight == null || weight <= 0 || weight > MAX_ORGANIZATION_WEIGHT) {
+                throw new IllegalArgumentException("Business-task organization weights must be within 1-"
+                    + MAX_ORGANIZATION_WEIGHT);
+            }
+        }
+        this.metrics = metrics;
+    }
+
+    /** Queues the command under its dispatch class; rejects once the fair queue is full. */
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command, "command");
+        TaskDispatchClass dispatchClass = command instanceof ClassifiedWork
+            ? ((ClassifiedWork)command).dispatchClass() : TaskDispatchClass.UNCLASSIFIED;
+        synchronized (lock) {
+            if (queued >= queueCapacity) {
+                throw new RejectedExecutionException("Business-task fair queue is full");
+            }
+            Tenant tenant = tenants.computeIfAbsent(dispatchClass.organizationId(), Tenant::new);
+            Pending pending = new Pending(command, dispatchClass, laneOf(dispatchClass), sequence++,
+                System.nanoTime());
+            tenant.add(pending);
+            queued++;
+            if (IO.equals(pending.lane)) {
+                ioQueued++;
+            }
+        }
+        pump();
+    }
+
+    /**
+     * Claim window for a batch dispatcher: the platform lane's free slots, or the I/O lane's once the platform lane
+     * has none. The lane of a claim is only known after it is claimed, so summing both lanes would let a window of
+     * platform-bound work claim every I/O slot too; the dispatcher checks {@link #freeSlots(TaskDispatchClass)} per
+     * claim and releases what its lane cannot start. Fair-queue room is deliberately not counted.
+     */
+    int freeSlots() {
+        synchronized (lock) {
+            int platformFree = freePlatformSlots();
+            return platformFree > 0 ? platformFree : freeIoSlots();
+        }
+    }
+
+    /** Slots no running or waiting work has spoken for in the lane {@code dispatchClass} would run in. */
+    int freeSlots(TaskDispatchClass dispatchClass) {
+        synchronized (lock) {
+            return IO.equals(laneOf(dispatchClass)) ? freeIoSlots() : freePlatformSlots();
+        }
+    }
+
+    int queued() {
+        synchronized (lock) {
+            return queued;
+        }
+    }
+
+    /** Removes everything still waiting, for the runtime to hand back on shutdown. */
+    List<Runnable> drainQueued() {
+        List<Runnable> drained = new ArrayList<>();
+        synchronized (lock) {
+            Iterator<Tenant> iterator = tenants.values().iterator();
+            while (iterator.hasNext()) {
+                Tenant tenant = iterator.next();
+                tenant.drainTo(drained);
+                if (tenant.running == 0) {
+                    iterator.remove();
+                }
+            }
+            queued = 0;
+            ioQueued = 0;
+        }
+        return drained;
+    }
+
+    private void pump() {
+        List<Pending> starting = new ArrayList<>();
+        synchronized (lock) {
+            Pending next;
+            while ((next = pollEligible()) != null) {
+                starting.add(next);
+            }
+        }
+        for (Pending pending : starting) {
+            launch(pending);
+        }
+    }
+
+    /** Picks the best runnable head of the tenant with the lowest pass and reserves its slots. */
+    private Pending pollEligible() {
+        Tenant chosen = null;
+        Pending head = null;
+        for (Tenant tenant : tenants.values()) {
+            if (organizationBudget > 0 && tenant.running >= organizationBudget) {
+                continue;
+            }
+            Pending candidate = tenant.eligibleHead();
+            if (candidate != null && (chosen == null || tenant.pass < chosen.pass)) {
+                chosen = tenant;
+                head = candidate;
+            }
+        }
+        if (head == null) {
+            return null;
+        }
+        chosen.remove(head);
+        virtualTime = Math.max(virtualTime, chosen.pass);
+        chosen.pass += chosen.stride;
+        chosen.running++;
+        queued--;
+        runningByType.merge(head.taskType(), 1, Integer::sum);
+        if (IO.equals(head.lane)) {
+            ioQueued--;
+            ioRunning++;
+        } else {
+            platformRunning++;
+        }
+        return head;
+    }
+
+    private void launch(Pending pending) {
+        Executor target = IO.equals(pending.lane) ? ioExecutor : platformExecutor;
+        try {
+            target.execute(() -> run(pending));
+        } catch (RejectedExecutionException exception) {
+            release(pending);
+            LOGGER.warn("Business-task {} pool rejected fair-queued work; handing it back", pending.lane);
+            abandon(pending.command);
+        }
+    }
+
+    private void run(Pending pending) {
+        if (metrics != null) {
+            metrics.recordDispatchQueueWait(pending.taskType(), pending.dispatchClass.priorityClass(), pending.lane,
+                Duration.ofNanos(System.nanoTime() - pending.enqueuedNanos));
+        }
+        try {
+            pending.command.run();
+        } finally {
+            release(pending);
+            pump();
+        }
+    }
+
+    private void release(Pending pending) {
+        synchronized (lock) {
+            runningByType.computeIfPresent(pending.taskType(), (type, running) -> running > 1 ? running - 1 : null);
+            if (IO.equals(pending.lane)) {
+                ioRunning--;
+            } else {
+                platformRunning--;
+            }
+            Tenant tenant = tenants.get(pending.organizationId());
+            if (tenant != null) {
+                tenant.running--;
+                if (tenant.running == 0 && tenant.isEmpty()) {
+                    tenants.remove(pending.organizationId());
+                }
+            }
+        }
+    }
+
+    static void abandon(Runnable command) {
+        if (!(command instanceof ClassifiedWork)) {
+            return;
+        }
+        try {
+            ((ClassifiedWork)command).abandon();
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Business-task abandoned work could not be handed back", exception);
+        }
+    }
+
+    private int freePlatformSlots() {
+        return Math.max(0, platformSlots - platformRunning - (queued - ioQueued));
+    }
+
+    private int freeIoSlots() {
+        return Math.max(0, ioSlots - ioRunning - ioQueued);
+    }
+
+    private String laneOf(TaskDispatchClass dispatchClass) {
+        return dispatchClass.ioBound() && ioSlots > 0 ? IO : PLATFORM;
+    }
+
+    private boolean hasSlot(Pending pending) {
+        if (IO.equals(pending.lane)) {
+            return ioRunning < ioSlots;
+        }
+        return platformRunning < platformSlots;
+    }
+
+    private boolean withinTypeBudget(Pending pending) {
+        int budget = pending.dispatchClass.typeBudget();
+        return budget == 0 || runningByType.getOrDefault(pending.taskType(), 0) < budget;
+    }
+
+    /** Work submitted by a dispatcher: carries its class and knows how to give its execution back if dropped. */
+    interface ClassifiedWork extends Runnable {
+
+        TaskDispatchClass dispatchClass();
+
+        /** Returns the execution to the durable runnable pool; called only for work that never started. */
+        void abandon();
+    }
+
+    /** One organization's backlog, split by task type so a type at its budget does not hide the others. */
+    private final class Tenant {
+        private final long stride;
+        private final Map<String, TreeSet<Pending>> byType = new LinkedHashMap<>();
+        private long pass;
+        private int running;
+
+        private Tenant(String organizationId) {
+            this.stride = STRIDE / organizationWeights.getOrDefault(organizationId, 1);
+            this.pass = virtualTime;
+        }
+
+        private void add(Pending pending) {
+            if (isEmpty()) {
+                pass = Math.max(pass, virtualTime);
+            }
+            byType.computeIfAbsent(pending.taskType(), type -> new TreeSet<>(ORDER)).add(pending);
+        }
+
+        private Pending eligibleHead() {
+            Pending best = null;
+            for (TreeSet<Pending> queue : byType.values()) {
+                Pending head = queue.first();
+                if (withinTypeBudget(head) && hasSlot(head) && (best == null || ORDER.compare(head, best) < 0)) {
+                    best = head;
+                }
+            }
+            return best;
+        }
+
+        private void remove(Pending pending) {
+            TreeSet<Pending> queue = byType.get(pending.taskType());
+            queue.remove(pending);
+            if (queue.isEmpty()) {
+                byType.remove(pending.taskType());
+            }
+        }
+
+        private void drainTo(List<Runnable> drained) {
+            byType.values().forEach(queue -> queue.forEach(pending -> drained.add(pending.command)));
+            byType.clear();
+        }
+
+        private boolean isEmpty() {
+            return byType.isEmpty();
+        }
+    }
+
+    private static final class Pending {
+        private final Runnable command;
+        private final TaskDispatchClass dispatchClass;
+        private final String lane;
+        private final long sequence;
+        private final long enqueuedNanos;
+
+        private Pending(Runnable command, TaskDispatchClass dispatchClass, String lane, long sequence,
+            long enqueuedNanos) {
+            this.command = command;
+            this.dispatchClass = dispatchClass;
+            this.lane = lane;
+            this.sequence = sequence;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        private int priority() {
+            return dispatchClass.priority();
+        }
+
+        private String taskType() {
+            return dispatchClass.taskType();
+        }
+
+        private String organizationId() {
+            return dispatchClass.organizationId();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskEventDTO;
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskProgressDTO;
+import io.github.lunasaw.voglander.manager.manager.BizTaskEventManager;
+import io.github.lunasaw.voglander.manager.manager.BizTaskExecutionManager;
+
+/**
+ * Per-node write-behind journal for progress revisions and non-terminal timeline events.
+ * <p>
+ * Only the latest queued revision of each execution is kept. A commit writes everything drained in one
+ * transaction; if that group fails, its items are retried one by one so a single conflicting row cannot hold back
+ * the rest. Only a revision the claim refuses is rejected back to its reporter; a revision or event whose isolated
+ * write throws is queued again for up to {@value #MAX_WRITE_ATTEMPTS} attempts before it is dropped. Terminal writes stay synchronous: callers {@link #flush(String)} before completing an
+ * execution. Once {@link #close() closed}, every offer is flushed on the caller's thread, so Handlers that outlive
+ * the runtime loops still persist what they report.
+ * </p>
+ */
+final class BizTaskJournal {
+
+    static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BizTaskJournal.class);
+
+    private final BizTaskExecutionManager executionManager;
+    private final BizTaskEventManager eventManager;
+    private final TransactionOperations transactionOperations;
+    private final int maxBatch;
+    private final Runnable commitRequested;
+    private final BusinessTaskMetrics metrics;
+    private final ConcurrentMap<String, PendingProgress> pendingProgress = new ConcurrentHashMap<>();
+    private final Queue<PendingEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingEventCount = new AtomicInteger();
+    private final AtomicBoolean commitScheduled = new AtomicBoolean();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private volatile boolean closed;
+
+    BizTaskJournal(BizTaskExecutionManager executionManager, BizTaskEventManager eventManager,
+        TransactionOperations transactionOperations, int maxBatch, Runnable commitRequested,
+        BusinessTaskMetrics metrics) {
+        this.executionManager = Objects.requireNonNull(executionManager, "executionManager");
+        this.eventManager = Objects.requireNonNull(eventManager, "eventManager");
+        this.transactionOperations = Objects.requireNonNull(transactionOperations, "transactionOperations");
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("Business-task journal batch size must be positive");
+        }
+        this.maxBatch = maxBatch;
+        this.commitRequested = Objects.requireNonNull(commitRequested, "commitRequested");
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.bindJournalDepth(this::depth);
+        }
+    }
+
+    /** Queues a progress revision; {@code onRejected} runs if the active claim no longer accepts it. */
+    void offerProgress(BizTaskProgressDTO progress, Runnable onRejected) {
+        PendingProgress offered = new PendingProgress(progress, onRejected);
+        pendingProgress.merge(progress.getExecutionId(), offered,
+            (queued, latest) -> latest.revision() >= queued.revision() ? latest : queued);
+        afterOffer();
+    }
+
+    void offerEvent(BizTaskEventDTO event) {
+        pendingEvents.add(new PendingEvent(Objects.requireNonNull(event, "event")));
+        pendingEventCount.incrementAndGet();
+        afterOffer();
+    }
+
+    /**
+     * Stops relying on the journal loop: later offers are written before they return. The runtime closes the
+     * journal before its final drain, so an offer either lands in that drain or flushes itself.
+     */
+    void close() {
+        closed = true;
+    }
+
+    int depth() {
+        return pendingProgress.size() + pendingEventCount.get();
+    }
+
+    /**
+     * Commits on the caller's thread until nothing queued for {@code executionId} is left behind. Holding the
+     * commit lock first also waits out a group the runtime loop has already drained but not yet written.
+     */
+    void flush(String executionId) {
+        commitLock.lock();
+        try {
+            while (pendingProgress.containsKey(executionId) || hasEventFor(executionId)) {
+                commit();
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /** Group-commits one batch and returns how many journal entries it wrote. */
+    int commit() {
+        commitLock.lock();
+        try {
+            commitScheduled.set(false);
+            List<PendingProgress> progress = drainProgress();
+            List<PendingEvent> events = drainEvents();
+            if (progress.isEmpty() && events.isEmpty()) {
+                return 0;
+            }
+            long startedNanos = System.nanoTime();
+            String result = "GROUP";
+            try {
+                Set<String> rejected = transactionOperations.execute(status -> writeGroup(progress, events));
+                for (PendingProgress pending : progress) {
+                    if (rejected != null && rejected.contains(pending.executionId())) {
+                        pending.reject();
+                    }
+                }
+            } catch (RuntimeException groupFailure) {
+                LOGGER.warn("Business-task journal group commit failed; isolating {} entries",
+                    progress.size() + events.size(), groupFailure);
+                result = "ISOLATED";
+                writeIsolated(progress, events);
+            }
+            if (metrics != null) {
+                metrics.recordJournalCommit(result, progress.size(), events.size(),
+                    Duration.ofNanos(System.nanoTime() - startedNanos));
+            }
+            if (depth() > 0) {
+                requestCommit();
+            }
+            return progress.size() + events.size();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private Set<String> writeGroup(List<PendingProgress> progress, List<PendingEvent> events) {
+        Set<String> rejected = Collections.emptySet();
+        if (!progress.isEmpty()) {
+            List<BizTaskProgressDTO> revisions = new ArrayList<>(progress.size());
+            progress.forEach(pending -> revisions.add(pending.progress));
+            rejected = executionManager.updateProgressBatch(revisions);
+        }
+        if (!events.isEmpty()) {
+            List<BizTaskEventDTO> appended = new ArrayList<>(events.size());
+            events.forEach(pending -> appended.add(pending.event));
+            eventManager.appendAll(appended);
+        }
+        return rejected;
+    }
+
+    private void writeIsolated(List<PendingProgress> progress, List<PendingEvent> events) {
+        for (PendingProgress pending : progress) {
+            boolean accepted;
+            try {
+                accepted = executionManager.updateProgress(pending.progress);
+            } catch (RuntimeException exception) {
+                requeueOrDrop(pending, exception);
+                continue;
+            }
+            if (!accepted) {
+                pending.reject();
+            }
+        }
+        for (PendingEvent pending : events) {
+            try {
+                eventManager.append(pending.event);
+            } catch (RuntimeException exception) {
+                requeueOrDrop(pending, exception);
+            }
+        }
+    }
+
+    /** A newer revision queued meanwhile supersedes the failed one, which is then simply forgotten. */
+    private void requeueOrDrop(PendingProgress pending, RuntimeException failure) {
+        if (++pending.attempts < MAX_WRITE_ATTEMPTS) {
+            LOGGER.warn("Business-task journal progress write failed; queued again: executionId={}, revision={}, "
+                + "attempt={}", pending.executionId(), pending.revision(), pending.attempts, failure);
+            pendingProgress.merge(pending.executionId(), pending,
+                (queued, failed) -> queued.revision() >= failed.revision() ? queued : failed);
+            return;
+        }
+        LOGGER.warn("Business-task journal progress dropped after {} attempts: executionId={}, revision={}",
+            pending.attempts, pending.executionId(), pending.revision(), failure);
+    }
+
+    private void requeueOrDrop(PendingEvent pending, RuntimeException failure) {
+        BizTaskEventDTO event = pending.event;
+        if (++pending.attempts < MAX_WRITE_ATTEMPTS) {
+            LOGGER.warn("Business-task journal event write failed; queued again: eventId={}, eventType={}, attempt={}",
+                event.getEventId(), event.getEventType(), pending.attempts, failure);
+            pendingEvents.add(pending);
+            pendingEventCount.incrementAndGet();
+            return;
+        }
+        LOGGER.warn("Business-task journal event dropped after {} attempts: eventId={}, eventType={}",
+            pending.attempts, event.getEventId(), event.getEventType(), failure);
+    }
+
+    private List<PendingProgress> drainProgress() {
+        List<PendingProgress> drained = new ArrayList<>();
+        Iterator<Map.Entry<String, PendingProgress>> entries = pendingProgress.entrySet().iterator();
+        while (entries.hasNext() && drained.size() < maxBatch) {
+            Map.Entry<String, PendingProgress> entry = entries.next();
+            if (pendingProgress.remove(entry.getKey(), entry.getValue())) {
+                drained.add(entry.getValue());
+            }
+        }
+        return drained;
+    }
+
+    private List<PendingEvent> drainEvents() {
+        List<PendingEvent> drained = new ArrayList<>();
+        PendingEvent event;
+        while (drained.size() < maxBatch && (event = pendingEvents.poll()) != null) {
+            pendingEventCount.decrementAndGet();
+            drained.add(event);
+        }
+        return drained;
+    }
+
+    private boolean hasEventFor(String executionId) {
+        for (PendingEvent pending : pendingEvents) {
+            if (executionId.equals(pending.event.getExecutionId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void afterOffer() {
+        if (!closed) {
+            requestCommit();
+            return;
+        }
+        commitLock.lock();
+        try {
+            while (commit() > 0) {
+                // a closed journal has no loop left to pick up what is queued
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void requestCommit() {
+        if (commitScheduled.compareAndSet(false, true)) {
+            commitRequested.run();
+        }
+    }
+
+    private static final class PendingEvent {
+        private final BizTaskEventDTO event;
+        private int attempts;
+
+        private PendingEvent(BizTaskEventDTO event) {
+            this.event = event;
+        }
+    }
+
+    private static final class PendingProgress {
+        private final BizTaskProgressDTO progress;
+        private final Runnable onRejected;
+        private int attempts;
+
+        private PendingProgress(BizTaskProgressDTO progress, Runnable onRejected) {
+            this.progress = Objects.requireNonNull(progress, "progress");
+            this.onRejected = Objects.requireNonNull(onRejected, "onRejected");
+        }
+
+        private String executionId() {
+            return progress.getExecutionId();
+        }
+
+        private long revision() {
+            return progress.getRevision() == null ? 0L : progress.getRevision();
+        }
+
+        private void reject() {
+            onRejected.run();
+        }
+    }
+}
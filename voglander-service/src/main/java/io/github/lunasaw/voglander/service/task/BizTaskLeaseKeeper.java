@@ -0,0 +1,151 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import io.github.lunasaw.voglander.common.constant.task.TaskConstant;
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskExecutionDTO;
+import io.github.lunasaw.voglander.manager.manager.BizTaskExecutionManager;
+
+/**
+ * Keeps the leases of every execution claimed by this node alive with one batched renewal per tick, from the claim
+ * until its Handler returns or the claim is handed back, so claims waiting for a worker do not expire.
+ * <p>
+ * A claim missing from the renewal result belongs to someone else now: its {@link Lease} is marked lost, which the
+ * worker surfaces as a cancellation request to the running Handler.
+ * </p>
+ */
+final class BizTaskLeaseKeeper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BizTaskLeaseKeeper.class);
+
+    private final BizTaskExecutionManager executionManager;
+    private final Clock clock;
+    private final String workerNode;
+    private final int leaseSeconds;
+    private final BusinessTaskMetrics metrics;
+    private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<>();
+
+    BizTaskLeaseKeeper(BizTaskExecutionManager executionManager, Clock clock, String workerNode, int leaseSeconds,
+        BusinessTaskMetrics metrics) {
+        this.executionManager = Objects.requireNonNull(executionManager, "executionManager");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        if (!StringUtils.hasText(workerNode) || leaseSeconds <= 0) {
+            throw new IllegalArgumentException("Business-task lease keeper node or lease is invalid");
+        }
+        this.workerNode = workerNode;
+        this.leaseSeconds = leaseSeconds;
+        this.metrics = metrics;
+    }
+
+    /** Starts renewing the lease of a freshly claimed execution. */
+    Lease register(String executionId, String claimToken) {
+        return register(executionId, claimToken, LocalDateTime.now(clock).plusSeconds(leaseSeconds));
+    }
+
+    /** Starts renewing a claim whose persisted lease runs until {@code leaseUntil}. */
+    Lease register(String executionId, String claimToken, LocalDateTime leaseUntil) {
+        if (!StringUtils.hasText(executionId) || !StringUtils.hasText(claimToken)) {
+            throw new IllegalArgumentException("Business-task lease identities must not be blank");
+        }
+        Lease lease = new Lease(executionId, claimToken, Objects.requireNonNull(leaseUntil, "leaseUntil"));
+        leases.put(executionId, lease);
+        return lease;
+    }
+
+    /** The registered lease of this exact claim, or null once it was released or lost. */
+    Lease held(String executionId, String claimToken) {
+        Lease lease = executionId == null ? null : leases.get(executionId);
+        return lease != null && lease.claimToken.equals(claimToken) && lease.isHeld() ? lease : null;
+    }
+
+    /** Stops renewing once the Handler has returned; completion writes are guarded by the claim token. */
+    void release(Lease lease) {
+        if (lease != null) {
+            leases.remove(lease.executionId, lease);
+        }
+    }
+
+    int liveLeases() {
+        return leases.size();
+    }
+
+    /** Renews all live leases and returns how many were examined. */
+    int renewLeases() {
+        List<Lease> live = new ArrayList<>(leases.values());
+        if (live.isEmpty()) {
+            return 0;
+        }
+        long startedNanos = System.nanoTime();
+        LocalDateTime heartbeatAt = LocalDateTime.now(clock);
+        LocalDateTime leaseUntil = heartbeatAt.plusSeconds(leaseSeconds);
+        int lost = 0;
+        for (int from = 0; from < live.size(); from += TaskConstant.MAX_LEASES_PER_HEARTBEAT) {
+            List<Lease> chunk = live.subList(from, Math.min(live.size(), from + TaskConstant.MAX_LEASES_PER_HEARTBEAT));
+            Set<String> owned = executionManager.heartbeatBatch(workerNode, commands(chunk), heartbeatAt, leaseUntil);
+            for (Lease lease : chunk) {
+                if (owned.contains(lease.executionId)) {
+                    lease.leaseUntil = leaseUntil;
+                } else if (leases.remove(lease.executionId, lease)) {
+                    lease.lost = true;
+                    lost++;
+                    LOGGER.warn("Business-task lease lost; cancelling local Handler: executionId={}",
+                        lease.executionId);
+                }
+            }
+        }
+        if (metrics != null) {
+            metrics.recordLeaseRenewal(live.size() - lost, lost, Duration.ofNanos(System.nanoTime() - startedNanos));
+        }
+        return live.size();
+    }
+
+    private static List<BizTaskExecutionDTO> commands(List<Lease> chunk) {
+        List<BizTaskExecutionDTO> commands = new ArrayList<>(chunk.size());
+        for (Lease lease : chunk) {
+            BizTaskExecutionDTO command = new BizTaskExecutionDTO();
+            command.setExecutionId(lease.executionId);
+            command.setClaimToken(lease.claimToken);
+            commands.add(command);
+        }
+        return commands;
+    }
+
+    /** One execution's claim as seen by the node; lost is terminal. */
+    static final class Lease {
+        private final String executionId;
+        private final String claimToken;
+        private volatile LocalDateTime leaseUntil;
+        private volatile boolean lost;
+
+        private Lease(String executionId, String claimToken, LocalDateTime leaseUntil) {
+            this.executionId = executionId;
+            this.claimToken = claimToken;
+            this.leaseUntil = leaseUntil;
+        }
+
+        boolean isLost() {
+            return lost;
+        }
+
+        boolean isHeld() {
+            return !lost;
+        }
+
+        /** Held and, as far as the last successful renewal knows, not yet expired in the database. */
+        boolean isCurrent(LocalDateTime now) {
+            return !lost && leaseUntil.isAfter(now);
+        }
+    }
+}
@@ -23,9 +23,16 @@ final class BizTaskLeaseRecovery {
     private final Clock clock;
     private final int batchSize;
     private final TaskRetryPlanner retryPlanner;
+    private final TaskDueListener dueListener;
 
     BizTaskLeaseRecovery(BizTaskExecutionManager executionManager, Clock clock, int batchSize,
         int retryInitialDelaySeconds, int retryMaxDelaySeconds) {
+        this(executionManager, clock, batchSize, retryInitialDelaySeconds, retryMaxDelaySeconds,
+            TaskDueListener.NONE);
+    }
+
+    BizTaskLeaseRecovery(BizTaskExecutionManager executionManager, Clock clock, int batchSize,
+        int retryInitialDelaySeconds, int retryMaxDelaySeconds, TaskDueListener dueListener) {
         this.executionManager = Objects.requireNonNull(executionManager, "executionManager");
         this.clock = Objects.requireNonNull(clock, "clock");
         if (batchSize <= 0 || batchSize > 1000) {
@@ -33,20 +40,26 @@ final class BizTaskLeaseRecovery {
         }
         this.batchSize = batchSize;
         this.retryPlanner = new TaskRetryPlanner(retryInitialDelaySeconds, retryMaxDelaySeconds);
+        this.dueListener = Objects.requireNonNull(dueListener, "dueListener");
     }
 
-    void recoverExpiredLeases() {
+    /** Recovers one batch of expired leases and returns how many expired rows the scan found. */
+    int recoverExpiredLeases() {
         LocalDateTime now = LocalDateTime.now(clock);
         List<BizTaskExecutionDTO> expiredExecutions = executionManager.findExpiredLeases(now, batchSize);
         if (expiredExecutions == null) {
-            return;
+            return 0;
         }
         for (BizTaskExecutionDTO execution : expiredExecutions) {
             if (!isRecoverable(execution, now)) {
                 continue;
             }
-            executionManager.recoverExpiredLease(recoveryCommand(execution, now));
+            BizTaskExecutionDTO command = recoveryCommand(execution, now);
+            if (executionManager.recoverExpiredLease(command) && command.getNextAttemptTime() != null) {
+                dueListener.executionDue(command.getNextAttemptTime());
+            }
         }
+        return expiredExecutions.size();
     }
 
     private BizTaskExecutionDTO recoveryCommand(BizTaskExecutionDTO execution, LocalDateTime now) {
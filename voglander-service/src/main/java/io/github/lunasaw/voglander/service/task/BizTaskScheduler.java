@@ -4,6 +4,7 @@ import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,10 +27,18 @@ final class BizTaskScheduler {
     private final Clock clock;
     private final int scanBatchSize;
     private final int lockTimeoutSeconds;
+    private final TaskDueListener dueListener;
 
     BizTaskScheduler(BizTaskManager bizTaskManager, RedisLockUtil redisLockUtil,
         TransactionOperations transactionOperations, DueTaskMaterializer dueTaskMaterializer, Clock clock,
         int scanBatchSize, int lockTimeoutSeconds) {
+        this(bizTaskManager, redisLockUtil, transactionOperations, dueTaskMaterializer, clock, scanBatchSize,
+            lockTimeoutSeconds, TaskDueListener.NONE);
+    }
+
+    BizTaskScheduler(BizTaskManager bizTaskManager, RedisLockUtil redisLockUtil,
+        TransactionOperations transactionOperations, DueTaskMaterializer dueTaskMaterializer, Clock clock,
+        int scanBatchSize, int lockTimeoutSeconds, TaskDueListener dueListener) {
         this.bizTaskManager = Objects.requireNonNull(bizTaskManager, "bizTaskManager");
         this.redisLockUtil = Objects.requireNonNull(redisLockUtil, "redisLockUtil");
         this.transactionOperations = Objects.requireNonNull(transactionOperations, "transactionOperations");
@@ -40,14 +49,17 @@ final class BizTaskScheduler {
         }
         this.scanBatchSize = scanBatchSize;
         this.lockTimeoutSeconds = lockTimeoutSeconds;
+        this.dueListener = Objects.requireNonNull(dueListener, "dueListener");
     }
 
-    void scanDueTasks() {
+    /** Materializes one batch of due tasks and returns how many due rows the scan found. */
+    int scanDueTasks() {
         LocalDateTime scanTime = LocalDateTime.now(clock);
         List<BizTaskDTO> dueTasks = bizTaskManager.findDueTasks(scanTime, scanBatchSize);
         for (BizTaskDTO dueTask : dueTasks) {
             scheduleOne(dueTask, scanTime);
         }
+        return dueTasks.size();
     }
 
     private void scheduleOne(BizTaskDTO dueTask, LocalDateTime scanTime) {
@@ -59,13 +71,16 @@ final class BizTaskScheduler {
         if (!Boolean.TRUE.equals(redisLockUtil.lock(lockKey, lockValue, lockTimeoutSeconds))) {
             return;
         }
+        AtomicReference<BizTaskDTO> materialized = new AtomicReference<>();
         try {
             transactionOperations.executeWithoutResult(status -> {
                 BizTaskDTO current = bizTaskManager.getForScheduling(dueTask.getTaskId());
                 if (isStillDue(current, scanTime)) {
                     dueTaskMaterializer.materialize(current);
+                    materialized.set(current);
                 }
             });
+            notifyCommitted(materialized.get(), scanTime);
         } catch (RuntimeException exception) {
             LOGGER.error("Business-task schedule materialization failed: taskId={}", dueTask.getTaskId(),
                 exception);
@@ -74,10 +89,25 @@ final class BizTaskScheduler {
         }
     }
 
+    /** The materializer advanced the task's cursor in place, so the next plan time is read from the same DTO. */
+    private void notifyCommitted(BizTaskDTO task, LocalDateTime scanTime) {
+        if (task == null) {
+            return;
+        }
+        dueListener.executionDue(scanTime);
+        if (task.getNextPlanTime() != null && isSchedulable(task)) {
+            dueListener.taskDue(task.getNextPlanTime());
+        }
+    }
+
     private boolean isStillDue(BizTaskDTO task, LocalDateTime scanTime) {
         if (task == null || task.getNextPlanTime() == null || task.getNextPlanTime().isAfter(scanTime)) {
             return false;
         }
+        return isSchedulable(task);
+    }
+
+    private boolean isSchedulable(BizTaskDTO task) {
         return "SCHEDULED".equals(task.getState()) || "RUNNING".equals(task.getState());
     }
 }
@@ -1,6 +1,7 @@
 package io.github.lunasaw.voglander.service.task;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.UUID;
@@ -15,6 +16,7 @@ import io.github.lunasaw.voglander.client.domain.task.TaskExecutionResult;
 import io.github.lunasaw.voglander.client.service.task.LongTaskContext;
 import io.github.lunasaw.voglander.client.service.task.LongTaskHandler;
 import io.github.lunasaw.voglander.common.constant.task.TaskConstant;
+import io.github.lunasaw.voglander.common.enums.task.TaskClaimModeEnum;
 import io.github.lunasaw.voglander.common.enums.task.TaskEventTypeEnum;
 import io.github.lunasaw.voglander.common.enums.task.TaskExecutionStateEnum;
 import io.github.lunasaw.voglander.common.enums.task.TaskStateEnum;
@@ -46,6 +48,10 @@ final class BizTaskWorker implements BusinessTaskExecutionWorker {
     private final long progressMinIntervalMillis;
     private final TaskRetryPlanner retryPlanner;
     private final Supplier<String> claimTokenSupplier;
+    private final TaskDueListener dueListener;
+    private final BusinessTaskMetrics metrics;
+    private final BizTaskLeaseKeeper leaseKeeper;
+    private final BizTaskJournal journal;
 
     BizTaskWorker(BizTaskExecutionManager executionManager, BizTaskManager bizTaskManager,
         LongTaskHandlerRegistry handlerRegistry, BizTaskCompletionManager completionManager,
@@ -73,6 +79,52 @@ final class BizTaskWorker implements BusinessTaskExecutionWorker {
         RedisLockUtil redisLockUtil, TransactionOperations transactionOperations, Clock clock, String workerNode,
         int leaseSeconds, int lockTimeoutSeconds, long progressMinIntervalMillis, int retryInitialDelaySeconds,
         int retryMaxDelaySeconds, Supplier<String> claimTokenSupplier) {
+        this(executionManager, bizTaskManager, handlerRegistry, completionManager, redisLockUtil,
+            transactionOperations, clock, workerNode, leaseSeconds, lockTimeoutSeconds, progressMinIntervalMillis,
+            retryInitialDelaySeconds, retryMaxDelaySeconds, claimTokenSupplier, TaskDueListener.NONE);
+    }
+
+    BizTaskWorker(BizTaskExecutionManager executionManager, BizTaskManager bizTaskManager,
+        LongTaskHandlerRegistry handlerRegistry, BizTaskCompletionManager completionManager,
+        RedisLockUtil redisLockUtil, TransactionOperations transactionOperations, Clock clock, String workerNode,
+        int leaseSeconds, int lockTimeoutSeconds, long progressMinIntervalMillis, int retryInitialDelaySeconds,
+        int retryMaxDelaySeconds, Supplier<String> claimTokenSupplier, TaskDueListener dueListener) {
+        this(executionManager, bizTaskManager, handlerRegistry, completionManager, redisLockUtil,
+            transactionOperations, clock, workerNode, leaseSeconds, lockTimeoutSeconds, progressMinIntervalMillis,
+            retryInitialDelaySeconds, retryMaxDelaySeconds, claimTokenSupplier, dueListener, null);
+    }
+
+    BizTaskWorker(BizTaskExecutionManager executionManager, BizTaskManager bizTaskManager,
+        LongTaskHandlerRegistry handlerRegistry, BizTaskCompletionManager completionManager,
+        RedisLockUtil redisLockUtil, TransactionOperations transactionOperations, Clock clock, String workerNode,
+        int leaseSeconds, int lockTimeoutSeconds, long progressMinIntervalMillis, int retryInitialDelaySeconds,
+        int retryMaxDelaySeconds, Supplier<String> claimTokenSupplier, TaskDueListener dueListener,
+        BusinessTaskMetrics metrics) {
+        this(executionManager, bizTaskManager, handlerRegistry, completionManager, redisLockUtil,
+            transactionOperations, clock, workerNode, leaseSeconds, lockTimeoutSeconds, progressMinIntervalMillis,
+            retryInitialDelaySeconds, retryMaxDelaySeconds, claimTokenSupplier, dueListener, metrics, null);
+    }
+
+    /** With a lease keeper the node renews all leases in batches and Handler heartbeats only read the result. */
+    BizTaskWorker(BizTaskExecutionManager executionManager, BizTaskManager bizTaskManager,
+        LongTaskHandlerRegistry handlerRegistry, BizTaskCompletionManager completionManager,
+        RedisLockUtil redisLockUtil, TransactionOperations transactionOperations, Clock clock, String workerNode,
+        int leaseSeconds, int lockTimeoutSeconds, long progressMinIntervalMillis, int retryInitialDelaySeconds,
+        int retryMaxDelaySeconds, Supplier<String> claimTokenSupplier, TaskDueListener dueListener,
+        BusinessTaskMetrics metrics, BizTaskLeaseKeeper leaseKeeper) {
+        this(executionManager, bizTaskManager, handlerRegistry, completionManager, redisLockUtil,
+            transactionOperations, clock, workerNode, leaseSeconds, lockTimeoutSeconds, progressMinIntervalMillis,
+            retryInitialDelaySeconds, retryMaxDelaySeconds, claimTokenSupplier, dueListener, metrics, leaseKeeper,
+            null);
+    }
+
+    /** With a journal, progress and retry timeline events are written behind and flushed before state changes. */
+    BizTaskWorker(BizTaskExecutionManager executionManager, BizTaskManager bizTaskManager,
+        LongTaskHandlerRegistry handlerRegistry, BizTaskCompletionManager completionManager,
+        RedisLockUtil redisLockUtil, TransactionOperations transactionOperations, Clock clock, String workerNode,
+        int leaseSeconds, int lockTimeoutSeconds, long progressMinIntervalMillis, int retryInitialDelaySeconds,
+        int retryMaxDelaySeconds, Supplier<String> claimTokenSupplier, TaskDueListener dueListener,
+        BusinessTaskMetrics metrics, BizTaskLeaseKeeper leaseKeeper, BizTaskJournal journal) {
         this.executionManager = Objects.requireNonNull(executionManager, "executionManager");
         this.bizTaskManager = Objects.requireNonNull(bizTaskManager, "bizTaskManager");
         this.handlerRegistry = Objects.requireNonNull(handlerRegistry, "handlerRegistry");
@@ -95,6 +147,10 @@ final class BizTaskWorker implements BusinessTaskExecutionWorker {
         this.progressMinIntervalMillis = progressMinIntervalMillis;
         this.retryPlanner = new TaskRetryPlanner(retryInitialDelaySeconds, retryMaxDelaySeconds);
         this.claimTokenSupplier = Objects.requireNonNull(claimTokenSupplier, "claimTokenSupplier");
+        this.dueListener = Objects.requireNonNull(dueListener, "dueListener");
+        this.metrics = metrics;
+        this.leaseKeeper = leaseKeeper;
+        this.journal = journal;
     }
 
     @Override
@@ -103,25 +159,55 @@ final class BizTaskWorker implements BusinessTaskExecutionWorker {
         if (claimed == null) {
             return;
         }
-        executeClaimed(claimed);
+        executeClaimed(claimed, leaseKeeper == null
+            ? null : leaseKeeper.register(claimed.getExecutionId(), claimed.getClaimToken()));
+    }
+
+    /**
+     * Runs an execution that a batch claim already moved to RUNNING for this node. With a lease keeper the claim
+     * was registered when it was claimed; one that is no longer held was lost or handed back and is not run.
+     */
+    void runClaimed(BizTaskExecutionDTO claimed) {
+        Objects.requireNonNull(claimed, "claimed");
+        BizTaskLeaseKeeper.Lease lease = null;
+        if (leaseKeeper != null) {
+            lease = leaseKeeper.held(claimed.getExecutionId(), claimed.getClaimToken());
+            if (lease == null) {
+                log.warn("Business-task batch claim no longer held; not starting: executionId={}",
+                    claimed.getExecutionId());
+                return;
+            }
+        }
+        executeClaimed(claimed, lease);
     }
 
     BizTaskExecutionDTO claim(String executionId) {
         if (!StringUtils.hasText(executionId)) {
             throw new IllegalArgumentException("executionId must not be blank");
         }
+        long startedNanos = System.nanoTime();
         String lockKey = TaskConstant.EXECUTION_LOCK_PREFIX + executionId;
         String lockValue = redisLockUtil.generateLockValue();
         if (!Boolean.TRUE.equals(redisLockUtil.lock(lockKey, lockValue, lockTimeoutSeconds))) {
+            recordSingleClaim(null, startedNanos);
             return null;
         }
         try {
-            return transactionOperations.execute(status -> claimCurrent(executionId));
+            BizTaskExecutionDTO claimed = transactionOperations.execute(status -> claimCurrent(executionId));
+            recordSingleClaim(claimed, startedNanos);
+            return claimed;
         } finally {
             redisLockUtil.unLock(lockKey, lockValue);
         }
     }
 
+    private void recordSingleClaim(BizTaskExecutionDTO claimed, long startedNanos) {
+        if (metrics != null) {
+            metrics.recordClaim(TaskClaimModeEnum.SINGLE.name(), claimed == null ? "CONFLICT" : "CLAIMED", 1,
+                Duration.ofNanos(System.nanoTime() - startedNanos));
+        }
+    }
+
     private BizTaskExecutionDTO claimCurrent(String executionId) {
         LocalDateTime now = LocalDateTime.now(clock);
         BizTaskExecutionDTO current = executionManager.getForClaim(executionId);
@@ -152,7 +238,18 @@ final class BizTaskWorker implements BusinessTaskExecutionWorker {
             && (execution.getNextAttemptTime() == null || !execution.getNextAttemptTime().isAfter(now));
     }
 
-    private void executeClaimed(BizTaskExecutionDTO execution) {
+    /** Whatever path leaves, the claim's lease stops being renewed; release is idempotent. */
+    private void executeClaimed(BizTaskExecutionDTO execution, BizTaskLeaseKeeper.Lease lease) {
+        try {
+            executeHeld(execution, lease);
+        } finally {
+            if (lease != null) {
+                leaseKeeper.release(lease);
+            }
+        }
+    }
+
+    private void executeHeld(BizTaskExecutionDTO execution, BizTaskLeaseKeeper.Lease lease) {
         BizTaskDTO task = bizTaskManager.getForExecution(execution.getTaskId());
         if (task == null) {
             throw new ServiceException(ServiceExceptionEnum.TASK_NOT_FOUND);
@@ -169,23 +266,36 @@ final class BizTaskWorker implements BusinessTaskExecutionWorker {
         if (!task.getTaskType().equals(handler.taskType())) {
             throw handlerFailure("Resolved Handler type does not match persisted task type");
         }
-        ClaimedTaskContext context = context(execution, handler);
+        if (lease != null && !lease.isHeld()) {
+            log.warn("Business-task lease lost before Handler start; not starting: taskType={}, executionId={}",
+                task.getTaskType(), execution.getExecutionId());
+            return;
+        }
+        ClaimedTaskContext context = context(execution, handler, lease);
         TaskExecutionResult result;
         try {
-            result = handler.execute(context, TaskPayloadValidator.copyOf(task.getPayload()));
+            result = runHandler(handler, context, task, lease);
         } catch (Exception exception) {
             TaskAttemptContext attemptContext = attemptContext(execution);
             RetryDecision decision = TaskRetryDecisionNormalizer.normalize(handler, exception, attemptContext);
             LocalDateTime retryAt = retryPlanner.nextAttemptTime(decision, attemptContext, LocalDateTime.now(clock));
             if (retryAt != null) {
+                flushJournal(execution);
                 boolean retryScheduled = executionManager.markRetryWait(
                     retryWaitCommand(execution, decision, retryAt));
+                if (retryScheduled) {
+                    dueListener.executionDue(retryAt);
+                    if (journal != null) {
+                        journal.offerEvent(retryEvent(execution, decision, retryAt));
+                    }
+                }
                 log.warn(
                     "Business-task Handler exception retry scheduled: taskType={}, executionId={}, failureCode={}, accepted={}",
                     task.getTaskType(), execution.getExecutionId(), decision.failureCode(), retryScheduled);
                 return;
             }
             context.forceProgressPersistence();
+            flushJournal(execution);
             LocalDateTime finishedAt = LocalDateTime.now(clock);
             log.warn(
                 "Business-task Handler exception terminalized: taskType={}, executionId={}, failureCode={}, exceptionType={}",
@@ -199,6 +309,7 @@ final class BizTaskWorker implements BusinessTaskExecutionWorker {
             throw handlerFailure("Handler returned no execution result");
         }
         context.forceProgressPersistence();
+        flushJournal(execution);
         LocalDateTime finishedAt = LocalDateTime.now(clock);
         try {
             completionManager.completeSuccess(completionCommand(execution, finishedAt), result,
@@ -217,19 +328,31 @@ final class BizTaskWorker implements BusinessTaskExecutionWorker {
         }
     }
 
-    private ClaimedTaskContext context(BizTaskExecutionDTO execution, LongTaskHandler handler) {
+    private TaskExecutionResult runHandler(LongTaskHandler handler, ClaimedTaskContext context, BizTaskDTO task,
+        BizTaskLeaseKeeper.Lease lease) throws Exception {
+        try {
+            return handler.execute(context, TaskPayloadValidator.copyOf(task.getPayload()));
+        } finally {
+            if (lease != null) {
+                leaseKeeper.release(lease);
+            }
+        }
+    }
+
+    private ClaimedTaskContext context(BizTaskExecutionDTO execution, LongTaskHandler handler,
+        BizTaskLeaseKeeper.Lease lease) {
         TaskAttemptContext attemptContext = attemptContext(execution);
         LocalDateTime lastPersistedAt = execution.getUpdateTime() == null
             ? LocalDateTime.now(clock) : execution.getUpdateTime();
         ThrottledTaskProgressReporter reporter = new ThrottledTaskProgressReporter(executionManager,
             progressMinIntervalMillis, progressValue(execution.getProgressCurrent()),
             progressValue(execution.getProgressTotal()), progressValue(execution.getProgressRevision()),
-            execution.getProgressMessage(), lastPersistedAt);
+            execution.getProgressMessage(), lastPersistedAt, journal);
         return new ClaimedTaskContext(execution.getTaskId(), execution.getExecutionId(), execution.getClaimToken(),
             attemptContext.attempt(), progressValue(execution.getProgressCurrent()), progressValue(execution.getProgressTotal()),
             progressValue(execution.getProgressRevision()), clock, reporter,
-            () -> heartbeat(execution.getExecutionId(), execution.getClaimToken()),
-            () -> isCancellationRequested(execution.getTaskId(), handler));
+            lease == null ? () -> heartbeat(execution.getExecutionId(), execution.getClaimToken()) : lease::isHeld,
+            () -> (lease != null && lease.isLost()) || isCancellationRequested(execution.getTaskId(), handler));
     }
 
     private TaskAttemptContext attemptContext(BizTaskExecutionDTO execution) {
@@ -262,6 +385,13 @@ final class BizTaskWorker implements BusinessTaskExecutionWorker {
         return executionManager.heartbeat(command);
     }
 
+    /** Terminal and retry transitions must land after every progress revision queued for the attempt. */
+    private void flushJournal(BizTaskExecutionDTO execution) {
+        if (journal != null) {
+            journal.flush(execution.getExecutionId());
+        }
+    }
+
     private long progressValue(Long value) {
         return value == null ? 0L : value;
     }
@@ -320,6 +450,27 @@ final class BizTaskWorker implements BusinessTaskExecutionWorker {
         return event;
     }
 
+    private BizTaskEventDTO retryEvent(BizTaskExecutionDTO execution, RetryDecision decision,
+        LocalDateTime nextAttemptTime) {
+        LocalDateTime occurredAt = LocalDateTime.now(clock);
+        BizTaskEventDTO event = new BizTaskEventDTO();
+        event.setCreateTime(occurredAt);
+        event.setEventId(TaskConstant.EVENT_ID_PREFIX + UUID.randomUUID().toString().replace("-", ""));
+        event.setTaskId(execution.getTaskId());
+        event.setExecutionId(execution.getExecutionId());
+        event.setEventType(TaskEventTypeEnum.RETRY_SCHEDULED.name());
+        event.setFromState(TaskExecutionStateEnum.RUNNING.name());
+        event.setToState(TaskExecutionStateEnum.RETRY_WAIT.name());
+        event.setAttemptNo(execution.getAttemptCount());
+        event.setWorkerNode(workerNode);
+        event.setFailureCode(decision.failureCode());
+        event.setFailureMessage(decision.failureMessage());
+        event.setDedupeKey("execution-retry:" + execution.getExecutionId() + ':' + execution.getAttemptCount());
+        event.setEventData("{\"nextAttemptTime\":\"" + nextAttemptTime + "\"}");
+        event.setOccurredAt(occurredAt);
+        return event;
+    }
+
     private BizTaskEventDTO successEvent(BizTaskExecutionDTO execution, LocalDateTime finishedAt) {
         BizTaskEventDTO event = new BizTaskEventDTO();
         event.setCreateTime(finishedAt);
@@ -1,20 +1,27 @@
 package io.github.lunasaw.voglander.service.task;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import io.github.lunasaw.voglander.common.constant.task.TaskConstant;
 
-/** Creates the isolated bounded executor used only by durable business-task workers. */
+/** Creates the isolated executors used only by durable business-task workers. */
 @Configuration(proxyBeanMethods = false)
 @EnableConfigurationProperties(BusinessTaskProperties.class)
 public class BusinessTaskExecutorConfiguration {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(BusinessTaskExecutorConfiguration.class);
+
     /** Queue saturation is reported to the dispatcher and never runs work on its scanning thread. */
     @Bean(name = TaskConstant.EXECUTOR_BEAN_NAME)
     @ConditionalOnProperty(prefix = "voglander.task", name = "enabled", havingValue = "true",
@@ -30,4 +37,31 @@ public class BusinessTaskExecutorConfiguration {
         executor.setAwaitTerminationSeconds(properties.getExecutorShutdownAwaitSeconds());
         return executor;
     }
+
+    /**
+     * Carrier of I/O-bound Handlers. Concurrency is bounded by the fair executor's I/O slots, so this executor is
+     * unbounded: virtual-thread-per-task when the JVM has it, otherwise a cached pool of named platform threads.
+     */
+    @Bean(name = TaskConstant.IO_EXECUTOR_BEAN_NAME, destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "voglander.task", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+    public ExecutorService businessTaskIoExecutor(BusinessTaskProperties properties) {
+        if (properties.isVirtualThreadsEnabled()) {
+            ExecutorService virtualThreads = virtualThreadPerTaskExecutor();
+            if (virtualThreads != null) {
+                return virtualThreads;
+            }
+            LOGGER.info("Virtual threads are unavailable on this JVM; I/O-bound business tasks use platform threads");
+        }
+        return Executors.newCachedThreadPool(new CustomizableThreadFactory("business-task-io-"));
+    }
+
+    /** Looked up reflectively so the module still targets Java 17. */
+    static ExecutorService virtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException unavailable) {
+            return null;
+        }
+    }
 }
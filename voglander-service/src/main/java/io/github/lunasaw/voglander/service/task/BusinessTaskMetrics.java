@@ -3,11 +3,13 @@ package io.github.lunasaw.voglander.service.task;
 import java.time.Duration;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.IntSupplier;
 import java.util.regex.Pattern;
 
 import org.springframework.stereotype.Component;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 
@@ -80,11 +82,101 @@ public class BusinessTaskMetrics {
             throttled ? "THROTTLED" : "PERSISTED").increment();
     }
 
+    /** Lag is how late a scan started after it became due; scan cost is the scan's own duration. */
+    public void recordRuntimeLoop(String loop, String result, Duration lag, Duration scanCost) {
+        if (lag != null && !lag.isNegative()) {
+            Timer.builder("voglander.business.runtime.lag")
+                .tag("loop", stableTag(loop))
+                .register(meterRegistry)
+                .record(lag);
+        }
+        if (scanCost != null && !scanCost.isNegative()) {
+            Timer.builder("voglander.business.runtime.scan")
+                .tag("loop", stableTag(loop))
+                .tag("result", resultTag(result))
+                .register(meterRegistry)
+                .record(scanCost);
+        }
+    }
+
+    /**
+     * Counts claim outcomes per mode. In SINGLE mode CONFLICT over CLAIMED plus CONFLICT is the claim-conflict rate.
+     * BATCH claims skip rows other nodes hold instead of contending for them, so that mode never reports CONFLICT;
+     * its outcomes are EMPTY, CLAIMED, RELEASED, RELEASE_LOST and LAPSED (a claim whose lease ran out before it
+     * started).
+     */
+    public void recordClaim(String mode, String result, int count, Duration latency) {
+        if (count > 0) {
+            counter("voglander.business.claim.count", "mode", stableTag(mode), "result", resultTag(result))
+                .increment(count);
+        }
+        if (latency != null && !latency.isNegative()) {
+            Timer.builder("voglander.business.claim.latency")
+                .tag("mode", stableTag(mode))
+                .register(meterRegistry)
+                .record(latency);
+        }
+    }
+
+    /** One node-level renewal tick: leases still owned, leases lost to another claimer and the tick's latency. */
+    public void recordLeaseRenewal(int renewed, int lost, Duration latency) {
+        if (renewed > 0) {
+            counter("voglander.business.lease.renewal", "result", "RENEWED").increment(renewed);
+        }
+        if (lost > 0) {
+            counter("voglander.business.lease.renewal", "result", "LOST").increment(lost);
+        }
+        if (latency != null && !latency.isNegative()) {
+            Timer.builder("voglander.business.lease.renewal.latency").register(meterRegistry).record(latency);
+        }
+    }
+
+    /** Entries queued in the write-behind journal and not yet committed. */
+    public void bindJournalDepth(IntSupplier depth) {
+        Gauge.builder("voglander.business.journal.depth", depth, IntSupplier::getAsInt)
+            .strongReference(true)
+            .register(meterRegistry);
+    }
+
+    /** One journal group commit; ISOLATED means the group failed and its entries were written one by one. */
+    public void recordJournalCommit(String result, int progress, int events, Duration latency) {
+        if (progress > 0) {
+            counter("voglander.business.journal.entries", "lane", "PROGRESS").increment(progress);
+        }
+        if (events > 0) {
+            counter("voglander.business.journal.entries", "lane", "EVENT").increment(events);
+        }
+        if (latency != null && !latency.isNegative()) {
+            Timer.builder("voglander.business.journal.commit")
+                .tag("result", resultTag(result))
+                .register(meterRegistry)
+                .record(latency);
+        }
+    }
+
+    /** Time dispatched work waited in the fair executor before a slot ran it, per task type, priority and lane. */
+    public void recordDispatchQueueWait(String taskType, String priorityClass, String lane, Duration wait) {
+        if (wait == null || wait.isNegative()) {
+            return;
+        }
+        Timer.builder("voglander.business.executor.queue.wait")
+            .tag("task_type", taskTypeTag(taskType))
+            .tag("priority", stableTag(priorityClass))
+            .tag("lane", stableTag(lane))
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(wait);
+    }
+
     /** Exposed for contract tests and future instrumentation adapters. */
     public static Set<String> forbiddenTagKeys() {
         return FORBIDDEN_TAG_KEYS;
     }
 
+    private Counter counter(String name, String key, String value) {
+        return Counter.builder(name).tag(key, value).register(meterRegistry);
+    }
+
     private Counter counter(String name, String key1, String value1, String key2, String value2) {
         return Counter.builder(name).tag(key1, value1).tag(key2, value2).register(meterRegistry);
     }
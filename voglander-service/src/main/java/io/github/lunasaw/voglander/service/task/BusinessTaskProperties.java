@@ -1,12 +1,18 @@
 package io.github.lunasaw.voglander.service.task;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 import io.github.lunasaw.voglander.common.constant.task.TaskConstant;
+import io.github.lunasaw.voglander.common.enums.task.TaskClaimModeEnum;
 import lombok.Data;
 
 /** Validated runtime settings for the durable business-task engine. */
@@ -27,11 +33,84 @@ public class BusinessTaskProperties {
     @Min(1)
     private int executorShutdownAwaitSeconds = TaskConstant.DEFAULT_EXECUTOR_SHUTDOWN_AWAIT_SECONDS;
 
+    /** Concurrent I/O-bound Handlers, run on virtual threads where available; 0 keeps them on the platform pool. */
+    @Min(0)
+    private int executorIoMaxConcurrency = TaskConstant.DEFAULT_EXECUTOR_IO_MAX_CONCURRENCY;
+
+    /** Uses virtual threads for I/O-bound Handlers when the JVM provides them. */
+    private boolean virtualThreadsEnabled = true;
+
+    /** Executions of one organization running at once on a node; 0 is unbounded. */
+    @Min(0)
+    private int organizationMaxConcurrency;
+
+    /** Fair-queuing weight per organization id; unlisted organizations weigh 1. */
+    @NotNull
+    private Map<String, Integer> organizationWeights = new LinkedHashMap<>();
+
     @Min(1)
     private long progressMinIntervalMs = TaskConstant.DEFAULT_PROGRESS_MIN_INTERVAL_MS;
 
     private boolean enabled = true;
 
+    /** Worker identity written to claimed executions; blank derives {@code host:pid}. */
+    private String workerNode;
+
+    @Min(1)
+    @Max(1000)
+    private int scanBatchSize = TaskConstant.DEFAULT_SCAN_BATCH;
+
+    /** BATCH claims a window of runnable executions per statement; SINGLE keeps per-id CAS claims. */
+    @NotNull
+    private TaskClaimModeEnum claimMode = TaskClaimModeEnum.BATCH;
+
+    @Min(1)
+    @Max(1000)
+    private int catchupBatchSize = TaskConstant.DEFAULT_CATCHUP_BATCH;
+
+    @Min(1)
+    private int leaseSeconds = TaskConstant.DEFAULT_LEASE_SECONDS;
+
+    @Min(1)
+    private int lockTimeoutSeconds = 30;
+
+    @Min(0)
+    private int allowedDelaySeconds = TaskConstant.DEFAULT_ALLOWED_DELAY_SECONDS;
+
+    @Min(1)
+    private int scheduledMaxAttempts = 1;
+
+    @Min(1)
+    private int retryInitialDelaySeconds = TaskConstant.DEFAULT_RETRY_INITIAL_DELAY_SECONDS;
+
+    @Min(1)
+    private int retryMaxDelaySeconds = TaskConstant.DEFAULT_RETRY_MAX_DELAY_SECONDS;
+
+    /** Delay between scans that found some work, and the first idle back-off step. */
+    @Min(1)
+    private long runtimeMinIntervalMs = 100L;
+
+    /** Idle back-off ceiling of the dispatch and schedule loops; wake-ups normally arrive first. */
+    @Min(1)
+    private long runtimeMaxIntervalMs = 5_000L;
+
+    /** Idle back-off ceiling of the lease-recovery loop, which has no wake-up source. */
+    @Min(1)
+    private long leaseRecoveryMaxIntervalMs = 30_000L;
+
+    /** Write-behind window of the progress/event journal; one group commit covers everything queued in it. */
+    @Min(1)
+    private long journalCommitIntervalMs = TaskConstant.DEFAULT_JOURNAL_COMMIT_INTERVAL_MS;
+
+    /** Upper bound of progress revisions and of events written by one journal group commit. */
+    @Min(1)
+    @Max(1000)
+    private int journalMaxBatch = TaskConstant.DEFAULT_JOURNAL_MAX_BATCH;
+
+    /** Period of the node-level lease renewal; one batched heartbeat covers every running execution. */
+    @Min(1)
+    private long leaseRenewIntervalMs = TaskConstant.DEFAULT_LEASE_RENEW_INTERVAL_MS;
+
     private boolean eventRetentionEnabled = true;
 
     @Min(1)
@@ -48,4 +127,26 @@ public class BusinessTaskProperties {
     public boolean isExecutorRangeValid() {
         return executorCoreSize <= executorMaxSize;
     }
+
+    /** Weights drive stride scheduling, so each must be a positive bounded integer. */
+    @AssertTrue(message = "voglander.task organization-weights must be within 1-1000")
+    public boolean isOrganizationWeightsValid() {
+        return organizationWeights == null || organizationWeights.values().stream()
+            .allMatch(weight -> weight != null && weight > 0
+                && weight <= BizTaskFairExecutor.MAX_ORGANIZATION_WEIGHT);
+    }
+
+    /** Back-off ceilings must not undercut the minimum scan interval. */
+    @AssertTrue(message = "voglander.task runtime max intervals must not be below runtime-min-interval-ms "
+        + "or journal-commit-interval-ms")
+    public boolean isRuntimeIntervalValid() {
+        return runtimeMinIntervalMs <= runtimeMaxIntervalMs && runtimeMinIntervalMs <= leaseRecoveryMaxIntervalMs
+            && journalCommitIntervalMs <= runtimeMaxIntervalMs;
+    }
+
+    /** At least two renewals must fit in one lease so a single slow tick does not expire live claims. */
+    @AssertTrue(message = "voglander.task lease-renew-interval-ms must be at most half of lease-seconds")
+    public boolean isLeaseRenewIntervalValid() {
+        return leaseRenewIntervalMs * 2 <= leaseSeconds * 1_000L;
+    }
 }
@@ -0,0 +1,202 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.StringUtils;
+
+import io.github.lunasaw.voglander.common.constant.task.TaskConstant;
+import io.github.lunasaw.voglander.common.enums.task.TaskClaimModeEnum;
+import io.github.lunasaw.voglander.manager.manager.BizTaskCompletionManager;
+import io.github.lunasaw.voglander.manager.manager.BizTaskEventManager;
+import io.github.lunasaw.voglander.manager.manager.BizTaskExecutionManager;
+import io.github.lunasaw.voglander.manager.manager.BizTaskManager;
+import io.github.lunasaw.voglander.repository.cache.redis.RedisLockUtil;
+
+/**
+ * Runs the durable task engine: dispatch, schedule, lease-recovery, lease-renewal and journal loops on dedicated
+ * threads.
+ * <p>
+ * The loops are not {@code @Scheduled} jobs: they are paced by {@link TaskRuntimeLoop}, woken through
+ * {@link BusinessTaskWakeups}, and a dispatch rejected by a draining executor leaves the execution runnable.
+ * In {@link TaskClaimModeEnum#BATCH} mode the dispatch loop claims whole windows instead of one row per lock.
+ * Dispatched work is ordered by {@link BizTaskFairExecutor} before it reaches the bounded pool or the I/O executor.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "voglander.task", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BusinessTaskRuntime implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BusinessTaskRuntime.class);
+
+    static final String DISPATCH = "DISPATCH";
+    static final String SCHEDULE = "SCHEDULE";
+    static final String LEASE_RECOVERY = "LEASE_RECOVERY";
+    static final String LEASE_RENEWAL = "LEASE_RENEWAL";
+    static final String JOURNAL = "JOURNAL";
+    private static final Supplier<String> CLAIM_TOKENS = () -> UUID.randomUUID().toString().replace("-", "");
+
+    private final BusinessTaskWakeups wakeups;
+    private final TaskRuntimeLoop dispatchLoop;
+    private final TaskRuntimeLoop scheduleLoop;
+    private final TaskRuntimeLoop leaseRecoveryLoop;
+    private final TaskRuntimeLoop leaseRenewalLoop;
+    private final TaskRuntimeLoop journalLoop;
+    private final BizTaskJournal journal;
+    private final BizTaskFairExecutor fairExecutor;
+    private final long journalCommitIntervalMs;
+    private volatile boolean running;
+
+    public BusinessTaskRuntime(BusinessTaskProperties properties, BizTaskManager bizTaskManager,
+        BizTaskExecutionManager executionManager, BizTaskCompletionManager completionManager,
+        BizTaskEventManager eventManager, LongTaskHandlerRegistry handlerRegistry, RedisLockUtil redisLockUtil,
+        TransactionOperations transactionOperations,
+        @Qualifier(TaskConstant.EXECUTOR_BEAN_NAME) Executor executor,
+        @Qualifier(TaskConstant.IO_EXECUTOR_BEAN_NAME) Executor ioExecutor, BusinessTaskWakeups wakeups,
+        ObjectProvider<BusinessTaskMetrics> metrics) {
+        this.wakeups = Objects.requireNonNull(wakeups, "wakeups");
+        Clock clock = Clock.systemDefaultZone();
+        BusinessTaskMetrics taskMetrics = metrics.getIfAvailable();
+        int batch = properties.getScanBatchSize();
+        String node = workerNode(properties);
+        BizTaskLeaseKeeper leaseKeeper = new BizTaskLeaseKeeper(executionManager, clock, node,
+            properties.getLeaseSeconds(), taskMetrics);
+        this.journalCommitIntervalMs = properties.getJournalCommitIntervalMs();
+        this.journal = new BizTaskJournal(executionManager, eventManager, transactionOperations,
+            properties.getJournalMaxBatch(), this::scheduleJournalCommit, taskMetrics);
+        BizTaskWorker worker = new BizTaskWorker(executionManager, bizTaskManager, handlerRegistry,
+            completionManager, redisLockUtil, transactionOperations, clock, node,
+            properties.getLeaseSeconds(), properties.getLockTimeoutSeconds(), properties.getProgressMinIntervalMs(),
+            properties.getRetryInitialDelaySeconds(), properties.getRetryMaxDelaySeconds(),
+            CLAIM_TOKENS, wakeups, taskMetrics, leaseKeeper, journal);
+        this.fairExecutor = new BizTaskFairExecutor(executor, properties.getExecutorCoreSize(), ioExecutor,
+            properties.getExecutorIoMaxConcurrency(), properties.getExecutorQueueCapacity(),
+            properties.getOrganizationMaxConcurrency(), properties.getOrganizationWeights(), taskMetrics);
+        TaskDispatchClassifier classifier = new TaskDispatchClassifier(bizTaskManager, handlerRegistry,
+            TaskConstant.DISPATCH_CLASS_CACHE_SIZE);
+        IntSupplier dispatchScan;
+        if (properties.getClaimMode() == TaskClaimModeEnum.SINGLE) {
+            dispatchScan = new BizTaskDispatcher(executionManager, fairExecutor, worker, clock, batch,
+                this::signalDispatch, classifier)::dispatchRunnableExecutions;
+        } else {
+            BizTaskBatchClaimer claimer = new BizTaskBatchClaimer(executionManager, clock, node,
+                properties.getLeaseSeconds(), CLAIM_TOKENS, taskMetrics, leaseKeeper);
+            dispatchScan = new BizTaskBatchDispatcher(claimer, fairExecutor, worker::runClaimed,
+                fairExecutor::freeSlots, batch, this::signalDispatch, classifier,
+                fairExecutor::freeSlots)::dispatchClaimedBatch;
+        }
+        TaskScheduleMaterializer materializer = new TaskScheduleMaterializer(
+            new TaskSchedulePlanner(clock, properties.getAllowedDelaySeconds()), executionManager, bizTaskManager,
+            clock, properties.getScheduledMaxAttempts(), properties.getCatchupBatchSize(),
+            TaskScheduleMaterializer.randomExecutionIdSupplier());
+        BizTaskScheduler scheduler = new BizTaskScheduler(bizTaskManager, redisLockUtil, transactionOperations,
+            materializer, clock, batch, properties.getLockTimeoutSeconds(), wakeups);
+        BizTaskLeaseRecovery leaseRecovery = new BizTaskLeaseRecovery(executionManager, clock, batch,
+            properties.getRetryInitialDelaySeconds(), properties.getRetryMaxDelaySeconds(), wakeups);
+        long minInterval = properties.getRuntimeMinIntervalMs();
+        this.dispatchLoop = new TaskRuntimeLoop(DISPATCH, dispatchScan, batch,
+            minInterval, properties.getRuntimeMaxIntervalMs(), clock, taskMetrics);
+        this.scheduleLoop = new TaskRuntimeLoop(SCHEDULE, scheduler::scanDueTasks, batch, minInterval,
+            properties.getRuntimeMaxIntervalMs(), clock, taskMetrics);
+        this.leaseRecoveryLoop = new TaskRuntimeLoop(LEASE_RECOVERY, leaseRecovery::recoverExpiredLeases, batch,
+            minInterval, properties.getLeaseRecoveryMaxIntervalMs(), clock, taskMetrics);
+        long renewInterval = properties.getLeaseRenewIntervalMs();
+        this.leaseRenewalLoop = new TaskRuntimeLoop(LEASE_RENEWAL, leaseKeeper::renewLeases, Integer.MAX_VALUE,
+            renewInterval, renewInterval, clock, taskMetrics);
+        this.journalLoop = new TaskRuntimeLoop(JOURNAL, journal::commit, properties.getJournalMaxBatch(),
+            journalCommitIntervalMs, properties.getRuntimeMaxIntervalMs(), clock, taskMetrics);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        wakeups.bind(dispatchLoop, scheduleLoop);
+        loops().forEach(TaskRuntimeLoop::start);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeups.unbind();
+        loops().forEach(TaskRuntimeLoop::stop);
+        handBackQueued();
+        journal.close();
+        drainJournal();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void signalDispatch() {
+        dispatchLoop.signal();
+    }
+
+    /** The first entry of a window schedules the group commit; later entries ride along with it. */
+    private void scheduleJournalCommit() {
+        TaskRuntimeLoop loop = journalLoop;
+        if (loop != null) {
+            loop.dueAt(System.currentTimeMillis() + journalCommitIntervalMs);
+        }
+    }
+
+    /** Work that never started goes back to the durable pool instead of holding claims through shutdown. */
+    private void handBackQueued() {
+        List<Runnable> queued = fairExecutor.drainQueued();
+        if (!queued.isEmpty()) {
+            LOGGER.info("Handing back {} fair-queued business-task executions on shutdown", queued.size());
+            queued.forEach(BizTaskFairExecutor::abandon);
+        }
+    }
+
+    /** Handlers still running after this point flush their own offers; the closed journal never waits on its loop. */
+    private void drainJournal() {
+        try {
+            while (journal.commit() > 0) {
+                // keep committing until the write-behind queue is empty
+            }
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Business-task journal drain on shutdown failed: pending={}", journal.depth(), exception);
+        }
+    }
+
+    private List<TaskRuntimeLoop> loops() {
+        return List.of(dispatchLoop, scheduleLoop, leaseRecoveryLoop, leaseRenewalLoop, journalLoop);
+    }
+
+    private static String workerNode(BusinessTaskProperties properties) {
+        if (StringUtils.hasText(properties.getWorkerNode())) {
+            return properties.getWorkerNode().trim();
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException exception) {
+            host = "unknown";
+        }
+        return host + ':' + ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
+    }
+}
@@ -0,0 +1,205 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.github.lunasaw.voglander.common.enums.task.TaskModeEnum;
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskDTO;
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskExecutionDTO;
+
+/**
+ * Wakes the task runtime loops when durable work becomes due, locally and on other nodes.
+ * <p>
+ * Remote nudges travel as {@code nodeId|EXECUTION|epochMillis} or {@code nodeId|TASK|epochMillis} on
+ * {@link #CHANNEL}; a node skips its own messages. Pub/Sub is best-effort: a lost nudge only delays the work
+ * until the receiving loop's backed-off poll.
+ * </p>
+ */
+@Component
+public class BusinessTaskWakeups implements TaskDueListener, InitializingBean, DisposableBean {
+
+    static final String CHANNEL = "biz:task:wakeup";
+    static final String EXECUTION = "EXECUTION";
+    static final String TASK = "TASK";
+    private static final Logger LOGGER = LoggerFactory.getLogger(BusinessTaskWakeups.class);
+    private static final char SEPARATOR = '|';
+    /** Remote nudges for instants this close to the previous one of the same kind add nothing. */
+    private static final long PUBLISH_COALESCE_MILLIS = 100L;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final Clock clock;
+    private final AtomicLong lastExecutionPublished = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong lastTaskPublished = new AtomicLong(Long.MIN_VALUE);
+    private volatile TaskRuntimeLoop dispatchLoop;
+    private volatile TaskRuntimeLoop scheduleLoop;
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    public BusinessTaskWakeups(ObjectProvider<StringRedisTemplate> redisTemplate,
+        ObjectProvider<RedisConnectionFactory> connectionFactory) {
+        this(redisTemplate.getIfAvailable(), connectionFactory.getIfAvailable(), Clock.systemDefaultZone());
+    }
+
+    BusinessTaskWakeups(StringRedisTemplate redisTemplate, RedisConnectionFactory connectionFactory, Clock clock) {
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.clock = clock;
+    }
+
+    /** Wakes the runtime for a newly accepted task once the creating transaction has committed. */
+    public void taskAccepted(BizTaskDTO task, BizTaskExecutionDTO firstExecution) {
+        if (task == null) {
+            return;
+        }
+        if (TaskModeEnum.ONCE.name().equals(task.getTaskMode())) {
+            LocalDateTime at = firstExecution == null || firstExecution.getNextAttemptTime() == null
+                ? LocalDateTime.now(clock) : firstExecution.getNextAttemptTime();
+            afterCommit(() -> executionDue(at));
+        } else if (task.getNextPlanTime() != null) {
+            LocalDateTime at = task.getNextPlanTime();
+            afterCommit(() -> taskDue(at));
+        }
+    }
+
+    @Override
+    public void executionDue(LocalDateTime at) {
+        if (at != null) {
+            long epochMillis = epochMillis(at);
+            wakeLocal(dispatchLoop, epochMillis);
+            publish(EXECUTION, epochMillis, lastExecutionPublished);
+        }
+    }
+
+    @Override
+    public void taskDue(LocalDateTime at) {
+        if (at != null) {
+            long epochMillis = epochMillis(at);
+            wakeLocal(scheduleLoop, epochMillis);
+            publish(TASK, epochMillis, lastTaskPublished);
+        }
+    }
+
+    void bind(TaskRuntimeLoop dispatchLoop, TaskRuntimeLoop scheduleLoop) {
+        this.dispatchLoop = dispatchLoop;
+        this.scheduleLoop = scheduleLoop;
+    }
+
+    void unbind() {
+        this.dispatchLoop = null;
+        this.scheduleLoop = null;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (connectionFactory == null) {
+            return;
+        }
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+            (message, pattern) -> onRemote(new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        listenerContainer = container;
+        LOGGER.info("Business-task cross-node wake-ups enabled: channel={}", CHANNEL);
+    }
+
+    @Override
+    public void destroy() {
+        RedisMessageListenerContainer container = listenerContainer;
+        listenerContainer = null;
+        if (container != null) {
+            try {
+                container.destroy();
+            } catch (Exception exception) {
+                LOGGER.warn("Business-task wake-up listener shutdown failed", exception);
+            }
+        }
+    }
+
+    void onRemote(String body) {
+        int first = body.indexOf(SEPARATOR);
+        int second = body.indexOf(SEPARATOR, first + 1);
+        if (first <= 0 || second <= first + 1 || nodeId.equals(body.substring(0, first))) {
+            return;
+        }
+        long epochMillis;
+        try {
+            epochMillis = Long.parseLong(body.substring(second + 1));
+        } catch (NumberFormatException exception) {
+            return;
+        }
+        String kind = body.substring(first + 1, second);
+        if (EXECUTION.equals(kind)) {
+            wakeLocal(dispatchLoop, epochMillis);
+        } else if (TASK.equals(kind)) {
+            wakeLocal(scheduleLoop, epochMillis);
+        }
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    private void wakeLocal(TaskRuntimeLoop loop, long epochMillis) {
+        if (loop != null) {
+            loop.dueAt(epochMillis);
+        }
+    }
+
+    private void publish(String kind, long epochMillis, AtomicLong lastPublished) {
+        if (redisTemplate == null) {
+            return;
+        }
+        long previous = lastPublished.get();
+        if (previous != Long.MIN_VALUE && Math.abs(epochMillis - previous) < PUBLISH_COALESCE_MILLIS
+            || !lastPublished.compareAndSet(previous, epochMillis)) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + kind + SEPARATOR + epochMillis);
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Business-task wake-up publish failed; other nodes fall back to polling: kind={}", kind,
+                exception);
+        }
+    }
+
+    private long epochMillis(LocalDateTime at) {
+        ZoneId zone = clock.getZone();
+        return at.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable hint) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    hint.run();
+                }
+            });
+            return;
+        }
+        hint.run();
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.util.Objects;
+
+/**
+ * Scheduling facts of one dispatched execution: who it belongs to, how urgent it is and what it may share.
+ * <p>
+ * Organization is used for fair queuing only and never becomes a metric tag.
+ * </p>
+ */
+final class TaskDispatchClass {
+
+    /** Work the dispatcher could not classify: default tenant, normal priority, no type budget. */
+    static final TaskDispatchClass UNCLASSIFIED = new TaskDispatchClass("unknown", "", 0, 0, false);
+
+    private final String taskType;
+    private final String organizationId;
+    private final int priority;
+    private final int typeBudget;
+    private final boolean ioBound;
+
+    TaskDispatchClass(String taskType, String organizationId, int priority, int typeBudget, boolean ioBound) {
+        this.taskType = Objects.requireNonNull(taskType, "taskType");
+        this.organizationId = organizationId == null ? "" : organizationId;
+        if (typeBudget < 0) {
+            throw new IllegalArgumentException("Task dispatch type budget must not be negative");
+        }
+        this.priority = priority;
+        this.typeBudget = typeBudget;
+        this.ioBound = ioBound;
+    }
+
+    String taskType() {
+        return taskType;
+    }
+
+    String organizationId() {
+        return organizationId;
+    }
+
+    int priority() {
+        return priority;
+    }
+
+    /** Per-node concurrency cap of the task type; 0 is unbounded. */
+    int typeBudget() {
+        return typeBudget;
+    }
+
+    boolean ioBound() {
+        return ioBound;
+    }
+
+    /** Bounded metric bucket of the numeric priority. */
+    String priorityClass() {
+        return priority > 0 ? "HIGH" : priority < 0 ? "LOW" : "NORMAL";
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import io.github.lunasaw.voglander.client.domain.task.TaskCapabilities;
+import io.github.lunasaw.voglander.client.service.task.LongTaskHandler;
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskDTO;
+import io.github.lunasaw.voglander.manager.manager.BizTaskManager;
+
+/**
+ * Resolves the {@link TaskDispatchClass} of a dispatch window with one bulk task read.
+ * <p>
+ * Task type, organization and persisted priority never change after creation, so they are kept in a bounded LRU
+ * cache; budgets and the I/O hint are read from the live Handler capabilities. A failed read degrades the window to
+ * {@link TaskDispatchClass#UNCLASSIFIED} instead of failing the dispatch.
+ * </p>
+ */
+final class TaskDispatchClassifier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskDispatchClassifier.class);
+
+    private final BizTaskManager bizTaskManager;
+    private final LongTaskHandlerRegistry handlerRegistry;
+    private final Map<String, BizTaskDTO> facts;
+
+    TaskDispatchClassifier(BizTaskManager bizTaskManager, LongTaskHandlerRegistry handlerRegistry, int cacheSize) {
+        this.bizTaskManager = Objects.requireNonNull(bizTaskManager, "bizTaskManager");
+        this.handlerRegistry = Objects.requireNonNull(handlerRegistry, "handlerRegistry");
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Task dispatch class cache size must be positive");
+        }
+        this.facts = new LinkedHashMap<String, BizTaskDTO>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BizTaskDTO> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /** Returns the class of every task id; ids that cannot be resolved map to the unclassified class. */
+    Map<String, TaskDispatchClass> classify(Collection<String> taskIds) {
+        Map<String, BizTaskDTO> resolved = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        synchronized (facts) {
+            for (String taskId : taskIds) {
+                BizTaskDTO cached = StringUtils.hasText(taskId) ? facts.get(taskId) : null;
+                if (cached != null) {
+                    resolved.put(taskId, cached);
+                } else if (StringUtils.hasText(taskId)) {
+                    missing.add(taskId);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            loadInto(missing, resolved);
+        }
+        Map<String, TaskDispatchClass> classes = new HashMap<>();
+        for (String taskId : taskIds) {
+            BizTaskDTO task = taskId == null ? null : resolved.get(taskId);
+            classes.put(taskId, task == null ? TaskDispatchClass.UNCLASSIFIED : classOf(task));
+        }
+        return classes;
+    }
+
+    private void loadInto(Set<String> missing, Map<String, BizTaskDTO> resolved) {
+        List<BizTaskDTO> loaded;
+        try {
+            loaded = bizTaskManager.getDispatchFacts(missing);
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Business-task dispatch classification failed; dispatching {} tasks unclassified",
+                missing.size(), exception);
+            return;
+        }
+        synchronized (facts) {
+            for (BizTaskDTO task : loaded) {
+                if (task != null && StringUtils.hasText(task.getTaskId())) {
+                    facts.put(task.getTaskId(), task);
+                    resolved.put(task.getTaskId(), task);
+                }
+            }
+        }
+    }
+
+    private TaskDispatchClass classOf(BizTaskDTO task) {
+        LongTaskHandler handler = StringUtils.hasText(task.getTaskType())
+            && handlerRegistry.contains(task.getTaskType()) ? handlerRegistry.require(task.getTaskType()) : null;
+        TaskCapabilities capabilities = handler == null ? null : handler.capabilities();
+        int priority = task.getPriority() == null ? 0 : task.getPriority();
+        return new TaskDispatchClass(task.getTaskType() == null ? "unknown" : task.getTaskType(),
+            task.getOrganizationId(), priority, capabilities == null ? 0 : capabilities.maxConcurrency(),
+            capabilities != null && capabilities.isIoBound());
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.time.LocalDateTime;
+
+/** Receives instants at which durable task work becomes due, so runtime loops wake instead of polling blindly. */
+interface TaskDueListener {
+
+    TaskDueListener NONE = new TaskDueListener() {};
+
+    /** A runnable execution exists, or a RETRY_WAIT execution becomes runnable, at {@code at}. */
+    default void executionDue(LocalDateTime at) {
+    }
+
+    /** A scheduled task's next plan time is {@code at}. */
+    default void taskDue(LocalDateTime at) {
+    }
+}
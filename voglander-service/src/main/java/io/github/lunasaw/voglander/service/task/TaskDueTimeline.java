@@ -0,0 +1,52 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.util.TreeSet;
+
+/**
+ * Bounded in-memory timeline of upcoming due instants (epoch millis) known to this node.
+ * <p>
+ * It only shortens runtime-loop sleeps: entries dropped beyond capacity, lost on restart or owned by another node
+ * are still found by the loop's fallback scan.
+ * </p>
+ */
+final class TaskDueTimeline {
+
+    private final int capacity;
+    private final TreeSet<Long> deadlines = new TreeSet<>();
+
+    TaskDueTimeline(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Task due timeline capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /** Records a deadline and returns whether it became the earliest one; when full the latest deadline yields. */
+    synchronized boolean offer(long epochMillis) {
+        if (deadlines.size() >= capacity) {
+            if (epochMillis >= deadlines.last()) {
+                return false;
+            }
+            deadlines.pollLast();
+        }
+        return deadlines.add(epochMillis) && deadlines.first() == epochMillis;
+    }
+
+    /** Earliest pending deadline, or {@link Long#MAX_VALUE} when none is known. */
+    synchronized long earliest() {
+        return deadlines.isEmpty() ? Long.MAX_VALUE : deadlines.first();
+    }
+
+    /** Removes every deadline at or before {@code now} and returns the earliest removed, or {@link Long#MAX_VALUE}. */
+    synchronized long pollDue(long now) {
+        long earliestDue = Long.MAX_VALUE;
+        while (!deadlines.isEmpty() && deadlines.first() <= now) {
+            earliestDue = Math.min(earliestDue, deadlines.pollFirst());
+        }
+        return earliestDue;
+    }
+
+    synchronized int size() {
+        return deadlines.size();
+    }
+}
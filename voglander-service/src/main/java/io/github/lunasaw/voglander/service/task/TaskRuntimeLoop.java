@@ -0,0 +1,187 @@
+package io.github.lunasaw.voglander.service.task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drives one durable scan on a dedicated thread with adaptive pacing.
+ * <p>
+ * A full batch reruns at once, partial work reruns after the minimum interval and idle scans back off
+ * exponentially up to the maximum. {@link #signal()} and timeline deadlines cut the wait short, so the backed-off
+ * poll is only a safety net for wake-ups that were lost or raised on another node.
+ * </p>
+ */
+final class TaskRuntimeLoop implements Runnable {
+
+    static final int DEFAULT_TIMELINE_CAPACITY = 4096;
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskRuntimeLoop.class);
+    private static final long STOP_AWAIT_MILLIS = 5_000L;
+
+    private final String name;
+    private final IntSupplier scan;
+    private final int fullBatch;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final Clock clock;
+    private final BusinessTaskMetrics metrics;
+    private final TaskDueTimeline timeline = new TaskDueTimeline(DEFAULT_TIMELINE_CAPACITY);
+    private final Object monitor = new Object();
+    /** Earliest instant a wake-up was requested since the last scan; guarded by {@link #monitor}. */
+    private long signalledAt = Long.MAX_VALUE;
+    private long idleIntervalMillis;
+    private volatile boolean running;
+    private Thread thread;
+
+    TaskRuntimeLoop(String name, IntSupplier scan, int fullBatch, long minIntervalMillis, long maxIntervalMillis,
+        Clock clock, BusinessTaskMetrics metrics) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.scan = Objects.requireNonNull(scan, "scan");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        if (fullBatch <= 0 || minIntervalMillis <= 0 || maxIntervalMillis < minIntervalMillis) {
+            throw new IllegalArgumentException("Task runtime loop batch or intervals are invalid");
+        }
+        this.fullBatch = fullBatch;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.idleIntervalMillis = minIntervalMillis;
+        this.metrics = metrics;
+    }
+
+    /** Requests a scan as soon as the current one, if any, finishes. */
+    void signal() {
+        wake(clock.millis());
+    }
+
+    /** Requests a scan at {@code epochMillis}; instants already due wake the loop now. */
+    void dueAt(long epochMillis) {
+        if (epochMillis <= clock.millis()) {
+            wake(epochMillis);
+            return;
+        }
+        if (timeline.offer(epochMillis)) {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "business-task-" + name.toLowerCase(Locale.ROOT).replace('_', '-'));
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized void stop() {
+        running = false;
+        Thread current = thread;
+        thread = null;
+        if (current == null) {
+            return;
+        }
+        current.interrupt();
+        try {
+            current.join(STOP_AWAIT_MILLIS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void run() {
+        long delayMillis = 0L;
+        while (running) {
+            long wantedAt = awaitWork(delayMillis);
+            if (!running) {
+                return;
+            }
+            delayMillis = runOnce(wantedAt);
+        }
+    }
+
+    /** Runs one scan and returns the delay before the next; {@code wantedAt} is when the scan was due. */
+    long runOnce(long wantedAt) {
+        long startedAt = clock.millis();
+        long startedNanos = System.nanoTime();
+        String result;
+        long nextDelayMillis;
+        try {
+            int found = scan.getAsInt();
+            if (found >= fullBatch) {
+                result = "FULL";
+                nextDelayMillis = 0L;
+                idleIntervalMillis = minIntervalMillis;
+            } else if (found > 0) {
+                result = "PARTIAL";
+                nextDelayMillis = minIntervalMillis;
+                idleIntervalMillis = minIntervalMillis;
+            } else {
+                result = "IDLE";
+                nextDelayMillis = idleIntervalMillis;
+                idleIntervalMillis = Math.min(maxIntervalMillis, idleIntervalMillis * 2);
+            }
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Business-task runtime scan failed; backing off: loop={}", name, exception);
+            result = "ERROR";
+            nextDelayMillis = maxIntervalMillis;
+        }
+        if (metrics != null) {
+            Duration lag = wantedAt == Long.MAX_VALUE ? null : Duration.ofMillis(Math.max(0L, startedAt - wantedAt));
+            metrics.recordRuntimeLoop(name, result, lag, Duration.ofNanos(System.nanoTime() - startedNanos));
+        }
+        return nextDelayMillis;
+    }
+
+    int pendingDeadlines() {
+        return timeline.size();
+    }
+
+    private void wake(long requestedAt) {
+        synchronized (monitor) {
+            signalledAt = Math.min(signalledAt, requestedAt);
+            monitor.notifyAll();
+        }
+    }
+
+    /** Blocks until a signal, a timeline deadline or the backed-off poll; returns the instant the scan was due. */
+    private long awaitWork(long delayMillis) {
+        long pollAt = clock.millis() + delayMillis;
+        synchronized (monitor) {
+            while (running) {
+                long now = clock.millis();
+                if (signalledAt != Long.MAX_VALUE) {
+                    long requestedAt = signalledAt;
+                    signalledAt = Long.MAX_VALUE;
+                    return requestedAt;
+                }
+                long deadline = timeline.pollDue(now);
+                if (deadline != Long.MAX_VALUE) {
+                    return deadline;
+                }
+                if (now >= pollAt) {
+                    return pollAt;
+                }
+                try {
+                    monitor.wait(Math.max(1L, Math.min(pollAt, timeline.earliest()) - now));
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return Long.MAX_VALUE;
+                }
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
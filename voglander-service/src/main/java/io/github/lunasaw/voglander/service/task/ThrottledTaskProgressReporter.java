@@ -10,13 +10,20 @@ import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
 import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskProgressDTO;
 import io.github.lunasaw.voglander.manager.manager.BizTaskExecutionManager;
 
-/** Persists progress at bounded frequency while preserving phase and terminal updates. */
+/**
+ * Persists progress at bounded frequency while preserving phase and terminal updates.
+ * <p>
+ * A claim rejection seen by the journal surfaces as a claim conflict on the next report.
+ * </p>
+ */
 final class ThrottledTaskProgressReporter implements Consumer<BizTaskProgressDTO> {
 
     private static final double ONE_PERCENT = 0.01D;
 
     private final BizTaskExecutionManager executionManager;
     private final long minIntervalMillis;
+    private final BizTaskJournal journal;
+    private volatile boolean claimRejected;
 
     private long lastPersistedCurrent;
     private long lastPersistedTotal;
@@ -33,6 +40,14 @@ final class ThrottledTaskProgressReporter implements Consumer<BizTaskProgressDTO
     ThrottledTaskProgressReporter(BizTaskExecutionManager executionManager, long minIntervalMillis,
         long initialCurrent, long initialTotal, long initialRevision, String initialMessage,
         LocalDateTime initialPersistedAt) {
+        this(executionManager, minIntervalMillis, initialCurrent, initialTotal, initialRevision, initialMessage,
+            initialPersistedAt, null);
+    }
+
+    /** With a journal, throttled revisions are written behind; forced revisions still flush before returning. */
+    ThrottledTaskProgressReporter(BizTaskExecutionManager executionManager, long minIntervalMillis,
+        long initialCurrent, long initialTotal, long initialRevision, String initialMessage,
+        LocalDateTime initialPersistedAt, BizTaskJournal journal) {
         this.executionManager = Objects.requireNonNull(executionManager, "executionManager");
         if (minIntervalMillis <= 0) {
             throw new IllegalArgumentException("Progress persistence interval must be positive");
@@ -46,6 +61,7 @@ final class ThrottledTaskProgressReporter implements Consumer<BizTaskProgressDTO
         this.lastPersistedRevision = initialRevision;
         this.lastPersistedMessage = initialMessage;
         this.lastPersistedAt = Objects.requireNonNull(initialPersistedAt, "initialPersistedAt");
+        this.journal = journal;
     }
 
     @Override
@@ -54,14 +70,20 @@ final class ThrottledTaskProgressReporter implements Consumer<BizTaskProgressDTO
         long revision = value(progress.getRevision());
         boolean forced = Boolean.TRUE.equals(progress.getForcePersist());
         if (forced && revision <= lastPersistedRevision) {
+            if (journal != null) {
+                flushBehind(progress.getExecutionId());
+            }
             return;
         }
         if (!shouldPersist(progress, forced)) {
             return;
         }
-        if (!executionManager.updateProgress(progress)) {
-            throw new ServiceException(ServiceExceptionEnum.TASK_CLAIM_CONFLICT)
-                .setDetailMessage("Progress update no longer owns the active claim");
+        if (journal == null) {
+            if (!executionManager.updateProgress(progress)) {
+                throw claimConflict();
+            }
+        } else {
+            writeBehind(progress, forced);
         }
         lastPersistedCurrent = value(progress.getCurrent());
         lastPersistedTotal = value(progress.getTotal());
@@ -70,6 +92,23 @@ final class ThrottledTaskProgressReporter implements Consumer<BizTaskProgressDTO
         lastPersistedAt = progress.getReportedAt();
     }
 
+    private void writeBehind(BizTaskProgressDTO progress, boolean forced) {
+        if (claimRejected) {
+            throw claimConflict();
+        }
+        journal.offerProgress(progress, () -> claimRejected = true);
+        if (forced) {
+            flushBehind(progress.getExecutionId());
+        }
+    }
+
+    private void flushBehind(String executionId) {
+        journal.flush(executionId);
+        if (claimRejected) {
+            throw claimConflict();
+        }
+    }
+
     private boolean shouldPersist(BizTaskProgressDTO progress, boolean forced) {
         if (forced || !Objects.equals(lastPersistedMessage, progress.getMessage())) {
             return true;
@@ -96,6 +135,11 @@ final class ThrottledTaskProgressReporter implements Consumer<BizTaskProgressDTO
         return Math.abs(currentRatio - previousRatio) >= ONE_PERCENT;
     }
 
+    private static ServiceException claimConflict() {
+        return new ServiceException(ServiceExceptionEnum.TASK_CLAIM_CONFLICT)
+            .setDetailMessage("Progress update no longer owns the active claim");
+    }
+
     private long value(Long value) {
         if (value == null) {
             throw new ServiceException(ServiceExceptionEnum.TASK_PROGRESS_INVALID)
@@ -0,0 +1,214 @@
+package io.github.lunasaw.voglander.benchmark;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
+
+import io.github.lunasaw.voglander.repository.cache.redis.CachePlan;
+import io.github.lunasaw.voglander.repository.cache.redis.Cached;
+import io.github.lunasaw.voglander.repository.cache.redis.KeyUtils;
+
+/**
+ * {@code CachedAspect} 每次调用的切面自身开销：旧路径（每次 getDeclaredMethod + 读注解 + 解析泛型，
+ * 结果 key 经 {@link BeanWrapper} 取字段）对比 {@link CachePlan}（按方法缓存计划 + MethodHandle 取值器）。
+ * <p>
+ * 覆盖单值、集合（32 个 key / 32 个结果）、Map 三种模式，不含 Redis 往返与 JSON 编解码。
+ * 运行：{@code mvn -pl voglander-test -am test-compile} 后直接执行 {@link #main}。
+ * </p>
+ *
+ * @author luna
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CachedAspectBenchmark {
+
+    private final Map<Method, CachePlan> plans = new ConcurrentHashMap<>();
+
+    private Method                       single;
+
+    private Method                       collection;
+
+    private Method                       map;
+
+    private Object[]                     singleArgs;
+
+    private Object[]                     collectionArgs;
+
+    private List<Channel>                collectionResult;
+
+    @Setup
+    public void setUp() throws Exception {
+        single = ChannelRepo.class.getMethod("byId", Long.class);
+        collection = ChannelRepo.class.getMethod("byIds", List.class);
+        map = ChannelRepo.class.getMethod("mapByIds", Set.class);
+        singleArgs = new Object[] {42L};
+        List<Long> ids = new ArrayList<>();
+        collectionResult = new ArrayList<>();
+        for (long i = 0; i < 32; i++) {
+            ids.add(i);
+            collectionResult.add(new Channel(i, "34020000001320000001"));
+        }
+        collectionArgs = new Object[] {ids};
+    }
+
+    @Benchmark
+    public void singleLegacy(Blackhole bh) throws Exception {
+        Cached cached = legacyResolve(single, singleArgs, bh);
+        bh.consume(KeyUtils.getSingleCacheKey(singleArgs, cached));
+    }
+
+    @Benchmark
+    public void singlePlan(Blackhole bh) {
+        CachePlan plan = planOf(single);
+        bh.consume(plan.resolveMode(singleArgs));
+        bh.consume(plan.singleCacheKey(singleArgs));
+    }
+
+    @Benchmark
+    public void collectionLegacy(Blackhole bh) throws Exception {
+        Cached cached = legacyResolve(collection, collectionArgs, bh);
+        bh.consume(KeyUtils.getMultiCacheKey(collectionArgs, cached));
+        String[] fieldNames = cached.keyNameInReturnObject();
+        for (Channel channel : collectionResult) {
+            BeanWrapper bw = new DirectFieldAccessFallbackBeanWrapper(channel);
+            bh.consume(String.join("_", Arrays.stream(fieldNames)
+                .map(bw::getPropertyValue).filter(Objects::nonNull).map(Object::toString)
+                .toArray(String[]::new)));
+        }
+    }
+
+    @Benchmark
+    public void collectionPlan(Blackhole bh) {
+        CachePlan plan = planOf(collection);
+        bh.consume(plan.resolveMode(collectionArgs));
+        bh.consume(plan.multiCacheKey(collectionArgs));
+        for (Channel channel : collectionResult) {
+            bh.consume(plan.keyOf(channel));
+        }
+    }
+
+    @Benchmark
+    public void mapLegacy(Blackhole bh) throws Exception {
+        Cached cached = legacyResolve(map, collectionArgs, bh);
+        bh.consume(KeyUtils.getMultiCacheKey(collectionArgs, cached));
+    }
+
+    @Benchmark
+    public void mapPlan(Blackhole bh) {
+        CachePlan plan = planOf(map);
+        bh.consume(plan.resolveMode(collectionArgs));
+        bh.consume(plan.getValueType());
+        bh.consume(plan.multiCacheKey(collectionArgs));
+    }
+
+    /** 旧切面入口：每次调用都反射查方法、读注解、解析泛型返回值。 */
+    private static Cached legacyResolve(Method method, Object[] args, Blackhole bh) throws Exception {
+        Method realMethod = ChannelRepoImpl.class.getDeclaredMethod(method.getName(), method.getParameterTypes());
+        Cached cached = realMethod.getAnnotation(Cached.class);
+        Class<?> returnClass = method.getReturnType();
+        Type returnType = method.getGenericReturnType();
+        Class<?> argClass = args[cached.keyParamIndex()].getClass();
+        if (Map.class.isAssignableFrom(returnClass)) {
+            bh.consume(((ParameterizedType)returnType).getActualTypeArguments()[1]);
+        } else {
+            bh.consume(Collection.class.isAssignableFrom(argClass));
+        }
+        return cached;
+    }
+
+    private CachePlan planOf(Method method) {
+        CachePlan plan = plans.get(method);
+        if (plan == null) {
+            plan = plans.computeIfAbsent(method, m -> CachePlan.compile(ChannelRepoImpl.class, m));
+        }
+        return plan;
+    }
+
+    public interface ChannelRepo {
+
+        Channel byId(Long id);
+
+        List<Channel> byIds(List<Long> ids);
+
+        Map<Long, Channel> mapByIds(Set<Long> ids);
+    }
+
+    public static class ChannelRepoImpl implements ChannelRepo {
+
+        @Override
+        @Cached(cacheKeyPrefix = "channel:")
+        public Channel byId(Long id) {
+            return null;
+        }
+
+        @Override
+        @Cached(cacheKeyPrefix = "channel:", keyNameInReturnObject = {"id", "deviceId"}, maxValueSize = 64)
+        public List<Channel> byIds(List<Long> ids) {
+            return null;
+        }
+
+        @Override
+        @Cached(cacheKeyPrefix = "channel:", maxValueSize = 64)
+        public Map<Long, Channel> mapByIds(Set<Long> ids) {
+            return null;
+        }
+    }
+
+    public static class Channel {
+
+        private final Long   id;
+
+        private final String deviceId;
+
+        public Channel(Long id, String deviceId) {
+            this.id = id;
+            this.deviceId = deviceId;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getDeviceId() {
+            return deviceId;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(CachedAspectBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
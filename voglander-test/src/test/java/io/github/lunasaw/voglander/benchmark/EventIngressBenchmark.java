@@ -0,0 +1,169 @@
+package io.github.lunasaw.voglander.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alibaba.fastjson2.JSON;
+
+import io.github.lunasaw.gb28181.common.entity.notify.DeviceKeepLiveNotify;
+import io.github.lunasaw.gb28181.common.entity.notify.MediaStatusNotify;
+import io.github.lunasaw.gb28181.common.entity.response.DeviceResponse;
+import io.github.lunasaw.sipgateway.core.api.envelope.GatewayEvent;
+import io.github.lunasaw.voglander.client.domain.event.DeviceEvent;
+import io.github.lunasaw.voglander.intergration.wrapper.gb28181.handler.Gb28181PayloadDecoder;
+import io.github.lunasaw.voglander.intergration.wrapper.gb28181.notifier.GatewayEventTranslator;
+
+/**
+ * 入站事件翻译 + 分发解码基准：旧路径（split + groupName 字符串 switch + JSON 整串往返）
+ * 对比新路径（{@link GatewayEventTranslator} 枚举解析 + {@link Gb28181PayloadDecoder}）。
+ * <p>
+ * 只覆盖 handler 之前的纯 CPU 段（翻译、路由、负载解码），不含 DB / Redis。
+ * 运行：{@code mvn -pl voglander-test -am test-compile} 后直接执行 {@link #main}，
+ * 已挂 {@link GCProfiler}，报告中 {@code gc.alloc.rate.norm} 即每次操作分配字节数。
+ * </p>
+ *
+ * @author luna
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventIngressBenchmark {
+
+    private GatewayEvent keepalive;
+
+    private GatewayEvent mediaStatus;
+
+    private GatewayEvent catalog;
+
+    @Setup
+    public void setUp() {
+        String deviceId = "34020000001320000001";
+        // payload 形状与 forwarder 一致：实体字段名为 key 的 Map
+        keepalive = new GatewayEvent("gb28181.Notify.Keepalive", deviceId, "sn-1", 1L,
+            Map.of("cmdType", "Keepalive", "sn", "1", "deviceId", deviceId, "status", "OK"), "node-1");
+        mediaStatus = new GatewayEvent("gb28181.Notify.MediaStatus", deviceId, "sn-2", 1L,
+            Map.of("cmdType", "MediaStatus", "sn", "2", "deviceId", deviceId, "notifyType", "121"), "node-1");
+        catalog = new GatewayEvent("gb28181.Response.Catalog", deviceId, "sn-3", 1L,
+            catalog(deviceId, 32), "node-1");
+    }
+
+    @Benchmark
+    public void keepaliveLegacy(Blackhole bh) {
+        DeviceEvent event = legacyTranslate(keepalive);
+        switch (event.groupName()) {
+            case "Notify.Keepalive":
+                DeviceKeepLiveNotify notify = legacyToEntity(event.payload(), DeviceKeepLiveNotify.class);
+                bh.consume(notify != null && notify.getDeviceId() != null ? notify.getDeviceId() : event.deviceId());
+                break;
+            default:
+                bh.consume(event);
+        }
+    }
+
+    @Benchmark
+    public void keepaliveTyped(Blackhole bh) {
+        DeviceEvent event = GatewayEventTranslator.translate(keepalive);
+        switch (event.eventType()) {
+            case NOTIFY_KEEPALIVE:
+                Object id = Gb28181PayloadDecoder.value(event, "deviceId");
+                bh.consume(id != null ? id : event.deviceId());
+                break;
+            default:
+                bh.consume(event);
+        }
+    }
+
+    @Benchmark
+    public void mediaStatusLegacy(Blackhole bh) {
+        DeviceEvent event = legacyTranslate(mediaStatus);
+        if ("Notify.MediaStatus".equals(event.groupName())) {
+            MediaStatusNotify notify = legacyToEntity(event.payload(), MediaStatusNotify.class);
+            bh.consume(notify != null ? notify.getNotifyType() : null);
+        }
+    }
+
+    @Benchmark
+    public void mediaStatusTyped(Blackhole bh) {
+        DeviceEvent event = GatewayEventTranslator.translate(mediaStatus);
+        switch (event.eventType()) {
+            case NOTIFY_MEDIA_STATUS:
+                bh.consume(Gb28181PayloadDecoder.value(event, "notifyType"));
+                break;
+            default:
+                bh.consume(event);
+        }
+    }
+
+    @Benchmark
+    public void catalogLegacy(Blackhole bh) {
+        DeviceEvent event = legacyTranslate(catalog);
+        if ("Response.Catalog".equals(event.groupName())) {
+            bh.consume(legacyToEntity(event.payload(), DeviceResponse.class));
+        }
+    }
+
+    @Benchmark
+    public void catalogTyped(Blackhole bh) {
+        DeviceEvent event = GatewayEventTranslator.translate(catalog);
+        switch (event.eventType()) {
+            case RESPONSE_CATALOG:
+                bh.consume(Gb28181PayloadDecoder.decode(event, DeviceResponse.class));
+                break;
+            default:
+                bh.consume(event);
+        }
+    }
+
+    /** 旧 notifier 翻译：regex split + 三段 substring。 */
+    private static DeviceEvent legacyTranslate(GatewayEvent event) {
+        String[] seg = event.type().split("\\.", 3);
+        return new DeviceEvent(seg[0], seg[1], seg[2], event.deviceId(), event.correlationId(),
+            event.timestampMs(), event.payload(), event.nodeId());
+    }
+
+    /** 旧 handler 解码：payload Map 整串序列化后再反序列化。 */
+    private static <T> T legacyToEntity(Map<String, Object> payload, Class<T> clazz) {
+        if (payload == null || payload.isEmpty()) {
+            return null;
+        }
+        return JSON.parseObject(JSON.toJSONString(payload), clazz);
+    }
+
+    private static Map<String, Object> catalog(String deviceId, int channels) {
+        List<Map<String, Object>> items = new ArrayList<>(channels);
+        for (int i = 0; i < channels; i++) {
+            items.add(Map.of("deviceId", deviceId.substring(0, 14) + String.format("%06d", i),
+                "name", "channel-" + i, "status", "ON"));
+        }
+        return Map.of("cmdType", "Catalog", "sn", "3", "deviceId", deviceId, "sumNum", channels,
+            "deviceItemList", items);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(EventIngressBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.lunasaw.voglander.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.lunasaw.voglander.client.domain.image.ImageContent;
+
+/**
+ * 大尺寸截图下载吞吐：把 {@code sizeBytes} 的本地文件写入一条 loopback TCP 连接（对端线程持续丢弃）。
+ * <p>
+ * {@code inputStream} 是原 {@code ImageAssetController.stream} 路径（{@code InputStream.transferTo}，经堆缓冲）；
+ * {@code imageContent} 是 {@link ImageContent#transferTo} 在容器不支持 sendfile 时的回退路径；
+ * {@code sendfile} 是 {@link FileChannel#transferTo} 直写 socket，即 Tomcat sendfile 的内核态拷贝。
+ * 运行：{@code mvn -pl voglander-test -am test-compile} 后直接执行 {@link #main}。
+ * </p>
+ *
+ * @author luna
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class ImageContentTransferBenchmark {
+
+    @Param({"1048576", "33554432"})
+    public int                  sizeBytes;
+
+    private Path                file;
+
+    private ServerSocketChannel server;
+
+    private SocketChannel       client;
+
+    private OutputStream        clientStream;
+
+    private Thread              drain;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("voglander-image-", ".jpg");
+        byte[] bytes = new byte[sizeBytes];
+        new SplittableRandom(42).nextBytes(bytes);
+        Files.write(file, bytes);
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(server.getLocalAddress());
+        SocketChannel peer = server.accept();
+        drain = new Thread(() -> {
+            ByteBuffer sink = ByteBuffer.allocateDirect(1 << 20);
+            try (SocketChannel ignored = peer) {
+                while (peer.read(sink) >= 0) {
+                    sink.clear();
+                }
+            } catch (IOException ignored) {
+                // 连接关闭即结束
+            }
+        }, "image-benchmark-drain");
+        drain.setDaemon(true);
+        drain.start();
+        clientStream = Channels.newOutputStream(client);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+        drain.join(5_000L);
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long inputStream() throws IOException {
+        try (InputStream input = Files.newInputStream(file, StandardOpenOption.READ)) {
+            return input.transferTo(clientStream);
+        }
+    }
+
+    @Benchmark
+    public long imageContent() throws IOException {
+        try (ImageContent content = ImageContent.ofFile(FileChannel.open(file, StandardOpenOption.READ), file)) {
+            content.transferTo(clientStream, 0L, content.contentLength());
+            return content.contentLength();
+        }
+    }
+
+    @Benchmark
+    public long sendfile() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = 0;
+            long size = channel.size();
+            while (position < size) {
+                position += channel.transferTo(position, size - position, client);
+            }
+            return position;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ImageContentTransferBenchmark.class.getSimpleName()).build()).run();
+    }
+}
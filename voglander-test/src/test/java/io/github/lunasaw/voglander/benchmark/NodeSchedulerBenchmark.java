@@ -0,0 +1,165 @@
+package io.github.lunasaw.voglander.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.lunasaw.voglander.intergration.wrapper.zlm.supplier.MediaNodeTable;
+import io.github.lunasaw.voglander.service.live.node.DeviceAffinityNodePolicy;
+import io.github.lunasaw.voglander.service.live.node.LeastLoadedNodePolicy;
+import io.github.lunasaw.voglander.service.live.node.MediaNodeScheduler;
+import io.github.lunasaw.voglander.service.live.node.PowerOfTwoChoicesNodePolicy;
+import io.github.lunasaw.zlm.config.ZlmNode;
+
+/**
+ * 首播风暴下的选节点分布质量：8 个异构权重节点，多个 voglander 实例各自派发、共享周期性心跳负载。
+ * <p>
+ * 每次调用派发一路首播；每 {@code keepaliveEvery} 次派发模拟一轮心跳（把真实流数写回各实例的节点表），
+ * 每 {@value #STORM} 路为一场风暴，结束时记录失衡度 {@code max(流数/权重) / (总流数/总权重)}，1.0 为完美均衡。
+ * {@code max_weight} 为旧逻辑基线（恒选权重最大节点）。失衡度经 {@link Imbalance} 辅助计数器进 JMH 报告，
+ * 平均失衡度 = {@code imbalanceSum / storms}；节点表在每轮开始前先收一轮空载心跳，调度器只对有负载的节点派发。
+ * 运行：{@code mvn -pl voglander-test -am test-compile} 后直接执行 {@link #main}。
+ * </p>
+ *
+ * @author luna
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeSchedulerBenchmark {
+
+    private static final int[] WEIGHTS = {1, 1, 2, 2, 4, 4, 1, 1};
+
+    private static final int   STORM   = 2_000;
+
+    @Param({"max_weight", LeastLoadedNodePolicy.NAME, PowerOfTwoChoicesNodePolicy.NAME,
+        DeviceAffinityNodePolicy.NAME})
+    public String              policy;
+
+    /** 并发派发的 voglander 实例数（各自的 pending 计数互不可见） */
+    @Param({"1", "4"})
+    public int                 instances;
+
+    /** 心跳间隔内的派发次数，越大负载信息越陈旧 */
+    @Param({"200"})
+    public int                 keepaliveEvery;
+
+    private List<ZlmNode>      nodes;
+
+    private MediaNodeTable[]   tables;
+
+    private MediaNodeScheduler[] schedulers;
+
+    private int[]              streams;
+
+    private int                placed;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Imbalance {
+
+        public long   storms;
+
+        public double imbalanceSum;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            storms = 0;
+            imbalanceSum = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        nodes = new ArrayList<>();
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            ZlmNode node = new ZlmNode();
+            node.setServerId("zlm-" + i);
+            node.setWeight(WEIGHTS[i]);
+            node.setEnabled(true);
+            nodes.add(node);
+        }
+        tables = new MediaNodeTable[instances];
+        schedulers = new MediaNodeScheduler[instances];
+        for (int i = 0; i < instances; i++) {
+            tables[i] = new MediaNodeTable();
+            if (!"max_weight".equals(policy)) {
+                schedulers[i] = new MediaNodeScheduler(List.of(new LeastLoadedNodePolicy(),
+                    new PowerOfTwoChoicesNodePolicy(), new DeviceAffinityNodePolicy()), tables[i], policy);
+            }
+        }
+        streams = new int[WEIGHTS.length];
+        placed = 0;
+        keepalive();
+    }
+
+    @Benchmark
+    public ZlmNode playStorm(Imbalance imbalance) {
+        int instance = placed % instances;
+        String deviceId = "3402000000132" + (placed * 7919 % 100_000);
+        ZlmNode node = "max_weight".equals(policy)
+            ? nodes.stream().max(Comparator.comparingInt(ZlmNode::getWeight)).orElse(null)
+            : schedulers[instance].select(nodes, deviceId);
+        streams[Integer.parseInt(node.getServerId().substring(4))]++;
+        placed++;
+        if (placed % keepaliveEvery == 0) {
+            keepalive();
+        }
+        if (placed % STORM == 0) {
+            endStorm(imbalance);
+        }
+        return node;
+    }
+
+    private void keepalive() {
+        for (MediaNodeTable table : tables) {
+            for (int i = 0; i < streams.length; i++) {
+                table.onKeepalive("zlm-" + i, streams[i], streams[i], streams[i]);
+            }
+        }
+    }
+
+    private void endStorm(Imbalance imbalance) {
+        int total = 0;
+        int totalWeight = 0;
+        double max = 0;
+        for (int i = 0; i < streams.length; i++) {
+            total += streams[i];
+            totalWeight += WEIGHTS[i];
+            max = Math.max(max, (double)streams[i] / WEIGHTS[i]);
+        }
+        imbalance.imbalanceSum += max / ((double)total / totalWeight);
+        imbalance.storms++;
+        // 风暴结束流全部关闭，下一场从空载开始
+        Arrays.fill(streams, 0);
+        keepalive();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(NodeSchedulerBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.lunasaw.voglander.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.MediaRecordSegmentDTO;
+import io.github.lunasaw.voglander.manager.manager.RecordSegmentIndex;
+
+/**
+ * 录像片段区间查询：单通道 {@code segments} 个连续片段（默认 100 万，约 60s 一段、偶有断档），
+ * 随机查询 {@code windowMinutes} 分钟窗口内相交的片段。
+ * <p>
+ * {@code index} 为 {@link RecordSegmentIndex}（二分 + 前缀最大结束时间），{@code linear} 为逐段比较的基线，
+ * 相当于把设备/DB 返回的全量片段在内存里过滤一遍。
+ * 运行：{@code mvn -pl voglander-test -am test-compile} 后直接执行 {@link #main}。
+ * </p>
+ *
+ * @author luna
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class RecordIndexBenchmark {
+
+    private static final String         KEY      = RecordSegmentIndex.key("34020000001320000001", "34020000001310000001");
+
+    private static final long           SEGMENT  = 60_000L;
+
+    @Param({"1000000"})
+    public int                          segments;
+
+    @Param({"10", "1440"})
+    public int                          windowMinutes;
+
+    private RecordSegmentIndex          index;
+
+    private MediaRecordSegmentDTO[]     all;
+
+    private long                        firstStart;
+
+    private long                        lastEnd;
+
+    private SplittableRandom            random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new RecordSegmentIndex(1, Long.MAX_VALUE);
+        index.track(KEY);
+        all = new MediaRecordSegmentDTO[segments];
+        SplittableRandom r = new SplittableRandom(42);
+        firstStart = 1_700_000_000_000L;
+        long t = firstStart;
+        for (int i = 0; i < segments; i++) {
+            // 约 1% 的片段之后有断档（设备离线）
+            if (r.nextInt(100) == 0) {
+                t += r.nextLong(SEGMENT * 30);
+            }
+            MediaRecordSegmentDTO s = new MediaRecordSegmentDTO();
+            s.setMediaServerId("zlm-1");
+            s.setFilePath("/record/rtp/" + i + ".mp4");
+            s.setStartTime(t);
+            s.setEndTime(t + SEGMENT - r.nextLong(1_000L));
+            all[i] = s;
+            index.add(KEY, s);
+            t += SEGMENT;
+        }
+        lastEnd = t;
+        index.load(KEY, List.of(), firstStart, System.currentTimeMillis());
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public List<MediaRecordSegmentDTO> index() {
+        long start = nextStart();
+        return index.query(KEY, start, start + windowMinutes * SEGMENT, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<MediaRecordSegmentDTO> linear() {
+        long start = nextStart();
+        long end = start + windowMinutes * SEGMENT;
+        List<MediaRecordSegmentDTO> result = new ArrayList<>();
+        for (MediaRecordSegmentDTO s : all) {
+            if (s.getStartTime() < end && s.getEndTime() > start) {
+                result.add(s);
+            }
+        }
+        return result;
+    }
+
+    private long nextStart() {
+        return firstStart + random.nextLong(lastEnd - firstStart - windowMinutes * SEGMENT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RecordIndexBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
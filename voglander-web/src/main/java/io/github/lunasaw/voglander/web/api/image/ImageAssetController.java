@@ -22,6 +22,9 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
@@ -59,6 +62,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 
 @RestController
@@ -66,6 +70,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 @RequestMapping(ApiConstant.API_INDEX_V1 + "/images")
 @Tag(name = "图像资产")
 public class ImageAssetController {
+    /** Tomcat sendfile contract, the same attributes its DefaultServlet uses for static files. */
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    /** Below Tomcat's own default sendfile threshold a plain page-cache read is cheaper than the handoff. */
+    private static final long SENDFILE_MIN_BYTES = 48L * 1024;
     private final ImageActorResolver actorResolver;
     private final ImageAssetManager assetManager;
     private final ImageAssetWebAssembler assembler;
@@ -168,11 +179,13 @@ public class ImageAssetController {
     }
 
     @GetMapping("/{assetId}/content")
-    @Operation(summary = "预览图像资产", description = "仅返回已验证的图像内容，支持 ETag/304，响应不暴露存储内部字段")
+    @Operation(summary = "预览图像资产", description = "仅返回已验证的图像内容，支持 ETag/304 与单段 Range/If-Range（206/416），响应不暴露存储内部字段")
     public ResponseEntity<StreamingResponseBody> content(@RequestHeader("Authorization") String authorization,
-        @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch, @PathVariable String assetId) throws IOException {
+        @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch, @PathVariable String assetId,
+        @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+        @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) throws IOException {
         UserDTO actor = actorResolver.resolve(authorization); actorResolver.require(actor, ImageConstant.PERMISSION_ASSET_VIEW);
-        return stream(assetId, ifNoneMatch, false);
+        return stream(assetId, ifNoneMatch, range, ifRange, false);
     }
 
     @GetMapping("/{assetId}/thumbnail")
@@ -212,22 +225,52 @@ public class ImageAssetController {
             .header(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION)
             .header("X-Content-Type-Options", "nosniff");
         if (result.isNotModified()) return response.build();
+        response.contentType(MediaType.IMAGE_JPEG)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().build().toString());
+        if (result.getFile() != null && sendfile(result.getFile(), 0L, result.getContentLength())) {
+            return response.contentLength(result.getContentLength()).build();
+        }
         byte[] content = result.getContent();
-        return response.contentType(MediaType.IMAGE_JPEG)
-            .contentLength(content.length)
-            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().build().toString())
-            .body(content);
+        return response.contentLength(content.length).body(content);
+    }
+
+    /**
+     * Local files (disk-tier thumbnails, local provider originals) go out through the container's sendfile when it
+     * offers one: bytes {@code [start, start + length)} are copied kernel-side after the empty-bodied response
+     * commits, never through the heap.
+     */
+    private boolean sendfile(java.nio.file.Path file, long start, long length) {
+        if (file == null || length < SENDFILE_MIN_BYTES) return false;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) return false;
+        HttpServletRequest request = ((ServletRequestAttributes)attributes).getRequest();
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) return false;
+        request.setAttribute(SENDFILE_FILENAME, file.toString());
+        request.setAttribute(SENDFILE_START, Long.valueOf(start));
+        request.setAttribute(SENDFILE_END, Long.valueOf(start + length));
+        return true;
     }
 
-    private ResponseEntity<StreamingResponseBody> stream(String assetId, String ifNoneMatch, boolean download) throws IOException {
+    private ResponseEntity<StreamingResponseBody> stream(String assetId, String ifNoneMatch, String range, String ifRange,
+        boolean download) throws IOException {
         ImageAssetDTO asset = readService.requireReadable(assetId);
         String etag = "\"sha256:" + asset.getChecksum() + "\""; if (etag.equals(ifNoneMatch)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
         ImageContent content = readService.open(asset);
-        StreamingResponseBody body = output -> { try (ImageContent ignored = content) { content.inputStream().transferTo(output); } };
-        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag)
+        long total = content.contentLength();
+        ImageByteRange slice = ImageByteRange.resolve(range, ifRange, etag, total);
+        if (slice == ImageByteRange.UNSATISFIABLE) {
+            content.close();
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).eTag(etag)
+                .header(HttpHeaders.CONTENT_RANGE, ImageByteRange.unsatisfiedContentRange(total)).build();
+        }
+        long start = slice == null ? 0L : slice.start();
+        long length = slice == null ? total : slice.length();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(slice == null ? HttpStatus.OK : HttpStatus.PARTIAL_CONTENT).eTag(etag)
             .cacheControl(CacheControl.maxAge(300, TimeUnit.SECONDS).cachePrivate())
-            .contentType(MediaType.parseMediaType(asset.getContentType())).contentLength(content.contentLength())
+            .contentType(MediaType.parseMediaType(asset.getContentType())).contentLength(length)
+            .header(HttpHeaders.ACCEPT_RANGES, "bytes")
             .header("X-Content-Type-Options", "nosniff");
+        if (slice != null) response.header(HttpHeaders.CONTENT_RANGE, slice.contentRange(total));
         if (download) {
             io.github.lunasaw.voglander.manager.domaon.dto.image.ImageAssetSourceDTO source = assetManager.getSourceByAssetId(assetId);
             String filename = source == null ? asset.getAssetName() : source.getOriginalFilename();
@@ -236,14 +279,21 @@ public class ImageAssetController {
         } else {
             response.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().build().toString());
         }
+        if (sendfile(content.file(), start, length)) {
+            content.close();
+            return response.build();
+        }
+        StreamingResponseBody body = output -> { try (ImageContent ignored = content) { content.transferTo(output, start, length); } };
         return response.body(body);
     }
 
     @GetMapping("/{assetId}/download")
-    @Operation(summary = "下载图像资产", description = "以 RFC 5987 文件名下载已授权图像内容")
-    public ResponseEntity<StreamingResponseBody> download(@RequestHeader("Authorization") String authorization, @PathVariable String assetId) throws IOException {
+    @Operation(summary = "下载图像资产", description = "以 RFC 5987 文件名下载已授权图像内容，支持单段 Range/If-Range 断点续传")
+    public ResponseEntity<StreamingResponseBody> download(@RequestHeader("Authorization") String authorization, @PathVariable String assetId,
+        @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+        @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) throws IOException {
         UserDTO actor = actorResolver.resolve(authorization); actorResolver.require(actor, ImageConstant.PERMISSION_ASSET_VIEW);
-        return stream(assetId, null, true);
+        return stream(assetId, null, range, ifRange, true);
     }
 
     private static String safeDownloadFilename(String filename, String fallback) {
@@ -0,0 +1,79 @@
+package io.github.lunasaw.voglander.web.api.image;
+
+/**
+ * Single {@code bytes} range of a private image response (RFC 9110 section 14).
+ * <p>
+ * Only one range per request is honoured: multi-range and malformed headers are ignored and the full
+ * representation is served, which the RFC allows. A syntactically valid range that starts past the end is
+ * {@link #UNSATISFIABLE}.
+ * </p>
+ */
+final class ImageByteRange {
+
+    static final ImageByteRange UNSATISFIABLE = new ImageByteRange(-1L, -1L);
+    private static final String UNIT = "bytes=";
+    private final long start;
+    private final long end;
+
+    private ImageByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Range to serve for {@code range} against {@code length} bytes, or null for the full representation.
+     * {@code ifRange} other than the current strong ETag (including any date) also means the full representation.
+     */
+    static ImageByteRange resolve(String range, String ifRange, String etag, long length) {
+        if (range == null || (ifRange != null && !ifRange.trim().equals(etag))) return null;
+        String value = range.trim();
+        if (!value.regionMatches(true, 0, UNIT, 0, UNIT.length())) return null;
+        String spec = value.substring(UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) return null;
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        if (!digits(first) && !(first.isEmpty() && digits(last))) return null;
+        if (!last.isEmpty() && !digits(last)) return null;
+        long from = parse(first);
+        long to = parse(last);
+        if (first.isEmpty()) {
+            if (to == 0 || length == 0) return UNSATISFIABLE;
+            return new ImageByteRange(Math.max(0L, length - to), length - 1);
+        }
+        if (!last.isEmpty() && to < from) return null;
+        if (from >= length) return UNSATISFIABLE;
+        return new ImageByteRange(from, last.isEmpty() ? length - 1 : Math.min(to, length - 1));
+    }
+
+    long start() { return start; }
+    long length() { return end - start + 1; }
+
+    String contentRange(long total) {
+        return "bytes " + start + "-" + end + "/" + total;
+    }
+
+    static String unsatisfiedContentRange(long total) {
+        return "bytes */" + total;
+    }
+
+    private static boolean digits(String value) {
+        if (value.isEmpty()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') return false;
+        }
+        return true;
+    }
+
+    /** Decimal value saturating at {@link Long#MAX_VALUE}; -1 for an empty position. */
+    private static long parse(String value) {
+        if (value.isEmpty()) return -1L;
+        long result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            int digit = value.charAt(i) - '0';
+            if (result > (Long.MAX_VALUE - digit) / 10) return Long.MAX_VALUE;
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.lunasaw.voglander.web.api.live.controller;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import io.github.lunasaw.voglander.common.constant.ApiConstant;
+import io.github.lunasaw.voglander.common.constant.media.MediaFlowConstant;
+import io.github.lunasaw.voglander.common.domain.AjaxResult;
+import io.github.lunasaw.voglander.manager.manager.MediaFlowRollupManager;
+import io.github.lunasaw.voglander.web.api.live.domain.MediaFlowTalkerVO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * 流量统计接口：按节点/设备/通道查询分钟、小时汇总的流量排行。
+ * <p>
+ * 汇总数据来自 ZLM 会话结束时的 {@code on_flow_report}，整场字节数按会话时长摊到各时间桶，
+ * 仍在进行的会话在结束前不计入；数据按刷写周期（默认 10 秒）异步落库，存在相应延迟。
+ * </p>
+ *
+ * @author luna
+ */
+@RestController
+@RequestMapping(ApiConstant.API_INDEX_V1 + "/live/flow")
+@Tag(name = "流量统计")
+public class MediaFlowController {
+
+    @Autowired private MediaFlowRollupManager mediaFlowRollupManager;
+
+    @GetMapping("/top")
+    @Operation(summary = "流量排行（按字节数降序的前 N 个设备/通道/节点）",
+        description = "字节数按会话时长摊到各时间桶；进行中的会话结束后才计入")
+    public AjaxResult<List<MediaFlowTalkerVO>> top(
+        @Parameter(description = "维度 DEVICE/CHANNEL/NODE") @RequestParam(defaultValue = MediaFlowConstant.Dimension.DEVICE) String dimension,
+        @Parameter(description = "粒度 MINUTE/HOUR") @RequestParam(defaultValue = MediaFlowConstant.Granularity.HOUR) String granularity,
+        @Parameter(description = "开始时间（毫秒时间戳，含）") @RequestParam Long startTime,
+        @Parameter(description = "结束时间（毫秒时间戳，不含）") @RequestParam Long endTime,
+        @Parameter(description = "条数，最大 100") @RequestParam(defaultValue = "10") Integer limit) {
+        return AjaxResult.success(mediaFlowRollupManager
+            .topTalkers(granularity, dimension, toLocal(startTime), toLocal(endTime), limit)
+            .stream().map(MediaFlowTalkerVO::convertVO).collect(Collectors.toList()));
+    }
+
+    private static LocalDateTime toLocal(Long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+}
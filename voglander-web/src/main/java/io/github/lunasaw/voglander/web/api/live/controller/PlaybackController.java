@@ -1,6 +1,8 @@
 package io.github.lunasaw.voglander.web.api.live.controller;
 
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -12,9 +14,13 @@ import io.github.lunasaw.voglander.client.domain.device.qo.DeviceQueryReq;
 import io.github.lunasaw.voglander.client.service.device.DeviceCommandService;
 import io.github.lunasaw.voglander.common.constant.ApiConstant;
 import io.github.lunasaw.voglander.common.domain.AjaxResult;
+import io.github.lunasaw.voglander.manager.manager.MediaRecordManager;
 import io.github.lunasaw.voglander.web.api.live.domain.PlaybackControlReq;
 import io.github.lunasaw.voglander.web.api.live.domain.PlaybackStartReq;
 import io.github.lunasaw.voglander.web.api.live.domain.RecordQueryReq;
+import io.github.lunasaw.voglander.web.api.live.domain.RecordSegmentVO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +32,7 @@ import lombok.extern.slf4j.Slf4j;
 public class PlaybackController {
 
     @Autowired private DeviceCommandService deviceCommandService;
+    @Autowired private MediaRecordManager   mediaRecordManager;
 
     @PostMapping("/start")
     public AjaxResult<?> start(@Valid @RequestBody PlaybackStartReq req) {
@@ -61,4 +68,16 @@ public class PlaybackController {
         deviceCommandService.queryDevice(qReq);
         return AjaxResult.success(null);
     }
+
+    @GetMapping("/segments")
+    @Operation(summary = "平台侧录像片段（ZLM MP4 录制索引，与时间窗相交的片段）")
+    public AjaxResult<List<RecordSegmentVO>> segments(
+        @Parameter(description = "设备ID") @RequestParam String deviceId,
+        @Parameter(description = "通道ID") @RequestParam String channelId,
+        @Parameter(description = "开始时间（毫秒时间戳）") @RequestParam Long startTime,
+        @Parameter(description = "结束时间（毫秒时间戳）") @RequestParam Long endTime,
+        @Parameter(description = "条数，最大 1000") @RequestParam(defaultValue = "200") Integer limit) {
+        return AjaxResult.success(mediaRecordManager.findSegments(deviceId, channelId, startTime, endTime, limit)
+            .stream().map(RecordSegmentVO::convertVO).collect(Collectors.toList()));
+    }
 }
@@ -0,0 +1,25 @@
+package io.github.lunasaw.voglander.web.api.live.domain;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.MediaFlowTalkerDTO;
+import lombok.Data;
+
+@Data
+public class MediaFlowTalkerVO {
+    private String dimension;
+    private String dimKey;
+    private long   totalBytes;
+    private long   durationSec;
+    private long   playerCount;
+    private long   reportCount;
+
+    public static MediaFlowTalkerVO convertVO(MediaFlowTalkerDTO dto) {
+        MediaFlowTalkerVO vo = new MediaFlowTalkerVO();
+        vo.setDimension(dto.getDimension());
+        vo.setDimKey(dto.getDimKey());
+        vo.setTotalBytes(dto.getTotalBytes());
+        vo.setDurationSec(dto.getDurationSec());
+        vo.setPlayerCount(dto.getPlayerCount());
+        vo.setReportCount(dto.getReportCount());
+        return vo;
+    }
+}
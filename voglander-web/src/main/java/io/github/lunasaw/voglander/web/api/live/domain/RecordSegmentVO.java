@@ -0,0 +1,35 @@
+package io.github.lunasaw.voglander.web.api.live.domain;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.MediaRecordSegmentDTO;
+import lombok.Data;
+
+@Data
+public class RecordSegmentVO {
+    private String mediaServerId;
+    private String app;
+    private String stream;
+    private String deviceId;
+    private String channelId;
+    private String filePath;
+    private String url;
+    private long   fileSize;
+    /** 毫秒时间戳 */
+    private long   startTime;
+    /** 毫秒时间戳 */
+    private long   endTime;
+
+    public static RecordSegmentVO convertVO(MediaRecordSegmentDTO dto) {
+        RecordSegmentVO vo = new RecordSegmentVO();
+        vo.setMediaServerId(dto.getMediaServerId());
+        vo.setApp(dto.getApp());
+        vo.setStream(dto.getStream());
+        vo.setDeviceId(dto.getDeviceId());
+        vo.setChannelId(dto.getChannelId());
+        vo.setFilePath(dto.getFilePath());
+        vo.setUrl(dto.getUrl());
+        vo.setFileSize(dto.getFileSize());
+        vo.setStartTime(dto.getStartTime());
+        vo.setEndTime(dto.getEndTime());
+        return vo;
+    }
+}
@@ -42,10 +42,13 @@ public class SseController {
             @Parameter(description = "逗号分隔的主题 allowlist：device、live、alarm、business.task、image.asset；"
                 + "business.task 和 image.asset 需相应查询权限，服务端还会逐事件校验权限")
             @RequestParam(defaultValue = "device,live,alarm") String topics,
-            @RequestParam(required = false) String token) {
+            @RequestParam(required = false) String token,
+            @Parameter(description = "断线重连时浏览器自动携带的最后事件 ID，服务端补发其后的事件；"
+                + "补发窗口已过期时下发 replay.reset 事件，客户端需全量刷新")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
         UserDTO actor = authenticatedUserResolver.resolveToken(token);
         Set<String> topicSet = new HashSet<>(Arrays.asList(topics.split(",")));
         SseSubscriptionContext context = authorizationService.sseContext(actor, topicSet);
-        return sseEventBus.register(context);
+        return sseEventBus.register(context, lastEventId);
     }
 }
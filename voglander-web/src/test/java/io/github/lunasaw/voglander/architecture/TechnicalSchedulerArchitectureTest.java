@@ -130,7 +130,11 @@ class TechnicalSchedulerArchitectureTest {
             "PROTOCOL");
         schedulers.put("io.github.lunasaw.voglander.intergration.wrapper.gb28181.cascade.CascadeSubscribeCleanScheduler",
             "PROTOCOL");
+        schedulers.put("io.github.lunasaw.voglander.intergration.wrapper.gb28181.handler.Gb28181CatalogAssembler",
+            "PROTOCOL");
         schedulers.put("io.github.lunasaw.voglander.manager.manager.DeviceManager", "MAINTENANCE");
+        schedulers.put("io.github.lunasaw.voglander.manager.manager.MediaFlowRollupManager", "MAINTENANCE");
+        schedulers.put("io.github.lunasaw.voglander.manager.manager.MediaRecordManager", "MAINTENANCE");
         schedulers.put("io.github.lunasaw.voglander.manager.routing.NodeAliveService", "MAINTENANCE");
         schedulers.put("io.github.lunasaw.voglander.manager.spring.SpringDynamicTask", "MAINTENANCE");
         schedulers.put("io.github.lunasaw.voglander.service.image.ImageStorageReconciliationService", "MAINTENANCE");
@@ -0,0 +1,152 @@
+package io.github.lunasaw.voglander.intergration.wrapper.gb28181.handler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.DeviceChannelDTO;
+import io.github.lunasaw.voglander.manager.manager.DeviceChannelManager;
+
+/**
+ * Gb28181CatalogAssembler 单元测试：按 SN 归并分片、SumNum 收齐一次提交、超时部分提交、内存上限与等锁重试。
+ *
+ * @author luna
+ */
+@DisplayName("分片目录组装测试")
+@ExtendWith(MockitoExtension.class)
+class Gb28181CatalogAssemblerTest {
+
+    private static final String DEVICE_ID = "34020000001320000001";
+
+    @Mock
+    private DeviceChannelManager deviceChannelManager;
+
+    @Test
+    @DisplayName("多分片收齐 SumNum 后只对账一次，并携带整份目录通道集合")
+    @SuppressWarnings("unchecked")
+    void commits_once_when_sum_num_reached() {
+        Gb28181CatalogAssembler assembler = new Gb28181CatalogAssembler(deviceChannelManager, 30_000L, 16, 5000);
+
+        assembler.offer(DEVICE_ID, "sn-1", 25, channels(0, 10));
+        assembler.offer(DEVICE_ID, "sn-1", 25, channels(10, 20));
+        verify(deviceChannelManager, never()).reconcileCatalog(any(), anyList(), any());
+        assembler.offer(DEVICE_ID, "sn-1", 25, channels(20, 25));
+
+        ArgumentCaptor<List<DeviceChannelDTO>> list = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Set<String>> ids = ArgumentCaptor.forClass(Set.class);
+        verify(deviceChannelManager, times(1)).reconcileCatalog(eq(DEVICE_ID), list.capture(), ids.capture());
+        assertEquals(25, list.getValue().size());
+        assertEquals(25, ids.getValue().size());
+        assertEquals(0, assembler.pendingCount());
+    }
+
+    @Test
+    @DisplayName("不同 SN 的目录互不混合")
+    void separates_catalogs_by_sn() {
+        Gb28181CatalogAssembler assembler = new Gb28181CatalogAssembler(deviceChannelManager, 30_000L, 16, 5000);
+
+        assembler.offer(DEVICE_ID, "sn-1", 20, channels(0, 10));
+        assembler.offer(DEVICE_ID, "sn-2", 20, channels(0, 10));
+
+        assertEquals(2, assembler.pendingCount());
+        verify(deviceChannelManager, never()).reconcileCatalog(any(), anyList(), any());
+    }
+
+    @Test
+    @DisplayName("分片超时后按已收到部分落库，不做失踪扫描")
+    void flushes_partial_on_timeout() {
+        Gb28181CatalogAssembler assembler = new Gb28181CatalogAssembler(deviceChannelManager, 1_000L, 16, 5000);
+        assembler.offer(DEVICE_ID, "sn-1", 30, channels(0, 10));
+
+        assertEquals(0, assembler.sweep(System.currentTimeMillis()), "未超时不提交");
+        assertEquals(1, assembler.sweep(System.currentTimeMillis() + 5_000L));
+
+        verify(deviceChannelManager, times(1)).reconcileCatalog(eq(DEVICE_ID), anyList(), isNull());
+        assertEquals(0, assembler.pendingCount());
+    }
+
+    @Test
+    @DisplayName("等锁超时时保留数据，清扫时重试而不丢弃")
+    void retries_when_lock_wait_times_out() {
+        Gb28181CatalogAssembler assembler = new Gb28181CatalogAssembler(deviceChannelManager, 30_000L, 16, 5000);
+        when(deviceChannelManager.reconcileCatalog(eq(DEVICE_ID), anyList(), any())).thenReturn(-1, 5);
+
+        assembler.offer(DEVICE_ID, "sn-1", 5, channels(0, 5));
+        assertEquals(1, assembler.pendingCount(), "等锁超时应留在缓冲");
+
+        assertEquals(1, assembler.sweep(System.currentTimeMillis()));
+        verify(deviceChannelManager, times(2)).reconcileCatalog(eq(DEVICE_ID), anyList(), any());
+        assertEquals(0, assembler.pendingCount());
+    }
+
+    @Test
+    @DisplayName("缓冲达到上限时提前部分落库，收齐后以全部通道 ID 做最终对账")
+    @SuppressWarnings("unchecked")
+    void bounded_buffer_flushes_early() {
+        Gb28181CatalogAssembler assembler = new Gb28181CatalogAssembler(deviceChannelManager, 30_000L, 16, 10);
+
+        assembler.offer(DEVICE_ID, "sn-1", 15, channels(0, 10));
+        verify(deviceChannelManager, times(1)).reconcileCatalog(eq(DEVICE_ID), anyList(), isNull());
+
+        assembler.offer(DEVICE_ID, "sn-1", 15, channels(10, 15));
+        ArgumentCaptor<List<DeviceChannelDTO>> list = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Set<String>> ids = ArgumentCaptor.forClass(Set.class);
+        verify(deviceChannelManager, times(2)).reconcileCatalog(eq(DEVICE_ID), list.capture(), ids.capture());
+        assertEquals(5, list.getAllValues().get(1).size(), "最终提交只含未落库的 DTO");
+        assertEquals(15, ids.getAllValues().get(1).size(), "失踪扫描基于整份目录");
+    }
+
+    @Test
+    @DisplayName("对账在提交线程执行：分片线程不等设备锁，在途期间到达的分片在本批结算后续提")
+    @SuppressWarnings("unchecked")
+    void commits_off_the_offer_thread() {
+        List<Runnable> committer = new ArrayList<>();
+        Gb28181CatalogAssembler assembler =
+            new Gb28181CatalogAssembler(deviceChannelManager, 30_000L, 16, 10, committer::add);
+
+        assembler.offer(DEVICE_ID, "sn-1", 15, channels(0, 10));
+        assembler.offer(DEVICE_ID, "sn-1", 15, channels(10, 15));
+        verify(deviceChannelManager, never()).reconcileCatalog(any(), anyList(), any());
+        assertEquals(1, committer.size(), "同一份目录同一时刻只有一个批次在途");
+        assertEquals(0, assembler.sweep(System.currentTimeMillis()), "在途目录不被清扫重复提交");
+
+        committer.remove(0).run();
+
+        ArgumentCaptor<List<DeviceChannelDTO>> list = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Set<String>> ids = ArgumentCaptor.forClass(Set.class);
+        verify(deviceChannelManager, times(2)).reconcileCatalog(eq(DEVICE_ID), list.capture(), ids.capture());
+        assertNull(ids.getAllValues().get(0), "缓冲上限触发的是部分提交");
+        assertEquals(5, list.getAllValues().get(1).size());
+        assertEquals(15, ids.getAllValues().get(1).size());
+        assertEquals(0, assembler.pendingCount());
+    }
+
+    private static List<DeviceChannelDTO> channels(int from, int to) {
+        List<DeviceChannelDTO> list = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            DeviceChannelDTO dto = new DeviceChannelDTO();
+            dto.setDeviceId(DEVICE_ID);
+            dto.setChannelId(DEVICE_ID.substring(0, 14) + String.format("%06d", i));
+            dto.setName("ch-" + i);
+            list.add(dto);
+        }
+        return list;
+    }
+}
@@ -74,6 +74,12 @@ public class Gb28181ProtocolHandlerTest {
     @InjectMocks
     private Gb28181ProtocolHandler handler;
 
+    @org.junit.jupiter.api.BeforeEach
+    void wireCatalogAssembler() {
+        org.springframework.test.util.ReflectionTestUtils.setField(handler, "catalogAssembler",
+            new Gb28181CatalogAssembler(deviceChannelManager, 30_000L, 256, 5000));
+    }
+
     private DeviceEvent event(String group, String name, String deviceId, String correlationId, Map<String, Object> payload) {
         return new DeviceEvent("gb28181", group, name, deviceId, correlationId, 1000L, payload, "node-1");
     }
@@ -119,6 +125,28 @@ public class Gb28181ProtocolHandlerTest {
         log.info("Keepalive→patchLivenessWithCoalesce 校验通过");
     }
 
+    @Test
+    public void testKeepaliveReadsDeviceIdFromPayloadWithoutDecode() {
+        // payload 中的 deviceId 优先于信封 deviceId，直接按字段读取
+        handler.handle(event("Notify", "Keepalive", "envelope-id", null, Map.of("deviceId", DEVICE_ID)));
+        verify(deviceManager, times(1)).patchLivenessWithCoalesce(
+            eq(DEVICE_ID), eq(DeviceConstant.Status.ONLINE), any(java.time.LocalDateTime.class));
+        log.info("Keepalive payload 字段直读校验通过");
+    }
+
+    @Test
+    public void testTypedKeepaliveDispatchesByEventType() {
+        DeviceEvent typed = DeviceEvent.typed("gb28181",
+            io.github.lunasaw.voglander.client.domain.event.DeviceEventType.NOTIFY_KEEPALIVE,
+            "envelope-id", null, 1000L, Map.of("deviceId", DEVICE_ID), "node-1");
+
+        handler.handle(typed);
+
+        verify(deviceManager, times(1)).patchLivenessWithCoalesce(
+            eq(DEVICE_ID), eq(DeviceConstant.Status.ONLINE), any(java.time.LocalDateTime.class));
+        log.info("Keepalive 类型化事件分发校验通过");
+    }
+
     @Test
     public void testCatalogRoutesToAddChannelPerItem() {
         // 构造含 3 个通道的目录 payload（FastJSON2 round-trip 得到精确 Map 形状）
@@ -136,13 +164,16 @@ public class Gb28181ProtocolHandlerTest {
 
         handler.handle(event("Response", "Catalog", DEVICE_ID, "sn-1", payload));
 
-        // Phase 4(1.0.4)：目录改批量幂等 upsertWithStatus，含 status/lastSeenTime 字段。一次调用，含 3 个通道。
+        // 目录经组装器归并：无 SumNum 视为单片完整目录，立即一次对账，含 3 个通道，并带整份目录通道集合
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<io.github.lunasaw.voglander.manager.domaon.dto.DeviceChannelDTO>> captor =
             ArgumentCaptor.forClass(List.class);
-        verify(deviceChannelManager, times(1)).batchUpsertWithStatus(eq(DEVICE_ID), captor.capture());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<java.util.Set<String>> idsCaptor = ArgumentCaptor.forClass(java.util.Set.class);
+        verify(deviceChannelManager, times(1)).reconcileCatalog(eq(DEVICE_ID), captor.capture(), idsCaptor.capture());
         assertEquals(3, captor.getValue().size(), "应批量 upsert 3 个通道");
-        log.info("Catalog→batchUpsertWithStatus(3) 校验通过");
+        assertEquals(3, idsCaptor.getValue().size(), "完整目录应携带全部通道 ID 供失踪扫描");
+        log.info("Catalog→reconcileCatalog(3) 校验通过");
     }
 
     @Test
@@ -17,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import io.github.lunasaw.sipgateway.core.api.envelope.GatewayEvent;
 import io.github.lunasaw.voglander.client.domain.event.DeviceEvent;
+import io.github.lunasaw.voglander.client.domain.event.DeviceEventType;
 import io.github.lunasaw.voglander.manager.event.InboundEventDispatcher;
 import lombok.extern.slf4j.Slf4j;
 
@@ -59,9 +60,25 @@ public class VoglanderBusinessNotifierTranslatorTest {
         assertEquals("node-A", de.nodeId());
         assertEquals(payload, de.payload(), "payload 透传无损（仍是原始 Map）");
         assertEquals("gb28181.Lifecycle.Register", de.type());
+        assertEquals(DeviceEventType.LIFECYCLE_REGISTER, de.eventType(), "翻译时一次性解析枚举类型");
         log.info("GatewayEvent→DeviceEvent 翻译校验通过（Fallback 版本）");
     }
 
+    @Test
+    public void testUnknownTypeKeepsRawSegments() {
+        GatewayEvent ge = new GatewayEvent("gb28181.Notify.Vendor.Custom", "dev-1", "sn-1", 1L, null, "node-A");
+
+        notifier.notify(ge);
+
+        ArgumentCaptor<DeviceEvent> captor = ArgumentCaptor.forClass(DeviceEvent.class);
+        verify(dispatcher, times(1)).dispatch(captor.capture());
+        DeviceEvent de = captor.getValue();
+        assertEquals(DeviceEventType.UNKNOWN, de.eventType(), "未收录组合归为 UNKNOWN");
+        assertEquals("Notify", de.group());
+        assertEquals("Vendor.Custom", de.name(), "name 段保留第二个 '.' 之后的全部内容");
+        log.info("未知类型保留原始分段校验通过");
+    }
+
     @Test
     public void testNullEventIgnored() {
         notifier.notify(null);
@@ -10,14 +10,20 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
 
+import com.alibaba.fastjson2.JSON;
+
 import io.github.lunasaw.voglander.common.constant.media.MediaSessionConstant;
 import io.github.lunasaw.voglander.common.event.StreamOfflineEvent;
 import io.github.lunasaw.voglander.common.event.StreamReadyEvent;
 import io.github.lunasaw.voglander.intergration.wrapper.zlm.auth.ZlmHookAuthService;
 import io.github.lunasaw.voglander.manager.domaon.dto.MediaSessionDTO;
+import io.github.lunasaw.voglander.manager.manager.MediaFlowRollupManager;
 import io.github.lunasaw.voglander.manager.manager.MediaNodeManager;
+import io.github.lunasaw.voglander.manager.manager.MediaRecordManager;
 import io.github.lunasaw.voglander.manager.manager.MediaSessionManager;
 import io.github.lunasaw.voglander.manager.manager.StreamProxyManager;
+import io.github.lunasaw.zlm.hook.param.OnFlowReportHookParam;
+import io.github.lunasaw.zlm.hook.param.OnRecordMp4HookParam;
 import io.github.lunasaw.zlm.hook.param.OnRtpServerTimeoutHookParam;
 import io.github.lunasaw.zlm.hook.param.OnSendRtpStoppedHookParam;
 import io.github.lunasaw.zlm.hook.param.OnStreamChangedHookParam;
@@ -44,6 +50,10 @@ class VoglanderZlmHookServiceImplTest {
     ZlmHookAuthService           zlmHookAuthService;
     @Mock
     ApplicationEventPublisher    eventPublisher;
+    @Mock
+    MediaFlowRollupManager       mediaFlowRollupManager;
+    @Mock
+    MediaRecordManager           mediaRecordManager;
 
     @Test
     void testOnStreamChanged_Regist_PublishesStreamReadyEvent() {
@@ -305,4 +315,45 @@ class VoglanderZlmHookServiceImplTest {
 
         verify(eventPublisher, never()).publishEvent(any(StreamOfflineEvent.class));
     }
+
+    // ==================== onFlowReport：只进内存累加器，不同步写库 ====================
+
+    @Test
+    void testOnFlowReport_RecordsIntoAccumulator() {
+        OnFlowReportHookParam param = JSON.parseObject("{\"mediaServerId\":\"zlm-1\",\"app\":\"rtp\","
+            + "\"stream\":\"gb_live_dev1_ch1\",\"totalBytes\":123456,\"duration\":42,\"player\":true}",
+            OnFlowReportHookParam.class);
+
+        hookService.onFlowReport(param, null);
+
+        verify(mediaFlowRollupManager).record("zlm-1", "gb_live_dev1_ch1", 123456L, 42L, true);
+        verifyNoInteractions(mediaNodeManager, mediaSessionManager, streamProxyManager);
+    }
+
+    @Test
+    void testOnFlowReport_RecorderFailure_Swallowed() {
+        OnFlowReportHookParam param = JSON.parseObject("{\"mediaServerId\":\"zlm-1\",\"stream\":\"s\"}",
+            OnFlowReportHookParam.class);
+        doThrow(new IllegalStateException("boom")).when(mediaFlowRollupManager)
+            .record(any(), any(), anyLong(), anyLong(), anyBoolean());
+
+        hookService.onFlowReport(param, null);
+
+        verify(mediaFlowRollupManager).record("zlm-1", "s", 0L, 0L, false);
+    }
+
+    // ==================== onRecordMp4：片段进录像索引，秒级时间转毫秒 ====================
+
+    @Test
+    void testOnRecordMp4_IndexesSegment() {
+        OnRecordMp4HookParam param = JSON.parseObject("{\"mediaServerId\":\"zlm-1\",\"app\":\"rtp\","
+            + "\"stream\":\"gb_live_dev1_ch1\",\"filePath\":\"/record/a.mp4\",\"url\":\"record/a.mp4\","
+            + "\"fileSize\":1024,\"startTime\":1700000000,\"timeLen\":60.5}", OnRecordMp4HookParam.class);
+
+        hookService.onRecordMp4(param, null);
+
+        verify(mediaRecordManager).onSegment("zlm-1", "rtp", "gb_live_dev1_ch1", "/record/a.mp4", "record/a.mp4",
+            1024L, 1_700_000_000_000L, 60_500L);
+        verifyNoInteractions(mediaNodeManager, mediaSessionManager, streamProxyManager);
+    }
 }
@@ -0,0 +1,205 @@
+package io.github.lunasaw.voglander.manager.cache;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * HotKeyCacheLoader 单元测试：进程内未命中合并、null 不缓存、XFetch 提前刷新与跨节点租约等待。
+ *
+ * @author luna
+ */
+@DisplayName("热点 key 未命中合并测试")
+class HotKeyCacheLoaderTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private SimpleMeterRegistry       registry;
+
+    private HotKeyCacheLoader         loader;
+
+    private ExecutorService           pool;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager();
+        registry = new SimpleMeterRegistry();
+        pool = Executors.newFixedThreadPool(16);
+        loader = newLoader(0L, 0.0, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("同一 key 并发未命中只回源一次，其余调用方共享结果")
+    void concurrent_misses_share_one_load() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return loader.get("device", "deviceId:d1", String.class, () -> {
+                    loads.incrementAndGet();
+                    sleep(200);
+                    return "dto";
+                });
+            }));
+        }
+        start.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("dto", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get(), "并发未命中只应回源一次");
+        assertEquals("dto", cacheManager.getCache("device").get("deviceId:d1").get());
+        assertEquals(1.0, registry.get("voglander.cache.single.flight").tag("outcome", "leader").counter().count());
+    }
+
+    @Test
+    @DisplayName("回源结果为 null 时不写缓存，与原 unless = #result == null 一致")
+    void null_result_is_not_cached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(loader.get("device", "deviceId:none", String.class, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(loader.get("device", "deviceId:none", String.class, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+
+        assertEquals(2, loads.get());
+        assertNull(cacheManager.getCache("device").get("deviceId:none"));
+    }
+
+    @Test
+    @DisplayName("回源异常传给调用方且不污染缓存")
+    void loader_failure_propagates() {
+        assertThrows(IllegalStateException.class, () -> loader.get("mediaNode", 1L, String.class, () -> {
+            throw new IllegalStateException("db down");
+        }));
+        assertNull(cacheManager.getCache("mediaNode").get(1L));
+        assertEquals("ok", loader.get("mediaNode", 1L, String.class, () -> "ok"));
+    }
+
+    @Test
+    @DisplayName("beta 足够大时命中即后台提前刷新，命中仍返回旧值；beta=0 时不刷新")
+    void early_refresh_follows_beta() {
+        HotKeyCacheLoader eager = newLoader(0L, 1e12, null);
+        AtomicInteger version = new AtomicInteger();
+
+        eager.get("device", "deviceId:d2", String.class, () -> "v" + version.incrementAndGet());
+        String second = eager.get("device", "deviceId:d2", String.class, () -> "v" + version.incrementAndGet());
+
+        assertEquals("v1", second, "命中路径不等刷新，直接返回缓存值");
+        await().atMost(Duration.ofSeconds(2))
+            .until(() -> "v2".equals(cacheManager.getCache("device").get("deviceId:d2").get()));
+        assertEquals(1.0, registry.get("voglander.cache.single.flight").tag("outcome", "early_refresh").counter().count());
+
+        loader.get("device", "deviceId:d3", String.class, () -> "v" + version.incrementAndGet());
+        assertEquals("v3", loader.get("device", "deviceId:d3", String.class, () -> "never"));
+    }
+
+    @Test
+    @DisplayName("并发命中同一待刷新 key 只投递一次刷新，且都不阻塞在刷新上")
+    void concurrent_hits_submit_one_refresh() throws Exception {
+        HotKeyCacheLoader eager = newLoader(0L, 1e12, null);
+        eager.get("device", "deviceId:d5", String.class, () -> "v1");
+        AtomicInteger refreshes = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return eager.get("device", "deviceId:d5", String.class, () -> {
+                    refreshes.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "v2";
+                });
+            }));
+        }
+        start.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("v1", result.get(1, TimeUnit.SECONDS));
+        }
+        release.countDown();
+        await().atMost(Duration.ofSeconds(2))
+            .until(() -> "v2".equals(cacheManager.getCache("device").get("deviceId:d5").get()));
+        assertEquals(1, refreshes.get(), "刷新进行中的 key 不重复投递");
+        eager.shutdown();
+    }
+
+    @Test
+    @DisplayName("其他节点持有租约时在租约期内等待回填，不重复回源")
+    @SuppressWarnings("unchecked")
+    void lease_holder_elsewhere_waits_for_fill() throws Exception {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(ops);
+        when(ops.setIfAbsent(anyString(), anyString(), anyLong(), any(TimeUnit.class))).thenReturn(false);
+        HotKeyCacheLoader leased = newLoader(1000L, 0.0, redis);
+        pool.submit(() -> {
+            sleep(100);
+            cacheManager.getCache("device").put("deviceId:d4", "filled-by-peer");
+        });
+
+        String value = leased.get("device", "deviceId:d4", String.class, () -> "local-load");
+
+        assertEquals("filled-by-peer", value);
+        assertEquals(1.0, registry.get("voglander.cache.single.flight").tag("outcome", "lease_wait_hit").counter().count());
+        verify(ops).setIfAbsent(eq("cache:lease:device::deviceId:d4"), anyString(), eq(1000L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    private HotKeyCacheLoader newLoader(long leaseMs, double beta, StringRedisTemplate redis) {
+        HotKeyCacheLoader l = new HotKeyCacheLoader();
+        ReflectionTestUtils.setField(l, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(l, "meterRegistry", registry);
+        ReflectionTestUtils.setField(l, "stringRedisTemplate", redis);
+        ReflectionTestUtils.setField(l, "leaseMs", leaseMs);
+        ReflectionTestUtils.setField(l, "waitTimeoutMs", 3000L);
+        ReflectionTestUtils.setField(l, "beta", beta);
+        l.init();
+        return l;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.github.lunasaw.voglander.manager.event;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.lunasaw.voglander.client.domain.event.DeviceEvent;
+import io.github.lunasaw.voglander.support.EventEmitter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * AdaptiveEventScheduler 单元测试：设备内 FIFO、整条子队列窃取、热点隔离与指标。
+ *
+ * @author luna
+ */
+@DisplayName("自适应分片调度测试")
+class AdaptiveEventSchedulerTest {
+
+    private AdaptiveEventScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("多设备并发时每个设备内事件仍严格 FIFO")
+    void per_device_order_is_preserved() throws Exception {
+        int devices = 20;
+        int perDevice = 200;
+        CountDownLatch done = new CountDownLatch(devices * perDevice);
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        scheduler = new AdaptiveEventScheduler(4, 10_000, 1, 50,
+            dispatcher(e -> {
+                seen.computeIfAbsent(e.deviceId(), k -> new CopyOnWriteArrayList<>())
+                    .add((Integer) e.payload().get("seq"));
+                done.countDown();
+            }), EventShardMetrics.noop("adaptive", 5));
+
+        for (int seq = 0; seq < perDevice; seq++) {
+            for (int d = 0; d < devices; d++) {
+                assertTrue(scheduler.offer(event("dev-" + d, seq)));
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS), "全部事件应在 10s 内处理完");
+        for (List<Integer> order : seen.values()) {
+            for (int i = 0; i < perDevice; i++) {
+                assertEquals(i, order.get(i).intValue(), "设备内事件序号应严格 FIFO");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("归属分片被慢设备占住时，同分片的其他设备被空闲 worker 窃取处理")
+    void idle_worker_steals_lane_from_busy_shard() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch otherDone = new CountDownLatch(5);
+        scheduler = new AdaptiveEventScheduler(2, 1000, 0, 0,
+            dispatcher(e -> {
+                if ("slow".equals(e.deviceId())) {
+                    slowStarted.countDown();
+                    await(release);
+                } else {
+                    otherDone.countDown();
+                }
+            }), EventShardMetrics.noop("adaptive", 2));
+
+        String sibling = sameHomeAs("slow");
+        scheduler.offer(event("slow", 0));
+        assertTrue(slowStarted.await(2, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            scheduler.offer(event(sibling, i));
+        }
+
+        try {
+            assertTrue(otherDone.await(2, TimeUnit.SECONDS), "同分片的其他设备不应被慢设备阻塞");
+            long stolen = scheduler.getStolenCount(0) + scheduler.getStolenCount(1);
+            assertTrue(stolen >= 1, "应至少发生一次窃取");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("高频设备升级为热点并迁移到独立通道，指标可观测")
+    void hot_device_is_isolated_and_metered() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CountDownLatch done = new CountDownLatch(30);
+        scheduler = new AdaptiveEventScheduler(2, 1000, 1, 10,
+            dispatcher(e -> done.countDown()), new EventShardMetrics(registry, "adaptive", 3));
+
+        for (int i = 0; i < 30; i++) {
+            scheduler.offer(event("nvr-1", i));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(scheduler.isHot("nvr-1"), "1 秒内 30 个事件应触发热点");
+        assertEquals(1, scheduler.getHotLaneCount());
+        assertEquals(1.0, registry.get("voglander.event.shard.hot.lanes").gauge().value());
+        long waits = registry.find("voglander.event.shard.wait").timers().stream()
+            .mapToLong(t -> t.count()).sum();
+        long services = registry.find("voglander.event.shard.service").timers().stream()
+            .mapToLong(t -> t.count()).sum();
+        assertEquals(30, waits);
+        assertEquals(30, services);
+    }
+
+    @Test
+    @DisplayName("预算耗尽时 Keepalive 立即丢弃")
+    void keepalive_dropped_when_budget_exhausted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        scheduler = new AdaptiveEventScheduler(1, 2, 0, 0,
+            dispatcher(e -> await(release)), new EventShardMetrics(registry, "adaptive", 1));
+
+        try {
+            assertTrue(scheduler.offer(event("dev-1", 0)));
+            assertTrue(scheduler.offer(event("dev-1", 1)));
+            DeviceEvent keepalive = EventEmitter.of("test", "Notify.Keepalive", "dev-1").build();
+            assertFalse(scheduler.offer(keepalive), "预算耗尽时 Keepalive 应被丢弃");
+            assertEquals(1.0, registry.get("voglander.event.shard.dropped")
+                .tags("shard", "0", "kind", "KEEPALIVE").counter().count());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("ShardDispatcher adaptive 模式路由到自适应调度器")
+    void shard_dispatcher_adaptive_mode() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        ShardDispatcher sd = new ShardDispatcher(4, 100, ShardDispatcher.MODE_ADAPTIVE, 1, 100,
+            dispatcher(e -> done.countDown()), EventShardMetrics.noop("adaptive", 5));
+        try {
+            sd.dispatch(event("dev-1", 0));
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+            assertEquals(0, sd.getShardQueueSize(sd.getShardIndex(event("dev-1", 1))));
+        } finally {
+            sd.shutdown();
+        }
+    }
+
+    private String sameHomeAs(String deviceId) {
+        int home = scheduler.getShardIndex(event(deviceId, 0));
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; candidates.isEmpty(); i++) {
+            String candidate = "dev-" + i;
+            if (scheduler.getShardIndex(event(candidate, 0)) == home) {
+                candidates.add(candidate);
+            }
+        }
+        return candidates.get(0);
+    }
+
+    private static InboundEventDispatcher dispatcher(java.util.function.Consumer<DeviceEvent> consumer) {
+        ProtocolEventHandler handler = mock(ProtocolEventHandler.class);
+        when(handler.protocol()).thenReturn("test");
+        doAnswer(inv -> {
+            consumer.accept(inv.getArgument(0));
+            return null;
+        }).when(handler).handle(any());
+        return new InboundEventDispatcher(List.of(handler));
+    }
+
+    private static DeviceEvent event(String deviceId, int seq) {
+        return EventEmitter.of("test", "Notify.Catalog", deviceId).put("seq", seq).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import io.github.lunasaw.voglander.client.domain.event.DeviceEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -39,7 +40,7 @@ class EventShardTest {
     private InboundEventDispatcher mockDispatcher;
 
     private EventShard shard;
-    private BlockingQueue<DeviceEvent> testQueue;
+    private BlockingQueue<EventShard.Envelope> testQueue;
 
     @BeforeEach
     void setUp() {
@@ -86,7 +87,7 @@ class EventShardTest {
         // 填满队列
         for (int i = 0; i < 10; i++) {
             DeviceEvent e = createEvent("gb28181", "Lifecycle", "Register", "dev" + i, 1000L + i);
-            assertTrue(testQueue.offer(e), "队列应能容纳 10 个事件");
+            assertTrue(testQueue.offer(new EventShard.Envelope(e, System.nanoTime())), "队列应能容纳 10 个事件");
         }
 
         // 尝试添加第 11 个 Keepalive（应丢弃）
@@ -101,7 +102,7 @@ class EventShardTest {
         // 填满队列
         for (int i = 0; i < 10; i++) {
             DeviceEvent e = createEvent("gb28181", "Lifecycle", "Register", "dev" + i, 1000L + i);
-            testQueue.offer(e);
+            testQueue.offer(new EventShard.Envelope(e, System.nanoTime()));
         }
 
         // 尝试添加关键事件（Register/Invite/Offline）应阻塞等待
@@ -131,6 +132,30 @@ class EventShardTest {
         }
     }
 
+    @Test
+    void testWaitTimeRecordedInFixedMode() throws InterruptedException {
+        // 固定分片与自适应模式同样记录排队等待时间
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EventShard measured = new EventShard(0, new LinkedBlockingQueue<>(10), mockDispatcher,
+            new EventShardMetrics(registry, "fixed", 1));
+        CountDownLatch latch = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(mockDispatcher).dispatch(any(DeviceEvent.class));
+
+        measured.offer(createEvent("gb28181", "Lifecycle", "Register", "dev1", 1000L));
+        measured.offer(createEvent("gb28181", "Lifecycle", "Keepalive", "dev1", 2000L));
+        Thread consumerThread = new Thread(measured::start);
+        consumerThread.start();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "事件应在 5 秒内处理完成");
+        measured.shutdown();
+        consumerThread.join(2000);
+        assertEquals(2L, registry.get("voglander.event.shard.wait").tag("mode", "fixed").timer().count(),
+            "固定分片应记录每个事件的排队等待时间");
+    }
+
     @Test
     void testShardIdAssignment() {
         assertEquals(0, shard.getShardId(), "分片 ID 应为 0");
@@ -156,6 +156,58 @@ class DeviceChannel104Test extends BaseTest {
 
             assertEquals(0, row(ch).getMissingCount(), "再次出现应重置 missing_count=0");
         }
+
+        @Test
+        @DisplayName("内容与状态未变、lastSeen 未到刷新间隔的重复目录不写库")
+        void shouldSkipUnchangedChannels() {
+            String ch = UniqueKeyFactory.channelId();
+            LocalDateTime t1 = LocalDateTime.now().minusSeconds(10);
+            deviceChannelManager.batchUpsertWithStatus(deviceId,
+                List.of(dto(ch, DeviceConstant.Status.ONLINE, t1)));
+            LocalDateTime firstUpdate = row(ch).getUpdateTime();
+
+            int n = deviceChannelManager.batchUpsertWithStatus(deviceId,
+                List.of(dto(ch, DeviceConstant.Status.ONLINE, LocalDateTime.now())));
+
+            assertEquals(0, n, "无实质变化不应写库");
+            assertEquals(firstUpdate, row(ch).getUpdateTime());
+            assertEquals(t1, row(ch).getLastSeenTime(), "lastSeen 未到刷新间隔保持库内值");
+        }
+
+        @Test
+        @DisplayName("名称变化只重写变化的通道")
+        void shouldWriteOnlyChangedChannels() {
+            String ch1 = UniqueKeyFactory.channelId();
+            String ch2 = UniqueKeyFactory.channelId();
+            LocalDateTime t1 = LocalDateTime.now().minusSeconds(10);
+            deviceChannelManager.batchUpsertWithStatus(deviceId, List.of(
+                dto(ch1, DeviceConstant.Status.ONLINE, t1), dto(ch2, DeviceConstant.Status.ONLINE, t1)));
+
+            DeviceChannelDTO renamed = dto(ch2, DeviceConstant.Status.ONLINE, LocalDateTime.now());
+            renamed.setName("renamed");
+            int n = deviceChannelManager.batchUpsertWithStatus(deviceId, List.of(
+                dto(ch1, DeviceConstant.Status.ONLINE, LocalDateTime.now()), renamed));
+
+            assertEquals(1, n, "只有改名的通道被写入");
+            assertEquals("renamed", row(ch2).getName());
+        }
+
+        @Test
+        @DisplayName("状态变化或 lastSeen 超过刷新间隔时写库")
+        void shouldWriteWhenStatusOrStaleLastSeen() {
+            String ch = UniqueKeyFactory.channelId();
+            deviceChannelManager.batchUpsertWithStatus(deviceId,
+                List.of(dto(ch, DeviceConstant.Status.ONLINE, LocalDateTime.now().minusHours(1))));
+
+            LocalDateTime later = LocalDateTime.now().minusMinutes(50);
+            assertEquals(1, deviceChannelManager.batchUpsertWithStatus(deviceId,
+                List.of(dto(ch, DeviceConstant.Status.ONLINE, later))), "lastSeen 超过刷新间隔应写库");
+            assertEquals(later, row(ch).getLastSeenTime());
+
+            assertEquals(1, deviceChannelManager.batchUpsertWithStatus(deviceId,
+                List.of(dto(ch, DeviceConstant.Status.OFFLINE, later.plusSeconds(1)))), "状态变化应写库");
+            assertEquals(DeviceConstant.Status.OFFLINE, row(ch).getStatus());
+        }
     }
 
     // =========================================================
@@ -0,0 +1,119 @@
+package io.github.lunasaw.voglander.manager.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.lunasaw.voglander.common.constant.device.DeviceConstant;
+import io.github.lunasaw.voglander.repository.entity.DeviceDO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * DeviceLivenessBuffer 单元测试：缓冲内单调合并、分批刷写、失败回填、离线丢弃与指标。
+ *
+ * @author luna
+ */
+@DisplayName("心跳写后缓冲测试")
+class DeviceLivenessBufferTest {
+
+    private final List<List<DeviceDO>> batches = new ArrayList<>();
+
+    private final List<String>         evicted = new ArrayList<>();
+
+    @Test
+    @DisplayName("同一设备只保留最新心跳，旧时间戳不覆盖新值")
+    void keeps_newest_keepalive_per_device() {
+        DeviceLivenessBuffer buffer = buffer(100, null);
+        LocalDateTime t1 = LocalDateTime.now();
+        buffer.offer("dev-1", DeviceConstant.Status.ONLINE, t1);
+        buffer.offer("dev-1", DeviceConstant.Status.ONLINE, t1.minusSeconds(5));
+
+        assertEquals(1, buffer.size());
+        buffer.flush();
+
+        assertEquals(1, batches.size());
+        assertEquals(t1, batches.get(0).get(0).getKeepaliveTime(), "乱序到达的旧心跳不应覆盖缓冲内新值");
+        assertEquals(List.of("dev-1"), evicted);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @DisplayName("按 batchSize 分批，每批一次写入")
+    void flush_splits_into_batches() {
+        DeviceLivenessBuffer buffer = buffer(2, null);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            buffer.offer("dev-" + i, DeviceConstant.Status.ONLINE, now);
+        }
+
+        int updated = buffer.flush();
+
+        assertEquals(3, batches.size(), "5 台设备 / batchSize 2 → 3 批");
+        assertEquals(5, updated);
+        assertEquals(5, evicted.size());
+    }
+
+    @Test
+    @DisplayName("写库失败时放回缓冲，下轮重试")
+    void failed_batch_is_requeued() {
+        AtomicBoolean fail = new AtomicBoolean(true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DeviceLivenessBuffer buffer = new DeviceLivenessBuffer((rows, ts) -> {
+            if (fail.get()) {
+                throw new IllegalStateException("database is locked");
+            }
+            batches.add(rows);
+            return rows.size();
+        }, evicted::addAll, 100, registry);
+        buffer.offer("dev-1", DeviceConstant.Status.ONLINE, LocalDateTime.now());
+
+        assertEquals(0, buffer.flush());
+        assertEquals(1, buffer.size(), "失败批次应放回缓冲");
+        assertTrue(evicted.isEmpty(), "未落库不应 evict");
+        assertEquals(1.0, registry.get("voglander.device.liveness.flush.failed").counter().count());
+
+        fail.set(false);
+        assertEquals(1, buffer.flush());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @DisplayName("离线终态前丢弃待写心跳")
+    void discard_removes_pending() {
+        DeviceLivenessBuffer buffer = buffer(100, null);
+        buffer.offer("dev-1", DeviceConstant.Status.ONLINE, LocalDateTime.now());
+
+        buffer.discard("dev-1");
+
+        assertEquals(0, buffer.flush());
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    @DisplayName("缓冲大小与刷写耗时指标可观测")
+    void metrics_are_exported() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DeviceLivenessBuffer buffer = buffer(100, registry);
+        buffer.offer("dev-1", DeviceConstant.Status.ONLINE, LocalDateTime.now());
+        buffer.offer("dev-2", DeviceConstant.Status.ONLINE, LocalDateTime.now());
+
+        assertEquals(2.0, registry.get("voglander.device.liveness.buffer.size").gauge().value());
+        buffer.flush();
+        assertEquals(0.0, registry.get("voglander.device.liveness.buffer.size").gauge().value());
+        assertEquals(1, registry.get("voglander.device.liveness.flush").timer().count());
+        assertEquals(2.0, registry.get("voglander.device.liveness.flushed").counter().count());
+    }
+
+    private DeviceLivenessBuffer buffer(int batchSize, SimpleMeterRegistry registry) {
+        return new DeviceLivenessBuffer((rows, ts) -> {
+            batches.add(new ArrayList<>(rows));
+            return rows.size();
+        }, evicted::addAll, batchSize, registry);
+    }
+}
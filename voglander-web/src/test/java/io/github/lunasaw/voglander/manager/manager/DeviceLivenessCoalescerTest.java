@@ -137,4 +137,42 @@ class DeviceLivenessCoalescerTest extends BaseTest {
         assertEquals(ts1, device2.getKeepaliveTime(), "旧心跳时间戳不应覆盖新状态");
         log.info("心跳合并保持单调性验证通过");
     }
+
+    @Test
+    void testBatchPatchLivenessKeepsMonotonicGuardPerRow() {
+        // 多行 UPDATE：同批内一台设备时间戳前进、一台回退，回退的那台应被逐行单调条件挡下
+        String otherDeviceId = testDeviceId + "-b";
+        DeviceDO other = new DeviceDO();
+        other.setDeviceId(otherDeviceId);
+        other.setName("测试设备B");
+        other.setType(1);
+        other.setStatus(DeviceConstant.Status.OFFLINE);
+        other.setIp("127.0.0.1");
+        other.setPort(5061);
+        other.setServerIp("127.0.0.1");
+        other.setKeepaliveTime(LocalDateTime.now().plusMinutes(30));
+        other.setCreateTime(LocalDateTime.now());
+        other.setUpdateTime(LocalDateTime.now());
+        deviceService.save(other);
+
+        LocalDateTime forward = LocalDateTime.now().plusMinutes(10);
+        DeviceDO a = new DeviceDO();
+        a.setDeviceId(testDeviceId);
+        a.setStatus(DeviceConstant.Status.ONLINE);
+        a.setKeepaliveTime(forward);
+        DeviceDO b = new DeviceDO();
+        b.setDeviceId(otherDeviceId);
+        b.setStatus(DeviceConstant.Status.ONLINE);
+        b.setKeepaliveTime(LocalDateTime.now());
+
+        int updated = deviceService.batchPatchLiveness(java.util.List.of(a, b), LocalDateTime.now());
+
+        assertEquals(1, updated, "仅时间戳前进的设备被更新");
+        DeviceDTO deviceA = deviceManager.getDtoByDeviceId(testDeviceId);
+        assertEquals(forward, deviceA.getKeepaliveTime());
+        assertEquals(DeviceConstant.Status.ONLINE, deviceA.getStatus());
+        DeviceDTO deviceB = deviceManager.getDtoByDeviceId(otherDeviceId);
+        assertEquals(DeviceConstant.Status.OFFLINE, deviceB.getStatus(), "被单调条件挡下的行状态不变");
+        log.info("批量心跳逐行单调条件验证通过");
+    }
 }
@@ -0,0 +1,241 @@
+package io.github.lunasaw.voglander.manager.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.lunasaw.voglander.common.constant.media.MediaFlowConstant;
+import io.github.lunasaw.voglander.common.util.GbStreamIds;
+import io.github.lunasaw.voglander.repository.entity.MediaFlowRollupDO;
+
+/**
+ * MediaFlowAccumulator 单元测试：三维度累加、分钟/小时派生、并发不丢数、失败重试不重复计入小时行。
+ *
+ * @author luna
+ */
+@DisplayName("流量上报累加器测试")
+class MediaFlowAccumulatorTest {
+
+    /** 2026-10-18 10:15:30 UTC */
+    private static final long                  T0      = LocalDateTime.of(2026, 10, 18, 10, 15, 30)
+        .toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    private final List<List<MediaFlowRollupDO>> batches = new ArrayList<>();
+
+    private MediaFlowAccumulator accumulator(int batchSize, AtomicBoolean fail) {
+        return new MediaFlowAccumulator(rows -> {
+            if (fail != null && fail.get()) {
+                throw new IllegalStateException("db down");
+            }
+            batches.add(rows);
+            return rows.size();
+        }, batchSize, 1_000, ZoneOffset.UTC, null);
+    }
+
+    @Test
+    @DisplayName("一次上报计入节点/设备/通道三个维度，分钟行与小时行同时产出")
+    void record_fans_out_to_dimensions_and_granularities() {
+        MediaFlowAccumulator acc = accumulator(100, null);
+        acc.record("zlm-1", "dev1", "ch1", 1_000L, 30L, true, T0);
+        acc.record("zlm-1", "dev1", "ch1", 500L, 10L, false, T0 + 1_000L);
+        acc.record("zlm-1", null, null, 200L, 5L, true, T0);
+
+        assertEquals(6, acc.flush(T0 + 2_000L));
+
+        MediaFlowRollupDO node = row(MediaFlowConstant.Granularity.MINUTE, MediaFlowConstant.Dimension.NODE, "zlm-1");
+        assertEquals(1_700L, node.getTotalBytes());
+        assertEquals(45L, node.getDurationSec());
+        assertEquals(2L, node.getPlayerCount());
+        assertEquals(3L, node.getReportCount());
+        assertEquals(LocalDateTime.of(2026, 10, 18, 10, 15), node.getBucketStart());
+        MediaFlowRollupDO channel =
+            row(MediaFlowConstant.Granularity.HOUR, MediaFlowConstant.Dimension.CHANNEL, "dev1:ch1");
+        assertEquals(1_500L, channel.getTotalBytes());
+        assertEquals(LocalDateTime.of(2026, 10, 18, 10, 0), channel.getBucketStart());
+        assertEquals(1_500L,
+            row(MediaFlowConstant.Granularity.MINUTE, MediaFlowConstant.Dimension.DEVICE, "dev1").getTotalBytes());
+    }
+
+    @Test
+    @DisplayName("同一小时内多个分钟桶合并为一行小时增量，空轮不写库")
+    void hour_rows_are_merged_within_one_flush() {
+        MediaFlowAccumulator acc = accumulator(100, null);
+        acc.record("zlm-1", null, null, 100L, 1L, true, T0);
+        acc.record("zlm-1", null, null, 100L, 1L, true, T0 + 60_000L);
+
+        assertEquals(3, acc.flush(T0 + 61_000L), "两行分钟 + 一行小时");
+        assertEquals(200L, row(MediaFlowConstant.Granularity.HOUR, MediaFlowConstant.Dimension.NODE, "zlm-1")
+            .getTotalBytes());
+
+        batches.clear();
+        assertEquals(0, acc.flush(T0 + 62_000L));
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    @DisplayName("按 batchSize 分批写入；过期且无增量的分钟桶被移除")
+    void flush_batches_and_evicts_idle_buckets() {
+        MediaFlowAccumulator acc = accumulator(2, null);
+        for (int i = 0; i < 3; i++) {
+            acc.record("zlm-" + i, null, null, 10L, 1L, false, T0);
+        }
+        assertEquals(6, acc.flush(T0));
+        assertEquals(3, batches.size());
+        assertEquals(3, acc.size());
+
+        acc.flush(T0 + 180_000L);
+        assertEquals(0, acc.size(), "三分钟后空桶应被移除");
+    }
+
+    @Test
+    @DisplayName("写库失败的行放回重试队列，下一轮与新增量合并，不重复计入")
+    void failed_batches_are_retried_without_double_counting() {
+        AtomicBoolean fail = new AtomicBoolean(true);
+        MediaFlowAccumulator acc = accumulator(100, fail);
+        acc.record("zlm-1", null, null, 100L, 1L, true, T0);
+        assertEquals(0, acc.flush(T0));
+
+        fail.set(false);
+        acc.record("zlm-1", null, null, 50L, 1L, true, T0);
+        assertEquals(2, acc.flush(T0));
+
+        assertEquals(1, batches.size());
+        assertEquals(150L, row(MediaFlowConstant.Granularity.MINUTE, MediaFlowConstant.Dimension.NODE, "zlm-1")
+            .getTotalBytes());
+        assertEquals(150L, row(MediaFlowConstant.Granularity.HOUR, MediaFlowConstant.Dimension.NODE, "zlm-1")
+            .getTotalBytes());
+    }
+
+    @Test
+    @DisplayName("会话结束时的整场总量按会话区间摊到各分钟桶与小时桶，上报数只计入到达分钟")
+    void session_totals_are_spread_over_the_session_interval() {
+        MediaFlowAccumulator acc = accumulator(100, null);
+        // 10:13:00 - 10:15:30，共 150 秒：10:13 与 10:14 各占 40%，10:15 占 20%
+        acc.record("zlm-1", null, null, 1_000L, 150L, true, T0);
+        // 10:59:30 - 11:00:30，跨小时各占一半
+        long nextHour = LocalDateTime.of(2026, 10, 18, 11, 0, 30).toInstant(ZoneOffset.UTC).toEpochMilli();
+        acc.record("zlm-2", null, null, 600L, 60L, false, nextHour);
+        acc.flush(nextHour);
+
+        MediaFlowRollupDO first = row(MediaFlowConstant.Granularity.MINUTE, MediaFlowConstant.Dimension.NODE,
+            "zlm-1", LocalDateTime.of(2026, 10, 18, 10, 13));
+        assertEquals(400L, first.getTotalBytes());
+        assertEquals(60L, first.getDurationSec());
+        assertEquals(0L, first.getReportCount());
+        assertEquals(400L, row(MediaFlowConstant.Granularity.MINUTE, MediaFlowConstant.Dimension.NODE, "zlm-1",
+            LocalDateTime.of(2026, 10, 18, 10, 14)).getTotalBytes());
+        MediaFlowRollupDO last = row(MediaFlowConstant.Granularity.MINUTE, MediaFlowConstant.Dimension.NODE,
+            "zlm-1", LocalDateTime.of(2026, 10, 18, 10, 15));
+        assertEquals(200L, last.getTotalBytes());
+        assertEquals(30L, last.getDurationSec());
+        assertEquals(1L, last.getPlayerCount());
+        assertEquals(1L, last.getReportCount());
+        assertEquals(1_000L, row(MediaFlowConstant.Granularity.HOUR, MediaFlowConstant.Dimension.NODE, "zlm-1")
+            .getTotalBytes());
+
+        assertEquals(300L, row(MediaFlowConstant.Granularity.HOUR, MediaFlowConstant.Dimension.NODE, "zlm-2",
+            LocalDateTime.of(2026, 10, 18, 10, 0)).getTotalBytes());
+        assertEquals(300L, row(MediaFlowConstant.Granularity.HOUR, MediaFlowConstant.Dimension.NODE, "zlm-2",
+            LocalDateTime.of(2026, 10, 18, 11, 0)).getTotalBytes());
+    }
+
+    @Test
+    @DisplayName("长会话在 Hook 线程只写到达分钟单元，摊开在刷写时完成且总量不变")
+    void long_sessions_only_touch_the_arrival_minute_cell() {
+        MediaFlowAccumulator acc = accumulator(1_000, null);
+        acc.record("zlm-1", null, null, 7_200L, 7_200L, true, T0);
+        assertEquals(1, acc.size(), "过去分钟不再产生累加单元");
+
+        acc.flush(T0);
+
+        long minuteBytes = 0;
+        int minuteRows = 0;
+        for (List<MediaFlowRollupDO> batch : batches) {
+            for (MediaFlowRollupDO r : batch) {
+                if (MediaFlowConstant.Granularity.MINUTE.equals(r.getGranularity())) {
+                    minuteBytes += r.getTotalBytes();
+                    minuteRows++;
+                }
+            }
+        }
+        assertEquals(7_200L, minuteBytes);
+        assertEquals(121, minuteRows, "08:15:30 - 10:15:30 覆盖 121 个分钟桶");
+        assertEquals(1, acc.size());
+    }
+
+    @Test
+    @DisplayName("并发上报与刷写交错，总量不丢")
+    void concurrent_records_are_not_lost() throws Exception {
+        MediaFlowAccumulator acc = accumulator(1_000, null);
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    acc.record("zlm-1", "dev1", "ch1", 10L, 1L, true, T0);
+                }
+                done.countDown();
+            });
+        }
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            acc.flush(T0);
+        }
+        acc.flush(T0);
+        pool.shutdown();
+
+        long bytes = 0;
+        long reports = 0;
+        for (List<MediaFlowRollupDO> batch : batches) {
+            for (MediaFlowRollupDO r : batch) {
+                if (MediaFlowConstant.Granularity.MINUTE.equals(r.getGranularity())
+                    && MediaFlowConstant.Dimension.CHANNEL.equals(r.getDimension())) {
+                    bytes += r.getTotalBytes();
+                    reports += r.getReportCount();
+                }
+            }
+        }
+        assertEquals(10L * threads * perThread, bytes);
+        assertEquals((long)threads * perThread, reports);
+    }
+
+    @Test
+    @DisplayName("GB28181 streamId 解析设备与通道，非 GB 流返回 null")
+    void parse_device_channel_from_stream() {
+        assertArrayEquals(new String[] {"34020000001320000001", "34020000001310000001"},
+            GbStreamIds.parseDeviceChannel("gb_live_34020000001320000001_34020000001310000001"));
+        assertArrayEquals(new String[] {"dev", "ch"}, GbStreamIds.parseDeviceChannel("gb_back_dev_ch_1700000000"));
+        assertNull(GbStreamIds.parseDeviceChannel("proxy_camera_1"));
+        assertNull(GbStreamIds.parseDeviceChannel("gb_live_dev"));
+        assertNull(GbStreamIds.parseDeviceChannel(null));
+    }
+
+    private MediaFlowRollupDO row(String granularity, String dimension, String dimKey) {
+        return row(granularity, dimension, dimKey, null);
+    }
+
+    private MediaFlowRollupDO row(String granularity, String dimension, String dimKey, LocalDateTime bucket) {
+        for (List<MediaFlowRollupDO> batch : batches) {
+            for (MediaFlowRollupDO r : batch) {
+                if (granularity.equals(r.getGranularity()) && dimension.equals(r.getDimension())
+                    && dimKey.equals(r.getDimKey()) && (bucket == null || bucket.equals(r.getBucketStart()))) {
+                    return r;
+                }
+            }
+        }
+        fail("缺少汇总行: " + granularity + "/" + dimension + "/" + dimKey);
+        return null;
+    }
+}
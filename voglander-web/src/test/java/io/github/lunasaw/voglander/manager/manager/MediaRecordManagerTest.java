@@ -0,0 +1,110 @@
+package io.github.lunasaw.voglander.manager.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.MediaRecordSegmentDTO;
+import io.github.lunasaw.voglander.repository.entity.MediaRecordSegmentDO;
+import io.github.lunasaw.voglander.repository.mapper.MediaRecordSegmentMapper;
+
+/**
+ * MediaRecordManager 单元测试：回调只进内存、批量幂等落库与失败重试、内存命中与 DB 回落。
+ *
+ * @author luna
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("录像索引管理测试")
+class MediaRecordManagerTest {
+
+    @InjectMocks
+    private MediaRecordManager       manager;
+
+    @Mock
+    private MediaRecordSegmentMapper mapper;
+
+    private long                     now;
+
+    @BeforeEach
+    void setUp() {
+        manager.initMetrics();
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    @DisplayName("回调不写库，定时刷写按批插入；回放流不建索引")
+    void segments_are_flushed_in_batches() {
+        for (int i = 0; i < 3; i++) {
+            manager.onSegment("zlm-1", "rtp", "gb_live_dev1_ch1", "/r/" + i + ".mp4", null, 10L, now + i, 1_000L);
+        }
+        manager.onSegment("zlm-1", "rtp", "gb_back_dev1_ch1_1700000000", "/r/back.mp4", null, 10L, now, 1_000L);
+        verifyNoInteractions(mapper);
+
+        manager.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MediaRecordSegmentDO>> rows = ArgumentCaptor.forClass(List.class);
+        verify(mapper).insertIgnoreBatch(rows.capture());
+        assertEquals(3, rows.getValue().size());
+        assertEquals("dev1", rows.getValue().get(0).getDeviceId());
+        assertEquals(now + 1_000L, rows.getValue().get(0).getEndTime());
+    }
+
+    @Test
+    @DisplayName("落库失败放回队列，下一轮重试")
+    void failed_batch_is_retried() {
+        manager.onSegment("zlm-1", "rtp", "gb_live_dev1_ch1", "/r/a.mp4", null, 10L, now, 1_000L);
+        when(mapper.insertIgnoreBatch(anyList())).thenThrow(new IllegalStateException("db down")).thenReturn(1);
+
+        manager.flush();
+        manager.flush();
+
+        verify(mapper, times(2)).insertIgnoreBatch(anyList());
+        manager.flush();
+        verifyNoMoreInteractions(mapper);
+    }
+
+    @Test
+    @DisplayName("窗口内查询首次预热后走内存，窗口外回落 DB")
+    void memory_path_then_db_fallback() {
+        when(mapper.selectByChannelFrom(eq("dev1"), eq("ch1"), anyLong(), anyInt()))
+            .thenReturn(List.of(row("/r/db.mp4", now - 120_000L, now - 60_000L)));
+        manager.onSegment("zlm-1", "rtp", "gb_live_dev1_ch1", "/r/hook.mp4", null, 10L, now - 60_000L, 60_000L);
+
+        List<MediaRecordSegmentDTO> hit = manager.findSegments("dev1", "ch1", now - 3_600_000L, now + 1L, 10);
+        manager.findSegments("dev1", "ch1", now - 3_600_000L, now + 1L, 10);
+
+        assertEquals(List.of("/r/db.mp4", "/r/hook.mp4"),
+            hit.stream().map(MediaRecordSegmentDTO::getFilePath).toList());
+        verify(mapper, times(1)).selectByChannelFrom(eq("dev1"), eq("ch1"), anyLong(), anyInt());
+
+        long old = now - 30L * 24 * 3_600_000L;
+        when(mapper.selectOverlapping("dev1", "ch1", old - 3_600_000L, old, old + 1_000L, 10))
+            .thenReturn(List.of(row("/r/old.mp4", old, old + 60_000L)));
+        assertEquals("/r/old.mp4", manager.findSegments("dev1", "ch1", old, old + 1_000L, 10).get(0).getFilePath());
+    }
+
+    private static MediaRecordSegmentDO row(String file, long start, long end) {
+        MediaRecordSegmentDO row = new MediaRecordSegmentDO();
+        row.setMediaServerId("zlm-1");
+        row.setStream("gb_live_dev1_ch1");
+        row.setDeviceId("dev1");
+        row.setChannelId("ch1");
+        row.setFilePath(file);
+        row.setFileSize(10L);
+        row.setStartTime(start);
+        row.setEndTime(end);
+        return row;
+    }
+}
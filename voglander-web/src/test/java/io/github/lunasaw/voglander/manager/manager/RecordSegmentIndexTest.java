@@ -0,0 +1,153 @@
+package io.github.lunasaw.voglander.manager.manager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.MediaRecordSegmentDTO;
+
+/**
+ * RecordSegmentIndex 单元测试：区间相交查询、乱序插入、去重、覆盖起点与淘汰。
+ *
+ * @author luna
+ */
+@DisplayName("录像片段区间索引测试")
+class RecordSegmentIndexTest {
+
+    private static final String KEY = RecordSegmentIndex.key("dev1", "ch1");
+
+    @Test
+    @DisplayName("未预热的通道不参与查询，预热后按覆盖起点判定")
+    void query_requires_coverage() {
+        RecordSegmentIndex index = new RecordSegmentIndex();
+        assertFalse(index.add(KEY, segment("a", 1_000, 2_000)), "没被查询过的通道不建索引");
+        assertEquals(0, index.channels());
+
+        index.track(KEY);
+        assertTrue(index.add(KEY, segment("a", 1_000, 2_000)));
+        assertNull(index.query(KEY, 1_000, 2_000, 10));
+        assertNull(index.query("dev9:ch9", 1_000, 2_000, 10));
+
+        index.load(KEY, List.of(), 500, 1L);
+        assertEquals(1, index.query(KEY, 1_500, 3_000, 10).size());
+        assertNull(index.query(KEY, 400, 3_000, 10), "起点早于覆盖起点回落 DB");
+    }
+
+    @Test
+    @DisplayName("相交判定为半开区间，结果按开始时间升序并截断")
+    void overlap_is_half_open_and_ordered() {
+        RecordSegmentIndex index = new RecordSegmentIndex();
+        index.load(KEY, List.of(segment("c", 3_000, 4_000), segment("a", 1_000, 2_000),
+            segment("b", 2_000, 3_000)), 0, 1L);
+
+        assertEquals(List.of("b"), files(index.query(KEY, 2_000, 3_000, 10)));
+        assertEquals(List.of("a", "b", "c"), files(index.query(KEY, 1_500, 3_500, 10)));
+        assertEquals(List.of("a", "b"), files(index.query(KEY, 0, 10_000, 2)));
+        assertTrue(index.query(KEY, 4_000, 5_000, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("跨越查询起点的长片段不被漏掉，同一文件重复回调去重")
+    void long_segment_and_dedupe() {
+        RecordSegmentIndex index = new RecordSegmentIndex();
+        index.load(KEY, List.of(), 0, 1L);
+        assertTrue(index.add(KEY, segment("long", 0, 10_000)));
+        for (int i = 1; i <= 5; i++) {
+            index.add(KEY, segment("s" + i, i * 1_000L, i * 1_000L + 500));
+        }
+        assertFalse(index.add(KEY, segment("long", 0, 10_000)));
+
+        assertEquals(List.of("long"), files(index.query(KEY, 6_000, 7_000, 10)));
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    @DisplayName("随机片段与暴力扫描结果一致")
+    void matches_linear_scan() {
+        RecordSegmentIndex index = new RecordSegmentIndex();
+        index.track(KEY);
+        List<MediaRecordSegmentDTO> all = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            long start = random.nextInt(1_000_000);
+            MediaRecordSegmentDTO s = segment("f" + i, start, start + random.nextInt(5_000));
+            all.add(s);
+            index.add(KEY, s);
+        }
+        index.load(KEY, List.of(), 0, 1L);
+        for (int q = 0; q < 500; q++) {
+            long t1 = random.nextInt(1_000_000);
+            long t2 = t1 + 1 + random.nextInt(20_000);
+            List<String> expected = all.stream().filter(s -> s.getStartTime() < t2 && s.getEndTime() > t1)
+                .map(MediaRecordSegmentDTO::getFilePath).sorted().collect(Collectors.toList());
+            List<String> actual = files(index.query(KEY, t1, t2, Integer.MAX_VALUE)).stream().sorted()
+                .collect(Collectors.toList());
+            assertEquals(expected, actual, "[" + t1 + "," + t2 + ")");
+        }
+    }
+
+    @Test
+    @DisplayName("淘汰窗口外片段并上移覆盖起点")
+    void trim_moves_coverage() {
+        RecordSegmentIndex index = new RecordSegmentIndex();
+        index.load(KEY, List.of(segment("a", 1_000, 2_000), segment("b", 3_000, 4_000)), 0, 1L);
+
+        index.trim(2_500);
+
+        assertEquals(1, index.size());
+        assertEquals(2_500, index.coverFrom(KEY));
+        assertNull(index.query(KEY, 1_000, 2_000, 10));
+        assertEquals(List.of("b"), files(index.query(KEY, 2_500, 5_000, 10)));
+    }
+
+    @Test
+    @DisplayName("超出通道数或片段总数上限时淘汰最久未查询的通道")
+    void evicts_least_recently_used_channels() {
+        RecordSegmentIndex index = new RecordSegmentIndex(2, 5);
+        String a = RecordSegmentIndex.key("dev1", "a");
+        String b = RecordSegmentIndex.key("dev1", "b");
+        String c = RecordSegmentIndex.key("dev1", "c");
+        index.load(a, List.of(segment("a1", 1_000, 2_000)), 0, 1L);
+        index.load(b, List.of(segment("b1", 1_000, 2_000)), 0, 1L);
+        index.query(a, 0, 3_000, 10);
+
+        index.load(c, List.of(segment("c1", 1_000, 2_000)), 0, 1L);
+
+        assertEquals(2, index.channels());
+        assertNull(index.query(b, 0, 3_000, 10), "最久未用的通道被淘汰，回落 DB");
+        assertFalse(index.add(b, segment("b2", 2_000, 3_000)));
+        assertEquals(List.of("a1"), files(index.query(a, 0, 3_000, 10)));
+
+        for (int i = 0; i < 4; i++) {
+            index.add(c, segment("c" + (i + 2), 2_000L + i, 3_000L + i));
+        }
+        index.trim(0);
+
+        assertEquals(1, index.channels(), "片段总数超限同样按最近使用淘汰");
+        assertEquals(1, index.size());
+        assertNull(index.query(c, 0, 3_000, 10));
+        assertEquals(2, index.evictions());
+    }
+
+    private static List<String> files(List<MediaRecordSegmentDTO> segments) {
+        return segments.stream().map(MediaRecordSegmentDTO::getFilePath).collect(Collectors.toList());
+    }
+
+    private static MediaRecordSegmentDTO segment(String file, long start, long end) {
+        MediaRecordSegmentDTO s = new MediaRecordSegmentDTO();
+        s.setMediaServerId("zlm-1");
+        s.setStream("gb_live_dev1_ch1");
+        s.setDeviceId("dev1");
+        s.setChannelId("ch1");
+        s.setFilePath(file);
+        s.setStartTime(start);
+        s.setEndTime(end);
+        return s;
+    }
+}
@@ -0,0 +1,203 @@
+package io.github.lunasaw.voglander.repository.cache.near;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import io.github.lunasaw.voglander.repository.config.RedisConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * TwoTierCache / TwoTierCacheManager 单元测试：L1 命中、写穿失效、跨节点广播、回填竞态与分层指标。
+ * <p>
+ * 以 {@link ConcurrentMapCache} 充当 L2，不依赖 Redis。
+ * </p>
+ *
+ * @author luna
+ */
+@DisplayName("两级近端缓存测试")
+class TwoTierCacheTest {
+
+    private static final NearCacheSpec SPEC = new NearCacheSpec(100L, Duration.ofSeconds(30L));
+
+    private SimpleMeterRegistry        registry;
+
+    private List<String>               published;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        published = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("首次读回填 L1，再次读命中 L1 不访问 L2")
+    void second_read_hits_l1() {
+        CountingCache l2 = new CountingCache("device");
+        l2.put("deviceId:d1", "v1");
+        TwoTierCache cache = twoTier(l2);
+
+        assertEquals("v1", cache.get("deviceId:d1", String.class));
+        assertEquals("v1", cache.get("deviceId:d1", String.class));
+
+        assertEquals(1, l2.reads, "第二次读应由 L1 直接返回");
+        assertEquals(1.0, count("l1", "hit"));
+        assertEquals(1.0, count("l1", "miss"));
+        assertEquals(1.0, count("l2", "hit"));
+    }
+
+    @Test
+    @DisplayName("evict 同时失效两级并广播给其他节点")
+    void evict_invalidates_both_tiers_and_broadcasts() {
+        CountingCache l2 = new CountingCache("device");
+        l2.put("deviceId:d1", "v1");
+        TwoTierCache cache = twoTier(l2);
+        cache.get("deviceId:d1");
+
+        cache.evict("deviceId:d1");
+
+        assertNull(l2.get("deviceId:d1"));
+        assertNull(cache.get("deviceId:d1"));
+        assertEquals(List.of("device::deviceId:d1"), published);
+    }
+
+    @Test
+    @DisplayName("回源回填只写 L2、失效本节点 L1，不向其他节点广播")
+    void fill_does_not_broadcast() {
+        CountingCache l2 = new CountingCache("device");
+        l2.put("deviceId:d1", "v1");
+        TwoTierCache cache = twoTier(l2);
+        cache.get("deviceId:d1");
+
+        cache.fill("deviceId:d1", "v2");
+        assertNull(cache.putIfAbsent("deviceId:d2", "v3"));
+        assertNotNull(cache.putIfAbsent("deviceId:d2", "v4"));
+
+        assertEquals("v2", cache.get("deviceId:d1", String.class));
+        assertEquals("v3", cache.get("deviceId:d2", String.class));
+        assertTrue(published.isEmpty(), "回填不是数据变更，不应广播");
+        cache.put("deviceId:d1", "v5");
+        assertEquals(List.of("device::deviceId:d1"), published);
+    }
+
+    @Test
+    @DisplayName("远端失效只清本地 L1，下次读回到 L2")
+    void remote_invalidation_drops_only_l1() {
+        CountingCache l2 = new CountingCache("device");
+        l2.put("deviceId:d1", "v1");
+        TwoTierCache cache = twoTier(l2);
+        cache.get("deviceId:d1");
+        l2.put("deviceId:d1", "v2");
+
+        cache.onRemoteInvalidation("deviceId:d1");
+
+        assertEquals("v2", cache.get("deviceId:d1", String.class));
+        assertEquals(2, l2.reads);
+        assertTrue(published.isEmpty(), "远端失效不应再次广播");
+    }
+
+    @Test
+    @DisplayName("读 L2 期间发生失效时放弃回填，避免旧值滞留 L1")
+    void invalidation_during_l2_read_skips_fill() {
+        TwoTierCache[] holder = new TwoTierCache[1];
+        CountingCache l2 = new CountingCache("device") {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper stale = super.get(key);
+                holder[0].onRemoteInvalidation(String.valueOf(key));
+                return stale;
+            }
+        };
+        l2.put("deviceId:d1", "stale");
+        holder[0] = twoTier(l2);
+
+        holder[0].get("deviceId:d1");
+
+        assertEquals(0L, holder[0].l1Size(), "期间有失效，L1 不应回填");
+    }
+
+    @Test
+    @DisplayName("回源加载计入 l2 miss 与加载耗时，结果回填 L1")
+    void value_loader_is_timed_and_filled() {
+        CountingCache l2 = new CountingCache("device");
+        TwoTierCache cache = twoTier(l2);
+
+        assertEquals("loaded", cache.get("k", () -> "loaded"));
+        assertEquals("loaded", cache.get("k", () -> "other"));
+
+        assertEquals(1.0, count("l2", "miss"));
+        assertEquals(1.0, count("l1", "hit"));
+        assertEquals(1L, registry.get("voglander.cache.load").tag("cache", "device").timer().count());
+    }
+
+    @Test
+    @DisplayName("管理器只包装登记的缓存区，远端失效按缓存名路由")
+    void manager_wraps_only_configured_caches() {
+        ConcurrentMapCacheManager delegate = new ConcurrentMapCacheManager();
+        TwoTierCacheManager manager = new TwoTierCacheManager(delegate, RedisConfig.nearCacheSpecs(),
+            (name, key) -> published.add(name + "::" + key), registry);
+
+        assertInstanceOf(TwoTierCache.class, manager.getCache("device"));
+        assertInstanceOf(TwoTierCache.class, manager.getCache("device:list"));
+        assertInstanceOf(ConcurrentMapCache.class, manager.getCache("deviceChannel"));
+        assertInstanceOf(ConcurrentMapCache.class, manager.getCache("mediaNode"));
+        assertSame(manager.getCache("device"), manager.getCache("device"));
+
+        delegate.getCache("device").put("deviceId:d1", "v1");
+        manager.getCache("device").get("deviceId:d1");
+        manager.onRemoteInvalidation("device", "deviceId:d1");
+        assertEquals(0L, ((TwoTierCache)manager.getCache("device")).l1Size());
+    }
+
+    @Test
+    @DisplayName("L1 TTL 均短于对应 L2 TTL")
+    void near_ttl_shorter_than_redis_ttl() {
+        Map<String, Duration> l2Ttls = new java.util.HashMap<>(RedisConfig.deviceCacheTtls());
+        l2Ttls.putAll(RedisConfig.channelCacheTtls());
+        RedisConfig.nearCacheSpecs().forEach((name, spec) -> {
+            assertNotNull(l2Ttls.get(name), name + " 应有对应 L2 TTL");
+            assertTrue(spec.ttl().compareTo(l2Ttls.get(name)) < 0, name + " 的 L1 TTL 应短于 L2");
+        });
+    }
+
+    @Test
+    @DisplayName("失效消息编解码与格式校验")
+    void invalidation_message_round_trip() {
+        String body = NearCacheInvalidationBus.encode("node-1", "device:list", "page:1:10");
+        assertArrayEquals(new String[] {"node-1", "device:list", "page:1:10"}, NearCacheInvalidationBus.decode(body));
+        assertNull(NearCacheInvalidationBus.decode("garbage"));
+    }
+
+    private TwoTierCache twoTier(Cache l2) {
+        return new TwoTierCache(l2, SPEC, (name, key) -> published.add(name + "::" + key), registry);
+    }
+
+    private double count(String tier, String result) {
+        return registry.get("voglander.cache.gets").tag("tier", tier).tag("result", result).counter().count();
+    }
+
+    private static class CountingCache extends ConcurrentMapCache {
+
+        int reads;
+
+        CountingCache(String name) {
+            super(name);
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            reads++;
+            return super.get(key);
+        }
+    }
+}
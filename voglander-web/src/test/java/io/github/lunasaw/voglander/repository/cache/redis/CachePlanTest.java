@@ -0,0 +1,149 @@
+package io.github.lunasaw.voglander.repository.cache.redis;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * CachePlan 单元测试：模式判定、值类型解析、注解读取位置与编译取值器。
+ *
+ * @author luna
+ */
+@DisplayName("@Cached 预编译缓存计划测试")
+class CachePlanTest {
+
+    @Test
+    @DisplayName("按方法签名静态判定单值 / 集合 / Map 模式，Map 取 value 泛型")
+    void mode_and_value_type_resolved_once() throws Exception {
+        CachePlan single = plan("byId", Long.class);
+        CachePlan collection = plan("byIds", List.class);
+        CachePlan map = plan("mapByIds", Set.class);
+
+        assertEquals(CachePlan.Mode.SINGLE, single.getMode());
+        assertEquals(CachePlan.Mode.COLLECTION, collection.getMode());
+        assertEquals(CachePlan.Mode.MAP, map.getMode());
+        assertEquals(Item.class, map.getValueType());
+        assertEquals("item:", single.getCacheKeyPrefix());
+        assertEquals(600, single.getExpireTime());
+    }
+
+    @Test
+    @DisplayName("Object 形参按运行时实参决定模式")
+    void dynamic_mode_checks_runtime_argument() throws Exception {
+        CachePlan plan = plan("byAny", Object.class);
+
+        assertEquals(CachePlan.Mode.DYNAMIC, plan.getMode());
+        assertEquals(CachePlan.Mode.COLLECTION, plan.resolveMode(new Object[] {List.of(1L)}));
+        assertEquals(CachePlan.Mode.SINGLE, plan.resolveMode(new Object[] {1L}));
+    }
+
+    @Test
+    @DisplayName("注解只标在实现类上时，经接口方法仍能编译出计划")
+    void annotation_read_from_target_class() throws Exception {
+        Method ifaceMethod = Repo.class.getMethod("byId", Long.class);
+        assertNull(ifaceMethod.getAnnotation(Cached.class));
+
+        CachePlan plan = CachePlan.compile(RepoImpl.class, ifaceMethod);
+
+        assertNotNull(plan);
+        assertEquals("item:1", plan.singleCacheKey(new Object[] {1L}));
+    }
+
+    @Test
+    @DisplayName("单字段 key 返回原值，多字段按下划线拼接并跳过 null，私有字段回退直接读取")
+    void compiled_key_extractors() throws Exception {
+        Item item = new Item(7L, "cam", null);
+
+        assertEquals(7L, plan("byIds", List.class).keyOf(item));
+        assertEquals("7_cam", plan("byComposite", List.class).keyOf(item));
+        assertEquals("hidden", plan("byHidden", List.class).keyOf(item));
+    }
+
+    @Test
+    @DisplayName("集合 key 生成与超限判定")
+    void multi_keys_and_size_limit() throws Exception {
+        CachePlan plan = plan("byIds", List.class);
+
+        Map<String, Object> keys = plan.multiCacheKey(new Object[] {List.of(1L, 2L)});
+        assertEquals(Map.of("item:1", 1L, "item:2", 2L), keys);
+        assertFalse(plan.tooBig(List.of(1, 2)));
+        assertTrue(plan.tooBig(List.of(1, 2, 3)));
+    }
+
+    private static CachePlan plan(String name, Class<?> param) throws Exception {
+        return CachePlan.compile(RepoImpl.class, RepoImpl.class.getMethod(name, param));
+    }
+
+    interface Repo {
+        Item byId(Long id);
+    }
+
+    static class RepoImpl implements Repo {
+
+        @Override
+        @Cached(cacheKeyPrefix = "item:", expireTime = 600)
+        public Item byId(Long id) {
+            return null;
+        }
+
+        @Cached(cacheKeyPrefix = "item:", keyNameInReturnObject = "id", maxValueSize = 2)
+        public List<Item> byIds(List<Long> ids) {
+            return null;
+        }
+
+        @Cached(cacheKeyPrefix = "item:")
+        public Map<Long, Item> mapByIds(Set<Long> ids) {
+            return null;
+        }
+
+        @Cached(cacheKeyPrefix = "item:", keyNameInReturnObject = "id")
+        public Item byAny(Object key) {
+            return null;
+        }
+
+        @Cached(cacheKeyPrefix = "item:", keyNameInReturnObject = {"id", "name", "note"})
+        public List<Item> byComposite(List<String> keys) {
+            return null;
+        }
+
+        @Cached(cacheKeyPrefix = "item:", keyNameInReturnObject = "secret")
+        public List<Item> byHidden(List<String> keys) {
+            return null;
+        }
+    }
+
+    static class Item {
+
+        private final Long   id;
+
+        private final String name;
+
+        private final String note;
+
+        private final String secret = "hidden";
+
+        Item(Long id, String name, String note) {
+            this.id = id;
+            this.name = name;
+            this.note = note;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getNote() {
+            return note;
+        }
+    }
+}
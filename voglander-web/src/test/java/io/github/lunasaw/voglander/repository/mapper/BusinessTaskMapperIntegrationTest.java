@@ -1,6 +1,7 @@
 package io.github.lunasaw.voglander.repository.mapper;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -229,6 +230,89 @@ class BusinessTaskMapperIntegrationTest extends BaseTest {
         assertEquals("SUCCEEDED", findExecution(executionId).getState());
     }
 
+    @Test
+    @DisplayName("批量认领只取到期的 runnable 行并写入同一 claimToken，释放按 claimToken 回退且不消耗尝试次数")
+    void batchClaimAndRelease_shouldBeBoundToClaimToken() {
+        String suffix = suffix();
+        String taskId = "btask_batch_" + suffix;
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        executionMapper.insert(execution("bexec_batch_pending_" + suffix, taskId, now.minusSeconds(2), "PENDING"));
+        BizTaskExecutionDO retry = execution("bexec_batch_retry_" + suffix, taskId, now.minusSeconds(1),
+            "RETRY_WAIT");
+        retry.setAttemptCount(1);
+        retry.setNextAttemptTime(now.minusSeconds(1));
+        executionMapper.insert(retry);
+        BizTaskExecutionDO notDue = execution("bexec_batch_later_" + suffix, taskId, now, "RETRY_WAIT");
+        notDue.setAttemptCount(1);
+        notDue.setNextAttemptTime(now.plusMinutes(5));
+        executionMapper.insert(notDue);
+
+        String token = "batch-a-" + suffix;
+        assertTrue(executionMapper.claimRunnableBatch(1000, token, "node-a", now, now.plusMinutes(1)) >= 2);
+        assertEquals(0, executionMapper.claimRunnableBatch(1000, "batch-b-" + suffix, "node-b", now,
+            now.plusMinutes(1)));
+        List<BizTaskExecutionDO> claimed = executionMapper.selectByClaimToken(token).stream()
+            .filter(row -> taskId.equals(row.getTaskId())).toList();
+        assertEquals(Arrays.asList("bexec_batch_pending_" + suffix, "bexec_batch_retry_" + suffix),
+            claimed.stream().map(BizTaskExecutionDO::getExecutionId).sorted().toList());
+        assertTrue(claimed.stream().allMatch(row -> "RUNNING".equals(row.getState())
+            && "node-a".equals(row.getWorkerNode()) && now.plusMinutes(1).equals(row.getLeaseUntil())));
+        assertEquals("RETRY_WAIT", findExecution(notDue.getExecutionId()).getState());
+
+        assertEquals(0, executionMapper.releaseClaim("bexec_batch_pending_" + suffix, "stale", now));
+        assertEquals(1, executionMapper.releaseClaim("bexec_batch_pending_" + suffix, token, now));
+        assertEquals(1, executionMapper.releaseClaim("bexec_batch_retry_" + suffix, token, now));
+        assertEquals(0, executionMapper.releaseClaim("bexec_batch_retry_" + suffix, token, now));
+        BizTaskExecutionDO pending = findExecution("bexec_batch_pending_" + suffix);
+        assertEquals("PENDING", pending.getState());
+        assertEquals(0, pending.getAttemptCount());
+        assertNull(pending.getClaimToken());
+        assertNull(pending.getStartedAt());
+        BizTaskExecutionDO retried = findExecution("bexec_batch_retry_" + suffix);
+        assertEquals("RETRY_WAIT", retried.getState());
+        assertEquals(1, retried.getAttemptCount());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("两个节点同时批量认领时每行只归属一个 claimToken，且没有行被漏掉")
+    void competingBatchClaims_shouldPartitionRunnableRows() throws Exception {
+        String suffix = suffix();
+        String taskId = "btask_batch_race_" + suffix;
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        int rows = 20;
+        for (int i = 0; i < rows; i++) {
+            executionMapper.insert(execution("bexec_batch_race_" + i + "_" + suffix, taskId, now.minusSeconds(1),
+                "PENDING"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch ready = new CountDownLatch(2);
+        CountDownLatch start = new CountDownLatch(1);
+        String tokenA = "batch-race-a-" + suffix;
+        String tokenB = "batch-race-b-" + suffix;
+        try {
+            Future<Integer> nodeA = executor.submit(() -> claimCompetingBatch(tokenA, "node-a", now, ready, start));
+            Future<Integer> nodeB = executor.submit(() -> claimCompetingBatch(tokenB, "node-b", now, ready, start));
+            assertTrue(ready.await(5, TimeUnit.SECONDS));
+            start.countDown();
+            assertEquals(executionMapper.selectByClaimToken(tokenA).size(), nodeA.get(10, TimeUnit.SECONDS));
+            assertEquals(executionMapper.selectByClaimToken(tokenB).size(), nodeB.get(10, TimeUnit.SECONDS));
+
+            List<BizTaskExecutionDO> stored = executionMapper.selectList(new LambdaQueryWrapper<BizTaskExecutionDO>()
+                .eq(BizTaskExecutionDO::getTaskId, taskId));
+            assertEquals(rows, stored.size());
+            assertTrue(stored.stream().allMatch(row -> "RUNNING".equals(row.getState())
+                && (tokenA.equals(row.getClaimToken()) && "node-a".equals(row.getWorkerNode())
+                    || tokenB.equals(row.getClaimToken()) && "node-b".equals(row.getWorkerNode()))));
+        } finally {
+            start.countDown();
+            executor.shutdownNow();
+            executionMapper.delete(new LambdaQueryWrapper<BizTaskExecutionDO>()
+                .eq(BizTaskExecutionDO::getTaskId, taskId));
+        }
+    }
+
     @Test
     @DisplayName("execution 与 event timeline 使用固定升序")
     void timelines_shouldBeDeterministic() {
@@ -327,6 +411,13 @@ class BusinessTaskMapperIntegrationTest extends BaseTest {
         return Boolean.TRUE.equals(committed);
     }
 
+    private int claimCompetingBatch(String token, String node, LocalDateTime now, CountDownLatch ready,
+        CountDownLatch start) {
+        ready.countDown();
+        await(start);
+        return executionMapper.claimRunnableBatch(1000, token, node, now, now.plusMinutes(1));
+    }
+
     private void await(CountDownLatch latch) {
         try {
             latch.await();
@@ -1,33 +1,42 @@
 package io.github.lunasaw.voglander.service.image;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.Set;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.TreeSet;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.github.lunasaw.voglander.client.service.image.ImageStorageService;
 import io.github.lunasaw.voglander.intergration.wrapper.image.config.ImageProperties;
-import io.github.lunasaw.voglander.manager.domaon.dto.image.ImageAssetDTO;
 import io.github.lunasaw.voglander.manager.manager.ImageAssetManager;
 
 class ImageStorageReconciliationServiceTest {
+
+    @TempDir
+    Path temp;
+
     @Test
     void reconcile_shouldReportStagingUnregisteredAndMissingWithoutDeletingByDefault() throws Exception {
         ImageStorageService storage = org.mockito.Mockito.mock(ImageStorageService.class);
         ImageAssetManager assets = org.mockito.Mockito.mock(ImageAssetManager.class);
-        ImageProperties properties = new ImageProperties();
-        ImageAssetDTO registered = new ImageAssetDTO(); registered.setAssetId("img_1"); registered.setStorageKey("images/1.jpg");
-        com.baomidou.mybatisplus.extension.plugins.pagination.Page<ImageAssetDTO> page =
-            new com.baomidou.mybatisplus.extension.plugins.pagination.Page<>(1, 1000, 1);
-        page.setRecords(java.util.List.of(registered));
-        when(assets.getPage(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.eq(1L), org.mockito.ArgumentMatchers.eq(1000L)))
-            .thenReturn(page);
+        ImageProperties properties = properties();
+        registered(assets, "images/1.jpg");
+        stored(storage, "images/orphan.jpg");
         when(storage.sweepStaging(properties.getStorage().getStagingTtl())).thenReturn(2);
-        when(storage.listFinalKeys()).thenReturn(Set.of("images/1.jpg", "images/orphan.jpg"));
         when(storage.exists("images/1.jpg")).thenReturn(false);
 
         ImageStorageReconciliationReport report = new ImageStorageReconciliationService(storage, assets, properties).reconcile();
@@ -35,6 +44,89 @@ class ImageStorageReconciliationServiceTest {
         assertEquals(2, report.expiredStaging());
         assertEquals(1, report.unregisteredObjects());
         assertEquals(1, report.missingAssets());
+        assertEquals(2, report.scannedKeys());
+        assertTrue(report.complete());
         verify(storage, never()).delete("images/orphan.jpg");
     }
+
+    @Test
+    void reconcile_shouldMergeAcrossKeysetPagesAndRecheckBeforeDeleting() throws Exception {
+        ImageStorageService storage = org.mockito.Mockito.mock(ImageStorageService.class);
+        ImageAssetManager assets = org.mockito.Mockito.mock(ImageAssetManager.class);
+        ImageProperties properties = properties();
+        properties.getStorage().setReconciliationBatchSize(2);
+        properties.getStorage().setReconciliationReportOnly(false);
+        registered(assets, "images/a.jpg", "images/b.jpg", "images/c.jpg", "images/e.jpg", "images/g.jpg");
+        stored(storage, "images/a.jpg", "images/b.jpg", "images/d.jpg", "images/e.jpg", "images/f.jpg", "images/g.jpg");
+        when(storage.exists("images/c.jpg")).thenReturn(true);
+        // f was registered by an ingest after the cursor passed it
+        when(assets.isRegisteredStorageKey("images/f.jpg")).thenReturn(true);
+
+        ImageStorageReconciliationReport report = new ImageStorageReconciliationService(storage, assets, properties).reconcile();
+
+        assertEquals(1, report.unregisteredObjects());
+        assertEquals(0, report.missingAssets());
+        assertEquals(7, report.scannedKeys());
+        verify(storage).delete("images/d.jpg");
+        verify(storage, never()).delete("images/f.jpg");
+        verify(storage, never()).exists("images/a.jpg");
+        verify(assets, times(3)).listRegisteredStorageKeys(nullable(String.class), anyInt());
+    }
+
+    @Test
+    void reconcile_shouldCheckpointBoundedSlicesAndResumeWithoutSweepingAgain() throws Exception {
+        ImageStorageService storage = org.mockito.Mockito.mock(ImageStorageService.class);
+        ImageAssetManager assets = org.mockito.Mockito.mock(ImageAssetManager.class);
+        ImageProperties properties = properties();
+        properties.getStorage().setReconciliationMaxKeysPerRun(2);
+        registered(assets, "images/a.jpg", "images/b.jpg", "images/c.jpg");
+        stored(storage, "images/a.jpg", "images/b.jpg", "images/c.jpg", "images/d.jpg");
+        when(storage.sweepStaging(any())).thenReturn(1);
+        Path checkpoint = Path.of(properties.getStorage().getReconciliationCheckpoint());
+        ImageStorageReconciliationService service = new ImageStorageReconciliationService(storage, assets, properties);
+
+        ImageStorageReconciliationReport first = service.reconcile();
+
+        assertFalse(first.complete());
+        assertEquals(2, first.scannedKeys());
+        assertTrue(Files.exists(checkpoint));
+        verify(storage).iterateFinalKeys(null);
+
+        ImageStorageReconciliationReport second = service.reconcile();
+
+        assertTrue(second.complete());
+        assertEquals(4, second.scannedKeys());
+        assertEquals(1, second.expiredStaging());
+        assertEquals(1, second.unregisteredObjects());
+        assertFalse(Files.exists(checkpoint));
+        verify(storage).iterateFinalKeys("images/b.jpg");
+        verify(storage, times(1)).sweepStaging(any());
+    }
+
+    private ImageProperties properties() {
+        ImageProperties properties = new ImageProperties();
+        properties.getStorage().setLocalRoot(temp.toString());
+        properties.getStorage().setReconciliationCheckpoint(temp.resolve("reconcile.checkpoint").toString());
+        properties.getStorage().setReconciliationIoPerSecond(0);
+        return properties;
+    }
+
+    /** Emulates the keyset query: keys strictly after the cursor, in order, one page at a time. */
+    private static void registered(ImageAssetManager assets, String... keys) {
+        TreeSet<String> sorted = new TreeSet<>(List.of(keys));
+        when(assets.listRegisteredStorageKeys(nullable(String.class), anyInt())).thenAnswer(invocation -> {
+            String after = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return (after == null ? sorted : sorted.tailSet(after, false)).stream().limit(limit).toList();
+        });
+        when(assets.isRegisteredStorageKey(anyString())).thenAnswer(invocation -> sorted.contains(invocation.getArgument(0)));
+    }
+
+    private static void stored(ImageStorageService storage, String... keys) throws Exception {
+        TreeSet<String> sorted = new TreeSet<>(List.of(keys));
+        when(storage.iterateFinalKeys(nullable(String.class))).thenAnswer(invocation -> {
+            String after = invocation.getArgument(0);
+            return (after == null ? sorted : sorted.tailSet(after, false)).iterator();
+        });
+    }
 }
@@ -9,6 +9,7 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -138,6 +139,34 @@ class ImageThumbnailResourceLimitTest {
         assertTrue(maximum.get() <= 2);
     }
 
+    @Test
+    void concurrentMissesForSameEtagShareOneTransform() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ImageThumbnailTransformer transformer = blockingTransformer(entered, release, null, null);
+        ImageThumbnailService service = service(transformer, properties(1, 1, 5_000));
+        ExecutorService caller = callers(20);
+        List<Future<ImageThumbnailResult>> results = new ArrayList<>();
+        results.add(caller.submit(() -> service.get("img-tile", "table", null)));
+        assertTrue(entered.await(2, TimeUnit.SECONDS));
+        for (int i = 1; i < 20; i++) {
+            results.add(caller.submit(() -> service.get("img-tile", "table", null)));
+        }
+        await().atMost(Duration.ofSeconds(2)).until(() -> meterRegistry.find("image_thumbnail_coalesced_total")
+            .counter() != null && meterRegistry.get("image_thumbnail_coalesced_total").counter().count() == 19.0);
+
+        release.countDown();
+        for (Future<ImageThumbnailResult> result : results) {
+            assertEquals(3, result.get(2, TimeUnit.SECONDS).getContentLength());
+        }
+        verify(transformer, times(1)).transform(any(), any(), anyLong(), anyLong(), anyLong());
+        assertEquals(0, executor(service).getQueue().size());
+        assertEquals(19.0, meterRegistry.get("image_thumbnail_requests_total")
+            .tags("profile", "table", "outcome", "COALESCED", "stable_error_code", "NONE").counter().count());
+        await().atMost(Duration.ofSeconds(2))
+            .until(() -> meterRegistry.get("image_thumbnail_inflight").gauge().value() == 0.0);
+    }
+
     @Test
     void impossibleSourceDimensionsAreRejectedBeforeStorageOrDecode() throws Exception {
         ImageAssetReadService readService = readService();
@@ -1,6 +1,9 @@
 package io.github.lunasaw.voglander.service.image;
 
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -10,15 +13,19 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.time.Duration;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.github.lunasaw.voglander.client.domain.image.ImageContent;
 import io.github.lunasaw.voglander.common.enums.image.ThumbnailProfile;
 import io.github.lunasaw.voglander.common.exception.ServiceException;
 import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
 import io.github.lunasaw.voglander.intergration.wrapper.image.config.ImageProperties;
+import io.github.lunasaw.voglander.intergration.wrapper.image.storage.ThumbnailDiskStore;
 import io.github.lunasaw.voglander.manager.domaon.dto.image.ImageAssetDTO;
 
 class ImageThumbnailServiceTest {
@@ -84,6 +91,71 @@ class ImageThumbnailServiceTest {
         assertEquals(ServiceExceptionEnum.IMAGE_THUMBNAIL_UNAVAILABLE.getCode(), error.getCode());
     }
 
+    @Test
+    void generatedThumbnailSurvivesRestartThroughDiskTier(@TempDir Path root) throws Exception {
+        ImageAssetReadService readService = mock(ImageAssetReadService.class);
+        ImageThumbnailTransformer transformer = mock(ImageThumbnailTransformer.class);
+        ImageAssetDTO asset = availableAsset();
+        when(readService.requireReadable("img_1")).thenReturn(asset);
+        when(readService.open(asset)).thenAnswer(
+            invocation -> new ImageContent(new ByteArrayInputStream(new byte[] {1}), 1));
+        when(transformer.transform(any(), any(), any(Long.class), any(Long.class), any(Long.class)))
+            .thenReturn(new byte[] {9, 8, 7});
+        ImageProperties properties = properties();
+        String etag = ImageThumbnailService.deriveEtag(asset.getChecksum(), ThumbnailProfile.TABLE,
+            properties.getThumbnail().getAlgorithmVersion());
+        service = new ImageThumbnailService(readService, transformer, properties, null,
+            new ThumbnailDiskStore(root, 16L * 1024 * 1024));
+        ThumbnailDiskStore before = new ThumbnailDiskStore(root, 16L * 1024 * 1024);
+
+        service.get("img_1", "table", null);
+        await().atMost(Duration.ofSeconds(2)).until(() -> before.find(etag) != null);
+        service.close();
+        service = new ImageThumbnailService(readService, transformer, properties, null,
+            new ThumbnailDiskStore(root, 16L * 1024 * 1024));
+        ImageThumbnailResult restarted = service.get("img_1", "table", null);
+
+        assertNotNull(restarted.getFile());
+        assertEquals(3L, restarted.getContentLength());
+        assertArrayEquals(new byte[] {9, 8, 7}, restarted.getContent());
+        verify(transformer, org.mockito.Mockito.times(1))
+            .transform(any(), any(), any(Long.class), any(Long.class), any(Long.class));
+    }
+
+    @Test
+    void pregenerateFillsDiskTierForEveryProfileWithoutWarmingMemory(@TempDir Path root) throws Exception {
+        ImageAssetReadService readService = mock(ImageAssetReadService.class);
+        ImageThumbnailTransformer transformer = mock(ImageThumbnailTransformer.class);
+        ImageAssetDTO asset = availableAsset();
+        when(readService.requireReadable("img_1")).thenReturn(asset);
+        when(readService.open(asset)).thenAnswer(
+            invocation -> new ImageContent(new ByteArrayInputStream(new byte[] {1}), 1));
+        when(transformer.transform(any(), any(), any(Long.class), any(Long.class), any(Long.class)))
+            .thenReturn(new byte[] {4, 5});
+        ImageProperties properties = properties();
+        properties.getThumbnail().setQueueCapacity(8);
+        ThumbnailDiskStore disk = new ThumbnailDiskStore(root, 16L * 1024 * 1024);
+        service = new ImageThumbnailService(readService, transformer, properties, null, disk);
+
+        assertEquals(ThumbnailProfile.values().length, service.pregenerate(asset));
+        await().atMost(Duration.ofSeconds(2)).until(() -> disk.entries() == ThumbnailProfile.values().length);
+        ImageThumbnailResult gallery = service.get("img_1", "gallery", null);
+
+        assertNotNull(gallery.getFile());
+        assertEquals(0, service.pregenerate(asset));
+        verify(transformer, org.mockito.Mockito.times(ThumbnailProfile.values().length))
+            .transform(any(), any(), any(Long.class), any(Long.class), any(Long.class));
+    }
+
+    @Test
+    void pregenerateIsNoOpWithoutDiskTier() {
+        ImageAssetReadService readService = mock(ImageAssetReadService.class);
+        service = new ImageThumbnailService(readService, mock(ImageThumbnailTransformer.class), properties());
+
+        assertEquals(0, service.pregenerate(availableAsset()));
+        verify(readService, never()).open(any());
+    }
+
     private ImageProperties properties() {
         ImageProperties properties = new ImageProperties();
         properties.getThumbnail().setWorkerCount(1);
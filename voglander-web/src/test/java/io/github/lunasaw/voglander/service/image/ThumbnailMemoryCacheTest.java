@@ -1,7 +1,20 @@
 package io.github.lunasaw.voglander.service.image;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
@@ -12,12 +25,13 @@ class ThumbnailMemoryCacheTest {
         ThumbnailMemoryCache cache = new ThumbnailMemoryCache(5, 2, 300);
         cache.put("a", new byte[] {1, 2});
         cache.put("b", new byte[] {3, 4});
-        assertArrayEquals(new byte[] {1, 2}, cache.get("a"));
+        assertArrayEquals(new byte[] {1, 2}, bytes(cache.get("a")));
         cache.put("c", new byte[] {5, 6});
 
         assertNull(cache.get("b"));
-        assertArrayEquals(new byte[] {1, 2}, cache.get("a"));
-        assertArrayEquals(new byte[] {5, 6}, cache.get("c"));
+        assertArrayEquals(new byte[] {1, 2}, bytes(cache.get("a")));
+        assertArrayEquals(new byte[] {5, 6}, bytes(cache.get("c")));
+        assertEquals(1L, cache.evictions());
     }
 
     @Test
@@ -26,4 +40,64 @@ class ThumbnailMemoryCacheTest {
         cache.put("large", new byte[] {1, 2, 3});
         assertNull(cache.get("large"));
     }
+
+    @Test
+    void budgetsAreSharedAcrossShards() {
+        ThumbnailMemoryCache cache = new ThumbnailMemoryCache(1_000, 1_024, 300);
+        cache.put("large", new byte[900]);
+        assertTrue(cache.get("large") != null);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("k" + i, new byte[100]);
+        }
+        assertEquals(1_000L, cache.bytes());
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    void readsShareTheCachedArrayThroughIndependentReadOnlyViews() {
+        ThumbnailMemoryCache cache = new ThumbnailMemoryCache(1024, 4, 300);
+        cache.put("a", new byte[] {1, 2, 3});
+
+        ByteBuffer first = cache.get("a");
+        first.get();
+        ByteBuffer second = cache.get("a");
+
+        assertTrue(first.isReadOnly());
+        assertThrows(ReadOnlyBufferException.class, () -> second.put(0, (byte)9));
+        assertEquals(2, first.remaining());
+        assertEquals(3, second.remaining());
+    }
+
+    @Test
+    void concurrentReadersAndWritersStayWithinBounds() throws Exception {
+        long maxBytes = 256L * 1024;
+        ThumbnailMemoryCache cache = new ThumbnailMemoryCache(maxBytes, 512, 300);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                final Random random = new Random(t);
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        String key = "k" + random.nextInt(1_000);
+                        if (cache.get(key) == null) cache.put(key, new byte[1 + random.nextInt(2_048)]);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) worker.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(cache.size() <= 512);
+        assertTrue(cache.bytes() <= maxBytes);
+        assertTrue(cache.evictions() > 0);
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] copy = new byte[buffer.remaining()];
+        buffer.duplicate().get(copy);
+        return copy;
+    }
 }
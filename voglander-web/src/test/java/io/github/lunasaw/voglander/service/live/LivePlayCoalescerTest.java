@@ -0,0 +1,177 @@
+package io.github.lunasaw.voglander.service.live;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.github.lunasaw.voglander.common.constant.media.MediaSessionConstant;
+import io.github.lunasaw.voglander.common.exception.ServiceException;
+import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * LivePlayCoalescer 单元测试：本节点并发点播共享一次建流、leader 失败透传、跨节点广播唤醒与指标。
+ *
+ * @author luna
+ */
+@DisplayName("直播首播合并测试")
+class LivePlayCoalescerTest {
+
+    private static final String     STREAM_ID = "gb_live_dev1_ch1";
+
+    private final SimpleMeterRegistry registry  = new SimpleMeterRegistry();
+
+    private final LivePlayCoalescer coalescer = new LivePlayCoalescer();
+
+    private final ExecutorService   pool      = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("同流并发点播只有一个 leader 建流，其余共享同一会话")
+    void concurrent_joins_share_one_establish() throws Exception {
+        AtomicInteger establishes = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LiveSessionInfo>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                CompletableFuture<LiveSessionInfo> flight = new CompletableFuture<>();
+                CompletableFuture<LiveSessionInfo> leading = coalescer.join(STREAM_ID, flight);
+                if (leading != null) {
+                    return coalescer.awaitLocal(leading, 5000);
+                }
+                establishes.incrementAndGet();
+                // 模拟 INVITE 建流耗时，让其余请求都落在在途窗口内
+                Thread.sleep(200);
+                LiveSessionInfo info = activeInfo();
+                coalescer.finish(STREAM_ID, flight, info, null, true);
+                return info;
+            }));
+        }
+        start.countDown();
+
+        LiveSessionInfo first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<LiveSessionInfo> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, establishes.get());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    @DisplayName("leader 建流失败时跟随者收到同一异常，之后的点播重新成为 leader")
+    void leader_failure_propagates_to_followers() {
+        CompletableFuture<LiveSessionInfo> leaderFlight = new CompletableFuture<>();
+        assertNull(coalescer.join(STREAM_ID, leaderFlight));
+        CompletableFuture<LiveSessionInfo> leading = coalescer.join(STREAM_ID, new CompletableFuture<>());
+        assertSame(leaderFlight, leading);
+
+        ServiceException failure = new ServiceException(ServiceExceptionEnum.LIVE_NODE_UNAVAILABLE);
+        coalescer.finish(STREAM_ID, leaderFlight, null, failure, true);
+
+        ServiceException thrown = assertThrows(ServiceException.class, () -> coalescer.awaitLocal(leading, 1000));
+        assertSame(failure, thrown);
+        assertNull(coalescer.join(STREAM_ID, new CompletableFuture<>()), "失败后在途记录应已清除");
+    }
+
+    @Test
+    @DisplayName("只有持锁建流的 leader 收尾时广播，复用等本地收尾不发 PUBLISH")
+    void finish_publishes_only_for_cross_node_flights() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ReflectionTestUtils.setField(coalescer, "stringRedisTemplate", redis);
+
+        CompletableFuture<LiveSessionInfo> reused = new CompletableFuture<>();
+        assertNull(coalescer.join(STREAM_ID, reused));
+        coalescer.finish(STREAM_ID, reused, activeInfo(), null, false);
+        assertTrue(reused.isDone());
+        verify(redis, never()).convertAndSend(anyString(), anyString());
+
+        CompletableFuture<LiveSessionInfo> invited = new CompletableFuture<>();
+        assertNull(coalescer.join(STREAM_ID, invited));
+        coalescer.finish(STREAM_ID, invited, activeInfo(), null, true);
+        verify(redis).convertAndSend("live:play:done", STREAM_ID);
+    }
+
+    @Test
+    @DisplayName("跟随者等待超时抛 LIVE_INVITE_TIMEOUT")
+    void await_local_timeout() {
+        ServiceException thrown = assertThrows(ServiceException.class,
+            () -> coalescer.awaitLocal(new CompletableFuture<>(), 50));
+        assertEquals(ServiceExceptionEnum.LIVE_INVITE_TIMEOUT.getCode(), thrown.getCode());
+    }
+
+    @Test
+    @DisplayName("抢锁失败的节点被 leader 收尾广播唤醒，而不是轮询锁")
+    void remote_waiter_wakes_on_done_broadcast() throws Exception {
+        AtomicBoolean ready = new AtomicBoolean(false);
+        CountDownLatch waiting = new CountDownLatch(1);
+        Future<Boolean> waiter = pool.submit(() -> coalescer.awaitRemote(STREAM_ID, 5000, () -> {
+            waiting.countDown();
+            return ready.get();
+        }));
+        assertTrue(waiting.await(1, TimeUnit.SECONDS));
+
+        long begin = System.nanoTime();
+        ready.set(true);
+        coalescer.onRemoteDone(STREAM_ID);
+
+        assertTrue(waiter.get(1, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) < 1000);
+    }
+
+    @Test
+    @DisplayName("会话已就绪时不等待广播直接返回")
+    void remote_waiter_returns_immediately_when_ready() {
+        assertTrue(coalescer.awaitRemote(STREAM_ID, 5000, () -> true));
+        assertFalse(coalescer.awaitRemote(STREAM_ID, 20, () -> false));
+    }
+
+    @Test
+    @DisplayName("按建流路径记录点播结果与首帧耗时")
+    void record_metrics_by_path() {
+        ReflectionTestUtils.setField(coalescer, "meterRegistry", registry);
+        long start = System.nanoTime();
+        coalescer.record(LivePlayCoalescer.PATH_FRESH_INVITE, start, true);
+        coalescer.record(LivePlayCoalescer.PATH_LOCAL_JOIN, start, true);
+        coalescer.record(LivePlayCoalescer.PATH_LOCAL_JOIN, start, true);
+        coalescer.record(LivePlayCoalescer.PATH_REMOTE_JOIN, start, false);
+
+        assertEquals(2.0, registry.get("voglander.live.play.start")
+            .tags("path", "local_join", "result", "success").counter().count());
+        assertEquals(1.0, registry.get("voglander.live.play.start")
+            .tags("path", "remote_join", "result", "failure").counter().count());
+        assertEquals(1L, registry.get("voglander.live.play.ttff").tag("path", "fresh_invite").timer().count());
+        assertTrue(registry.find("voglander.live.play.ttff").tag("path", "remote_join").timers().isEmpty(),
+            "失败的点播不计入首帧耗时");
+    }
+
+    private static LiveSessionInfo activeInfo() {
+        LiveSessionInfo info = new LiveSessionInfo();
+        info.setNodeServerId("zlm-1");
+        info.setStatus(MediaSessionConstant.Status.ACTIVE);
+        return info;
+    }
+}
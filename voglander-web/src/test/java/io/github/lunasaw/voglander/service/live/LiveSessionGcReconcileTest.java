@@ -6,13 +6,19 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +26,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import io.github.lunasaw.voglander.common.constant.media.MediaSessionConstant;
 import io.github.lunasaw.voglander.manager.domaon.dto.MediaSessionDTO;
@@ -28,14 +35,16 @@ import io.github.lunasaw.voglander.repository.cache.redis.RedisLockUtil;
 import io.github.lunasaw.zlm.api.ZlmRestService;
 import io.github.lunasaw.zlm.config.ZlmNode;
 import io.github.lunasaw.zlm.entity.MediaOnlineStatus;
+import io.github.lunasaw.zlm.entity.ServerResponse;
+import io.github.lunasaw.zlm.entity.req.MediaReq;
 import io.github.lunasaw.zlm.node.service.NodeService;
 
 /**
- * S2 红线：GC 以 ZLM {@code isMediaOnline} 为准对账 ACTIVE 会话。
+ * S2 红线：GC 以 ZLM 媒体列表为准对账 ACTIVE 会话，列表查无的再经 {@code isMediaOnline} 复核。
  * <ul>
- * <li>ZLM 查无（online=false）→ 委托 {@code closeStream} 幂等收尾。</li>
- * <li>ZLM 在线（online=true）→ 不动。</li>
- * <li>查询异常 → 保守保留，不误杀。</li>
+ * <li>列表查无且复核 online=false → 委托 {@code closeStream} 幂等收尾。</li>
+ * <li>列表中存在或复核在线 → 不动；同一节点只拉一次列表。</li>
+ * <li>拉列表/复核异常、慢节点超时 → 保守保留，不误杀，不拖慢其它节点。</li>
  * <li>宽限期内（createTime 太近）→ 跳过对账。</li>
  * <li>多节点：拿不到分布式锁 → 整轮跳过。</li>
  * </ul>
@@ -66,6 +75,12 @@ class LiveSessionGcReconcileTest {
     @InjectMocks
     private LiveSessionGcService gcService;
 
+    @BeforeEach
+    void setUp() {
+        // 静态 mock 只对当前线程生效，单测在调度线程同步拉取
+        ReflectionTestUtils.setField(gcService, "reconcileParallelism", 0);
+    }
+
     private MediaSessionDTO activeSession() {
         MediaSessionDTO dto = new MediaSessionDTO();
         dto.setId(42L);
@@ -91,6 +106,18 @@ class LiveSessionGcReconcileTest {
         return st;
     }
 
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private ServerResponse mediaList(String... streams) {
+        List<Map<String, String>> data = new ArrayList<>();
+        for (String stream : streams) {
+            data.add(Map.of("app", "rtp", "vhost", "__defaultVhost__", "stream", stream));
+        }
+        ServerResponse resp = new ServerResponse();
+        resp.setCode(0);
+        resp.setData(data);
+        return resp;
+    }
+
     private void lockAcquired() {
         when(redisLockUtil.generateLockValue()).thenReturn("v1");
         when(redisLockUtil.lock(eq(LOCK_KEY), eq("v1"), anyInt())).thenReturn(true);
@@ -107,13 +134,15 @@ class LiveSessionGcReconcileTest {
     }
 
     @Test
-    @DisplayName("ZLM 查无(online=false) → 委托 closeStream(streamId)")
+    @DisplayName("媒体列表查无且复核 online=false → 委托 closeStream(streamId)")
     void reconcile_streamDead_closesStream() {
         lockAcquired();
         when(mediaSessionManager.getActiveSessions()).thenReturn(List.of(activeSession()));
         when(nodeService.getAvailableNode(SERVER_ID)).thenReturn(node());
 
         try (MockedStatic<ZlmRestService> zlm = mockStatic(ZlmRestService.class)) {
+            zlm.when(() -> ZlmRestService.getMediaList(any(), any(), any(MediaReq.class)))
+                .thenReturn(mediaList());
             zlm.when(() -> ZlmRestService.isMediaOnline(any(), any(), any(Map.class)))
                 .thenReturn(online(false));
 
@@ -125,58 +154,210 @@ class LiveSessionGcReconcileTest {
     }
 
     @Test
-    @DisplayName("ZLM 在线(online=true) → 不关流")
+    @DisplayName("媒体列表中存在 → 不复核、不关流")
     void reconcile_streamAlive_keepsStream() {
         lockAcquired();
         when(mediaSessionManager.getActiveSessions()).thenReturn(List.of(activeSession()));
         when(nodeService.getAvailableNode(SERVER_ID)).thenReturn(node());
+
+        try (MockedStatic<ZlmRestService> zlm = mockStatic(ZlmRestService.class)) {
+            zlm.when(() -> ZlmRestService.getMediaList(eq("http://10.0.0.5:9092"), eq("sec"), any(MediaReq.class)))
+                .thenReturn(mediaList(STREAM_ID, STREAM_ID));
+
+            gcService.reconcileActiveSessions();
+            zlm.verify(() -> ZlmRestService.isMediaOnline(any(), any(), any(Map.class)), never());
+        }
+
+        verify(mediaPlayService, never()).closeStream(any());
+    }
+
+    @Test
+    @DisplayName("同一节点多路会话只拉一次媒体列表，仅收尾列表中查无的流")
+    void reconcile_groupsByNode_singleListCall() {
+        lockAcquired();
+        MediaSessionDTO alive = activeSession();
+        MediaSessionDTO dead = activeSession();
+        dead.setStreamId("gb_live_dev2_ch1");
+        when(mediaSessionManager.getActiveSessions()).thenReturn(List.of(alive, dead));
+        when(nodeService.getAvailableNode(SERVER_ID)).thenReturn(node());
+
+        try (MockedStatic<ZlmRestService> zlm = mockStatic(ZlmRestService.class)) {
+            zlm.when(() -> ZlmRestService.getMediaList(any(), any(), any(MediaReq.class)))
+                .thenReturn(mediaList(STREAM_ID));
+            zlm.when(() -> ZlmRestService.isMediaOnline(any(), any(), any(Map.class)))
+                .thenReturn(online(false));
+
+            gcService.reconcileActiveSessions();
+            zlm.verify(() -> ZlmRestService.getMediaList(any(), any(), any(MediaReq.class)), times(1));
+            zlm.verify(() -> ZlmRestService.isMediaOnline(any(), any(), any(Map.class)), times(1));
+        }
+
+        verify(nodeService, times(1)).getAvailableNode(SERVER_ID);
+        verify(mediaPlayService).closeStream("gb_live_dev2_ch1");
+        verify(mediaPlayService, never()).closeStream(STREAM_ID);
+    }
+
+    @Test
+    @DisplayName("复核时流已在线(列表拉取后新推流) → 不关流")
+    void reconcile_candidateConfirmedAlive_keepsStream() {
+        lockAcquired();
+        when(mediaSessionManager.getActiveSessions()).thenReturn(List.of(activeSession()));
+        when(nodeService.getAvailableNode(SERVER_ID)).thenReturn(node());
         Map<String, String> params = gcService.buildMediaOnlineParams(STREAM_ID);
 
         try (MockedStatic<ZlmRestService> zlm = mockStatic(ZlmRestService.class)) {
+            zlm.when(() -> ZlmRestService.getMediaList(any(), any(), any(MediaReq.class)))
+                .thenReturn(mediaList());
             zlm.when(() -> ZlmRestService.isMediaOnline("http://10.0.0.5:9092", "sec", params))
                 .thenReturn(online(true));
 
             gcService.reconcileActiveSessions();
-            zlm.verify(() -> ZlmRestService.isMediaOnline("http://10.0.0.5:9092", "sec", params));
         }
 
         verify(mediaPlayService, never()).closeStream(any());
     }
 
     @Test
-    @DisplayName("判活异常 → 保守保留，不误杀")
-    void reconcile_queryThrows_keepsConservatively() {
+    @DisplayName("拉取媒体列表异常或 code 非 0 → 保守跳过该节点，不复核、不误杀")
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void reconcile_listFails_keepsConservatively() {
         lockAcquired();
         when(mediaSessionManager.getActiveSessions()).thenReturn(List.of(activeSession()));
         when(nodeService.getAvailableNode(SERVER_ID)).thenReturn(node());
+        ServerResponse failed = new ServerResponse();
+        failed.setCode(-1);
 
         try (MockedStatic<ZlmRestService> zlm = mockStatic(ZlmRestService.class)) {
-            zlm.when(() -> ZlmRestService.isMediaOnline(any(), any(), any(Map.class)))
-                .thenThrow(new RuntimeException("network jitter"));
+            zlm.when(() -> ZlmRestService.getMediaList(any(), any(), any(MediaReq.class)))
+                .thenThrow(new RuntimeException("network jitter"))
+                .thenReturn(failed);
 
             gcService.reconcileActiveSessions();
+            gcService.reconcileActiveSessions();
+            zlm.verify(() -> ZlmRestService.isMediaOnline(any(), any(), any(Map.class)), never());
         }
 
         verify(mediaPlayService, never()).closeStream(any());
     }
 
     @Test
-    @DisplayName("ZLM 异常响应(online 缺失) → 视为探活失败并保守保留")
-    void reconcile_invalidResponse_keepsConservatively() {
+    @DisplayName("复核异常或响应缺 online 字段 → 保守保留")
+    void reconcile_confirmFails_keepsConservatively() {
         lockAcquired();
         when(mediaSessionManager.getActiveSessions()).thenReturn(List.of(activeSession()));
         when(nodeService.getAvailableNode(SERVER_ID)).thenReturn(node());
 
         try (MockedStatic<ZlmRestService> zlm = mockStatic(ZlmRestService.class)) {
+            zlm.when(() -> ZlmRestService.getMediaList(any(), any(), any(MediaReq.class)))
+                .thenReturn(mediaList());
             zlm.when(() -> ZlmRestService.isMediaOnline(any(), any(), any(Map.class)))
+                .thenThrow(new RuntimeException("network jitter"))
                 .thenReturn(online(null));
 
             gcService.reconcileActiveSessions();
+            gcService.reconcileActiveSessions();
         }
 
         verify(mediaPlayService, never()).closeStream(any());
     }
 
+    @Test
+    @DisplayName("节点并行拉取：慢节点超时跳过，不影响其它节点对账")
+    void reconcile_slowNodeTimesOut_otherNodesProceed() {
+        CountDownLatch release = new CountDownLatch(1);
+        LiveSessionGcService gc = new LiveSessionGcService() {
+            @Override
+            Set<String> fetchNodeStreams(ZlmNode node) {
+                if ("zlm-slow".equals(node.getServerId())) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return Set.of();
+            }
+        };
+        ReflectionTestUtils.setField(gc, "mediaSessionManager", mediaSessionManager);
+        ReflectionTestUtils.setField(gc, "mediaPlayService", mediaPlayService);
+        ReflectionTestUtils.setField(gc, "nodeService", nodeService);
+        ReflectionTestUtils.setField(gc, "redisLockUtil", redisLockUtil);
+        ReflectionTestUtils.setField(gc, "nodeTimeoutMs", 200L);
+        ReflectionTestUtils.setField(gc, "reconcileParallelism", 2);
+
+        lockAcquired();
+        MediaSessionDTO slow = activeSession();
+        slow.setStreamId("gb_live_slow_ch1");
+        slow.setNodeServerId("zlm-slow");
+        when(mediaSessionManager.getActiveSessions()).thenReturn(List.of(slow, activeSession()));
+        ZlmNode slowNode = node();
+        slowNode.setServerId("zlm-slow");
+        when(nodeService.getAvailableNode("zlm-slow")).thenReturn(slowNode);
+        when(nodeService.getAvailableNode(SERVER_ID)).thenReturn(node());
+
+        try (MockedStatic<ZlmRestService> zlm = mockStatic(ZlmRestService.class)) {
+            // 复核在调度线程执行，静态 mock 生效
+            zlm.when(() -> ZlmRestService.isMediaOnline(any(), any(), any(Map.class)))
+                .thenReturn(online(false));
+
+            long start = System.nanoTime();
+            gc.reconcileActiveSessions();
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000L);
+        } finally {
+            release.countDown();
+            gc.shutdown();
+        }
+
+        verify(mediaPlayService).closeStream(STREAM_ID);
+        verify(mediaPlayService, never()).closeStream("gb_live_slow_ch1");
+        verify(redisLockUtil).unLock(LOCK_KEY, "v1");
+    }
+
+    @Test
+    @DisplayName("节点数超过并行度：排队等线程的节点从开始执行时计超时，不因排队被判超时")
+    void reconcile_queuedNodeTimeoutStartsWhenRun() {
+        LiveSessionGcService gc = new LiveSessionGcService() {
+            @Override
+            Set<String> fetchNodeStreams(ZlmNode node) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Set.of();
+            }
+        };
+        ReflectionTestUtils.setField(gc, "mediaSessionManager", mediaSessionManager);
+        ReflectionTestUtils.setField(gc, "mediaPlayService", mediaPlayService);
+        ReflectionTestUtils.setField(gc, "nodeService", nodeService);
+        ReflectionTestUtils.setField(gc, "redisLockUtil", redisLockUtil);
+        ReflectionTestUtils.setField(gc, "nodeTimeoutMs", 350L);
+        ReflectionTestUtils.setField(gc, "reconcileParallelism", 1);
+
+        lockAcquired();
+        MediaSessionDTO queued = activeSession();
+        queued.setStreamId("gb_live_queued_ch1");
+        queued.setNodeServerId("zlm-2");
+        when(mediaSessionManager.getActiveSessions()).thenReturn(List.of(activeSession(), queued));
+        ZlmNode second = node();
+        second.setServerId("zlm-2");
+        when(nodeService.getAvailableNode(SERVER_ID)).thenReturn(node());
+        when(nodeService.getAvailableNode("zlm-2")).thenReturn(second);
+
+        try (MockedStatic<ZlmRestService> zlm = mockStatic(ZlmRestService.class)) {
+            zlm.when(() -> ZlmRestService.isMediaOnline(any(), any(), any(Map.class)))
+                .thenReturn(online(false));
+
+            gc.reconcileActiveSessions();
+        } finally {
+            gc.shutdown();
+        }
+
+        // 单线程串行：第二个节点排队约 200ms 后才开始，按提交时计时会在 350ms 处被误判超时
+        verify(mediaPlayService).closeStream(STREAM_ID);
+        verify(mediaPlayService).closeStream("gb_live_queued_ch1");
+    }
+
     @Test
     @DisplayName("宽限期内(createTime 太近) → 跳过对账，不调 isMediaOnline / closeStream")
     void reconcile_withinGrace_skips() {
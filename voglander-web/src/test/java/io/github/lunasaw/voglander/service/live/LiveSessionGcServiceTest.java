@@ -1,11 +1,18 @@
 package io.github.lunasaw.voglander.service.live;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.Set;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,7 +20,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import io.github.lunasaw.voglander.manager.manager.MediaSessionManager;
 import io.github.lunasaw.voglander.service.sse.SseEventBus;
@@ -21,6 +28,9 @@ import io.github.lunasaw.voglander.service.sse.SseEventBus;
 /**
  * D5 红线：GC {@code drainPendingClose} 命中 refCount=0 时，必须委托编排层
  * {@link MediaPlayService#closeStream(String)} 真实关流，而非旧实现的仅 {@code registry.remove}+SSE。
+ * <p>
+ * 到期流来自 {@link LivePendingCloseIndex} 有序集合：分批认领、批量读引用计数，不再 {@code KEYS} 扫描。
+ * </p>
  *
  * @author luna
  */
@@ -28,43 +38,122 @@ import io.github.lunasaw.voglander.service.sse.SseEventBus;
 @ExtendWith(MockitoExtension.class)
 class LiveSessionGcServiceTest {
 
-    private static final String PREFIX    = "live:pending_close:";
     private static final String STREAM_ID = "gb_live_dev1_ch1";
 
     @Mock
-    private MediaSessionManager mediaSessionManager;
+    private MediaSessionManager   mediaSessionManager;
     @Mock
-    private LiveStreamRegistry  liveStreamRegistry;
+    private LiveStreamRegistry    liveStreamRegistry;
     @Mock
-    private SseEventBus         sseEventBus;
+    private SseEventBus           sseEventBus;
     @Mock
-    private StringRedisTemplate stringRedisTemplate;
+    private MediaPlayService      mediaPlayService;
     @Mock
-    private MediaPlayService    mediaPlayService;
+    private LivePendingCloseIndex livePendingCloseIndex;
 
     @InjectMocks
-    private LiveSessionGcService gcService;
+    private LiveSessionGcService  gcService;
 
     @Test
     @DisplayName("refCount=0 命中 → 委托 mediaPlayService.closeStream(streamId)")
     void drainPendingClose_refZero_delegatesToCloseStream() {
-        when(stringRedisTemplate.keys(PREFIX + "*")).thenReturn(Set.of(PREFIX + STREAM_ID));
-        when(liveStreamRegistry.getRef(STREAM_ID)).thenReturn(0L);
+        when(livePendingCloseIndex.claimDue(anyLong(), anyInt())).thenReturn(List.of(STREAM_ID));
+        when(liveStreamRegistry.getRefs(List.of(STREAM_ID))).thenReturn(Map.of(STREAM_ID, 0L));
 
         gcService.drainPendingClose();
 
         verify(mediaPlayService).closeStream(STREAM_ID);
+        verify(livePendingCloseIndex).recordDrain(anyLong());
     }
 
     @Test
-    @DisplayName("仍有观看者(refCount>0) → 不关流，仅取消 pending 标记")
+    @DisplayName("仍有观看者(refCount>0) → 不关流，认领即出索引（取消 pending）")
     void drainPendingClose_refPositive_cancelsPendingOnly() {
-        when(stringRedisTemplate.keys(PREFIX + "*")).thenReturn(Set.of(PREFIX + STREAM_ID));
-        when(liveStreamRegistry.getRef(STREAM_ID)).thenReturn(2L);
+        when(livePendingCloseIndex.claimDue(anyLong(), anyInt())).thenReturn(List.of(STREAM_ID));
+        when(liveStreamRegistry.getRefs(List.of(STREAM_ID))).thenReturn(Map.of(STREAM_ID, 2L));
 
         gcService.drainPendingClose();
 
         verify(mediaPlayService, never()).closeStream(STREAM_ID);
-        verify(stringRedisTemplate).delete(eq(PREFIX + STREAM_ID));
+        verify(livePendingCloseIndex, never()).mark(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("满批继续认领下一批，不足一批即停；每批只读一次引用计数")
+    void drainPendingClose_drainsInBoundedBatches() {
+        ReflectionTestUtils.setField(gcService, "pendingCloseBatchSize", 2);
+        ReflectionTestUtils.setField(gcService, "pendingCloseMaxBatches", 5);
+        List<String> first = List.of("s1", "s2");
+        List<String> second = List.of("s3");
+        when(livePendingCloseIndex.claimDue(anyLong(), eq(2))).thenReturn(first, second);
+        when(liveStreamRegistry.getRefs(first)).thenReturn(Map.of("s1", 0L, "s2", 1L));
+        when(liveStreamRegistry.getRefs(second)).thenReturn(Map.of("s3", 0L));
+
+        gcService.drainPendingClose();
+
+        verify(livePendingCloseIndex, times(2)).claimDue(anyLong(), eq(2));
+        verify(mediaPlayService).closeStream("s1");
+        verify(mediaPlayService, never()).closeStream("s2");
+        verify(mediaPlayService).closeStream("s3");
+    }
+
+    @Test
+    @DisplayName("单轮批数有上限，积压留给下一轮")
+    void drainPendingClose_stopsAtMaxBatches() {
+        ReflectionTestUtils.setField(gcService, "pendingCloseBatchSize", 1);
+        ReflectionTestUtils.setField(gcService, "pendingCloseMaxBatches", 3);
+        when(livePendingCloseIndex.claimDue(anyLong(), eq(1))).thenReturn(List.of(STREAM_ID));
+        when(liveStreamRegistry.getRefs(List.of(STREAM_ID))).thenReturn(Collections.emptyMap());
+
+        gcService.drainPendingClose();
+
+        verify(livePendingCloseIndex, times(3)).claimDue(anyLong(), eq(1));
+        verify(mediaPlayService, times(3)).closeStream(STREAM_ID);
+    }
+
+    @Test
+    @DisplayName("关流失败 → 放回索引稍后重试，不影响同批其他流")
+    void drainPendingClose_closeFailure_requeues() {
+        when(livePendingCloseIndex.claimDue(anyLong(), anyInt())).thenReturn(List.of("bad", STREAM_ID));
+        when(liveStreamRegistry.getRefs(List.of("bad", STREAM_ID))).thenReturn(Map.of("bad", 0L, STREAM_ID, 0L));
+        doThrow(new IllegalStateException("zlm down")).when(mediaPlayService).closeStream("bad");
+
+        gcService.drainPendingClose();
+
+        verify(livePendingCloseIndex).mark(eq("bad"), anyLong());
+        verify(mediaPlayService).closeStream(STREAM_ID);
+    }
+
+    @Test
+    @DisplayName("批量读引用计数失败 → 本批已认领的流全部放回索引")
+    void drainPendingClose_refsFailure_requeuesClaimedBatch() {
+        when(livePendingCloseIndex.claimDue(anyLong(), anyInt())).thenReturn(List.of("s1", STREAM_ID));
+        when(liveStreamRegistry.getRefs(List.of("s1", STREAM_ID))).thenThrow(new IllegalStateException("redis down"));
+
+        gcService.drainPendingClose();
+
+        verify(livePendingCloseIndex).mark(eq("s1"), anyLong());
+        verify(livePendingCloseIndex).mark(eq(STREAM_ID), anyLong());
+        verify(mediaPlayService, never()).closeStream(any());
+        verify(livePendingCloseIndex).recordDrain(anyLong());
+    }
+
+    @Test
+    @DisplayName("关流失败且放回也失败 → 同批未处理的流仍放回索引")
+    void drainPendingClose_uncheckedFailure_requeuesUnprocessed() {
+        when(livePendingCloseIndex.claimDue(anyLong(), anyInt())).thenReturn(List.of("s1", "bad", STREAM_ID));
+        when(liveStreamRegistry.getRefs(List.of("s1", "bad", STREAM_ID)))
+            .thenReturn(Map.of("s1", 0L, "bad", 0L, STREAM_ID, 0L));
+        doThrow(new IllegalStateException("zlm down")).when(mediaPlayService).closeStream("bad");
+        doThrow(new IllegalStateException("redis down")).doNothing().when(livePendingCloseIndex)
+            .mark(eq("bad"), anyLong());
+
+        gcService.drainPendingClose();
+
+        verify(mediaPlayService).closeStream("s1");
+        verify(mediaPlayService, never()).closeStream(STREAM_ID);
+        verify(livePendingCloseIndex, times(2)).mark(eq("bad"), anyLong());
+        verify(livePendingCloseIndex).mark(eq(STREAM_ID), anyLong());
+        verify(livePendingCloseIndex, never()).mark(eq("s1"), anyLong());
     }
 }
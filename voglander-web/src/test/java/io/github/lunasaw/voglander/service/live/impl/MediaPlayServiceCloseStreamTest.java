@@ -2,7 +2,6 @@ package io.github.lunasaw.voglander.service.live.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -11,6 +10,7 @@ import io.github.lunasaw.voglander.common.constant.media.MediaSessionConstant;
 import io.github.lunasaw.voglander.manager.domaon.dto.MediaSessionDTO;
 import io.github.lunasaw.voglander.manager.manager.MediaSessionManager;
 import io.github.lunasaw.voglander.repository.cache.redis.RedisLockUtil;
+import io.github.lunasaw.voglander.service.live.LivePendingCloseIndex;
 import io.github.lunasaw.voglander.service.live.LiveStreamRegistry;
 import io.github.lunasaw.voglander.service.live.protocol.MediaProtocolHandler;
 import io.github.lunasaw.voglander.service.live.protocol.MediaProtocolRouter;
@@ -27,12 +27,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.StringRedisTemplate;
 
 /**
  * D5 红线（PROTOCOL-S5 重构后）：GC 回收必须<b>真实关流</b>，下沉到编排层 {@code closeStream(streamId)}：
  * 解析会话所在节点 → 经 {@link MediaProtocolHandler#terminate}（协议特定 closeRtpServer + sendBye）
- * → 标会话 CLOSED → SSE {@code live.closed} → 清 Registry + 删 pending_close key。
+ * → 标会话 CLOSED → SSE {@code live.closed} → 清 Registry + 出延迟回收索引。
  * <p>
  * S5 后编排层不再直连 GB28181 命令/ZLM RTP，改经 {@link MediaProtocolRouter} 取协议 handler，
  * 真实 closeRtpServer/sendBye 由 {@code Gb28181MediaProtocolHandlerTest} 单独覆盖。本测试只验编排：
@@ -62,7 +61,7 @@ class MediaPlayServiceCloseStreamTest {
     @Mock
     private SseEventBus          sseEventBus;
     @Mock
-    private StringRedisTemplate  stringRedisTemplate;
+    private LivePendingCloseIndex livePendingCloseIndex;
 
     @InjectMocks
     private MediaPlayServiceImpl service;
@@ -87,7 +86,7 @@ class MediaPlayServiceCloseStreamTest {
     }
 
     @Test
-    @DisplayName("closeStream → handler.terminate(node,callId) + 标 CLOSED + SSE live.closed + 清 Registry + 删 pending key")
+    @DisplayName("closeStream → handler.terminate(node,callId) + 标 CLOSED + SSE live.closed + 清 Registry + 出延迟回收索引")
     void closeStream_realClose() {
         when(redisLockUtil.lock(any(), any(), any())).thenReturn(true);
         when(mediaSessionManager.getByStreamId(STREAM_ID)).thenReturn(session());
@@ -108,12 +107,12 @@ class MediaPlayServiceCloseStreamTest {
         verify(sseEventBus).publish(any(SseEvent.class));
         // 4. 清 Registry
         verify(liveStreamRegistry).remove(STREAM_ID);
-        // 5. 删 pending_close key
-        verify(stringRedisTemplate).delete(eq("live:pending_close:" + STREAM_ID));
+        // 5. 出延迟回收索引
+        verify(livePendingCloseIndex).cancel(STREAM_ID);
     }
 
     @Test
-    @DisplayName("会话不存在 → 仍清 Registry + 删 pending key（幂等收尾），不触协议收尾，不抛异常")
+    @DisplayName("会话不存在 → 仍清 Registry + 出延迟回收索引（幂等收尾），不触协议收尾，不抛异常")
     void closeStream_noSession_stillCleansUp() {
         when(redisLockUtil.lock(any(), any(), any())).thenReturn(true);
         when(mediaSessionManager.getByStreamId(STREAM_ID)).thenReturn(null);
@@ -122,7 +121,7 @@ class MediaPlayServiceCloseStreamTest {
 
         verify(mediaProtocolHandler, never()).terminate(any());
         verify(liveStreamRegistry).remove(STREAM_ID);
-        verify(stringRedisTemplate).delete(eq("live:pending_close:" + STREAM_ID));
+        verify(livePendingCloseIndex).cancel(STREAM_ID);
     }
 
     @Test
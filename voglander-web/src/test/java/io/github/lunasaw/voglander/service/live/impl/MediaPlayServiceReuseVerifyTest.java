@@ -13,20 +13,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import io.github.lunasaw.voglander.common.constant.media.MediaSessionConstant;
 import io.github.lunasaw.voglander.common.exception.ServiceException;
+import io.github.lunasaw.voglander.intergration.wrapper.zlm.supplier.MediaNodeTable;
 import io.github.lunasaw.voglander.manager.domaon.dto.DeviceChannelDTO;
 import io.github.lunasaw.voglander.manager.manager.DeviceChannelManager;
 import io.github.lunasaw.voglander.manager.manager.MediaSessionManager;
 import io.github.lunasaw.voglander.repository.cache.redis.RedisLockUtil;
+import io.github.lunasaw.voglander.service.live.LivePlayCoalescer;
 import io.github.lunasaw.voglander.service.live.LiveSessionInfo;
 import io.github.lunasaw.voglander.service.live.LiveStreamRegistry;
 import io.github.lunasaw.voglander.service.live.dto.LivePlayDTO;
 import io.github.lunasaw.voglander.service.live.dto.LiveStartDTO;
+import io.github.lunasaw.voglander.service.live.node.MediaNodeScheduler;
+import io.github.lunasaw.voglander.service.live.node.PowerOfTwoChoicesNodePolicy;
 import io.github.lunasaw.voglander.service.live.protocol.MediaProtocolRouter;
 import io.github.lunasaw.voglander.service.sse.SseEventBus;
 import io.github.lunasaw.zlm.api.ZlmRestService;
@@ -70,6 +75,11 @@ class MediaPlayServiceReuseVerifyTest {
     private StringRedisTemplate         stringRedisTemplate;
     @Mock
     private DeviceChannelManager        deviceChannelManager;
+    @Spy
+    private LivePlayCoalescer           livePlayCoalescer = new LivePlayCoalescer();
+    @Spy
+    private MediaNodeScheduler          mediaNodeScheduler = new MediaNodeScheduler(
+        java.util.List.of(new PowerOfTwoChoicesNodePolicy()), new MediaNodeTable(), PowerOfTwoChoicesNodePolicy.NAME);
 
     @InjectMocks
     private MediaPlayServiceImpl        service;
@@ -112,7 +122,7 @@ class MediaPlayServiceReuseVerifyTest {
     void reuse_verifyDisabled_reusesWithoutProbe() {
         ReflectionTestUtils.setField(service, "reuseVerifyEnabled", false);
         when(redisLockUtil.generateLockValue()).thenReturn("v1");
-        when(redisLockUtil.tryLock(any(), any(), any(), any())).thenReturn(true);
+        when(redisLockUtil.lock(any(), any(), any())).thenReturn(true);
         when(liveStreamRegistry.getSession(STREAM_ID)).thenReturn(activeInfo());
 
         try (MockedStatic<ZlmRestService> zlm = mockStatic(ZlmRestService.class)) {
@@ -129,7 +139,7 @@ class MediaPlayServiceReuseVerifyTest {
     void reuse_verifyEnabled_deadStream_fallsThroughToRebuild() {
         ReflectionTestUtils.setField(service, "reuseVerifyEnabled", true);
         when(redisLockUtil.generateLockValue()).thenReturn("v1");
-        when(redisLockUtil.tryLock(any(), any(), any(), any())).thenReturn(true);
+        when(redisLockUtil.lock(any(), any(), any())).thenReturn(true);
         when(liveStreamRegistry.getSession(STREAM_ID)).thenReturn(activeInfo());
         when(nodeService.getAvailableNode(SERVER_ID)).thenReturn(node());
         when(nodeService.selectNode()).thenReturn(null);
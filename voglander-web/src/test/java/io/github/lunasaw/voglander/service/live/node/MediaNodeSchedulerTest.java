@@ -0,0 +1,184 @@
+package io.github.lunasaw.voglander.service.live.node;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.github.lunasaw.voglander.common.event.MediaNodeChangedEvent;
+import io.github.lunasaw.voglander.intergration.wrapper.zlm.supplier.MediaNodeTable;
+import io.github.lunasaw.voglander.manager.domaon.dto.MediaNodeDTO;
+import io.github.lunasaw.voglander.manager.manager.MediaNodeManager;
+import io.github.lunasaw.zlm.config.ZlmNode;
+
+/**
+ * MediaNodeScheduler 单元测试：心跳负载 + 派发计数驱动的选节点、健康剔除与三种策略。
+ *
+ * @author luna
+ */
+@DisplayName("首播节点调度测试")
+class MediaNodeSchedulerTest {
+
+    private final MediaNodeTable table = new MediaNodeTable();
+
+    private MediaNodeScheduler scheduler(String policy) {
+        return new MediaNodeScheduler(List.of(new LeastLoadedNodePolicy(), new PowerOfTwoChoicesNodePolicy(),
+            new DeviceAffinityNodePolicy()), table, policy);
+    }
+
+    @Test
+    @DisplayName("最小负载按权重归一：权重大的节点承载更多流")
+    void least_loaded_normalizes_by_weight() {
+        MediaNodeScheduler scheduler = scheduler(LeastLoadedNodePolicy.NAME);
+        table.onKeepalive("big", 10, 0, 0);
+        table.onKeepalive("small", 4, 0, 0);
+
+        // big: 2*10/4=5，small: 2*4/1=8
+        assertEquals("big", scheduler.select(List.of(node("big", 4), node("small", 1)), null).getServerId());
+    }
+
+    @Test
+    @DisplayName("心跳间隔内的首播风暴按派发计数摊开，心跳到达后 pending 清零")
+    void pending_spreads_storm_between_keepalives() {
+        MediaNodeScheduler scheduler = scheduler(LeastLoadedNodePolicy.NAME);
+        List<ZlmNode> nodes = List.of(node("a", 1), node("b", 1), node("c", 1));
+        nodes.forEach(n -> table.onKeepalive(n.getServerId(), 0, 0, 0));
+        Map<String, Integer> placed = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            placed.merge(scheduler.select(nodes, "dev" + i).getServerId(), 1, Integer::sum);
+        }
+
+        assertEquals(Map.of("a", 10, "b", 10, "c", 10), placed);
+        assertEquals(10, table.load("a").pending());
+        table.onKeepalive("a", 10, 12, 10);
+        assertEquals(0, table.load("a").pending());
+        assertEquals(10, table.load("a").streams());
+    }
+
+    @Test
+    @DisplayName("已退出或心跳失联的节点不派发；全部不可用时交给负载均衡兜底")
+    void unavailable_nodes_are_skipped() {
+        MediaNodeScheduler scheduler = scheduler(LeastLoadedNodePolicy.NAME);
+        List<ZlmNode> nodes = List.of(node("a", 1), node("b", 1));
+        table.onKeepalive("a", 0, 0, 0);
+        table.onKeepalive("b", 50, 0, 0);
+        table.onExited("a");
+
+        assertEquals("b", scheduler.select(nodes, null).getServerId());
+
+        table.onKeepalive("a", 0, 0, 0);
+        assertEquals("a", scheduler.select(nodes, null).getServerId(), "重新上报心跳后恢复派发");
+
+        ReflectionTestUtils.setField(table, "keepaliveStaleMs", -1L);
+        assertNull(scheduler.select(nodes, null), "全部失联时不按过期负载选");
+    }
+
+    @Test
+    @DisplayName("从未上报心跳的节点负载未知，不当作空闲节点优先派发")
+    void unknown_load_is_not_idle() {
+        MediaNodeScheduler scheduler = scheduler(LeastLoadedNodePolicy.NAME);
+        table.onKeepalive("busy", 30, 0, 0);
+
+        assertEquals("busy", scheduler.select(List.of(node("busy", 1), node("fresh", 1)), null).getServerId());
+        assertNull(scheduler.select(List.of(node("fresh", 1)), null), "只有未知节点时交给负载均衡兜底");
+        assertFalse(table.isAvailable("fresh", System.currentTimeMillis()), "派发计数不等于收到过心跳");
+    }
+
+    @Test
+    @DisplayName("节点表过期时并发读者只查一次库；节点变更事件触发重读")
+    void concurrent_readers_reload_once() throws Exception {
+        MediaNodeManager manager = mock(MediaNodeManager.class);
+        MediaNodeDTO dto = new MediaNodeDTO();
+        dto.setServerId("a");
+        dto.setHost("http://a:9092");
+        dto.setEnabled(true);
+        CountDownLatch loading = new CountDownLatch(1);
+        when(manager.getEnabledNodes()).thenAnswer(inv -> {
+            loading.await(1, TimeUnit.SECONDS);
+            return List.of(dto);
+        });
+        MediaNodeTable nodeTable = new MediaNodeTable();
+        ReflectionTestUtils.setField(nodeTable, "mediaNodeManager", manager);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch done = new CountDownLatch(8);
+            for (int i = 0; i < 8; i++) {
+                pool.execute(() -> {
+                    nodeTable.nodes();
+                    done.countDown();
+                });
+            }
+            Thread.sleep(50);
+            loading.countDown();
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(manager, times(1)).getEnabledNodes();
+
+        nodeTable.onNodeChanged(new MediaNodeChangedEvent("a"));
+        assertEquals("a", nodeTable.node("a").getServerId());
+        verify(manager, times(2)).getEnabledNodes();
+    }
+
+    @Test
+    @DisplayName("二选一在两个节点时总选较空的一个")
+    void p2c_prefers_lighter_of_two() {
+        MediaNodeScheduler scheduler = scheduler(PowerOfTwoChoicesNodePolicy.NAME);
+        table.onKeepalive("busy", 100, 0, 0);
+        table.onKeepalive("idle", 0, 0, 0);
+        List<ZlmNode> nodes = List.of(node("busy", 1), node("idle", 1));
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("idle", scheduler.select(nodes, null).getServerId());
+        }
+    }
+
+    @Test
+    @DisplayName("设备亲和：同一设备固定落同一节点，亲和节点过载时溢出到最空节点")
+    void device_affinity_is_sticky_and_spills() {
+        DeviceAffinityNodePolicy affinity = new DeviceAffinityNodePolicy();
+        ReflectionTestUtils.setField(affinity, "spill", 10.0);
+        MediaNodeScheduler scheduler = new MediaNodeScheduler(List.of(affinity), table, DeviceAffinityNodePolicy.NAME);
+        List<ZlmNode> nodes = List.of(node("a", 1), node("b", 1), node("c", 1));
+        nodes.forEach(n -> table.onKeepalive(n.getServerId(), 0, 0, 0));
+        String preferred = scheduler.select(nodes, "34020000001320000001").getServerId();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(preferred, scheduler.select(nodes, "34020000001320000001").getServerId());
+        }
+
+        table.onKeepalive(preferred, 20, 0, 0);
+        assertNotEquals(preferred, scheduler.select(nodes, "34020000001320000001").getServerId());
+    }
+
+    @Test
+    @DisplayName("未知策略名回退二选一，无候选返回 null")
+    void unknown_policy_falls_back() {
+        MediaNodeScheduler scheduler = scheduler("round_robin");
+        assertEquals(PowerOfTwoChoicesNodePolicy.NAME, scheduler.policyName());
+        assertNull(scheduler.select(List.of(), null));
+        ZlmNode disabled = node("x", 1);
+        disabled.setEnabled(false);
+        assertNull(scheduler.select(List.of(disabled), null));
+    }
+
+    private static ZlmNode node(String serverId, int weight) {
+        ZlmNode node = new ZlmNode();
+        node.setServerId(serverId);
+        node.setHost("http://" + serverId + ":9092");
+        node.setWeight(weight);
+        node.setEnabled(true);
+        return node;
+    }
+}
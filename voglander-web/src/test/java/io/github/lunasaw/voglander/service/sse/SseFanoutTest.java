@@ -0,0 +1,244 @@
+package io.github.lunasaw.voglander.service.sse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitterTestCapture;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * SseFanout 单元测试：topic 索引选择性、异步写出、慢消费者淘汰与按 key 合并。
+ *
+ * @author luna
+ */
+@DisplayName("SSE 扇出测试")
+class SseFanoutTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final SseDomainMetrics    metrics  = new SseDomainMetrics(registry);
+
+    private SseFanout                 fanout;
+
+    @AfterEach
+    void tearDown() {
+        if (fanout != null) {
+            fanout.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("只投递给订阅了事件 topic 或其前缀的连接，同时订阅两级的连接只收一次")
+    void publish_reaches_only_indexed_subscribers() {
+        fanout = SseFanout.direct("LOCAL", new SseDeliveryAuthorizer(), metrics);
+        SseEmitterTestCapture task = subscribe("task", "business.task");
+        SseEmitterTestCapture both = subscribe("both", "business.task", "business.task.state");
+        SseEmitterTestCapture live = subscribe("live", "live");
+
+        fanout.publish(new SseEvent("business.task.state", Map.of("taskId", "t1", "marker", "m1")));
+
+        assertTrue(task.dump().contains("m1"));
+        assertEquals(1, occurrences(both.dump(), "m1"));
+        assertEquals("", live.dump());
+        assertEquals(0.0, registry.get("sse_delivery_filtered_total").tag("bus_type", "LOCAL").counter().count(),
+            "未订阅的连接不应进入授权判断");
+    }
+
+    @Test
+    @DisplayName("写出线程异步排空：发布方不被卡住的连接阻塞，队列满后该连接被淘汰")
+    void slow_consumer_is_evicted_without_blocking_publisher() throws Exception {
+        fanout = new SseFanout("LOCAL", new SseDeliveryAuthorizer(), metrics, 2, 4, null);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEmitter slow = new BlockingEmitter(release);
+        fanout.register("slow", slow, context("live"));
+        SseEmitterTestCapture fast = subscribe("fast", "live");
+
+        // 慢连接：1 条卡在写出 + 4 条排队，第 6 条溢出；快连接每条都及时写出
+        long publishNanos = 0;
+        for (int i = 0; i < 6; i++) {
+            long start = System.nanoTime();
+            fanout.publish(new SseEvent("live.ready", Map.of("marker", "e" + i)));
+            publishNanos += System.nanoTime() - start;
+            String marker = "e" + i;
+            awaitTrue(() -> fast.dump().contains(marker) && slow.entered.getCount() == 0);
+        }
+        release.countDown();
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(publishNanos) < 1000, "发布不应等待慢连接写出");
+        assertEquals(1, fanout.size(), "慢连接应被淘汰");
+        assertEquals(1.0, registry.get("sse_slow_consumer_evictions_total").tag("bus_type", "LOCAL").counter().count());
+        assertEquals(1.0, registry.get("sse_emitter_count").tag("bus_type", "LOCAL").gauge().value());
+    }
+
+    @Test
+    @DisplayName("单次写出超过期限的连接被关闭，唯一的写出线程不被卡住，其他连接照常收到事件")
+    void stalled_send_is_evicted_after_write_deadline() throws Exception {
+        fanout = new SseFanout("LOCAL", new SseDeliveryAuthorizer(), metrics, 1, 16, null, 200L);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEmitter stalled = new BlockingEmitter(release);
+        fanout.register("stalled", stalled, context("live"));
+        SseEmitterTestCapture healthy = subscribe("healthy", "live");
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                fanout.publish(new SseEvent("live.ready", Map.of("marker", "e" + i)));
+            }
+            awaitTrue(() -> healthy.dump().contains("e2"));
+            assertEquals(1, fanout.size(), "写出超时的连接应被移出");
+            assertEquals(1.0,
+                registry.get("sse_slow_consumer_evictions_total").tag("bus_type", "LOCAL").counter().count());
+
+            fanout.publish(new SseEvent("live.ready", Map.of("marker", "after")));
+            awaitTrue(() -> healthy.dump().contains("after"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("合并 topic 下同一 taskId 的未写出事件只保留最新值，不同 taskId 互不影响")
+    void pending_events_are_coalesced_per_scope() throws Exception {
+        fanout = new SseFanout("LOCAL", new SseDeliveryAuthorizer(), metrics, 1, 16,
+            new String[] {"business.task.state"});
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEmitter capture = new BlockingEmitter(release);
+        fanout.register("e", capture, context("business.task"));
+
+        // 第一条进入写出线程后卡住，其余在队列中等待
+        fanout.publish(taskEvent("t0", "first"));
+        awaitTrue(() -> capture.entered.getCount() == 0);
+        fanout.publish(taskEvent("t1", "p10"));
+        fanout.publish(taskEvent("t2", "other"));
+        fanout.publish(taskEvent("t1", "p50"));
+        fanout.publish(taskEvent("t1", "p90"));
+        assertEquals(2, fanout.queuedTotal());
+        release.countDown();
+
+        awaitTrue(() -> fanout.queuedTotal() == 0 && capture.dump().contains("p90"));
+        String sent = capture.dump();
+        assertFalse(sent.contains("p10"));
+        assertFalse(sent.contains("p50"));
+        assertTrue(sent.indexOf("other") < sent.indexOf("p90"), "合并后的最新值排到队尾，不越过其后发生的事件");
+        assertEquals(2.0, registry.get("sse_events_coalesced_total").tag("bus_type", "LOCAL").counter().count());
+    }
+
+    @Test
+    @DisplayName("同一族内不同 topic 的状态迁移按作用域合并，客户端最终收到最后一次迁移")
+    void coalescing_spans_the_topic_family() throws Exception {
+        fanout = new SseFanout("LOCAL", new SseDeliveryAuthorizer(), metrics, 1, 16, new String[] {"device.state"});
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEmitter capture = new BlockingEmitter(release);
+        fanout.register("e", capture, context("device", "live"));
+
+        fanout.publish(new SseEvent("live.ready", Map.of("marker", "first")));
+        awaitTrue(() -> capture.entered.getCount() == 0);
+        fanout.publish(new SseEvent("device.state.offline", Map.of("deviceId", "d1", "marker", "off1")));
+        fanout.publish(new SseEvent("device.state.online", Map.of("deviceId", "d1", "marker", "on2")));
+        fanout.publish(new SseEvent("device.state.offline", Map.of("deviceId", "d1", "marker", "off3")));
+        assertEquals(1, fanout.queuedTotal());
+        release.countDown();
+
+        awaitTrue(() -> fanout.queuedTotal() == 0 && capture.dump().contains("off3"));
+        String sent = capture.dump();
+        assertFalse(sent.contains("off1"));
+        assertFalse(sent.contains("on2"));
+    }
+
+    @Test
+    @DisplayName("注销后移出 topic 索引，写失败的连接被回收")
+    void unregister_and_send_failure_clean_index() {
+        fanout = SseFanout.direct("LOCAL", new SseDeliveryAuthorizer(), metrics);
+        subscribe("a", "live");
+        SseEmitter failing = new SseEmitter(0L);
+        fanout.register("b", failing, context("live"));
+        new SseEmitterTestCapture().attachFailing(failing);
+
+        fanout.publish(new SseEvent("live.ready", Map.of("streamId", "s1")));
+        assertEquals(1, fanout.size());
+        assertEquals(1.0, registry.get("sse_send_failures_total").tag("bus_type", "LOCAL").counter().count());
+
+        fanout.unregister("a");
+        fanout.publish(new SseEvent("live.ready", Map.of("streamId", "s2")));
+        assertEquals(0, fanout.size());
+        assertEquals(0.0, registry.get("sse_outbound_queue_depth").tag("bus_type", "LOCAL").gauge().value());
+    }
+
+    private SseEmitterTestCapture subscribe(String id, String... topics) {
+        SseEmitter emitter = new SseEmitter(0L);
+        fanout.register(id, emitter, context(topics));
+        SseEmitterTestCapture capture = new SseEmitterTestCapture();
+        capture.attach(emitter);
+        return capture;
+    }
+
+    private static SseSubscriptionContext context(String... topics) {
+        return SseSubscriptionContext.authorized("7", new LinkedHashSet<>(Arrays.asList(topics)),
+            true, true, false);
+    }
+
+    private static SseEvent taskEvent(String taskId, String marker) {
+        return new SseEvent("business.task.state", Map.of("taskId", taskId, "taskType", "DATA_EXPORT", "marker", marker));
+    }
+
+    private static int occurrences(String text, String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待条件超时");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 第一次写出时阻塞到 release，模拟对端不读的慢连接；记录实际写出的数据。
+     */
+    private static final class BlockingEmitter extends SseEmitter {
+
+        private final CountDownLatch release;
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final List<String>   sent    = new CopyOnWriteArrayList<>();
+
+        BlockingEmitter(CountDownLatch release) {
+            super(0L);
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            builder.build().forEach(item -> sent.add(String.valueOf(item.getData())));
+        }
+
+        String dump() {
+            return String.join("|", sent);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package io.github.lunasaw.voglander.service.sse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitterTestCapture;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * SSE 断线重连补发测试：单调事件 ID、按 Last-Event-ID 补发、补发授权与缺口重置。
+ *
+ * @author luna
+ */
+@DisplayName("SSE Last-Event-ID 补发测试")
+class SseReplayTest {
+
+    @Test
+    @DisplayName("事件 ID 单调递增，按毫秒与序号比较")
+    void ids_are_monotonic() {
+        SseReplayBuffer buffer = new SseReplayBuffer(16, 0L);
+        SseEvent first = new SseEvent("live.ready", Map.of("streamId", "s1"));
+        SseEvent second = new SseEvent("device.online", Map.of("deviceId", "d1"));
+        buffer.append(first);
+        buffer.append(second);
+
+        assertTrue(SseReplayBuffer.compare(first.getId(), second.getId()) < 0);
+        assertTrue(SseReplayBuffer.compare("1700000000000-9", "1700000000000-10") < 0);
+        assertTrue(SseReplayBuffer.compare("1700000000001-0", "1700000000000-99") > 0);
+        assertFalse(SseReplayBuffer.isValidId("abc"));
+        assertFalse(SseReplayBuffer.isValidId("99999999999999999999-0"));
+    }
+
+    @Test
+    @DisplayName("重连携带 Last-Event-ID 时先补发其后的订阅事件，再接实时事件")
+    void reconnect_replays_missed_events_then_live() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LocalSseEventBus bus = new LocalSseEventBus(new SseDeliveryAuthorizer(), new SseDomainMetrics(registry));
+        SseEvent seen = new SseEvent("live.ready", Map.of("marker", "seen"));
+        bus.publish(seen);
+        bus.publish(new SseEvent("live.ready", Map.of("marker", "missed-1")));
+        bus.publish(new SseEvent("alarm.new", Map.of("marker", "other-topic")));
+        bus.publish(new SseEvent("live.closed", Map.of("marker", "missed-2")));
+
+        SseEmitter emitter = bus.register(context("live"), seen.getId());
+        SseEmitterTestCapture capture = new SseEmitterTestCapture();
+        capture.attach(emitter);
+        bus.publish(new SseEvent("live.ready", Map.of("marker", "live-now")));
+
+        String sent = capture.dump();
+        assertFalse(sent.contains("\"seen\""));
+        assertFalse(sent.contains("other-topic"));
+        assertTrue(sent.indexOf("missed-1") < sent.indexOf("missed-2"));
+        assertTrue(sent.indexOf("missed-2") < sent.indexOf("live-now"));
+        assertTrue(sent.contains("id:"), "下发应携带 SSE id 字段: " + sent);
+        assertEquals(1.0, registry.get("sse_replay_requests_total")
+            .tags("bus_type", "LOCAL", "result", "REPLAYED").counter().count());
+        assertEquals(2.0, registry.get("sse_replayed_events_total").tag("bus_type", "LOCAL").counter().count());
+    }
+
+    @Test
+    @DisplayName("补发同样逐条授权：无权限的任务类型不补发")
+    void replay_applies_authorization() {
+        LocalSseEventBus bus = new LocalSseEventBus(new SseDeliveryAuthorizer());
+        SseEvent anchor = new SseEvent("business.task.state", Map.of("taskType", "IMAGE_COLLECTION", "marker", "a"));
+        bus.publish(anchor);
+        bus.publish(new SseEvent("business.task.state", Map.of("taskType", "DATA_EXPORT", "marker", "denied")));
+        bus.publish(new SseEvent("business.task.state", Map.of("taskType", "IMAGE_COLLECTION", "marker", "allowed")));
+
+        SseSubscriptionContext imageOnly = SseSubscriptionContext.authorized("7",
+            Collections.singleton("business.task"), false, true, false);
+        SseEmitter emitter = bus.register(imageOnly, anchor.getId());
+        SseEmitterTestCapture capture = new SseEmitterTestCapture();
+        capture.attach(emitter);
+
+        assertTrue(capture.dump().contains("allowed"));
+        assertFalse(capture.dump().contains("denied"));
+    }
+
+    @Test
+    @DisplayName("Last-Event-ID 已被淘汰、非法或来自上一个进程时只下发 replay.reset")
+    void evicted_or_unknown_id_triggers_reset() {
+        SseReplayBuffer buffer = new SseReplayBuffer(2, 0L);
+        SseEvent oldest = new SseEvent("device.online", Map.of("deviceId", "d1"));
+        buffer.append(oldest);
+        buffer.append(new SseEvent("device.online", Map.of("deviceId", "d2")));
+        buffer.append(new SseEvent("device.online", Map.of("deviceId", "d3")));
+        buffer.append(new SseEvent("device.online", Map.of("deviceId", "d4")));
+
+        assertTrue(buffer.since(oldest.getId(), Set.of("device"), 100).gap(), "淘汰水位之前的 ID 应判为缺口");
+        assertTrue(buffer.since("1-0", Set.of("device"), 100).gap(), "早于本进程启动的 ID 应判为缺口");
+        assertTrue(buffer.since("not-an-id", Set.of("device"), 100).gap());
+        assertEquals(2, buffer.size());
+
+        LocalSseEventBus bus = new LocalSseEventBus(new SseDeliveryAuthorizer());
+        SseEmitter emitter = bus.register(context("device"), "1-0");
+        SseEmitterTestCapture capture = new SseEmitterTestCapture();
+        capture.attach(emitter);
+        assertTrue(capture.dump().contains("replay.reset"));
+    }
+
+    @Test
+    @DisplayName("积压超过补发上限按缺口处理")
+    void backlog_over_limit_is_gap() {
+        SseReplayBuffer buffer = new SseReplayBuffer(100, 0L);
+        SseEvent anchor = new SseEvent("live.ready", Map.of("streamId", "s0"));
+        buffer.append(anchor);
+        for (int i = 1; i <= 5; i++) {
+            buffer.append(new SseEvent("live.ready", Map.of("streamId", "s" + i)));
+        }
+
+        SseReplayBuffer.Replay within = buffer.since(anchor.getId(), Set.of("live"), 5);
+        assertFalse(within.gap());
+        List<SseEvent> events = within.events();
+        assertEquals(5, events.size());
+        assertTrue(buffer.since(anchor.getId(), Set.of("live"), 4).gap());
+    }
+
+    @Test
+    @DisplayName("Redis 补发分页扫描 stream，只按订阅 topic 计数：其他 topic 的大量事件不触发缺口")
+    @SuppressWarnings("unchecked")
+    void redis_replay_counts_only_subscribed_topics() {
+        List<MapRecord<String, Object, Object>> stream = new ArrayList<>();
+        stream.add(record(1, "live.ready", "anchor"));
+        for (int i = 2; i < 700; i++) {
+            stream.add(record(i, "alarm.new", "noise-" + i));
+        }
+        stream.add(record(700, "live.ready", "missed-1"));
+        stream.add(record(701, "live.closed", "missed-2"));
+        StreamOperations<String, Object, Object> ops = mock(StreamOperations.class);
+        when(ops.range(eq("sse:broadcast:replay"), any(Range.class), any(Limit.class))).thenAnswer(invocation -> {
+            String from = ((Range<String>)invocation.getArgument(1)).getLowerBound().getValue().orElseThrow();
+            int count = ((Limit)invocation.getArgument(2)).getCount();
+            List<MapRecord<String, Object, Object>> page = new ArrayList<>();
+            for (MapRecord<String, Object, Object> record : stream) {
+                if (page.size() < count && SseReplayBuffer.compare(record.getId().getValue(), from) >= 0) {
+                    page.add(record);
+                }
+            }
+            return page;
+        });
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        when(template.<Object, Object>opsForStream()).thenReturn(ops);
+        RedisBackedSseEventBus bus = new RedisBackedSseEventBus(new SseDeliveryAuthorizer());
+        ReflectionTestUtils.setField(bus, "stringRedisTemplate", template);
+
+        SseEmitter emitter = bus.register(context("live"), "1000-1");
+        SseEmitterTestCapture capture = new SseEmitterTestCapture();
+        capture.attach(emitter);
+
+        String sent = capture.dump();
+        assertFalse(sent.contains("replay.reset"), sent);
+        assertFalse(sent.contains("noise"));
+        assertTrue(sent.indexOf("missed-1") < sent.indexOf("missed-2"));
+        verify(ops, atLeast(3)).range(eq("sse:broadcast:replay"), any(Range.class), any(Limit.class));
+    }
+
+    private static MapRecord<String, Object, Object> record(int seq, String topic, String marker) {
+        Map<Object, Object> fields = Map.of("topic", topic, "data", "{\"marker\":\"" + marker + "\"}");
+        return MapRecord.create("sse:broadcast:replay", fields).withId(RecordId.of(1000L, seq));
+    }
+
+    private static SseSubscriptionContext context(String topic) {
+        return SseSubscriptionContext.authorized("7", Collections.singleton(topic), true, true, false);
+    }
+}
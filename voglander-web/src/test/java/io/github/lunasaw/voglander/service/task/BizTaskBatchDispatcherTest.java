@@ -0,0 +1,238 @@
+package io.github.lunasaw.voglander.service.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskExecutionDTO;
+import io.github.lunasaw.voglander.manager.manager.BizTaskExecutionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Batch-claiming business-task dispatcher")
+class BizTaskBatchDispatcherTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 7, 15, 11, 0);
+
+    @Mock
+    private BizTaskExecutionManager executionManager;
+
+    private SimpleMeterRegistry registry;
+    private BizTaskBatchClaimer claimer;
+    private List<BizTaskExecutionDTO> ran;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-07-15T11:00:00Z"), ZoneOffset.UTC);
+        registry = new SimpleMeterRegistry();
+        claimer = new BizTaskBatchClaimer(executionManager, clock, "node-a", 90, () -> "batch_token",
+            new BusinessTaskMetrics(registry));
+        ran = new ArrayList<BizTaskExecutionDTO>();
+    }
+
+    @Test
+    @DisplayName("一次批量认领的窗口应受执行器空闲容量限制，认领结果直接交给 Worker 执行")
+    void dispatch_shouldCapClaimWindowByFreeCapacityAndRunClaimedRows() {
+        List<Runnable> submissions = new ArrayList<Runnable>();
+        BizTaskBatchDispatcher dispatcher = new BizTaskBatchDispatcher(claimer, submissions::add, ran::add,
+            () -> 2, 10, () -> {
+            });
+        when(executionManager.claimRunnableBatch(any(BizTaskExecutionDTO.class), eq(2)))
+            .thenReturn(Arrays.asList(claimed("bexec_first"), claimed("bexec_second")));
+
+        assertEquals(2, dispatcher.dispatchClaimedBatch());
+
+        ArgumentCaptor<BizTaskExecutionDTO> command = ArgumentCaptor.forClass(BizTaskExecutionDTO.class);
+        verify(executionManager).claimRunnableBatch(command.capture(), eq(2));
+        assertEquals("batch_token", command.getValue().getClaimToken());
+        assertEquals("node-a", command.getValue().getWorkerNode());
+        assertEquals(NOW.plusSeconds(90), command.getValue().getLeaseUntil());
+        submissions.forEach(Runnable::run);
+        assertEquals(Arrays.asList("bexec_first", "bexec_second"),
+            Arrays.asList(ran.get(0).getExecutionId(), ran.get(1).getExecutionId()));
+        assertEquals(2.0, registry.get("voglander.business.claim.count").tag("mode", "BATCH")
+            .tag("result", "CLAIMED").counter().count());
+        assertEquals(1L, registry.get("voglander.business.claim.latency").tag("mode", "BATCH").timer().count());
+    }
+
+    @Test
+    @DisplayName("执行器没有空闲容量时不得认领，只标记 backlog 等待容量信号")
+    void dispatch_shouldNotClaimWithoutFreeCapacity() {
+        AtomicInteger signals = new AtomicInteger();
+        List<Runnable> submissions = new ArrayList<Runnable>();
+        AtomicInteger capacity = new AtomicInteger(0);
+        BizTaskBatchDispatcher dispatcher = new BizTaskBatchDispatcher(claimer, submissions::add, ran::add,
+            capacity::get, 10, signals::incrementAndGet);
+
+        assertEquals(0, dispatcher.dispatchClaimedBatch());
+        verify(executionManager, never()).claimRunnableBatch(any(BizTaskExecutionDTO.class), anyInt());
+
+        capacity.set(1);
+        when(executionManager.claimRunnableBatch(any(BizTaskExecutionDTO.class), eq(1)))
+            .thenReturn(Arrays.asList(claimed("bexec_only")));
+        assertEquals(1, dispatcher.dispatchClaimedBatch());
+        submissions.forEach(Runnable::run);
+        assertEquals(1, signals.get());
+    }
+
+    @Test
+    @DisplayName("执行器拒绝时剩余认领应按 claimToken 释放回 runnable，且不消耗尝试次数")
+    void dispatch_shouldReleaseRejectedClaims() {
+        AtomicInteger accepted = new AtomicInteger();
+        Executor oneSlot = command -> {
+            if (accepted.incrementAndGet() > 1) {
+                throw new RejectedExecutionException("saturated");
+            }
+        };
+        BizTaskBatchDispatcher dispatcher = new BizTaskBatchDispatcher(claimer, oneSlot, ran::add, () -> 3, 10,
+            () -> {
+            });
+        when(executionManager.claimRunnableBatch(any(BizTaskExecutionDTO.class), eq(3))).thenReturn(
+            Arrays.asList(claimed("bexec_first"), claimed("bexec_second"), claimed("bexec_third")));
+        when(executionManager.releaseClaim(any(BizTaskExecutionDTO.class))).thenReturn(true, false);
+
+        assertEquals(1, dispatcher.dispatchClaimedBatch());
+
+        ArgumentCaptor<BizTaskExecutionDTO> released = ArgumentCaptor.forClass(BizTaskExecutionDTO.class);
+        verify(executionManager, times(2)).releaseClaim(released.capture());
+        assertEquals("bexec_second", released.getAllValues().get(0).getExecutionId());
+        assertEquals("bexec_third", released.getAllValues().get(1).getExecutionId());
+        assertEquals("batch_token", released.getAllValues().get(0).getClaimToken());
+        assertEquals(1.0, registry.get("voglander.business.claim.count").tag("mode", "BATCH")
+            .tag("result", "RELEASED").counter().count());
+        assertEquals(1.0, registry.get("voglander.business.claim.count").tag("mode", "BATCH")
+            .tag("result", "RELEASE_LOST").counter().count());
+    }
+
+    @Test
+    @DisplayName("等待期间租约已过期的认领不得执行，应按 claimToken 释放并计为 LAPSED")
+    void dispatch_shouldReleaseClaimWhoseLeaseLapsedBeforeStart() {
+        List<Runnable> submissions = new ArrayList<Runnable>();
+        BizTaskBatchDispatcher dispatcher = new BizTaskBatchDispatcher(claimer, submissions::add, ran::add,
+            () -> 2, 10, () -> {
+            });
+        BizTaskExecutionDTO lapsed = claimed("bexec_lapsed");
+        lapsed.setLeaseUntil(NOW);
+        when(executionManager.claimRunnableBatch(any(BizTaskExecutionDTO.class), eq(2)))
+            .thenReturn(Arrays.asList(lapsed, claimed("bexec_live")));
+        when(executionManager.releaseClaim(any(BizTaskExecutionDTO.class))).thenReturn(false);
+
+        assertEquals(2, dispatcher.dispatchClaimedBatch());
+        submissions.forEach(Runnable::run);
+
+        assertEquals(1, ran.size());
+        assertEquals("bexec_live", ran.get(0).getExecutionId());
+        ArgumentCaptor<BizTaskExecutionDTO> released = ArgumentCaptor.forClass(BizTaskExecutionDTO.class);
+        verify(executionManager).releaseClaim(released.capture());
+        assertEquals("bexec_lapsed", released.getValue().getExecutionId());
+        assertEquals(1.0, registry.get("voglander.business.claim.count").tag("mode", "BATCH")
+            .tag("result", "LAPSED").counter().count());
+    }
+
+    @Test
+    @DisplayName("认领成功即登记续约，被拒绝或交还的认领同时停止续约")
+    void dispatch_shouldRenewClaimsFromClaimTimeAndStopOnRelease() {
+        Clock clock = Clock.fixed(Instant.parse("2026-07-15T11:00:00Z"), ZoneOffset.UTC);
+        BizTaskLeaseKeeper keeper = new BizTaskLeaseKeeper(executionManager, clock, "node-a", 90, null);
+        BizTaskBatchClaimer renewing = new BizTaskBatchClaimer(executionManager, clock, "node-a", 90,
+            () -> "batch_token", null, keeper);
+        List<Runnable> accepted = new ArrayList<Runnable>();
+        Executor oneSlot = command -> {
+            if (!accepted.isEmpty()) {
+                throw new RejectedExecutionException("saturated");
+            }
+            accepted.add(command);
+        };
+        BizTaskBatchDispatcher dispatcher = new BizTaskBatchDispatcher(renewing, oneSlot, ran::add, () -> 2, 10,
+            () -> {
+            });
+        when(executionManager.claimRunnableBatch(any(BizTaskExecutionDTO.class), eq(2)))
+            .thenReturn(Arrays.asList(claimed("bexec_first"), claimed("bexec_second")));
+        when(executionManager.releaseClaim(any(BizTaskExecutionDTO.class))).thenReturn(true);
+
+        assertEquals(1, dispatcher.dispatchClaimedBatch());
+
+        assertEquals(1, keeper.liveLeases());
+        assertNull(keeper.held("bexec_second", "batch_token"));
+        ((BizTaskFairExecutor.ClassifiedWork)accepted.get(0)).abandon();
+        assertEquals(0, keeper.liveLeases());
+        verify(executionManager, times(2)).releaseClaim(any(BizTaskExecutionDTO.class));
+    }
+
+    @Test
+    @DisplayName("混合 lane 的窗口只提交所属 lane 有空闲槽位的认领，其余立即释放且不消耗尝试次数")
+    void dispatch_shouldReleaseClaimsWhoseLaneIsFull() {
+        List<Runnable> handedOver = new ArrayList<Runnable>();
+        BizTaskFairExecutor fair = new BizTaskFairExecutor(handedOver::add, 1, handedOver::add, 2, 100, 0,
+            Map.of(), null);
+        TaskDispatchClassifier classifier = mock(TaskDispatchClassifier.class);
+        when(classifier.classify(anyList())).thenReturn(Map.of(
+            "btask_cpu", new TaskDispatchClass("SNAPSHOT", "org_a", 0, 0, false),
+            "btask_io", new TaskDispatchClass("COLLECT", "org_a", 0, 0, true)));
+        BizTaskBatchDispatcher dispatcher = new BizTaskBatchDispatcher(claimer, fair, ran::add, fair::freeSlots, 10,
+            () -> {
+            }, classifier, fair::freeSlots);
+        when(executionManager.claimRunnableBatch(any(BizTaskExecutionDTO.class), eq(1)))
+            .thenReturn(Arrays.asList(claimed("bexec_cpu0", "btask_cpu")));
+        when(executionManager.claimRunnableBatch(any(BizTaskExecutionDTO.class), eq(2))).thenReturn(Arrays.asList(
+            claimed("bexec_cpu1", "btask_cpu"), claimed("bexec_io", "btask_io")));
+        when(executionManager.releaseClaim(any(BizTaskExecutionDTO.class))).thenReturn(true);
+
+        assertEquals(1, dispatcher.dispatchClaimedBatch());
+        assertEquals(2, fair.freeSlots());
+        assertEquals(1, dispatcher.dispatchClaimedBatch());
+
+        assertEquals(2, handedOver.size());
+        assertEquals(0, fair.queued());
+        ArgumentCaptor<BizTaskExecutionDTO> released = ArgumentCaptor.forClass(BizTaskExecutionDTO.class);
+        verify(executionManager).releaseClaim(released.capture());
+        assertEquals("bexec_cpu1", released.getValue().getExecutionId());
+        handedOver.forEach(Runnable::run);
+        assertEquals(Arrays.asList("bexec_cpu0", "bexec_io"),
+            Arrays.asList(ran.get(0).getExecutionId(), ran.get(1).getExecutionId()));
+    }
+
+    private BizTaskExecutionDTO claimed(String executionId, String taskId) {
+        BizTaskExecutionDTO execution = claimed(executionId);
+        execution.setTaskId(taskId);
+        return execution;
+    }
+
+    private BizTaskExecutionDTO claimed(String executionId) {
+        BizTaskExecutionDTO execution = new BizTaskExecutionDTO();
+        execution.setExecutionId(executionId);
+        execution.setClaimToken("batch_token");
+        execution.setWorkerNode("node-a");
+        execution.setState("RUNNING");
+        execution.setLeaseUntil(NOW.plusSeconds(90));
+        return execution;
+    }
+}
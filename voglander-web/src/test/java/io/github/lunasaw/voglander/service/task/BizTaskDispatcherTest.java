@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -113,6 +114,26 @@ class BizTaskDispatcherTest {
         }
     }
 
+    @Test
+    @DisplayName("快速重扫不得重复提交已排队 execution，满批次完成后应通知运行时重扫")
+    void dispatch_shouldSkipQueuedExecutionsAndSignalCapacityAfterFullBatch() {
+        AtomicInteger capacitySignals = new AtomicInteger();
+        BizTaskDispatcher signalling = new BizTaskDispatcher(executionManager, submissions::add, worker,
+            Clock.fixed(Instant.parse("2026-07-15T11:00:00Z"), ZoneOffset.UTC), 2, capacitySignals::incrementAndGet);
+        when(executionManager.findRunnable(NOW, 2))
+            .thenReturn(Arrays.asList(execution("bexec_a"), execution("bexec_b")));
+
+        assertEquals(2, signalling.dispatchRunnableExecutions());
+        assertEquals(0, signalling.dispatchRunnableExecutions());
+        assertEquals(2, submissions.size());
+
+        submissions.get(0).run();
+
+        assertEquals(1, capacitySignals.get());
+        assertEquals(1, signalling.dispatchRunnableExecutions());
+        assertEquals(3, submissions.size());
+    }
+
     private BizTaskExecutionDTO execution(String executionId) {
         BizTaskExecutionDTO execution = new BizTaskExecutionDTO();
         execution.setExecutionId(executionId);
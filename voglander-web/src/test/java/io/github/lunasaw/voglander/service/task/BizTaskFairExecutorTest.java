@@ -0,0 +1,167 @@
+package io.github.lunasaw.voglander.service.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Priority- and tenant-fair business-task executor")
+class BizTaskFairExecutorTest {
+
+    private final List<Runnable> handedOver = new ArrayList<>();
+    private final Executor platform = handedOver::add;
+    private final List<String> ran = new ArrayList<>();
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("单个租户的突发不应饿死其他租户，同一租户内高优先级先执行")
+    void execute_shouldInterleaveTenantsAndHonourPriority() {
+        BizTaskFairExecutor executor = executor(1, Map.of());
+        for (int i = 0; i < 4; i++) {
+            executor.execute(work("burst" + i, new TaskDispatchClass("SNAPSHOT", "org_burst", 0, 0, false)));
+        }
+        executor.execute(work("quiet", new TaskDispatchClass("SNAPSHOT", "org_quiet", 0, 0, false)));
+        executor.execute(work("urgent", new TaskDispatchClass("SNAPSHOT", "org_quiet", 10, 0, false)));
+
+        runHandedOver();
+
+        assertEquals(List.of("burst0", "urgent", "burst1", "quiet", "burst2", "burst3"), ran);
+        assertEquals(6L, registry.get("voglander.business.executor.queue.wait").tag("task_type", "SNAPSHOT")
+            .tag("lane", BizTaskFairExecutor.PLATFORM).timers().stream().mapToLong(timer -> timer.count()).sum());
+    }
+
+    @Test
+    @DisplayName("按权重分配执行机会")
+    void execute_shouldShareSlotsByWeight() {
+        BizTaskFairExecutor executor = executor(1, Map.of("org_gold", 3));
+        for (int i = 0; i < 4; i++) {
+            executor.execute(work("gold" + i, new TaskDispatchClass("SNAPSHOT", "org_gold", 0, 0, false)));
+            executor.execute(work("bronze" + i, new TaskDispatchClass("SNAPSHOT", "org_bronze", 0, 0, false)));
+        }
+
+        runHandedOver();
+
+        assertEquals(List.of("gold0", "bronze0", "gold1", "gold2", "gold3", "bronze1", "bronze2", "bronze3"), ran);
+    }
+
+    @Test
+    @DisplayName("达到任务类型并发预算时应跳过该类型，先执行其他类型")
+    void execute_shouldEnforceTaskTypeBudget() {
+        BizTaskFairExecutor executor = executor(4, Map.of());
+        TaskDispatchClass capped = new TaskDispatchClass("CAPPED", "org_a", 0, 1, false);
+        executor.execute(work("capped0", capped));
+        executor.execute(work("capped1", capped));
+        executor.execute(work("other", new TaskDispatchClass("OTHER", "org_a", 0, 0, false)));
+
+        assertEquals(2, handedOver.size());
+        assertEquals(1, executor.queued());
+
+        runHandedOver();
+
+        assertEquals(List.of("capped0", "other", "capped1"), ran);
+        assertEquals(0, executor.queued());
+    }
+
+    @Test
+    @DisplayName("公平队列满时拒绝提交，关闭时未开始的工作应交还调度器")
+    void execute_shouldRejectWhenFullAndHandBackQueuedWork() {
+        BizTaskFairExecutor executor = new BizTaskFairExecutor(platform, 1, null, 0, 2, 0, Map.of(), null);
+        TaskDispatchClass dispatchClass = new TaskDispatchClass("SNAPSHOT", "org_a", 0, 0, false);
+        executor.execute(work("running", dispatchClass));
+        executor.execute(work("queued0", dispatchClass));
+        executor.execute(work("queued1", dispatchClass));
+
+        assertEquals(0, executor.freeSlots());
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(work("overflow", dispatchClass)));
+
+        executor.drainQueued().forEach(BizTaskFairExecutor::abandon);
+
+        assertEquals(List.of("abandoned:queued0", "abandoned:queued1"), ran);
+        assertEquals(0, executor.queued());
+    }
+
+    @Test
+    @DisplayName("批量认领窗口只计空闲槽位，不计公平队列余量，也不把两条 lane 的槽位相加")
+    void freeSlots_shouldCountOnlyUnclaimedSlots() {
+        BizTaskFairExecutor executor = new BizTaskFairExecutor(platform, 2, handedOver::add, 1, 100, 0, Map.of(),
+            null);
+        TaskDispatchClass cpu = new TaskDispatchClass("SNAPSHOT", "org_a", 0, 0, false);
+        TaskDispatchClass io = new TaskDispatchClass("COLLECT", "org_a", 0, 0, true);
+        assertEquals(2, executor.freeSlots());
+
+        executor.execute(work("running", cpu));
+        executor.execute(work("io", io));
+        assertEquals(1, executor.freeSlots());
+        assertEquals(0, executor.freeSlots(io));
+
+        executor.execute(work("running2", cpu));
+        executor.execute(work("waiting", cpu));
+        assertEquals(1, executor.queued());
+        assertEquals(0, executor.freeSlots());
+    }
+
+    @Test
+    @DisplayName("平台 lane 已满时窗口取 I/O lane 空闲槽位，按 lane 分别计数排队工作")
+    void freeSlots_shouldSizeWindowPerLane() {
+        BizTaskFairExecutor executor = new BizTaskFairExecutor(platform, 1, handedOver::add, 3, 100, 0, Map.of(),
+            null);
+        TaskDispatchClass cpu = new TaskDispatchClass("SNAPSHOT", "org_a", 0, 0, false);
+        TaskDispatchClass io = new TaskDispatchClass("COLLECT", "org_a", 0, 0, true);
+        assertEquals(1, executor.freeSlots());
+
+        executor.execute(work("cpu", cpu));
+        assertEquals(3, executor.freeSlots());
+        assertEquals(0, executor.freeSlots(cpu));
+        assertEquals(3, executor.freeSlots(io));
+
+        executor.execute(work("cpu_waiting", cpu));
+        executor.execute(work("io", io));
+        assertEquals(0, executor.freeSlots(cpu));
+        assertEquals(2, executor.freeSlots(io));
+    }
+
+    private BizTaskFairExecutor executor(int slots, Map<String, Integer> weights) {
+        return new BizTaskFairExecutor(platform, slots, null, 0, 100, 0, weights,
+            new BusinessTaskMetrics(registry));
+    }
+
+    private void runHandedOver() {
+        while (!handedOver.isEmpty()) {
+            handedOver.remove(0).run();
+        }
+    }
+
+    private BizTaskFairExecutor.ClassifiedWork work(String name, TaskDispatchClass dispatchClass) {
+        return new BizTaskFairExecutor.ClassifiedWork() {
+            @Override
+            public TaskDispatchClass dispatchClass() {
+                return dispatchClass;
+            }
+
+            @Override
+            public void abandon() {
+                ran.add("abandoned:" + name);
+            }
+
+            @Override
+            public void run() {
+                ran.add(name);
+            }
+        };
+    }
+}
@@ -0,0 +1,218 @@
+package io.github.lunasaw.voglander.service.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import io.github.lunasaw.voglander.common.exception.ServiceException;
+import io.github.lunasaw.voglander.common.exception.ServiceExceptionEnum;
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskEventDTO;
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskProgressDTO;
+import io.github.lunasaw.voglander.manager.manager.BizTaskEventManager;
+import io.github.lunasaw.voglander.manager.manager.BizTaskExecutionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Write-behind business-task journal")
+class BizTaskJournalTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 7, 15, 11, 0);
+
+    @Mock
+    private BizTaskExecutionManager executionManager;
+
+    @Mock
+    private BizTaskEventManager eventManager;
+
+    private SimpleMeterRegistry registry;
+    private AtomicInteger commitRequests;
+    private BizTaskJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        commitRequests = new AtomicInteger();
+        journal = new BizTaskJournal(executionManager, eventManager, TransactionOperations.withoutTransaction(), 50,
+            commitRequests::incrementAndGet, new BusinessTaskMetrics(registry));
+    }
+
+    @Test
+    @DisplayName("同一 execution 在一个提交窗口内只保留最新 revision，进度与事件在一次组提交中写入")
+    void commit_shouldKeepLatestRevisionAndWriteOneGroup() {
+        journal.offerProgress(progress("bexec_a", 1, false), () -> {
+        });
+        journal.offerProgress(progress("bexec_a", 3, false), () -> {
+        });
+        journal.offerProgress(progress("bexec_a", 2, false), () -> {
+        });
+        journal.offerProgress(progress("bexec_b", 1, false), () -> {
+        });
+        journal.offerEvent(event("bexec_a"));
+        assertEquals(1, commitRequests.get());
+        assertEquals(3.0, registry.get("voglander.business.journal.depth").gauge().value());
+        when(executionManager.updateProgressBatch(anyList())).thenReturn(Collections.emptySet());
+
+        assertEquals(3, journal.commit());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BizTaskProgressDTO>> written = ArgumentCaptor.forClass(List.class);
+        verify(executionManager).updateProgressBatch(written.capture());
+        assertEquals(2, written.getValue().size());
+        assertTrue(written.getValue().stream()
+            .anyMatch(progress -> "bexec_a".equals(progress.getExecutionId()) && progress.getRevision() == 3L));
+        verify(eventManager).appendAll(anyList());
+        assertEquals(0, journal.depth());
+        assertEquals(1L, registry.get("voglander.business.journal.commit").tag("result", "GROUP").timer().count());
+        assertEquals(2.0, registry.get("voglander.business.journal.entries").tag("lane", "PROGRESS").counter()
+            .count());
+    }
+
+    @Test
+    @DisplayName("组提交失败时应逐条隔离写入，被拒绝的 claim 应回调所属上报方")
+    void commit_shouldIsolateEntriesWhenGroupFails() {
+        AtomicInteger rejected = new AtomicInteger();
+        journal.offerProgress(progress("bexec_ok", 1, false), rejected::incrementAndGet);
+        journal.offerProgress(progress("bexec_stale", 1, false), rejected::incrementAndGet);
+        when(executionManager.updateProgressBatch(anyList())).thenThrow(new IllegalStateException("busy"));
+        when(executionManager.updateProgress(any(BizTaskProgressDTO.class)))
+            .thenAnswer(invocation -> "bexec_ok".equals(
+                ((BizTaskProgressDTO)invocation.getArgument(0)).getExecutionId()));
+
+        assertEquals(2, journal.commit());
+
+        assertEquals(1, rejected.get());
+        assertEquals(1L, registry.get("voglander.business.journal.commit").tag("result", "ISOLATED").timer()
+            .count());
+    }
+
+    @Test
+    @DisplayName("隔离写入时数据库异常不是 claim 拒绝，进度应重新入队而不回调上报方")
+    void commit_shouldRequeueProgressWhoseIsolatedWriteThrows() {
+        AtomicInteger rejected = new AtomicInteger();
+        journal.offerProgress(progress("bexec_a", 1, false), rejected::incrementAndGet);
+        when(executionManager.updateProgressBatch(anyList())).thenThrow(new IllegalStateException("busy"));
+        when(executionManager.updateProgress(any(BizTaskProgressDTO.class)))
+            .thenThrow(new IllegalStateException("busy")).thenReturn(true);
+
+        assertEquals(1, journal.commit());
+        assertEquals(1, journal.depth());
+
+        assertEquals(1, journal.commit());
+        assertEquals(0, journal.depth());
+        assertEquals(0, rejected.get());
+        verify(executionManager, times(2)).updateProgress(any(BizTaskProgressDTO.class));
+
+        journal.offerProgress(progress("bexec_b", 1, false), rejected::incrementAndGet);
+        when(executionManager.updateProgress(any(BizTaskProgressDTO.class)))
+            .thenThrow(new IllegalStateException("down"));
+        while (journal.commit() > 0) {
+            // every attempt fails until the revision is dropped
+        }
+        verify(executionManager, times(2 + BizTaskJournal.MAX_WRITE_ATTEMPTS))
+            .updateProgress(any(BizTaskProgressDTO.class));
+        assertEquals(0, rejected.get());
+        assertEquals(0, journal.depth());
+    }
+
+    @Test
+    @DisplayName("隔离写入失败的事件应重新入队，超过有限次数后才丢弃")
+    void commit_shouldRequeueFailedEventsWithBoundedAttempts() {
+        journal.offerEvent(event("bexec_a"));
+        doThrow(new IllegalStateException("busy")).when(eventManager).appendAll(anyList());
+        doThrow(new IllegalStateException("busy")).doNothing().when(eventManager).append(any(BizTaskEventDTO.class));
+
+        assertEquals(1, journal.commit());
+        assertEquals(1, journal.depth());
+
+        assertEquals(1, journal.commit());
+        assertEquals(0, journal.depth());
+        verify(eventManager, times(2)).append(any(BizTaskEventDTO.class));
+
+        journal.offerEvent(event("bexec_b"));
+        doThrow(new IllegalStateException("down")).when(eventManager).append(any(BizTaskEventDTO.class));
+        while (journal.commit() > 0) {
+            // every attempt fails until the event is dropped
+        }
+        verify(eventManager, times(2 + BizTaskJournal.MAX_WRITE_ATTEMPTS)).append(any(BizTaskEventDTO.class));
+        assertEquals(0, journal.depth());
+    }
+
+    @Test
+    @DisplayName("journal 关闭后，仍在运行的 Handler 上报应在调用线程直接落库")
+    void close_shouldWriteLaterOffersOnTheCallerThread() {
+        when(executionManager.updateProgressBatch(anyList())).thenReturn(Collections.emptySet());
+        journal.close();
+
+        journal.offerProgress(progress("bexec_a", 1, false), () -> {
+        });
+        journal.offerEvent(event("bexec_a"));
+
+        assertEquals(0, journal.depth());
+        assertEquals(0, commitRequests.get());
+        verify(executionManager).updateProgressBatch(anyList());
+        verify(eventManager).appendAll(anyList());
+    }
+
+    @Test
+    @DisplayName("节流上报写入 journal 后返回；强制上报必须先落库，异步拒绝在下一次上报时表现为 claim 冲突")
+    void reporter_shouldWriteBehindAndFlushForcedRevisions() {
+        ThrottledTaskProgressReporter reporter = new ThrottledTaskProgressReporter(executionManager, 1_000L, 0L,
+            10L, 0L, null, NOW, journal);
+
+        reporter.accept(progress("bexec_a", 1, false));
+        verify(executionManager, never()).updateProgressBatch(anyList());
+        assertEquals(1, journal.depth());
+
+        when(executionManager.updateProgressBatch(anyList())).thenReturn(Collections.singleton("bexec_a"));
+        ServiceException conflict = assertThrows(ServiceException.class,
+            () -> reporter.accept(progress("bexec_a", 2, true)));
+
+        assertEquals(ServiceExceptionEnum.TASK_CLAIM_CONFLICT.getCode(), conflict.getCode());
+        assertEquals(0, journal.depth());
+    }
+
+    private BizTaskProgressDTO progress(String executionId, long revision, boolean forced) {
+        BizTaskProgressDTO progress = new BizTaskProgressDTO();
+        progress.setTaskId("btask_journal");
+        progress.setExecutionId(executionId);
+        progress.setClaimToken("token");
+        progress.setCurrent(revision);
+        progress.setTotal(10L);
+        progress.setMessage("collecting");
+        progress.setRevision(revision);
+        progress.setForcePersist(forced);
+        progress.setReportedAt(NOW.plusNanos(revision * 1_000_000L));
+        return progress;
+    }
+
+    private BizTaskEventDTO event(String executionId) {
+        BizTaskEventDTO event = new BizTaskEventDTO();
+        event.setEventId("bevt_journal");
+        event.setTaskId("btask_journal");
+        event.setExecutionId(executionId);
+        event.setEventType("RETRY_SCHEDULED");
+        event.setOccurredAt(NOW);
+        return event;
+    }
+}
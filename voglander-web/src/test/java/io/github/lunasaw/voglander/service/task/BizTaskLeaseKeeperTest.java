@@ -0,0 +1,128 @@
+package io.github.lunasaw.voglander.service.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.github.lunasaw.voglander.common.constant.task.TaskConstant;
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskExecutionDTO;
+import io.github.lunasaw.voglander.manager.manager.BizTaskExecutionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Node-level business-task lease keeper")
+class BizTaskLeaseKeeperTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 7, 15, 11, 0);
+
+    @Mock
+    private BizTaskExecutionManager executionManager;
+
+    private SimpleMeterRegistry registry;
+    private BizTaskLeaseKeeper keeper;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-07-15T11:00:00Z"), ZoneOffset.UTC);
+        registry = new SimpleMeterRegistry();
+        keeper = new BizTaskLeaseKeeper(executionManager, clock, "node-a", 90, new BusinessTaskMetrics(registry));
+    }
+
+    @Test
+    @DisplayName("一次续约应把本节点所有存活 claim 合并为一条语句，丢失的租约应标记取消并停止续约")
+    void renewLeases_shouldBatchAllClaimsAndCancelLostOnes() {
+        BizTaskLeaseKeeper.Lease kept = keeper.register("bexec_kept", "token-kept");
+        BizTaskLeaseKeeper.Lease stolen = keeper.register("bexec_stolen", "token-stolen");
+        when(executionManager.heartbeatBatch(eq("node-a"), anyList(), eq(NOW), eq(NOW.plusSeconds(90))))
+            .thenReturn(Collections.singleton("bexec_kept"));
+
+        assertEquals(2, keeper.renewLeases());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BizTaskExecutionDTO>> leases = ArgumentCaptor.forClass(List.class);
+        verify(executionManager).heartbeatBatch(eq("node-a"), leases.capture(), eq(NOW), eq(NOW.plusSeconds(90)));
+        assertEquals(new HashSet<>(List.of("bexec_kept:token-kept", "bexec_stolen:token-stolen")),
+            leases.getValue().stream().map(lease -> lease.getExecutionId() + ':' + lease.getClaimToken())
+                .collect(Collectors.toSet()));
+        assertTrue(kept.isHeld());
+        assertTrue(stolen.isLost());
+        assertEquals(1, keeper.liveLeases());
+        assertEquals(1.0, registry.get("voglander.business.lease.renewal").tag("result", "RENEWED").counter().count());
+        assertEquals(1.0, registry.get("voglander.business.lease.renewal").tag("result", "LOST").counter().count());
+        assertEquals(1L, registry.get("voglander.business.lease.renewal.latency").timer().count());
+    }
+
+    @Test
+    @DisplayName("Handler 返回后释放的租约即使未出现在续约结果中也不得计为丢失")
+    void renewLeases_shouldNotCountReleasedLeasesAsLost() {
+        BizTaskLeaseKeeper.Lease finished = keeper.register("bexec_finished", "token-finished");
+        keeper.release(finished);
+
+        assertEquals(0, keeper.renewLeases());
+
+        verifyNoInteractions(executionManager);
+        assertFalse(finished.isLost());
+    }
+
+    @Test
+    @DisplayName("认领即登记的租约在 Handler 开始前也被续约；续约成功延长本地租约，丢失后不再视为持有")
+    void renewLeases_shouldExtendClaimsBeforeHandlerStarts() {
+        keeper.register("bexec_waiting", "token-waiting", NOW.plusSeconds(5));
+        keeper.register("bexec_gone", "token-gone", NOW.plusSeconds(5));
+        when(executionManager.heartbeatBatch(eq("node-a"), anyList(), eq(NOW), eq(NOW.plusSeconds(90))))
+            .thenReturn(Collections.singleton("bexec_waiting"));
+
+        assertEquals(2, keeper.renewLeases());
+
+        BizTaskLeaseKeeper.Lease waiting = keeper.held("bexec_waiting", "token-waiting");
+        assertTrue(waiting.isCurrent(NOW.plusSeconds(60)));
+        assertFalse(waiting.isCurrent(NOW.plusSeconds(90)));
+        assertNull(keeper.held("bexec_waiting", "stale-token"));
+        assertNull(keeper.held("bexec_gone", "token-gone"));
+    }
+
+    @Test
+    @DisplayName("存活租约超过单语句上限时应分片续约")
+    void renewLeases_shouldChunkLargeNodes() {
+        int total = TaskConstant.MAX_LEASES_PER_HEARTBEAT + 1;
+        Set<String> all = new HashSet<>();
+        for (int i = 0; i < total; i++) {
+            keeper.register("bexec_" + i, "token_" + i);
+            all.add("bexec_" + i);
+        }
+        when(executionManager.heartbeatBatch(eq("node-a"), anyList(), any(LocalDateTime.class),
+            any(LocalDateTime.class))).thenReturn(all);
+
+        assertEquals(total, keeper.renewLeases());
+
+        verify(executionManager, times(2)).heartbeatBatch(eq("node-a"), anyList(), any(LocalDateTime.class),
+            any(LocalDateTime.class));
+        assertEquals(total, keeper.liveLeases());
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.lunasaw.voglander.service.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.github.lunasaw.voglander.manager.domaon.dto.task.BizTaskDTO;
+
+@DisplayName("Business-task runtime wake-ups")
+class BusinessTaskWakeupsTest {
+
+    private static final Instant FUTURE = Instant.now().plusSeconds(3_600).truncatedTo(ChronoUnit.SECONDS);
+    private static final LocalDateTime FUTURE_TIME = LocalDateTime.ofInstant(FUTURE, ZoneOffset.UTC);
+
+    private StringRedisTemplate redisTemplate;
+    private BusinessTaskWakeups wakeups;
+    private TaskRuntimeLoop dispatchLoop;
+    private TaskRuntimeLoop scheduleLoop;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        wakeups = new BusinessTaskWakeups(redisTemplate, null, Clock.systemUTC());
+        dispatchLoop = new TaskRuntimeLoop("DISPATCH", () -> 0, 10, 100L, 1_000L, Clock.systemUTC(), null);
+        scheduleLoop = new TaskRuntimeLoop("SCHEDULE", () -> 0, 10, 100L, 1_000L, Clock.systemUTC(), null);
+        wakeups.bind(dispatchLoop, scheduleLoop);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("到期提示应写入本地 timeline 并向其他节点发布")
+    void executionDue_shouldWakeLocalLoopAndNudgeOtherNodes() {
+        wakeups.executionDue(FUTURE_TIME);
+
+        assertEquals(1, dispatchLoop.pendingDeadlines());
+        assertEquals(0, scheduleLoop.pendingDeadlines());
+        verify(redisTemplate).convertAndSend(BusinessTaskWakeups.CHANNEL,
+            wakeups.nodeId() + "|EXECUTION|" + FUTURE.toEpochMilli());
+    }
+
+    @Test
+    @DisplayName("远端提示应唤醒对应循环，本节点自身消息与畸形消息应被忽略")
+    void onRemote_shouldIgnoreOwnAndMalformedMessages() {
+        wakeups.onRemote(wakeups.nodeId() + "|TASK|" + FUTURE.toEpochMilli());
+        wakeups.onRemote("other|TASK|not-a-number");
+        wakeups.onRemote("|TASK|" + FUTURE.toEpochMilli());
+        assertEquals(0, scheduleLoop.pendingDeadlines());
+
+        wakeups.onRemote("other|TASK|" + FUTURE.toEpochMilli());
+
+        assertEquals(1, scheduleLoop.pendingDeadlines());
+        assertEquals(0, dispatchLoop.pendingDeadlines());
+    }
+
+    @Test
+    @DisplayName("新建周期任务的唤醒必须等到创建事务提交之后")
+    void taskAccepted_shouldDeferWakeUntilCommit() {
+        BizTaskDTO task = new BizTaskDTO();
+        task.setTaskMode("AT_TIME");
+        task.setNextPlanTime(FUTURE_TIME);
+        TransactionSynchronizationManager.initSynchronization();
+
+        wakeups.taskAccepted(task, null);
+
+        assertEquals(0, scheduleLoop.pendingDeadlines());
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, scheduleLoop.pendingDeadlines());
+        verify(redisTemplate).convertAndSend(BusinessTaskWakeups.CHANNEL,
+            wakeups.nodeId() + "|TASK|" + FUTURE.toEpochMilli());
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.lunasaw.voglander.service.task;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Business-task runtime loop")
+class TaskRuntimeLoopTest {
+
+    @Test
+    @DisplayName("满批次立即重扫，部分命中用最小间隔，空扫按指数退避到上限，异常退到上限")
+    void runOnce_shouldAdaptIntervalToScanResult() {
+        Deque<Integer> results = new ArrayDeque<>(Arrays.asList(10, 3, 0, 0, 0, 0, 1, -1));
+        TaskRuntimeLoop loop = new TaskRuntimeLoop("DISPATCH", () -> {
+            int found = results.pop();
+            if (found < 0) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return found;
+        }, 10, 100L, 500L, Clock.systemUTC(), null);
+
+        assertEquals(0L, loop.runOnce(Long.MAX_VALUE));
+        assertEquals(100L, loop.runOnce(Long.MAX_VALUE));
+        assertEquals(100L, loop.runOnce(Long.MAX_VALUE));
+        assertEquals(200L, loop.runOnce(Long.MAX_VALUE));
+        assertEquals(400L, loop.runOnce(Long.MAX_VALUE));
+        assertEquals(500L, loop.runOnce(Long.MAX_VALUE));
+        assertEquals(100L, loop.runOnce(Long.MAX_VALUE));
+        assertEquals(500L, loop.runOnce(Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("空闲退避中的循环应被 signal 立即唤醒，并按到期时间唤醒 timeline 中的截止点")
+    void signalAndDeadlines_shouldCutTheIdleBackoffShort() {
+        AtomicInteger scans = new AtomicInteger();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TaskRuntimeLoop loop = new TaskRuntimeLoop("SCHEDULE", () -> {
+            scans.incrementAndGet();
+            return 0;
+        }, 10, 60_000L, 60_000L, Clock.systemUTC(), new BusinessTaskMetrics(registry));
+        loop.start();
+        try {
+            await().atMost(Duration.ofSeconds(2)).until(() -> scans.get() == 1);
+
+            loop.signal();
+            await().atMost(Duration.ofSeconds(2)).until(() -> scans.get() == 2);
+
+            loop.dueAt(System.currentTimeMillis() + 200L);
+            assertEquals(1, loop.pendingDeadlines());
+            await().atMost(Duration.ofSeconds(2)).until(() -> scans.get() == 3);
+            assertEquals(0, loop.pendingDeadlines());
+            assertEquals(3L, registry.get("voglander.business.runtime.scan").tag("loop", "SCHEDULE")
+                .tag("result", "IDLE").timer().count());
+            assertTrue(registry.get("voglander.business.runtime.lag").tag("loop", "SCHEDULE").timer().count() >= 2);
+        } finally {
+            loop.stop();
+        }
+        assertFalse(loop.isRunning());
+    }
+
+    @Test
+    @DisplayName("timeline 满时保留最早的截止点并丢弃最晚的")
+    void timeline_shouldKeepEarliestDeadlinesWithinCapacity() {
+        TaskDueTimeline timeline = new TaskDueTimeline(2);
+
+        assertTrue(timeline.offer(300L));
+        assertTrue(timeline.offer(100L));
+        assertFalse(timeline.offer(400L));
+        assertFalse(timeline.offer(200L));
+
+        assertEquals(2, timeline.size());
+        assertEquals(100L, timeline.earliest());
+        assertEquals(100L, timeline.pollDue(250L));
+        assertEquals(Long.MAX_VALUE, timeline.earliest());
+    }
+}
@@ -51,7 +51,7 @@ class SseControllerTest {
         user.setId(1L);
         user.setPermissions(java.util.Collections.emptyList());
         when(authService.getUserByToken("tok")).thenReturn(user);
-        when(sseEventBus.register(any(SseSubscriptionContext.class))).thenReturn(new SseEmitter());
+        when(sseEventBus.register(any(SseSubscriptionContext.class), isNull())).thenReturn(new SseEmitter());
         mvc.perform(get("/api/v1/stream/events").param("token", "tok"))
             .andExpect(status().isOk());
     }
@@ -62,7 +62,7 @@ class SseControllerTest {
         user.setId(42L);
         user.setPermissions(java.util.Collections.emptyList());
         when(authService.getUserByToken("secret-token-value")).thenReturn(user);
-        when(sseEventBus.register(any(SseSubscriptionContext.class))).thenReturn(new SseEmitter());
+        when(sseEventBus.register(any(SseSubscriptionContext.class), isNull())).thenReturn(new SseEmitter());
         org.mockito.ArgumentCaptor<SseSubscriptionContext> context =
             org.mockito.ArgumentCaptor.forClass(SseSubscriptionContext.class);
 
@@ -71,9 +71,25 @@ class SseControllerTest {
                 .param("topics", "device,live"))
             .andExpect(status().isOk());
 
-        verify(sseEventBus).register(context.capture());
+        verify(sseEventBus).register(context.capture(), isNull());
         org.junit.jupiter.api.Assertions.assertEquals("42", context.getValue().getUserId());
         org.junit.jupiter.api.Assertions.assertFalse(
             context.getValue().getEmitterId().contains("secret-token-value"));
     }
+
+    @Test
+    void subscribe_forwardsLastEventIdHeaderForReplay() throws Exception {
+        UserDTO user = new UserDTO();
+        user.setId(7L);
+        user.setPermissions(java.util.Collections.emptyList());
+        when(authService.getUserByToken("tok")).thenReturn(user);
+        when(sseEventBus.register(any(SseSubscriptionContext.class), eq("1700000000000-3"))).thenReturn(new SseEmitter());
+
+        mvc.perform(get("/api/v1/stream/events")
+                .param("token", "tok")
+                .header("Last-Event-ID", "1700000000000-3"))
+            .andExpect(status().isOk());
+
+        verify(sseEventBus).register(any(SseSubscriptionContext.class), eq("1700000000000-3"));
+    }
 }
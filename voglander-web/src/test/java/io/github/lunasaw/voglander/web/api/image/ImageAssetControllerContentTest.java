@@ -1,5 +1,6 @@
 package io.github.lunasaw.voglander.web.api.image;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -38,7 +39,7 @@ class ImageAssetControllerContentTest {
         ImageStorageService storage = mock(ImageStorageService.class);
         ImageAssetController controller = controller(actorResolver, assets, storage);
 
-        ResponseEntity<StreamingResponseBody> result = controller.content("Bearer token", "\"sha256:abc\"", "img_1");
+        ResponseEntity<StreamingResponseBody> result = controller.content("Bearer token", "\"sha256:abc\"", "img_1", null, null);
 
         assertEquals(304, result.getStatusCode().value());
         org.mockito.Mockito.verify(storage, org.mockito.Mockito.never()).open("images/x.jpg");
@@ -55,12 +56,37 @@ class ImageAssetControllerContentTest {
         when(storage.open("images/x.jpg")).thenReturn(new ImageContent(new ByteArrayInputStream(new byte[] {1, 2}), 2));
         ImageAssetController controller = controller(actorResolver, assets, storage);
 
-        ResponseEntity<StreamingResponseBody> result = controller.download("Bearer token", "img_1");
+        ResponseEntity<StreamingResponseBody> result = controller.download("Bearer token", "img_1", null, null);
 
         assertTrue(result.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("safe.jpg"));
         assertEquals("\"sha256:abc\"", result.getHeaders().getETag());
     }
 
+    @Test
+    void rangeRequestsServeOnePartialSliceAndHonourIfRange() throws Exception {
+        ImageActorResolver actorResolver = mock(ImageActorResolver.class); UserDTO actor = actor();
+        when(actorResolver.resolve("Bearer token")).thenReturn(actor);
+        ImageAssetManager assets = mock(ImageAssetManager.class); when(assets.getByAssetId("img_1")).thenReturn(asset());
+        ImageStorageService storage = mock(ImageStorageService.class);
+        byte[] bytes = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        when(storage.open("images/x.jpg")).thenAnswer(invocation -> new ImageContent(new ByteArrayInputStream(bytes), bytes.length));
+        ImageAssetController controller = controller(actorResolver, assets, storage);
+
+        ResponseEntity<StreamingResponseBody> partial = controller.content("Bearer token", null, "img_1", "bytes=2-4", "\"sha256:abc\"");
+        ResponseEntity<StreamingResponseBody> stale = controller.content("Bearer token", null, "img_1", "bytes=2-4", "\"sha256:old\"");
+        ResponseEntity<StreamingResponseBody> tooFar = controller.download("Bearer token", "img_1", "bytes=10-", null);
+
+        assertEquals(206, partial.getStatusCode().value());
+        assertEquals("bytes 2-4/10", partial.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(3L, partial.getHeaders().getContentLength());
+        assertArrayEquals(new byte[] {2, 3, 4}, write(partial.getBody()));
+        assertEquals(200, stale.getStatusCode().value());
+        assertEquals("bytes", stale.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertArrayEquals(bytes, write(stale.getBody()));
+        assertEquals(416, tooFar.getStatusCode().value());
+        assertEquals("bytes */10", tooFar.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
     @Test
     void deleteAndRetryWriteStructuredAuditWithoutStoragePath() {
         ImageActorResolver actorResolver = mock(ImageActorResolver.class); UserDTO actor = actor();
@@ -90,6 +116,12 @@ class ImageAssetControllerContentTest {
         return controller;
     }
 
+    private static byte[] write(StreamingResponseBody body) throws Exception {
+        java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream();
+        body.writeTo(output);
+        return output.toByteArray();
+    }
+
     private static UserDTO actor() { UserDTO user = new UserDTO(); user.setId(7L); user.setPermissions(Arrays.asList(ImageConstant.PERMISSION_ASSET_VIEW, ImageConstant.PERMISSION_ASSET_DOWNLOAD)); return user; }
     private static ImageAssetDTO asset() { ImageAssetDTO value = new ImageAssetDTO(); value.setAssetId("img_1"); value.setStatus("AVAILABLE"); value.setChecksum("abc"); value.setStorageKey("images/x.jpg"); value.setContentType("image/jpeg"); value.setImageFormat("JPEG"); value.setAssetName("image.jpg"); value.setCapturedAt(LocalDateTime.now()); return value; }
 }
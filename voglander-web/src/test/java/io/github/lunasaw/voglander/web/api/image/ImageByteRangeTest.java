@@ -0,0 +1,44 @@
+package io.github.lunasaw.voglander.web.api.image;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class ImageByteRangeTest {
+    private static final String ETAG = "\"sha256:abc\"";
+
+    @Test
+    void resolvesClosedOpenAndSuffixRangesClampedToLength() {
+        assertEquals("bytes 0-99/1000", ImageByteRange.resolve("bytes=0-99", null, ETAG, 1000).contentRange(1000));
+        assertEquals("bytes 900-999/1000", ImageByteRange.resolve("bytes=900-", null, ETAG, 1000).contentRange(1000));
+        assertEquals("bytes 900-999/1000", ImageByteRange.resolve("bytes=900-5000", null, ETAG, 1000).contentRange(1000));
+        assertEquals("bytes 750-999/1000", ImageByteRange.resolve("Bytes=-250", null, ETAG, 1000).contentRange(1000));
+        assertEquals("bytes 0-999/1000", ImageByteRange.resolve("bytes=-5000", null, ETAG, 1000).contentRange(1000));
+        assertEquals(1L, ImageByteRange.resolve("bytes=7-7", null, ETAG, 1000).length());
+        assertEquals(1000L, ImageByteRange.resolve("bytes=0-99999999999999999999999", null, ETAG, 1000).length());
+    }
+
+    @Test
+    void malformedMultiAndStaleRangesFallBackToFullRepresentation() {
+        assertNull(ImageByteRange.resolve(null, null, ETAG, 1000));
+        assertNull(ImageByteRange.resolve("items=0-1", null, ETAG, 1000));
+        assertNull(ImageByteRange.resolve("bytes=0-1,5-6", null, ETAG, 1000));
+        assertNull(ImageByteRange.resolve("bytes=5-1", null, ETAG, 1000));
+        assertNull(ImageByteRange.resolve("bytes=-", null, ETAG, 1000));
+        assertNull(ImageByteRange.resolve("bytes=a-b", null, ETAG, 1000));
+        assertNull(ImageByteRange.resolve("bytes=0-1", "\"sha256:old\"", ETAG, 1000));
+        assertNull(ImageByteRange.resolve("bytes=0-1", "W/" + ETAG, ETAG, 1000));
+        assertNull(ImageByteRange.resolve("bytes=0-1", "Wed, 21 Oct 2015 07:28:00 GMT", ETAG, 1000));
+        assertEquals(0L, ImageByteRange.resolve("bytes=0-1", ETAG, ETAG, 1000).start());
+    }
+
+    @Test
+    void rangesPastTheEndAreUnsatisfiable() {
+        assertSame(ImageByteRange.UNSATISFIABLE, ImageByteRange.resolve("bytes=1000-", null, ETAG, 1000));
+        assertSame(ImageByteRange.UNSATISFIABLE, ImageByteRange.resolve("bytes=-0", null, ETAG, 1000));
+        assertSame(ImageByteRange.UNSATISFIABLE, ImageByteRange.resolve("bytes=-10", null, ETAG, 0));
+        assertEquals("bytes */1000", ImageByteRange.unsatisfiedContentRange(1000));
+    }
+}
@@ -66,7 +66,7 @@ class ImageOpenApiContractTest {
         assertRequired(field(BusinessTaskControlReq.class, "expectedVersion"));
         assertRequired(field(ImageCollectionRescheduleReq.class, "expectedVersion"));
 
-        Method subscribe = SseController.class.getDeclaredMethod("subscribe", String.class, String.class);
+        Method subscribe = SseController.class.getDeclaredMethod("subscribe", String.class, String.class, String.class);
         Parameter topics = subscribe.getParameters()[0].getAnnotation(Parameter.class);
         assertNotNull(topics);
         for (String required : new String[] {"device", "live", "alarm", "business.task", "image.asset", "权限"}) {
@@ -141,6 +141,47 @@ CREATE TABLE tb_media_session
 CREATE INDEX IF NOT EXISTS idx_media_session_status_node ON tb_media_session (status, node_server_id);
 CREATE INDEX IF NOT EXISTS idx_media_session_device_channel ON tb_media_session (device_id, channel_id, status);
 
+-- 媒体流量时间桶汇总表
+DROP TABLE IF EXISTS tb_media_flow_rollup;
+CREATE TABLE tb_media_flow_rollup
+(
+    id           INTEGER PRIMARY KEY AUTOINCREMENT,
+    create_time  DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time  DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    granularity  VARCHAR(8)   NOT NULL,
+    bucket_start DATETIME     NOT NULL,
+    dimension    VARCHAR(16)  NOT NULL,
+    dim_key      VARCHAR(160) NOT NULL,
+    total_bytes  INTEGER      NOT NULL DEFAULT 0,
+    duration_sec INTEGER      NOT NULL DEFAULT 0,
+    player_count INTEGER      NOT NULL DEFAULT 0,
+    report_count INTEGER      NOT NULL DEFAULT 0,
+    UNIQUE (granularity, dimension, dim_key, bucket_start)
+);
+CREATE INDEX IF NOT EXISTS idx_media_flow_rollup_window ON tb_media_flow_rollup (granularity, dimension, bucket_start);
+
+-- MP4 录像片段索引表
+DROP TABLE IF EXISTS tb_media_record_segment;
+CREATE TABLE tb_media_record_segment
+(
+    id              INTEGER PRIMARY KEY AUTOINCREMENT,
+    create_time     DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time     DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    media_server_id VARCHAR(64)  NOT NULL,
+    app             VARCHAR(64)  NOT NULL,
+    stream          VARCHAR(128) NOT NULL,
+    device_id       VARCHAR(64),
+    channel_id      VARCHAR(64),
+    file_path       VARCHAR(512) NOT NULL,
+    url             VARCHAR(512),
+    file_size       INTEGER      NOT NULL DEFAULT 0,
+    start_time      INTEGER      NOT NULL,
+    end_time        INTEGER      NOT NULL,
+    UNIQUE (media_server_id, file_path)
+);
+CREATE INDEX IF NOT EXISTS idx_media_record_segment_channel ON tb_media_record_segment (device_id, channel_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_media_record_segment_stream ON tb_media_record_segment (stream, start_time);
+
 -- 告警表
 DROP TABLE IF EXISTS tb_alarm;
 CREATE TABLE tb_alarm